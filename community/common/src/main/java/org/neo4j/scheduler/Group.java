@@ -35,6 +35,8 @@ public enum Group
     PAGE_CACHE_EVICTION( "PageCacheEviction" ),
     /* Page cache background eviction. */
     PAGE_CACHE_PRE_FETCHER( "PageCachePreFetcher", ExecutorServiceFactory.cachedWithDiscard(), 4 ),
+    /* Page cache background write-back of dirty pages. */
+    PAGE_CACHE_WRITE_BACK( "PageCacheWriteBack" ),
     /** Watch out for, and report, external manipulation of store files. */
     FILE_WATCHER( "FileWatcher", ExecutorServiceFactory.unschedulable() ),
     /** Monitor and report system-wide pauses, in case they lead to service interruption. */
@@ -45,6 +47,8 @@ public enum Group
     CHECKPOINT( "CheckPoint" ),
     /** Various little periodic tasks that need to be done on a regular basis to keep the store in good shape. */
     STORAGE_MAINTENANCE( "StorageMaintenance" ),
+    /** Writes the records of a batch of transactions to the stores in parallel. */
+    TRANSACTION_APPLY( "TransactionApply" ),
     /** Index recovery cleanup. */
     INDEX_CLEANUP( "IndexCleanup" ),
     /** Index recovery cleanup work. */
@@ -30,6 +30,7 @@ import java.util.SplittableRandom;
 import java.util.function.Consumer;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
@@ -40,6 +41,7 @@ import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.pagecache.PageCacheExtension;
 import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.util.FeatureToggles;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.eclipse.collections.api.factory.Sets.immutable;
@@ -72,7 +74,7 @@ class PageCachePrefetchingTest
 
         runScan( file, tracer, "Warmup", PF_READ_AHEAD );
         long faultsWithPreFetch = runScan( file, tracer, "Scanner With Prefetch", PF_READ_AHEAD );
-        long faultsWithoutPreFetch = runScan( file, tracer, "Scanner Without Prefetch", 0 );
+        long faultsWithoutPreFetch = runScanWithoutReadAhead( file, tracer, "Scanner Without Prefetch" );
 
         assertThat( faultsWithPreFetch ).as( "faults" ).isLessThan( faultsWithoutPreFetch );
     }
@@ -106,11 +108,37 @@ class PageCachePrefetchingTest
 
         runScan( file, tracer, "Warmup", PF_READ_AHEAD );
         long faultsWithPreFetch = runScan( file, tracer, "Scanner With Prefetch", PF_READ_AHEAD );
-        long faultsWithoutPreFetch = runScan( file, tracer, "Scanner Without Prefetch", 0 );
+        long faultsWithoutPreFetch = runScanWithoutReadAhead( file, tracer, "Scanner Without Prefetch" );
 
         assertThat( faultsWithPreFetch ).as( "faults" ).isLessThan( faultsWithoutPreFetch );
     }
 
+    @Test
+    void scanningWithAdaptiveReadAheadMustGiveScannerFewerPageFaults() throws Exception
+    {
+        scanner = cursor -> cursor.putBytes( PageCache.PAGE_SIZE, (byte) 0xA7 );
+
+        runScan( file, tracer, "Warmup", 0 );
+        long faultsWithReadAhead = runScan( file, tracer, "Scanner With Read-Ahead", 0 );
+        long faultsWithoutReadAhead = runScanWithoutReadAhead( file, tracer, "Scanner Without Read-Ahead" );
+
+        assertThat( faultsWithReadAhead ).as( "faults" ).isLessThan( faultsWithoutReadAhead );
+    }
+
+    private long runScanWithoutReadAhead( Path file, DefaultPageCursorTracer tracer, String threadName ) throws InterruptedException
+    {
+        // Cursors without PF_READ_AHEAD still read ahead when they detect a scan, unless adaptive read-ahead is disabled.
+        FeatureToggles.set( MuninnPageCache.class, MuninnPageCache.MAX_READ_AHEAD_WINDOW_NAME, 0 );
+        try
+        {
+            return runScan( file, tracer, threadName, 0 );
+        }
+        finally
+        {
+            FeatureToggles.clear( MuninnPageCache.class, MuninnPageCache.MAX_READ_AHEAD_WINDOW_NAME );
+        }
+    }
+
     private long runScan( Path file, DefaultPageCursorTracer tracer, String threadName, int additionalPfFlags ) throws InterruptedException
     {
         long faultsWith;
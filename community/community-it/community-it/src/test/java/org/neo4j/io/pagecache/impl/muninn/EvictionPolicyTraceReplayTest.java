@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.time.Clocks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.io.pagecache.buffer.IOBufferFactory.DISABLED_BUFFER_FACTORY;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+
+/**
+ * Replays page access traces against page caches with different {@link EvictionPolicy eviction policies}, and compares
+ * their hit ratios.
+ */
+@EphemeralTestDirectoryExtension
+class EvictionPolicyTraceReplayTest
+{
+    private static final int CACHE_PAGES = 1_000;
+
+    @Inject
+    private FileSystemAbstraction fs;
+    @Inject
+    private TestDirectory directory;
+
+    private ThreadPoolJobScheduler jobScheduler;
+
+    @BeforeEach
+    void setUp()
+    {
+        jobScheduler = new ThreadPoolJobScheduler();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        jobScheduler.close();
+    }
+
+    @Test
+    void scanResistantPolicyMustKeepWorkingSetCachedDuringScans() throws IOException
+    {
+        PageAccessTrace trace = PageAccessTrace.workingSetWithScans( CACHE_PAGES / 2, CACHE_PAGES * 4, 5, 2, 42 );
+
+        double clockHitRatio = replay( trace, EvictionPolicy.CLOCK );
+        double scanResistantHitRatio = replay( trace, EvictionPolicy.SCAN_RESISTANT );
+
+        assertThat( scanResistantHitRatio ).isGreaterThan( clockHitRatio );
+    }
+
+    @Test
+    void allPoliciesMustHitEverythingWhenWorkingSetFitsInCache() throws IOException
+    {
+        PageAccessTrace trace = new PageAccessTrace();
+        for ( int round = 0; round < 10; round++ )
+        {
+            for ( int page = 0; page < CACHE_PAGES / 4; page++ )
+            {
+                trace.access( round % 2, page );
+            }
+        }
+
+        for ( EvictionPolicy policy : EvictionPolicy.values() )
+        {
+            // Only the first of the five rounds over each file faults.
+            assertThat( replay( trace, policy ) ).as( policy.name() ).isGreaterThanOrEqualTo( 0.8 );
+        }
+    }
+
+    @Test
+    void traceMustSurviveTextualRoundTrip() throws IOException
+    {
+        PageAccessTrace trace = PageAccessTrace.workingSetWithScans( 10, 100, 2, 3, 1 );
+        StringWriter writer = new StringWriter();
+        trace.write( writer );
+
+        PageAccessTrace copy = PageAccessTrace.read( new StringReader( "# comment\n\n" + writer ) );
+
+        StringWriter copyWriter = new StringWriter();
+        copy.write( copyWriter );
+        assertThat( copy.size() ).isEqualTo( trace.size() );
+        assertThat( copyWriter.toString() ).isEqualTo( writer.toString() );
+    }
+
+    private double replay( PageAccessTrace trace, EvictionPolicy policy ) throws IOException
+    {
+        Path replayDirectory = directory.directory( policy.name() );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        MemoryAllocator allocator = MemoryAllocator.createAllocator( MuninnPageCache.memoryRequiredForPages( CACHE_PAGES ), memoryTracker );
+        try ( MuninnPageCache pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), allocator, tracer, EMPTY, jobScheduler,
+                Clocks.nanoClock(), memoryTracker, DISABLED_BUFFER_FACTORY, policy ) )
+        {
+            return trace.replay( pageCache, replayDirectory, tracer );
+        }
+        finally
+        {
+            allocator.close();
+        }
+    }
+}
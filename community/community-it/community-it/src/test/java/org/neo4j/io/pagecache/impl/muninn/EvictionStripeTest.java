@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.monitoring.EvictionStripeStatistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.io.ByteUnit.MebiByte;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+class EvictionStripeTest
+{
+    private static final int PAGE_COUNT = 128;
+
+    private MemoryAllocator mman;
+    private PageList pageList;
+
+    @BeforeEach
+    void setUp()
+    {
+        mman = MemoryAllocator.createAllocator( MebiByte.toBytes( 1 ), INSTANCE );
+        int pageSize = UnsafeUtil.pageSize();
+        long victimPage = VictimPageReference.getVictimPage( pageSize, INSTANCE );
+        pageList = new PageList( PAGE_COUNT, pageSize, mman, new SwapperSet(), victimPage, 8, EvictionPolicy.CLOCK, INSTANCE );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        mman.close();
+    }
+
+    @Test
+    void mustOnlyHandOutPagesWithinTheStripe()
+    {
+        EvictionStripe stripe = new EvictionStripe( pageList, 1, 32, 64, 30 );
+
+        for ( int pageId = 32; pageId < 64; pageId++ )
+        {
+            assertThat( stripe.hasUnusedPages() ).isTrue();
+            assertThat( stripe.grabFreePage() ).isEqualTo( pageList.deref( pageId ) );
+        }
+        assertThat( stripe.grabFreePage() ).isZero();
+        assertThat( stripe.hasUnusedPages() ).isFalse();
+        assertThat( stripe.hasFreePages() ).isFalse();
+    }
+
+    @Test
+    void mustHandOutFreedPagesAgain()
+    {
+        EvictionStripe stripe = new EvictionStripe( pageList, 0, 0, 4, 30 );
+        for ( int i = 0; i < 4; i++ )
+        {
+            stripe.grabFreePage();
+        }
+        assertThat( stripe.grabFreePage() ).isZero();
+
+        stripe.addFreePage( pageList.deref( 1 ) );
+        stripe.addFreePage( pageList.deref( 3 ) );
+
+        assertThat( stripe.hasFreePages() ).isTrue();
+        assertThat( stripe.grabFreePage() ).isEqualTo( pageList.deref( 3 ) );
+        assertThat( stripe.grabFreePage() ).isEqualTo( pageList.deref( 1 ) );
+        assertThat( stripe.grabFreePage() ).isZero();
+    }
+
+    @Test
+    void keepFreeMustBeLimitedByStripeSize()
+    {
+        assertThat( new EvictionStripe( pageList, 0, 0, 128, 30 ).keepFree ).isEqualTo( 30 );
+        assertThat( new EvictionStripe( pageList, 0, 0, 20, 30 ).keepFree ).isEqualTo( 10 );
+    }
+
+    @Test
+    void mustReportNumberOfPagesToEvictToKeepEnoughPagesFree()
+    {
+        EvictionStripe stripe = new EvictionStripe( pageList, 0, 0, 20, 30 );
+        int keepFree = stripe.keepFree;
+        assertThat( stripe.tryGetNumberOfAvailablePages( keepFree ) ).isEqualTo( EvictionStripe.UNKNOWN_AVAILABLE_PAGES );
+
+        for ( int i = 0; i < 20; i++ )
+        {
+            stripe.grabFreePage();
+        }
+        stripe.grabFreePage();
+        assertThat( stripe.tryGetNumberOfAvailablePages( keepFree ) ).isEqualTo( keepFree );
+
+        stripe.addFreePage( pageList.deref( 7 ) );
+        assertThat( stripe.tryGetNumberOfAvailablePages( keepFree ) ).isEqualTo( keepFree - 1 );
+    }
+
+    @Test
+    void mustThrowWhenGrabbingPagesAfterShutdown()
+    {
+        EvictionStripe stripe = new EvictionStripe( pageList, 0, 0, 20, 30 );
+        stripe.signalShutdown();
+
+        assertThrows( IllegalStateException.class, stripe::grabFreePage );
+    }
+
+    @Test
+    void mustSummariseFaultAndEvictionStatistics()
+    {
+        EvictionStripe stripe = new EvictionStripe( pageList, 3, 0, 20, 30 );
+        stripe.pagesFaulted( 1, 100 );
+        stripe.pagesFaulted( 1, 300 );
+        stripe.pagesFaulted( 2, 200 );
+        stripe.pageEvicted();
+        stripe.pageCooperativelyEvicted();
+        stripe.pageCooperativelyEvicted();
+
+        EvictionStripeStatistics statistics = stripe.statistics();
+        assertThat( statistics.stripe() ).isEqualTo( 3 );
+        assertThat( statistics.pages() ).isEqualTo( 20 );
+        assertThat( statistics.faults() ).isEqualTo( 4 );
+        assertThat( statistics.faultNanos() ).isEqualTo( 600 );
+        assertThat( statistics.averageFaultNanos() ).isEqualTo( 150 );
+        assertThat( statistics.maxFaultNanos() ).isEqualTo( 300 );
+        assertThat( statistics.evictions() ).isEqualTo( 1 );
+        assertThat( statistics.cooperativeEvictions() ).isEqualTo( 2 );
+    }
+}
@@ -53,6 +53,7 @@ import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.monitoring.EvictionStripeStatistics;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.DelegatingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
@@ -60,12 +61,14 @@ import org.neo4j.io.pagecache.tracing.FlushEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer.Fault;
 import org.neo4j.memory.ScopedMemoryTracker;
+import org.neo4j.util.FeatureToggles;
 
 import static java.time.Duration.ofMillis;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -1320,6 +1323,285 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         } );
     }
 
+    @Test
+    void touchMustLoadPagesWithinFileIntoCache() throws IOException
+    {
+        writeInitialDataTo( file( "a" ) );
+        DefaultPageCacheTracer pageCacheTracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, pageCacheTracer );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 );
+              PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( "touchMustLoadPagesWithinFileIntoCache" ) )
+        {
+            assertEquals( 2, pagedFile.touch( 0, 10, cursorTracer ) );
+            assertEquals( 0, pagedFile.touch( 0, 10, cursorTracer ) );
+            long faults = cursorTracer.faults();
+            assertEquals( 2, faults );
+            assertEquals( 0, cursorTracer.pins() );
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( x, cursor.getLong() );
+                assertTrue( cursor.next() );
+                assertEquals( y, cursor.getLong() );
+                assertFalse( cursor.next() );
+            }
+            assertEquals( faults, cursorTracer.faults() );
+            assertEquals( 2, cursorTracer.hits() );
+            assertEquals( 2, cursorTracer.pins() );
+            assertEquals( 2, cursorTracer.unpins() );
+        }
+    }
+
+    @Test
+    void touchMustSkipPagesAlreadyInMemory() throws IOException
+    {
+        writeInitialDataTo( file( "a" ) );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+            }
+            assertEquals( 1, pagedFile.touch( 0, 2, NULL ) );
+            assertEquals( 0, pagedFile.touch( 0, 2, NULL ) );
+            assertEquals( 0, pagedFile.touch( 2, 2, NULL ) );
+        }
+    }
+
+    @Test
+    void sequentialScanMustReadAheadOfCursor() throws IOException
+    {
+        writePageIdsTo( file( "a" ), 200 );
+        DefaultPageCacheTracer pageCacheTracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 1024, pageCacheTracer );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 );
+              PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( "sequentialScanMustReadAheadOfCursor" ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
+            {
+                for ( long pageId = 0; pageId < 200; pageId++ )
+                {
+                    assertTrue( cursor.next() );
+                    assertEquals( pageId, cursor.getLong() );
+                }
+                assertFalse( cursor.next() );
+            }
+            assertThat( cursorTracer.hits() ).isGreaterThan( 150 );
+            assertThat( cursorTracer.faults() ).isLessThan( 50 );
+            // Read-ahead loads pages without pinning them, and pins that read-ahead served are not hits.
+            assertThat( cursorTracer.pins() ).isEqualTo( 200 );
+            assertThat( cursorTracer.unpins() ).isEqualTo( 200 );
+            assertThat( cursorTracer.hits() + cursorTracer.faults() ).isGreaterThanOrEqualTo( 200 );
+            assertThat( cursorTracer.hits() ).isLessThan( 200 );
+        }
+    }
+
+    @Test
+    void backwardsScanMustReadAheadOfCursor() throws IOException
+    {
+        writePageIdsTo( file( "a" ), 200 );
+        DefaultPageCacheTracer pageCacheTracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 1024, pageCacheTracer );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 );
+              PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( "backwardsScanMustReadAheadOfCursor" ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, cursorTracer ) )
+            {
+                for ( long pageId = 199; pageId >= 0; pageId-- )
+                {
+                    assertTrue( cursor.next( pageId ) );
+                    assertEquals( pageId, cursor.getLong() );
+                }
+            }
+            assertThat( cursorTracer.hits() ).isGreaterThan( 150 );
+        }
+    }
+
+    @Test
+    void stridedScanMustOnlyReadAheadPagesAtTheStride() throws IOException
+    {
+        writePageIdsTo( file( "a" ), 200 );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 1024, PageCacheTracer.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                for ( long pageId = 0; pageId <= 30; pageId += 3 )
+                {
+                    assertTrue( cursor.next( pageId ) );
+                    assertEquals( pageId, cursor.getLong() );
+                }
+            }
+            assertTrue( isInMemory( pagedFile, 33 ) );
+            assertFalse( isInMemory( pagedFile, 31 ) );
+            assertFalse( isInMemory( pagedFile, 32 ) );
+        }
+    }
+
+    @Test
+    void randomAccessMustNotReadAhead() throws IOException
+    {
+        writePageIdsTo( file( "a" ), 200 );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 1024, PageCacheTracer.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            long[] pageIds = {17, 3, 150, 42, 99, 8, 120, 61, 5, 180};
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                for ( long pageId : pageIds )
+                {
+                    assertTrue( cursor.next( pageId ) );
+                    assertEquals( pageId, cursor.getLong() );
+                }
+            }
+            for ( long pageId : pageIds )
+            {
+                assertFalse( isInMemory( pagedFile, pageId + 1 ) );
+            }
+        }
+    }
+
+    @Test
+    void pageFaultsMustBeRecordedInEvictionStripeStatistics() throws IOException
+    {
+        FeatureToggles.set( MuninnPageCache.class, MuninnPageCache.MEASURE_FAULT_LATENCY_NAME, true );
+        try
+        {
+            EvictionStripeStatistics stripe = faultTwoPagesAndGetStripeStatistics();
+            assertThat( stripe.maxFaultNanos() ).isPositive().isLessThanOrEqualTo( stripe.faultNanos() );
+        }
+        finally
+        {
+            FeatureToggles.clear( MuninnPageCache.class, MuninnPageCache.MEASURE_FAULT_LATENCY_NAME );
+        }
+    }
+
+    @Test
+    void pageFaultLatencyMustNotBeMeasuredByDefault() throws IOException
+    {
+        EvictionStripeStatistics stripe = faultTwoPagesAndGetStripeStatistics();
+        assertEquals( 0, stripe.faultNanos() );
+        assertEquals( 0, stripe.maxFaultNanos() );
+    }
+
+    private EvictionStripeStatistics faultTwoPagesAndGetStripeStatistics() throws IOException
+    {
+        writeInitialDataTo( file( "a" ) );
+        DefaultPageCacheTracer pageCacheTracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, pageCacheTracer );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+            {
+                assertTrue( cursor.next() );
+            }
+            assertEquals( 1, pagedFile.touch( 0, 2, NULL ) );
+
+            List<EvictionStripeStatistics> statistics = pageCacheTracer.evictionStripeStatistics();
+            assertThat( statistics ).hasSize( 1 );
+            EvictionStripeStatistics stripe = statistics.get( 0 );
+            assertEquals( 20, stripe.pages() );
+            assertEquals( 2, stripe.faults() );
+            return stripe;
+        }
+    }
+
+    @Test
+    void pagesToKeepFreeMustBeSplitBetweenEvictionStripes()
+    {
+        int[] keepFree = new int[4];
+        for ( int stripe = 0; stripe < keepFree.length; stripe++ )
+        {
+            keepFree[stripe] = MuninnPageCache.stripePagesToKeepFree( 30, stripe, keepFree.length );
+        }
+        assertThat( keepFree ).containsExactly( 8, 8, 7, 7 );
+        assertEquals( 1, MuninnPageCache.stripePagesToKeepFree( 2, 3, 4 ) );
+    }
+
+    @Test
+    void backgroundWriteBackMustBringDirtyPagesDownToTarget() throws Exception
+    {
+        FeatureToggles.set( MuninnPageCache.class, MuninnPageCache.WRITE_BACK_TARGET_DIRTY_PERCENT_NAME, 10 );
+        FeatureToggles.set( MuninnPageCache.class, MuninnPageCache.MINIMUM_PAGES_FOR_WRITE_BACK_NAME, 0 );
+        DefaultPageCacheTracer pageCacheTracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 100, pageCacheTracer );
+              PagedFile pagedFile = map( pageCache, existingFile( "a" ), filePageSize ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                for ( int i = 0; i < 40; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putLong( i );
+                }
+            }
+
+            assertTimeoutPreemptively( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+            {
+                while ( pageCache.getDirtyPageCount() > 10 )
+                {
+                    Thread.sleep( 10 );
+                }
+            } );
+            assertThat( pageCacheTracer.flushes() ).isGreaterThanOrEqualTo( 30 );
+
+            pagedFile.flushAndForce();
+            assertEquals( 0, pageCache.getDirtyPageCount() );
+            assertEquals( 0, pageCacheTracer.dirtyPages() );
+        }
+        finally
+        {
+            FeatureToggles.clear( MuninnPageCache.class, MuninnPageCache.WRITE_BACK_TARGET_DIRTY_PERCENT_NAME );
+            FeatureToggles.clear( MuninnPageCache.class, MuninnPageCache.MINIMUM_PAGES_FOR_WRITE_BACK_NAME );
+        }
+    }
+
+    @Test
+    void backgroundWriteBackMustBeDisabledForSmallCaches() throws Exception
+    {
+        DefaultPageCacheTracer pageCacheTracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 100, pageCacheTracer );
+              PagedFile pagedFile = map( pageCache, existingFile( "a" ), filePageSize ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                for ( int i = 0; i < 40; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putLong( i );
+                }
+            }
+
+            Thread.sleep( 300 );
+            assertEquals( 40, pageCache.getDirtyPageCount() );
+            assertEquals( 0, pageCacheTracer.flushes() );
+            assertEquals( 40, pageCacheTracer.dirtyPages() );
+        }
+    }
+
+    @Test
+    void dirtyPageCountMustDropWhenDirtyPagesAreEvicted() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL );
+              PagedFile pagedFile = map( pageCache, existingFile( "a" ), filePageSize ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+            {
+                for ( int i = 0; i < 100; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putLong( i );
+                }
+            }
+
+            assertThat( pageCache.getDirtyPageCount() ).isBetween( 1L, 20L );
+            pagedFile.flushAndForce();
+            assertEquals( 0, pageCache.getDirtyPageCount() );
+        }
+    }
+
     private static class FlushRendezvousTracer extends DefaultPageCacheTracer
     {
         private final CountDownLatch latch;
@@ -1363,6 +1645,28 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    private void writePageIdsTo( Path path, int pageCount ) throws IOException
+    {
+        try ( StoreChannel channel = fs.write( path ) )
+        {
+            ByteBuffer buf = ByteBuffers.allocate( pageCount * Long.BYTES, INSTANCE );
+            for ( long pageId = 0; pageId < pageCount; pageId++ )
+            {
+                buf.putLong( pageId );
+            }
+            buf.flip();
+            channel.writeAll( buf );
+        }
+    }
+
+    private static boolean isInMemory( PagedFile pagedFile, long pageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK | PagedFile.PF_NO_FAULT, NULL ) )
+        {
+            return cursor.next() && cursor.getCurrentPageId() == pageId;
+        }
+    }
+
     private void writeInitialDataTo( Path path ) throws IOException
     {
         try ( StoreChannel channel = fs.write( path ) )
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.eclipse.collections.api.factory.Sets.immutable;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+/**
+ * A recorded sequence of page accesses, that can be replayed against a page cache to measure its hit ratio.
+ * <p>
+ * The textual format of a trace has one access per line, as a file number and a file page id separated by a space.
+ * Empty lines and lines starting with {@code #} are ignored.
+ */
+final class PageAccessTrace
+{
+    private static final int FILE_SHIFT = 48;
+    private static final long PAGE_MASK = (1L << FILE_SHIFT) - 1;
+
+    private final MutableLongList accesses = new LongArrayList();
+    private int fileCount;
+
+    void access( int file, long filePageId )
+    {
+        accesses.add( ((long) file << FILE_SHIFT) | filePageId );
+        fileCount = Math.max( fileCount, file + 1 );
+    }
+
+    int size()
+    {
+        return accesses.size();
+    }
+
+    static PageAccessTrace read( Reader reader ) throws IOException
+    {
+        PageAccessTrace trace = new PageAccessTrace();
+        BufferedReader lines = new BufferedReader( reader );
+        String line;
+        while ( (line = lines.readLine()) != null )
+        {
+            line = line.trim();
+            if ( line.isEmpty() || line.startsWith( "#" ) )
+            {
+                continue;
+            }
+            String[] parts = line.split( "\\s+" );
+            trace.access( Integer.parseInt( parts[0] ), Long.parseLong( parts[1] ) );
+        }
+        return trace;
+    }
+
+    void write( Writer writer )
+    {
+        PrintWriter out = new PrintWriter( writer );
+        accesses.forEach( access -> out.println( (access >>> FILE_SHIFT) + " " + (access & PAGE_MASK) ) );
+        out.flush();
+    }
+
+    /**
+     * Generates a trace where random accesses to a hot working set in file 0, are interleaved with repeated sequential
+     * scans over a larger file 1.
+     *
+     * @param hotPages the size of the working set.
+     * @param scanPages the number of pages in the scanned file.
+     * @param scans the number of times the scanned file is scanned.
+     * @param scanPagesPerHotAccess how many scanned pages there are in between each working set access.
+     * @param seed the seed for the random working set accesses.
+     */
+    static PageAccessTrace workingSetWithScans( int hotPages, int scanPages, int scans, int scanPagesPerHotAccess, long seed )
+    {
+        PageAccessTrace trace = new PageAccessTrace();
+        SplittableRandom rng = new SplittableRandom( seed );
+        // Warm up the working set before the scans begin.
+        for ( int i = 0; i < hotPages * 4; i++ )
+        {
+            trace.access( 0, rng.nextInt( hotPages ) );
+        }
+        for ( int scan = 0; scan < scans; scan++ )
+        {
+            for ( int page = 0; page < scanPages; page++ )
+            {
+                trace.access( 1, page );
+                if ( page % scanPagesPerHotAccess == 0 )
+                {
+                    trace.access( 0, rng.nextInt( hotPages ) );
+                }
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * Replay this trace against the given page cache, with one file per file number in the given directory.
+     *
+     * @return the observed hit ratio, between 0 and 1.
+     */
+    double replay( PageCache pageCache, Path directory, DefaultPageCacheTracer tracer ) throws IOException
+    {
+        List<PagedFile> files = new ArrayList<>( fileCount );
+        try
+        {
+            for ( int i = 0; i < fileCount; i++ )
+            {
+                files.add( pageCache.map( directory.resolve( "trace-file-" + i ), pageCache.pageSize(), immutable.of( CREATE ) ) );
+            }
+            growFiles( files );
+            try ( PageCursorTracer cursorTracer = tracer.createPageCursorTracer( "replay" ) )
+            {
+                long hitsBefore = cursorTracer.hits();
+                long faultsBefore = cursorTracer.faults();
+                for ( int i = 0; i < accesses.size(); i++ )
+                {
+                    long access = accesses.get( i );
+                    PagedFile file = files.get( (int) (access >>> FILE_SHIFT) );
+                    try ( PageCursor cursor = file.io( access & PAGE_MASK, PF_SHARED_READ_LOCK, cursorTracer ) )
+                    {
+                        cursor.next();
+                    }
+                }
+                long hits = cursorTracer.hits() - hitsBefore;
+                long faults = cursorTracer.faults() - faultsBefore;
+                return hits / (double) (hits + faults);
+            }
+        }
+        finally
+        {
+            for ( PagedFile file : files )
+            {
+                file.close();
+            }
+        }
+    }
+
+    private void growFiles( List<PagedFile> files ) throws IOException
+    {
+        long[] lastPageIds = new long[fileCount];
+        accesses.forEach( access ->
+        {
+            int file = (int) (access >>> FILE_SHIFT);
+            lastPageIds[file] = Math.max( lastPageIds[file], access & PAGE_MASK );
+        } );
+        for ( int i = 0; i < fileCount; i++ )
+        {
+            try ( PageCursor cursor = files.get( i ).io( lastPageIds[i], PF_SHARED_WRITE_LOCK, PageCursorTracer.NULL ) )
+            {
+                cursor.next();
+            }
+        }
+    }
+}
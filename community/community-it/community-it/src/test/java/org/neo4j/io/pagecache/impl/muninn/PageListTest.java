@@ -55,6 +55,7 @@ import org.neo4j.util.concurrent.Futures;
 
 import static java.time.Duration.ofSeconds;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
@@ -1263,6 +1264,59 @@ public class PageListTest
         pageList.unlockExclusive( pageRef );
     }
 
+    @ParameterizedTest( name = "pageRef = {0}" )
+    @MethodSource( "argumentsProvider" )
+    public void dirtyPageCountMustFollowModifiedFlag( int pageId )
+    {
+        init( pageId );
+
+        pageList.unlockExclusive( pageRef );
+        assertEquals( 0, pageList.getDirtyPageCount() );
+        assertTrue( pageList.tryWriteLock( pageRef ) );
+        assertTrue( pageList.tryWriteLock( pageRef ) );
+        pageList.unlockWrite( pageRef );
+        pageList.unlockWrite( pageRef );
+        assertEquals( 1, pageList.getDirtyPageCount() );
+        long s = pageList.tryFlushLock( pageRef );
+        pageList.unlockFlush( pageRef, s, false );
+        assertEquals( 1, pageList.getDirtyPageCount() );
+        s = pageList.tryFlushLock( pageRef );
+        pageList.unlockFlush( pageRef, s, true );
+        assertEquals( 0, pageList.getDirtyPageCount() );
+        s = pageList.tryFlushLock( pageRef );
+        pageList.unlockFlush( pageRef, s, true );
+        assertEquals( 0, pageList.getDirtyPageCount() );
+
+        assertTrue( pageList.tryExclusiveLock( pageRef ) );
+        pageList.unlockExclusiveAndTakeWriteLock( pageRef );
+        assertEquals( 1, pageList.getDirtyPageCount() );
+        pageList.unlockExclusive( nextPageRef );
+        assertTrue( pageList.tryWriteLock( nextPageRef ) );
+        assertEquals( 2, pageList.getDirtyPageCount() );
+        pageList.unlockWrite( nextPageRef );
+        pageList.unlockWrite( pageRef );
+        assertTrue( pageList.tryExclusiveLock( pageRef ) );
+        pageList.explicitlyMarkPageUnmodifiedUnderExclusiveLock( pageRef );
+        pageList.explicitlyMarkPageUnmodifiedUnderExclusiveLock( pageRef );
+        assertEquals( 1, pageList.getDirtyPageCount() );
+        pageList.unlockExclusive( pageRef );
+    }
+
+    @ParameterizedTest( name = "pageRef = {0}" )
+    @MethodSource( "argumentsProvider" )
+    public void dirtyPageCountMustKeepPageWhoseFlushOverlappedWriter( int pageId )
+    {
+        init( pageId );
+
+        pageList.unlockExclusive( pageRef );
+        assertTrue( pageList.tryWriteLock( pageRef ) );
+        long s = pageList.tryFlushLock( pageRef );
+        pageList.unlockWrite( pageRef );
+        pageList.unlockFlush( pageRef, s, true );
+        assertTrue( pageList.isModified( pageRef ) );
+        assertEquals( 1, pageList.getDirtyPageCount() );
+    }
+
     @ParameterizedTest( name = "pageRef = {0}" )
     @MethodSource( "argumentsProvider" )
     public void unlockWriteAndTryTakeFlushLockMustTakeFlushLock( int pageId )
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.memory.LocalMemoryTracker;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.io.ByteUnit.MebiByte;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+import static org.neo4j.memory.HeapEstimator.sizeOf;
+
+class ScanResistantPageReplacementTest
+{
+    private static final int PAGE_COUNT = 128;
+
+    private MemoryAllocator mman;
+    private PageList pageList;
+    private ScanResistantPageReplacement replacement;
+
+    @BeforeEach
+    void setUp()
+    {
+        mman = MemoryAllocator.createAllocator( MebiByte.toBytes( 1 ), INSTANCE );
+        int pageSize = UnsafeUtil.pageSize();
+        long victimPage = VictimPageReference.getVictimPage( pageSize, INSTANCE );
+        pageList = new PageList( PAGE_COUNT, pageSize, mman, new SwapperSet(), victimPage, 8, EvictionPolicy.SCAN_RESISTANT, INSTANCE );
+        replacement = (ScanResistantPageReplacement) pageList.getPageReplacement();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        mman.close();
+    }
+
+    @Test
+    void pageListMustUseReplacementOfGivenPolicy()
+    {
+        int pageSize = UnsafeUtil.pageSize();
+        long victimPage = VictimPageReference.getVictimPage( pageSize, INSTANCE );
+        PageList clockList = new PageList( PAGE_COUNT, pageSize, mman, new SwapperSet(), victimPage, 8, EvictionPolicy.CLOCK, INSTANCE );
+        assertThat( clockList.getPageReplacement() ).isInstanceOf( ClockPageReplacement.class );
+        assertThat( new PageList( clockList ).getPageReplacement() ).isSameAs( clockList.getPageReplacement() );
+    }
+
+    @Test
+    void ghostTableMustBeAccountedInMemoryTracker()
+    {
+        var memoryTracker = new LocalMemoryTracker();
+        new ScanResistantPageReplacement( PAGE_COUNT, memoryTracker );
+        assertThat( memoryTracker.estimatedHeapMemory() ).isEqualTo( sizeOf( new int[PAGE_COUNT / 2] ) );
+    }
+
+    @Test
+    void coldPagesMustBeEvictedOnFirstVisit()
+    {
+        long pageRef = pageList.deref( 0 );
+        pageList.incrementUsage( pageRef );
+
+        assertThat( replacement.shouldEvict( pageList, pageRef ) ).isTrue();
+    }
+
+    @Test
+    void hotPagesMustNotBeAgedOnNonAgingSweeps()
+    {
+        long pageRef = pageList.deref( 0 );
+        usePage( pageRef, 4 );
+        completeSweepWithColdEvictions( PAGE_COUNT );
+        assertThat( replacement.isAgingSweep() ).isFalse();
+
+        for ( int i = 0; i < 10; i++ )
+        {
+            assertThat( replacement.shouldEvict( pageList, pageRef ) ).isFalse();
+        }
+        assertThat( pageList.getUsageCounter( pageRef ) ).isEqualTo( (byte) 4 );
+    }
+
+    @Test
+    void hotPagesMustBeAgedOnEveryFewSweeps()
+    {
+        long pageRef = pageList.deref( 0 );
+        usePage( pageRef, 4 );
+
+        int agingSweeps = 0;
+        for ( int i = 0; i < 16; i++ )
+        {
+            completeSweepWithColdEvictions( PAGE_COUNT );
+            if ( replacement.isAgingSweep() )
+            {
+                agingSweeps++;
+                replacement.shouldEvict( pageList, pageRef );
+            }
+        }
+        assertThat( agingSweeps ).isGreaterThan( 0 ).isLessThan( 16 );
+        assertThat( pageList.getUsageCounter( pageRef ) ).isLessThan( (byte) 4 );
+    }
+
+    @Test
+    void sweepWithoutColdPagesMustAgeHotPages()
+    {
+        completeSweepWithColdEvictions( PAGE_COUNT );
+        assertThat( replacement.isAgingSweep() ).isFalse();
+
+        long pageRef = pageList.deref( 0 );
+        usePage( pageRef, 4 );
+        assertThat( replacement.shouldEvict( pageList, pageRef ) ).isFalse();
+        replacement.sweepCompleted();
+
+        assertThat( replacement.isAgingSweep() ).isTrue();
+        assertThat( replacement.shouldEvict( pageList, pageRef ) ).isFalse();
+        assertThat( pageList.getUsageCounter( pageRef ) ).isEqualTo( (byte) 3 );
+    }
+
+    @Test
+    void evictedPagesMustBeRememberedAsGhosts()
+    {
+        replacement.pageEvicted( 1, 42 );
+
+        assertThat( replacement.isGhost( 1, 42 ) ).isTrue();
+        assertThat( replacement.isGhost( 2, 42 ) ).isFalse();
+        assertThat( replacement.isGhost( 1, 43 ) ).isFalse();
+    }
+
+    @Test
+    void faultingGhostPageMustAdmitItAsHot()
+    {
+        replacement.pageEvicted( 1, 42 );
+        long pageRef = pageList.deref( 3 );
+
+        replacement.pageFaulted( pageList, pageRef, 1, 42 );
+
+        assertThat( pageList.getUsageCounter( pageRef ) ).isGreaterThan( (byte) ScanResistantPageReplacement.COLD_USAGE );
+        assertThat( replacement.isGhost( 1, 42 ) ).isFalse();
+    }
+
+    @Test
+    void faultingUnknownPageMustAdmitItAsCold()
+    {
+        long pageRef = pageList.deref( 3 );
+
+        replacement.pageFaulted( pageList, pageRef, 1, 42 );
+        pageList.incrementUsage( pageRef );
+
+        assertThat( pageList.getUsageCounter( pageRef ) ).isEqualTo( (byte) ScanResistantPageReplacement.COLD_USAGE );
+    }
+
+    private void usePage( long pageRef, int times )
+    {
+        for ( int i = 0; i < times; i++ )
+        {
+            pageList.incrementUsage( pageRef );
+        }
+    }
+
+    private void completeSweepWithColdEvictions( int coldPages )
+    {
+        for ( int i = 1; i <= coldPages; i++ )
+        {
+            long pageRef = pageList.deref( i % PAGE_COUNT );
+            if ( pageList.getUsageCounter( pageRef ) <= ScanResistantPageReplacement.COLD_USAGE )
+            {
+                replacement.shouldEvict( pageList, pageRef );
+            }
+        }
+        replacement.sweepCompleted();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LatencyHistogramTest
+{
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    void emptyHistogramMustReportZeros()
+    {
+        assertThat( histogram.count() ).isEqualTo( 0 );
+        assertThat( histogram.totalNanos() ).isEqualTo( 0 );
+        assertThat( histogram.maxNanos() ).isEqualTo( 0 );
+        assertThat( histogram.meanNanos() ).isEqualTo( 0d );
+        assertThat( histogram.percentileNanos( 50 ) ).isEqualTo( 0 );
+        assertThat( histogram.percentileNanos( 100 ) ).isEqualTo( 0 );
+    }
+
+    @Test
+    void smallValuesMustBeRecordedExactly()
+    {
+        for ( int i = 1; i <= 10; i++ )
+        {
+            histogram.record( i );
+        }
+
+        assertThat( histogram.count() ).isEqualTo( 10 );
+        assertThat( histogram.totalNanos() ).isEqualTo( 55 );
+        assertThat( histogram.meanNanos() ).isCloseTo( 5.5, within( 0.0001 ) );
+        assertThat( histogram.percentileNanos( 0 ) ).isEqualTo( 1 );
+        assertThat( histogram.percentileNanos( 50 ) ).isEqualTo( 5 );
+        assertThat( histogram.percentileNanos( 90 ) ).isEqualTo( 9 );
+        assertThat( histogram.percentileNanos( 100 ) ).isEqualTo( 10 );
+        assertThat( histogram.maxNanos() ).isEqualTo( 10 );
+    }
+
+    @Test
+    void percentilesMustBeWithinRelativeErrorOfRecordedValues()
+    {
+        for ( long nanos = 1; nanos <= 100_000; nanos++ )
+        {
+            histogram.record( nanos * 1000 );
+        }
+
+        assertThat( histogram.count() ).isEqualTo( 100_000 );
+        assertThat( histogram.maxNanos() ).isEqualTo( 100_000_000 );
+        assertWithinRelativeError( histogram.percentileNanos( 50 ), 50_000_000 );
+        assertWithinRelativeError( histogram.percentileNanos( 90 ), 90_000_000 );
+        assertWithinRelativeError( histogram.percentileNanos( 99 ), 99_000_000 );
+        assertWithinRelativeError( histogram.percentileNanos( 99.9 ), 99_900_000 );
+        assertThat( histogram.percentileNanos( 100 ) ).isEqualTo( 100_000_000 );
+    }
+
+    @Test
+    void percentilesMustNotExceedMaxValue()
+    {
+        histogram.record( 1_000_001 );
+
+        assertThat( histogram.percentileNanos( 50 ) ).isEqualTo( 1_000_001 );
+        assertThat( histogram.percentileNanos( 100 ) ).isEqualTo( 1_000_001 );
+    }
+
+    @Test
+    void valuesBeyondTrackableRangeMustBeCountedInLastBucket()
+    {
+        long tenMinutes = 600_000_000_000L;
+        histogram.record( 1 );
+        histogram.record( tenMinutes );
+
+        assertThat( histogram.count() ).isEqualTo( 2 );
+        assertThat( histogram.maxNanos() ).isEqualTo( tenMinutes );
+        assertThat( histogram.totalNanos() ).isEqualTo( tenMinutes + 1 );
+        assertThat( histogram.percentileNanos( 50 ) ).isEqualTo( 1 );
+        assertThat( histogram.percentileNanos( 100 ) ).isEqualTo( (1L << 36) - 1 );
+    }
+
+    @Test
+    void negativeValuesMustBeRecordedAsZero()
+    {
+        histogram.record( -5 );
+
+        assertThat( histogram.count() ).isEqualTo( 1 );
+        assertThat( histogram.totalNanos() ).isEqualTo( 0 );
+        assertThat( histogram.percentileNanos( 100 ) ).isEqualTo( 0 );
+    }
+
+    @Test
+    void bucketsMustCoverConsecutiveRanges()
+    {
+        long expectedLowest = 0;
+        for ( int index = 0; index < LatencyHistogram.bucketIndex( (1L << 36) - 1 ); index++ )
+        {
+            long highest = LatencyHistogram.highestEquivalentNanos( index );
+            assertThat( LatencyHistogram.bucketIndex( expectedLowest ) ).isEqualTo( index );
+            assertThat( LatencyHistogram.bucketIndex( highest ) ).isEqualTo( index );
+            expectedLowest = highest + 1;
+        }
+    }
+
+    @Test
+    void mustRejectPercentilesOutsideOfRange()
+    {
+        assertThrows( IllegalArgumentException.class, () -> histogram.percentileNanos( -1 ) );
+        assertThrows( IllegalArgumentException.class, () -> histogram.percentileNanos( 100.1 ) );
+    }
+
+    private static void assertWithinRelativeError( long actual, long expected )
+    {
+        assertThat( actual ).isGreaterThanOrEqualTo( expected );
+        assertThat( (double) actual ).isLessThanOrEqualTo( expected * (1 + 1 / 16d) );
+    }
+}
@@ -24,6 +24,7 @@ import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.pagecache.PageSwapper;
@@ -208,6 +209,17 @@ public class DefaultPageCacheTracerTest
         assertThat( tracer.usageRatio() ).isCloseTo( 0, within( 0.0001 ) );
     }
 
+    @Test
+    void dirtyPagesMustReportCurrentCountFromSource()
+    {
+        assertThat( tracer.dirtyPages() ).isEqualTo( 0 );
+        AtomicLong dirtyPages = new AtomicLong( 42 );
+        tracer.dirtyPages( dirtyPages::get );
+        assertThat( tracer.dirtyPages() ).isEqualTo( 42 );
+        dirtyPages.set( 7 );
+        assertThat( tracer.dirtyPages() ).isEqualTo( 7 );
+    }
+
     private void assertCounts( long pins, long unpins, long hits, long faults, long evictions, long evictionExceptions, long flushes, long merges,
             long bytesRead, long bytesWritten, long filesMapped, long filesUnmapped, double hitRatio )
     {
@@ -20,8 +20,12 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.nio.file.Path;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.EvictionStripeStatistics;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
 /**
@@ -194,6 +198,30 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.maxPages( maxPages );
     }
 
+    @Override
+    public long dirtyPages()
+    {
+        return delegate.dirtyPages();
+    }
+
+    @Override
+    public void dirtyPages( LongSupplier dirtyPages )
+    {
+        delegate.dirtyPages( dirtyPages );
+    }
+
+    @Override
+    public List<EvictionStripeStatistics> evictionStripeStatistics()
+    {
+        return delegate.evictionStripeStatistics();
+    }
+
+    @Override
+    public void evictionStripeStatistics( Supplier<List<EvictionStripeStatistics>> evictionStripeStatistics )
+    {
+        delegate.evictionStripeStatistics( evictionStripeStatistics );
+    }
+
     @Override
     public long filesMapped()
     {
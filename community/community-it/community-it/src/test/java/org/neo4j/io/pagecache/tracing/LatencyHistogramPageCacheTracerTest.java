@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PagedFileLatencies;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramPageCacheTracerTest
+{
+    private LatencyHistogramPageCacheTracer tracer;
+    private PageSwapper swapper;
+
+    @BeforeEach
+    void setUp()
+    {
+        tracer = new LatencyHistogramPageCacheTracer( 1 );
+        swapper = new DummyPageSwapper( "filename", (int) ByteUnit.kibiBytes( 8 ) );
+        tracer.mappedFile( swapper.path() );
+    }
+
+    @Test
+    void mustTrackLatenciesOfMappedFilesOnly()
+    {
+        tracer.mappedFile( Path.of( "other" ) );
+        assertThat( tracer.pagedFileLatencies() ).extracting( PagedFileLatencies::path )
+                .containsExactlyInAnyOrder( swapper.path(), Path.of( "other" ) );
+
+        tracer.unmappedFile( swapper.path() );
+        assertThat( tracer.pagedFileLatencies() ).extracting( PagedFileLatencies::path ).containsExactly( Path.of( "other" ) );
+    }
+
+    @Test
+    void mustRecordPageFaultLatencies()
+    {
+        PageCursorTracer cursorTracer = tracer.createPageCursorTracer( "test" );
+        PinEvent pinEvent = cursorTracer.beginPin( false, 1, swapper );
+        PageFaultEvent faultEvent = pinEvent.beginPageFault();
+        faultEvent.addBytesRead( 42 );
+        faultEvent.done();
+        pinEvent.done();
+
+        pinEvent = cursorTracer.beginPin( false, 2, swapper );
+        pinEvent.beginPageFault().done( new IOException( "boom" ) );
+        pinEvent.done();
+
+        PagedFileLatencies latencies = latenciesOf( swapper );
+        assertThat( latencies.faults().count() ).isEqualTo( 1 );
+        assertThat( latencies.flushes().count() ).isEqualTo( 0 );
+        assertThat( latencies.evictions().count() ).isEqualTo( 0 );
+
+        // The counters of the default tracer must still work.
+        assertThat( cursorTracer.faults() ).isEqualTo( 2 );
+        assertThat( cursorTracer.bytesRead() ).isEqualTo( 42 );
+        assertThat( cursorTracer.pins() ).isEqualTo( 2 );
+        assertThat( cursorTracer.unpins() ).isEqualTo( 2 );
+    }
+
+    @Test
+    void mustRecordEvictionLatenciesOfFileOfEvictedPage()
+    {
+        try ( EvictionRunEvent evictionRun = tracer.beginPageEvictions( 2 ) )
+        {
+            try ( EvictionEvent evictionEvent = evictionRun.beginEviction() )
+            {
+                evictionEvent.setSwapper( swapper );
+                FlushEvent flushEvent = evictionEvent.flushEventOpportunity().beginFlush( 0, 0, swapper, 1, 0 );
+                flushEvent.addPagesFlushed( 1 );
+                flushEvent.done();
+            }
+            // Evicting a free page, that is not bound to any file.
+            evictionRun.beginEviction().close();
+        }
+
+        PageCursorTracer cursorTracer = tracer.createPageCursorTracer( "test" );
+        PinEvent pinEvent = cursorTracer.beginPin( false, 1, swapper );
+        PageFaultEvent faultEvent = pinEvent.beginPageFault();
+        try ( EvictionEvent evictionEvent = faultEvent.beginEviction() )
+        {
+            evictionEvent.setSwapper( swapper );
+        }
+        faultEvent.done();
+        pinEvent.done();
+        cursorTracer.reportEvents();
+
+        PagedFileLatencies latencies = latenciesOf( swapper );
+        assertThat( latencies.evictions().count() ).isEqualTo( 2 );
+        assertThat( latencies.faults().count() ).isEqualTo( 1 );
+        // Flushes done by evictions are part of the eviction latency.
+        assertThat( latencies.flushes().count() ).isEqualTo( 0 );
+        assertThat( tracer.evictions() ).isEqualTo( 3 );
+        assertThat( tracer.flushes() ).isEqualTo( 1 );
+    }
+
+    @Test
+    void mustRecordFlushLatencies()
+    {
+        try ( MajorFlushEvent fileFlush = tracer.beginFileFlush( swapper ) )
+        {
+            for ( int i = 0; i < 3; i++ )
+            {
+                FlushEvent flushEvent = fileFlush.flushEventOpportunity().beginFlush( i, i, swapper, 1, 0 );
+                flushEvent.addPagesFlushed( 1 );
+                flushEvent.addBytesWritten( 8192 );
+                flushEvent.done();
+            }
+        }
+        try ( MajorFlushEvent cacheFlush = tracer.beginCacheFlush() )
+        {
+            cacheFlush.flushEventOpportunity().beginFlush( 0, 0, swapper, 1, 0 ).done( new IOException( "boom" ) );
+        }
+
+        PagedFileLatencies latencies = latenciesOf( swapper );
+        assertThat( latencies.flushes().count() ).isEqualTo( 3 );
+        assertThat( tracer.flushes() ).isEqualTo( 3 );
+        assertThat( tracer.bytesWritten() ).isEqualTo( 3 * 8192 );
+    }
+
+    @Test
+    void mustNotRecordLatenciesOfUnmappedFiles()
+    {
+        PageSwapper unmapped = new DummyPageSwapper( "unmapped", (int) ByteUnit.kibiBytes( 8 ) );
+        PageCursorTracer cursorTracer = tracer.createPageCursorTracer( "test" );
+        PinEvent pinEvent = cursorTracer.beginPin( false, 1, unmapped );
+        pinEvent.beginPageFault().done();
+        pinEvent.done();
+        try ( MajorFlushEvent fileFlush = tracer.beginFileFlush( unmapped ) )
+        {
+            fileFlush.flushEventOpportunity().beginFlush( 0, 0, unmapped, 1, 0 ).done();
+        }
+
+        assertThat( tracer.pagedFileLatencies() ).hasSize( 1 );
+        PagedFileLatencies latencies = latenciesOf( swapper );
+        assertThat( latencies.faults().count() ).isEqualTo( 0 );
+        assertThat( latencies.flushes().count() ).isEqualTo( 0 );
+        assertThat( cursorTracer.faults() ).isEqualTo( 1 );
+    }
+
+    @Test
+    void mustOnlyRecordSampleOfEvents()
+    {
+        tracer = new LatencyHistogramPageCacheTracer( 10 );
+        tracer.mappedFile( swapper.path() );
+        PageCursorTracer cursorTracer = tracer.createPageCursorTracer( "test" );
+        int faults = 10_000;
+        for ( int i = 0; i < faults; i++ )
+        {
+            PinEvent pinEvent = cursorTracer.beginPin( false, i, swapper );
+            pinEvent.beginPageFault().done();
+            pinEvent.done();
+        }
+
+        assertThat( tracer.latencySampleInterval() ).isEqualTo( 10 );
+        assertThat( cursorTracer.faults() ).isEqualTo( faults );
+        assertThat( latenciesOf( swapper ).faults().count() ).isBetween( 500L, 1500L );
+    }
+
+    private PagedFileLatencies latenciesOf( PageSwapper swapper )
+    {
+        return tracer.pagedFileLatencies().stream().filter( latencies -> latencies.path().equals( swapper.path() ) ).findFirst().orElseThrow();
+    }
+}
@@ -41,6 +41,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.neo4j.configuration.SettingValueParsers.FALSE;
 import static org.neo4j.internal.helpers.collection.Iterators.asList;
@@ -131,6 +132,17 @@ class BuiltInDbmsProceduresIT extends KernelIntegrationTest
         assertFalse(((BooleanValue) config.get(0)[3]).booleanValue() );
     }
 
+    @Test
+    void listPageCacheLatenciesMustFailWhenLatenciesAreNotRecorded() throws KernelException
+    {
+        QualifiedName procedureName = procedureName( "dbms", "listPageCacheLatencies" );
+        int procedureId = procs().procedureGet( procedureName ).id();
+
+        ProcedureException exception = assertThrows( ProcedureException.class,
+                () -> asList( procs().procedureCallDbms( procedureId, new AnyValue[]{}, ProcedureCallContext.EMPTY ) ) );
+        assertThat( exception.getMessage() ).contains( "unsupported.dbms.tracer" );
+    }
+
     private List<AnyValue[]> callListConfig( String searchString ) throws KernelException
     {
         QualifiedName procedureName = procedureName( "dbms", "listConfig" );
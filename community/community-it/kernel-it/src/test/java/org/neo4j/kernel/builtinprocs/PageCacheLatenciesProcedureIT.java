@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.builtinprocs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import org.neo4j.collection.RawIterator;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.exceptions.KernelException;
+import org.neo4j.internal.kernel.api.exceptions.ProcedureException;
+import org.neo4j.internal.kernel.api.procs.ProcedureCallContext;
+import org.neo4j.kernel.impl.api.integrationtest.KernelIntegrationTest;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.values.AnyValue;
+import org.neo4j.values.storable.LongValue;
+import org.neo4j.values.storable.TextValue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.neo4j.internal.helpers.collection.Iterators.asList;
+import static org.neo4j.internal.kernel.api.procs.ProcedureSignature.procedureName;
+
+class PageCacheLatenciesProcedureIT extends KernelIntegrationTest
+{
+    @Override
+    protected TestDatabaseManagementServiceBuilder configure( TestDatabaseManagementServiceBuilder databaseManagementServiceBuilder )
+    {
+        return databaseManagementServiceBuilder.setConfig( GraphDatabaseInternalSettings.tracer, "latency" );
+    }
+
+    @Test
+    void listPageCacheLatenciesOfEveryMappedFile() throws KernelException
+    {
+        List<AnyValue[]> latencies = callListPageCacheLatencies();
+
+        assertThat( latencies ).isNotEmpty();
+        assertThat( latencies ).extracting( row -> ((TextValue) row[0]).stringValue() )
+                .anyMatch( file -> file.endsWith( "neostore.nodestore.db" ) );
+        for ( int i = 0; i < latencies.size(); i += 3 )
+        {
+            String file = ((TextValue) latencies.get( i )[0]).stringValue();
+            assertThat( latencies.subList( i, i + 3 ) ).extracting( row -> ((TextValue) row[0]).stringValue() ).containsOnly( file );
+            assertThat( latencies.subList( i, i + 3 ) ).extracting( row -> ((TextValue) row[1]).stringValue() )
+                    .containsExactly( "fault", "flush", "eviction" );
+        }
+        for ( AnyValue[] row : latencies )
+        {
+            long samples = ((LongValue) row[2]).longValue();
+            long p50 = ((LongValue) row[5]).longValue();
+            long max = ((LongValue) row[9]).longValue();
+            assertThat( samples ).isGreaterThanOrEqualTo( 0 );
+            assertThat( p50 ).isLessThanOrEqualTo( max );
+        }
+    }
+
+    private List<AnyValue[]> callListPageCacheLatencies() throws KernelException
+    {
+        int procedureId = procs().procedureGet( procedureName( "dbms", "listPageCacheLatencies" ) ).id();
+        RawIterator<AnyValue[],ProcedureException> callResult =
+                procs().procedureCallDbms( procedureId, new AnyValue[0], ProcedureCallContext.EMPTY );
+        return asList( callResult );
+    }
+}
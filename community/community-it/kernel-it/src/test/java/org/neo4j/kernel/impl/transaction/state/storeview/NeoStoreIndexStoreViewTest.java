@@ -31,6 +31,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.neo4j.exceptions.KernelException;
@@ -49,6 +51,10 @@ import org.neo4j.internal.schema.LabelSchemaDescriptor;
 import org.neo4j.internal.schema.RelationTypeSchemaDescriptor;
 import org.neo4j.internal.schema.SchemaDescriptor;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.api.index.IndexPopulator.JobDescriptionSupplier;
+import org.neo4j.kernel.api.index.IndexPopulator.PopulationWorkScheduler;
+import org.neo4j.kernel.impl.api.index.PhaseTracker;
 import org.neo4j.kernel.impl.api.index.StoreScan;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
 import org.neo4j.kernel.impl.store.NeoStores;
@@ -57,6 +63,10 @@ import org.neo4j.kernel.impl.transaction.log.checkpoint.SimpleTriggerInfo;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.lock.Lock;
 import org.neo4j.lock.LockService;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobMonitoringParams;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityTokenUpdate;
 import org.neo4j.storageengine.api.EntityUpdates;
 import org.neo4j.storageengine.api.IndexEntryUpdate;
@@ -291,7 +301,7 @@ class NeoStoreIndexStoreViewTest
             nodeCursor.single( 1 );
             nodeCursor.next();
 
-            nodeStoreScan.process( nodeCursor );
+            nodeStoreScan.process( nodeCursor, reader.allocatePropertyCursor( NULL, INSTANCE ) );
         }
 
         EntityUpdates propertyUpdates = propertyUpdateVisitor.getPropertyUpdates();
@@ -322,9 +332,70 @@ class NeoStoreIndexStoreViewTest
         }
 
         assertThat( countingVisitor.countedUpdates() ).isEqualTo( 2 );
-        assertThat( pageCacheTracer.pins() ).isEqualTo( 3 );
-        assertThat( pageCacheTracer.unpins() ).isEqualTo( 3 );
-        assertThat( pageCacheTracer.hits() ).isEqualTo( 3 );
+        // The node count is read from the counts store cache, which the checkpoint left the checkpointed counts in
+        assertThat( pageCacheTracer.pins() ).isEqualTo( 2 );
+        assertThat( pageCacheTracer.unpins() ).isEqualTo( 2 );
+        assertThat( pageCacheTracer.hits() ).isEqualTo( 2 );
+    }
+
+    @Test
+    void shouldVisitEachNodeOnceWhenScanningInRanges()
+    {
+        // given
+        int nodeCount = PropertyAwareEntityStoreScan.RANGE_SIZE * 5 + 10;
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            for ( int i = 0; i < nodeCount; i++ )
+            {
+                tx.createNode( label ).setProperty( "name", "Node" + i );
+            }
+            tx.commit();
+        }
+        Set<Long> visitedNodes = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        Visitor<EntityUpdates,RuntimeException> visitor = updates ->
+        {
+            if ( !visitedNodes.add( updates.getEntityId() ) )
+            {
+                duplicates.incrementAndGet();
+            }
+            return false;
+        };
+        AtomicInteger rangesStarted = new AtomicInteger();
+        AtomicInteger rangesCompleted = new AtomicInteger();
+        JobScheduler jobScheduler = graphDb.getDependencyResolver().resolveDependency( JobScheduler.class );
+        var scan = new NodeStoreScan<>( storageEngine.newReader(), LockService.NO_LOCK_SERVICE, null, visitor, new int[]{labelId}, id -> true, NULL, INSTANCE );
+        scan.setPhaseTracker( PhaseTracker.nullInstance );
+        scan.setParallelism( 4, new PopulationWorkScheduler()
+        {
+            @Override
+            public <T> JobHandle<T> schedule( JobDescriptionSupplier descriptionSupplier, Callable<T> job )
+            {
+                return jobScheduler.schedule( Group.INDEX_POPULATION, JobMonitoringParams.NOT_MONITORED, job );
+            }
+        }, PageCacheTracer.NULL, new StoreScan.RangeListener()
+        {
+            @Override
+            public void rangeStarted()
+            {
+                rangesStarted.incrementAndGet();
+            }
+
+            @Override
+            public void rangeCompleted( long lowestEntityId, long highestEntityId )
+            {
+                rangesCompleted.incrementAndGet();
+            }
+        } );
+
+        // when
+        scan.run();
+
+        // then
+        assertThat( visitedNodes ).hasSize( nodeCount + 2 ).contains( alistair.getId(), stefan.getId() );
+        assertThat( duplicates.get() ).isZero();
+        assertThat( scan.getProgress().getCompleted() ).isEqualTo( nodeCount + 2 );
+        assertThat( rangesStarted.get() ).isGreaterThan( 1 ).isEqualTo( rangesCompleted.get() );
     }
 
     @Test
@@ -341,7 +412,7 @@ class NeoStoreIndexStoreViewTest
             relationshipScanCursor.single( 1 );
             relationshipScanCursor.next();
 
-            relationshipStoreScan.process( relationshipScanCursor );
+            relationshipStoreScan.process( relationshipScanCursor, reader.allocatePropertyCursor( NULL, INSTANCE ) );
         }
 
         EntityUpdates propertyUpdates = propertyUpdateVisitor.getPropertyUpdates();
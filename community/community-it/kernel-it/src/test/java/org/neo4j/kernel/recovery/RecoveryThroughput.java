@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.helpers.Args;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.database.DatabaseTracers;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.graphdb.Label.label;
+import static org.neo4j.graphdb.RelationshipType.withName;
+import static org.neo4j.io.pagecache.tracing.PageCacheTracer.NULL;
+import static org.neo4j.kernel.impl.pagecache.ConfigurableStandalonePageCacheFactory.createPageCache;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+/**
+ * Measures how many transactions per second recovery replays from the transaction log.
+ * <p>
+ * A database is populated with small write transactions, all of them committed after the last check point, and is then
+ * recovered from that check point. Only the recovery itself is timed. Read-ahead and batching of recovery are controlled
+ * with the {@code TransactionLogsRecovery.readAheadTransactions} and {@code TransactionLogsRecovery.batchSize} feature
+ * toggles, so compare configurations by running this with different {@code -D} options.
+ * <p>
+ * Options, all optional:
+ * <ul>
+ *     <li>{@code --transactions} the number of transactions to recover, defaults to {@code 100000}</li>
+ *     <li>{@code --nodes} the number of nodes that each transaction creates, defaults to {@code 4}</li>
+ *     <li>{@code --partitions} the value of the parallel record apply partitions setting used by recovery, defaults to {@code 0}</li>
+ *     <li>{@code --dir} the directory to create the database in, defaults to a new temporary directory that is deleted afterwards</li>
+ * </ul>
+ */
+public class RecoveryThroughput
+{
+    public static void main( String[] arguments ) throws Exception
+    {
+        Args args = Args.parse( arguments );
+        int transactions = args.getNumber( "transactions", 100_000 ).intValue();
+        int nodesPerTransaction = args.getNumber( "nodes", 4 ).intValue();
+        int partitions = args.getNumber( "partitions", 0 ).intValue();
+        String dir = args.get( "dir", null );
+        Path home = dir != null ? Path.of( dir ) : Files.createTempDirectory( "recovery-throughput" );
+        try
+        {
+            DatabaseLayout databaseLayout = populate( home, transactions, nodesPerTransaction );
+            Config config = Config.newBuilder().set( GraphDatabaseInternalSettings.parallel_apply_partitions, partitions ).build();
+            try ( DefaultFileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+                    JobScheduler jobScheduler = createInitialisedScheduler();
+                    PageCache pageCache = createPageCache( fs, config, jobScheduler, NULL ) )
+            {
+                RecoveryHelpers.removeLastCheckpointRecordFromLastLogFile( databaseLayout, fs );
+                long startNanos = System.nanoTime();
+                Recovery.performRecovery( fs, pageCache, DatabaseTracers.EMPTY, config, databaseLayout, INSTANCE );
+                long elapsedNanos = System.nanoTime() - startNanos;
+                System.out.printf( "recovered %d transactions in %d ms: %.0f transactions/s%n",
+                        transactions, elapsedNanos / 1_000_000, transactions * 1e9 / elapsedNanos );
+            }
+        }
+        finally
+        {
+            if ( dir == null )
+            {
+                FileUtils.deleteDirectory( home );
+            }
+        }
+    }
+
+    private static DatabaseLayout populate( Path home, int transactions, int nodesPerTransaction )
+    {
+        DatabaseManagementService managementService = new TestDatabaseManagementServiceBuilder( home )
+                .setConfig( GraphDatabaseSettings.check_point_interval_time, Duration.ofDays( 1 ) )
+                .setConfig( GraphDatabaseSettings.check_point_interval_tx, Integer.MAX_VALUE )
+                .build();
+        try
+        {
+            GraphDatabaseService db = managementService.database( DEFAULT_DATABASE_NAME );
+            for ( int i = 0; i < transactions; i++ )
+            {
+                try ( Transaction tx = db.beginTx() )
+                {
+                    Node previous = null;
+                    for ( int j = 0; j < nodesPerTransaction; j++ )
+                    {
+                        Node node = tx.createNode( label( "Label" ) );
+                        node.setProperty( "id", (long) i * nodesPerTransaction + j );
+                        if ( previous != null )
+                        {
+                            previous.createRelationshipTo( node, withName( "NEXT" ) );
+                        }
+                        previous = node;
+                    }
+                    tx.commit();
+                }
+            }
+            return ((GraphDatabaseAPI) db).databaseLayout();
+        }
+        finally
+        {
+            managementService.shutdown();
+        }
+    }
+}
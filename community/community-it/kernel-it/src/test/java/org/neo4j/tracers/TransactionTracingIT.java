@@ -206,9 +206,9 @@ class TransactionTracingIT
         @Override
         public void afterCommit( TransactionData data, Object state, GraphDatabaseService databaseService )
         {
-            assertThat( cursorTracer.pins() ).isEqualTo( 1003 );
-            assertThat( cursorTracer.unpins() ).isEqualTo( 1003 );
-            assertThat( cursorTracer.hits() ).isEqualTo( 1001 );
+            assertThat( cursorTracer.pins() ).isEqualTo( 1002 );
+            assertThat( cursorTracer.unpins() ).isEqualTo( 1002 );
+            assertThat( cursorTracer.hits() ).isEqualTo( 1000 );
             assertThat( cursorTracer.faults() ).isEqualTo( 2 );
             invoked = true;
         }
@@ -24,6 +24,7 @@ import java.time.Duration;
 
 import org.neo4j.annotations.service.ServiceProvider;
 import org.neo4j.graphdb.config.Setting;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicy;
 import org.neo4j.logging.FormattedLogFormat;
 
 import static java.time.Duration.ofMillis;
@@ -202,8 +203,9 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
             newBuilder( "unsupported.cypher.pipelined.batch_size_big", INT, 1024 ).addConstraint( min( 1 ) ).build();
 
     @Internal
-    @Description( "Number of threads to allocate to Cypher worker threads for the parallel runtime. If set to 0, two workers will be started" +
-                  " for every physical core in the system. If set to -1, no workers will be started and the parallel runtime cannot be used." )
+    @Description( "Number of threads to allocate to Cypher worker threads for the parallel runtime, and for parallel execution in the interpreted " +
+                  "runtime. If set to 0, two workers will be started for every physical core in the system. If set to -1, no workers will be " +
+                  "started and neither the parallel runtime nor parallel execution in the interpreted runtime can be used." )
     public static final Setting<Integer> cypher_worker_count = newBuilder( "unsupported.cypher.number_of_workers", INT, 0 ).build();
 
     public enum CypherOperatorEngine
@@ -480,6 +482,15 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     public static final Setting<Boolean> consistency_check_on_apply =
             newBuilder( "unsupported.dbms.storage.consistency_check_on_apply", BOOL, Boolean.FALSE ).build();
 
+    @Internal
+    @Description( "Number of partitions that the record changes of a batch of committed transactions are split into, to be applied to the " +
+            "record stores in parallel. Only batches where no node or relationship is changed by more than one transaction, whether through its " +
+            "own record or through its property or relationship group records, and that contain no schema changes, are applied in parallel. " +
+            "Counts, index and id updates are still applied serially, after the record changes. 0 or 1 means that batches are always " +
+            "applied serially." )
+    public static final Setting<Integer> parallel_apply_partitions =
+            newBuilder( "unsupported.dbms.storage.parallel_apply_partitions", INT, 0 ).addConstraint( min( 0 ) ).build();
+
     @Internal
     @Description( "Time interval of inactivity after which a driver will be closed." )
     public static final Setting<Duration> routing_driver_idle_timeout =
@@ -527,4 +538,17 @@ public class GraphDatabaseInternalSettings implements SettingsDeclaration
     @Description( "Whether or not to dump system and database diagnostics. This takes a non-negligible amount of time to do and therefore " +
             "test databases can disable this to reduce startup times" )
     public static final Setting<Boolean> dump_diagnostics = newBuilder( "unsupported.dbms.dump_diagnostics", BOOL, Boolean.TRUE ).build();
+
+    @Internal
+    @Description( "The page replacement policy of the page cache. 'CLOCK' is the classic CLOCK algorithm, where every rotation of the clock arm " +
+            "ages all pages. 'SCAN_RESISTANT' only ages frequently used pages on some of the rotations, and remembers recently evicted pages, " +
+            "so that large sequential scans do not push the working set out of the page cache." )
+    public static final Setting<EvictionPolicy> pagecache_eviction_policy =
+            newBuilder( "unsupported.dbms.memory.pagecache.eviction_policy", ofEnum( EvictionPolicy.class ), EvictionPolicy.CLOCK ).build();
+
+    @Internal
+    @Description( "The maximum number of threads that concurrently read pages from the store files, when the page cache is warmed up " +
+            "from the profiles of a previous run. This bounds the amount of IO that the warmup puts on the storage device at startup." )
+    public static final Setting<Integer> pagecache_warmup_parallelism =
+            newBuilder( "unsupported.dbms.memory.pagecache.warmup.parallelism", INT, 4 ).addConstraint( min( 1 ) ).build();
 }
@@ -236,6 +236,20 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     public static final Setting<Boolean> cypher_lenient_create_relationship =
             newBuilder( "cypher.lenient_create_relationship", BOOL, false ).build();
 
+    @Description( "The amount of memory that an operator of the interpreted runtime, such as ORDER BY, may use for the rows it buffers " +
+            "before it starts writing them to temporary files on disk. Spilled rows are read back when the operator produces its result, " +
+            "which lets queries that buffer more rows than fit in memory complete, at the cost of disk IO. " +
+            "A value of zero disables spilling, and operators keep all buffered rows in memory." )
+    public static final Setting<Long> cypher_operator_spill_threshold =
+            newBuilder( "cypher.operator_spill_threshold", BYTES, 0L ).addConstraint( min( 0L ) ).build();
+
+    @Description( "The maximum number of Cypher worker threads that a single read-only query of the interpreted runtime may use. " +
+            "Aggregations over a scan of all nodes, or of the nodes with a label, split the scan into batches that the workers read " +
+            "in parallel, each aggregating the rows it produces, and the partial aggregates are merged when the scan is exhausted. " +
+            "A value of one disables parallel execution." )
+    public static final Setting<Integer> cypher_interpreted_parallelism =
+            newBuilder( "cypher.interpreted_parallelism", INT, 1 ).addConstraint( min( 1 ) ).build();
+
     @Description( "The number of Cypher query execution plans that are cached." )
     public static final Setting<Integer> query_cache_size =
             newBuilder( "dbms.query_cache_size", INT, 1000 ).addConstraint( min( 0 ) ).build();
@@ -582,17 +596,16 @@ public class GraphDatabaseSettings implements SettingsDeclaration
             newBuilder( "dbms.memory.pagecache.flush.buffer.size_in_pages", INT, 128 ).addConstraint( range( 1, 512 ) ).dynamic().build();
 
     @Description( "The profiling frequency for the page cache. Accurate profiles allow the page cache to do active " +
-            "warmup after a restart, reducing the mean time to performance. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "warmup after a restart, reducing the mean time to performance." )
     public static final Setting<Duration> pagecache_warmup_profiling_interval =
             newBuilder( "dbms.memory.pagecache.warmup.profile.interval", DURATION, ofMinutes( 1 ) ).build();
 
     @Description( "Page cache can be configured to perform usage sampling of loaded pages that can be used to construct active load profile. " +
             "According to that profile pages can be reloaded on the restart, replication, etc. " +
-            "This setting allows disabling that behavior. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "This setting enables that behavior. It is disabled by default, because profiling visits every mapped page " +
+            "periodically and on every shutdown." )
     public static final Setting<Boolean> pagecache_warmup_enabled =
-            newBuilder( "dbms.memory.pagecache.warmup.enable", BOOL, true ).build();
+            newBuilder( "dbms.memory.pagecache.warmup.enable", BOOL, false ).build();
 
     @Description( "Page cache warmup can be configured to prefetch files, preferably when cache size is bigger than store size. " +
             "Files to be prefetched can be filtered by 'dbms.memory.pagecache.warmup.preload.allowlist'. " +
@@ -837,16 +850,20 @@ public class GraphDatabaseSettings implements SettingsDeclaration
 
     public enum TransactionStateMemoryAllocation
     {
-        ON_HEAP, OFF_HEAP
+        ON_HEAP, OFF_HEAP, FULLY_OFF_HEAP
     }
 
     @Description( "Defines whether memory for transaction state should be allocated on- or off-heap. " +
-                  "Note that for small transactions you can gain up to 25% write speed by setting it to `ON_HEAP`." )
+                  "Note that for small transactions you can gain up to 25% write speed by setting it to `ON_HEAP`. " +
+                  "`OFF_HEAP` keeps property values and sets of entity ids off-heap. `FULLY_OFF_HEAP` also keeps the states of changed " +
+                  "nodes and relationships, and the index updates they cause, off-heap, which reduces heap usage of very large transactions. " +
+                  "Only nodes that get relationships added or removed still have their state on-heap." )
     public static final Setting<TransactionStateMemoryAllocation> tx_state_memory_allocation =
             newBuilder( "dbms.tx_state.memory_allocation", ofEnum( TransactionStateMemoryAllocation.class ), OFF_HEAP ).build();
 
     @Description( "The maximum amount of off-heap memory that can be used to store transaction state data; it's a total amount of memory " +
-            "shared across all active transactions. Zero means 'unlimited'. Used when dbms.tx_state.memory_allocation is set to 'OFF_HEAP'." )
+            "shared across all active transactions. Zero means 'unlimited'. " +
+            "Used when dbms.tx_state.memory_allocation is set to 'OFF_HEAP' or 'FULLY_OFF_HEAP'." )
     public static final Setting<Long> tx_state_max_off_heap_memory =
             newBuilder( "dbms.memory.off_heap.max_size", BYTES, BYTES.parse("2G") ).addConstraint( min( 0L ) ).build();
 
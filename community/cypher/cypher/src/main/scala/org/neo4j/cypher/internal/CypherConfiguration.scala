@@ -58,6 +58,8 @@ object CypherConfiguration {
       config.get(GraphDatabaseSettings.csv_buffer_size).intValue(),
       CypherExpressionEngineOption(config.get(GraphDatabaseInternalSettings.cypher_expression_engine).toString),
       config.get(GraphDatabaseSettings.cypher_lenient_create_relationship),
+      config.get(GraphDatabaseSettings.cypher_operator_spill_threshold),
+      interpretedParallelismFromConfig(config),
       config.get(GraphDatabaseInternalSettings.cypher_pipelined_batch_size_small),
       config.get(GraphDatabaseInternalSettings.cypher_pipelined_batch_size_big),
       config.get(GraphDatabaseInternalSettings.enable_pipelined_runtime_trace),
@@ -72,6 +74,10 @@ object CypherConfiguration {
     )
   }
 
+  def interpretedParallelismFromConfig(config: Config): Int =
+    if (config.get(GraphDatabaseInternalSettings.cypher_worker_count) == -1) 1
+    else config.get(GraphDatabaseSettings.cypher_interpreted_parallelism).intValue()
+
   def statsDivergenceFromConfig(config: Config): StatsDivergenceCalculator = {
     val divergenceThreshold = config.get(GraphDatabaseSettings.query_statistics_divergence_threshold).doubleValue()
     val targetThreshold = config.get(GraphDatabaseInternalSettings.query_statistics_divergence_target).doubleValue()
@@ -124,6 +130,8 @@ case class CypherConfiguration(version: CypherVersion,
                                csvBufferSize: Int,
                                expressionEngineOption: CypherExpressionEngineOption,
                                lenientCreateRelationship: Boolean,
+                               operatorSpillThreshold: Long,
+                               interpretedParallelism: Int,
                                pipelinedBatchSizeSmall: Int,
                                pipelinedBatchSizeBig: Int,
                                doSchedulerTracing: Boolean,
@@ -143,6 +151,8 @@ case class CypherConfiguration(version: CypherVersion,
       operatorFusionOverPipelineLimit = operatorFusionOverPipelineLimit,
       schedulerTracing = toSchedulerTracingConfiguration(doSchedulerTracing, schedulerTracingFile),
       lenientCreateRelationship = lenientCreateRelationship,
+      operatorSpillThreshold = operatorSpillThreshold,
+      interpretedParallelism = interpretedParallelism,
       memoryTrackingController = memoryTrackingController,
       enableMonitors
     )
@@ -204,6 +204,8 @@ case class CypherRuntimeConfiguration(pipelinedBatchSizeSmall: Int,
                                       operatorFusionOverPipelineLimit: Int,
                                       schedulerTracing: SchedulerTracingConfiguration,
                                       lenientCreateRelationship: Boolean,
+                                      operatorSpillThreshold: Long,
+                                      interpretedParallelism: Int,
                                       memoryTrackingController: MemoryTrackingController,
                                       enableMonitors: Boolean) {
 
@@ -34,11 +34,13 @@ import org.neo4j.cypher.internal.runtime.interpreted.InterpretedPipeMapper
 import org.neo4j.cypher.internal.runtime.interpreted.UpdateCountingQueryContext
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.CommunityExpressionConverter
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.ExpressionConverters
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ArrayCypherRowFactory
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.NestedPipeExpressions
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.PipeTreeBuilder
 import org.neo4j.cypher.internal.runtime.interpreted.profiler.InterpretedProfileInformation
 import org.neo4j.cypher.internal.runtime.interpreted.profiler.Profiler
 import org.neo4j.cypher.internal.runtime.slottedParameters
+import org.neo4j.cypher.internal.runtime.variableSlotAllocation
 import org.neo4j.cypher.internal.util.InternalNotification
 import org.neo4j.cypher.result.RuntimeResult
 import org.neo4j.exceptions.PeriodicCommitInOpenTransactionException
@@ -54,7 +56,9 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
 
     val converters = new ExpressionConverters(CommunityExpressionConverter(context.tokenContext))
     val queryIndexRegistrator = new QueryIndexRegistrator(context.schemaRead)
-    val pipeMapper = InterpretedPipeMapper(query.readOnly, converters, context.tokenContext, queryIndexRegistrator)(query.semanticTable)
+    val rowFactory = ArrayCypherRowFactory(variableSlotAllocation.allocate(withSlottedParameters))
+    val pipeMapper = InterpretedPipeMapper(query.readOnly, converters, context.tokenContext, queryIndexRegistrator, rowFactory,
+      context.config.interpretedParallelism)(query.semanticTable)
     val pipeTreeBuilder = PipeTreeBuilder(pipeMapper)
     val logicalPlanWithConvertedNestedPlans = NestedPipeExpressions.build(pipeTreeBuilder, withSlottedParameters, availableExpressionVars)
     val pipe = pipeTreeBuilder.build(logicalPlanWithConvertedNestedPlans)
@@ -67,6 +71,7 @@ object InterpretedRuntime extends CypherRuntime[RuntimeContext] {
       columns,
       withSlottedParameters,
       context.config.lenientCreateRelationship,
+      context.config.operatorSpillThreshold,
       context.config.memoryTrackingController,
       query.hasLoadCSV)
 
@@ -37,6 +37,8 @@ import org.neo4j.cypher.internal.plandescription.Arguments.Runtime
 import org.neo4j.cypher.internal.plandescription.Arguments.RuntimeImpl
 import org.neo4j.cypher.internal.plandescription.Arguments.RuntimeVersion
 import org.neo4j.cypher.internal.plandescription.Arguments.SourceCode
+import org.neo4j.cypher.internal.plandescription.Arguments.SpillRuns
+import org.neo4j.cypher.internal.plandescription.Arguments.SpilledBytes
 import org.neo4j.cypher.internal.plandescription.Arguments.Time
 import org.neo4j.cypher.internal.plandescription.Arguments.Version
 import org.neo4j.cypher.internal.plandescription.asPrettyString.PrettyStringMaker
@@ -51,6 +53,8 @@ object PlanDescriptionArgumentSerializer {
       case GlobalMemory(value) => Long.box(value)
       case PageCacheHits(value) => Long.box(value)
       case PageCacheMisses(value) => Long.box(value)
+      case SpilledBytes(value) => Long.box(value)
+      case SpillRuns(value) => Long.box(value)
       case Rows(value) => Long.box(value)
       case Time(value) => Long.box(value)
       case EstimatedRows(value) => Double.box(value)
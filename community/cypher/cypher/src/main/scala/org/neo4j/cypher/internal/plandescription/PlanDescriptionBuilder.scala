@@ -64,6 +64,8 @@ class PlanDescriptionBuilder(logicalPlan: LogicalPlan,
           .addArgument(Arguments.PageCacheMisses, data.pageCacheMisses)
           .addArgument(Arguments.Time, data.time())
           .addArgument(Arguments.Memory, data.maxAllocatedMemory())
+          .addArgument(Arguments.SpilledBytes, data.spilledBytes())
+          .addArgument(Arguments.SpillRuns, data.spillRuns())
         .plan
     }
   }
@@ -36,6 +36,8 @@ import org.neo4j.cypher.internal.plandescription.Arguments.Runtime
 import org.neo4j.cypher.internal.plandescription.Arguments.RuntimeImpl
 import org.neo4j.cypher.internal.plandescription.Arguments.RuntimeVersion
 import org.neo4j.cypher.internal.plandescription.Arguments.SourceCode
+import org.neo4j.cypher.internal.plandescription.Arguments.SpillRuns
+import org.neo4j.cypher.internal.plandescription.Arguments.SpilledBytes
 import org.neo4j.cypher.internal.plandescription.Arguments.Time
 import org.neo4j.cypher.internal.plandescription.Arguments.Version
 
@@ -54,11 +56,12 @@ object renderAsTreeTable extends (InternalPlanDescription => String) {
   private val HITS = "DB Hits"
   private val MEMORY = "Memory (Bytes)"
   private val PAGE_CACHE = "Page Cache Hits/Misses"
+  private val SPILL = "Spilled Bytes/Runs"
   private val TIME = "Time (ms)"
   private val ORDER = "Ordered by"
   val MAX_DETAILS_COLUMN_WIDTH = 100
   private val OTHER = "Other"
-  private val HEADERS = Seq(OPERATOR, DETAILS, ESTIMATED_ROWS, ROWS, HITS, MEMORY, PAGE_CACHE, TIME,
+  private val HEADERS = Seq(OPERATOR, DETAILS, ESTIMATED_ROWS, ROWS, HITS, MEMORY, PAGE_CACHE, SPILL, TIME,
     ORDER, OTHER)
   private val newLine = System.lineSeparator()
   private val SEPARATOR = ","
@@ -174,6 +177,10 @@ object renderAsTreeTable extends (InternalPlanDescription => String) {
       s"${count.toString}/${description.arguments.collectFirst {
         case PageCacheMisses(count) => count
       }.getOrElse(0L)}"), columns)
+    case SpilledBytes(bytes) => mapping(SPILL, RightJustifiedCell(
+      s"${bytes.toString}/${description.arguments.collectFirst {
+        case SpillRuns(runs) => runs
+      }.getOrElse(0L)}"), columns)
     case Time(nanos) => mapping(TIME, RightJustifiedCell("%.3f".format(nanos/1000000.0)), columns)
     case Order(providedOrder) => mapping(ORDER, LeftJustifiedCell(providedOrder.prettifiedString), columns)
     case Details(detailsList) =>
@@ -248,6 +255,8 @@ object renderAsTreeTable extends (InternalPlanDescription => String) {
         !x.isInstanceOf[GlobalMemory] &&
         !x.isInstanceOf[PageCacheHits] &&
         !x.isInstanceOf[PageCacheMisses] &&
+        !x.isInstanceOf[SpilledBytes] &&
+        !x.isInstanceOf[SpillRuns] &&
         !x.isInstanceOf[EstimatedRows] &&
         !x.isInstanceOf[Order] &&
         !x.isInstanceOf[Planner] &&
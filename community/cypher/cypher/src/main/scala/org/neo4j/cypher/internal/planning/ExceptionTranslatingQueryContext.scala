@@ -71,6 +71,9 @@ class ExceptionTranslatingQueryContext(val inner: QueryContext) extends QueryCon
 
   override def resources: ResourceManager = inner.resources
 
+  override def createParallelQueryContext(): QueryContext =
+    new ExceptionTranslatingQueryContext(inner.createParallelQueryContext())
+
   override def transactionalContext =
     new ExceptionTranslatingTransactionalContext(inner.transactionalContext)
 
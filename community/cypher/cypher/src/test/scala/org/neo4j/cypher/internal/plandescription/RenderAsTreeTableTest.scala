@@ -41,6 +41,8 @@ import org.neo4j.cypher.internal.plandescription.Arguments.PageCacheMisses
 import org.neo4j.cypher.internal.plandescription.Arguments.PipelineInfo
 import org.neo4j.cypher.internal.plandescription.Arguments.Planner
 import org.neo4j.cypher.internal.plandescription.Arguments.Rows
+import org.neo4j.cypher.internal.plandescription.Arguments.SpillRuns
+import org.neo4j.cypher.internal.plandescription.Arguments.SpilledBytes
 import org.neo4j.cypher.internal.plandescription.Arguments.Time
 import org.neo4j.cypher.internal.plandescription.LogicalPlan2PlanDescriptionTest.details
 import org.neo4j.cypher.internal.plandescription.LogicalPlan2PlanDescriptionTest.planDescription
@@ -321,6 +323,24 @@ class RenderAsTreeTableTest extends CypherFunSuite with BeforeAndAfterAll with A
         |""".stripMargin)
   }
 
+  test("spilled bytes and runs are rendered in one column") {
+    val args1 = Seq(Rows(42), DbHits(33), EstimatedRows(1))
+    val args2 = Seq(Rows(42), EstimatedRows(1), Memory(5), SpilledBytes(1024), SpillRuns(3))
+
+    val plan1 = planDescription(id, "LEAF", NoChildren, args1, Set("a"))
+    val plan2 = planDescription(id, "SORT", SingleChild(plan1), args2, Set("a"))
+
+    renderAsTreeTable(plan2) should equal(
+      """+----------+----------------+------+---------+----------------+--------------------+
+        || Operator | Estimated Rows | Rows | DB Hits | Memory (Bytes) | Spilled Bytes/Runs |
+        |+----------+----------------+------+---------+----------------+--------------------+
+        || +SORT    |              1 |   42 |         |              5 |             1024/3 |
+        || |        +----------------+------+---------+----------------+--------------------+
+        || +LEAF    |              1 |   42 |      33 |                |                    |
+        |+----------+----------------+------+---------+----------------+--------------------+
+        |""".stripMargin)
+  }
+
   test("plan information is rendered on the corresponding row to the tree") {
     val args1 = Seq(Rows(42), DbHits(33), EstimatedRows(1), Memory(5))
     val args2 = Seq(Rows(2), DbHits(633), details("Index stuff"), EstimatedRows(1))
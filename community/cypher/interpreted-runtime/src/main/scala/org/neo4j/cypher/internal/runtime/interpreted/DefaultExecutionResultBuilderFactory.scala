@@ -84,6 +84,7 @@ case class InterpretedExecutionResultBuilderFactory(pipe: Pipe,
                                                     columns: Seq[String],
                                                     logicalPlan: LogicalPlan,
                                                     lenientCreateRelationship: Boolean,
+                                                    operatorSpillThreshold: Long,
                                                     memoryTrackingController: MemoryTrackingController,
                                                     hasLoadCSV: Boolean = false)
   extends BaseExecutionResultBuilderFactory(pipe, readOnly, columns, logicalPlan, hasLoadCSV) {
@@ -106,6 +107,7 @@ case class InterpretedExecutionResultBuilderFactory(pipe: Pipe,
                      QueryMemoryTracker(memoryTrackingController.memoryTracking(doProfile), transactionMemoryTracker),
                      pipeDecorator,
                      lenientCreateRelationship = lenientCreateRelationship,
+                     operatorSpillThreshold = operatorSpillThreshold,
                      prePopulateResults = prePopulateResults,
                      input = input)
     }
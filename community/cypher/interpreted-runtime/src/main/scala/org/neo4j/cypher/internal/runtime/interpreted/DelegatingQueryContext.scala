@@ -61,6 +61,7 @@ import org.neo4j.kernel.database.NamedDatabaseId
 import org.neo4j.kernel.impl.core.TransactionalEntityFactory
 import org.neo4j.kernel.impl.factory.DbmsInfo
 import org.neo4j.memory.MemoryTracker
+import org.neo4j.scheduler.CallableExecutor
 import org.neo4j.values.AnyValue
 import org.neo4j.values.storable.TextValue
 import org.neo4j.values.storable.Value
@@ -89,6 +90,8 @@ abstract class DelegatingQueryContext(val inner: QueryContext) extends QueryCont
 
   override def resources: ResourceManager = inner.resources
 
+  override def createParallelQueryContext(): QueryContext = inner.createParallelQueryContext()
+
   override def transactionalContext: QueryTransactionalContext = inner.transactionalContext
 
   override def entityAccessor: TransactionalEntityFactory = inner.entityAccessor
@@ -409,6 +412,8 @@ class DelegatingQueryTransactionalContext(val inner: QueryTransactionalContext)
 
   override def cursors: CursorFactory = inner.cursors
 
+  override def workerExecutor: CallableExecutor = inner.workerExecutor
+
   override def dataRead: Read = inner.dataRead
 
   override def tokenRead: TokenRead = inner.tokenRead
@@ -94,6 +94,7 @@ import org.neo4j.cypher.internal.logical.plans.PruningVarExpand
 import org.neo4j.cypher.internal.logical.plans.RelationshipCountFromCountStore
 import org.neo4j.cypher.internal.logical.plans.RemoveLabels
 import org.neo4j.cypher.internal.logical.plans.ResolvedCall
+import org.neo4j.cypher.internal.logical.plans.ResolvedFunctionInvocation
 import org.neo4j.cypher.internal.logical.plans.RightOuterHashJoin
 import org.neo4j.cypher.internal.logical.plans.RollUpApply
 import org.neo4j.cypher.internal.logical.plans.SelectOrAntiSemiApply
@@ -121,6 +122,7 @@ import org.neo4j.cypher.internal.planner.spi.TokenContext
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.ProcedureCallMode
 import org.neo4j.cypher.internal.runtime.QueryIndexRegistrator
+import org.neo4j.cypher.internal.runtime.VariableSlots
 import org.neo4j.cypher.internal.runtime.ast.ExpressionVariable
 import org.neo4j.cypher.internal.runtime.interpreted.commands.KeyTokenResolver
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.ExpressionConverters
@@ -130,6 +132,8 @@ import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Aggreg
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Literal
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.ShortestPathExpression
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.SlottedVariable
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Variable
 import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.Predicate
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.AllNodesScanPipe
@@ -137,13 +141,16 @@ import org.neo4j.cypher.internal.runtime.interpreted.pipes.AllOrderedDistinctPip
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.AntiSemiApplyPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.ApplyPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.ArgumentPipe
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ArrayCypherRowFactory
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.AssertSameNodePipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.CachePropertiesPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.CartesianProductPipe
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.CommunityCypherRowFactory
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.ConditionalApplyPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.CreateNodeCommand
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.CreatePipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.CreateRelationshipCommand
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.CypherRowFactory
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.DeletePipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.DirectedRelationshipByIdSeekPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe
@@ -168,6 +175,8 @@ import org.neo4j.cypher.internal.runtime.interpreted.pipes.LoadCSVPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.LockNodesPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.MergeCreateNodePipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.MergeCreateRelationshipPipe
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.NestedPipeCollectExpression
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.NestedPipeExistsExpression
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.NodeByIdSeekPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.NodeByLabelScanPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.NodeCountFromCountStorePipe
@@ -184,12 +193,15 @@ import org.neo4j.cypher.internal.runtime.interpreted.pipes.OptionalExpandIntoPip
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.OptionalPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.OrderedAggregationPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.OrderedDistinctPipe
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ParallelAggregationPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.PartialSortPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.PartialTop1Pipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.PartialTop1WithTiesPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.PartialTopNPipe
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.PartitionedScanPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.Pipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.PipeMapper
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.PipeWithSource
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.ProcedureCallPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.ProcedureCallRowProcessing
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.ProduceResultsPipe
@@ -228,6 +240,7 @@ import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.GroupingA
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.NonGroupingAggTable
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.OrderedGroupingAggTable
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.OrderedNonGroupingAggTable
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.SpillableAggregationFunction
 import org.neo4j.cypher.internal.util.Eagerly
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.exceptions.InternalException
@@ -242,14 +255,37 @@ import org.neo4j.values.virtual.RelationshipValue
 case class InterpretedPipeMapper(readOnly: Boolean,
                                  expressionConverters: ExpressionConverters,
                                  tokenContext: TokenContext,
-                                 indexRegistrator: QueryIndexRegistrator)
+                                 indexRegistrator: QueryIndexRegistrator,
+                                 rowFactory: CypherRowFactory = CommunityCypherRowFactory(),
+                                 parallelism: Int = 1)
                                 (implicit semanticTable: SemanticTable) extends PipeMapper {
 
+  private def withRowFactory(pipe: Pipe): Pipe = {
+    pipe.rowFactory = rowFactory
+    pipe
+  }
+
   private def getBuildExpression(id: Id): internal.expressions.Expression => Expression =
     ((e: internal.expressions.Expression) => expressionConverters.toCommandExpression(id, e)) andThen
-      (expression => expression.rewrite(KeyTokenResolver.resolveExpressions(_, tokenContext)))
+      (expression => expression.rewrite(resolveExpressions))
 
-  def onLeaf(plan: LogicalPlan): Pipe = {
+  private val variableSlots: Option[VariableSlots] = rowFactory match {
+    case ArrayCypherRowFactory(slots) => Some(slots)
+    case _ => None
+  }
+
+  // Variables that have a slot in the layout of the rows are read from their offset instead of being looked up by name
+  private def resolveExpressions(expression: Expression): Expression =
+    (KeyTokenResolver.resolveExpressions(expression, tokenContext), variableSlots) match {
+      case (variable @ Variable(name), Some(slots)) =>
+        val offset = slots.offsetOf(name)
+        if (offset >= 0) SlottedVariable(slots, offset, name) else variable
+      case (resolved, _) => resolved
+    }
+
+  def onLeaf(plan: LogicalPlan): Pipe = withRowFactory(leafPipe(plan))
+
+  private def leafPipe(plan: LogicalPlan): Pipe = {
     val id = plan.id
     val buildExpression = getBuildExpression(id)
     plan match {
@@ -315,7 +351,9 @@ case class InterpretedPipeMapper(readOnly: Boolean,
     }
   }
 
-  def onOneChildPlan(plan: LogicalPlan, source: Pipe): Pipe = {
+  def onOneChildPlan(plan: LogicalPlan, source: Pipe): Pipe = withRowFactory(oneChildPipe(plan, source))
+
+  private def oneChildPipe(plan: LogicalPlan, source: Pipe): Pipe = {
     val id = plan.id
     val buildExpression = getBuildExpression(id)
     plan match {
@@ -466,22 +504,30 @@ case class InterpretedPipeMapper(readOnly: Boolean,
         }.toArray
         OrderedDistinctPipe(source, projection)(id = id)
 
-      case Aggregation(_, groupingExpressions, aggregatingExpressions) =>
+      case Aggregation(sourcePlan, groupingExpressions, aggregatingExpressions) =>
         val aggregationColumns = aggregatingExpressions.map {
           case (key, value) => AggregationPipe.AggregatingCol(key, buildExpression(value).asInstanceOf[AggregationExpression])
         }.toArray
+        val groupingColumns = groupingExpressions.map {
+          case (key, value) => DistinctPipe.GroupingCol(key, buildExpression(value))
+        }.toArray
 
         val tableFactory =
-          if (groupingExpressions.isEmpty) {
+          if (groupingColumns.isEmpty) {
             NonGroupingAggTable.Factory(aggregationColumns)
           } else {
-            val groupingColumns = groupingExpressions.map {
-              case (key, value) => DistinctPipe.GroupingCol(key, buildExpression(value))
-            }.toArray
             val groupingFunction: (CypherRow, QueryState) => AnyValue = AggregationPipe.computeGroupingFunction(groupingColumns)
             GroupingAggTable.Factory(groupingColumns, groupingFunction, aggregationColumns)
           }
-        EagerAggregationPipe(source, tableFactory)(id = id)
+
+        val parallelScan =
+          if (parallelism > 1 && readOnly && !hasNestedPipesOrCalls(plan) && SpillableAggregationFunction.allSpillable(aggregationColumns))
+            partitionedScanLeaf(sourcePlan, source)
+          else None
+        parallelScan match {
+          case Some(scan) => ParallelAggregationPipe(source, scan, groupingColumns, aggregationColumns, tableFactory, parallelism)(id = id)
+          case None => EagerAggregationPipe(source, tableFactory)(id = id)
+        }
 
       case OrderedAggregation(_, groupingExpressions, aggregatingExpressions, orderToLeverage) =>
         val aggregationColumns = aggregatingExpressions.map {
@@ -627,6 +673,27 @@ case class InterpretedPipeMapper(readOnly: Boolean,
     }
   }
 
+  /**
+   * The leaf of a pipeline that workers can run in parallel over a partitioned scan, if the plan is such a pipeline: a scan of all nodes,
+   * or of the nodes with a label, followed only by operators that handle rows one at a time.
+   */
+  private def partitionedScanLeaf(plan: LogicalPlan, pipe: Pipe): Option[PartitionedScanPipe] = (plan, pipe) match {
+    case (_: AllNodesScan | _: NodeByLabelScan, scan: PartitionedScanPipe) =>
+      Some(scan)
+    case (_: Selection | _: Projection | _: CacheProperties | Expand(_, _, _, _, _, _, ExpandAll) | OptionalExpand(_, _, _, _, _, _, ExpandAll, _),
+          pipeWithSource: PipeWithSource) =>
+      partitionedScanLeaf(plan.lhs.get, pipeWithSource.getSource)
+    case _ =>
+      None
+  }
+
+  // Nested pipes may use index readers, which cannot be shared between workers, and user-defined functions and procedures
+  // change the security context of the transaction that the workers share while they run
+  private def hasNestedPipesOrCalls(plan: LogicalPlan): Boolean = plan.treeExists {
+    case _: NestedPipeCollectExpression | _: NestedPipeExistsExpression => true
+    case _: ResolvedFunctionInvocation | _: ResolvedCall => true
+  }
+
   private def varLengthPredicate(id: Id,
                                  nodePredicate: Option[VariablePredicate],
                                  relationshipPredicate: Option[VariablePredicate]): VarLengthPredicate  = {
@@ -655,7 +722,9 @@ case class InterpretedPipeMapper(readOnly: Boolean,
     }
   }
 
-  def onTwoChildPlan(plan: LogicalPlan, lhs: Pipe, rhs: Pipe): Pipe = {
+  def onTwoChildPlan(plan: LogicalPlan, lhs: Pipe, rhs: Pipe): Pipe = withRowFactory(twoChildPipe(plan, lhs, rhs))
+
+  private def twoChildPipe(plan: LogicalPlan, lhs: Pipe, rhs: Pipe): Pipe = {
     val id = plan.id
     val buildExpression = getBuildExpression(id)
     plan match {
@@ -730,7 +799,7 @@ case class InterpretedPipeMapper(readOnly: Boolean,
 
   private def buildPredicate(id: Id, expr: internal.expressions.Expression): Predicate =
     expressionConverters.toCommandPredicate(id, expr)
-      .rewrite(KeyTokenResolver.resolveExpressions(_, tokenContext))
+      .rewrite(resolveExpressions)
       .asInstanceOf[Predicate]
 
   private def translateColumnOrder(s: plans.ColumnOrder): org.neo4j.cypher.internal.runtime.interpreted.ColumnOrder = s match {
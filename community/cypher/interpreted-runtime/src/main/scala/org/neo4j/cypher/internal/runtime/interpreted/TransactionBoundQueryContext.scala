@@ -91,6 +91,7 @@ import org.neo4j.internal.schema.IndexDescriptor
 import org.neo4j.internal.schema.IndexPrototype
 import org.neo4j.internal.schema.SchemaDescriptor
 import org.neo4j.kernel.GraphDatabaseQueryService
+import org.neo4j.kernel.api.Kernel
 import org.neo4j.kernel.api.StatementConstants
 import org.neo4j.kernel.api.exceptions.schema.EquivalentSchemaRuleAlreadyExistsException
 import org.neo4j.kernel.impl.core.TransactionalEntityFactory
@@ -128,6 +129,11 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
   private lazy val valueMapper: ValueMapper[java.lang.Object] = new DefaultValueMapper(
     transactionalContext.tc.transaction())
 
+  override def createParallelQueryContext(): QueryContext = {
+    val kernel = transactionalContext.graph.getDependencyResolver.resolveDependency(classOf[Kernel])
+    new TransactionBoundQueryContext(TransactionalContextWrapper(transactionalContext.tc, kernel.cursors()), new ResourceManager)(indexSearchMonitor)
+  }
+
   override def setLabelsOnNode(node: Long, labelIds: Iterator[Int]): Int = labelIds.foldLeft(0) {
     case (count, labelId) => if (writes().nodeAddLabel(node, labelId)) count + 1 else count
   }
@@ -137,9 +143,9 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
 
   private def writes() = transactionalContext.dataWrite
 
-  private def allocateNodeCursor() = transactionalContext.cursors.allocateNodeCursor( transactionalContext.kernelTransaction.pageCursorTracer() )
+  private def allocateNodeCursor() = transactionalContext.cursors.allocateNodeCursor( transactionalContext.cursorTracer )
 
-  private def allocateRelationshipScanCursor() = transactionalContext.cursors.allocateRelationshipScanCursor( transactionalContext.kernelTransaction.pageCursorTracer() )
+  private def allocateRelationshipScanCursor() = transactionalContext.cursors.allocateRelationshipScanCursor( transactionalContext.cursorTracer )
 
   private def tokenRead = transactionalContext.kernelTransaction.tokenRead()
 
@@ -208,7 +214,7 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
 
     val cursor = allocateNodeCursor()
     val cursors = transactionalContext.cursors
-    val cursorTracer = transactionalContext.kernelTransaction.pageCursorTracer()
+    val cursorTracer = transactionalContext.cursorTracer
 
     try {
       val read = reads()
@@ -247,7 +253,7 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
     try {
       val read = reads()
       val cursors = transactionalContext.cursors
-      val cursorTracer = transactionalContext.kernelTransaction.pageCursorTracer()
+      val cursorTracer = transactionalContext.cursorTracer
       read.singleNode(node, cursor)
       if (!cursor.next()) ClosingLongIterator.emptyClosingRelationshipIterator
       else {
@@ -265,16 +271,16 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
   }
 
   override def nodeCursor(): NodeCursor =
-    transactionalContext.cursors.allocateNodeCursor(transactionalContext.kernelTransaction.pageCursorTracer)
+    transactionalContext.cursors.allocateNodeCursor(transactionalContext.cursorTracer)
 
   override def relationshipScanCursor(): RelationshipScanCursor =
-    transactionalContext.cursors.allocateRelationshipScanCursor(transactionalContext.kernelTransaction.pageCursorTracer)
+    transactionalContext.cursors.allocateRelationshipScanCursor(transactionalContext.cursorTracer)
 
   override def propertyCursor(): PropertyCursor =
-    transactionalContext.cursors.allocatePropertyCursor(transactionalContext.kernelTransaction.pageCursorTracer, transactionalContext.tc.kernelTransaction().memoryTracker())
+    transactionalContext.cursors.allocatePropertyCursor(transactionalContext.cursorTracer, transactionalContext.memoryTracker)
 
   override def traversalCursor(): RelationshipTraversalCursor =
-    transactionalContext.cursors.allocateRelationshipTraversalCursor(transactionalContext.kernelTransaction.pageCursorTracer)
+    transactionalContext.cursors.allocateRelationshipTraversalCursor(transactionalContext.cursorTracer)
 
   override def relationshipById(relationshipId: Long,
                                 startNodeId: Long,
@@ -354,7 +360,7 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
   override def lockingUniqueIndexSeek[RESULT](index: IndexDescriptor,
                                               queries: Seq[IndexQuery.ExactPredicate]): NodeValueIndexCursor = {
 
-    val cursor = transactionalContext.cursors.allocateNodeValueIndexCursor(transactionalContext.kernelTransaction.pageCursorTracer, transactionalContext.tc.kernelTransaction().memoryTracker())
+    val cursor = transactionalContext.cursors.allocateNodeValueIndexCursor(transactionalContext.cursorTracer, transactionalContext.memoryTracker)
     try {
       indexSearchMonitor.lockingUniqueIndexSeek(index, queries)
       if (queries.exists(q => q.value() eq Values.NO_VALUE))
@@ -1048,25 +1054,25 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
   }
 
   private def allocateAndTraceNodeCursor() = {
-    val cursor = transactionalContext.cursors.allocateNodeCursor(transactionalContext.kernelTransaction.pageCursorTracer)
+    val cursor = transactionalContext.cursors.allocateNodeCursor(transactionalContext.cursorTracer)
     resources.trace(cursor)
     cursor
   }
 
   private def allocateAndTraceRelationshipScanCursor() = {
-    val cursor = transactionalContext.cursors.allocateRelationshipScanCursor(transactionalContext.kernelTransaction.pageCursorTracer)
+    val cursor = transactionalContext.cursors.allocateRelationshipScanCursor(transactionalContext.cursorTracer)
     resources.trace(cursor)
     cursor
   }
 
   private def allocateAndTraceNodeValueIndexCursor() = {
-    val cursor = transactionalContext.cursors.allocateNodeValueIndexCursor(transactionalContext.kernelTransaction.pageCursorTracer, transactionalContext.kernelTransaction.memoryTracker())
+    val cursor = transactionalContext.cursors.allocateNodeValueIndexCursor(transactionalContext.cursorTracer, transactionalContext.memoryTracker)
     resources.trace(cursor)
     cursor
   }
 
   private def allocateAndTraceNodeLabelIndexCursor() = {
-    val cursor = transactionalContext.cursors.allocateNodeLabelIndexCursor(transactionalContext.kernelTransaction.pageCursorTracer)
+    val cursor = transactionalContext.cursors.allocateNodeLabelIndexCursor(transactionalContext.cursorTracer)
     resources.trace(cursor)
     cursor
   }
@@ -26,17 +26,22 @@ import org.neo4j.internal.kernel.api.Read
 import org.neo4j.internal.kernel.api.SchemaRead
 import org.neo4j.internal.kernel.api.TokenRead
 import org.neo4j.internal.kernel.api.Write
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer
 import org.neo4j.kernel.GraphDatabaseQueryService
 import org.neo4j.kernel.api.KernelTransaction
 import org.neo4j.kernel.database.NamedDatabaseId
 import org.neo4j.kernel.impl.api.SchemaStateKey
 import org.neo4j.kernel.impl.factory.DbmsInfo
 import org.neo4j.kernel.impl.query.TransactionalContext
+import org.neo4j.memory.EmptyMemoryTracker
+import org.neo4j.memory.MemoryTracker
+import org.neo4j.scheduler.CallableExecutor
+import org.neo4j.scheduler.Group
+import org.neo4j.scheduler.JobScheduler
 
 /**
- * TODO: Currently threadSafeCursors is entirely unused (always null), so we should consider removing it
- *
- * @param threadSafeCursors use this instead of the cursors of the current transaction, unless this is `null`.
+ * @param threadSafeCursors use this instead of the cursors of the current transaction, unless this is `null`. This is the case for
+ *                          the contexts of workers that read the transaction in parallel, see [[TransactionBoundQueryContext.createParallelQueryContext]].
  */
 case class TransactionalContextWrapper(tc: TransactionalContext, threadSafeCursors: CursorFactory = null) extends QueryTransactionalContext {
 
@@ -48,6 +53,19 @@ case class TransactionalContextWrapper(tc: TransactionalContext, threadSafeCurso
 
   override def cursors: CursorFactory = if (threadSafeCursors == null) tc.kernelTransaction.cursors() else threadSafeCursors
 
+  /**
+   * The page cursor tracer to allocate cursors with. The tracer of the transaction is not thread-safe, so the cursors of workers are not traced.
+   */
+  def cursorTracer: PageCursorTracer = if (threadSafeCursors == null) tc.kernelTransaction.pageCursorTracer() else PageCursorTracer.NULL
+
+  /**
+   * The memory tracker to allocate cursors with. The tracker of the transaction is not thread-safe, so the cursors of workers are not tracked.
+   */
+  def memoryTracker: MemoryTracker = if (threadSafeCursors == null) tc.kernelTransaction.memoryTracker() else EmptyMemoryTracker.INSTANCE
+
+  override def workerExecutor: CallableExecutor =
+    tc.graph().getDependencyResolver.resolveDependency(classOf[JobScheduler]).executor(Group.CYPHER_WORKER)
+
   override def dataRead: Read = tc.kernelTransaction().dataRead()
 
   override def tokenRead: TokenRead = tc.kernelTransaction().tokenRead()
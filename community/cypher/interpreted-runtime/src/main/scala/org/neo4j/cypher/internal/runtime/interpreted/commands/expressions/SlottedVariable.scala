@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.commands.expressions
+
+import org.neo4j.cypher.internal.runtime.ArrayCypherRow
+import org.neo4j.cypher.internal.runtime.ReadableRow
+import org.neo4j.cypher.internal.runtime.VariableSlots
+import org.neo4j.cypher.internal.runtime.interpreted.commands.AstNode
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.values.AnyValue
+
+/**
+ * A [[Variable]] that has a slot in the layout of the plan. It is read from its offset in rows with that layout, and
+ * looked up by name in any other row.
+ */
+case class SlottedVariable(slots: VariableSlots, offset: Int, name: String) extends VariableCommand(name) {
+
+  override def apply(row: ReadableRow, state: QueryState): AnyValue = row match {
+    case arrayRow: ArrayCypherRow => arrayRow.getBySlot(slots, offset, name)
+    case _ => row.getByName(name)
+  }
+
+  override def children: Seq[AstNode[_]] = Seq.empty
+}
@@ -22,6 +22,7 @@ package org.neo4j.cypher.internal.runtime.interpreted.commands.predicates
 import org.neo4j.cypher.internal.runtime.ReadableRow
 import org.neo4j.cypher.internal.runtime.interpreted.commands.AstNode
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.SlottedVariable
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Variable
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.VariableCommand
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
@@ -89,6 +90,7 @@ case class AndedPropertyComparablePredicates(ident: VariableCommand, prop: Expre
   private def rewriteVariableIfNotTypeChanged(f: Expression => Expression) =
     ident.rewrite(f) match {
       case i: Variable => i
+      case i: SlottedVariable => i
       case _ => ident
     }
 
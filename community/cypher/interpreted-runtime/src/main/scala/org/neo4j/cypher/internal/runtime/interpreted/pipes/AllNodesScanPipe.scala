@@ -23,11 +23,14 @@ import org.neo4j.cypher.internal.runtime.ClosingIterator
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.util.attribution.Id
 
-case class AllNodesScanPipe(ident: String)(val id: Id = Id.INVALID_ID) extends Pipe {
+case class AllNodesScanPipe(ident: String)(val id: Id = Id.INVALID_ID) extends PartitionedScanPipe {
 
   protected def internalCreateResults(state: QueryState): ClosingIterator[CypherRow] = {
     val baseContext = state.newRowWithArgument(rowFactory)
-    state.query.nodeOps.all.map(n => rowFactory.copyWith(baseContext, ident, n))
+    val nodes = state.partitionedScanOf(id).map(_.nodes(state.query)).getOrElse(state.query.nodeOps.all)
+    nodes.map(n => rowFactory.copyWith(baseContext, ident, n))
   }
 
+  override def partitionedScan(state: QueryState): Option[PartitionedScan] =
+    Some(PartitionedScan.allNodes(id, state.query.transactionalContext.dataRead))
 }
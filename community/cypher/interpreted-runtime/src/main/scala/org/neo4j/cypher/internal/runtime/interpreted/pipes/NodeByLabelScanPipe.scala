@@ -26,17 +26,23 @@ import org.neo4j.cypher.internal.runtime.interpreted.pipes.LazyLabel.UNKNOWN
 import org.neo4j.cypher.internal.util.attribution.Id
 
 case class NodeByLabelScanPipe(ident: String, label: LazyLabel, indexOrder: IndexOrder)
-                              (val id: Id = Id.INVALID_ID) extends Pipe {
+                              (val id: Id = Id.INVALID_ID) extends PartitionedScanPipe {
 
   protected def internalCreateResults(state: QueryState): ClosingIterator[CypherRow] = {
 
-    val id = label.getId(state.query)
-    if (id != UNKNOWN) {
-      val nodes = state.query.getNodesByLabel(id, indexOrder)
+    val labelId = label.getId(state.query)
+    if (labelId != UNKNOWN) {
+      val nodes = state.partitionedScanOf(id).map(_.nodes(state.query)).getOrElse(state.query.getNodesByLabel(labelId, indexOrder))
       val baseContext = state.newRowWithArgument(rowFactory)
       nodes.map(n => rowFactory.copyWith(baseContext, ident, n))
     } else {
       ClosingIterator.empty
     }
   }
+
+  override def partitionedScan(state: QueryState): Option[PartitionedScan] = {
+    val labelId = label.getId(state.query)
+    if (labelId != UNKNOWN) Some(PartitionedScan.nodesWithLabel(id, state.query.transactionalContext.dataRead, labelId))
+    else None
+  }
 }
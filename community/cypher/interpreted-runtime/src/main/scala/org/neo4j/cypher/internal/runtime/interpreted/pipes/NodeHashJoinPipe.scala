@@ -22,6 +22,7 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 import org.neo4j.cypher.internal.runtime.ClosingIterator
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.IsNoValue
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.HybridHashJoin
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.exceptions.CypherTypeException
 import org.neo4j.kernel.impl.util.collection
@@ -44,6 +45,11 @@ case class NodeHashJoinPipe(nodeVariables: Set[String], left: Pipe, right: Pipe)
     if (rhsIterator.isEmpty)
       return ClosingIterator.empty
 
+    if (state.operatorSpillThreshold > 0) {
+      val join = new HybridHashJoin(row => computeKey(row).orNull, row => computeKey(row).orNull, id.x, state)
+      return join.join(input, rhsIterator)
+    }
+
     val table = buildProbeTable(input, state)
     state.query.resources.trace(table)
 
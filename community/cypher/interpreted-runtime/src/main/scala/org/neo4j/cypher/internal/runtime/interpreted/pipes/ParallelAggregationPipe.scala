@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Future
+import java.util.concurrent.atomic.AtomicBoolean
+
+import org.neo4j.cypher.internal.runtime.ClosingIterator
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.ExpressionCursors
+import org.neo4j.cypher.internal.runtime.NoOpQueryMemoryTracker
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregatingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregationTableFactory
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe.GroupingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.ParallelAggregationTable
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.PartialAggregation
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.internal.helpers.Exceptions
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer
+import org.neo4j.memory.EmptyMemoryTracker
+import org.neo4j.values.AnyValue
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+ * Aggregates the rows of a pipeline over a partitioned scan with several workers. Every worker runs the pipeline with a state of its own,
+ * over the batches of the scan that it reserves, and aggregates the rows into a partial aggregation. The partial aggregations are merged
+ * when the scan is exhausted. The thread that executes the query is one of the workers, the others run on the Cypher worker threads.
+ *
+ * The pipeline is executed on one thread, like in [[EagerAggregationPipe]], when the query is profiled, or when the transaction has changes,
+ * since the changes of a transaction cannot be read concurrently.
+ *
+ * @param scan        the leaf of the pipeline
+ * @param parallelism the number of workers
+ */
+case class ParallelAggregationPipe(source: Pipe,
+                                   scan: PartitionedScanPipe,
+                                   groupingColumns: Array[GroupingCol],
+                                   aggregations: Array[AggregatingCol],
+                                   tableFactory: AggregationTableFactory,
+                                   parallelism: Int)
+                                  (val id: Id = Id.INVALID_ID)
+  extends AggregationPipe(source) {
+
+  private val groupingFunction: (CypherRow, QueryState) => AnyValue = ParallelAggregationTable.computeGroupingFunction(groupingColumns)
+
+  protected def internalCreateResults(input: ClosingIterator[CypherRow], state: QueryState): ClosingIterator[CypherRow] = {
+    val partitionedScan =
+      if (state.decorator != NullPipeDecorator || state.query.transactionalContext.dataRead.transactionStateHasChanges) None
+      else scan.partitionedScan(state)
+
+    partitionedScan match {
+      case Some(partitionedScan) =>
+        input.close()
+        aggregateInParallel(partitionedScan, state)
+      case None =>
+        val table = tableFactory.table(state, rowFactory, id)
+        table.clear()
+        while (input.hasNext) {
+          table.processRow(input.next())
+        }
+        table.result()
+    }
+  }
+
+  private def aggregateInParallel(partitionedScan: PartitionedScan, state: QueryState): ClosingIterator[CypherRow] = {
+    val cancelled = new AtomicBoolean(false)
+    val worker = new Worker(partitionedScan, state, cancelled)
+    val executor = state.query.transactionalContext.workerExecutor
+    val futures = new ArrayBuffer[Future[PartialAggregation]](parallelism - 1)
+
+    val partials = new ArrayBuffer[PartialAggregation](parallelism)
+    var failure: Throwable = null
+    try {
+      while (futures.size < parallelism - 1) {
+        futures += executor.submit(worker)
+      }
+      partials += worker.call()
+    } catch {
+      case e: Throwable =>
+        cancelled.set(true)
+        failure = e
+    }
+
+    // The workers read the transaction of the query, so all of them must have stopped before we return, also when we fail or are interrupted
+    var interrupted = false
+    futures.foreach { future =>
+      var stopped = false
+      while (!stopped) {
+        try {
+          partials += future.get()
+          stopped = true
+        } catch {
+          case e: InterruptedException =>
+            cancelled.set(true)
+            if (!interrupted) {
+              failure = Exceptions.chain(failure, e)
+              interrupted = true
+            }
+          case e: ExecutionException =>
+            failure = Exceptions.chain(failure, e.getCause)
+            stopped = true
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt()
+    }
+    if (failure != null) {
+      throw failure
+    }
+
+    val table = new ParallelAggregationTable(groupingColumns, aggregations, state, rowFactory, id)
+    partials.foreach(table.merge)
+    table.result()
+  }
+
+  /**
+   * Runs the pipeline over the batches of the scan that it reserves, and aggregates the rows into a partial aggregation.
+   * Every call allocates its own cursors, and closes them before it returns.
+   */
+  private class Worker(partitionedScan: PartitionedScan,
+                       state: QueryState,
+                       cancelled: AtomicBoolean) extends Callable[PartialAggregation] {
+
+    override def call(): PartialAggregation = {
+      val query = state.query.createParallelQueryContext()
+      val workerState = new QueryState(query,
+        state.resources,
+        state.params,
+        new ExpressionCursors(query.transactionalContext.cursors, PageCursorTracer.NULL, EmptyMemoryTracker.INSTANCE),
+        state.queryIndexes,
+        new Array[AnyValue](state.expressionVariables.length),
+        state.subscriber,
+        NoOpQueryMemoryTracker,
+        initialContext = state.initialContext,
+        partitionedScan = Some(partitionedScan))
+      try {
+        val partial = new PartialAggregation(groupingFunction, aggregations, workerState)
+        val rows = source.createResults(workerState)
+        while (!cancelled.get() && rows.hasNext) {
+          partial.processRow(rows.next())
+        }
+        rows.close()
+        partial
+      } catch {
+        case e: Throwable =>
+          cancelled.set(true)
+          throw e
+      } finally {
+        workerState.close()
+        query.resources.close()
+      }
+    }
+  }
+}
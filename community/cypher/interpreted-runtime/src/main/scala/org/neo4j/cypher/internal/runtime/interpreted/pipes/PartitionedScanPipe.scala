@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.runtime.ClosingIterator
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.internal.kernel.api.Cursor
+import org.neo4j.internal.kernel.api.CursorFactory
+import org.neo4j.internal.kernel.api.NodeCursor
+import org.neo4j.internal.kernel.api.NodeLabelIndexCursor
+import org.neo4j.internal.kernel.api.Read
+import org.neo4j.internal.kernel.api.Scan
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer
+import org.neo4j.values.virtual.NodeValue
+
+/**
+ * A leaf pipe that several workers can run at the same time. Each worker produces the rows of the batches that it reserves
+ * from a scan that all of them share, see [[ParallelAggregationPipe]].
+ */
+trait PartitionedScanPipe extends Pipe {
+
+  /**
+   * Starts a scan for the workers to share, or returns `None` if there is nothing to scan.
+   */
+  def partitionedScan(state: QueryState): Option[PartitionedScan]
+}
+
+/**
+ * A scan that the workers of a parallel execution share. Each worker reads the batches that it reserves with cursors of its own.
+ *
+ * @param leafId the id of the pipe that reads this scan
+ */
+abstract class PartitionedScan(val leafId: Id) {
+
+  /**
+   * The nodes of the batches that the worker with the given query context reserves, until the scan is exhausted.
+   */
+  def nodes(query: QueryContext): ClosingIterator[NodeValue]
+}
+
+object PartitionedScan {
+
+  // The number of nodes that a worker reserves at a time
+  val BATCH_SIZE = 1024
+
+  def allNodes(leafId: Id, read: Read): PartitionedScan =
+    new NodeScan[NodeCursor](leafId, read.allNodesScan()) {
+      override protected def allocateCursor(cursors: CursorFactory): NodeCursor = cursors.allocateNodeCursor(PageCursorTracer.NULL)
+
+      override protected def nodeReference(cursor: NodeCursor): Long = cursor.nodeReference()
+    }
+
+  def nodesWithLabel(leafId: Id, read: Read, labelId: Int): PartitionedScan =
+    new NodeScan[NodeLabelIndexCursor](leafId, read.nodeLabelScan(labelId)) {
+      override protected def allocateCursor(cursors: CursorFactory): NodeLabelIndexCursor = cursors.allocateNodeLabelIndexCursor(PageCursorTracer.NULL)
+
+      override protected def nodeReference(cursor: NodeLabelIndexCursor): Long = cursor.nodeReference()
+    }
+
+  private abstract class NodeScan[CURSOR <: Cursor](leafId: Id, scan: Scan[CURSOR]) extends PartitionedScan(leafId) {
+
+    protected def allocateCursor(cursors: CursorFactory): CURSOR
+
+    protected def nodeReference(cursor: CURSOR): Long
+
+    override def nodes(query: QueryContext): ClosingIterator[NodeValue] = {
+      val cursor = allocateCursor(query.transactionalContext.cursors)
+      query.resources.trace(cursor)
+      new ClosingIterator[NodeValue] {
+        private[this] var hasBatch = false
+        private[this] var hasNode = false
+        private[this] var exhausted = false
+
+        override protected[this] def innerHasNext: Boolean = {
+          if (!hasNode && !exhausted) {
+            hasNode = hasBatch && cursor.next()
+            while (!hasNode && !exhausted) {
+              hasBatch = scan.reserveBatch(cursor, BATCH_SIZE)
+              exhausted = !hasBatch
+              hasNode = hasBatch && cursor.next()
+            }
+          }
+          hasNode
+        }
+
+        override def next(): NodeValue = {
+          if (!hasNext) {
+            Iterator.empty.next()
+          }
+          hasNode = false
+          query.nodeById(nodeReference(cursor))
+        }
+
+        override protected[this] def closeMore(): Unit = cursor.close()
+      }
+    }
+  }
+}
@@ -19,18 +19,22 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
+import org.neo4j.cypher.internal.runtime.ArrayCypherRow
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.ExpressionCursors
 import org.neo4j.cypher.internal.runtime.InputDataStream
 import org.neo4j.cypher.internal.runtime.MapCypherRow
+import org.neo4j.cypher.internal.runtime.NamedCypherRow
 import org.neo4j.cypher.internal.runtime.NoInput
 import org.neo4j.cypher.internal.runtime.QueryContext
 import org.neo4j.cypher.internal.runtime.QueryMemoryTracker
 import org.neo4j.cypher.internal.runtime.QueryStatistics
 import org.neo4j.cypher.internal.runtime.ReadableRow
+import org.neo4j.cypher.internal.runtime.VariableSlots
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.PathValueBuilder
 import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.InCheckContainer
 import org.neo4j.cypher.internal.runtime.interpreted.commands.predicates.SingleThreadedLRUCache
+import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.internal.kernel.api.IndexReadSession
 import org.neo4j.kernel.impl.query.QuerySubscriber
 import org.neo4j.values.AnyValue
@@ -48,7 +52,9 @@ class QueryState(val query: QueryContext,
                  val cachedIn: SingleThreadedLRUCache[Any, InCheckContainer] = new SingleThreadedLRUCache(maxSize = 16),
                  val lenientCreateRelationship: Boolean = false,
                  val prePopulateResults: Boolean = false,
-                 val input: InputDataStream = NoInput) extends AutoCloseable {
+                 val input: InputDataStream = NoInput,
+                 val operatorSpillThreshold: Long = 0L,
+                 val partitionedScan: Option[PartitionedScan] = None) extends AutoCloseable {
 
   private var _pathValueBuilder: PathValueBuilder = _
   private var _rowFactory: CypherRowFactory = _
@@ -77,19 +83,24 @@ class QueryState(val query: QueryContext,
     _pathValueBuilder.clear()
   }
 
+  /**
+   * The scan that the leaf pipe with the given id reads, if this is the state of a worker that shares the scan with other workers.
+   */
+  def partitionedScanOf(leafId: Id): Option[PartitionedScan] = partitionedScan.filter(_.leafId == leafId)
+
   def getStatistics: QueryStatistics = query.getOptStatistics.getOrElse(QueryState.defaultStatistics)
 
   def withDecorator(decorator: PipeDecorator) =
     new QueryState(query, resources, params, cursors, queryIndexes, expressionVariables, subscriber, memoryTracker, decorator, initialContext,
-      cachedIn, lenientCreateRelationship, prePopulateResults, input)
+      cachedIn, lenientCreateRelationship, prePopulateResults, input, operatorSpillThreshold, partitionedScan)
 
   def withInitialContext(initialContext: CypherRow) =
     new QueryState(query, resources, params, cursors, queryIndexes, expressionVariables, subscriber, memoryTracker, decorator, Some(initialContext),
-      cachedIn, lenientCreateRelationship, prePopulateResults, input)
+      cachedIn, lenientCreateRelationship, prePopulateResults, input, operatorSpillThreshold, partitionedScan)
 
   def withQueryContext(query: QueryContext) =
     new QueryState(query, resources, params, cursors, queryIndexes, expressionVariables, subscriber, memoryTracker, decorator, initialContext,
-      cachedIn, lenientCreateRelationship, prePopulateResults, input)
+      cachedIn, lenientCreateRelationship, prePopulateResults, input, operatorSpillThreshold, partitionedScan)
 
   def setExecutionContextFactory(rowFactory: CypherRowFactory): Unit = {
     _rowFactory = rowFactory
@@ -166,3 +177,58 @@ case class CommunityCypherRowFactory() extends CypherRowFactory {
       context.copyWith(key1, value1, key2, value2, key3, value3)
   }
 }
+
+/**
+ * Creates [[ArrayCypherRow]]s with the given layout. Rows of any other kind that enter the plan, such as the initial
+ * context, are converted to the layout when they are copied.
+ */
+case class ArrayCypherRowFactory(slots: VariableSlots) extends CypherRowFactory {
+
+  override def newRow(): CypherRow = ArrayCypherRow.empty(slots)
+
+  override def copyArgumentOf(row: ReadableRow): CypherRow = copyWith(row)
+
+  // Not using polymorphism here, instead cast since the cost of being megamorphic is too high
+  override def copyWith(row: ReadableRow): CypherRow = row match {
+    case context: ArrayCypherRow =>
+      context.createClone()
+    case context: NamedCypherRow =>
+      ArrayCypherRow.copyOf(slots, context)
+  }
+
+  override def copyWith(row: ReadableRow, newEntries: Seq[(String, AnyValue)]): CypherRow = row match {
+    case context: ArrayCypherRow =>
+      context.copyWith(newEntries)
+    case context: NamedCypherRow =>
+      val copy = ArrayCypherRow.copyOf(slots, context)
+      copy.set(newEntries)
+      copy
+  }
+
+  override def copyWith(row: ReadableRow, key: String, value: AnyValue): CypherRow = row match {
+    case context: ArrayCypherRow =>
+      context.copyWith(key, value)
+    case context: NamedCypherRow =>
+      val copy = ArrayCypherRow.copyOf(slots, context)
+      copy.set(key, value)
+      copy
+  }
+
+  override def copyWith(row: ReadableRow, key1: String, value1: AnyValue, key2: String, value2: AnyValue): CypherRow = row match {
+    case context: ArrayCypherRow =>
+      context.copyWith(key1, value1, key2, value2)
+    case context: NamedCypherRow =>
+      val copy = ArrayCypherRow.copyOf(slots, context)
+      copy.set(key1, value1, key2, value2)
+      copy
+  }
+
+  override def copyWith(row: ReadableRow, key1: String, value1: AnyValue, key2: String, value2: AnyValue, key3: String, value3: AnyValue): CypherRow = row match {
+    case context: ArrayCypherRow =>
+      context.copyWith(key1, value1, key2, value2, key3, value3)
+    case context: NamedCypherRow =>
+      val copy = ArrayCypherRow.copyOf(slots, context)
+      copy.set(key1, value1, key2, value2, key3, value3)
+      copy
+  }
+}
@@ -26,7 +26,9 @@ import org.neo4j.cypher.internal.runtime.ClosingIterator
 import org.neo4j.cypher.internal.runtime.ClosingIterator.DelegatingClosingIterator
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.ReadableRow
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.ExternalSorter
 import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.memory.MemoryTracker
 
 import scala.collection.JavaConverters.asScalaIteratorConverter
 
@@ -36,16 +38,37 @@ case class SortPipe(source: Pipe, comparator: Comparator[ReadableRow])
 
   protected def internalCreateResults(input: ClosingIterator[CypherRow], state: QueryState): ClosingIterator[CypherRow] = {
     val scopedMemoryTracker = state.memoryTracker.memoryTrackerForOperator(id.x).getScopedMemoryTracker
-    var arrayList: HeapTrackingArrayList[CypherRow] = HeapTrackingArrayList.newArrayList(256, scopedMemoryTracker)
+    if (state.operatorSpillThreshold > 0) {
+      externalSort(input, state, scopedMemoryTracker)
+    } else {
+      var arrayList: HeapTrackingArrayList[CypherRow] = HeapTrackingArrayList.newArrayList(256, scopedMemoryTracker)
+      while (input.hasNext) {
+        val row = input.next()
+        scopedMemoryTracker.allocateHeap(row.estimatedHeapUsage())
+        arrayList.add(row)
+      }
+      arrayList.sort(comparator)
+      new DelegatingClosingIterator[CypherRow](arrayList.iterator().asScala) {
+        override def closeMore(): Unit = {
+          arrayList = null
+          scopedMemoryTracker.close()
+        }
+      }
+    }
+  }
+
+  /**
+   * Sort rows that may not fit in memory, by spilling sorted runs to disk once they exceed the spill threshold of the query.
+   */
+  private def externalSort(input: ClosingIterator[CypherRow], state: QueryState, scopedMemoryTracker: MemoryTracker): ClosingIterator[CypherRow] = {
+    val sorter = new ExternalSorter(comparator, id.x, state, scopedMemoryTracker)
     while (input.hasNext) {
-      val row = input.next()
-      scopedMemoryTracker.allocateHeap(row.estimatedHeapUsage())
-      arrayList.add(row)
+      sorter.add(input.next())
     }
-    arrayList.sort(comparator)
-    new DelegatingClosingIterator[CypherRow](arrayList.iterator().asScala) {
+    val sorted = sorter.sorted()
+    new DelegatingClosingIterator[CypherRow](sorted) {
       override def closeMore(): Unit = {
-        arrayList = null
+        sorted.close()
         scopedMemoryTracker.close()
       }
     }
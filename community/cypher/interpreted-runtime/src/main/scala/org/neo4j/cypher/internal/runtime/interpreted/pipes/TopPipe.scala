@@ -23,12 +23,15 @@ import java.util.Comparator
 
 import org.neo4j.cypher.internal.collection.DefaultComparatorTopTable
 import org.neo4j.cypher.internal.runtime.ClosingIterator
+import org.neo4j.cypher.internal.runtime.ClosingIterator.DelegatingClosingIterator
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.ReadableRow
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.NumericHelper
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.ExternalSorter
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.exceptions.InvalidArgumentException
+import org.neo4j.memory.MemoryTracker
 import org.neo4j.values.storable.FloatingPointValue
 
 import scala.collection.JavaConverters.asScalaIteratorConverter
@@ -58,22 +61,64 @@ case class TopNPipe(source: Pipe, countExpression: Expression, comparator: Compa
     val scopedMemoryTracker = state.memoryTracker.memoryTrackerForOperator(id.x).getScopedMemoryTracker
     val topTable = new DefaultComparatorTopTable[CypherRow](comparator, limit, scopedMemoryTracker)
     state.query.resources.trace(topTable)
+    val spillThreshold = state.operatorSpillThreshold
+    var topTableBytes = 0L
 
+    var spill = false
     var i = 1L
-    while (input.hasNext) {
+    while (!spill && input.hasNext) {
       val row = input.next()
       val evictedRow = topTable.addAndGetEvicted(row)
       if (row ne evictedRow) {
-        scopedMemoryTracker.allocateHeap(row.estimatedHeapUsage())
-        if (evictedRow != null)
-          scopedMemoryTracker.releaseHeap(evictedRow.estimatedHeapUsage())
+        val rowHeapUsage = row.estimatedHeapUsage()
+        scopedMemoryTracker.allocateHeap(rowHeapUsage)
+        topTableBytes += rowHeapUsage
+        if (evictedRow != null) {
+          val evictedHeapUsage = evictedRow.estimatedHeapUsage()
+          scopedMemoryTracker.releaseHeap(evictedHeapUsage)
+          topTableBytes -= evictedHeapUsage
+        }
+        spill = spillThreshold > 0 && topTableBytes > spillThreshold
       }
       i += 1
     }
 
-    topTable.sort()
+    if (spill) {
+      externalTop(input, state, topTable, topTableBytes, limit, scopedMemoryTracker)
+    } else {
+      topTable.sort()
+
+      ClosingIterator(topTable.autoClosingIterator(scopedMemoryTracker).asScala).closing(topTable)
+    }
+  }
 
-    ClosingIterator(topTable.autoClosingIterator(scopedMemoryTracker).asScala).closing(topTable)
+  /**
+   * Continue with an external sort, seeded with the rows of the top table, once the top rows no longer fit in memory.
+   */
+  private def externalTop(input: ClosingIterator[CypherRow],
+                          state: QueryState,
+                          topTable: DefaultComparatorTopTable[CypherRow],
+                          topTableBytes: Long,
+                          limit: Long,
+                          scopedMemoryTracker: MemoryTracker): ClosingIterator[CypherRow] = {
+    val sorter = new ExternalSorter(comparator, id.x, state, scopedMemoryTracker, limit)
+    scopedMemoryTracker.releaseHeap(topTableBytes)
+    val topRows = topTable.unorderedIterator()
+    while (topRows.hasNext) {
+      sorter.add(topRows.next())
+    }
+    topTable.close()
+
+    while (input.hasNext) {
+      sorter.add(input.next())
+    }
+    val sorted = sorter.sorted()
+    new DelegatingClosingIterator[CypherRow](sorted.take(Math.min(limit, Int.MaxValue).toInt)) {
+      override def closeMore(): Unit = {
+        sorted.close()
+        scopedMemoryTracker.close()
+      }
+    }
   }
 }
 
@@ -22,6 +22,7 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes
 import org.neo4j.cypher.internal.runtime.ClosingIterator
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.HybridHashJoin
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.kernel.impl.util.collection
 import org.neo4j.values.AnyValue
@@ -43,6 +44,18 @@ case class ValueHashJoinPipe(lhsExpression: Expression, rhsExpression: Expressio
     if (rhsIterator.isEmpty)
       return ClosingIterator.empty
 
+    if (state.operatorSpillThreshold > 0) {
+      val join = new HybridHashJoin(
+        row => lhsExpression(row, state),
+        row => rhsExpression(row, state) match {
+          case joinKey if joinKey eq Values.NO_VALUE => null
+          case joinKey => joinKey
+        },
+        id.x,
+        state)
+      return join.join(input, rhsIterator)
+    }
+
     val table = buildProbeTable(input, state)
     state.query.resources.trace(table)
 
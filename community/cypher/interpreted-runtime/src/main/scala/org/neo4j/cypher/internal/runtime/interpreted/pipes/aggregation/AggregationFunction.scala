@@ -20,7 +20,9 @@
 package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
 
 import org.neo4j.cypher.internal.runtime.ReadableRow
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregatingCol
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.memory.EmptyMemoryTracker
 import org.neo4j.values.AnyValue
 
 /**
@@ -40,3 +42,27 @@ abstract class AggregationFunction {
   def result(state: QueryState): AnyValue
 }
 
+/**
+ * An aggregation function whose aggregated total can be moved out of the function as a value, and later be merged into another
+ * function of the same kind. This is what allows grouping aggregation to move groups to disk when they do not fit in memory.
+ */
+trait SpillableAggregationFunction extends AggregationFunction {
+  /**
+   * The aggregated total so far, as a value that can be given to [[mergePartialState]].
+   */
+  def partialState: AnyValue
+
+  /**
+   * Adds the aggregated total of another function, as given by its [[partialState]], to the aggregated total of this function.
+   */
+  def mergePartialState(partialState: AnyValue): Unit
+}
+
+object SpillableAggregationFunction {
+
+  /**
+   * Whether all the given aggregations create [[SpillableAggregationFunction]]s, so that the groups of an aggregation can be moved and merged.
+   */
+  def allSpillable(aggregations: Array[AggregatingCol]): Boolean =
+    aggregations.forall(_.expression.createAggregationFunction(EmptyMemoryTracker.INSTANCE).isInstanceOf[SpillableAggregationFunction])
+}
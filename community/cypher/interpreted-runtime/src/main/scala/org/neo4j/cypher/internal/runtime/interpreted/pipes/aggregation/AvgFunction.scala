@@ -21,15 +21,20 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
 
 import java.time.temporal.ChronoUnit
 
+import org.neo4j.cypher.internal.runtime.IsNoValue
 import org.neo4j.cypher.internal.runtime.ReadableRow
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.exceptions.InternalException
 import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.DoubleArray
 import org.neo4j.values.storable.DurationValue
+import org.neo4j.values.storable.NumberValue
 import org.neo4j.values.storable.Value
 import org.neo4j.values.storable.Values
 import org.neo4j.values.utils.ValueMath.overflowSafeAdd
+import org.neo4j.values.virtual.ListValue
+import org.neo4j.values.virtual.VirtualValues
 
 /**
  * AVG computation is calculated using cumulative moving average approach:
@@ -39,6 +44,7 @@ import org.neo4j.values.utils.ValueMath.overflowSafeAdd
  */
 class AvgFunction(val value: Expression)
   extends AggregationFunction
+  with SpillableAggregationFunction
   with NumericOrDurationAggregationExpression {
 
   def name = "AVG"
@@ -85,4 +91,36 @@ class AvgFunction(val value: Expression)
   }
 
   def aggregatedRowCount: Long = count
+
+  override def partialState: AnyValue = aggregatingType match {
+    case None =>
+      Values.NO_VALUE
+    case Some(AggregatingNumbers) =>
+      VirtualValues.list(Values.longValue(count), sumNumber)
+    case Some(AggregatingDurations) =>
+      VirtualValues.list(Values.longValue(count), Values.doubleArray(Array(monthsRunningAvg, daysRunningAvg, secondsRunningAvg, nanosRunningAvg)))
+    case _ => throw new InternalException(s"invalid aggregation type $aggregatingType")
+  }
+
+  /**
+   * Two averages are combined by moving this average towards the other one, in proportion to how many values the other average is over.
+   */
+  override def mergePartialState(partialState: AnyValue): Unit = partialState match {
+    case IsNoValue() =>
+    case partial: ListValue =>
+      val otherCount = partial.value(0).asInstanceOf[NumberValue].longValue()
+      count += otherCount
+      val weight = count.toDouble / otherCount
+      partial.value(1) match {
+        case otherAvg: NumberValue =>
+          aggregating(AggregatingNumbers)
+          sumNumber = overflowSafeAdd(sumNumber, otherAvg.minus(sumNumber).dividedBy(weight))
+        case otherAvgs: DoubleArray =>
+          aggregating(AggregatingDurations)
+          monthsRunningAvg += (otherAvgs.doubleValue(0) - monthsRunningAvg) / weight
+          daysRunningAvg += (otherAvgs.doubleValue(1) - daysRunningAvg) / weight
+          secondsRunningAvg += (otherAvgs.doubleValue(2) - secondsRunningAvg) / weight
+          nanosRunningAvg += (otherAvgs.doubleValue(3) - nanosRunningAvg) / weight
+      }
+  }
 }
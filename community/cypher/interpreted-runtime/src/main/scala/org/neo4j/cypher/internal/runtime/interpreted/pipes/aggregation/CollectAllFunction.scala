@@ -24,11 +24,12 @@ import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expres
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.memory.MemoryTracker
 import org.neo4j.values.AnyValue
+import org.neo4j.values.virtual.ListValue
 import org.neo4j.values.virtual.VirtualValues
 
 import scala.collection.mutable.ArrayBuffer
 
-class CollectAllFunction(value:Expression, memoryTracker: MemoryTracker) extends AggregationFunction {
+class CollectAllFunction(value:Expression, memoryTracker: MemoryTracker) extends AggregationFunction with SpillableAggregationFunction {
   private val collection = new ArrayBuffer[AnyValue]()
 
   override def apply(data: ReadableRow, state:QueryState): Unit = {
@@ -38,4 +39,13 @@ class CollectAllFunction(value:Expression, memoryTracker: MemoryTracker) extends
   }
 
   override def result(state: QueryState): AnyValue = VirtualValues.list(collection.toArray:_*)
+
+  override def partialState: AnyValue = VirtualValues.list(collection.toArray:_*)
+
+  override def mergePartialState(partialState: AnyValue): Unit = {
+    partialState.asInstanceOf[ListValue].forEach(v => {
+      collection += v
+      memoryTracker.allocateHeap(v.estimatedHeapUsage())
+    })
+  }
 }
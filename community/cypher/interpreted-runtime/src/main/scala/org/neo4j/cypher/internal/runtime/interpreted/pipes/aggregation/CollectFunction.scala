@@ -25,11 +25,12 @@ import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expres
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.memory.MemoryTracker
 import org.neo4j.values.AnyValue
+import org.neo4j.values.virtual.ListValue
 import org.neo4j.values.virtual.VirtualValues
 
 import scala.collection.mutable.ArrayBuffer
 
-class CollectFunction(value:Expression, memoryTracker: MemoryTracker) extends AggregationFunction {
+class CollectFunction(value:Expression, memoryTracker: MemoryTracker) extends AggregationFunction with SpillableAggregationFunction {
   private val collection = new ArrayBuffer[AnyValue]()
 
   override def apply(data: ReadableRow, state:QueryState): Unit = {
@@ -42,4 +43,13 @@ class CollectFunction(value:Expression, memoryTracker: MemoryTracker) extends Ag
   }
 
   override def result(state: QueryState): AnyValue = VirtualValues.list(collection.toArray:_*)
+
+  override def partialState: AnyValue = VirtualValues.list(collection.toArray:_*)
+
+  override def mergePartialState(partialState: AnyValue): Unit = {
+    partialState.asInstanceOf[ListValue].forEach(v => {
+      collection += v
+      memoryTracker.allocateHeap(v.estimatedHeapUsage())
+    })
+  }
 }
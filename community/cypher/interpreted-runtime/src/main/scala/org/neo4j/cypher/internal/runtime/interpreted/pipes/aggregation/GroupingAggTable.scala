@@ -30,6 +30,7 @@ import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.compu
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe.GroupingCol
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.CypherRowFactory
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.GroupingAggTable.resultRows
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.kernel.impl.util.collection.HeapTrackingOrderedAppendMap
 import org.neo4j.memory.MemoryTracker
@@ -77,7 +78,34 @@ class GroupingAggTable(groupingColumns: Array[GroupingCol],
     }
   }
 
-  override def result(): ClosingIterator[CypherRow] = {
+  override def result(): ClosingIterator[CypherRow] = resultRows(resultMap, addKeys, aggregations, state, rowFactory)
+
+}
+
+object GroupingAggTable {
+
+  case class Factory(groupingColumns: Array[GroupingCol],
+                     groupingFunction: (CypherRow, QueryState) => AnyValue,
+                     aggregations: Array[AggregatingCol]) extends AggregationTableFactory {
+
+    private lazy val spillable: Boolean = SpillableAggregationFunction.allSpillable(aggregations)
+
+    override def table(state: QueryState, rowFactory: CypherRowFactory, operatorId: Id): AggregationTable =
+      if (state.operatorSpillThreshold > 0 && spillable) {
+        new SpillingGroupingAggTable(groupingColumns, groupingFunction, aggregations, state, rowFactory, operatorId)
+      } else {
+        new GroupingAggTable(groupingColumns, groupingFunction, aggregations, state, rowFactory, operatorId)
+      }
+  }
+
+  /**
+   * The result rows of all groups in a map. The map is closed when the rows are exhausted.
+   */
+  private[aggregation] def resultRows(resultMap: HeapTrackingOrderedAppendMap[AnyValue, Array[AggregationFunction]],
+                                      addKeys: (CypherRow, AnyValue) => Unit,
+                                      aggregations: Array[AggregatingCol],
+                                      state: QueryState,
+                                      rowFactory: CypherRowFactory): ClosingIterator[CypherRow] = {
     val innerIterator = resultMap.autoClosingEntryIterator()
     new ClosingIterator[CypherRow] {
 
@@ -103,14 +131,3 @@ class GroupingAggTable(groupingColumns: Array[GroupingCol],
   }
 
 }
-
-object GroupingAggTable {
-
-  case class Factory(groupingColumns: Array[GroupingCol],
-                     groupingFunction: (CypherRow, QueryState) => AnyValue,
-                     aggregations: Array[AggregatingCol]) extends AggregationTableFactory {
-    override def table(state: QueryState, rowFactory: CypherRowFactory, operatorId: Id): AggregationTable =
-      new GroupingAggTable(groupingColumns, groupingFunction, aggregations, state, rowFactory, operatorId)
-  }
-
-}
@@ -27,7 +27,7 @@ import org.neo4j.values.AnyValue
 import org.neo4j.values.AnyValues
 import org.neo4j.values.storable.Values
 
-trait MinMax extends AggregationFunction {
+trait MinMax extends AggregationFunction with SpillableAggregationFunction {
   def value: Expression
   def keep(comparisonResult: Int): Boolean
   def name: String
@@ -43,6 +43,14 @@ trait MinMax extends AggregationFunction {
     }
   }
 
+  override def partialState: AnyValue = biggestSeen
+
+  override def mergePartialState(partialState: AnyValue): Unit = {
+    if (partialState ne Values.NO_VALUE) {
+      checkIfLargest(partialState)
+    }
+  }
+
   private def checkIfLargest(value: AnyValue) {
     if (biggestSeen eq Values.NO_VALUE) {
       biggestSeen = value
@@ -44,25 +44,23 @@ trait NumericOrDurationAggregationExpression {
     vl match {
       case IsNoValue() =>
       case number: NumberValue =>
-        aggregatingType match {
-          case None =>
-            aggregatingType = Some(AggregatingNumbers)
-          case Some(AggregatingDurations) =>
-            throw new CypherTypeException("%s(%s) cannot mix number and duration".format(name, value))
-          case _ =>
-        }
+        aggregating(AggregatingNumbers)
         aggNumber(number)
       case dur: DurationValue =>
-        aggregatingType match {
-          case None =>
-            aggregatingType = Some(AggregatingDurations)
-          case Some(AggregatingNumbers) =>
-            throw new CypherTypeException("%s(%s) cannot mix number and duration".format(name, value))
-          case _ =>
-        }
+        aggregating(AggregatingDurations)
         aggDuration(dur)
       case _ =>
         throw new CypherTypeException("%s(%s) can only handle numerical values, duration, or null.".format(name, value))
     }
   }
+
+  protected def aggregating(aggregating: AggregatingType): Unit = {
+    aggregatingType match {
+      case None =>
+        aggregatingType = Some(aggregating)
+      case Some(existing) if existing != aggregating =>
+        throw new CypherTypeException("%s(%s) cannot mix number and duration".format(name, value))
+      case _ =>
+    }
+  }
 }
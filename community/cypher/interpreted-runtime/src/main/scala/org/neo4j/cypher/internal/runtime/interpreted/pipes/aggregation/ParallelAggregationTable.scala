@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
+
+import org.eclipse.collections.api.block.function.Function2
+import org.neo4j.cypher.internal.runtime.ClosingIterator
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregatingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.computeNewAggregatorsFunction
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.CypherRowFactory
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe.GroupingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.GroupingAggTable.resultRows
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.ParallelAggregationTable.NO_GROUPING_KEY
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.kernel.impl.util.collection.HeapTrackingOrderedAppendMap
+import org.neo4j.memory.EmptyMemoryTracker
+import org.neo4j.memory.MemoryTracker
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Values
+
+/**
+ * The groups of an aggregation whose rows are produced by several workers in parallel. Each worker aggregates the rows that it
+ * produces into a [[PartialAggregation]] of its own, and the partial aggregations are merged into this table when all workers are done.
+ * All aggregation functions must be [[SpillableAggregationFunction]]s.
+ *
+ * @param groupingColumns all grouping columns, or none
+ * @param aggregations    all aggregation columns
+ */
+class ParallelAggregationTable(groupingColumns: Array[GroupingCol],
+                               aggregations: Array[AggregatingCol],
+                               state: QueryState,
+                               rowFactory: CypherRowFactory,
+                               operatorId: Id) {
+
+  private[this] val addKeys: (CypherRow, AnyValue) => Unit = AggregationPipe.computeAddKeysToResultRowFunction(groupingColumns)
+  private[this] val memoryTracker = state.memoryTracker.memoryTrackerForOperator(operatorId.x)
+  private[this] val newAggregators: Function2[AnyValue, MemoryTracker, Array[AggregationFunction]] =
+    computeNewAggregatorsFunction(aggregations.map(_.expression))
+  private[this] val groups = HeapTrackingOrderedAppendMap.createOrderedMap[AnyValue, Array[AggregationFunction]](memoryTracker)
+  state.query.resources.trace(groups)
+
+  /**
+   * Merges the groups of a partial aggregation into the groups of this table.
+   */
+  def merge(partial: PartialAggregation): Unit = {
+    val partialGroups = partial.groups
+    while (partialGroups.hasNext) {
+      val entry = partialGroups.next() // NOTE: This entry is transient and only valid until we call next() again
+      val aggregationFunctions = groups.getIfAbsentPutWithMemoryTracker2(entry.getKey, newAggregators)
+      val partialFunctions = entry.getValue
+      var i = 0
+      while (i < aggregationFunctions.length) {
+        val partialState = partialFunctions(i).asInstanceOf[SpillableAggregationFunction].partialState
+        aggregationFunctions(i).asInstanceOf[SpillableAggregationFunction].mergePartialState(partialState)
+        i += 1
+      }
+    }
+  }
+
+  def result(): ClosingIterator[CypherRow] = {
+    if (groupingColumns.isEmpty) {
+      // Aggregation without grouping columns produces a row even if there were no rows to aggregate
+      groups.getIfAbsentPutWithMemoryTracker2(NO_GROUPING_KEY, newAggregators)
+    }
+    resultRows(groups, addKeys, aggregations, state, rowFactory)
+  }
+}
+
+object ParallelAggregationTable {
+
+  // The key of the only group of an aggregation without grouping columns
+  private val NO_GROUPING_KEY: AnyValue = Values.NO_VALUE
+
+  /**
+   * Precompute a function that computes the grouping key of a row, also when there are no grouping columns.
+   */
+  def computeGroupingFunction(groupingColumns: Array[GroupingCol]): (CypherRow, QueryState) => AnyValue =
+    if (groupingColumns.isEmpty) (_, _) => NO_GROUPING_KEY
+    else AggregationPipe.computeGroupingFunction(groupingColumns)
+}
+
+/**
+ * The groups that one worker of a parallel aggregation aggregates the rows it produces into.
+ * The memory trackers of a query are not thread-safe, so the memory of the groups is not tracked until they are merged into a
+ * [[ParallelAggregationTable]].
+ *
+ * @param groupingFunction a precomputed function to calculate the grouping key of a row, see [[ParallelAggregationTable.computeGroupingFunction]]
+ * @param aggregations     all aggregation columns
+ * @param state            the state of the worker
+ */
+class PartialAggregation(groupingFunction: (CypherRow, QueryState) => AnyValue,
+                         aggregations: Array[AggregatingCol],
+                         state: QueryState) {
+
+  private[this] val newAggregators: Function2[AnyValue, MemoryTracker, Array[AggregationFunction]] =
+    computeNewAggregatorsFunction(aggregations.map(_.expression))
+  private[this] val resultMap = HeapTrackingOrderedAppendMap.createOrderedMap[AnyValue, Array[AggregationFunction]](EmptyMemoryTracker.INSTANCE)
+
+  def processRow(row: CypherRow): Unit = {
+    val groupingValue: AnyValue = groupingFunction(row, state)
+    val aggregationFunctions = resultMap.getIfAbsentPutWithMemoryTracker2(groupingValue, newAggregators)
+    var i = 0
+    while (i < aggregationFunctions.length) {
+      aggregationFunctions(i)(row, state)
+      i += 1
+    }
+  }
+
+  /**
+   * The groups of this partial aggregation. The groups are released when they are exhausted.
+   */
+  def groups: java.util.Iterator[java.util.Map.Entry[AnyValue, Array[AggregationFunction]]] = resultMap.autoClosingEntryIterator()
+}
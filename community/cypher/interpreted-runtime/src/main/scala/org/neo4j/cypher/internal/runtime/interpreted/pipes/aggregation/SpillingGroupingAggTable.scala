@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
+
+import org.eclipse.collections.api.block.function.Function2
+import org.neo4j.cypher.internal.runtime.ClosingIterator
+import org.neo4j.cypher.internal.runtime.ClosingIterator.DelegatingClosingIterator
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregatingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.AggregationTable
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe.computeNewAggregatorsFunction
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.CypherRowFactory
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe.GroupingCol
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.GroupingAggTable.resultRows
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.SpillingGroupingAggTable.GROUPING_KEY
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.HashPartitioning.MAX_LEVEL
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.HashPartitioning.PARTITIONS
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.HashPartitioning.partitionOf
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.SpillFile
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.SpillFiles
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.kernel.impl.util.collection.HeapTrackingOrderedAppendMap
+import org.neo4j.memory.MemoryTracker
+import org.neo4j.memory.ScopedMemoryTracker
+import org.neo4j.values.AnyValue
+
+/**
+ * A [[GroupingAggTable]] for when the groups may not fit in memory, used when the query has an operator spill threshold and all
+ * aggregation functions are [[SpillableAggregationFunction]]s.
+ *
+ * Groups are aggregated in memory until they use more than the spill threshold. Then the partial states of all groups are written to
+ * disk, hash partitioned by grouping key, and aggregation starts over with no groups. Since all rows of a grouping key end up in the same
+ * partition, the result can then be computed one partition at a time, by merging the partial states of each partition. A partition that
+ * still does not fit in memory is partitioned again, on other bits of the hash.
+ *
+ * @param groupingColumns  all grouping columns
+ * @param groupingFunction a precomputed function to calculate the grouping key of a row
+ * @param aggregations     all aggregation columns
+ */
+class SpillingGroupingAggTable(groupingColumns: Array[GroupingCol],
+                               groupingFunction: (CypherRow, QueryState) => AnyValue,
+                               aggregations: Array[AggregatingCol],
+                               state: QueryState,
+                               rowFactory: CypherRowFactory,
+                               operatorId: Id) extends AggregationTable {
+
+  private[this] val addKeys: (CypherRow, AnyValue) => Unit = AggregationPipe.computeAddKeysToResultRowFunction(groupingColumns)
+  // The groups need a scope of their own to know how much memory they use, also when memory tracking is disabled
+  private[this] val memoryTracker = new ScopedMemoryTracker(state.memoryTracker.memoryTrackerForOperator(operatorId.x))
+  private[this] val newAggregators: Function2[AnyValue, MemoryTracker, Array[AggregationFunction]] =
+    computeNewAggregatorsFunction(aggregations.map(_.expression))
+  private[this] val partialStateKeys: Array[String] = aggregations.indices.map(_.toString).toArray
+  private[this] var spillFiles: SpillFiles = _
+  private[this] var input: Partitioning = _
+
+  override def clear(): Unit = {
+    if (input != null) {
+      input.close()
+    }
+    input = new Partitioning(0)
+  }
+
+  override def processRow(row: CypherRow): Unit = {
+    val aggregationFunctions = input.groupOf(groupingFunction(row, state))
+    var i = 0
+    while (i < aggregationFunctions.length) {
+      aggregationFunctions(i)(row, state)
+      i += 1
+    }
+    input.spillIfNeeded()
+  }
+
+  override def result(): ClosingIterator[CypherRow] = {
+    val rows = input.result()
+    if (spillFiles == null) {
+      rows
+    } else {
+      new DelegatingClosingIterator[CypherRow](rows) {
+        override def closeMore(): Unit = {
+          rows.close()
+          spillFiles.close()
+        }
+      }
+    }
+  }
+
+  private def mergePartition(file: SpillFile, level: Int): ClosingIterator[CypherRow] = {
+    val partition = new Partitioning(level)
+    val partialStates = spillFiles.read(file)
+    while (partialStates.hasNext) {
+      val partialState = partialStates.next()
+      val aggregationFunctions = partition.groupOf(partialState.getByName(GROUPING_KEY))
+      var i = 0
+      while (i < aggregationFunctions.length) {
+        aggregationFunctions(i).asInstanceOf[SpillableAggregationFunction].mergePartialState(partialState.getByName(partialStateKeys(i)))
+        i += 1
+      }
+      partition.spillIfNeeded()
+    }
+    partialStates.close()
+    partition.result()
+  }
+
+  /**
+   * The groups of rows, or of partial states, that belong to the same partition of the grouping keys at the given level.
+   */
+  private class Partitioning(level: Int) {
+    private[this] var groups = newGroups()
+    private[this] var partitions: Array[SpillFiles#SpillWriter] = _
+
+    def groupOf(groupingValue: AnyValue): Array[AggregationFunction] =
+      groups.getIfAbsentPutWithMemoryTracker2(groupingValue, newAggregators)
+
+    def spillIfNeeded(): Unit = {
+      // At the last level there are no bits of the hash left to partition on, so whatever remains has to fit in memory
+      if (level < MAX_LEVEL && groups.scopedMemoryTracker().estimatedHeapMemory() > state.operatorSpillThreshold) {
+        spill()
+      }
+    }
+
+    def result(): ClosingIterator[CypherRow] = {
+      if (partitions == null) {
+        resultRows(groups, addKeys, aggregations, state, rowFactory)
+      } else {
+        spill()
+        groups.close()
+        val files = partitions.filter(_ != null).map(_.finish(runs = 0))
+        partitions = null
+        ClosingIterator(files.iterator).flatMap(file => mergePartition(file, level + 1))
+      }
+    }
+
+    def close(): Unit = {
+      groups.close()
+    }
+
+    private def spill(): Unit = {
+      if (partitions == null) {
+        if (spillFiles == null) {
+          spillFiles = new SpillFiles(operatorId.x, state)
+        }
+        partitions = new Array[SpillFiles#SpillWriter](PARTITIONS)
+      }
+      val entries = groups.autoClosingEntryIterator()
+      while (entries.hasNext) {
+        val entry = entries.next() // NOTE: This entry is transient and only valid until we call next() again
+        val groupingValue = entry.getKey
+        val aggregationFunctions = entry.getValue
+        val partialState = CypherRow.empty
+        partialState.set(GROUPING_KEY, groupingValue)
+        var i = 0
+        while (i < aggregationFunctions.length) {
+          partialState.set(partialStateKeys(i), aggregationFunctions(i).asInstanceOf[SpillableAggregationFunction].partialState)
+          i += 1
+        }
+        val partition = partitionOf(groupingValue, level)
+        if (partitions(partition) == null) {
+          partitions(partition) = spillFiles.writer()
+        }
+        partitions(partition).write(partialState)
+      }
+      groups.close()
+      groups = newGroups()
+      state.memoryTracker.spilled(0, 1, operatorId.x)
+    }
+  }
+
+  private def newGroups(): HeapTrackingOrderedAppendMap[AnyValue, Array[AggregationFunction]] = {
+    val groups = HeapTrackingOrderedAppendMap.createOrderedMap[AnyValue, Array[AggregationFunction]](memoryTracker)
+    state.query.resources.trace(groups)
+    groups
+  }
+}
+
+object SpillingGroupingAggTable {
+  private val GROUPING_KEY = "groupingKey"
+}
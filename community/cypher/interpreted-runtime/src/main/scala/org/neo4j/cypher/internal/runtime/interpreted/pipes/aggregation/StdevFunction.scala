@@ -23,6 +23,7 @@ import org.neo4j.cypher.internal.runtime.ReadableRow
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.DoubleArray
 import org.neo4j.values.storable.Values
 
 /**
@@ -33,6 +34,7 @@ import org.neo4j.values.storable.Values
  */
 class StdevFunction(val value: Expression, val population: Boolean)
   extends AggregationFunction
+  with SpillableAggregationFunction
   with NumericExpressionOnly {
 
   def name: String = if (population) "STDEVP" else "STDEV"
@@ -60,4 +62,22 @@ class StdevFunction(val value: Expression, val population: Boolean)
       movingAvg = nextM
     })
   }
+
+  override def partialState: AnyValue = Values.doubleArray(Array(count, movingAvg, m2))
+
+  /**
+   * Combines the statistics of two sets of values, see
+   * https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Parallel_algorithm
+   */
+  override def mergePartialState(partialState: AnyValue): Unit = {
+    val partial = partialState.asInstanceOf[DoubleArray]
+    val otherCount = partial.doubleValue(0).toInt
+    if (otherCount > 0) {
+      val total = count + otherCount
+      val delta = partial.doubleValue(1) - movingAvg
+      movingAvg += delta * otherCount / total
+      m2 += partial.doubleValue(2) + delta * delta * count * otherCount / total
+      count = total
+    }
+  }
 }
@@ -24,10 +24,12 @@ import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expres
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
 import org.neo4j.exceptions.InternalException
 import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Values
 import org.neo4j.values.utils.ValueMath.overflowSafeAdd
 
 class SumFunction(val value: Expression)
   extends AggregationFunction
+  with SpillableAggregationFunction
   with NumericOrDurationAggregationExpression {
 
   def name = "SUM"
@@ -44,7 +46,23 @@ class SumFunction(val value: Expression)
   }
 
   override def apply(data: ReadableRow, state: QueryState) {
-    val vl = value(data, state)
+    add(value(data, state))
+  }
+
+  override def partialState: AnyValue = aggregatingType match {
+    case None =>
+      Values.NO_VALUE
+    case Some(AggregatingNumbers) =>
+      sumNumber
+    case Some(AggregatingDurations) =>
+      sumDuration
+    case _ => throw new InternalException(s"invalid aggregation type $aggregatingType")
+  }
+
+  // A partial sum is added like any other value, which also keeps the check against mixing numbers and durations
+  override def mergePartialState(partialState: AnyValue): Unit = add(partialState)
+
+  private def add(vl: AnyValue): Unit = {
     actOnNumberOrDuration(vl,
       number => {
         sumNumber = overflowSafeAdd(sumNumber, number)
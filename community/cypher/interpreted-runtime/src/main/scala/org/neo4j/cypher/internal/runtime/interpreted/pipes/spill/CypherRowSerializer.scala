@@ -0,0 +1,526 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.nio.charset.StandardCharsets
+import java.time.Instant
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.OffsetTime
+import java.time.ZoneId
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+import org.neo4j.cypher.internal.expressions.ASTCachedProperty
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.EntityById
+import org.neo4j.cypher.internal.runtime.MapCypherRow
+import org.neo4j.cypher.internal.runtime.NamedCypherRow
+import org.neo4j.cypher.internal.runtime.MutableMaps
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.ARRAY
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.BOOLEAN
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.BYTE
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.BYTE_ARRAY
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.CHAR
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.DATE
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.DATE_TIME
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.DOUBLE
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.DURATION
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.FLOAT
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.INT
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.LIST
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.LOCAL_DATE_TIME
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.LOCAL_TIME
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.LONG
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.MAP
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.NODE
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.NULL
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.PATH
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.POINT
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.RELATIONSHIP
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.SHORT
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.STRING
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.TIME
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.VIRTUAL_NODE
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.CypherRowSerializer.VIRTUAL_RELATIONSHIP
+import org.neo4j.exceptions.InternalException
+import org.neo4j.values.AnyValue
+import org.neo4j.values.AnyValueWriter
+import org.neo4j.values.AnyValueWriter.EntityMode
+import org.neo4j.values.storable.CoordinateReferenceSystem
+import org.neo4j.values.storable.DateTimeValue
+import org.neo4j.values.storable.DateValue
+import org.neo4j.values.storable.DurationValue
+import org.neo4j.values.storable.LocalDateTimeValue
+import org.neo4j.values.storable.LocalTimeValue
+import org.neo4j.values.storable.PointValue
+import org.neo4j.values.storable.TextArray
+import org.neo4j.values.storable.TextValue
+import org.neo4j.values.storable.TimeValue
+import org.neo4j.values.storable.Value
+import org.neo4j.values.storable.ValueWriter.ArrayType
+import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.ListValue
+import org.neo4j.values.virtual.MapValue
+import org.neo4j.values.virtual.MapValueBuilder
+import org.neo4j.values.virtual.NodeValue
+import org.neo4j.values.virtual.RelationshipValue
+import org.neo4j.values.virtual.VirtualValues
+
+import scala.collection.mutable
+
+/**
+ * Writes [[CypherRow]]s to, and reads them back from, binary streams, so that operators can move rows they cannot hold in memory to disk.
+ *
+ * Nodes and relationships are written as references, and are read back through the given [[EntityById]]. Virtual nodes and relationships,
+ * i.e. ones with negative ids which don't exist in the store, are written by value instead. Variable names and cached
+ * property keys are written as indexes into dictionaries that the serializer keeps in memory, which means that rows must be read back by
+ * the same serializer that wrote them.
+ */
+class CypherRowSerializer(entityById: EntityById) {
+
+  private val variables = new Dictionary[String]
+  private val cachedProperties = new Dictionary[ASTCachedProperty]
+
+  def write(row: CypherRow, out: DataOutputStream): Unit = row match {
+    case namedRow: NamedCypherRow =>
+      val valueWriter = new ValueWriter(out)
+      out.writeInt(namedRow.numberOfColumns)
+      namedRow.foreach { (key, value) =>
+        out.writeInt(variables.indexOf(key))
+        writeValue(value, valueWriter, out)
+      }
+
+      val cachedPropertyKeys = mutable.ArrayBuffer.empty[ASTCachedProperty]
+      val cachedPropertyValues = mutable.ArrayBuffer.empty[Value]
+      namedRow.foreachCachedProperty { (key, value) =>
+        cachedPropertyKeys += key
+        cachedPropertyValues += value
+      }
+      out.writeInt(cachedPropertyKeys.size)
+      var i = 0
+      while (i < cachedPropertyKeys.size) {
+        out.writeInt(cachedProperties.indexOf(cachedPropertyKeys(i)))
+        val value = cachedPropertyValues(i)
+        // null means that the cached value has been invalidated
+        out.writeBoolean(value != null)
+        if (value != null) {
+          value.writeTo(valueWriter)
+        }
+        i += 1
+      }
+
+      namedRow.getLinenumber match {
+        case Some(linenumber) =>
+          out.writeBoolean(true)
+          writeString(out, linenumber.filename)
+          out.writeLong(linenumber.linenumber)
+          out.writeBoolean(linenumber.last)
+        case None =>
+          out.writeBoolean(false)
+      }
+
+    case _ => throw new InternalException(s"Cannot spill row of type ${row.getClass.getSimpleName}")
+  }
+
+  /**
+   * Lists and maps are traversed here rather than by the values themselves, so that virtual entities in them are seen and written by value.
+   */
+  private def writeValue(value: AnyValue, valueWriter: ValueWriter, out: DataOutputStream): Unit = value match {
+    case node: NodeValue if node.id() < 0 =>
+      out.writeByte(VIRTUAL_NODE)
+      out.writeLong(node.id())
+      node.labels().writeTo(valueWriter)
+      writeValue(node.properties(), valueWriter, out)
+    case relationship: RelationshipValue if relationship.id() < 0 =>
+      out.writeByte(VIRTUAL_RELATIONSHIP)
+      out.writeLong(relationship.id())
+      writeValue(relationship.startNode(), valueWriter, out)
+      writeValue(relationship.endNode(), valueWriter, out)
+      relationship.`type`().writeTo(valueWriter)
+      writeValue(relationship.properties(), valueWriter, out)
+    case list: ListValue =>
+      out.writeByte(LIST)
+      out.writeInt(list.size())
+      val values = list.iterator()
+      while (values.hasNext) {
+        writeValue(values.next(), valueWriter, out)
+      }
+    case map: MapValue =>
+      out.writeByte(MAP)
+      out.writeInt(map.size())
+      map.foreach { (key, value) =>
+        valueWriter.writeString(key)
+        writeValue(value, valueWriter, out)
+      }
+    case _ => value.writeTo(valueWriter)
+  }
+
+  def read(in: DataInputStream): CypherRow = {
+    val numberOfVariables = in.readInt()
+    val map = MutableMaps.create[String, AnyValue](numberOfVariables)
+    var i = 0
+    while (i < numberOfVariables) {
+      val key = variables.get(in.readInt())
+      map.put(key, readValue(in))
+      i += 1
+    }
+
+    val numberOfCachedProperties = in.readInt()
+    val row = new MapCypherRow(map)
+    i = 0
+    while (i < numberOfCachedProperties) {
+      val key = cachedProperties.get(in.readInt())
+      val value = if (in.readBoolean()) readValue(in).asInstanceOf[Value] else null
+      row.setCachedProperty(key, value)
+      i += 1
+    }
+
+    if (in.readBoolean()) {
+      row.setLinenumber(readString(in), in.readLong(), in.readBoolean())
+    }
+    row
+  }
+
+  private def readValue(in: DataInputStream): AnyValue = in.readByte() match {
+    case NULL => Values.NO_VALUE
+    case BOOLEAN => Values.booleanValue(in.readBoolean())
+    case BYTE => Values.byteValue(in.readByte())
+    case SHORT => Values.shortValue(in.readShort())
+    case INT => Values.intValue(in.readInt())
+    case LONG => Values.longValue(in.readLong())
+    case FLOAT => Values.floatValue(in.readFloat())
+    case DOUBLE => Values.doubleValue(in.readDouble())
+    case STRING => Values.utf8Value(readBytes(in))
+    case CHAR => Values.charValue(in.readChar())
+    case BYTE_ARRAY => Values.byteArray(readBytes(in))
+    case POINT =>
+      val crs = CoordinateReferenceSystem.get(in.readInt())
+      val coordinate = new Array[Double](in.readInt())
+      var i = 0
+      while (i < coordinate.length) {
+        coordinate(i) = in.readDouble()
+        i += 1
+      }
+      Values.pointValue(crs, coordinate: _*)
+    case DURATION => DurationValue.duration(in.readLong(), in.readLong(), in.readLong(), in.readInt())
+    case DATE => DateValue.date(LocalDate.ofEpochDay(in.readLong()))
+    case LOCAL_TIME => LocalTimeValue.localTime(LocalTime.ofNanoOfDay(in.readLong()))
+    case TIME => TimeValue.time(OffsetTime.of(LocalTime.ofNanoOfDay(in.readLong()), ZoneOffset.ofTotalSeconds(in.readInt())))
+    case LOCAL_DATE_TIME => LocalDateTimeValue.localDateTime(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC))
+    case DATE_TIME =>
+      val instant = Instant.ofEpochSecond(in.readLong(), in.readInt())
+      val zone = if (in.readBoolean()) ZoneOffset.ofTotalSeconds(in.readInt()) else ZoneId.of(readString(in))
+      DateTimeValue.datetime(ZonedDateTime.ofInstant(instant, zone))
+    case ARRAY => readArray(ArrayType.values()(in.readByte()), in.readInt(), in)
+    case NODE => entityById.nodeById(in.readLong())
+    case RELATIONSHIP => entityById.relationshipById(in.readLong())
+    case VIRTUAL_NODE =>
+      val id = in.readLong()
+      VirtualValues.nodeValue(id, readValue(in).asInstanceOf[TextArray], readValue(in).asInstanceOf[MapValue])
+    case VIRTUAL_RELATIONSHIP =>
+      val id = in.readLong()
+      val startNode = readValue(in).asInstanceOf[NodeValue]
+      val endNode = readValue(in).asInstanceOf[NodeValue]
+      VirtualValues.relationshipValue(id, startNode, endNode, readValue(in).asInstanceOf[TextValue], readValue(in).asInstanceOf[MapValue])
+    case PATH =>
+      val nodes = new Array[NodeValue](in.readInt())
+      var i = 0
+      while (i < nodes.length) {
+        nodes(i) = readValue(in).asInstanceOf[NodeValue]
+        i += 1
+      }
+      val relationships = new Array[RelationshipValue](in.readInt())
+      i = 0
+      while (i < relationships.length) {
+        relationships(i) = readValue(in).asInstanceOf[RelationshipValue]
+        i += 1
+      }
+      VirtualValues.path(nodes, relationships)
+    case LIST =>
+      val values = new Array[AnyValue](in.readInt())
+      var i = 0
+      while (i < values.length) {
+        values(i) = readValue(in)
+        i += 1
+      }
+      VirtualValues.list(values: _*)
+    case MAP =>
+      val size = in.readInt()
+      if (size == 0) {
+        VirtualValues.EMPTY_MAP
+      } else {
+        val builder = new MapValueBuilder(size)
+        var i = 0
+        while (i < size) {
+          val key = readValue(in).asInstanceOf[TextValue].stringValue()
+          builder.add(key, readValue(in))
+          i += 1
+        }
+        builder.build()
+      }
+    case tag => throw new InternalException(s"Unknown value type $tag in spilled row")
+  }
+
+  private def readArray(arrayType: ArrayType, size: Int, in: DataInputStream): Value = {
+    val elements = new Array[Value](size)
+    var i = 0
+    while (i < size) {
+      elements(i) = readValue(in).asInstanceOf[Value]
+      i += 1
+    }
+    arrayType match {
+      case ArrayType.BYTE => Values.byteArray(elements.map(_.asObjectCopy().asInstanceOf[java.lang.Byte].byteValue()))
+      case ArrayType.SHORT => Values.shortArray(elements.map(_.asObjectCopy().asInstanceOf[java.lang.Short].shortValue()))
+      case ArrayType.INT => Values.intArray(elements.map(_.asObjectCopy().asInstanceOf[java.lang.Integer].intValue()))
+      case ArrayType.LONG => Values.longArray(elements.map(_.asObjectCopy().asInstanceOf[java.lang.Long].longValue()))
+      case ArrayType.FLOAT => Values.floatArray(elements.map(_.asObjectCopy().asInstanceOf[java.lang.Float].floatValue()))
+      case ArrayType.DOUBLE => Values.doubleArray(elements.map(_.asObjectCopy().asInstanceOf[java.lang.Double].doubleValue()))
+      case ArrayType.BOOLEAN => Values.booleanArray(elements.map(_.asObjectCopy().asInstanceOf[java.lang.Boolean].booleanValue()))
+      case ArrayType.STRING => Values.stringArray(elements.map(_.asInstanceOf[TextValue].stringValue()): _*)
+      case ArrayType.CHAR => Values.charArray(elements.map(_.asObjectCopy().asInstanceOf[java.lang.Character].charValue()))
+      case ArrayType.POINT => Values.pointArray(elements.map(_.asInstanceOf[PointValue]))
+      case ArrayType.ZONED_DATE_TIME => Values.dateTimeArray(elements.map(_.asObjectCopy().asInstanceOf[ZonedDateTime]))
+      case ArrayType.LOCAL_DATE_TIME => Values.localDateTimeArray(elements.map(_.asObjectCopy().asInstanceOf[LocalDateTime]))
+      case ArrayType.DATE => Values.dateArray(elements.map(_.asObjectCopy().asInstanceOf[LocalDate]))
+      case ArrayType.ZONED_TIME => Values.timeArray(elements.map(_.asObjectCopy().asInstanceOf[OffsetTime]))
+      case ArrayType.LOCAL_TIME => Values.localTimeArray(elements.map(_.asObjectCopy().asInstanceOf[LocalTime]))
+      case ArrayType.DURATION => Values.durationArray(elements.map(_.asInstanceOf[DurationValue]))
+    }
+  }
+
+  private def writeString(out: DataOutputStream, value: String): Unit = {
+    val bytes = value.getBytes(StandardCharsets.UTF_8)
+    out.writeInt(bytes.length)
+    out.write(bytes)
+  }
+
+  private def readString(in: DataInputStream): String = new String(readBytes(in), StandardCharsets.UTF_8)
+
+  private def readBytes(in: DataInputStream): Array[Byte] = {
+    val bytes = new Array[Byte](in.readInt())
+    in.readFully(bytes)
+    bytes
+  }
+
+  private class ValueWriter(out: DataOutputStream) extends AnyValueWriter[java.io.IOException] {
+
+    override def entityMode(): EntityMode = EntityMode.REFERENCE
+
+    override def writeNodeReference(nodeId: Long): Unit = {
+      out.writeByte(NODE)
+      out.writeLong(nodeId)
+    }
+
+    override def writeNode(nodeId: Long, labels: TextArray, properties: MapValue): Unit = writeNodeReference(nodeId)
+
+    override def writeRelationshipReference(relId: Long): Unit = {
+      out.writeByte(RELATIONSHIP)
+      out.writeLong(relId)
+    }
+
+    override def writeRelationship(relId: Long, startNodeId: Long, endNodeId: Long, `type`: TextValue, properties: MapValue): Unit =
+      writeRelationshipReference(relId)
+
+    override def beginMap(size: Int): Unit = {
+      out.writeByte(MAP)
+      out.writeInt(size)
+    }
+
+    override def endMap(): Unit = {}
+
+    override def beginList(size: Int): Unit = {
+      out.writeByte(LIST)
+      out.writeInt(size)
+    }
+
+    override def endList(): Unit = {}
+
+    override def writePath(nodes: Array[NodeValue], relationships: Array[RelationshipValue]): Unit = {
+      out.writeByte(PATH)
+      out.writeInt(nodes.length)
+      nodes.foreach(node => writeValue(node, this, out))
+      out.writeInt(relationships.length)
+      relationships.foreach(relationship => writeValue(relationship, this, out))
+    }
+
+    override def writeNull(): Unit = out.writeByte(NULL)
+
+    override def writeBoolean(value: Boolean): Unit = {
+      out.writeByte(BOOLEAN)
+      out.writeBoolean(value)
+    }
+
+    override def writeInteger(value: Byte): Unit = {
+      out.writeByte(BYTE)
+      out.writeByte(value)
+    }
+
+    override def writeInteger(value: Short): Unit = {
+      out.writeByte(SHORT)
+      out.writeShort(value)
+    }
+
+    override def writeInteger(value: Int): Unit = {
+      out.writeByte(INT)
+      out.writeInt(value)
+    }
+
+    override def writeInteger(value: Long): Unit = {
+      out.writeByte(LONG)
+      out.writeLong(value)
+    }
+
+    override def writeFloatingPoint(value: Float): Unit = {
+      out.writeByte(FLOAT)
+      out.writeFloat(value)
+    }
+
+    override def writeFloatingPoint(value: Double): Unit = {
+      out.writeByte(DOUBLE)
+      out.writeDouble(value)
+    }
+
+    override def writeString(value: String): Unit = {
+      out.writeByte(STRING)
+      CypherRowSerializer.this.writeString(out, value)
+    }
+
+    override def writeUTF8(bytes: Array[Byte], offset: Int, length: Int): Unit = {
+      out.writeByte(STRING)
+      out.writeInt(length)
+      out.write(bytes, offset, length)
+    }
+
+    override def writeString(value: Char): Unit = {
+      out.writeByte(CHAR)
+      out.writeChar(value)
+    }
+
+    override def beginArray(size: Int, arrayType: ArrayType): Unit = {
+      out.writeByte(ARRAY)
+      out.writeByte(arrayType.ordinal())
+      out.writeInt(size)
+    }
+
+    override def endArray(): Unit = {}
+
+    override def writeByteArray(value: Array[Byte]): Unit = {
+      out.writeByte(BYTE_ARRAY)
+      out.writeInt(value.length)
+      out.write(value)
+    }
+
+    override def writePoint(crs: CoordinateReferenceSystem, coordinate: Array[Double]): Unit = {
+      out.writeByte(POINT)
+      out.writeInt(crs.getCode)
+      out.writeInt(coordinate.length)
+      coordinate.foreach(out.writeDouble)
+    }
+
+    override def writeDuration(months: Long, days: Long, seconds: Long, nanos: Int): Unit = {
+      out.writeByte(DURATION)
+      out.writeLong(months)
+      out.writeLong(days)
+      out.writeLong(seconds)
+      out.writeInt(nanos)
+    }
+
+    override def writeDate(localDate: LocalDate): Unit = {
+      out.writeByte(DATE)
+      out.writeLong(localDate.toEpochDay)
+    }
+
+    override def writeLocalTime(localTime: LocalTime): Unit = {
+      out.writeByte(LOCAL_TIME)
+      out.writeLong(localTime.toNanoOfDay)
+    }
+
+    override def writeTime(offsetTime: OffsetTime): Unit = {
+      out.writeByte(TIME)
+      out.writeLong(offsetTime.toLocalTime.toNanoOfDay)
+      out.writeInt(offsetTime.getOffset.getTotalSeconds)
+    }
+
+    override def writeLocalDateTime(localDateTime: LocalDateTime): Unit = {
+      out.writeByte(LOCAL_DATE_TIME)
+      out.writeLong(localDateTime.toEpochSecond(ZoneOffset.UTC))
+      out.writeInt(localDateTime.getNano)
+    }
+
+    override def writeDateTime(zonedDateTime: ZonedDateTime): Unit = {
+      out.writeByte(DATE_TIME)
+      out.writeLong(zonedDateTime.toEpochSecond)
+      out.writeInt(zonedDateTime.getNano)
+      zonedDateTime.getZone match {
+        case offset: ZoneOffset =>
+          out.writeBoolean(true)
+          out.writeInt(offset.getTotalSeconds)
+        case zone =>
+          out.writeBoolean(false)
+          CypherRowSerializer.this.writeString(out, zone.getId)
+      }
+    }
+  }
+
+  private class Dictionary[T] {
+    private val indexes = mutable.Map.empty[T, Int]
+    private val entries = mutable.ArrayBuffer.empty[T]
+
+    def indexOf(entry: T): Int = indexes.getOrElseUpdate(entry, {
+      entries += entry
+      entries.size - 1
+    })
+
+    def get(index: Int): T = entries(index)
+  }
+}
+
+object CypherRowSerializer {
+  private val NULL: Byte = 0
+  private val BOOLEAN: Byte = 1
+  private val BYTE: Byte = 2
+  private val SHORT: Byte = 3
+  private val INT: Byte = 4
+  private val LONG: Byte = 5
+  private val FLOAT: Byte = 6
+  private val DOUBLE: Byte = 7
+  private val STRING: Byte = 8
+  private val CHAR: Byte = 9
+  private val BYTE_ARRAY: Byte = 10
+  private val POINT: Byte = 11
+  private val DURATION: Byte = 12
+  private val DATE: Byte = 13
+  private val LOCAL_TIME: Byte = 14
+  private val TIME: Byte = 15
+  private val LOCAL_DATE_TIME: Byte = 16
+  private val DATE_TIME: Byte = 17
+  private val ARRAY: Byte = 18
+  private val NODE: Byte = 19
+  private val RELATIONSHIP: Byte = 20
+  private val PATH: Byte = 21
+  private val LIST: Byte = 22
+  private val MAP: Byte = 23
+  private val VIRTUAL_NODE: Byte = 24
+  private val VIRTUAL_RELATIONSHIP: Byte = 25
+}
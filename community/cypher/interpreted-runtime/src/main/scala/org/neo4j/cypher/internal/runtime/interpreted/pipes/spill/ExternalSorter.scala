@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.util.Comparator
+import java.util.PriorityQueue
+
+import org.neo4j.collection.trackable.HeapTrackingArrayList
+import org.neo4j.cypher.internal.runtime.ClosingIterator
+import org.neo4j.cypher.internal.runtime.ClosingIterator.DelegatingClosingIterator
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.ReadableRow
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.ExternalSorter.MAX_MERGE_FAN_IN
+import org.neo4j.memory.MemoryTracker
+
+import scala.collection.JavaConverters.asScalaIteratorConverter
+import scala.collection.mutable
+
+/**
+ * Sorts rows that may not fit in memory. Rows are buffered until their estimated size exceeds the spill threshold of the query, at which
+ * point the buffer is sorted and written to disk as a run. The sorted result is produced by a k-way merge of the runs and whatever is
+ * still buffered.
+ *
+ * The sort is stable, rows that compare as equal are returned in the order they were added.
+ *
+ * @param limit the maximum number of rows that will be consumed from the sorted result, which caps the size of written runs
+ */
+class ExternalSorter(comparator: Comparator[ReadableRow],
+                     operatorId: Int,
+                     state: QueryState,
+                     memoryTracker: MemoryTracker,
+                     limit: Long = Long.MaxValue) {
+
+  private val spillThreshold = state.operatorSpillThreshold
+  private var buffer: HeapTrackingArrayList[CypherRow] = HeapTrackingArrayList.newArrayList(256, memoryTracker)
+  private var bufferedBytes = 0L
+  private var spillFiles: SpillFiles = _
+  private val spilledRuns = mutable.ArrayBuffer.empty[SpillFile]
+
+  def add(row: CypherRow): Unit = {
+    val rowHeapUsage = row.estimatedHeapUsage()
+    memoryTracker.allocateHeap(rowHeapUsage)
+    bufferedBytes += rowHeapUsage
+    buffer.add(row)
+    if (bufferedBytes > spillThreshold) {
+      spill()
+    }
+  }
+
+  /**
+   * Get all added rows in sorted order. No more rows can be added after this has been called.
+   */
+  def sorted(): ClosingIterator[CypherRow] = {
+    buffer.sort(comparator)
+    if (spilledRuns.isEmpty) {
+      val rows = buffer
+      buffer = null
+      new DelegatingClosingIterator[CypherRow](rows.iterator().asScala) {
+        override protected[this] def closeMore(): Unit = rows.close()
+      }
+    } else {
+      while (spilledRuns.size >= MAX_MERGE_FAN_IN) {
+        mergeRuns()
+      }
+      val sources = spilledRuns.map(spillFiles.read) :+ bufferedRows()
+      spilledRuns.clear()
+      val merged = merge(sources)
+      new DelegatingClosingIterator[CypherRow](merged) {
+        override protected[this] def closeMore(): Unit = {
+          // Closing the sources deletes the files they read, so that only unread files are left for spill files to delete
+          merged.close()
+          spillFiles.close()
+        }
+      }
+    }
+  }
+
+  private def spill(): Unit = {
+    buffer.sort(comparator)
+    if (spillFiles == null) {
+      spillFiles = new SpillFiles(operatorId, state)
+    }
+    spilledRuns += spillFiles.write(buffer.iterator().asScala.take(Math.min(limit, Int.MaxValue).toInt), runs = 1)
+    buffer.clear()
+    memoryTracker.releaseHeap(bufferedBytes)
+    bufferedBytes = 0
+  }
+
+  /**
+   * Merge runs into bigger runs, so that the number of files that are read at the same time stays bounded.
+   */
+  private def mergeRuns(): Unit = {
+    val merged = spilledRuns.grouped(MAX_MERGE_FAN_IN).map { group =>
+      val rows = merge(group.map(spillFiles.read))
+      try {
+        spillFiles.write(rows.take(Math.min(limit, Int.MaxValue).toInt), runs = 0)
+      } finally {
+        rows.close()
+      }
+    }.toVector
+    spilledRuns.clear()
+    spilledRuns ++= merged
+  }
+
+  private def bufferedRows(): ClosingIterator[CypherRow] = {
+    val rows = buffer
+    buffer = null
+    val releasedBytes = bufferedBytes
+    new DelegatingClosingIterator[CypherRow](rows.iterator().asScala) {
+      override protected[this] def closeMore(): Unit = {
+        rows.close()
+        memoryTracker.releaseHeap(releasedBytes)
+      }
+    }
+  }
+
+  private def merge(sources: Seq[ClosingIterator[CypherRow]]): ClosingIterator[CypherRow] = new ClosingIterator[CypherRow] {
+    private val heads = new PriorityQueue[MergeHead](Math.max(sources.size, 1), (a: MergeHead, b: MergeHead) => {
+      val comparison = comparator.compare(a.row, b.row)
+      // Sources are ordered the way their rows were added, which keeps the merge stable
+      if (comparison != 0) comparison else Integer.compare(a.sourceIndex, b.sourceIndex)
+    })
+
+    {
+      var i = 0
+      while (i < sources.size) {
+        advance(new MergeHead(i))
+        i += 1
+      }
+    }
+
+    override protected[this] def innerHasNext: Boolean = !heads.isEmpty
+
+    override def next(): CypherRow = {
+      val head = heads.poll()
+      if (head == null) {
+        throw new NoSuchElementException("next on empty iterator")
+      }
+      val row = head.row
+      advance(head)
+      row
+    }
+
+    override protected[this] def closeMore(): Unit = sources.foreach(_.close())
+
+    private def advance(head: MergeHead): Unit = {
+      val source = sources(head.sourceIndex)
+      if (source.hasNext) {
+        head.row = source.next()
+        heads.add(head)
+      }
+    }
+  }
+
+  private class MergeHead(val sourceIndex: Int) {
+    var row: CypherRow = _
+  }
+}
+
+object ExternalSorter {
+  /**
+   * The maximum number of runs that are merged at the same time. Each run that is merged keeps a read buffer in memory.
+   */
+  private val MAX_MERGE_FAN_IN = 128
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import org.neo4j.values.AnyValue
+
+/**
+ * Hash partitioning for operators that move rows to disk in partitions. A partition that is still too big to be handled in memory can
+ * be partitioned again at the next level, on other bits of the hash, until there are no more bits left at [[MAX_LEVEL]].
+ */
+object HashPartitioning {
+  val PARTITION_BITS = 4
+  val PARTITIONS: Int = 1 << PARTITION_BITS
+  val MAX_LEVEL: Int = Integer.SIZE / PARTITION_BITS - 1
+
+  def partitionOf(value: AnyValue, level: Int): Int = {
+    // Multiplicative hashing, which mixes the hash code into the high bits, that are then used from the top down, one level at a time
+    val hash = value.hashCode() * 0x9E3779B9
+    (hash >>> (Integer.SIZE - (level + 1) * PARTITION_BITS)) & (PARTITIONS - 1)
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.util.Comparator
+
+import org.neo4j.cypher.internal.runtime.ClosingIterator
+import org.neo4j.cypher.internal.runtime.ClosingIterator.DelegatingClosingIterator
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.NamedCypherRow
+import org.neo4j.cypher.internal.runtime.ReadableRow
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.HashPartitioning.MAX_LEVEL
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.HashPartitioning.PARTITIONS
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.HashPartitioning.partitionOf
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.HybridHashJoin.ROW_NUMBER
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.HybridHashJoin.ROW_NUMBER_ORDER
+import org.neo4j.kernel.impl.util.collection.ProbeTable
+import org.neo4j.memory.ScopedMemoryTracker
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.NumberValue
+import org.neo4j.values.storable.Values
+
+import scala.collection.JavaConverters.asScalaIteratorConverter
+import scala.collection.JavaConverters.asScalaSetConverter
+
+/**
+ * A hash join for when the build side may not fit in memory, used by the hash join pipes when the query has an operator spill threshold.
+ *
+ * Build rows are hash partitioned by join key into probe tables. When the probe tables use more memory than the spill threshold, the
+ * largest partition is moved to disk, and later build rows of that partition are written straight to disk as well. Probe rows of
+ * partitions that are in memory are joined right away, while probe rows of spilled partitions are written to disk. Once all probe rows
+ * have been seen, the spilled partitions are joined one at a time, in the same way, partitioning them again if needed.
+ *
+ * Joined rows keep the order of the probe side, which the planner relies on. If nothing spills, joined rows are streamed just as by an
+ * in-memory hash join. Otherwise the joined rows are numbered by their probe row, and put back in that order by an [[ExternalSorter]].
+ *
+ * @param buildKey the join key of a build row, or null if it has none
+ * @param probeKey the join key of a probe row, or null if it has none
+ */
+class HybridHashJoin(buildKey: CypherRow => AnyValue,
+                     probeKey: CypherRow => AnyValue,
+                     operatorId: Int,
+                     state: QueryState) {
+
+  // The probe tables need a scope of their own to know how much memory they use, also when memory tracking is disabled
+  private[this] val memoryTracker = new ScopedMemoryTracker(state.memoryTracker.memoryTrackerForOperator(operatorId))
+  private[this] val tablesMemoryTracker = new ScopedMemoryTracker(memoryTracker)
+  private[this] var spillFiles: SpillFiles = _
+
+  def join(build: Iterator[CypherRow], probe: ClosingIterator[CypherRow]): ClosingIterator[CypherRow] = {
+    val partitions = new Partitions(0)
+    build.foreach(partitions.add)
+
+    if (partitions.isEmpty) {
+      partitions.close()
+      ClosingIterator.empty
+    } else if (!partitions.hasSpilled) {
+      val joined = probe.flatMap(partitions.probe)
+      new DelegatingClosingIterator[CypherRow](joined) {
+        override protected[this] def closeMore(): Unit = {
+          joined.close()
+          partitions.close()
+        }
+      }
+    } else {
+      var rowNumber = 0L
+      val numbered = probe.map(row => {
+        row.set(ROW_NUMBER, Values.longValue(rowNumber))
+        rowNumber += 1
+        row
+      })
+      val joined = joinPartitions(partitions, numbered)
+      val sorter = new ExternalSorter(ROW_NUMBER_ORDER, operatorId, state, memoryTracker)
+      joined.foreach(sorter.add)
+      joined.close()
+      val sorted = sorter.sorted()
+      new DelegatingClosingIterator[CypherRow](sorted) {
+        override def next(): CypherRow = {
+          val row = sorted.next()
+          row.asInstanceOf[NamedCypherRow].remove(ROW_NUMBER)
+          row
+        }
+
+        override protected[this] def closeMore(): Unit = {
+          sorted.close()
+          spillFiles.close()
+        }
+      }
+    }
+  }
+
+  private def joinPartitions(partitions: Partitions, probe: ClosingIterator[CypherRow]): ClosingIterator[CypherRow] = {
+    val joined = probe.flatMap(partitions.probe) ++ ClosingIterator(partitions.spilledPartitions()).flatMap {
+      case (buildFile, probeFile) => joinSpilledPartition(buildFile, probeFile, partitions.level + 1)
+    }
+    new DelegatingClosingIterator[CypherRow](joined) {
+      override protected[this] def closeMore(): Unit = {
+        joined.close()
+        partitions.close()
+      }
+    }
+  }
+
+  private def joinSpilledPartition(buildFile: SpillFile, probeFile: SpillFile, level: Int): ClosingIterator[CypherRow] = {
+    val partitions = new Partitions(level)
+    val build = spillFiles.read(buildFile)
+    build.foreach(partitions.add)
+    build.close()
+    joinPartitions(partitions, spillFiles.read(probeFile))
+  }
+
+  /**
+   * The build rows of one level of partitioning.
+   */
+  private class Partitions(val level: Int) {
+    private[this] val tables = new Array[ProbeTable[AnyValue, CypherRow]](PARTITIONS)
+    private[this] val tableMemoryTrackers = new Array[ScopedMemoryTracker](PARTITIONS)
+    private[this] val buildFiles = new Array[SpillFiles#SpillWriter](PARTITIONS)
+    private[this] val probeFiles = new Array[SpillFiles#SpillWriter](PARTITIONS)
+
+    def add(row: CypherRow): Unit = {
+      val key = buildKey(row)
+      if (key != null) {
+        val partition = partitionOf(key, level)
+        if (buildFiles(partition) != null) {
+          buildFiles(partition).write(row)
+        } else {
+          if (tables(partition) == null) {
+            tableMemoryTrackers(partition) = new ScopedMemoryTracker(tablesMemoryTracker)
+            tables(partition) = ProbeTable.createProbeTable[AnyValue, CypherRow](tableMemoryTrackers(partition))
+            state.query.resources.trace(tables(partition))
+          }
+          tables(partition).put(key, row)
+          // At the last level there are no bits of the hash left to partition on, so whatever remains has to fit in memory
+          while (level < MAX_LEVEL && tablesMemoryTracker.estimatedHeapMemory() > state.operatorSpillThreshold && spillLargestPartition()) {}
+        }
+      }
+    }
+
+    def isEmpty: Boolean = tables.forall(_ == null) && buildFiles.forall(_ == null)
+
+    def hasSpilled: Boolean = buildFiles.exists(_ != null)
+
+    def probe(row: CypherRow): Iterator[CypherRow] = {
+      val key = probeKey(row)
+      if (key == null) {
+        Iterator.empty
+      } else {
+        val partition = partitionOf(key, level)
+        if (tables(partition) != null) {
+          tables(partition).get(key).asScala.map(buildRow => {
+            val output = buildRow.createClone()
+            output.mergeWith(row, state.query)
+            output
+          })
+        } else {
+          if (buildFiles(partition) != null) {
+            if (probeFiles(partition) == null) {
+              probeFiles(partition) = spillFiles.writer()
+            }
+            probeFiles(partition).write(row)
+          }
+          Iterator.empty
+        }
+      }
+    }
+
+    /**
+     * The build and probe files of all spilled partitions that have rows on both sides. No more rows can be probed after this has been
+     * called, and the partitions that were in memory are released.
+     */
+    def spilledPartitions(): Iterator[(SpillFile, SpillFile)] = {
+      close()
+      val spilled = for (partition <- (0 until PARTITIONS).iterator if buildFiles(partition) != null) yield {
+        val buildFile = buildFiles(partition).finish(runs = 0)
+        buildFiles(partition) = null
+        if (probeFiles(partition) == null) {
+          spillFiles.discard(buildFile)
+          None
+        } else {
+          val probeFile = probeFiles(partition).finish(runs = 0)
+          probeFiles(partition) = null
+          Some((buildFile, probeFile))
+        }
+      }
+      spilled.toList.flatten.iterator
+    }
+
+    def close(): Unit = {
+      var partition = 0
+      while (partition < PARTITIONS) {
+        closeTable(partition)
+        partition += 1
+      }
+    }
+
+    private def spillLargestPartition(): Boolean = {
+      var largest = -1
+      var partition = 0
+      while (partition < PARTITIONS) {
+        if (tables(partition) != null &&
+          (largest == -1 || tableMemoryTrackers(partition).estimatedHeapMemory() > tableMemoryTrackers(largest).estimatedHeapMemory())) {
+          largest = partition
+        }
+        partition += 1
+      }
+      if (largest == -1) {
+        false
+      } else {
+        if (spillFiles == null) {
+          spillFiles = new SpillFiles(operatorId, state)
+        }
+        val out = spillFiles.writer()
+        val table = tables(largest)
+        table.keySet().asScala.foreach(key => table.get(key).asScala.foreach(out.write))
+        closeTable(largest)
+        buildFiles(largest) = out
+        state.memoryTracker.spilled(0, 1, operatorId)
+        true
+      }
+    }
+
+    private def closeTable(partition: Int): Unit = {
+      if (tables(partition) != null) {
+        tables(partition).close()
+        tableMemoryTrackers(partition).close()
+        tables(partition) = null
+        tableMemoryTrackers(partition) = null
+      }
+    }
+  }
+}
+
+object HybridHashJoin {
+  private val ROW_NUMBER = "  probeRowNumber"
+
+  private val ROW_NUMBER_ORDER: Comparator[ReadableRow] =
+    (a: ReadableRow, b: ReadableRow) => java.lang.Long.compare(rowNumber(a), rowNumber(b))
+
+  private def rowNumber(row: ReadableRow): Long = row.getByName(ROW_NUMBER).asInstanceOf[NumberValue].longValue()
+}
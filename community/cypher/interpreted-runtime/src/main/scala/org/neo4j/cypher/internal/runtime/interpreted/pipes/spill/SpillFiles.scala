@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.io.BufferedInputStream
+import java.io.BufferedOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+
+import org.neo4j.cypher.internal.runtime.ClosingIterator
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.QueryState
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.SpillFiles.BUFFER_SIZE
+import org.neo4j.exceptions.CypherExecutionException
+import org.neo4j.internal.kernel.api.DefaultCloseListenable
+
+import scala.collection.mutable
+
+/**
+ * A file of rows written by [[SpillFiles]].
+ */
+class SpillFile(val path: Path, val rowCount: Long)
+
+/**
+ * Temporary files that an operator writes rows to when they do not fit in memory. The files are registered with the resources of the
+ * query, so that they are deleted when the query finishes, even if the operator never reads them back.
+ *
+ * Written files are reported to the [[org.neo4j.cypher.internal.runtime.QueryMemoryTracker]] of the query, so that PROFILE can show
+ * how much an operator spilled.
+ */
+class SpillFiles(operatorId: Int, state: QueryState) extends DefaultCloseListenable {
+
+  private val serializer = new CypherRowSerializer(state.query)
+  private val files = mutable.Set.empty[Path]
+  private val writers = mutable.Set.empty[SpillWriter]
+  private var closed = false
+
+  state.query.resources.trace(this)
+
+  /**
+   * Write rows to a new file.
+   *
+   * @param rows the rows to write
+   * @param runs the number of runs to record for the operator. Files that are only rewrites of already spilled rows should not count
+   *             as new runs.
+   */
+  def write(rows: Iterator[CypherRow], runs: Long): SpillFile = {
+    val out = writer()
+    while (rows.hasNext) {
+      out.write(rows.next())
+    }
+    out.finish(runs)
+  }
+
+  /**
+   * Open a new file that rows can be appended to one at a time, until the writer is finished.
+   */
+  def writer(): SpillWriter = {
+    val path = ioOperation("create") {
+      Files.createTempFile("neo4j-spill-", ".tmp")
+    }
+    files += path
+    val out = ioOperation("open") {
+      new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE))
+    }
+    val writer = new SpillWriter(path, out)
+    writers += writer
+    writer
+  }
+
+  /**
+   * A file of [[SpillFiles]] that is still being written.
+   */
+  class SpillWriter private[SpillFiles](path: Path, out: DataOutputStream) {
+    private var rowCount = 0L
+
+    def write(row: CypherRow): Unit = {
+      ioOperation("write to") {
+        serializer.write(row, out)
+      }
+      rowCount += 1
+    }
+
+    /**
+     * Close the file, so that it can be read.
+     *
+     * @param runs the number of runs to record for the operator, see [[SpillFiles.write]].
+     */
+    def finish(runs: Long): SpillFile = {
+      ioOperation("write to") {
+        out.close()
+        state.memoryTracker.spilled(Files.size(path), runs, operatorId)
+      }
+      writers -= this
+      new SpillFile(path, rowCount)
+    }
+
+    private[SpillFiles] def abort(): Unit = {
+      ioOperation("close") {
+        out.close()
+      }
+    }
+  }
+
+  /**
+   * Read back the rows of a file, in the order they were written. The file is deleted once the returned iterator is closed.
+   */
+  def read(file: SpillFile): ClosingIterator[CypherRow] = {
+    val in = ioOperation("open") {
+      new DataInputStream(new BufferedInputStream(Files.newInputStream(file.path), BUFFER_SIZE))
+    }
+    new ClosingIterator[CypherRow] {
+      private var remaining = file.rowCount
+
+      override protected[this] def innerHasNext: Boolean = remaining > 0
+
+      override def next(): CypherRow = {
+        if (remaining <= 0) {
+          throw new NoSuchElementException("next on exhausted spill file")
+        }
+        remaining -= 1
+        ioOperation("read from") {
+          serializer.read(in)
+        }
+      }
+
+      override protected[this] def closeMore(): Unit = {
+        in.close()
+        delete(file.path)
+      }
+    }
+  }
+
+  /**
+   * Delete a file that is not going to be read.
+   */
+  def discard(file: SpillFile): Unit = delete(file.path)
+
+  override def closeInternal(): Unit = {
+    if (!closed) {
+      closed = true
+      writers.foreach(_.abort())
+      writers.clear()
+      files.toArray.foreach(delete)
+    }
+  }
+
+  override def isClosed: Boolean = closed
+
+  private def delete(path: Path): Unit = {
+    if (files.remove(path)) {
+      ioOperation("delete") {
+        Files.deleteIfExists(path)
+      }
+    }
+  }
+
+  private def ioOperation[T](operation: String)(f: => T): T = {
+    try {
+      f
+    } catch {
+      case e: IOException =>
+        throw new CypherExecutionException(s"Failed to $operation temporary file of spilled rows: ${e.getMessage}", e)
+    }
+  }
+}
+
+object SpillFiles {
+  private val BUFFER_SIZE = 64 * 1024
+}
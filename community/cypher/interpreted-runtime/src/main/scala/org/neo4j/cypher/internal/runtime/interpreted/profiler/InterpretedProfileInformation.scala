@@ -35,12 +35,14 @@ class InterpretedProfileInformation extends QueryProfile {
                           rows: Long,
                           pageCacheHits: Long,
                           pageCacheMisses: Long,
-                          maxAllocatedMemory: Long) extends OperatorProfile {
+                          maxAllocatedMemory: Long,
+                          override val spilledBytes: Long,
+                          override val spillRuns: Long) extends OperatorProfile {
 
     override def time: Long = OperatorProfile.NO_DATA
 
     override def hashCode: Int = util.Arrays.hashCode(
-      Array(this.time(), this.dbHits, this.rows, this.pageCacheHits, this.pageCacheMisses, this.maxAllocatedMemory))
+      Array(this.time(), this.dbHits, this.rows, this.pageCacheHits, this.pageCacheMisses, this.maxAllocatedMemory, this.spilledBytes, this.spillRuns))
 
     override def equals(o: Any): Boolean = o match {
       case that: OperatorProfile =>
@@ -49,11 +51,13 @@ class InterpretedProfileInformation extends QueryProfile {
           this.rows == that.rows &&
           this.pageCacheHits == that.pageCacheHits &&
           this.pageCacheMisses == that.pageCacheMisses &&
-          this.maxAllocatedMemory == that.maxAllocatedMemory()
+          this.maxAllocatedMemory == that.maxAllocatedMemory() &&
+          this.spilledBytes == that.spilledBytes() &&
+          this.spillRuns == that.spillRuns()
       case _ => false
     }
 
-    override def toString: String = s"Operator Profile { time: ${this.time}, dbHits: ${this.dbHits}, rows: ${this.rows}, page cache hits: ${this.pageCacheHits}, page cache misses: ${this.pageCacheMisses}, max allocated: ${this.maxAllocatedMemory} }"
+    override def toString: String = s"Operator Profile { time: ${this.time}, dbHits: ${this.dbHits}, rows: ${this.rows}, page cache hits: ${this.pageCacheHits}, page cache misses: ${this.pageCacheMisses}, max allocated: ${this.maxAllocatedMemory}, spilled bytes: ${this.spilledBytes}, spill runs: ${this.spillRuns} }"
   }
 
   val pageCacheMap: mutable.Map[Id, PageCacheStats] = mutable.Map.empty.withDefault(_ => PageCacheStats(0,0))
@@ -71,8 +75,10 @@ class InterpretedProfileInformation extends QueryProfile {
     val dbHits = dbHitsMap.get(id).map(_.count).getOrElse(0L)
     val pageCacheStats = pageCacheMap(id)
     val maxMemoryAllocated = QueryMemoryTracker.memoryAsProfileData(memoryTracker.maxMemoryOfOperator(operatorId))
+    val spilledBytes = QueryMemoryTracker.memoryAsProfileData(memoryTracker.spilledBytesOfOperator(operatorId))
+    val spillRuns = QueryMemoryTracker.memoryAsProfileData(memoryTracker.spillRunsOfOperator(operatorId))
 
-    OperatorData(dbHits, rows, pageCacheStats.hits, pageCacheStats.misses, maxMemoryAllocated)
+    OperatorData(dbHits, rows, pageCacheStats.hits, pageCacheStats.misses, maxMemoryAllocated, spilledBytes, spillRuns)
   }
 
   override def maxAllocatedMemory(): Long = QueryMemoryTracker.memoryAsProfileData(memoryTracker.totalAllocatedMemory)
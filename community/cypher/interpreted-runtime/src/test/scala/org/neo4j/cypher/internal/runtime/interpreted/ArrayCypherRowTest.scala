@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted
+
+import org.neo4j.cypher.internal.ast.AstConstructionTestSupport
+import org.neo4j.cypher.internal.runtime.ArrayCypherRow
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.VariableSlots
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ArrayCypherRowFactory
+import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.graphdb.NotFoundException
+import org.neo4j.values.storable.BooleanValue
+import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.VirtualValues
+
+class ArrayCypherRowTest extends CypherFunSuite with AstConstructionTestSupport {
+
+  private val slots = VariableSlots(Seq("a", "b", "c"))
+
+  test("set and get variables with and without slots") {
+    // given
+    val row = ArrayCypherRow.empty(slots)
+
+    // when
+    row.set("a", BooleanValue.TRUE, "noSlot", BooleanValue.FALSE)
+
+    // then
+    row.getByName("a") should equal(BooleanValue.TRUE)
+    row.getRefAt(slots.offsetOf("a")) should equal(BooleanValue.TRUE)
+    row.getByName("noSlot") should equal(BooleanValue.FALSE)
+    row.containsName("a") shouldBe true
+    row.containsName("b") shouldBe false
+    row.numberOfColumns should equal(2)
+    row.toMap should equal(Map("a" -> BooleanValue.TRUE, "noSlot" -> BooleanValue.FALSE))
+  }
+
+  test("should fail on unknown variable") {
+    val row = ArrayCypherRow.empty(slots)
+    row.set("a", BooleanValue.TRUE)
+
+    a[NotFoundException] should be thrownBy row.getByName("b")
+    a[NotFoundException] should be thrownBy row.getByName("noSlot")
+  }
+
+  test("get by slot") {
+    val row = ArrayCypherRow.empty(slots)
+    row.set("a", BooleanValue.TRUE)
+    val otherSlots = VariableSlots(Seq("c", "a"))
+
+    row.getBySlot(slots, slots.offsetOf("a"), "a") should equal(BooleanValue.TRUE)
+    row.getBySlot(otherSlots, otherSlots.offsetOf("a"), "a") should equal(BooleanValue.TRUE)
+    a[NotFoundException] should be thrownBy row.getBySlot(slots, slots.offsetOf("b"), "b")
+  }
+
+  test("isNull") {
+    val row = ArrayCypherRow.empty(slots)
+    row.set("a", Values.NO_VALUE, "b", BooleanValue.TRUE)
+
+    row.isNull("a") shouldBe true
+    row.isNull("b") shouldBe false
+    row.isNull("c") shouldBe false
+  }
+
+  test("remove") {
+    val row = ArrayCypherRow.empty(slots)
+    row.set("a", BooleanValue.TRUE, "noSlot", BooleanValue.FALSE)
+
+    row.remove("a") should equal(Some(BooleanValue.TRUE))
+    row.remove("noSlot") should equal(Some(BooleanValue.FALSE))
+    row.remove("b") should equal(None)
+    row.numberOfColumns should equal(0)
+  }
+
+  test("create clone") {
+    // given
+    val key = cachedNodeProp("a", "prop")
+    val row = ArrayCypherRow.empty(slots)
+    row.set("a", BooleanValue.FALSE, "noSlot", BooleanValue.FALSE)
+    row.setCachedProperty(key, BooleanValue.FALSE)
+    row.setLinenumber("file", 3)
+
+    // when
+    val clone = row.createClone()
+    clone.set("a", BooleanValue.TRUE, "b", BooleanValue.TRUE, "noSlot", BooleanValue.TRUE)
+    clone.setCachedProperty(key, BooleanValue.TRUE)
+
+    // then
+    clone should not be theSameInstanceAs(row)
+    clone.getLinenumber should equal(row.getLinenumber)
+    row.toMap should equal(Map("a" -> BooleanValue.FALSE, "noSlot" -> BooleanValue.FALSE))
+    row.getCachedProperty(key) should equal(BooleanValue.FALSE)
+    clone.toMap should equal(Map("a" -> BooleanValue.TRUE, "b" -> BooleanValue.TRUE, "noSlot" -> BooleanValue.TRUE))
+    clone.getCachedProperty(key) should equal(BooleanValue.TRUE)
+  }
+
+  test("copyWith") {
+    val row = ArrayCypherRow.empty(slots)
+    row.set("a", BooleanValue.FALSE)
+
+    val copy = row.copyWith("b", BooleanValue.TRUE, "noSlot", BooleanValue.TRUE)
+
+    row.toMap should equal(Map("a" -> BooleanValue.FALSE))
+    copy.getByName("a") should equal(BooleanValue.FALSE)
+    copy.getByName("b") should equal(BooleanValue.TRUE)
+    copy.getByName("noSlot") should equal(BooleanValue.TRUE)
+  }
+
+  test("mergeWith - same layout") {
+    // given
+    val key = cachedNodeProp("a", "prop")
+    val lhs = ArrayCypherRow.empty(slots)
+    lhs.set("a", BooleanValue.FALSE, "b", BooleanValue.FALSE)
+    val rhs = ArrayCypherRow.empty(slots)
+    rhs.set("b", BooleanValue.TRUE, "c", BooleanValue.TRUE, "noSlot", BooleanValue.TRUE)
+    rhs.setCachedProperty(key, BooleanValue.TRUE)
+
+    // when
+    lhs.mergeWith(rhs, null)
+
+    // then (missing variables in rhs should not be removed)
+    lhs.toMap should equal(Map("a" -> BooleanValue.FALSE, "b" -> BooleanValue.TRUE, "c" -> BooleanValue.TRUE, "noSlot" -> BooleanValue.TRUE))
+    lhs.getCachedProperty(key) should equal(BooleanValue.TRUE)
+  }
+
+  test("mergeWith - map row") {
+    // given
+    val key = cachedNodeProp("a", "prop")
+    val lhs = ArrayCypherRow.empty(slots)
+    lhs.set("a", BooleanValue.FALSE)
+    val rhs = CypherRow.from("b" -> BooleanValue.TRUE, "noSlot" -> BooleanValue.TRUE)
+    rhs.setCachedProperty(key, BooleanValue.TRUE)
+
+    // when
+    lhs.mergeWith(rhs, null)
+
+    // then
+    lhs.toMap should equal(Map("a" -> BooleanValue.FALSE, "b" -> BooleanValue.TRUE, "noSlot" -> BooleanValue.TRUE))
+    lhs.getCachedProperty(key) should equal(BooleanValue.TRUE)
+  }
+
+  test("map row mergeWith array row") {
+    val lhs = CypherRow()
+    lhs.set("a", BooleanValue.FALSE)
+    val rhs = ArrayCypherRow.empty(slots)
+    rhs.set("b", BooleanValue.TRUE, "noSlot", BooleanValue.TRUE)
+
+    lhs.mergeWith(rhs, null)
+
+    lhs.toMap should equal(Map("a" -> BooleanValue.FALSE, "b" -> BooleanValue.TRUE, "noSlot" -> BooleanValue.TRUE))
+  }
+
+  test("factory should convert map rows to the layout") {
+    // given
+    val factory = ArrayCypherRowFactory(slots)
+    val mapRow = CypherRow.from("a" -> BooleanValue.TRUE, "noSlot" -> BooleanValue.TRUE)
+    mapRow.setLinenumber("file", 3)
+
+    // when
+    val copy = factory.copyWith(mapRow, "b", BooleanValue.FALSE)
+
+    // then
+    copy shouldBe an[ArrayCypherRow]
+    copy.getRefAt(slots.offsetOf("a")) should equal(BooleanValue.TRUE)
+    copy.getByName("b") should equal(BooleanValue.FALSE)
+    copy.getByName("noSlot") should equal(BooleanValue.TRUE)
+    copy.getLinenumber should equal(mapRow.getLinenumber)
+    mapRow.containsName("b") shouldBe false
+  }
+
+  test("should not consider nulled cached properties in estimatedHeapUsage") {
+    val row = ArrayCypherRow.empty(slots)
+    val node = VirtualValues.node(42)
+    row.set("a", node)
+    row.setCachedProperty(cachedNodeProp("a", "prop"), Values.stringValue("foo"))
+    row.invalidateCachedNodeProperties(42)
+
+    row.estimatedHeapUsage should be >= node.estimatedHeapUsage()
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted
+
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.VariableSlots
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.SlottedVariable
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Variable
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ArrayCypherRowFactory
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.CommunityCypherRowFactory
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.CypherRowFactory
+import org.neo4j.internal.helpers.Args
+import org.neo4j.values.storable.Values
+
+/**
+ * Compares the cost per produced row of an expand in the interpreted runtime with [[org.neo4j.cypher.internal.runtime.MapCypherRow]]s
+ * and with [[org.neo4j.cypher.internal.runtime.ArrayCypherRow]]s. Every input row binds the start node and some other columns, and is
+ * expanded into rows that also bind the relationship and the end node, the way `ExpandAllPipe` does it, after which the start and end
+ * node are read from each produced row, the way a following predicate or projection does it. Variables are read by name from map rows
+ * and by slot from array rows, the same as the pipes built by `InterpretedPipeMapper` do.
+ *
+ * Options, all optional:
+ *  - `--rows` the number of input rows in each round, defaults to `100000`
+ *  - `--fanout` the number of relationships expanded from every input row, defaults to `10`
+ *  - `--columns` the number of other columns bound in every input row, defaults to `4`
+ *  - `--rounds` the number of rounds for each kind of row, where the first round is warmup, defaults to `10`
+ */
+object ExpandRowBenchmark {
+
+  def main(arguments: Array[String]): Unit = {
+    val args = Args.parse(arguments: _*)
+    val rows = args.getNumber("rows", 100000).intValue()
+    val fanout = args.getNumber("fanout", 10).intValue()
+    val columns = args.getNumber("columns", 4).intValue()
+    val rounds = args.getNumber("rounds", 10).intValue()
+
+    val otherColumns = (0 until columns).map(i => s"c$i")
+    val slots = VariableSlots(otherColumns ++ Seq("a", "r", "b"))
+
+    for (array <- Seq(false, true)) {
+      val rowFactory = if (array) ArrayCypherRowFactory(slots) else CommunityCypherRowFactory()
+      val (start, end) =
+        if (array) (SlottedVariable(slots, slots.offsetOf("a"), "a"), SlottedVariable(slots, slots.offsetOf("b"), "b"))
+        else (Variable("a"), Variable("b"))
+      val input = (0 until rows).map { i =>
+        val row = rowFactory.newRow()
+        otherColumns.foreach(column => row.set(column, Values.longValue(i)))
+        row.set("a", Values.longValue(i))
+        row
+      }.toArray
+
+      for (round <- 0 until rounds) {
+        val startNanos = System.nanoTime()
+        val produced = expand(rowFactory, input, fanout, start, end)
+        val nanos = System.nanoTime() - startNanos
+        println(f"${if (array) "ArrayCypherRow" else "MapCypherRow"}${if (round == 0) " (warmup)" else ""}: " +
+          f"${nanos.toDouble / produced}%.1f ns/row")
+      }
+    }
+  }
+
+  private def expand(rowFactory: CypherRowFactory, input: Array[CypherRow], fanout: Int, start: Expression, end: Expression): Long = {
+    var produced = 0L
+    var sum = 0L
+    var i = 0
+    while (i < input.length) {
+      val row = input(i)
+      var relationship = 0
+      while (relationship < fanout) {
+        val expanded = rowFactory.copyWith(row, "r", Values.longValue(relationship), "b", Values.longValue(relationship))
+        sum += start(expanded, null).hashCode() + end(expanded, null).hashCode()
+        produced += 1
+        relationship += 1
+      }
+      i += 1
+    }
+    if (sum == 42) {
+      println("Unlikely sum " + sum)
+    }
+    produced
+  }
+}
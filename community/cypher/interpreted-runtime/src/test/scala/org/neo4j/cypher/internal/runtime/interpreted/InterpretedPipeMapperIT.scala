@@ -24,6 +24,7 @@ import org.mockito.Mockito.verify
 import org.mockito.Mockito.when
 import org.neo4j.cypher.internal.ast.AstConstructionTestSupport
 import org.neo4j.cypher.internal.ast.semantics.SemanticTable
+import org.neo4j.cypher.internal.expressions.Expression
 import org.neo4j.cypher.internal.expressions.SemanticDirection
 import org.neo4j.cypher.internal.ir.PatternRelationship
 import org.neo4j.cypher.internal.ir.SimplePatternLength
@@ -42,19 +43,25 @@ import org.neo4j.cypher.internal.logical.plans.NodeByLabelScan
 import org.neo4j.cypher.internal.logical.plans.NodeHashJoin
 import org.neo4j.cypher.internal.logical.plans.OptionalExpand
 import org.neo4j.cypher.internal.logical.plans.Projection
+import org.neo4j.cypher.internal.logical.plans.QualifiedName
+import org.neo4j.cypher.internal.logical.plans.ResolvedFunctionInvocation
 import org.neo4j.cypher.internal.logical.plans.UndirectedRelationshipByIdSeek
+import org.neo4j.cypher.internal.logical.plans.UserFunctionSignature
 import org.neo4j.cypher.internal.planner.spi.PlanContext
 import org.neo4j.cypher.internal.planner.spi.TokenContext
 import org.neo4j.cypher.internal.runtime.QueryIndexRegistrator
+import org.neo4j.cypher.internal.runtime.VariableSlots
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.CommunityExpressionConverter
 import org.neo4j.cypher.internal.runtime.interpreted.commands.convert.ExpressionConverters
 import org.neo4j.cypher.internal.runtime.interpreted.commands.values.KeyToken.Resolved
 import org.neo4j.cypher.internal.runtime.interpreted.commands.values.TokenType
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.AllNodesScanPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.ArgumentPipe
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ArrayCypherRowFactory
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.CartesianProductPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.DirectedRelationshipByIdSeekPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.EagerAggregationPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.ExpandAllPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.ExpandIntoPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.LazyLabel
@@ -63,6 +70,7 @@ import org.neo4j.cypher.internal.runtime.interpreted.pipes.NodeByIdSeekPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.NodeByLabelScanPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.NodeHashJoinPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.OptionalExpandIntoPipe
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.ParallelAggregationPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.Pipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.PipeTreeBuilder
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.ProjectionPipe
@@ -71,6 +79,7 @@ import org.neo4j.cypher.internal.runtime.interpreted.pipes.SingleSeekArg
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.UndirectedRelationshipByIdSeekPipe
 import org.neo4j.cypher.internal.util.RelTypeId
 import org.neo4j.cypher.internal.util.attribution.SequentialIdGen
+import org.neo4j.cypher.internal.util.symbols.CTAny
 import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
 import org.neo4j.values.storable.Values.intValue
 
@@ -231,4 +240,40 @@ class InterpretedPipeMapperIT extends CypherFunSuite with AstConstructionTestSup
         Array(DistinctPipe.GroupingCol("n.prop", commands.expressions.Property(commands.expressions.Variable("n"),
           Resolved("prop", token, TokenType.PropertyKey)))))())
   }
+
+  test("should read variables with a slot by offset when building pipes with array rows") {
+    // GIVEN
+    val slots = VariableSlots(Seq("a", "x"))
+    val arrayPipeMapper = InterpretedPipeMapper(readOnly = true, converters, planContext, mock[QueryIndexRegistrator],
+      rowFactory = ArrayCypherRowFactory(slots))(semanticTable)
+    val logicalPlan = Projection(AllNodesScan("a", Set.empty), Map("x" -> varFor("a"), "y" -> varFor("x"), "z" -> varFor("noSlot")))
+
+    // WHEN
+    val pipe = PipeTreeBuilder(arrayPipeMapper).build(logicalPlan)
+
+    // THEN
+    pipe should equal(ProjectionPipe(AllNodesScanPipe("a")(), Map(
+      "x" -> commands.expressions.SlottedVariable(slots, 0, "a"),
+      "y" -> commands.expressions.SlottedVariable(slots, 1, "x"),
+      "z" -> commands.expressions.Variable("noSlot"))))
+  }
+
+  test("should not aggregate in parallel over user-defined functions") {
+    // GIVEN
+    val parallelPipeMapper = InterpretedPipeMapper(readOnly = true, converters, planContext, mock[QueryIndexRegistrator],
+      parallelism = 4)(semanticTable)
+    val signature = UserFunctionSignature(QualifiedName(Seq("my"), "func"), IndexedSeq.empty, CTAny, None, Array.empty, None,
+      isAggregate = false, id = 0)
+    val function = ResolvedFunctionInvocation(QualifiedName(Seq("my"), "func"), Some(signature), IndexedSeq.empty)(pos)
+    def aggregation(projected: Expression) =
+      Aggregation(Projection(AllNodesScan("x", Set.empty), Map("y" -> projected)), Map.empty, Map("c" -> countStar()))
+
+    // WHEN
+    val withoutFunction = PipeTreeBuilder(parallelPipeMapper).build(aggregation(varFor("x")))
+    val withFunction = PipeTreeBuilder(parallelPipeMapper).build(aggregation(function))
+
+    // THEN
+    withoutFunction shouldBe a[ParallelAggregationPipe]
+    withFunction shouldBe an[EagerAggregationPipe]
+  }
 }
@@ -28,6 +28,7 @@ import org.neo4j.cypher.internal.runtime.InputDataStream
 import org.neo4j.cypher.internal.runtime.NoInput
 import org.neo4j.cypher.internal.runtime.NoOpQueryMemoryTracker
 import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.QueryMemoryTracker
 import org.neo4j.cypher.internal.runtime.ResourceManager
 import org.neo4j.cypher.internal.runtime.ResourceMonitor
 import org.neo4j.cypher.internal.runtime.interpreted.TransactionBoundQueryContext.IndexSearchMonitor
@@ -69,10 +70,12 @@ object QueryStateHelper extends MockitoSugar {
                 subscriber: QuerySubscriber = QuerySubscriber.DO_NOTHING_SUBSCRIBER,
                 decorator: PipeDecorator = NullPipeDecorator,
                 initialContext: Option[CypherRow] = None,
-                input: InputDataStream = NoInput
+                input: InputDataStream = NoInput,
+                memoryTracker: QueryMemoryTracker = NoOpQueryMemoryTracker,
+                operatorSpillThreshold: Long = 0L
                ):QueryState =
-    new QueryState(query, resources, params, expressionCursors, queryIndexes, expressionVariables, subscriber, NoOpQueryMemoryTracker,
-      decorator, initialContext = initialContext, input = input)
+    new QueryState(query, resources, params, expressionCursors, queryIndexes, expressionVariables, subscriber, memoryTracker,
+      decorator, initialContext = initialContext, input = input, operatorSpillThreshold = operatorSpillThreshold)
 
   def queryStateFrom(db: GraphDatabaseQueryService,
                      tx: InternalTransaction,
@@ -116,6 +119,14 @@ object QueryStateHelper extends MockitoSugar {
     emptyWith(query = context)
   }
 
+  def emptyWithSpilling(operatorSpillThreshold: Long,
+                        memoryTracker: QueryMemoryTracker = NoOpQueryMemoryTracker,
+                        resourceManager: ResourceManager = new ResourceManager): QueryState = {
+    val context = mock[QueryContext](Mockito.RETURNS_DEEP_STUBS)
+    Mockito.when(context.resources).thenReturn(resourceManager)
+    emptyWith(query = context, memoryTracker = memoryTracker, operatorSpillThreshold = operatorSpillThreshold)
+  }
+
   class TrackClosedMonitor extends ResourceMonitor {
     private val _closedResources = new ArrayBuffer[AutoCloseablePlus]()
     override def trace(resource: AutoCloseablePlus): Unit = ()
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
+import org.mockito.Mockito.RETURNS_MOCKS
+import org.mockito.Mockito.when
+import org.neo4j.cypher.internal.runtime.ClosingIterator
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.QueryTransactionalContext
+import org.neo4j.cypher.internal.runtime.ResourceManager
+import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.CountStar
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation.NonGroupingAggTable
+import org.neo4j.cypher.internal.util.attribution.Id
+import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.internal.kernel.api.CursorFactory
+import org.neo4j.internal.kernel.api.Read
+import org.neo4j.scheduler.CallableExecutor
+import org.neo4j.values.storable.Values.longValue
+import org.neo4j.values.virtual.NodeValue
+
+class ParallelAggregationPipeTest extends CypherFunSuite {
+
+  private val parallelism = 4
+  private val rowsPerWorker = 10
+
+  test("should aggregate on more than one thread") {
+    // given
+    val pool = Executors.newFixedThreadPool(parallelism - 1)
+    try {
+      val executor = new CallableExecutor {
+        override def submit[T](callable: Callable[T]): Future[T] = pool.submit(callable)
+        override def execute(command: Runnable): Unit = pool.execute(command)
+      }
+      val threads = ConcurrentHashMap.newKeySet[Thread]()
+      val scan = new ThreadRecordingScanPipe(threads)
+      val aggregations = Array(AggregationPipe.AggregatingCol("c", CountStar()))
+      val pipe = ParallelAggregationPipe(scan, scan, Array.empty, aggregations, NonGroupingAggTable.Factory(aggregations), parallelism)()
+
+      // when
+      val result = pipe.createResults(QueryStateHelper.emptyWith(query = queryContext(executor))).toList
+
+      // then
+      result.map(_.getByName("c")) should equal(List(longValue(parallelism * rowsPerWorker)))
+      threads.size() should be > 1
+    } finally {
+      pool.shutdown()
+    }
+  }
+
+  private def queryContext(executor: CallableExecutor): QueryContext = {
+    val transactionalContext = mock[QueryTransactionalContext]
+    when(transactionalContext.dataRead).thenReturn(mock[Read])
+    when(transactionalContext.workerExecutor).thenReturn(executor)
+    when(transactionalContext.cursors).thenReturn(mock[CursorFactory](RETURNS_MOCKS))
+    val query = mock[QueryContext]
+    when(query.transactionalContext).thenReturn(transactionalContext)
+    when(query.resources).thenAnswer(_ => new ResourceManager)
+    when(query.createParallelQueryContext()).thenReturn(query)
+    query
+  }
+
+  /**
+   * Produces the same rows for every worker, and records the threads that the workers run on.
+   */
+  private class ThreadRecordingScanPipe(threads: java.util.Set[Thread]) extends PartitionedScanPipe {
+
+    override def partitionedScan(state: QueryState): Option[PartitionedScan] = Some(new PartitionedScan(id) {
+      override def nodes(query: QueryContext): ClosingIterator[NodeValue] = ClosingIterator.empty
+    })
+
+    override protected def internalCreateResults(state: QueryState): ClosingIterator[CypherRow] =
+      if (state.partitionedScanOf(id).isEmpty) {
+        ClosingIterator.empty
+      } else {
+        threads.add(Thread.currentThread())
+        ClosingIterator((0 until rowsPerWorker).iterator.map(_ => CypherRow.empty))
+      }
+
+    override val id: Id = Id(0)
+  }
+}
@@ -20,17 +20,24 @@
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
 import org.junit.Assert.assertEquals
+import org.neo4j.cypher.internal.runtime.BoundedQueryMemoryTracker
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.ResourceManager
 import org.neo4j.cypher.internal.runtime.interpreted.Ascending
 import org.neo4j.cypher.internal.runtime.interpreted.Descending
 import org.neo4j.cypher.internal.runtime.interpreted.InterpretedExecutionContextOrdering
 import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
 import org.neo4j.cypher.internal.runtime.interpreted.ValueComparisonHelper.beEquivalentTo
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.SpillFiles
+import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.memory.EmptyMemoryTracker
 import org.neo4j.values.storable.Values
 import org.neo4j.values.storable.Values.intValue
 import org.scalatest.mockito.MockitoSugar
 
 import scala.collection.mutable
+import scala.util.Random
 
 class SortPipeTest extends CypherFunSuite with MockitoSugar {
 
@@ -91,4 +98,44 @@ class SortPipeTest extends CypherFunSuite with MockitoSugar {
       Map("y" -> intValue(2)),
       Map("y" -> Values.NO_VALUE)))
   }
+
+  test("should sort rows spilled to disk") {
+    val values = new Random(1337).shuffle((0 until 1000).toList)
+    val source = new FakePipe(values.map(i => Map[String, Any]("x" -> i, "y" -> s"value $i")))
+    val sortPipe = SortPipe(source, InterpretedExecutionContextOrdering.asComparator(List(Ascending("x"))))(Id(1))
+    val memoryTracker = BoundedQueryMemoryTracker(EmptyMemoryTracker.INSTANCE)
+
+    // every row is written as a run of its own, which makes the sort merge runs before the final merge
+    val result = sortPipe.createResults(QueryStateHelper.emptyWithSpilling(operatorSpillThreshold = 1, memoryTracker)).toList
+
+    result.map(_.getByName("x")) should equal((0 until 1000).map(intValue))
+    result.map(_.getByName("y")) should equal((0 until 1000).map(i => Values.stringValue(s"value $i")))
+    memoryTracker.spillRunsOfOperator(1) should be(1000L)
+    memoryTracker.spilledBytesOfOperator(1) should be > 0L
+  }
+
+  test("should keep the order of equal rows when spilling to disk") {
+    val list: Seq[mutable.Map[String, Any]] = (0 until 100).map(i => mutable.Map[String, Any]("x" -> i % 3, "y" -> i))
+    val source = new FakePipe(list)
+    val sortPipe = SortPipe(source, InterpretedExecutionContextOrdering.asComparator(List(Ascending("x"))))(Id(1))
+    val rowSize = CypherRow.from("x" -> intValue(0), "y" -> intValue(0)).estimatedHeapUsage()
+
+    val result = sortPipe.createResults(QueryStateHelper.emptyWithSpilling(operatorSpillThreshold = rowSize * 7)).toList
+
+    result.map(_.getByName("y")) should equal((0 until 100).sortBy(_ % 3).map(intValue))
+  }
+
+  test("should close spill files when closed before exhausted") {
+    val monitor = QueryStateHelper.trackClosedMonitor
+    val resourceManager = new ResourceManager(monitor)
+    val source = new FakePipe((0 until 10).map(i => Map("x" -> i)))
+    val sortPipe = SortPipe(source, InterpretedExecutionContextOrdering.asComparator(List(Descending("x"))))(Id(1))
+
+    val result = sortPipe.createResults(QueryStateHelper.emptyWithSpilling(operatorSpillThreshold = 1, resourceManager = resourceManager))
+    result.next().getByName("x") should equal(intValue(9))
+    result.close()
+
+    source.wasClosed shouldBe true
+    monitor.closedResources.collect { case files: SpillFiles => files } should have size 1
+  }
 }
@@ -20,14 +20,18 @@
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
 import org.neo4j.cypher.internal.collection.DefaultComparatorTopTable
+import org.neo4j.cypher.internal.runtime.BoundedQueryMemoryTracker
 import org.neo4j.cypher.internal.runtime.ResourceManager
 import org.neo4j.cypher.internal.runtime.interpreted.Ascending
 import org.neo4j.cypher.internal.runtime.interpreted.Descending
 import org.neo4j.cypher.internal.runtime.interpreted.InterpretedExecutionContextOrdering
 import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
 import org.neo4j.cypher.internal.runtime.interpreted.commands.LiteralHelper.literal
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.SpillFiles
+import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
 import org.neo4j.kernel.impl.util.ValueUtils
+import org.neo4j.memory.EmptyMemoryTracker
 
 import scala.util.Random
 
@@ -146,6 +150,30 @@ class TopNPipeTest extends CypherFunSuite {
     monitor.closedResources.collect { case t: DefaultComparatorTopTable[_] => t } should have size(1)
   }
 
+  test("should return top rows spilled to disk") {
+    val input = createFakePipeWith(1000)
+    val pipe = TopNPipe(input, literal(100), InterpretedExecutionContextOrdering.asComparator(List(Descending("a"))))(Id(1))
+    val memoryTracker = BoundedQueryMemoryTracker(EmptyMemoryTracker.INSTANCE)
+    val state = QueryStateHelper.emptyWithSpilling(operatorSpillThreshold = 1, memoryTracker)
+
+    val result = pipe.createResults(state).map(ctx => ctx.getByName("a")).toList
+
+    result should equal(list(999 to 900 by -1: _*))
+    memoryTracker.spillRunsOfOperator(1) should be > 0L
+  }
+
+  test("exhaust should close spill files") {
+    val monitor = QueryStateHelper.trackClosedMonitor
+    val resourceManager = new ResourceManager(monitor)
+    val input = createFakePipeWith(10)
+    val pipe = TopNPipe(input, literal(5), InterpretedExecutionContextOrdering.asComparator(List(Ascending("a"))))(Id(1))
+    val state = QueryStateHelper.emptyWithSpilling(operatorSpillThreshold = 1, resourceManager = resourceManager)
+
+    pipe.createResults(state).map(ctx => ctx.getByName("a")).toList should equal(list(0, 1, 2, 3, 4))
+    input.wasClosed shouldBe true
+    monitor.closedResources.collect { case files: SpillFiles => files } should have size 1
+  }
+
   private def list(a: Any*) = a.map(ValueUtils.of).toList
 
   private def createFakePipeWith(count: Int): FakePipe = {
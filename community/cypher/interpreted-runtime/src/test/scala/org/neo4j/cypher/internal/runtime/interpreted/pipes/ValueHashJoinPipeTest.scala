@@ -23,6 +23,7 @@ import org.mockito.ArgumentMatchers.any
 import org.mockito.Mockito.never
 import org.mockito.Mockito.verify
 import org.mockito.Mockito.when
+import org.neo4j.cypher.internal.runtime.BoundedQueryMemoryTracker
 import org.neo4j.cypher.internal.runtime.ClosingIterator
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.ImplicitValueConversion.toIntValue
@@ -32,13 +33,20 @@ import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
 import org.neo4j.cypher.internal.runtime.interpreted.TestableIterator
 import org.neo4j.cypher.internal.runtime.interpreted.ValueComparisonHelper.beEquivalentTo
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Variable
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.SpillFiles
+import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
 import org.neo4j.kernel.impl.util.collection
+import org.neo4j.memory.EmptyMemoryTracker
+import org.neo4j.memory.OptionalMemoryTracker
 import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.NumberValue
 import org.neo4j.values.storable.Values.doubleArray
 import org.neo4j.values.storable.Values.intArray
 import org.neo4j.values.storable.Values.intValue
 
+import scala.util.Random
+
 class ValueHashJoinPipeTest extends CypherFunSuite {
 
 
@@ -219,8 +227,62 @@ class ValueHashJoinPipeTest extends CypherFunSuite {
     monitor.closedResources.collect { case t: collection.ProbeTable[_, _] => t } should have size(1)
   }
 
+  test("should join rows spilled to disk in the order of the right-hand side") {
+    // given
+    val random = new Random(1337)
+    val lhs = (0 until 1000).map(i => Map[String, Any]("a" -> random.nextInt(300), "x" -> i))
+    val rhs = (0 until 1000).map(i => Map[String, Any]("b" -> random.nextInt(300), "y" -> i))
+    def join(state: QueryState) =
+      ValueHashJoinPipe(Variable("a"), Variable("b"), new FakePipe(lhs), new FakePipe(rhs))(Id(1)).createResults(state).map(row => (number(row, "x"), number(row, "y"))).toList
+    val memoryTracker = BoundedQueryMemoryTracker(EmptyMemoryTracker.INSTANCE)
+
+    // when
+    val result = join(QueryStateHelper.emptyWithSpilling(operatorSpillThreshold = 1, memoryTracker))
+
+    // then
+    result should equal(join(QueryStateHelper.emptyWithResourceManager(new ResourceManager)))
+    result.map(_._2) shouldBe sorted
+    memoryTracker.spillRunsOfOperator(1) should be > 0L
+    memoryTracker.spilledBytesOfOperator(1) should be > 0L
+  }
+
+  test("should not spill rows that fit below the threshold") {
+    // given
+    val memoryTracker = BoundedQueryMemoryTracker(EmptyMemoryTracker.INSTANCE)
+    val left = new FakePipe(Seq(Map("a"->1),Map("a"->2)))
+    val right = new FakePipe(Seq(Map("b"->2),Map("b"->1)))
+
+    // when
+    val result = ValueHashJoinPipe(Variable("a"), Variable("b"), left, right)(Id(1))
+      .createResults(QueryStateHelper.emptyWithSpilling(operatorSpillThreshold = 1024 * 1024, memoryTracker)).toList
+
+    // then
+    result should beEquivalentTo(List(Map("a" -> 2, "b" -> 2), Map("a" -> 1, "b" -> 1)))
+    memoryTracker.spillRunsOfOperator(1) should be(OptionalMemoryTracker.ALLOCATIONS_NOT_TRACKED)
+  }
+
+  test("close should close spill files") {
+    // given
+    val monitor = QueryStateHelper.trackClosedMonitor
+    val queryState = QueryStateHelper.emptyWithSpilling(operatorSpillThreshold = 1, resourceManager = new ResourceManager(monitor))
+
+    val left = new FakePipe((0 until 10).map(i => Map("a" -> i)))
+    val right = new FakePipe((0 until 10).map(i => Map("b" -> i)))
+
+    // when
+    val result = ValueHashJoinPipe(Variable("a"), Variable("b"), left, right)().createResults(queryState)
+    result.next()
+    result.close()
+
+    // then
+    monitor.closedResources.collect { case files: SpillFiles => files } should not be empty
+    monitor.closedResources.collect { case t: collection.ProbeTable[_, _] => t } should not be empty
+  }
+
   private def row(values: (String, AnyValue)*) = CypherRow.from(values: _*)
 
+  private def number(row: CypherRow, variable: String): Long = row.getByName(variable).asInstanceOf[NumberValue].longValue()
+
   private def rows(variable: String, values: AnyValue*): ClosingIterator[CypherRow] =
     ClosingIterator(values.map(x => CypherRow.from(variable -> x)).iterator)
 
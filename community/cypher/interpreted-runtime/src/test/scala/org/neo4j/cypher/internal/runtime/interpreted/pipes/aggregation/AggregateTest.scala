@@ -35,4 +35,19 @@ trait AggregateTest {
     values.foreach(value => func(CypherRow.from("x" -> value), state))
     func.result(state)
   }
+
+  /**
+   * Aggregates each part with a function of its own, and merges their partial states into one function.
+   */
+  def aggregateInPartsOn(parts: Seq[AnyValue]*): Any = {
+    val state = QueryStateHelper.empty
+
+    val func = createAggregator(Variable("x")).asInstanceOf[SpillableAggregationFunction]
+    parts.foreach(part => {
+      val partFunc = createAggregator(Variable("x")).asInstanceOf[SpillableAggregationFunction]
+      part.foreach(value => partFunc(CypherRow.from("x" -> value), state))
+      func.mergePartialState(partFunc.partialState)
+    })
+    func.result(state)
+  }
 }
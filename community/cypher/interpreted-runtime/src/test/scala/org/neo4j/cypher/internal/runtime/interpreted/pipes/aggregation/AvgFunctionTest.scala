@@ -107,4 +107,24 @@ class AvgFunctionTest extends CypherFunSuite with AggregateTest {
 
     result should equal(NO_VALUE)
   }
+
+  test("merge partial averages of numbers") {
+    val result = aggregateInPartsOn(Seq(intValue(1), intValue(2), intValue(3)), Seq(), Seq(NO_VALUE, intValue(10)))
+
+    result should equal(doubleValue(4.0))
+  }
+
+  test("merge partial averages of durations") {
+    val durationValue = DurationValue.duration(0, 3, 0, 1)
+    val durationValue2 = DurationValue.duration(0, 2, 2, 1)
+    val result = aggregateInPartsOn(Seq(durationValue), Seq(durationValue2))
+
+    result should equal(aggregateOn(durationValue, durationValue2))
+  }
+
+  test("merging partial averages of numbers and durations should fail") {
+    a[CypherTypeException] shouldBe thrownBy {
+      aggregateInPartsOn(Seq(DurationValue.duration(0, 0, 0, 1)), Seq(longValue(1)))
+    }
+  }
 }
@@ -46,4 +46,8 @@ class CollectAllFunctionTest extends CypherFunSuite with AggregateTest {
   test("collect multiple values") {
     aggregateOn(intValue(1), NO_VALUE, intValue(2)) should equal(list(intValue(1), NO_VALUE, intValue(2)))
   }
+
+  test("merge partial collections") {
+    aggregateInPartsOn(Seq(intValue(1), NO_VALUE), Seq(), Seq(intValue(2))) should equal(list(intValue(1), NO_VALUE, intValue(2)))
+  }
 }
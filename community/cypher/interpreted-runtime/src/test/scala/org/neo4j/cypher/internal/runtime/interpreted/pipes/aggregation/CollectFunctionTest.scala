@@ -42,4 +42,8 @@ class CollectFunctionTest extends CypherFunSuite with AggregateTest {
   test("doesnt_collect_null_values") {
     aggregateOn(NO_VALUE) should equal(EMPTY_LIST)
   }
+
+  test("merge partial collections") {
+    aggregateInPartsOn(Seq(intValue(1), NO_VALUE), Seq(), Seq(intValue(2))) should equal(list(intValue(1), intValue(2)))
+  }
 }
@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
 
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
 import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.values.AnyValue
 import org.neo4j.values.storable.LongValue
 import org.neo4j.values.storable.Values.NO_VALUE
 import org.neo4j.values.storable.Values.intValue
@@ -35,4 +36,11 @@ class CountFunctionTest extends CypherFunSuite with AggregateTest {
     result should equal(intValue(2))
     result shouldBe a [LongValue]
   }
+
+  test("merge partial counts") {
+    val result = aggregateInPartsOn(Seq(intValue(1), NO_VALUE), Seq(), Seq[AnyValue](stringValue("foo"), intValue(2)))
+
+    result should equal(intValue(3))
+    result shouldBe a [LongValue]
+  }
 }
@@ -19,18 +19,26 @@
  */
 package org.neo4j.cypher.internal.runtime.interpreted.pipes.aggregation
 
+import org.neo4j.cypher.internal.runtime.BoundedQueryMemoryTracker
 import org.neo4j.cypher.internal.runtime.CypherRow
 import org.neo4j.cypher.internal.runtime.ResourceManager
 import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Collect
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.CountStar
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Literal
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.PercentileDisc
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Sum
 import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Variable
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.AggregationPipe
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.CommunityCypherRowFactory
 import org.neo4j.cypher.internal.runtime.interpreted.pipes.DistinctPipe
+import org.neo4j.cypher.internal.runtime.interpreted.pipes.spill.SpillFiles
 import org.neo4j.cypher.internal.util.attribution.Id
 import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
 import org.neo4j.kernel.impl.util.collection.HeapTrackingOrderedAppendMap
+import org.neo4j.memory.EmptyMemoryTracker
 import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.VirtualValues
 
 class GroupingAggTableTest extends CypherFunSuite {
 
@@ -59,4 +67,60 @@ class GroupingAggTableTest extends CypherFunSuite {
     // then
     monitor.closedResources.collect { case t: HeapTrackingOrderedAppendMap[_, _] => t } should have size 1
   }
+
+  test("should aggregate groups spilled to disk") {
+    val memoryTracker = BoundedQueryMemoryTracker(EmptyMemoryTracker.INSTANCE)
+    // every row makes the groups exceed the threshold, so partitions are spilled again at every level
+    val state = QueryStateHelper.emptyWithSpilling(operatorSpillThreshold = 1, memoryTracker)
+    val table = factory(Array(
+      AggregationPipe.AggregatingCol("c", CountStar()),
+      AggregationPipe.AggregatingCol("s", Sum(Variable("x"))),
+      AggregationPipe.AggregatingCol("l", Collect(Variable("x"))))).table(state, CommunityCypherRowFactory(), Id(0))
+    table shouldBe a[SpillingGroupingAggTable]
+    table.clear()
+
+    for (x <- 0 until 300) {
+      table.processRow(CypherRow.from("a" -> Values.intValue(x % 100), "x" -> Values.intValue(x)))
+    }
+    val result = table.result().map(row => row.getByName("a") -> (row.getByName("c"), row.getByName("s"), row.getByName("l"))).toMap
+
+    result should equal((0 until 100).map(a => Values.intValue(a) ->
+      (Values.longValue(3), Values.longValue(3 * a + 300), VirtualValues.list(Values.intValue(a), Values.intValue(a + 100), Values.intValue(a + 200)))).toMap)
+    memoryTracker.spillRunsOfOperator(0) should be > 0L
+    memoryTracker.spilledBytesOfOperator(0) should be > 0L
+  }
+
+  test("should not spill aggregation functions that cannot merge partial states") {
+    val state = QueryStateHelper.emptyWithSpilling(operatorSpillThreshold = 1)
+    val table = factory(Array(
+      AggregationPipe.AggregatingCol("c", CountStar()),
+      AggregationPipe.AggregatingCol("p", PercentileDisc(Variable("x"), Literal(Values.doubleValue(0.5)))))).table(state, CommunityCypherRowFactory(), Id(0))
+
+    table shouldBe a[GroupingAggTable]
+  }
+
+  test("close should close spill files") {
+    // given
+    val monitor = QueryStateHelper.trackClosedMonitor
+    val resourceManager = new ResourceManager(monitor)
+    val state = QueryStateHelper.emptyWithSpilling(operatorSpillThreshold = 1, resourceManager = resourceManager)
+    val table = factory(Array(AggregationPipe.AggregatingCol("c", CountStar()))).table(state, CommunityCypherRowFactory(), Id(0))
+    table.clear()
+
+    table.processRow(CypherRow.from("a" -> Values.intValue(1)))
+    table.processRow(CypherRow.from("a" -> Values.intValue(1)))
+    table.processRow(CypherRow.from("a" -> Values.intValue(2)))
+    table.processRow(CypherRow.from("a" -> Values.intValue(2)))
+
+    // when
+    val iter = table.result()
+    iter.next()
+    iter.close()
+
+    // then
+    monitor.closedResources.collect { case files: SpillFiles => files } should have size 1
+  }
+
+  private def factory(aggregations: Array[AggregationPipe.AggregatingCol]): GroupingAggTable.Factory =
+    GroupingAggTable.Factory(Array(DistinctPipe.GroupingCol("a", Variable("a"))), { case (row, _) => row.getByName("a")}, aggregations)
 }
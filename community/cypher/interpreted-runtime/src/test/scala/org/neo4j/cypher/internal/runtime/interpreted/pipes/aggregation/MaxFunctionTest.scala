@@ -76,4 +76,10 @@ class MaxFunctionTest extends CypherFunSuite with AggregateTest {
 
     result should equal(stringValue("abc1"))
   }
+
+  test("merge partial maxima") {
+    val result = aggregateInPartsOn(Seq(intValue(1), Values.NO_VALUE), Seq(), Seq(doubleValue(2.0d), intValue(0)))
+
+    result should equal(doubleValue(2.0))
+  }
 }
@@ -77,5 +77,11 @@ class MinFunctionTest extends CypherFunSuite with AggregateTest {
     result should equal(stringValue("a"))
   }
 
+  test("merge partial minima") {
+    val result = aggregateInPartsOn(Seq(intValue(1), Values.NO_VALUE), Seq(), Seq(doubleValue(0.5d), intValue(3)))
+
+    result should equal(doubleValue(0.5))
+  }
+
   def createAggregator(inner: Expression) = new MinFunction(inner)
 }
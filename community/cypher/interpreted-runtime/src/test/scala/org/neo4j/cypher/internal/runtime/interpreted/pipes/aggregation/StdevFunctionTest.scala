@@ -42,6 +42,21 @@ trait StdevTest {
       case _ => -99.0
     }
   }
+
+  def getStdevInParts(parts: List[Any]*): Double = {
+    val func = createAggregator(Variable("x")).asInstanceOf[SpillableAggregationFunction]
+    parts.foreach(values => {
+      val partFunc = createAggregator(Variable("x")).asInstanceOf[SpillableAggregationFunction]
+      values.foreach(value => {
+        partFunc(CypherRow.from("x" -> ValueUtils.of(value)), QueryStateHelper.empty)
+      })
+      func.mergePartialState(partFunc.partialState)
+    })
+    func.result(state) match {
+      case x: DoubleValue => x.doubleValue()
+      case _ => -99.0
+    }
+  }
 }
 
 class StdevSampleTest extends CypherFunSuite with StdevTest {
@@ -81,6 +96,10 @@ class StdevSampleTest extends CypherFunSuite with StdevTest {
     val values = List(1, 2, 3, 4, 5, 6, 7)
     getStdev(values) should equal(2.16024689947 +- 0.000001)
   }
+
+  test("merge partial statistics") {
+    getStdevInParts(List(1, 2), List(), List(3, 4, 5)) should equal(1.58113883008 +- 0.000001)
+  }
 }
 
 class StdevPopulationTest extends CypherFunSuite with StdevTest {
@@ -120,4 +139,8 @@ class StdevPopulationTest extends CypherFunSuite with StdevTest {
     val values = List(1, 2, 3, 4, 5, 6, 7)
     getStdev(values) should equal(2.0 +- 0.000001)
   }
+
+  test("merge partial statistics") {
+    getStdevInParts(List(1, 2), List(), List(3, 4, 5)) should equal(1.41421356237 +- 0.000001)
+  }
 }
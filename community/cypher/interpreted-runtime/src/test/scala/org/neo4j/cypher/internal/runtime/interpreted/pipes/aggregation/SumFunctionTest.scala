@@ -126,4 +126,23 @@ class SumFunctionTest extends CypherFunSuite with AggregateTest {
     result should equal(longValue(expected))
     result shouldBe a [LongValue]
   }
+
+  test("merge partial sums of numbers") {
+    val result = aggregateInPartsOn(Seq(intValue(1), NO_VALUE), Seq(), Seq(longValue(2), intValue(3)))
+
+    result should equal(longValue(6))
+    result shouldBe a [LongValue]
+  }
+
+  test("merge partial sums of durations") {
+    val result = aggregateInPartsOn(Seq(DurationValue.duration(0, 0, 0, 1)), Seq(DurationValue.duration(0, 0, 1, 1)))
+
+    result should equal(DurationValue.duration(0, 0, 1, 2))
+  }
+
+  test("merging partial sums of numbers and durations should fail") {
+    a[CypherTypeException] shouldBe thrownBy {
+      aggregateInPartsOn(Seq(intValue(1)), Seq(DurationValue.duration(0, 0, 0, 1)))
+    }
+  }
 }
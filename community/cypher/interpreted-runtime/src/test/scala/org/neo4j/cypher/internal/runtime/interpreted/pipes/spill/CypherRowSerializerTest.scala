@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes.spill
+
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.time.LocalTime
+import java.time.OffsetTime
+import java.time.ZoneId
+import java.time.ZoneOffset
+import java.time.ZonedDateTime
+
+import org.neo4j.cypher.internal.expressions.CachedProperty
+import org.neo4j.cypher.internal.expressions.NODE_TYPE
+import org.neo4j.cypher.internal.expressions.PropertyKeyName
+import org.neo4j.cypher.internal.expressions.Variable
+import org.neo4j.cypher.internal.runtime.CypherRow
+import org.neo4j.cypher.internal.runtime.EntityById
+import org.neo4j.cypher.internal.runtime.ResourceLinenumber
+import org.neo4j.cypher.internal.util.InputPosition
+import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.CoordinateReferenceSystem
+import org.neo4j.values.storable.DateTimeValue
+import org.neo4j.values.storable.DateValue
+import org.neo4j.values.storable.DurationValue
+import org.neo4j.values.storable.LocalDateTimeValue
+import org.neo4j.values.storable.LocalTimeValue
+import org.neo4j.values.storable.PointValue
+import org.neo4j.values.storable.TimeValue
+import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.ListValue
+import org.neo4j.values.virtual.NodeValue
+import org.neo4j.values.virtual.RelationshipValue
+import org.neo4j.values.virtual.VirtualValues
+
+class CypherRowSerializerTest extends CypherFunSuite {
+
+  private val entityById = new EntityById {
+    override def nodeById(id: Long): NodeValue = VirtualValues.nodeValue(id, Values.stringArray("L"), VirtualValues.EMPTY_MAP)
+
+    override def relationshipById(id: Long): RelationshipValue =
+      VirtualValues.relationshipValue(id, nodeById(0), nodeById(1), Values.stringValue("R"), VirtualValues.EMPTY_MAP)
+
+    override def relationshipById(id: Long, startNode: Long, endNode: Long, `type`: Int): RelationshipValue = relationshipById(id)
+  }
+
+  private val point = Values.pointValue(CoordinateReferenceSystem.Cartesian, 1.0, 2.0)
+  private val point3D = Values.pointValue(CoordinateReferenceSystem.WGS84_3D, 12.5, 56.1, 100.0)
+  private val date = LocalDate.of(2020, 2, 29)
+  private val localTime = LocalTime.of(12, 30, 15, 123456789)
+  private val time = OffsetTime.of(localTime, ZoneOffset.ofHours(2))
+  private val localDateTime = LocalDateTime.of(date, localTime)
+  private val dateTimeWithOffset = ZonedDateTime.of(localDateTime, ZoneOffset.ofHoursMinutes(-5, -30))
+  private val dateTimeWithZone = ZonedDateTime.of(localDateTime, ZoneId.of("Europe/Stockholm"))
+  private val duration = DurationValue.duration(14, 3, 3600, 500)
+
+  test("should round trip values") {
+    val values: Seq[AnyValue] = Seq(
+      Values.NO_VALUE,
+      Values.booleanValue(true),
+      Values.byteValue(7),
+      Values.shortValue(-300),
+      Values.intValue(100000),
+      Values.longValue(Long.MinValue),
+      Values.floatValue(1.5f),
+      Values.doubleValue(Math.PI),
+      Values.stringValue("hello"),
+      Values.utf8Value("åäö ☃".getBytes("UTF-8")),
+      Values.charValue('x'),
+      point,
+      point3D,
+      duration,
+      DateValue.date(date),
+      LocalTimeValue.localTime(localTime),
+      TimeValue.time(time),
+      LocalDateTimeValue.localDateTime(localDateTime),
+      DateTimeValue.datetime(dateTimeWithOffset),
+      DateTimeValue.datetime(dateTimeWithZone))
+
+    values.foreach(value => roundTrip(value) should equal(value))
+  }
+
+  test("should round trip arrays") {
+    val values: Seq[AnyValue] = Seq(
+      Values.byteArray(Array[Byte](1, 2, 3)),
+      Values.shortArray(Array[Short](1, 2, 3)),
+      Values.intArray(Array(1, 2, 3)),
+      Values.longArray(Array(1L, 2L, 3L)),
+      Values.floatArray(Array(1.0f, 2.0f)),
+      Values.doubleArray(Array(1.0, 2.0)),
+      Values.booleanArray(Array(true, false)),
+      Values.charArray(Array('a', 'b')),
+      Values.stringArray("a", "b", ""),
+      Values.pointArray(Array[PointValue](point, point)),
+      Values.dateArray(Array(date)),
+      Values.localTimeArray(Array(localTime)),
+      Values.timeArray(Array(time)),
+      Values.localDateTimeArray(Array(localDateTime)),
+      Values.dateTimeArray(Array(dateTimeWithOffset, dateTimeWithZone)),
+      Values.durationArray(Array(duration)),
+      Values.intArray(Array.empty))
+
+    values.foreach(value => roundTrip(value) should equal(value))
+  }
+
+  test("should round trip entities and collections") {
+    val node = entityById.nodeById(1)
+    val relationship = entityById.relationshipById(2)
+    val values: Seq[AnyValue] = Seq(
+      node,
+      relationship,
+      VirtualValues.path(Array(entityById.nodeById(0), entityById.nodeById(1)), Array(relationship)),
+      VirtualValues.list(Values.intValue(1), Values.stringValue("a"), VirtualValues.list(node, Values.NO_VALUE)),
+      VirtualValues.map(Array("a", "b"), Array(Values.intValue(1), VirtualValues.list(relationship))),
+      VirtualValues.EMPTY_LIST,
+      VirtualValues.EMPTY_MAP)
+
+    values.foreach(value => roundTrip(value) should equal(value))
+  }
+
+  test("should round trip virtual entities by value") {
+    val storedNodesOnly = new EntityById {
+      override def nodeById(id: Long): NodeValue = {
+        id should be >= 0L
+        entityById.nodeById(id)
+      }
+
+      override def relationshipById(id: Long): RelationshipValue = {
+        id should be >= 0L
+        entityById.relationshipById(id)
+      }
+
+      override def relationshipById(id: Long, startNode: Long, endNode: Long, `type`: Int): RelationshipValue = relationshipById(id)
+    }
+    val virtualNode = VirtualValues.nodeValue(-1, Values.stringArray("V"), VirtualValues.map(Array("p"), Array(Values.intValue(1))))
+    val virtualRelationship = VirtualValues.relationshipValue(-2, virtualNode, entityById.nodeById(3), Values.stringValue("VR"),
+      VirtualValues.map(Array("q"), Array(Values.stringValue("a"))))
+    val path = VirtualValues.path(Array(virtualNode, entityById.nodeById(3)), Array(virtualRelationship))
+    val serializer = new CypherRowSerializer(storedNodesOnly)
+
+    val Seq(row) = readBack(serializer, Seq(CypherRow.from("n" -> virtualNode, "r" -> VirtualValues.list(virtualRelationship), "p" -> path)))
+
+    val readNode = row.getByName("n").asInstanceOf[NodeValue]
+    readNode should equal(virtualNode)
+    readNode.labels() should equal(virtualNode.labels())
+    readNode.properties() should equal(virtualNode.properties())
+    val readRelationship = row.getByName("r").asInstanceOf[ListValue].head().asInstanceOf[RelationshipValue]
+    readRelationship should equal(virtualRelationship)
+    readRelationship.`type`() should equal(virtualRelationship.`type`())
+    readRelationship.properties() should equal(virtualRelationship.properties())
+    readRelationship.startNode().labels() should equal(virtualNode.labels())
+    row.getByName("p") should equal(path)
+  }
+
+  test("should round trip cached properties and line numbers") {
+    val serializer = new CypherRowSerializer(entityById)
+    val row = CypherRow.from("a" -> Values.intValue(1), "b" -> Values.stringValue("b"))
+    row.setCachedProperty(cachedProperty("a", "x"), Values.intValue(10))
+    row.setCachedProperty(cachedProperty("a", "y"), null)
+    row.setLinenumber("file.csv", 42, last = true)
+    val other = CypherRow.from("b" -> Values.stringValue("c"))
+
+    val Seq(readRow, readOther) = readBack(serializer, Seq(row, other))
+
+    readRow.getByName("a") should equal(Values.intValue(1))
+    readRow.getByName("b") should equal(Values.stringValue("b"))
+    readRow.getCachedProperty(cachedProperty("a", "x")) should equal(Values.intValue(10))
+    readRow.getCachedProperty(cachedProperty("a", "y")) should be(null)
+    readRow.getLinenumber should equal(Some(ResourceLinenumber("file.csv", 42, last = true)))
+    readOther.getByName("b") should equal(Values.stringValue("c"))
+    readOther.numberOfColumns should be(1)
+    readOther.getLinenumber should be(None)
+  }
+
+  private def roundTrip(value: AnyValue): AnyValue = {
+    val Seq(row) = readBack(new CypherRowSerializer(entityById), Seq(CypherRow.from("x" -> value)))
+    row.getByName("x")
+  }
+
+  private def readBack(serializer: CypherRowSerializer, rows: Seq[CypherRow]): Seq[CypherRow] = {
+    val bytes = new ByteArrayOutputStream()
+    val out = new DataOutputStream(bytes)
+    rows.foreach(serializer.write(_, out))
+    out.close()
+    val in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray))
+    rows.map(_ => serializer.read(in))
+  }
+
+  private def cachedProperty(variable: String, propertyKey: String) =
+    CachedProperty(variable, Variable(variable)(InputPosition.NONE), PropertyKeyName(propertyKey)(InputPosition.NONE), NODE_TYPE)(InputPosition.NONE)
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.spec.tests
+
+import org.neo4j.configuration.GraphDatabaseSettings
+import org.neo4j.cypher.internal.CypherRuntime
+import org.neo4j.cypher.internal.RuntimeContext
+import org.neo4j.cypher.internal.logical.plans.IndexOrderNone
+import org.neo4j.cypher.internal.runtime.spec.Edition
+import org.neo4j.cypher.internal.runtime.spec.LogicalQueryBuilder
+import org.neo4j.cypher.internal.runtime.spec.RuntimeTestSuite
+import org.neo4j.exceptions.ArithmeticException
+import org.neo4j.graphdb.Label
+import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.ListValue
+
+import scala.collection.JavaConverters.iterableAsScalaIterableConverter
+
+abstract class ParallelExecutionTestBase[CONTEXT <: RuntimeContext](
+                                                                     edition: Edition[CONTEXT],
+                                                                     runtime: CypherRuntime[CONTEXT]
+                                                                   )
+  extends RuntimeTestSuite[CONTEXT](edition.copyWith(
+    GraphDatabaseSettings.cypher_interpreted_parallelism -> Int.box(4)), runtime) {
+
+  // Enough nodes for several batches per worker
+  private val SIZE = 20000
+
+  test("should count all nodes in parallel") {
+    // given
+    given { nodeGraph(SIZE) }
+
+    // when
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("c")
+      .aggregation(Seq.empty, Seq("count(*) AS c"))
+      .allNodeScan("x")
+      .build()
+
+    val runtimeResult = execute(logicalQuery, runtime)
+
+    // then
+    runtimeResult should beColumns("c").withSingleRow(SIZE)
+  }
+
+  test("should aggregate nothing in parallel") {
+    // when
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("c", "s")
+      .aggregation(Seq.empty, Seq("count(*) AS c", "sum(x.num) AS s"))
+      .nodeByLabelScan("x", "Honey", IndexOrderNone)
+      .build()
+
+    val runtimeResult = execute(logicalQuery, runtime)
+
+    // then
+    runtimeResult should beColumns("c", "s").withSingleRow(0, 0)
+  }
+
+  test("should group filtered and projected rows of a label scan in parallel") {
+    // given
+    given {
+      nodePropertyGraph(SIZE, {
+        case i => Map("num" -> i, "name" -> s"bob${i % 10}")
+      }, "Honey")
+      nodeGraph(SIZE / 2, "Butter")
+    }
+
+    // when
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("name", "c", "s", "min", "max")
+      .aggregation(Seq("name AS name"), Seq("count(*) AS c", "sum(num) AS s", "min(num) AS min", "max(num) AS max"))
+      .projection("x.name AS name", "x.num AS num")
+      .filter("x.num % 2 = 0")
+      .nodeByLabelScan("x", "Honey", IndexOrderNone)
+      .build()
+
+    val runtimeResult = execute(logicalQuery, runtime)
+
+    // then
+    val expected = (0 until 10 by 2).map { group =>
+      val nums = group until SIZE by 10
+      Array[Any](s"bob$group", nums.size, nums.map(_.toLong).sum, nums.min, nums.max)
+    }
+    runtimeResult should beColumns("name", "c", "s", "min", "max").withRows(expected)
+  }
+
+  test("should count expanded relationships per node in parallel") {
+    // given
+    val (nodes, _) = given { circleGraph(SIZE) }
+
+    // when
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("x", "c")
+      .aggregation(Seq("x AS x"), Seq("count(*) AS c"))
+      .expand("(x)--(y)")
+      .allNodeScan("x")
+      .build()
+
+    val runtimeResult = execute(logicalQuery, runtime)
+
+    // then
+    runtimeResult should beColumns("x", "c").withRows(nodes.map(node => Array[Any](node, 2)))
+  }
+
+  test("should collect in parallel") {
+    // given
+    given {
+      nodePropertyGraph(SIZE, {
+        case i => Map("num" -> i)
+      })
+    }
+
+    // when
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("c")
+      .aggregation(Seq.empty, Seq("collect(x.num) AS c"))
+      .allNodeScan("x")
+      .build()
+
+    val runtimeResult = execute(logicalQuery, runtime)
+
+    // then
+    runtimeResult should beColumns("c").withRows(matching {
+      case Seq(Array(collected: ListValue)) if collected.asScala.toSet == (0 until SIZE).map(i => Values.intValue(i)).toSet && collected.size() == SIZE =>
+    })
+  }
+
+  test("should see the changes of the transaction") {
+    // given
+    given { nodeGraph(SIZE, "Honey") }
+    tx.createNode(Label.label("Honey"))
+
+    // when
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("c")
+      .aggregation(Seq.empty, Seq("count(*) AS c"))
+      .nodeByLabelScan("x", "Honey", IndexOrderNone)
+      .build()
+
+    val runtimeResult = execute(logicalQuery, runtime)
+
+    // then
+    runtimeResult should beColumns("c").withSingleRow(SIZE + 1)
+  }
+
+  test("should aggregate with functions that cannot be merged") {
+    // given
+    given {
+      nodePropertyGraph(SIZE, {
+        case i => Map("num" -> i)
+      })
+    }
+
+    // when
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("c", "p")
+      .aggregation(Seq.empty, Seq("count(DISTINCT x.num % 10) AS c", "percentileDisc(x.num, 0.5) AS p"))
+      .allNodeScan("x")
+      .build()
+
+    val runtimeResult = execute(logicalQuery, runtime)
+
+    // then
+    runtimeResult should beColumns("c", "p").withSingleRow(10, SIZE / 2 - 1)
+  }
+
+  test("should fail the query if a worker fails") {
+    // given
+    given {
+      nodePropertyGraph(SIZE, {
+        case i => Map("num" -> (i - SIZE / 2))
+      })
+    }
+
+    // when
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("s")
+      .aggregation(Seq.empty, Seq("sum(100 / x.num) AS s"))
+      .allNodeScan("x")
+      .build()
+
+    // then
+    a[ArithmeticException] should be thrownBy consume(execute(logicalQuery, runtime))
+  }
+}
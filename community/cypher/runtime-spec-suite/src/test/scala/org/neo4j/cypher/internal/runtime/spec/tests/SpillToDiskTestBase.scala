@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.spec.tests
+
+import org.neo4j.configuration.GraphDatabaseSettings
+import org.neo4j.cypher.internal.CypherRuntime
+import org.neo4j.cypher.internal.RuntimeContext
+import org.neo4j.cypher.internal.logical.plans.Ascending
+import org.neo4j.cypher.internal.logical.plans.Descending
+import org.neo4j.cypher.internal.runtime.spec.Edition
+import org.neo4j.cypher.internal.runtime.spec.LogicalQueryBuilder
+import org.neo4j.cypher.internal.runtime.spec.RuntimeTestSuite
+import org.neo4j.cypher.result.OperatorProfile
+import org.neo4j.io.ByteUnit
+
+object SpillToDiskTestBase {
+  // The configured max memory per transaction in Bytes
+  val maxMemory: Long = ByteUnit.mebiBytes(3)
+  // The configured amount of buffered rows per operator in Bytes, before spilling to disk
+  val spillThreshold: Long = ByteUnit.kibiBytes(64)
+}
+
+abstract class SpillToDiskTestBase[CONTEXT <: RuntimeContext](
+                                                               edition: Edition[CONTEXT],
+                                                               runtime: CypherRuntime[CONTEXT]
+                                                             )
+  extends RuntimeTestSuite[CONTEXT](edition.copyWith(
+    GraphDatabaseSettings.track_query_allocation -> java.lang.Boolean.TRUE,
+    GraphDatabaseSettings.memory_transaction_max_size -> Long.box(SpillToDiskTestBase.maxMemory),
+    GraphDatabaseSettings.cypher_operator_spill_threshold -> Long.box(SpillToDiskTestBase.spillThreshold)), runtime) {
+
+  // More rows than fit in the transaction memory limit
+  private val SIZE = 100000
+
+  test("should sort more rows than fit in memory") {
+    // given
+    val input = inputValues((0 until SIZE).map(i => Array[Any](SIZE - i, s"row $i")): _*)
+
+    // when
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("x", "y")
+      .sort(Seq(Ascending("x")))
+      .input(variables = Seq("x", "y"))
+      .build()
+
+    val runtimeResult = execute(logicalQuery, runtime, input)
+
+    // then
+    val expected = (0 until SIZE).reverse.map(i => Array[Any](SIZE - i, s"row $i"))
+    runtimeResult should beColumns("x", "y").withRows(inOrder(expected))
+  }
+
+  test("should sort nodes that are spilled to disk") {
+    // given
+    val nodes = given { nodeGraph(SIZE / 50) }
+
+    // when
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("x")
+      .sort(Seq(Descending("x")))
+      .allNodeScan("x")
+      .build()
+
+    val runtimeResult = execute(logicalQuery, runtime)
+
+    // then
+    val expected = nodes.sortBy(-_.getId).map(n => Array[Any](n))
+    runtimeResult should beColumns("x").withRows(inOrder(expected))
+  }
+
+  test("should return top rows when more than fit in memory") {
+    // given
+    val limit = SIZE / 2
+    val input = inputValues((0 until SIZE).map(i => Array[Any](i)): _*)
+
+    // when
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("x")
+      .top(Seq(Descending("x")), limit)
+      .input(variables = Seq("x"))
+      .build()
+
+    val runtimeResult = execute(logicalQuery, runtime, input)
+
+    // then
+    val expected = (SIZE - 1 until SIZE - 1 - limit by -1).map(i => Array[Any](i))
+    runtimeResult should beColumns("x").withRows(inOrder(expected))
+  }
+
+  test("should aggregate more groups than fit in memory") {
+    // given
+    val input = inputValues((0 until SIZE).map(i => Array[Any](i % (SIZE / 2), i)): _*)
+
+    // when
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("x", "c", "s")
+      .aggregation(Seq("x AS x"), Seq("count(*) AS c", "sum(y) AS s"))
+      .input(variables = Seq("x", "y"))
+      .build()
+
+    val runtimeResult = execute(logicalQuery, runtime, input)
+
+    // then
+    val expected = (0 until SIZE / 2).map(x => Array[Any](x, 2, 2 * x + SIZE / 2))
+    runtimeResult should beColumns("x", "c", "s").withRows(expected)
+  }
+
+  test("should value hash join more rows than fit in memory") {
+    // given
+    val input = inputValues((0 until SIZE).map(i => Array[Any](i)): _*)
+
+    // when
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("x", "y")
+      .valueHashJoin("x=y")
+      .|.unwind(s"range(${SIZE - 1}, 0, -1) AS y")
+      .|.argument()
+      .input(variables = Seq("x"))
+      .build()
+
+    val runtimeResult = execute(logicalQuery, runtime, input)
+
+    // then
+    val expected = (SIZE - 1 to 0 by -1).map(i => Array[Any](i, i))
+    runtimeResult should beColumns("x", "y").withRows(inOrder(expected))
+  }
+
+  test("should node hash join nodes that are spilled to disk") {
+    // given
+    val nodes = given { nodeGraph(SIZE / 50) }
+
+    // when
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("x")
+      .nodeHashJoin("x")
+      .|.allNodeScan("x")
+      .allNodeScan("x")
+      .build()
+
+    val runtimeResult = execute(logicalQuery, runtime)
+
+    // then
+    runtimeResult should beColumns("x").withRows(singleColumn(nodes))
+  }
+
+  test("should profile spilled bytes and runs") {
+    // given
+    val input = inputValues((0 until SIZE).map(i => Array[Any](i)): _*)
+
+    // when
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("x")
+      .sort(Seq(Descending("x")))
+      .input(variables = Seq("x"))
+      .build()
+
+    val runtimeResult = profile(logicalQuery, runtime, input.stream())
+    consume(runtimeResult)
+
+    // then
+    val queryProfile = runtimeResult.runtimeResult.queryProfile()
+    queryProfile.operatorProfile(1).spilledBytes() should be > 0L
+    queryProfile.operatorProfile(1).spillRuns() should be > 1L
+    queryProfile.operatorProfile(0).spilledBytes() should be(OperatorProfile.NO_DATA)
+    queryProfile.operatorProfile(2).spillRuns() should be(OperatorProfile.NO_DATA)
+  }
+
+  test("should not spill rows that fit below the threshold") {
+    // given
+    val input = inputValues((0 until 10).map(i => Array[Any](i)): _*)
+
+    // when
+    val logicalQuery = new LogicalQueryBuilder(this)
+      .produceResults("x")
+      .sort(Seq(Ascending("x")))
+      .input(variables = Seq("x"))
+      .build()
+
+    val runtimeResult = profile(logicalQuery, runtime, input.stream())
+    consume(runtimeResult)
+
+    // then
+    runtimeResult.runtimeResult.queryProfile().operatorProfile(1).spilledBytes() should be(OperatorProfile.NO_DATA)
+  }
+}
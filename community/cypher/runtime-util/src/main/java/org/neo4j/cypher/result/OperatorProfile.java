@@ -57,6 +57,22 @@ public interface OperatorProfile
      */
     long maxAllocatedMemory();
 
+    /**
+     * The number of bytes that this operator wrote to temporary files on disk, because it could not hold on to all its rows in memory.
+     */
+    default long spilledBytes()
+    {
+        return NO_DATA;
+    }
+
+    /**
+     * The number of runs of rows that this operator wrote to temporary files on disk.
+     */
+    default long spillRuns()
+    {
+        return NO_DATA;
+    }
+
     long NO_DATA = -1L;
 
     OperatorProfile NONE = new ConstOperatorProfile( NO_DATA );
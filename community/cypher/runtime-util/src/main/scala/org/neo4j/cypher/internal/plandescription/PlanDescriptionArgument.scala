@@ -57,6 +57,10 @@ object Arguments {
 
   case class PageCacheMisses(value: Long) extends Argument
 
+  case class SpilledBytes(value: Long) extends Argument
+
+  case class SpillRuns(value: Long) extends Argument
+
   case class EstimatedRows(value: Double) extends Argument
 
   case class PipelineInfo(pipelineId: Int, fused: Boolean) extends Argument
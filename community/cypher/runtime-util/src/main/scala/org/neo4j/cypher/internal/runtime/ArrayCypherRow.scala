@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime
+
+import org.neo4j.cypher.internal.expressions.ASTCachedProperty
+import org.neo4j.exceptions.InternalException
+import org.neo4j.graphdb.NotFoundException
+import org.neo4j.memory.HeapEstimator.shallowSizeOfInstance
+import org.neo4j.memory.HeapEstimator.shallowSizeOfObjectArray
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.Value
+import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.VirtualNodeValue
+import org.neo4j.values.virtual.VirtualRelationshipValue
+
+import scala.collection.mutable
+
+object ArrayCypherRow {
+  private final val SHALLOW_SIZE = shallowSizeOfInstance(classOf[ArrayCypherRow])
+  private final val SHALLOW_SIZE_OF_MUTABLE_MAP = shallowSizeOfInstance(classOf[mutable.OpenHashMap[_,_]])
+  private final val INITAL_SIZE_OF_MUTABLE_MAP = SHALLOW_SIZE_OF_MUTABLE_MAP + shallowSizeOfObjectArray(8) // OpenHashMap initial size 8
+
+  def empty(slots: VariableSlots): ArrayCypherRow = new ArrayCypherRow(slots, new Array[AnyValue](slots.size))
+
+  /**
+   * Copies the variables, cached properties and line number of the given row into a new row with the given layout.
+   */
+  def copyOf(slots: VariableSlots, row: NamedCypherRow): ArrayCypherRow = {
+    val copy = empty(slots)
+    copy.mergeWith(row)
+    copy
+  }
+}
+
+/**
+ * A [[CypherRow]] which keeps its variables in an array, at the offsets given by a [[VariableSlots]] layout that is
+ * computed when the plan is built. Copying a row is an array copy, and accessing a variable is a lookup of its offset
+ * in the layout followed by an array access.
+ *
+ * Variables that have no slot in the layout, such as variables introduced by operators for their own use, are kept
+ * in a map on the side. A `null` entry in the array means that the row does not contain the variable.
+ */
+class ArrayCypherRow(private val slots: VariableSlots,
+                     private val refs: Array[AnyValue],
+                     private var extra: mutable.Map[String, AnyValue] = null,
+                     private var cachedProperties: mutable.Map[ASTCachedProperty, Value] = null)
+  extends NamedCypherRow {
+
+  override def copyAllFrom(input: ReadableRow): Unit = fail()
+
+  override def copyFrom(input: ReadableRow, nLongs: Int, nRefs: Int): Unit = fail()
+
+  override def copyFromOffset(input: ReadableRow, sourceLongOffset: Int, sourceRefOffset: Int, targetLongOffset: Int, targetRefOffset: Int): Unit = fail()
+
+  override def remove(name: String): Option[AnyValue] = {
+    val offset = slots.offsetOf(name)
+    if (offset >= 0) {
+      val value = refs(offset)
+      refs(offset) = null
+      Option(value)
+    } else if (extra != null) {
+      extra.remove(name)
+    } else {
+      None
+    }
+  }
+
+  override def foreach(f: (String, AnyValue) => Unit): Unit = {
+    var i = 0
+    while (i < refs.length) {
+      val value = refs(i)
+      if (value != null) {
+        f(slots.nameAt(i), value)
+      }
+      i += 1
+    }
+    if (extra != null) {
+      extra.foreach {
+        case (key, value) => f(key, value)
+      }
+    }
+  }
+
+  override def foreachCachedProperty(f: (ASTCachedProperty, Value) => Unit): Unit = if (cachedProperties != null) {
+    cachedProperties.foreach {
+      case (key, value) => f(key, value)
+    }
+  }
+
+  override def toMap: Map[String, AnyValue] = {
+    val builder = Map.newBuilder[String, AnyValue]
+    foreach((key, value) => builder += key -> value)
+    builder.result()
+  }
+
+  override def getByName(name: String): AnyValue = {
+    val value = valueOf(name)
+    if (value == null) {
+      throw new NotFoundException(s"Unknown variable `$name`.")
+    }
+    value
+  }
+
+  /**
+   * Like [[getByName]], for a variable that has the given offset in the given layout. The offset is only used when
+   * this row has that layout.
+   */
+  def getBySlot(slots: VariableSlots, offset: Int, name: String): AnyValue = {
+    val value = if (slots eq this.slots) refs(offset) else valueOf(name)
+    if (value == null) {
+      throw new NotFoundException(s"Unknown variable `$name`.")
+    }
+    value
+  }
+
+  override def containsName(name: String): Boolean = valueOf(name) != null
+
+  override def numberOfColumns: Int = {
+    var count = if (extra == null) 0 else extra.size
+    var i = 0
+    while (i < refs.length) {
+      if (refs(i) != null) {
+        count += 1
+      }
+      i += 1
+    }
+    count
+  }
+
+  override def setLongAt(offset: Int, value: Long): Unit = fail()
+  override def getLongAt(offset: Int): Long = fail()
+
+  override def setRefAt(offset: Int, value: AnyValue): Unit = refs(offset) = value
+  override def getRefAt(offset: Int): AnyValue = refs(offset)
+
+  private def fail(): Nothing = throw new InternalException("Tried using an array context as a slotted context")
+
+  override def mergeWith(other: ReadableRow, entityById: EntityById): Unit = other match {
+    case otherRow: NamedCypherRow => mergeWith(otherRow)
+    case _ => fail()
+  }
+
+  private def mergeWith(other: NamedCypherRow): Unit = {
+    other match {
+      case otherRow: ArrayCypherRow if otherRow.slots eq slots =>
+        var i = 0
+        while (i < refs.length) {
+          val value = otherRow.refs(i)
+          if (value != null) {
+            refs(i) = value
+          }
+          i += 1
+        }
+        if (otherRow.extra != null) {
+          otherRow.extra.foreach {
+            case (key, value) => setExtra(key, value)
+          }
+        }
+      case _ =>
+        other.foreach((key, value) => set(key, value))
+    }
+    other.foreachCachedProperty(setCachedProperty)
+    setLinenumber(other.getLinenumber)
+  }
+
+  override def set(newEntries: Seq[(String, AnyValue)]): Unit =
+    newEntries.foreach {
+      case (key, value) => set(key, value)
+    }
+
+  override def set(key: String, value: AnyValue): Unit = {
+    val offset = slots.offsetOf(key)
+    if (offset >= 0) {
+      refs(offset) = value
+    } else {
+      setExtra(key, value)
+    }
+  }
+
+  override def set(key1: String, value1: AnyValue, key2: String, value2: AnyValue): Unit = {
+    set(key1, value1)
+    set(key2, value2)
+  }
+
+  override def set(key1: String, value1: AnyValue, key2: String, value2: AnyValue, key3: String, value3: AnyValue): Unit = {
+    set(key1, value1)
+    set(key2, value2)
+    set(key3, value3)
+  }
+
+  override def copyWith(key: String, value: AnyValue): CypherRow = {
+    val copy = createClone()
+    copy.set(key, value)
+    copy
+  }
+
+  override def copyWith(key1: String, value1: AnyValue, key2: String, value2: AnyValue): CypherRow = {
+    val copy = createClone()
+    copy.set(key1, value1)
+    copy.set(key2, value2)
+    copy
+  }
+
+  override def copyWith(key1: String, value1: AnyValue,
+                        key2: String, value2: AnyValue,
+                        key3: String, value3: AnyValue): CypherRow = {
+    val copy = createClone()
+    copy.set(key1, value1)
+    copy.set(key2, value2)
+    copy.set(key3, value3)
+    copy
+  }
+
+  override def copyWith(newEntries: Seq[(String, AnyValue)]): CypherRow = {
+    val copy = createClone()
+    copy.set(newEntries)
+    copy
+  }
+
+  override def createClone(): ArrayCypherRow = {
+    val newExtra = if (extra == null) null else extra.clone()
+    val newCachedProperties = if (cachedProperties == null) null else cachedProperties.clone()
+    val copy = new ArrayCypherRow(slots, refs.clone(), newExtra, newCachedProperties)
+    copy.setLinenumber(getLinenumber)
+    copy
+  }
+
+  override def isNull(key: String): Boolean = valueOf(key) eq Values.NO_VALUE
+
+  override def setCachedProperty(key: ASTCachedProperty, value: Value): Unit = {
+    if (cachedProperties == null) {
+      cachedProperties = mutable.Map.empty
+    }
+    cachedProperties.put(key, value)
+  }
+
+  override def setCachedPropertyAt(offset: Int, value: Value): Unit = fail()
+
+  override def getCachedProperty(key: ASTCachedProperty): Value = {
+    if (cachedProperties == null) {
+      null
+    } else {
+      cachedProperties.getOrElse(key, null)
+    }
+  }
+
+  override def getCachedPropertyAt(offset: Int): Value = fail()
+
+  override def invalidateCachedNodeProperties(node: Long): Unit = {
+    if (cachedProperties != null) {
+      cachedProperties.keys.filter(cnp => getByName(cnp.entityName) match {
+        case n: VirtualNodeValue => n.id() == node
+        case _ => false
+      }).foreach(cnp => setCachedProperty(cnp, null))
+    }
+  }
+
+  override def invalidateCachedRelationshipProperties(rel: Long): Unit = {
+    if (cachedProperties != null) {
+      cachedProperties.keys.filter(cnp => getByName(cnp.entityName) match {
+        case r: VirtualRelationshipValue => r.id() == rel
+        case _ => false
+      }).foreach(cnp => setCachedProperty(cnp, null))
+    }
+  }
+
+  override def estimatedHeapUsage: Long = {
+    var total = ArrayCypherRow.SHALLOW_SIZE + shallowSizeOfObjectArray(refs.length)
+    var i = 0
+    while (i < refs.length) {
+      val value = refs(i)
+      if (value != null) {
+        total += value.estimatedHeapUsage()
+      }
+      i += 1
+    }
+    if (extra != null) {
+      total += ArrayCypherRow.INITAL_SIZE_OF_MUTABLE_MAP
+      val iterator = extra.valuesIterator
+      while (iterator.hasNext) {
+        val value = iterator.next()
+        if (value != null) {
+          total += value.estimatedHeapUsage()
+        }
+      }
+    }
+    if (cachedProperties != null) {
+      total += ArrayCypherRow.INITAL_SIZE_OF_MUTABLE_MAP
+      val iterator = cachedProperties.valuesIterator
+      while (iterator.hasNext) {
+        val value = iterator.next()
+        if (value != null) {
+          total += value.estimatedHeapUsage()
+        }
+      }
+    }
+    total
+  }
+
+  private def valueOf(name: String): AnyValue = {
+    val offset = slots.offsetOf(name)
+    if (offset >= 0) {
+      refs(offset)
+    } else if (extra != null) {
+      extra.getOrElse(name, null)
+    } else {
+      null
+    }
+  }
+
+  private def setExtra(key: String, value: AnyValue): Unit = {
+    if (extra == null) {
+      extra = MutableMaps.empty
+    }
+    extra.put(key, value)
+  }
+
+  def canEqual(other: Any): Boolean = other.isInstanceOf[ArrayCypherRow]
+
+  override def equals(other: Any): Boolean = other match {
+    case that: ArrayCypherRow =>
+      (that canEqual this) &&
+        toMap == that.toMap
+    case _ => false
+  }
+
+  override def hashCode(): Int = toMap.hashCode()
+
+  override def toString: String = s"ArrayExecutionContext(m=$toMap, cached=$cachedProperties)"
+}
@@ -80,6 +80,20 @@ trait CypherRow extends ReadWriteRow with Measurable {
   override def getLinenumber: Option[ResourceLinenumber] = linenumber
 }
 
+/**
+ * A [[CypherRow]] whose variables can be accessed and enumerated by name.
+ */
+trait NamedCypherRow extends CypherRow {
+
+  def remove(name: String): Option[AnyValue]
+
+  def foreach(f: (String, AnyValue) => Unit): Unit
+
+  def foreachCachedProperty(f: (ASTCachedProperty, Value) => Unit): Unit
+
+  def toMap: Map[String, AnyValue]
+}
+
 object MapCypherRow {
   private final val SHALLOW_SIZE_OF_MUTABLE_MAP = shallowSizeOfInstance(classOf[mutable.OpenHashMap[_,_]])
   private final val SHALLOW_SIZE = shallowSizeOfInstance(classOf[MapCypherRow])
@@ -87,7 +101,7 @@ object MapCypherRow {
 }
 
 class MapCypherRow(private val m: mutable.Map[String, AnyValue], private var cachedProperties: mutable.Map[ASTCachedProperty, Value] = null)
-  extends CypherRow {
+  extends NamedCypherRow {
 
   override def copyAllFrom(input: ReadableRow): Unit = fail()
 
@@ -95,9 +109,19 @@ class MapCypherRow(private val m: mutable.Map[String, AnyValue], private var cac
 
   override def copyFromOffset(input: ReadableRow, sourceLongOffset: Int, sourceRefOffset: Int, targetLongOffset: Int, targetRefOffset: Int): Unit = fail()
 
-  def remove(name: String): Option[AnyValue] = m.remove(name)
-  //used for testing
-  def toMap: Map[String, AnyValue] = m.toMap
+  override def remove(name: String): Option[AnyValue] = m.remove(name)
+
+  override def foreach(f: (String, AnyValue) => Unit): Unit = m.foreach {
+    case (key, value) => f(key, value)
+  }
+
+  override def foreachCachedProperty(f: (ASTCachedProperty, Value) => Unit): Unit = if (cachedProperties != null) {
+    cachedProperties.foreach {
+      case (key, value) => f(key, value)
+    }
+  }
+
+  override def toMap: Map[String, AnyValue] = m.toMap
 
   override def getByName(name: String): AnyValue = m.getOrElse(name, throw new NotFoundException(s"Unknown variable `$name`."))
   override def containsName(name: String): Boolean = m.contains(name)
@@ -124,6 +148,10 @@ class MapCypherRow(private val m: mutable.Map[String, AnyValue], private var cac
         //otherMapCtx.cachedProperties is null so do nothing
       }
       setLinenumber(otherMapCtx.getLinenumber)
+    case otherRow: NamedCypherRow =>
+      otherRow.foreach((key, value) => m.put(key, value))
+      otherRow.foreachCachedProperty(setCachedProperty)
+      setLinenumber(otherRow.getLinenumber)
     case _ => fail()
   }
 
@@ -52,6 +52,7 @@ import org.neo4j.kernel.impl.core.TransactionalEntityFactory
 import org.neo4j.kernel.impl.factory.DbmsInfo
 import org.neo4j.memory.EmptyMemoryTracker
 import org.neo4j.memory.MemoryTracker
+import org.neo4j.scheduler.CallableExecutor
 import org.neo4j.values.AnyValue
 import org.neo4j.values.storable.TextValue
 import org.neo4j.values.storable.Value
@@ -82,6 +83,12 @@ trait QueryContext extends TokenContext with DbAccess {
 
   def resources: ResourceManager
 
+  /**
+   * Creates a query context that a worker thread can use to read the transaction of this context in parallel with other workers.
+   * It allocates thread-safe cursors and has resources of its own, which the worker closes when done.
+   */
+  def createParallelQueryContext(): QueryContext
+
   def nodeOps: NodeOperations
 
   def relationshipOps: RelationshipOperations
@@ -360,6 +367,11 @@ trait QueryTransactionalContext extends CloseableResource {
 
   def cursors : CursorFactory
 
+  /**
+   * The executor of the Cypher worker threads, that parts of a query can run on in parallel.
+   */
+  def workerExecutor: CallableExecutor
+
   def dataRead: Read
 
   def tokenRead: TokenRead
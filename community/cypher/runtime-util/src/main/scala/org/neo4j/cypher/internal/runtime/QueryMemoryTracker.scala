@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal.runtime
 
 import org.neo4j.cypher.internal.runtime.BoundedQueryMemoryTracker.MemoryTrackerPerOperator
 import org.neo4j.cypher.internal.runtime.BoundedQueryMemoryTracker.OperatorMemoryTracker
+import org.neo4j.cypher.internal.runtime.BoundedQueryMemoryTracker.OperatorSpill
 import org.neo4j.cypher.internal.runtime.MemoryTrackingController.MemoryTrackerDecorator
 import org.neo4j.cypher.result.OperatorProfile
 import org.neo4j.memory.EmptyMemoryTracker
@@ -29,6 +30,8 @@ import org.neo4j.memory.MemoryTracker
 import org.neo4j.memory.OptionalMemoryTracker
 import org.neo4j.values.AnyValue
 
+import scala.collection.mutable
+
 trait QueryMemoryTracker {
 
   /**
@@ -99,6 +102,28 @@ trait QueryMemoryTracker {
   def maxMemoryOfOperator(operatorId: Int): Long
 
   def memoryTrackerForOperator(operatorId: Int): MemoryTracker
+
+  /**
+   * Record that an operator wrote rows to temporary files on disk
+   *
+   * @param bytes number of written bytes
+   * @param runs number of runs of rows that were written
+   */
+  def spilled(bytes: Long, runs: Long, operatorId: Int): Unit
+
+  /**
+   * Get the number of bytes this operator wrote to temporary files on disk.
+   *
+   * @return the number of spilled bytes, or [[OptionalMemoryTracker]].ALLOCATIONS_NOT_TRACKED, if memory tracking was not enabled or the operator never spilled.
+   */
+  def spilledBytesOfOperator(operatorId: Int): Long
+
+  /**
+   * Get the number of runs of rows this operator wrote to temporary files on disk.
+   *
+   * @return the number of spilled runs, or [[OptionalMemoryTracker]].ALLOCATIONS_NOT_TRACKED, if memory tracking was not enabled or the operator never spilled.
+   */
+  def spillRunsOfOperator(operatorId: Int): Long
 }
 
 object QueryMemoryTracker {
@@ -141,6 +166,12 @@ case object NoOpQueryMemoryTracker extends QueryMemoryTracker {
   override def maxMemoryOfOperator(operatorId: Int): Long = OptionalMemoryTracker.ALLOCATIONS_NOT_TRACKED
 
   override def memoryTrackerForOperator(operatorId: Int): MemoryTracker = EmptyMemoryTracker.INSTANCE
+
+  override def spilled(bytes: Long, runs: Long, operatorId: Int): Unit = {}
+
+  override def spilledBytesOfOperator(operatorId: Int): Long = OptionalMemoryTracker.ALLOCATIONS_NOT_TRACKED
+
+  override def spillRunsOfOperator(operatorId: Int): Long = OptionalMemoryTracker.ALLOCATIONS_NOT_TRACKED
 }
 
 object BoundedQueryMemoryTracker {
@@ -152,6 +183,7 @@ object BoundedQueryMemoryTracker {
 
   class MemoryTrackerPerOperator(memoryTracker: MemoryTracker) extends GrowingArray[MemoryTracker](memoryTracker)
 
+  class OperatorSpill(var bytes: Long, var runs: Long)
 }
 
 class BoundedQueryMemoryTracker(transactionMemoryTracker: MemoryTracker, memoryTrackerPerOperator: MemoryTrackerPerOperator) extends HighWaterScopedMemoryTracker(transactionMemoryTracker)
@@ -160,6 +192,9 @@ class BoundedQueryMemoryTracker(transactionMemoryTracker: MemoryTracker, memoryT
 
   private val newTracker = () => new OperatorMemoryTracker(this)
 
+  // Spilling is rare, so only allocated when an operator first spills
+  private var spillPerOperator: mutable.Map[Int, OperatorSpill] = _
+
   def allocated(bytes: Long, operatorId: Int): Unit = {
     memoryTrackerPerOperator.computeIfAbsent(operatorId, newTracker).allocateHeap(bytes)
   }
@@ -190,6 +225,21 @@ class BoundedQueryMemoryTracker(transactionMemoryTracker: MemoryTracker, memoryT
     memoryTrackerPerOperator.computeIfAbsent(operatorId, newTracker)
   }
 
+  override def spilled(bytes: Long, runs: Long, operatorId: Int): Unit = {
+    if (spillPerOperator == null) {
+      spillPerOperator = mutable.Map.empty
+    }
+    val spill = spillPerOperator.getOrElseUpdate(operatorId, new OperatorSpill(0, 0))
+    spill.bytes += bytes
+    spill.runs += runs
+  }
+
+  override def spilledBytesOfOperator(operatorId: Int): Long = operatorSpill(operatorId).map(_.bytes).getOrElse(OptionalMemoryTracker.ALLOCATIONS_NOT_TRACKED)
+
+  override def spillRunsOfOperator(operatorId: Int): Long = operatorSpill(operatorId).map(_.runs).getOrElse(OptionalMemoryTracker.ALLOCATIONS_NOT_TRACKED)
+
+  private def operatorSpill(operatorId: Int): Option[OperatorSpill] = if (spillPerOperator == null) None else spillPerOperator.get(operatorId)
+
   override def memoryTrackingIterator[T <: Measurable](input: Iterator[T], operatorId: Int): Iterator[T] = new MemoryTrackingIterator[T](input, operatorId)
 
   private class MemoryTrackingIterator[T <: Measurable](input: Iterator[T], operatorId: Int) extends Iterator[T] {
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime
+
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap
+
+/**
+ * The layout of an [[ArrayCypherRow]], i.e. the offset of each variable that is known when the plan is built.
+ *
+ * A layout is shared by all executions of a plan, and is never modified after it has been created.
+ */
+class VariableSlots private(names: Array[String]) {
+
+  private val offsets = new ObjectIntHashMap[String](names.length)
+
+  {
+    var i = 0
+    while (i < names.length) {
+      offsets.put(names(i), i)
+      i += 1
+    }
+  }
+
+  def size: Int = names.length
+
+  /**
+   * Returns the offset of the given variable, or -1 if the variable has no slot in this layout.
+   */
+  def offsetOf(name: String): Int = offsets.getIfAbsent(name, -1)
+
+  def nameAt(offset: Int): String = names(offset)
+
+  override def toString: String = s"VariableSlots(${names.mkString(", ")})"
+}
+
+object VariableSlots {
+  val empty: VariableSlots = apply(Seq.empty)
+
+  def apply(names: Seq[String]): VariableSlots = new VariableSlots(names.distinct.toArray)
+}
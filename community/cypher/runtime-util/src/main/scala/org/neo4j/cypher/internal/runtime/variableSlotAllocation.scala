@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime
+
+import org.neo4j.cypher.internal.logical.plans.LogicalPlan
+import org.neo4j.cypher.internal.util.Foldable.TraverseChildren
+
+/**
+ * Piece of physical planning for the interpreted runtime, which gives every variable of a logical plan, including the
+ * variables of nested plans, a fixed slot in the rows of the plan. See [[ArrayCypherRow]].
+ */
+case object variableSlotAllocation {
+
+  def allocate(input: LogicalPlan): VariableSlots = {
+    val variables = input.treeFold(Set.empty[String]) {
+      case plan: LogicalPlan => acc => TraverseChildren(acc ++ plan.availableSymbols)
+    }
+    VariableSlots(variables.toSeq.sorted)
+  }
+}
@@ -25,6 +25,7 @@ import org.neo4j.memory.LocalMemoryTracker
 import org.neo4j.memory.Measurable
 import org.neo4j.memory.MemoryLimitExceededException
 import org.neo4j.memory.MemoryPools
+import org.neo4j.memory.OptionalMemoryTracker
 import org.neo4j.values.storable.Values
 
 class BoundedQueryMemoryTrackerTest extends CypherFunSuite {
@@ -133,4 +134,21 @@ class BoundedQueryMemoryTrackerTest extends CypherFunSuite {
     tracker.maxMemoryOfOperator(1) should be(11L)
     tracker.maxMemoryOfOperator(2) should be(28L)
   }
+
+  test("Tracks spilled bytes and runs per operator") {
+    // Given
+    val tracker = BoundedQueryMemoryTracker(TestMemoryTracker())
+    // When
+    tracker.spilled(100, 1, 0)
+    tracker.spilled(50, 1, 0)
+    tracker.spilled(150, 0, 0)
+    tracker.spilled(10, 1, 2)
+    // Then
+    tracker.spilledBytesOfOperator(0) should be(300L)
+    tracker.spillRunsOfOperator(0) should be(2L)
+    tracker.spilledBytesOfOperator(2) should be(10L)
+    tracker.spillRunsOfOperator(2) should be(1L)
+    tracker.spilledBytesOfOperator(1) should be(OptionalMemoryTracker.ALLOCATIONS_NOT_TRACKED)
+    tracker.spillRunsOfOperator(1) should be(OptionalMemoryTracker.ALLOCATIONS_NOT_TRACKED)
+  }
 }
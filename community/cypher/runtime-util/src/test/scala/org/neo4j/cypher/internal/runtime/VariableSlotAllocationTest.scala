@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime
+
+import org.neo4j.cypher.internal.ast.AstConstructionTestSupport
+import org.neo4j.cypher.internal.expressions.SemanticDirection
+import org.neo4j.cypher.internal.logical.plans.AllNodesScan
+import org.neo4j.cypher.internal.logical.plans.Expand
+import org.neo4j.cypher.internal.logical.plans.ExpandAll
+import org.neo4j.cypher.internal.logical.plans.NestedPlanExpression
+import org.neo4j.cypher.internal.logical.plans.ProduceResult
+import org.neo4j.cypher.internal.logical.plans.Projection
+import org.neo4j.cypher.internal.util.attribution.SequentialIdGen
+import org.neo4j.cypher.internal.util.test_helpers.CypherFunSuite
+
+class VariableSlotAllocationTest extends CypherFunSuite with AstConstructionTestSupport {
+  implicit val idGen: SequentialIdGen = new SequentialIdGen()
+
+  test("should allocate a slot for each variable of the plan") {
+    //given
+    val expand = Expand(AllNodesScan("a", Set.empty), "a", SemanticDirection.OUTGOING, Seq.empty, "b", "r", ExpandAll)
+    val plan = ProduceResult(expand, Seq("a", "b"))
+
+    //when
+    val slots = variableSlotAllocation.allocate(plan)
+
+    //then
+    slots.size should equal(3)
+    Seq("a", "b", "r").map(slots.offsetOf).sorted should equal(Seq(0, 1, 2))
+    slots.offsetOf("x") should equal(-1)
+  }
+
+  test("should allocate slots for the variables of nested plans") {
+    //given
+    val nested = NestedPlanExpression.collect(AllNodesScan("inner", Set.empty), varFor("inner"), literalInt(1))(pos)
+    val plan = ProduceResult(Projection(AllNodesScan("outer", Set.empty), Map("p" -> nested)), Seq("p"))
+
+    //when
+    val slots = variableSlotAllocation.allocate(plan)
+
+    //then
+    Seq("inner", "outer", "p").foreach(name => slots.offsetOf(name) should be >= 0)
+    slots.size should equal(3)
+  }
+}
@@ -155,6 +155,8 @@ object StaticEvaluation {
 
     override def resources: ResourceManager = notAvailable()
 
+    override def createParallelQueryContext(): QueryContext = notAvailable()
+
     override def nodeOps: NodeOperations = notAvailable()
 
     override def relationshipOps: RelationshipOperations = notAvailable()
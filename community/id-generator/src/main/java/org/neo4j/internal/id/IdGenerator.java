@@ -108,6 +108,18 @@ public interface IdGenerator extends IdSequence, Closeable, ConsistencyCheckable
             return delegate.nextId( cursorTracer );
         }
 
+        @Override
+        public long nextIdNear( long nearId, PageCursorTracer cursorTracer )
+        {
+            return delegate.nextIdNear( nearId, cursorTracer );
+        }
+
+        @Override
+        public boolean canUseNearIdHint()
+        {
+            return delegate.canUseNearIdHint();
+        }
+
         @Override
         public IdRange nextIdBatch( int size, boolean forceConsecutiveAllocation, PageCursorTracer cursorTracer )
         {
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.id;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps track of how close ids handed out by {@link IdSequence#nextIdNear(long, org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer)}
+ * end up to the record they were requested to be near, measured in pages. Since the hint is typically the record which the new record
+ * will be linked to, the average page distance is a measure of how many pages a traversal of a record chain needs to touch.
+ */
+public class IdLocalityCounters
+{
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder samePageAllocations = new LongAdder();
+    private final LongAdder totalPageDistance = new LongAdder();
+
+    /**
+     * Records an id allocated with a locality hint.
+     *
+     * @param nearPageId page of the record that the id was requested to be near.
+     * @param pageId page of the allocated id.
+     */
+    public void allocated( long nearPageId, long pageId )
+    {
+        long distance = Math.abs( pageId - nearPageId );
+        allocations.increment();
+        totalPageDistance.add( distance );
+        if ( distance == 0 )
+        {
+            samePageAllocations.increment();
+        }
+    }
+
+    /**
+     * @return number of ids allocated with a locality hint.
+     */
+    public long allocations()
+    {
+        return allocations.sum();
+    }
+
+    /**
+     * @return number of ids allocated with a locality hint which ended up on the same page as the hint.
+     */
+    public long samePageAllocations()
+    {
+        return samePageAllocations.sum();
+    }
+
+    /**
+     * @return sum of the page distances between allocated ids and their hints.
+     */
+    public long totalPageDistance()
+    {
+        return totalPageDistance.sum();
+    }
+
+    /**
+     * @return average page distance between allocated ids and their hints, or {@code 0} if there have been no such allocations.
+     */
+    public double averagePageDistance()
+    {
+        long count = allocations();
+        return count == 0 ? 0 : (double) totalPageDistance() / count;
+    }
+}
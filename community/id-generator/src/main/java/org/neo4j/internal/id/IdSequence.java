@@ -24,4 +24,26 @@ import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 public interface IdSequence
 {
     long nextId( PageCursorTracer cursorTracer );
+
+    /**
+     * Returns the next id, preferably one close to {@code nearId}. The hint is typically the id of a record which the new record will be linked to,
+     * so that records which are traversed together end up on the same or nearby pages. Implementations are free to ignore the hint.
+     *
+     * @param nearId id of a neighbouring record, or a negative value if there is none.
+     * @param cursorTracer for tracing page accesses.
+     * @return the next id.
+     */
+    default long nextIdNear( long nearId, PageCursorTracer cursorTracer )
+    {
+        return nextId( cursorTracer );
+    }
+
+    /**
+     * @return whether or not {@link #nextIdNear(long, PageCursorTracer)} can currently make use of a hint, so that callers can skip the effort
+     * of looking one up when it wouldn't make a difference.
+     */
+    default boolean canUseNearIdHint()
+    {
+        return false;
+    }
 }
@@ -19,6 +19,9 @@
  */
 package org.neo4j.internal.id.indexed;
 
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
@@ -65,6 +68,14 @@ class FreeIdScanner implements Closeable
      * full before scan completed, or set it to null of the scan ended. The actual {@link Seeker} itself is local to the scan method.
      */
     private Long ongoingScanRangeIndex;
+    /**
+     * Free ids found by {@link #tryReserveIdNear(long, int, PageCursorTracer)} in the ranges from {@link #nearIdsLowRangeIndex} (inclusive)
+     * to {@link #nearIdsHighRangeIndex} (exclusive), sorted and marked as reserved. Requests for ids near those ranges are served from here
+     * without looking in the tree. Guarded by {@link #lock}.
+     */
+    private final MutableLongList nearIds = new LongArrayList();
+    private long nearIdsLowRangeIndex = -1;
+    private long nearIdsHighRangeIndex = -1;
 
     FreeIdScanner( int idsPerEntry, GBPTree<IdRangeKey,IdRange> tree, ConcurrentLongQueue cache, AtomicBoolean atLeastOneIdOnFreelist,
             MarkerProvider markerProvider, long generation, boolean strictlyPrioritizeFreelistOverHighId, IndexedIdGenerator.Monitor monitor )
@@ -129,6 +140,137 @@ class FreeIdScanner implements Closeable
         return false;
     }
 
+    /**
+     * Looks for a free id in the {@link IdRange} containing {@code nearId}, or in one of the {@code maxRangeDistance} ranges on either side of it,
+     * and picks the one closest to {@code nearId}. All free ids in those ranges are found and marked as reserved in one go, just like ids placed
+     * into the cache, so that subsequent requests for ids near the same ranges are served from memory. Those of them which are still unused when
+     * ids near other ranges are requested are handed over to the cache. This is a best-effort lookup which doesn't wait for an ongoing scan and
+     * doesn't consider ids that have already been placed into the cache.
+     *
+     * @param nearId the id to find a free id close to.
+     * @param maxRangeDistance number of ranges on either side of the range containing {@code nearId} to look in.
+     * @param cursorTracer for tracing page accesses.
+     * @return a reserved free id close to {@code nearId}, or {@link IndexedIdGenerator#NO_ID} if there was no such id or if the scan lock was busy.
+     */
+    long tryReserveIdNear( long nearId, int maxRangeDistance, PageCursorTracer cursorTracer )
+    {
+        if ( nearId < 0 || !lock.tryLock() )
+        {
+            return IndexedIdGenerator.NO_ID;
+        }
+
+        try
+        {
+            long nearRangeIndex = nearId / idsPerEntry;
+            long lowRangeIndex = Math.max( 0, nearRangeIndex - maxRangeDistance );
+            long highRangeIndex = nearRangeIndex + maxRangeDistance + 1;
+            boolean loaded = lowRangeIndex >= nearIdsLowRangeIndex && highRangeIndex <= nearIdsHighRangeIndex;
+            if ( !loaded )
+            {
+                if ( !atLeastOneIdOnFreelist.get() )
+                {
+                    return IndexedIdGenerator.NO_ID;
+                }
+                loadNearIds( lowRangeIndex, highRangeIndex, cursorTracer );
+            }
+            return takeNearId( nearId, lowRangeIndex * idsPerEntry, highRangeIndex * idsPerEntry );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return whether or not there may be free ids that {@link #tryReserveIdNear(long, int, PageCursorTracer)} could return.
+     */
+    boolean mayHaveFreeIds()
+    {
+        return atLeastOneIdOnFreelist.get() || !nearIds.isEmpty();
+    }
+
+    private void loadNearIds( long lowRangeIndex, long highRangeIndex, PageCursorTracer cursorTracer ) throws IOException
+    {
+        MutableLongList foundIds = new LongArrayList();
+        try ( Seeker<IdRangeKey,IdRange> seeker = tree.seek( new IdRangeKey( lowRangeIndex ), new IdRangeKey( highRangeIndex ), cursorTracer ) )
+        {
+            while ( seeker.next() )
+            {
+                IdRange range = seeker.value();
+                long baseId = seeker.key().getIdRangeIdx() * idsPerEntry;
+                boolean differentGeneration = generation != range.getGeneration();
+                for ( int i = 0; i < idsPerEntry; i++ )
+                {
+                    if ( isFree( range.getState( i ), differentGeneration ) )
+                    {
+                        foundIds.add( baseId + i );
+                    }
+                }
+            }
+        }
+
+        if ( !nearIds.isEmpty() || !foundIds.isEmpty() )
+        {
+            try ( ReservedMarker marker = markerProvider.getMarker( cursorTracer ) )
+            {
+                // The ids left from the previous ranges are reserved already, so they can go straight into the cache
+                nearIds.forEach( id ->
+                {
+                    if ( cache.offer( id ) )
+                    {
+                        monitor.cached( id );
+                    }
+                    else
+                    {
+                        marker.markUnreserved( id );
+                    }
+                } );
+                foundIds.forEach( marker::markReserved );
+            }
+        }
+        nearIds.clear();
+        nearIds.addAll( foundIds );
+        nearIdsLowRangeIndex = lowRangeIndex;
+        nearIdsHighRangeIndex = highRangeIndex;
+    }
+
+    /**
+     * Takes the id in {@link #nearIds} closest to {@code nearId}, if it's between {@code lowId} (inclusive) and {@code highId} (exclusive).
+     */
+    private long takeNearId( long nearId, long lowId, long highId )
+    {
+        int index = nearIds.binarySearch( nearId );
+        if ( index < 0 )
+        {
+            int insertionIndex = -index - 1;
+            int lowerIndex = insertionIndex - 1;
+            if ( insertionIndex == nearIds.size() ||
+                 (lowerIndex >= 0 && nearId - nearIds.get( lowerIndex ) <= nearIds.get( insertionIndex ) - nearId) )
+            {
+                index = lowerIndex;
+            }
+            else
+            {
+                index = insertionIndex;
+            }
+        }
+        if ( index < 0 )
+        {
+            return IndexedIdGenerator.NO_ID;
+        }
+        long id = nearIds.get( index );
+        if ( id < lowId || id >= highId )
+        {
+            return IndexedIdGenerator.NO_ID;
+        }
+        nearIds.removeAtIndex( index );
+        return id;
+    }
+
     private boolean scanLock( boolean awaitOngoing )
     {
         if ( awaitOngoing )
@@ -160,7 +302,9 @@ class FreeIdScanner implements Closeable
                     }
                 }
                 while ( id != -1 );
+                nearIds.forEach( marker::markUnreserved );
             }
+            forgetNearIds();
             atLeastOneIdOnFreelist.set( true );
         }
         finally
@@ -169,6 +313,13 @@ class FreeIdScanner implements Closeable
         }
     }
 
+    private void forgetNearIds()
+    {
+        nearIds.clear();
+        nearIdsLowRangeIndex = -1;
+        nearIdsHighRangeIndex = -1;
+    }
+
     private void placeIdsInCache( LinkedChunkLongArray pendingItemsToCache )
     {
         pendingItemsToCache.accept( id ->
@@ -193,6 +344,11 @@ class FreeIdScanner implements Closeable
     private boolean findSomeIdsToCache( LinkedChunkLongArray pendingItemsToCache, int maxItemsToCache, PageCursorTracer cursorTracer ) throws IOException
     {
         boolean startedNow = ongoingScanRangeIndex == null;
+        if ( startedNow && nearIds.isEmpty() )
+        {
+            // A new round of scanning may find ids that have been freed since, also near ranges which had no free ids before
+            forgetNearIds();
+        }
         IdRangeKey from = ongoingScanRangeIndex == null ? LOW_KEY : new IdRangeKey( ongoingScanRangeIndex );
         boolean seekerExhausted = false;
         try ( Seeker<IdRangeKey,IdRange> scanner = tree.seek( from, HIGH_KEY, cursorTracer ) )
@@ -230,14 +386,18 @@ class FreeIdScanner implements Closeable
 
         for ( int i = 0; i < idsPerEntry && pendingItemsToCache.size() < maxItemsToCache; i++ )
         {
-            final IdState state = range.getState( i );
-            if ( state == FREE || (differentGeneration && state == DELETED) )
+            if ( isFree( range.getState( i ), differentGeneration ) )
             {
                 pendingItemsToCache.add( baseId + i );
             }
         }
     }
 
+    private static boolean isFree( IdState state, boolean differentGeneration )
+    {
+        return state == FREE || (differentGeneration && state == DELETED);
+    }
+
     @Override
     public void close() throws IOException
     {   // nothing to close
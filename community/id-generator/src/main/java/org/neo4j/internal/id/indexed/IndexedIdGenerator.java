@@ -219,6 +219,12 @@ public class IndexedIdGenerator implements IdGenerator
      */
     static final int IDS_PER_ENTRY = 128;
 
+    /**
+     * Number of {@link IdRange id ranges} on either side of the range containing the hint that {@link #nextIdNear(long, PageCursorTracer)}
+     * looks for free ids in before falling back to {@link #nextId(PageCursorTracer)}.
+     */
+    static final int NEAR_ID_RANGE_DISTANCE = 1;
+
     /**
      * Used for id generators that generally has low activity.
      * 2^8 == 256 and one ID takes up 8B, which results in a memory usage of 256 * 8 = ~2k memory
@@ -442,6 +448,29 @@ public class IndexedIdGenerator implements IdGenerator
         return id;
     }
 
+    /**
+     * Prefers a free id in the same, or a neighbouring, {@link IdRange} as {@code nearId}, which means that the returned id will likely live on the same
+     * or a nearby page as the record with id {@code nearId}. If no such free id can be found cheaply then this falls back to {@link #nextId(PageCursorTracer)}.
+     */
+    @Override
+    public long nextIdNear( long nearId, PageCursorTracer cursorTracer )
+    {
+        assertNotReadOnly();
+        long id = scanner.tryReserveIdNear( nearId, NEAR_ID_RANGE_DISTANCE, cursorTracer );
+        if ( id != NO_ID )
+        {
+            monitor.allocatedFromReused( id );
+            return id;
+        }
+        return nextId( cursorTracer );
+    }
+
+    @Override
+    public boolean canUseNearIdHint()
+    {
+        return !readOnly && scanner.mayHaveFreeIds();
+    }
+
     @Override
     public org.neo4j.internal.id.IdRange nextIdBatch( int size, boolean forceConsecutiveAllocation, PageCursorTracer cursorTracer )
     {
@@ -140,6 +140,58 @@ class IndexedIdGeneratorTest
         assertEquals( id, nextTimeId );
     }
 
+    @Test
+    void shouldAllocateFreeIdNearHint() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        allocateAndMarkUsed( 1_000 );
+        for ( long id : new long[]{10, 900} )
+        {
+            markDeleted( id );
+            markFree( id );
+        }
+
+        // when/then
+        assertEquals( 900, idGenerator.nextIdNear( 905, NULL ) );
+        assertEquals( 10, idGenerator.nextIdNear( 12, NULL ) );
+    }
+
+    @Test
+    void shouldFallBackToRegularAllocationWhenNoFreeIdNearHint() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        allocateAndMarkUsed( 1_000 );
+        markDeleted( 10 );
+        markFree( 10 );
+
+        // when
+        long id = idGenerator.nextIdNear( 900, NULL );
+
+        // then the free id far away from the hint is still preferred over high id
+        assertEquals( 10, id );
+        assertEquals( 1_000, idGenerator.getHighId() );
+    }
+
+    @Test
+    void shouldNotAllocateSameFreeIdNearHintTwice() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        allocateAndMarkUsed( 200 );
+        markDeleted( 150 );
+        markFree( 150 );
+
+        // when
+        long first = idGenerator.nextIdNear( 150, NULL );
+        long second = idGenerator.nextIdNear( 150, NULL );
+
+        // then
+        assertEquals( 150, first );
+        assertEquals( 200, second );
+    }
+
     @Test
     void shouldNotAllocateFreedIdUntilReused() throws IOException
     {
@@ -1032,6 +1084,81 @@ class IndexedIdGeneratorTest
         }
     }
 
+    @Test
+    void shouldServeFreeIdsNearSameHintFromMemory() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        allocateAndMarkUsed( 200 );
+        for ( long id : new long[]{10, 20, 30} )
+        {
+            markDeleted( id );
+            markFree( id );
+        }
+        assertEquals( 10, idGenerator.nextIdNear( 12, NULL ) );
+
+        // when
+        var pageCacheTracer = new DefaultPageCacheTracer();
+        long id;
+        try ( var cursorTracer = pageCacheTracer.createPageCursorTracer( "shouldServeFreeIdsNearSameHintFromMemory" ) )
+        {
+            id = idGenerator.nextIdNear( 28, cursorTracer );
+        }
+
+        // then
+        assertEquals( 30, id );
+        assertEquals( 0, pageCacheTracer.pins() );
+    }
+
+    @Test
+    void shouldHandOverUnusedFreeIdsNearPreviousHintToCache() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        allocateAndMarkUsed( 1_000 );
+        for ( long id : new long[]{10, 20, 900} )
+        {
+            markDeleted( id );
+            markFree( id );
+        }
+        assertEquals( 10, idGenerator.nextIdNear( 12, NULL ) );
+
+        // when
+        assertEquals( 900, idGenerator.nextIdNear( 905, NULL ) );
+
+        // then
+        assertEquals( 20, idGenerator.nextId( NULL ) );
+        assertEquals( 1_000, idGenerator.nextId( NULL ) );
+    }
+
+    @Test
+    void shouldOnlyBeAbleToUseNearIdHintWhenThereMayBeFreeIds() throws IOException
+    {
+        // given
+        idGenerator.start( NO_FREE_IDS, NULL );
+        allocateAndMarkUsed( 200 );
+        idGenerator.maintenance( true, NULL );
+        assertFalse( idGenerator.canUseNearIdHint() );
+
+        // when
+        markDeleted( 150 );
+        markFree( 150 );
+
+        // then
+        assertTrue( idGenerator.canUseNearIdHint() );
+    }
+
+    private void allocateAndMarkUsed( int count )
+    {
+        try ( Marker marker = idGenerator.marker( NULL ) )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                marker.markUsed( idGenerator.nextId( NULL ) );
+            }
+        }
+    }
+
     private void markUsed( long id )
     {
         try ( Marker marker = idGenerator.marker( NULL ) )
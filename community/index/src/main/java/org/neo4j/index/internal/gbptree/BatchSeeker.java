@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Seeks a batch of key ranges in a {@link GBPTree}, one range after the other, like a sequence of {@link Seeker.Factory#seek(Object, Object,
+ * org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer) seeks} would. Instead of traversing the tree from the root for every range,
+ * a seek of a range that starts in the leaf where the previous range ended continues from that leaf. Seeking ranges sorted in ascending
+ * order, such as a sorted batch of exact lookups, therefore traverses the internal nodes about once per visited leaf instead of once per range.
+ * The batch seeker holds on to its underlying page cursor until it's {@link #close() closed}, typically using try-with-resource clause.
+ *
+ * @param <KEY> type of keys
+ * @param <VALUE> type of values
+ * @see GBPTree#batchSeeker(org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer)
+ */
+public interface BatchSeeker<KEY,VALUE> extends Closeable
+{
+    /**
+     * Seeks hits in the given key range. Hits are iterated over using the returned {@link Seeker}, which is only valid until the next call
+     * to this method. Closing the returned {@link Seeker} has no effect, the resources are released when this batch seeker is closed.
+     * <p>
+     * Only ranges seeking forwards are supported, i.e. {@code fromInclusive} must not be bigger than {@code toExclusive}.
+     * Ranges can be seeked in any order, but only ranges in ascending order benefit from continuing from the previous range.
+     *
+     * @param fromInclusive lower bound of the range to seek (inclusive).
+     * @param toExclusive higher bound of the range to seek (exclusive).
+     * @return a {@link Seeker} used to iterate over the hits within the specified key range.
+     * @throws IllegalArgumentException if {@code fromInclusive} is bigger than {@code toExclusive}.
+     * @throws IOException on error reading from index.
+     */
+    Seeker<KEY,VALUE> seek( KEY fromInclusive, KEY toExclusive ) throws IOException;
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+
+/**
+ * Builds the contents of an empty {@link GBPTree} from key/value pairs {@link #add(Object, Object) added} in strictly ascending key order.
+ * Leaves are filled up to a fill factor one after the other and internal nodes are built bottom-up along the way, instead of
+ * searching from root for every key like a {@link Writer} would. The loaded entries become visible to readers first when the bulk loader
+ * is {@link #close() closed}, typically using try-with-resource clause.
+ *
+ * @param <KEY> type of keys
+ * @param <VALUE> type of values
+ * @see GBPTree#bulkLoader(double, org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer)
+ */
+public interface BulkLoader<KEY,VALUE> extends Closeable
+{
+    /**
+     * Adds a key/value pair to the tree. The key must be greater than the key previously added.
+     *
+     * @param key key to add.
+     * @param value value to associate with the key.
+     * @throws IllegalArgumentException if {@code key} isn't greater than previously added key.
+     * @throws UncheckedIOException on index access error.
+     */
+    void add( KEY key, VALUE value );
+}
@@ -36,7 +36,11 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
@@ -62,11 +66,16 @@ import static org.neo4j.index.internal.gbptree.Generation.unstableGeneration;
 import static org.neo4j.index.internal.gbptree.GenerationSafePointer.MIN_GENERATION;
 import static org.neo4j.index.internal.gbptree.Header.CARRY_OVER_PREVIOUS_HEADER;
 import static org.neo4j.index.internal.gbptree.Header.replace;
+import static org.neo4j.index.internal.gbptree.InternalTreeLogic.InPlaceResult.NOT_FOUND;
+import static org.neo4j.index.internal.gbptree.InternalTreeLogic.InPlaceResult.STRUCTURE_CHANGE_NEEDED;
 import static org.neo4j.index.internal.gbptree.PageCursorUtil.checkOutOfBounds;
 import static org.neo4j.index.internal.gbptree.PointerChecking.assertNoSuccessor;
 import static org.neo4j.index.internal.gbptree.SeekCursor.DEFAULT_MAX_READ_AHEAD;
 import static org.neo4j.index.internal.gbptree.SeekCursor.LEAF_LEVEL;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
 import static org.neo4j.internal.helpers.Exceptions.withMessage;
+import static org.neo4j.io.IOUtils.closeAllUnchecked;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 
 /**
@@ -93,6 +102,8 @@ import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
  * <p>
  * A single writer w/ multiple concurrent readers is supported. Assuming usage adheres to this
  * constraint neither writer nor readers are blocking. Readers are virtually garbage-free.
+ * Optionally multiple {@link #concurrentWriter(PageCursorTracer) concurrent writers} can be used instead of the single writer.
+ * They change different leaves in parallel, but serialize changes that affect the structure of the tree, like splits.
  * <p>
  * An reader of GB+Tree is a {@link SeekCursor} that returns result as it finds them.
  * As the cursor move over keys/values, returned results are considered "behind" it
@@ -384,6 +395,35 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
      */
     private final SingleWriter writer;
 
+    /**
+     * Creates {@link TreeNode} instances for {@link ConcurrentWriter concurrent writers}, one each, since a {@link TreeNode} can only be used
+     * by one writer at a time.
+     */
+    private final Supplier<TreeNode<KEY,VALUE>> treeNodeFactory;
+
+    /**
+     * {@link ConcurrentWriter Concurrent writers} that are closed and can be handed out again.
+     */
+    private final ConcurrentLinkedQueue<ConcurrentWriter> idleConcurrentWriters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Coordinates {@link ConcurrentWriter concurrent writers}. Changes made in place in a single leaf are made holding the read lock
+     * and the latch of that leaf from {@link #leafLatches}. Changes to the structure of the tree, e.g. splits, merges, successors or
+     * a new root, are made holding the write lock.
+     */
+    private final ReadWriteLock structureLock = new ReentrantReadWriteLock();
+
+    /**
+     * Incremented for every change made holding the write lock of {@link #structureLock}, so that concurrent writers know when the path
+     * down the tree they remember is no longer valid.
+     */
+    private volatile long structureVersion;
+
+    /**
+     * Created when the first {@link ConcurrentWriter concurrent writer} is.
+     */
+    private volatile TreeNodeLatches leafLatches;
+
     /**
      * Tells whether or not there have been made changes (using {@link #writer(PageCursorTracer)}) to this tree
      * since last call to {@link #checkpoint(IOLimiter, PageCursorTracer)}. This variable is set when calling {@link #writer(PageCursorTracer)}
@@ -400,7 +440,7 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
      *     <li>Checkpoint and close</li>
      *     <li>Write and checkpoint</li>
      * </ul>
-     * For those scenarios, writer lock is taken.
+     * For those scenarios, writer lock is taken. {@link ConcurrentWriter Concurrent writers} share the writer lock amongst themselves.
      * <p>
      * If cleaning of crash pointers is needed the tree can not be allowed to perform a checkpoint until that job
      * has finished. For this scenario, cleaner lock is taken.
@@ -607,6 +647,7 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
                 OffloadStoreImpl<KEY,VALUE> offloadStore = buildOffload( layout, freeList, pagedFile, pageSize );
                 this.bTreeNode = format.create( pageSize, layout, offloadStore );
                 this.writer = new SingleWriter( new InternalTreeLogic<>( freeList, bTreeNode, layout, monitor ) );
+                this.treeNodeFactory = () -> format.create( pageSize, layout, offloadStore );
 
                 // Create or load state
                 if ( created )
@@ -968,6 +1009,24 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         return metaCursor;
     }
 
+    /**
+     * Reads meta information of an existing index file without opening the tree, e.g. to find out which format it has.
+     *
+     * @param pageCache {@link PageCache} to use to map index file
+     * @param indexFile {@link Path} containing the actual index
+     * @param cursorTracer underlying page cursor tracer
+     * @return {@link Meta} of the index.
+     * @throws IOException On page cache error
+     * @throws MetadataMismatchException if meta page is missing (tree not fully initialized)
+     */
+    static Meta readMeta( PageCache pageCache, Path indexFile, PageCursorTracer cursorTracer ) throws IOException, MetadataMismatchException
+    {
+        try ( PagedFile pagedFile = openExistingIndexFile( pageCache, indexFile, cursorTracer, immutable.empty() ) )
+        {
+            return readMeta( null, pagedFile, cursorTracer );
+        }
+    }
+
     private static <KEY,VALUE> Meta readMeta( Layout<KEY,VALUE> layout, PagedFile pagedFile, PageCursorTracer cursorTracer )
             throws IOException
     {
@@ -1008,8 +1067,28 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         return seekInternal( fromInclusive, toExclusive, cursorTracer, DEFAULT_MAX_READ_AHEAD, SeekCursor.NO_MONITOR, LEAF_LEVEL );
     }
 
+    /**
+     * Creates a {@link BatchSeeker} for seeking many ranges, e.g. a sorted batch of exact lookups, one after the other.
+     * Each seek continues from the leaf where the previous seek ended if the new range starts in it,
+     * instead of traversing the tree from the root for every range like separate {@link #seek(Object, Object, PageCursorTracer) seeks} would.
+     * Caller is responsible for closing the returned {@link BatchSeeker}.
+     *
+     * @param cursorTracer underlying page cursor tracer.
+     * @return a {@link BatchSeeker} for seeking ranges in this tree.
+     */
+    public BatchSeeker<KEY,VALUE> batchSeeker( PageCursorTracer cursorTracer )
+    {
+        return new TreeBatchSeeker( cursorTracer );
+    }
+
     private Seeker<KEY,VALUE> seekInternal( KEY fromInclusive, KEY toExclusive, PageCursorTracer cursorTracer, int readAheadLength, SeekCursor.Monitor monitor,
             int searchLevel ) throws IOException
+    {
+        return seekInternal( fromInclusive, toExclusive, cursorTracer, readAheadLength, monitor, searchLevel, false );
+    }
+
+    private SeekCursor<KEY,VALUE> seekInternal( KEY fromInclusive, KEY toExclusive, PageCursorTracer cursorTracer, int readAheadLength,
+            SeekCursor.Monitor monitor, int searchLevel, boolean reusable ) throws IOException
     {
         long generation = this.generation;
         long stableGeneration = stableGeneration( generation );
@@ -1021,7 +1100,7 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         // Returns cursor which is now initiated with left-most leaf node for the specified range
         return new SeekCursor<>( cursor, bTreeNode, fromInclusive, toExclusive, layout,
                 stableGeneration, unstableGeneration, generationSupplier, rootCatchupSupplier.get(), rootGeneration,
-                exceptionDecorator, readAheadLength, searchLevel, monitor, cursorTracer );
+                exceptionDecorator, readAheadLength, searchLevel, monitor, cursorTracer, reusable );
     }
 
     /**
@@ -1399,6 +1478,118 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         return writer;
     }
 
+    /**
+     * Use default value for ratioToKeepInLeftOnSplit
+     * @param cursorTracer underlying page cursor tracer
+     * @see GBPTree#concurrentWriter(double, PageCursorTracer)
+     */
+    public Writer<KEY,VALUE> concurrentWriter( PageCursorTracer cursorTracer ) throws IOException
+    {
+        return concurrentWriter( InternalTreeLogic.DEFAULT_SPLIT_RATIO, cursorTracer );
+    }
+
+    /**
+     * Returns a {@link Writer} able to modify the index, i.e. insert and remove keys/values, concurrently with other writers returned from
+     * this method. After usage the returned writer must be closed, typically by using try-with-resource clause.
+     * <p>
+     * Concurrent writers change different leaves of the tree in parallel. Changes which affect the structure of the tree, e.g. splitting
+     * a full leaf or the first change to a leaf after a checkpoint, wait for other concurrent writers to finish their current change
+     * and are made one at a time. Concurrent writers exclude the {@link #writer(PageCursorTracer) single writer} and checkpoints, just like
+     * the single writer does. Note that a {@link ValueMerger} may be called more than once for the same change.
+     *
+     * @param ratioToKeepInLeftOnSplit Decide how much to keep in left node on split, 0=keep nothing, 0.5=split 50-50, 1=keep everything.
+     * @param cursorTracer underlying page cursor tracer
+     * @return a {@link Writer} for this index, which must be {@link Writer#close() closed} after use. It must only be used by one thread.
+     * @throws IOException on error accessing the index.
+     */
+    public Writer<KEY,VALUE> concurrentWriter( double ratioToKeepInLeftOnSplit, PageCursorTracer cursorTracer ) throws IOException
+    {
+        assertNotReadOnly( "Open concurrent tree writer." );
+        ConcurrentWriter concurrentWriter = idleConcurrentWriters.poll();
+        if ( concurrentWriter == null )
+        {
+            concurrentWriter = new ConcurrentWriter( new InternalTreeLogic<>( freeList, treeNodeFactory.get(), layout, monitor ), leafLatches() );
+        }
+        concurrentWriter.initialize( ratioToKeepInLeftOnSplit, cursorTracer );
+        changesSinceLastCheckpoint = true;
+        return concurrentWriter;
+    }
+
+    /**
+     * Returns a {@link BulkLoader} able to build the contents of this tree from key/value pairs added in strictly ascending key order.
+     * The tree must be empty. Leaves and internal nodes are written bottom-up, each filled up to {@code fillFactor} of its capacity,
+     * and the built tree replaces the empty root when the bulk loader is {@link BulkLoader#close() closed}. Until then the tree is
+     * seen as empty by readers. If adding fails the tree is left empty.
+     * <p>
+     * The bulk loader excludes writers and checkpoints, just like the {@link #writer(PageCursorTracer) single writer} does.
+     * After usage the returned bulk loader must be closed, typically by using try-with-resource clause.
+     *
+     * @param fillFactor how much of each tree node to fill, larger than 0 and at most 1. Tree nodes filled less than completely
+     * leave room for future insertions without splitting.
+     * @param cursorTracer underlying page cursor tracer
+     * @return a {@link BulkLoader} for this index, which must be {@link BulkLoader#close() closed} after use.
+     * @throws IOException on error accessing the index.
+     * @throws IllegalStateException if this tree isn't empty.
+     */
+    public BulkLoader<KEY,VALUE> bulkLoader( double fillFactor, PageCursorTracer cursorTracer ) throws IOException
+    {
+        Preconditions.checkArgument( fillFactor > 0 && fillFactor <= 1, "Fill factor must be larger than 0 and at most 1, but was %f", fillFactor );
+        assertNotReadOnly( "Open tree bulk loader." );
+        TreeBulkLoader bulkLoader = new TreeBulkLoader( fillFactor, cursorTracer );
+        bulkLoader.initialize();
+        changesSinceLastCheckpoint = true;
+        return bulkLoader;
+    }
+
+    private TreeNodeLatches leafLatches()
+    {
+        TreeNodeLatches latches = leafLatches;
+        if ( latches == null )
+        {
+            synchronized ( this )
+            {
+                latches = leafLatches;
+                if ( latches == null )
+                {
+                    latches = new TreeNodeLatches();
+                    leafLatches = latches;
+                }
+            }
+        }
+        return latches;
+    }
+
+    /**
+     * Handles changes of root after an insert or remove, i.e. growing the tree with a new root or a new successor of the root.
+     * Re-initializes the path of {@code treeLogic} if root changes.
+     */
+    private void handleRootChanges( PageCursor cursor, StructurePropagation<KEY> structurePropagation, InternalTreeLogic<KEY,VALUE> treeLogic,
+            double ratioToKeepInLeftOnSplit, long stableGeneration, long unstableGeneration, PageCursorTracer cursorTracer ) throws IOException
+    {
+        if ( structurePropagation.hasRightKeyInsert )
+        {
+            // New root
+            long newRootId = freeList.acquireNewId( stableGeneration, unstableGeneration, cursorTracer );
+            PageCursorUtil.goTo( cursor, "new root", newRootId );
+
+            bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+            bTreeNode.setChildAt( cursor, structurePropagation.midChild, 0,
+                    stableGeneration, unstableGeneration );
+            bTreeNode.insertKeyAndRightChildAt( cursor, structurePropagation.rightKey, structurePropagation.rightChild, 0, 0,
+                    stableGeneration, unstableGeneration, cursorTracer );
+            TreeNode.setKeyCount( cursor, 1 );
+            setRoot( newRootId, unstableGeneration );
+            treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+            monitor.treeGrowth();
+        }
+        else if ( structurePropagation.hasMidChildUpdate )
+        {
+            setRoot( GenerationSafePointerPair.pointer( structurePropagation.midChild ), unstableGeneration );
+            treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+        }
+        structurePropagation.clear();
+    }
+
     private void setRoot( long rootId, long rootGeneration )
     {
         this.root = new Root( rootId, rootGeneration );
@@ -1720,13 +1911,6 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
             checkOutOfBounds( cursor );
         }
 
-        private void setRoot( long rootPointer )
-        {
-            long rootId = GenerationSafePointerPair.pointer( rootPointer );
-            GBPTree.this.setRoot( rootId, unstableGeneration );
-            treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
-        }
-
         @Override
         public VALUE remove( KEY key )
         {
@@ -1755,26 +1939,8 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
 
         private void handleStructureChanges( PageCursorTracer cursorTracer ) throws IOException
         {
-            if ( structurePropagation.hasRightKeyInsert )
-            {
-                // New root
-                long newRootId = freeList.acquireNewId( stableGeneration, unstableGeneration, cursorTracer );
-                PageCursorUtil.goTo( cursor, "new root", newRootId );
-
-                bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
-                bTreeNode.setChildAt( cursor, structurePropagation.midChild, 0,
-                        stableGeneration, unstableGeneration );
-                bTreeNode.insertKeyAndRightChildAt( cursor, structurePropagation.rightKey, structurePropagation.rightChild, 0, 0,
-                        stableGeneration, unstableGeneration, cursorTracer );
-                TreeNode.setKeyCount( cursor, 1 );
-                setRoot( newRootId );
-                monitor.treeGrowth();
-            }
-            else if ( structurePropagation.hasMidChildUpdate )
-            {
-                setRoot( structurePropagation.midChild );
-            }
-            structurePropagation.clear();
+            handleRootChanges( cursor, structurePropagation, treeLogic, ratioToKeepInLeftOnSplit, stableGeneration, unstableGeneration,
+                    cursorTracer );
         }
 
         @Override
@@ -1799,6 +1965,531 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         }
     }
 
+    /**
+     * A {@link Writer} which can be used concurrently with other {@link ConcurrentWriter concurrent writers}, see
+     * {@link #concurrentWriter(double, PageCursorTracer)}.
+     * <p>
+     * Each change is first attempted in place in the leaf where the key belongs, holding the read lock of {@link #structureLock}
+     * and the latch of that leaf. If the change would affect anything else than that leaf it's instead made holding the write lock
+     * of {@link #structureLock}, exactly like {@link SingleWriter} would make it.
+     * <p>
+     * The path down the tree remembered by {@link #treeLogic} is only valid as long as no other writer has changed the structure
+     * of the tree, which is tracked using {@link #structureVersion}. If it has, the path is started over from root.
+     */
+    private class ConcurrentWriter implements Writer<KEY,VALUE>
+    {
+        private final InternalTreeLogic<KEY,VALUE> treeLogic;
+        private final StructurePropagation<KEY> structurePropagation;
+        private final TreeNodeLatches latches;
+        private boolean open;
+        private PageCursor cursor;
+        private PageCursorTracer cursorTracer;
+
+        // Writer can't live past a checkpoint because of the mutex with checkpoint,
+        // therefore safe to locally cache these generation fields from the volatile generation in the tree
+        private long stableGeneration;
+        private long unstableGeneration;
+        private double ratioToKeepInLeftOnSplit;
+
+        /**
+         * The {@link #structureVersion} that the path of {@link #treeLogic} is valid for, or {@code -1} if the path needs to be
+         * started over from root regardless.
+         */
+        private long pathStructureVersion;
+
+        ConcurrentWriter( InternalTreeLogic<KEY,VALUE> treeLogic, TreeNodeLatches latches )
+        {
+            this.structurePropagation = new StructurePropagation<>( layout.newKey(), layout.newKey(), layout.newKey() );
+            this.treeLogic = treeLogic;
+            this.latches = latches;
+        }
+
+        void initialize( double ratioToKeepInLeftOnSplit, PageCursorTracer cursorTracer ) throws IOException
+        {
+            // Block here until cleaning has completed, if cleaning was required
+            lock.concurrentWriterLock();
+            open = true;
+            boolean success = false;
+            try
+            {
+                assertRecoveryCleanSuccessful();
+                cursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK, cursorTracer );
+                this.cursorTracer = cursorTracer;
+                stableGeneration = stableGeneration( generation );
+                unstableGeneration = unstableGeneration( generation );
+                this.ratioToKeepInLeftOnSplit = ratioToKeepInLeftOnSplit;
+                pathStructureVersion = -1;
+                success = true;
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    close();
+                }
+            }
+        }
+
+        @Override
+        public void put( KEY key, VALUE value )
+        {
+            merge( key, value, ValueMergers.overwrite() );
+        }
+
+        @Override
+        public void merge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger )
+        {
+            internalMerge( key, value, valueMerger, true );
+        }
+
+        @Override
+        public void mergeIfExists( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger )
+        {
+            internalMerge( key, value, valueMerger, false );
+        }
+
+        private void internalMerge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger, boolean createIfNotExists )
+        {
+            try
+            {
+                InternalTreeLogic.InPlaceResult result;
+                Lock sharedLock = structureLock.readLock();
+                sharedLock.lock();
+                try
+                {
+                    Lock latch = moveToLeafAndLatch( key );
+                    try
+                    {
+                        result = treeLogic.insertInPlace( cursor, key, value, valueMerger, createIfNotExists,
+                                stableGeneration, unstableGeneration, cursorTracer );
+                    }
+                    finally
+                    {
+                        latch.unlock();
+                    }
+                }
+                finally
+                {
+                    sharedLock.unlock();
+                }
+
+                if ( result == STRUCTURE_CHANGE_NEEDED )
+                {
+                    Lock exclusiveLock = structureLock.writeLock();
+                    exclusiveLock.lock();
+                    boolean success = false;
+                    try
+                    {
+                        ensurePathValid();
+                        treeLogic.insert( cursor, structurePropagation, key, value, valueMerger, createIfNotExists,
+                                stableGeneration, unstableGeneration, cursorTracer );
+                        handleRootChanges( cursor, structurePropagation, treeLogic, ratioToKeepInLeftOnSplit,
+                                stableGeneration, unstableGeneration, cursorTracer );
+                        success = true;
+                    }
+                    finally
+                    {
+                        structureVersion++;
+                        pathStructureVersion = success ? structureVersion : -1;
+                        exclusiveLock.unlock();
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                pathStructureVersion = -1;
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                pathStructureVersion = -1;
+                appendTreeInformation( t );
+                throw t;
+            }
+
+            checkOutOfBounds( cursor );
+        }
+
+        @Override
+        public VALUE remove( KEY key )
+        {
+            VALUE result;
+            try
+            {
+                InternalTreeLogic.InPlaceResult inPlaceResult;
+                VALUE removed = layout.newValue();
+                Lock sharedLock = structureLock.readLock();
+                sharedLock.lock();
+                try
+                {
+                    Lock latch = moveToLeafAndLatch( key );
+                    try
+                    {
+                        inPlaceResult = treeLogic.removeInPlace( cursor, key, removed, stableGeneration, unstableGeneration, cursorTracer );
+                    }
+                    finally
+                    {
+                        latch.unlock();
+                    }
+                }
+                finally
+                {
+                    sharedLock.unlock();
+                }
+
+                if ( inPlaceResult == STRUCTURE_CHANGE_NEEDED )
+                {
+                    Lock exclusiveLock = structureLock.writeLock();
+                    exclusiveLock.lock();
+                    boolean success = false;
+                    try
+                    {
+                        ensurePathValid();
+                        result = treeLogic.remove( cursor, structurePropagation, key, removed,
+                                stableGeneration, unstableGeneration, cursorTracer );
+                        handleRootChanges( cursor, structurePropagation, treeLogic, ratioToKeepInLeftOnSplit,
+                                stableGeneration, unstableGeneration, cursorTracer );
+                        success = true;
+                    }
+                    finally
+                    {
+                        structureVersion++;
+                        pathStructureVersion = success ? structureVersion : -1;
+                        exclusiveLock.unlock();
+                    }
+                }
+                else
+                {
+                    result = inPlaceResult == NOT_FOUND ? null : removed;
+                }
+            }
+            catch ( IOException e )
+            {
+                pathStructureVersion = -1;
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable e )
+            {
+                pathStructureVersion = -1;
+                appendTreeInformation( e );
+                throw e;
+            }
+
+            checkOutOfBounds( cursor );
+            return result;
+        }
+
+        /**
+         * Moves {@link #cursor} to the leaf where {@code key} belongs and locks the latch of that leaf.
+         * Must be called holding the read lock of {@link #structureLock}.
+         *
+         * @return the locked latch, which must be unlocked by the caller.
+         */
+        private Lock moveToLeafAndLatch( KEY key ) throws IOException
+        {
+            ensurePathValid();
+            treeLogic.moveToLeaf( cursor, key, stableGeneration, unstableGeneration, cursorTracer );
+            Lock latch = latches.latch( cursor.getCurrentPageId() );
+            latch.lock();
+            return latch;
+        }
+
+        private void ensurePathValid() throws IOException
+        {
+            long currentStructureVersion = structureVersion;
+            if ( pathStructureVersion != currentStructureVersion )
+            {
+                root.goTo( cursor );
+                assert assertNoSuccessor( cursor, stableGeneration, unstableGeneration );
+                treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+                pathStructureVersion = currentStructureVersion;
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            if ( !open )
+            {
+                throw new IllegalStateException( "Tried to close concurrent writer of " + GBPTree.this +
+                        ", but writer is already closed." );
+            }
+            open = false;
+            if ( cursor != null )
+            {
+                cursor.close();
+                cursor = null;
+            }
+            lock.concurrentWriterUnlock();
+            idleConcurrentWriters.offer( this );
+        }
+    }
+
+    /**
+     * Builds an empty tree bottom-up, see {@link #bulkLoader(double, PageCursorTracer)}.
+     * <p>
+     * Every level of the tree being built has a tree node which is currently being filled. When a tree node at some level can't fit
+     * another key, a new tree node is started as its right sibling and the first key of that new tree node, together with a pointer to it,
+     * is added to the level above. All tree nodes are new and only reachable from the new root, which isn't set until {@link #close()}.
+     */
+    private class TreeBulkLoader implements BulkLoader<KEY,VALUE>
+    {
+        private final double fillFactor;
+        private final PageCursorTracer cursorTracer;
+        /**
+         * Tree nodes currently being filled, from leaf level at index 0 and up.
+         */
+        private final List<BulkLoadLevel> levels = new ArrayList<>();
+        private final KEY previousKey;
+        private boolean hasPreviousKey;
+        private boolean failed;
+        private boolean closed;
+        private long previousRootId;
+
+        // Bulk loader can't live past a checkpoint because of the mutex with checkpoint,
+        // therefore safe to locally cache these generation fields from the volatile generation in the tree
+        private long stableGeneration;
+        private long unstableGeneration;
+
+        TreeBulkLoader( double fillFactor, PageCursorTracer cursorTracer )
+        {
+            this.fillFactor = fillFactor;
+            this.cursorTracer = cursorTracer;
+            this.previousKey = layout.newKey();
+        }
+
+        void initialize() throws IOException
+        {
+            // Block here until cleaning has completed, if cleaning was required
+            lock.writerAndCleanerLock();
+            boolean success = false;
+            try
+            {
+                assertRecoveryCleanSuccessful();
+                stableGeneration = stableGeneration( generation );
+                unstableGeneration = unstableGeneration( generation );
+                try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK, cursorTracer ) )
+                {
+                    if ( !TreeNode.isLeaf( cursor ) || TreeNode.keyCount( cursor ) != 0 )
+                    {
+                        throw new IllegalStateException( "Can only bulk load into an empty tree, but " + GBPTree.this + " isn't empty" );
+                    }
+                    checkOutOfBounds( cursor );
+                }
+                previousRootId = root.id();
+                success = true;
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    lock.writerAndCleanerUnlock();
+                }
+            }
+        }
+
+        @Override
+        public void add( KEY key, VALUE value )
+        {
+            if ( closed )
+            {
+                throw new IllegalStateException( "Tried to add to bulk loader of " + GBPTree.this + ", but bulk loader is closed." );
+            }
+            if ( hasPreviousKey && layout.compare( previousKey, key ) >= 0 )
+            {
+                failed = true;
+                throw new IllegalArgumentException( format( "Keys must be added in strictly ascending order, but %s was added after %s", key, previousKey ) );
+            }
+
+            try
+            {
+                bTreeNode.validateKeyValueSize( key, value );
+                if ( levels.isEmpty() )
+                {
+                    startLevel( LEAF );
+                }
+                BulkLoadLevel leaves = levels.get( 0 );
+                if ( leaves.keyCount > 0 && bTreeNode.leafExceedsFillFactor( leaves.cursor, leaves.keyCount, key, value, fillFactor ) )
+                {
+                    long previousLeafId = leaves.nodeId;
+                    leaves.startNextNode();
+                    addToParent( 1, key, previousLeafId, leaves.nodeId );
+                }
+                bTreeNode.insertKeyValueAt( leaves.cursor, key, value, leaves.keyCount, leaves.keyCount, stableGeneration, unstableGeneration,
+                        cursorTracer );
+                leaves.keyCount++;
+                TreeNode.setKeyCount( leaves.cursor, leaves.keyCount );
+                checkOutOfBounds( leaves.cursor );
+            }
+            catch ( IOException e )
+            {
+                failed = true;
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                failed = true;
+                appendTreeInformation( t );
+                throw t;
+            }
+
+            layout.copyKey( key, previousKey );
+            hasPreviousKey = true;
+        }
+
+        /**
+         * Adds {@code splitter} and {@code rightChild} to the tree node currently being filled at {@code level}. If there's no such level yet,
+         * i.e. {@code leftChild} is the first tree node at the level below, that level is started with {@code leftChild} as its first child.
+         */
+        private void addToParent( int level, KEY splitter, long leftChild, long rightChild ) throws IOException
+        {
+            if ( level == levels.size() )
+            {
+                BulkLoadLevel parents = startLevel( INTERNAL );
+                bTreeNode.setChildAt( parents.cursor, leftChild, 0, stableGeneration, unstableGeneration );
+            }
+            BulkLoadLevel parents = levels.get( level );
+            if ( parents.keyCount > 0 && bTreeNode.internalExceedsFillFactor( parents.cursor, parents.keyCount, splitter, fillFactor ) )
+            {
+                // The splitter goes to the level above and the right child becomes the first child of the next tree node at this level
+                long previousParentId = parents.nodeId;
+                parents.startNextNode();
+                bTreeNode.setChildAt( parents.cursor, rightChild, 0, stableGeneration, unstableGeneration );
+                checkOutOfBounds( parents.cursor );
+                addToParent( level + 1, splitter, previousParentId, parents.nodeId );
+                return;
+            }
+            bTreeNode.insertKeyAndRightChildAt( parents.cursor, splitter, rightChild, parents.keyCount, parents.keyCount,
+                    stableGeneration, unstableGeneration, cursorTracer );
+            parents.keyCount++;
+            TreeNode.setKeyCount( parents.cursor, parents.keyCount );
+            checkOutOfBounds( parents.cursor );
+        }
+
+        private BulkLoadLevel startLevel( TreeNode.Type type ) throws IOException
+        {
+            BulkLoadLevel level = new BulkLoadLevel( type, pagedFile.io( 0L /*Ignored*/, PagedFile.PF_SHARED_WRITE_LOCK, cursorTracer ) );
+            levels.add( level );
+            level.startNextNode();
+            return level;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if ( closed )
+            {
+                throw new IllegalStateException( "Tried to close bulk loader of " + GBPTree.this + ", but bulk loader is already closed." );
+            }
+            closed = true;
+            try
+            {
+                if ( failed )
+                {
+                    releaseLoadedNodes();
+                }
+                closeAllUnchecked( levels );
+                if ( !levels.isEmpty() && !failed )
+                {
+                    // The single tree node at the highest level is the new root
+                    setRoot( levels.get( levels.size() - 1 ).nodeId, unstableGeneration );
+                    freeList.releaseId( stableGeneration, unstableGeneration, previousRootId, cursorTracer );
+                }
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                lock.writerAndCleanerUnlock();
+            }
+        }
+
+        /**
+         * The tree nodes of a failed bulk load are unreachable since the root is never set, so release them back to the free list
+         * by walking each level from the tree node currently being filled and leftwards.
+         */
+        private void releaseLoadedNodes() throws IOException
+        {
+            for ( BulkLoadLevel level : levels )
+            {
+                long nodeId = level.nodeId;
+                while ( TreeNode.isNode( nodeId ) )
+                {
+                    PageCursorUtil.goTo( level.cursor, "bulk loaded tree node", nodeId );
+                    long leftSiblingId = GenerationSafePointerPair.pointer( TreeNode.leftSibling( level.cursor, stableGeneration, unstableGeneration ) );
+                    checkOutOfBounds( level.cursor );
+                    freeList.releaseId( stableGeneration, unstableGeneration, nodeId, cursorTracer );
+                    nodeId = leftSiblingId;
+                }
+            }
+        }
+
+        private class BulkLoadLevel implements AutoCloseable
+        {
+            private final TreeNode.Type type;
+            private final PageCursor cursor;
+            private long nodeId = TreeNode.NO_NODE_FLAG;
+            private int keyCount;
+
+            BulkLoadLevel( TreeNode.Type type, PageCursor cursor )
+            {
+                this.type = type;
+                this.cursor = cursor;
+            }
+
+            /**
+             * Starts filling a new tree node on this level, linked as right sibling to the tree node filled so far, if any.
+             */
+            void startNextNode() throws IOException
+            {
+                long newNodeId = freeList.acquireNewId( stableGeneration, unstableGeneration, cursorTracer );
+                long leftSiblingId = nodeId;
+                if ( TreeNode.isNode( leftSiblingId ) )
+                {
+                    TreeNode.setRightSibling( cursor, newNodeId, stableGeneration, unstableGeneration );
+                    checkOutOfBounds( cursor );
+                }
+                PageCursorUtil.goTo( cursor, "new bulk loaded tree node", newNodeId );
+                if ( type == LEAF )
+                {
+                    bTreeNode.initializeLeaf( cursor, stableGeneration, unstableGeneration );
+                }
+                else
+                {
+                    bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+                }
+                if ( TreeNode.isNode( leftSiblingId ) )
+                {
+                    TreeNode.setLeftSibling( cursor, leftSiblingId, stableGeneration, unstableGeneration );
+                }
+                nodeId = newNodeId;
+                keyCount = 0;
+            }
+
+            @Override
+            public void close()
+            {
+                cursor.close();
+            }
+        }
+    }
+
     /**
      * Total size limit for key and value.
      * This limit includes storage overhead that is specific to key implementation for example entity id or meta data about type.
@@ -1814,9 +2505,101 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         return bTreeNode.inlineKeyValueSizeCap();
     }
 
+    boolean wasDirtyOnStartup()
+    {
+        return dirtyOnStartup;
+    }
+
     private static <KEY, VALUE> OffloadStoreImpl<KEY,VALUE> buildOffload( Layout<KEY,VALUE> layout, IdProvider idProvider, PagedFile pagedFile, int pageSize )
     {
         OffloadIdValidator idValidator = id -> id >= IdSpace.MIN_TREE_NODE_ID && id <= pagedFile.getLastPageId();
         return new OffloadStoreImpl<>( layout, idProvider, pagedFile::io, idValidator, pageSize );
     }
+
+    /**
+     * {@link BatchSeeker} keeping one reusable {@link SeekCursor}, reinitialized for every new range.
+     */
+    private class TreeBatchSeeker implements BatchSeeker<KEY,VALUE>
+    {
+        private final PageCursorTracer cursorTracer;
+        private final KEY fromInclusive = layout.newKey();
+        private final KEY toExclusive = layout.newKey();
+        private final Seeker<KEY,VALUE> rangeSeeker = new RangeSeeker();
+        private SeekCursor<KEY,VALUE> seekCursor;
+        private boolean closed;
+
+        TreeBatchSeeker( PageCursorTracer cursorTracer )
+        {
+            this.cursorTracer = cursorTracer;
+        }
+
+        @Override
+        public Seeker<KEY,VALUE> seek( KEY fromInclusive, KEY toExclusive ) throws IOException
+        {
+            if ( closed )
+            {
+                throw new IllegalStateException( "Tried to use batch seeker after it was closed" );
+            }
+            if ( layout.compare( fromInclusive, toExclusive ) > 0 )
+            {
+                throw new IllegalArgumentException( "Batch seeker can only seek forwards, but got fromInclusive:" + fromInclusive +
+                        " bigger than toExclusive:" + toExclusive );
+            }
+
+            // The seek cursor may write to the start of the range when restarting from the root,
+            // so it gets keys of its own rather than those of the caller
+            layout.copyKey( fromInclusive, this.fromInclusive );
+            layout.copyKey( toExclusive, this.toExclusive );
+            if ( seekCursor == null )
+            {
+                seekCursor = seekInternal( this.fromInclusive, this.toExclusive, cursorTracer, DEFAULT_MAX_READ_AHEAD, SeekCursor.NO_MONITOR,
+                        LEAF_LEVEL, true );
+            }
+            else
+            {
+                seekCursor.reinitializeToNewRange( this.fromInclusive, this.toExclusive, rootCatchupSupplier.get() );
+            }
+            return rangeSeeker;
+        }
+
+        @Override
+        public void close()
+        {
+            if ( !closed )
+            {
+                closed = true;
+                if ( seekCursor != null )
+                {
+                    seekCursor.close();
+                }
+            }
+        }
+
+        private class RangeSeeker implements Seeker<KEY,VALUE>
+        {
+            @Override
+            public boolean next() throws IOException
+            {
+                return !closed && seekCursor.next();
+            }
+
+            @Override
+            public KEY key()
+            {
+                return seekCursor.key();
+            }
+
+            @Override
+            public VALUE value()
+            {
+                return seekCursor.value();
+            }
+
+            @Override
+            public void close()
+            {
+                // The seek cursor is closed when the batch seeker is closed
+            }
+        }
+    }
 }
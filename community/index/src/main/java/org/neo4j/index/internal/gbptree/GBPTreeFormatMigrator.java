@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.eclipse.collections.api.set.ImmutableSet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_READER;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_WRITER;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_MONITOR;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.ignore;
+
+/**
+ * Migrates a {@link GBPTree} from the tree node format that one {@link Layout} selects to the format that another selects,
+ * e.g. when a layout starts to {@link Layout#compressKeyPrefixes() compress key prefixes}. A tree can only be opened with a layout
+ * selecting the format it was created with, so migration must be done before the tree is opened with the new layout.
+ * <p>
+ * All entries are {@link GBPTree#bulkLoader(double, PageCursorTracer) bulk loaded} into a new tree next to the index file, together with
+ * the header of the old tree, which then atomically replaces the old index file. If anything goes wrong before that the old tree
+ * is left untouched.
+ */
+public final class GBPTreeFormatMigrator
+{
+    static final String MIGRATION_FILE_SUFFIX = ".migrating";
+    private static final String MIGRATION_TAG = "formatMigration";
+
+    private GBPTreeFormatMigrator()
+    {
+    }
+
+    /**
+     * Migrate tree in given index file to the format selected by {@code toLayout}, if it isn't in that format already.
+     * Trees which were not shut down cleanly are not migrated, since they need recovery first.
+     *
+     * @param fs {@link FileSystemAbstraction} that the index file lives on.
+     * @param pageCache {@link PageCache} to use to map index files.
+     * @param indexFile {@link Path} containing the actual index.
+     * @param fromLayout {@link Layout} that the tree was created with, selecting the format to migrate from.
+     * @param toLayout {@link Layout} of the same keys and values, selecting the format to migrate to.
+     * @param fillFactor how full to make the tree nodes of the migrated tree, see {@link GBPTree#bulkLoader(double, PageCursorTracer)}.
+     * @param pageCacheTracer {@link PageCacheTracer} for the migration.
+     * @param openOptions open options used when mapping the index files.
+     * @return {@code true} if the tree was migrated, otherwise {@code false}.
+     * @throws IOException on page cache or file system error.
+     * @throws MetadataMismatchException if the tree is in neither of the formats, or can't be opened with {@code fromLayout}.
+     */
+    public static <KEY,VALUE> boolean migrateIfNeeded( FileSystemAbstraction fs, PageCache pageCache, Path indexFile, Layout<KEY,VALUE> fromLayout,
+            Layout<KEY,VALUE> toLayout, double fillFactor, PageCacheTracer pageCacheTracer, ImmutableSet<OpenOption> openOptions )
+            throws IOException, MetadataMismatchException
+    {
+        if ( !fs.fileExists( indexFile ) )
+        {
+            return false;
+        }
+
+        TreeNodeSelector.Factory format = TreeNodeSelector.selectByLayout( toLayout );
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( MIGRATION_TAG ) )
+        {
+            Meta meta = GBPTree.readMeta( pageCache, indexFile, cursorTracer );
+            if ( TreeNodeSelector.sameFormat( format, meta.getFormatIdentifier(), meta.getFormatVersion() ) )
+            {
+                return false;
+            }
+
+            HeaderCopy header = new HeaderCopy();
+            GBPTree.readHeader( pageCache, indexFile, header, cursorTracer );
+
+            Path migrationFile = indexFile.resolveSibling( indexFile.getFileName() + MIGRATION_FILE_SUFFIX );
+            fs.deleteFile( migrationFile );
+            String name = indexFile.getFileName().toString();
+            try ( GBPTree<KEY,VALUE> source = new GBPTree<>( pageCache, indexFile, fromLayout, NO_MONITOR, NO_HEADER_READER, NO_HEADER_WRITER, ignore(),
+                    true, pageCacheTracer, openOptions, name ) )
+            {
+                if ( source.wasDirtyOnStartup() )
+                {
+                    return false;
+                }
+                try ( GBPTree<KEY,VALUE> target = new GBPTree<>( pageCache, migrationFile, toLayout, NO_MONITOR, NO_HEADER_READER,
+                        cursor -> cursor.putBytes( header.bytes ), ignore(), false, pageCacheTracer, openOptions, name ) )
+                {
+                    copyEntries( source, target, fromLayout, fillFactor, cursorTracer );
+                    target.checkpoint( IOLimiter.UNLIMITED, cursorTracer );
+                }
+            }
+            catch ( IOException | RuntimeException e )
+            {
+                fs.deleteFile( migrationFile );
+                throw e;
+            }
+            fs.renameFile( migrationFile, indexFile, REPLACE_EXISTING, ATOMIC_MOVE );
+            return true;
+        }
+    }
+
+    private static <KEY,VALUE> void copyEntries( GBPTree<KEY,VALUE> source, GBPTree<KEY,VALUE> target, Layout<KEY,VALUE> layout, double fillFactor,
+            PageCursorTracer cursorTracer ) throws IOException
+    {
+        KEY low = layout.newKey();
+        KEY high = layout.newKey();
+        layout.initializeAsLowest( low );
+        layout.initializeAsHighest( high );
+        try ( Seeker<KEY,VALUE> seeker = source.seek( low, high, cursorTracer );
+              BulkLoader<KEY,VALUE> bulkLoader = target.bulkLoader( fillFactor, cursorTracer ) )
+        {
+            while ( seeker.next() )
+            {
+                bulkLoader.add( seeker.key(), seeker.value() );
+            }
+        }
+    }
+
+    private static class HeaderCopy implements Header.Reader
+    {
+        private byte[] bytes;
+
+        @Override
+        public void read( ByteBuffer headerData )
+        {
+            bytes = new byte[headerData.remaining()];
+            headerData.get( bytes );
+        }
+    }
+}
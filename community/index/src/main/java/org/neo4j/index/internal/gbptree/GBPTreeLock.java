@@ -30,6 +30,11 @@ class GBPTreeLock
     private static final long stateOffset = UnsafeUtil.getFieldOffset( GBPTreeLock.class, "state" );
     private static final long writerLockBit = 0x00000000_00000001L;
     private static final long cleanerLockBit = 0x00000000_00000002L;
+    // Set by someone waiting for the writer and/or cleaner lock, while concurrent writers hold the lock.
+    // New concurrent writers will not get the lock while this is set, so that they can not starve e.g. a checkpoint.
+    private static final long exclusivePendingBit = 0x00000000_00000004L;
+    private static final long concurrentWriterUnit = 0x00000001_00000000L;
+    private static final long concurrentWriterMask = 0xFFFFFFFF_00000000L;
     private volatile long state;
 
     // Used for testing
@@ -50,6 +55,38 @@ class GBPTreeLock
         doUnlock( writerLockBit );
     }
 
+    /**
+     * Concurrent writers share the lock amongst themselves, but exclude the writer and the cleaner.
+     */
+    void concurrentWriterLock()
+    {
+        long currentState;
+        do
+        {
+            currentState = state;
+            while ( (currentState & (writerLockBit | cleanerLockBit | exclusivePendingBit)) != 0 )
+            {
+                sleep();
+                currentState = state;
+            }
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState + concurrentWriterUnit ) );
+    }
+
+    void concurrentWriterUnlock()
+    {
+        long currentState;
+        do
+        {
+            currentState = state;
+            if ( (currentState & concurrentWriterMask) == 0 )
+            {
+                throw new IllegalStateException( "Can not unlock concurrent writer lock that is not locked" );
+            }
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState - concurrentWriterUnit ) );
+    }
+
     void cleanerLock()
     {
         doLock( cleanerLockBit );
@@ -79,11 +116,16 @@ class GBPTreeLock
             currentState = state;
             while ( !canLock( currentState, targetLockBit ) )
             {
+                if ( (currentState & targetLockBit) == 0 && (currentState & exclusivePendingBit) == 0 )
+                {
+                    // Only held by concurrent writers, keep new ones from coming in
+                    UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState | exclusivePendingBit );
+                }
                 // sleep
                 sleep();
                 currentState = state;
             }
-            newState = currentState | targetLockBit;
+            newState = (currentState | targetLockBit) & ~exclusivePendingBit;
         } while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, newState ) );
     }
 
@@ -105,7 +147,7 @@ class GBPTreeLock
 
     private boolean canLock( long state, long targetLockBit )
     {
-        return (state & targetLockBit) == 0;
+        return (state & targetLockBit) == 0 && (state & concurrentWriterMask) == 0;
     }
 
     private boolean canUnlock( long state, long targetLockBit )
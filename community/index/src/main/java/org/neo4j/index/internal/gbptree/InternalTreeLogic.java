@@ -760,6 +760,143 @@ class InternalTreeLogic<KEY,VALUE>
         return into;
     }
 
+    /**
+     * Result of a change made in place in a leaf, i.e. {@link #insertInPlace(PageCursor, Object, Object, ValueMerger, boolean, long, long,
+     * PageCursorTracer) insertInPlace} or {@link #removeInPlace(PageCursor, Object, Object, long, long, PageCursorTracer) removeInPlace}.
+     */
+    enum InPlaceResult
+    {
+        /**
+         * The change was made, or no change was needed.
+         */
+        DONE,
+        /**
+         * The key to remove was not found.
+         */
+        NOT_FOUND,
+        /**
+         * The change can not be made without changing other tree nodes than the leaf, or anything outside of the leaf, e.g. because the
+         * leaf would have to split, underflow, get a successor or the entry is offloaded. Nothing has been changed and the change has to be
+         * made using {@link #insert(PageCursor, StructurePropagation, Object, Object, ValueMerger, boolean, long, long, PageCursorTracer)} or
+         * {@link #remove(PageCursor, StructurePropagation, Object, Object, long, long, PageCursorTracer)}.
+         */
+        STRUCTURE_CHANGE_NEEDED
+    }
+
+    /**
+     * Moves the cursor to the leaf where {@code key} belongs, without making any changes.
+     * See {@link #moveToCorrectLeaf(PageCursor, Object, long, long, PageCursorTracer)}.
+     * <p>
+     * Used by concurrent writers, which know that no structural changes can happen while moving down the tree.
+     */
+    void moveToLeaf( PageCursor cursor, KEY key, long stableGeneration, long unstableGeneration, PageCursorTracer cursorTracer ) throws IOException
+    {
+        assert cursorIsAtExpectedLocation( cursor );
+        moveToCorrectLeaf( cursor, key, stableGeneration, unstableGeneration, cursorTracer );
+    }
+
+    /**
+     * Insert or merge {@code key} and {@code value} in the leaf that {@code cursor} is at, see {@link #moveToLeaf(PageCursor, Object, long, long,
+     * PageCursorTracer)}, but only if that can be done by changing that leaf alone.
+     * <p>
+     * The caller must make sure that no other writer changes this leaf concurrently. Note that {@code valueMerger} may have been called even if
+     * {@link InPlaceResult#STRUCTURE_CHANGE_NEEDED} is returned, in which case it will be called again when the change is made.
+     *
+     * @return {@link InPlaceResult#DONE} if the change was made, or {@link InPlaceResult#STRUCTURE_CHANGE_NEEDED} if nothing was changed.
+     * @throws IOException on cursor failure
+     */
+    InPlaceResult insertInPlace( PageCursor cursor, KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger, boolean createIfNotExists,
+            long stableGeneration, long unstableGeneration, PageCursorTracer cursorTracer ) throws IOException
+    {
+        bTreeNode.validateKeyValueSize( key, value );
+        if ( TreeNode.generation( cursor ) != unstableGeneration )
+        {
+            return InPlaceResult.STRUCTURE_CHANGE_NEEDED;
+        }
+
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount, cursorTracer );
+        int pos = positionOf( search );
+        if ( isHit( search ) )
+        {
+            if ( bTreeNode.offloadIdAt( cursor, pos, LEAF ) != TreeNode.NO_OFFLOAD_ID )
+            {
+                return InPlaceResult.STRUCTURE_CHANGE_NEEDED;
+            }
+            bTreeNode.valueAt( cursor, readValue, pos, cursorTracer );
+            ValueMerger.MergeResult mergeResult = valueMerger.merge( readKey, key, readValue, value );
+            switch ( mergeResult )
+            {
+            case UNCHANGED:
+                return InPlaceResult.DONE;
+            case REPLACED:
+            case MERGED:
+                VALUE mergedValue = mergeResult == ValueMerger.MergeResult.REPLACED ? value : readValue;
+                return bTreeNode.setValueAt( cursor, mergedValue, pos ) ? InPlaceResult.DONE : InPlaceResult.STRUCTURE_CHANGE_NEEDED;
+            case REMOVED:
+                if ( !bTreeNode.canRemoveKeyValueInPlace( cursor, pos, keyCount ) )
+                {
+                    return InPlaceResult.STRUCTURE_CHANGE_NEEDED;
+                }
+                bTreeNode.removeKeyValueAt( cursor, pos, keyCount, stableGeneration, unstableGeneration, cursorTracer );
+                TreeNode.setKeyCount( cursor, keyCount - 1 );
+                return InPlaceResult.DONE;
+            default:
+                throw new UnsupportedOperationException( "Unexpected merge result " + mergeResult );
+            }
+        }
+
+        if ( !createIfNotExists )
+        {
+            return InPlaceResult.DONE;
+        }
+        if ( layout.keySize( key ) + layout.valueSize( value ) > bTreeNode.inlineKeyValueSizeCap() )
+        {
+            // Would be offloaded
+            return InPlaceResult.STRUCTURE_CHANGE_NEEDED;
+        }
+        Overflow overflow = bTreeNode.leafOverflow( cursor, keyCount, key, value );
+        if ( overflow == YES )
+        {
+            return InPlaceResult.STRUCTURE_CHANGE_NEEDED;
+        }
+        if ( overflow == NO_NEED_DEFRAG )
+        {
+            bTreeNode.defragmentLeaf( cursor );
+        }
+        bTreeNode.insertKeyValueAt( cursor, key, value, pos, keyCount, stableGeneration, unstableGeneration, cursorTracer );
+        TreeNode.setKeyCount( cursor, keyCount + 1 );
+        return InPlaceResult.DONE;
+    }
+
+    /**
+     * Remove {@code key} from the leaf that {@code cursor} is at, see {@link #moveToLeaf(PageCursor, Object, long, long, PageCursorTracer)},
+     * but only if that can be done by changing that leaf alone. The removed value is written into {@code into}.
+     * <p>
+     * The caller must make sure that no other writer changes this leaf concurrently.
+     *
+     * @return {@link InPlaceResult#DONE} if the key was removed, {@link InPlaceResult#NOT_FOUND} if the key doesn't exist or
+     * {@link InPlaceResult#STRUCTURE_CHANGE_NEEDED} if nothing was changed.
+     * @throws IOException on cursor failure
+     */
+    InPlaceResult removeInPlace( PageCursor cursor, KEY key, VALUE into, long stableGeneration, long unstableGeneration,
+            PageCursorTracer cursorTracer ) throws IOException
+    {
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount, cursorTracer );
+        if ( !isHit( search ) )
+        {
+            return InPlaceResult.NOT_FOUND;
+        }
+        int pos = positionOf( search );
+        if ( TreeNode.generation( cursor ) != unstableGeneration || !bTreeNode.canRemoveKeyValueInPlace( cursor, pos, keyCount ) )
+        {
+            return InPlaceResult.STRUCTURE_CHANGE_NEEDED;
+        }
+        simplyRemoveFromLeaf( cursor, into, keyCount, pos, stableGeneration, unstableGeneration, cursorTracer );
+        return InPlaceResult.DONE;
+    }
+
     private void handleStructureChanges( PageCursor cursor, StructurePropagation<KEY> structurePropagation,
             long stableGeneration, long unstableGeneration, PageCursorTracer cursorTracer ) throws IOException
     {
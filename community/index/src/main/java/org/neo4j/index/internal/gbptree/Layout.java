@@ -110,6 +110,21 @@ public interface Layout<KEY, VALUE> extends Comparator<KEY>
      */
     boolean fixedSize();
 
+    /**
+     * Indicate if keys in leaves should be prefix compressed. Only applies to layouts that are not {@link #fixedSize() fixed size}
+     * and pays off for keys that share long prefixes, like strings with common beginnings. Key bytes as written by
+     * {@link #writeKey(PageCursor, Object)} are compressed, so layouts that put most significant parts first benefit the most.
+     * <p>
+     * A tree can only be opened with a layout that has the same setting as the one it was created with. Existing trees can be
+     * migrated between the two formats using {@link GBPTreeFormatMigrator}.
+     *
+     * @return true if keys in leaves should be prefix compressed, otherwise false.
+     */
+    default boolean compressKeyPrefixes()
+    {
+        return false;
+    }
+
     /**
      * Find shortest key (best effort) that separate left from right in sort order
      * and initialize into with result.
@@ -212,21 +212,23 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
     private boolean resultOnTrack;
 
     /**
-     * Provided when constructing the {@link SeekCursor}, marks the start (inclusive) of the key range to seek.
+     * Provided when constructing the {@link SeekCursor}, or {@link #reinitializeToNewRange(Object, Object, RootCatchup) reinitializing}
+     * a reusable one, marks the start (inclusive) of the key range to seek.
      * Comparison with {@link #toExclusive} decide if seeking forwards or backwards.
      */
-    private final KEY fromInclusive;
+    private KEY fromInclusive;
 
     /**
-     * Provided when constructing the {@link SeekCursor}, marks the end (exclusive) of the key range to seek.
+     * Provided when constructing the {@link SeekCursor}, or {@link #reinitializeToNewRange(Object, Object, RootCatchup) reinitializing}
+     * a reusable one, marks the end (exclusive) of the key range to seek.
      * Comparison with {@link #fromInclusive} decide if seeking forwards or backwards.
      */
-    private final KEY toExclusive;
+    private KEY toExclusive;
 
     /**
      * True if seeker is performing an exact match lookup, {@link #toExclusive} will then be treated as inclusive.
      */
-    private final boolean exactMatch;
+    private boolean exactMatch;
 
     /**
      * {@link Layout} instance used to perform some functions around keys, like copying and comparing.
@@ -251,9 +253,9 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
     /**
      * Retrieves latest root id and generation, moving the {@link PageCursor} to the root id and returning
      * the root generation. This is used when a query is re-traversing from the root, due to e.g. ending up
-     * on a reused tree node and not knowing how to proceed from there.
+     * on a reused tree node and not knowing how to proceed from there. Replaced for every new range of a reusable seeker.
      */
-    private final RootCatchup rootCatchup;
+    private RootCatchup rootCatchup;
 
     /**
      * What level of the tree to search, {@link #LEAF_LEVEL} indicate always seek the leaves.
@@ -417,6 +419,18 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
      */
     private boolean closed;
 
+    /**
+     * Whether or not this seeker can be {@link #reinitializeToNewRange(Object, Object, RootCatchup) reinitialized} to seek another range.
+     * A reusable seeker keeps its {@link PageCursor} open when a range is exhausted, so that seeking the next range can continue
+     * from the leaf it is on.
+     */
+    private final boolean reusable;
+
+    /**
+     * Whether or not the current range of a {@link #reusable} seeker has been exhausted.
+     */
+    private boolean exhausted;
+
     /**
      * Decorator for caught exceptions, adding information about which tree the exception relates to.
      */
@@ -439,11 +453,20 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
      */
     private final GenerationKeeper generationKeeper = new GenerationKeeper();
 
-    @SuppressWarnings( "unchecked" )
     SeekCursor( PageCursor cursor, TreeNode<KEY,VALUE> bTreeNode, KEY fromInclusive, KEY toExclusive,
             Layout<KEY,VALUE> layout, long stableGeneration, long unstableGeneration, LongSupplier generationSupplier,
             RootCatchup rootCatchup, long lastFollowedPointerGeneration, Consumer<Throwable> exceptionDecorator, int maxReadAhead, int searchLevel,
             Monitor monitor, PageCursorTracer cursorTracer ) throws IOException
+    {
+        this( cursor, bTreeNode, fromInclusive, toExclusive, layout, stableGeneration, unstableGeneration, generationSupplier, rootCatchup,
+                lastFollowedPointerGeneration, exceptionDecorator, maxReadAhead, searchLevel, monitor, cursorTracer, false );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    SeekCursor( PageCursor cursor, TreeNode<KEY,VALUE> bTreeNode, KEY fromInclusive, KEY toExclusive,
+            Layout<KEY,VALUE> layout, long stableGeneration, long unstableGeneration, LongSupplier generationSupplier,
+            RootCatchup rootCatchup, long lastFollowedPointerGeneration, Consumer<Throwable> exceptionDecorator, int maxReadAhead, int searchLevel,
+            Monitor monitor, PageCursorTracer cursorTracer, boolean reusable ) throws IOException
     {
         this.cursor = cursor;
         this.cursorTracer = cursorTracer;
@@ -459,7 +482,9 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
         this.bTreeNode = bTreeNode;
         this.rootCatchup = rootCatchup;
         this.lastFollowedPointerGeneration = lastFollowedPointerGeneration;
-        int batchSize = exactMatch ? 1 : maxReadAhead;
+        this.reusable = reusable;
+        // A reusable seeker may get ranges that aren't exact matches later on
+        int batchSize = exactMatch && !reusable ? 1 : maxReadAhead;
         this.mutableKeys = (KEY[]) new Object[batchSize];
         this.mutableValues = (VALUE[]) new Object[batchSize];
         this.mutableKeys[0] = layout.newKey();
@@ -585,10 +610,103 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
         cachedLength = 0;
     }
 
+    /**
+     * Makes this reusable seeker seek the given range instead, forgetting about any remaining results in the current range.
+     * The seek continues from the leaf that this seeker is currently on if that leaf holds the start of the new range,
+     * otherwise it traverses down from the root again. Seeking a batch of ranges in ascending order therefore only traverses
+     * the internal nodes for the first range in every leaf, not for every range.
+     * Ranges in any other order are still seeked correctly, only slower.
+     *
+     * @param fromInclusive lower bound of the new range to seek (inclusive).
+     * @param toExclusive higher bound of the new range to seek (exclusive), must not be lower than {@code fromInclusive}.
+     * @param rootCatchup {@link RootCatchup} for the new range.
+     * @throws IOException on {@link PageCursor} error.
+     */
+    void reinitializeToNewRange( KEY fromInclusive, KEY toExclusive, RootCatchup rootCatchup ) throws IOException
+    {
+        if ( !reusable )
+        {
+            throw new IllegalStateException( "Tried to reinitialize a seeker which isn't reusable" );
+        }
+        if ( closed )
+        {
+            throw new IllegalStateException( "Tried to use seeker after it was closed" );
+        }
+        if ( !seekForward || layout.compare( fromInclusive, toExclusive ) > 0 )
+        {
+            throw new IllegalArgumentException( "A reusable seeker can only seek forwards" );
+        }
+
+        try
+        {
+            this.fromInclusive = fromInclusive;
+            this.toExclusive = toExclusive;
+            this.exactMatch = layout.compare( fromInclusive, toExclusive ) == 0;
+            this.rootCatchup = rootCatchup;
+            first = true;
+            exhausted = false;
+            if ( !generationCatchup() && positionInCurrentLeaf() )
+            {
+                // We're already at the leaf containing the start of the new range, initialize the state for the coming leaf scan
+                pos -= stride;
+                cachedIndex = 0;
+                cachedLength = 0;
+                resultOnTrack = false;
+                concurrentWriteHappened = false;
+                verifyExpectedFirstAfterGoToNext = false;
+                forceReadHeader = true;
+            }
+            else
+            {
+                prepareToStartFromRoot();
+                traverseDownToCorrectLevel();
+            }
+        }
+        catch ( Throwable e )
+        {
+            exceptionDecorator.accept( e );
+            throw e;
+        }
+    }
+
+    /**
+     * Looks for {@link #fromInclusive} in the node that the {@link PageCursor} is currently on, placing {@link #pos} at it.
+     * The start of the range is known to be in this node only if it's a leaf, which is still the one that we read last time we were here,
+     * and the key is within the keys of that leaf. A key before the first key may as well belong in the previous sibling.
+     *
+     * @return {@code true} if {@link #pos} is at the start of the range in the current leaf, otherwise {@code false}
+     * meaning that the start of the range needs to be found by traversing down from the root.
+     * @throws IOException on {@link PageCursor} error.
+     */
+    private boolean positionInCurrentLeaf() throws IOException
+    {
+        boolean insideLeaf;
+        do
+        {
+            insideLeaf = false;
+            if ( !readHeader() || isInternal )
+            {
+                continue;
+            }
+            searchResult = searchKey( fromInclusive, LEAF );
+            if ( !KeySearch.isSuccess( searchResult ) )
+            {
+                continue;
+            }
+            pos = positionOf( searchResult, false );
+            insideLeaf = pos < keyCount && (pos > 0 || KeySearch.isHit( searchResult ));
+        }
+        while ( cursor.shouldRetry() );
+        checkOutOfBoundsAndClosed();
+        cursor.checkAndClearCursorException();
+
+        return insideLeaf && endedUpOnExpectedNode() && saneRead() && GenerationSafePointerPair.isSuccess( successor ) && !TreeNode.isNode( successor );
+    }
+
     @Override
     public boolean next() throws IOException
     {
-        if ( closed )
+        if ( closed || exhausted )
         {
             return false;
         }
@@ -660,7 +778,14 @@ class SeekCursor<KEY,VALUE> implements Seeker<KEY,VALUE>
                 }
 
                 // We've come too far and so this means the end of the result set
-                close();
+                if ( reusable )
+                {
+                    exhausted = true;
+                }
+                else
+                {
+                    close();
+                }
                 return false;
             }
         }
@@ -357,6 +357,27 @@ abstract class TreeNode<KEY,VALUE>
 
     abstract boolean leafUnderflow( PageCursor cursor, int keyCount );
 
+    /**
+     * Would leaf be filled more than {@code fillFactor} of its capacity if inserting new key and value last?
+     * Used when bulk loading a tree where leaves are filled one after the other, never defragmented.
+     * @return true if the new key and value should go to the next leaf instead, else false.
+     */
+    abstract boolean leafExceedsFillFactor( PageCursor cursor, int keyCount, KEY newKey, VALUE newValue, double fillFactor );
+
+    /**
+     * Would internal node be filled more than {@code fillFactor} of its capacity if inserting new key and right child last?
+     * Used when bulk loading a tree where internal nodes are filled one after the other, never defragmented.
+     * @return true if the new key should go to the next internal node instead, else false.
+     */
+    abstract boolean internalExceedsFillFactor( PageCursor cursor, int keyCount, KEY newKey, double fillFactor );
+
+    /**
+     * Can key/value at {@code pos} be removed from leaf, without the leaf ending up in underflow and without
+     * touching any other page than the leaf itself, e.g. offload pages?
+     * @return true if key/value can be removed in place, else false.
+     */
+    abstract boolean canRemoveKeyValueInPlace( PageCursor cursor, int pos, int keyCount );
+
     /**
      * How do we best rebalance left and right leaf?
      * Can we move keys from underflowing left to right so that none of them underflow?
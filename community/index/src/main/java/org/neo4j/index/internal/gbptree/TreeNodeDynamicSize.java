@@ -94,23 +94,23 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
      * In 4.2 the possibility to have larger page cache pages was introduced,
      * but we still want to keep the same key value size cap for simplicity.
      */
-    private static final int FIXED_MAX_KEY_VALUE_SIZE_CAP = 8175;
+    static final int FIXED_MAX_KEY_VALUE_SIZE_CAP = 8175;
     private static final int USE_OFFLOAD_STORE_PAGE_SIZE_LIMIT = (int) kibiBytes( 8 );
     @VisibleForTesting
     static final int USE_2B_OFFSET_PAGE_SIZE_LIMIT = (int) kibiBytes( 64 );
-    private static final int LEAST_NUMBER_OF_ENTRIES_PER_PAGE = 2;
-    private static final int MINIMUM_ENTRY_SIZE_CAP = Long.SIZE;
+    static final int LEAST_NUMBER_OF_ENTRIES_PER_PAGE = 2;
+    static final int MINIMUM_ENTRY_SIZE_CAP = Long.SIZE;
 
-    private final DynamicSizeOffsetFormat offsetFormat;
+    final DynamicSizeOffsetFormat offsetFormat;
     private final int inlineKeyValueSizeCap;
     private final int keyValueSizeCap;
-    private final boolean msbIsOffload;
+    final boolean msbIsOffload;
     private final MutableIntStack deadKeysOffset = new IntArrayStack();
     private final MutableIntStack aliveKeysOffset = new IntArrayStack();
     private final int[] oldOffset;
     private final int[] newOffset;
-    private final int totalSpace;
-    private final int halfSpace;
+    final int totalSpace;
+    final int halfSpace;
     private final KEY tmpKeyLeft;
     private final KEY tmpKeyRight;
     private final OffloadStore<KEY,VALUE> offloadStore;
@@ -202,12 +202,12 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         tmpKeyRight = layout.newKey();
     }
 
-    private static DynamicSizeOffsetFormat selectOffsetFormat( int pageSize )
+    static DynamicSizeOffsetFormat selectOffsetFormat( int pageSize )
     {
         return pageSize < USE_2B_OFFSET_PAGE_SIZE_LIMIT ? OFFSET_2B : OFFSET_3B;
     }
 
-    private static boolean useOffloadStore( int pageSize )
+    static boolean useOffloadStore( int pageSize )
     {
         return pageSize <= USE_OFFLOAD_STORE_PAGE_SIZE_LIMIT;
     }
@@ -229,7 +229,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return Math.min( FIXED_MAX_KEY_VALUE_SIZE_CAP, capToFitNumberOfEntriesPerPage );
     }
 
-    private static int getTotalOverhead( DynamicSizeOffsetFormat offsetFormat )
+    static int getTotalOverhead( DynamicSizeOffsetFormat offsetFormat )
     {
         return offsetFormat.offsetSize() + SIZE_KEY_VALUE_SIZE;
     }
@@ -651,7 +651,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         int allocSpace = getAllocSpace( cursor, currentKeyCount, LEAF );
 
         // How much space do we need?
-        int neededSpace = totalSpaceOfKeyValue( newKey, newValue );
+        int neededSpace = totalSpaceOfNewKeyValue( cursor, newKey, newValue );
 
         // There is your answer!
         return neededSpace <= allocSpace ? Overflow.NO :
@@ -829,6 +829,43 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return availableSpace > halfSpace;
     }
 
+    @Override
+    boolean leafExceedsFillFactor( PageCursor cursor, int keyCount, KEY newKey, VALUE newValue, double fillFactor )
+    {
+        return exceedsFillFactor( totalSpaceOfNewKeyValue( cursor, newKey, newValue ), getAllocSpace( cursor, keyCount, LEAF ), fillFactor );
+    }
+
+    @Override
+    boolean internalExceedsFillFactor( PageCursor cursor, int keyCount, KEY newKey, double fillFactor )
+    {
+        return exceedsFillFactor( totalSpaceOfKeyChild( newKey ), getAllocSpace( cursor, keyCount, INTERNAL ), fillFactor );
+    }
+
+    private boolean exceedsFillFactor( int neededSpace, int allocSpace, double fillFactor )
+    {
+        // Tree nodes filled by appending have no dead space, so everything not in alloc space is in use
+        return neededSpace > allocSpace || totalSpace - allocSpace + neededSpace > totalSpace * fillFactor;
+    }
+
+    @Override
+    boolean canRemoveKeyValueInPlace( PageCursor cursor, int pos, int keyCount )
+    {
+        placeCursorAtActualKey( cursor, pos, LEAF );
+        long keyValueSize = readKeyValueSize( cursor, msbIsOffload );
+        boolean offload = extractOffload( keyValueSize );
+        if ( offload )
+        {
+            return false;
+        }
+        int keySize = extractKeySize( keyValueSize );
+        int valueSize = extractValueSize( keyValueSize );
+
+        // Same as leafUnderflow after removeKeyValueAt
+        int allocSpace = getAllocSpace( cursor, keyCount - 1, LEAF );
+        int deadSpace = getDeadSpace( cursor ) + keySize + valueSize + getOverhead( keySize, valueSize, false );
+        return allocSpace + deadSpace <= halfSpace;
+    }
+
     @Override
     int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
     {
@@ -1040,7 +1077,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     }
 
     // NOTE: Does update keyCount
-    private void moveKeysAndValues( PageCursor fromCursor, int fromPos, PageCursor toCursor, int toPos, int count )
+    void moveKeysAndValues( PageCursor fromCursor, int fromPos, PageCursor toCursor, int toPos, int count )
     {
         int firstAllocOffset = getAllocOffset( toCursor );
         int toAllocOffset = firstAllocOffset;
@@ -1102,7 +1139,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         setKeyCount( rightCursor, rightKeyCount + leftKeyCount );
     }
 
-    private void copyKeysAndValues( PageCursor fromCursor, int fromPos, PageCursor toCursor, int toPos, int count )
+    void copyKeysAndValues( PageCursor fromCursor, int fromPos, PageCursor toCursor, int toPos, int count )
     {
         int toAllocOffset = getAllocOffset( toCursor );
         for ( int i = 0; i < count; i++, toPos++ )
@@ -1136,7 +1173,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return newRightAllocSpace;
     }
 
-    private int getAllocSpace( PageCursor cursor, int keyCount, Type type )
+    int getAllocSpace( PageCursor cursor, int keyCount, Type type )
     {
         int allocOffset = getAllocOffset( cursor );
         int endOfOffsetArray = type == LEAF ? keyPosOffsetLeaf( keyCount ) : keyPosOffsetInternal( keyCount );
@@ -1229,7 +1266,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         zeroPad( fromCursor, childFromOffset, lengthInBytes );
     }
 
-    private void zeroPad( PageCursor fromCursor, int fromOffset, int lengthInBytes )
+    void zeroPad( PageCursor fromCursor, int fromOffset, int lengthInBytes )
     {
         fromCursor.setOffset( fromOffset );
         fromCursor.putBytes( lengthInBytes, (byte) 0 );
@@ -1336,11 +1373,13 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         int targetLeftSpace = (int) (this.totalSpace * ratioToKeepInLeftOnSplit);
         int splitPos = 0;
         int currentPos = 0;
-        int accumulatedLeftSpace = 0;
-        int currentDelta = targetLeftSpace;
+        // Space kept by both leaves is accounted for on both sides of the split
+        int spaceInBothLeaves = leafSpaceKeptInBothOnSplit( cursor );
+        int accumulatedLeftSpace = spaceInBothLeaves;
+        int currentDelta = Math.abs( accumulatedLeftSpace - targetLeftSpace );
         int prevDelta;
-        int spaceOfNewKey = totalSpaceOfKeyValue( newKey, newValue );
-        int totalSpaceIncludingNewKey = totalActiveSpace( cursor, keyCountAfterInsert - 1, LEAF ) + spaceOfNewKey;
+        int spaceOfNewKey = totalSpaceOfNewKeyValue( cursor, newKey, newValue );
+        int totalSpaceIncludingNewKey = totalActiveSpace( cursor, keyCountAfterInsert - 1, LEAF ) + spaceOfNewKey + spaceInBothLeaves;
         boolean includedNew = false;
         boolean prevPosPossible;
         boolean thisPosPossible = false;
@@ -1384,7 +1423,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return splitPos;
     }
 
-    private int totalActiveSpace( PageCursor cursor, int keyCount, Type type )
+    int totalActiveSpace( PageCursor cursor, int keyCount, Type type )
     {
         int deadSpace = getDeadSpace( cursor );
         int allocSpace = getAllocSpace( cursor, keyCount, type );
@@ -1406,6 +1445,23 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         }
     }
 
+    /**
+     * @return space needed to insert the given key and value into the leaf which the cursor is placed at.
+     */
+    int totalSpaceOfNewKeyValue( PageCursor cursor, KEY key, VALUE value )
+    {
+        return totalSpaceOfKeyValue( key, value );
+    }
+
+    /**
+     * @return space occupied by data, other than the keys and values, which both the left and the right leaf
+     * will need to keep after a split of the leaf which the cursor is placed at.
+     */
+    int leafSpaceKeptInBothOnSplit( PageCursor cursor )
+    {
+        return 0;
+    }
+
     private int totalSpaceOfKeyChild( KEY key )
     {
         int keySize = layout.keySize( key );
@@ -1420,7 +1476,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         }
     }
 
-    private int totalSpaceOfKeyValue( PageCursor cursor, int pos )
+    int totalSpaceOfKeyValue( PageCursor cursor, int pos )
     {
         placeCursorAtActualKey( cursor, pos, LEAF );
         long keyValueSize = readKeyValueSize( cursor, msbIsOffload );
@@ -1462,7 +1518,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return offsetFormat.getOffset( cursor, offsetFormat.getBytePosDeadSpace() );
     }
 
-    private void placeCursorAtActualKey( PageCursor cursor, int pos, Type type )
+    void placeCursorAtActualKey( PageCursor cursor, int pos, Type type )
     {
         // Set cursor to correct place in offset array
         int keyPosOffset = keyPosOffset( pos, type );
@@ -1483,13 +1539,13 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         cursor.setOffset( keyOffset );
     }
 
-    private void readUnreliableKeyValueSize( PageCursor cursor, int keySize, int valueSize, long keyValueSize, int pos )
+    void readUnreliableKeyValueSize( PageCursor cursor, int keySize, int valueSize, long keyValueSize, int pos )
     {
         cursor.setCursorException( format( "Read unreliable key, id=%d, keySize=%d, valueSize=%d, keyValueSizeCap=%d, keyHasTombstone=%b, pos=%d",
                 cursor.getCurrentPageId(), keySize, valueSize, keyValueSizeCap(), extractTombstone( keyValueSize ), pos ) );
     }
 
-    private boolean keyValueSizeTooLarge( int keySize, int valueSize )
+    boolean keyValueSizeTooLarge( int keySize, int valueSize )
     {
         return keySize + valueSize > keyValueSizeCap();
     }
@@ -1506,7 +1562,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         }
     }
 
-    private int keyPosOffsetLeaf( int pos )
+    int keyPosOffsetLeaf( int pos )
     {
         return offsetFormat.getHeaderLength() + pos * bytesKeyOffset();
     }
@@ -1527,7 +1583,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return SIZE_PAGE_REFERENCE;
     }
 
-    private int bytesKeyOffset()
+    int bytesKeyOffset()
     {
         return offsetFormat.offsetSize();
     }
@@ -1786,9 +1842,9 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return offsetArray.toString();
     }
 
-    private boolean canInline( int entrySize )
+    boolean canInline( int entrySize )
     {
-        return entrySize <= inlineKeyValueSizeCap;
+        return entrySize <= inlineKeyValueSizeCap();
     }
 
     @VisibleForTesting
@@ -0,0 +1,715 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.CursorException;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.util.VisibleForTesting;
+
+import static java.lang.String.format;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractKeySize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractOffload;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.getOverhead;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putKeyValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putTombstone;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.readKeyValueSize;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+/**
+ * Same as {@link TreeNodeDynamicSize}, but keys in leaves are stored prefix compressed. Internal nodes are unchanged.
+ * <p>
+ * Every leaf has an anchor, which is the first bytes of one of the keys in the leaf, up to {@link #MAX_ANCHOR_SIZE} bytes.
+ * Each inlined key is stored as the length of the prefix it shares with the anchor followed by the rest of the key.
+ * This means that every key can be decoded on its own, only looking at the anchor, and so binary search over the offset array
+ * works exactly as for {@link TreeNodeDynamicSize}. Offloaded keys are not compressed.
+ * <p>
+ * The anchor is kept as a key-only entry at the very end of the leaf where it is accounted for as active space,
+ * but it doesn't have an entry in the offset array. It's followed by one byte holding the anchor size so that it
+ * can be found from the end of the page.
+ * <pre>
+ * LEAF
+ * [HEADER]|[KEY_OFFSETS]##########[KEYS_VALUES][ANCHOR]
+ *
+ * KEY_VALUE                                      ANCHOR
+ * [KEY_VALUE_SIZE][SHARED][SUFFIX][VALUE]        [KEY_VALUE_SIZE][ANCHOR_BYTES][ANCHOR_SIZE]
+ * </pre>
+ * A leaf gets its anchor from the first key inserted into it while empty. On split the new right leaf starts out with
+ * the anchor of the left leaf, so that entries can be moved over as is, and is then given its own first key as anchor
+ * if that makes it smaller. Entries moved between leaves with different anchors are re-encoded.
+ * <p>
+ * Keys are handed to {@link Layout#readKey(PageCursor, Object, int)} from a decode buffer, which is thread local because
+ * tree nodes are shared between concurrent readers. All other scratch space is only used by the writer owning this instance.
+ */
+public class TreeNodeDynamicSizePrefixCompressed<KEY, VALUE> extends TreeNodeDynamicSize<KEY,VALUE>
+{
+    static final byte FORMAT_IDENTIFIER = 4;
+    static final byte FORMAT_VERSION = 0;
+
+    /**
+     * Shared prefix length is stored in one byte and so the anchor can't be longer than this.
+     */
+    static final int MAX_ANCHOR_SIZE = 0xFF;
+    private static final int SIZE_SHARED_PREFIX = Byte.BYTES;
+    private static final int SIZE_ANCHOR_SIZE = Byte.BYTES;
+    /**
+     * The anchor will never take more than this fraction of the total space in a leaf, which matters for small page sizes.
+     */
+    private static final int ANCHOR_SPACE_FRACTION = 8;
+
+    private final int maxAnchorSize;
+    private final int inlineKeyValueSizeCap;
+    private final int keyValueSizeCap;
+    private final ThreadLocal<DecodeBuffer> decodeBuffers;
+    private final byte[] anchor = new byte[MAX_ANCHOR_SIZE];
+    private final byte[] otherAnchor = new byte[MAX_ANCHOR_SIZE];
+    private final byte[] keyBytes;
+    private final PageCursor keyBytesCursor;
+    private final byte[] pageCopy;
+    private final PageCursor pageCopyCursor;
+
+    TreeNodeDynamicSizePrefixCompressed( int pageSize, Layout<KEY,VALUE> layout, OffloadStore<KEY,VALUE> offloadStore )
+    {
+        super( pageSize, layout, offloadStore );
+
+        maxAnchorSize = maxAnchorSize( pageSize );
+        inlineKeyValueSizeCap = inlineKeyValueSizeCap( pageSize );
+        keyValueSizeCap = keyValueSizeCapFromPageSize( pageSize );
+        if ( inlineKeyValueSizeCap < MINIMUM_ENTRY_SIZE_CAP )
+        {
+            throw new MetadataMismatchException( format(
+                    "We need to fit at least %d key-value entries per page in leaves. To do that a key-value entry can be at most %dB " +
+                            "with current page size of %dB. We require this cap to be at least %dB.",
+                    LEAST_NUMBER_OF_ENTRIES_PER_PAGE, inlineKeyValueSizeCap, pageSize, Long.BYTES ) );
+        }
+
+        int decodeBufferSize = keyValueSizeCap + MAX_ANCHOR_SIZE;
+        decodeBuffers = ThreadLocal.withInitial( () -> new DecodeBuffer( decodeBufferSize ) );
+        keyBytes = new byte[decodeBufferSize];
+        keyBytesCursor = ByteArrayPageCursor.wrap( keyBytes );
+        pageCopy = new byte[pageSize];
+        pageCopyCursor = ByteArrayPageCursor.wrap( pageCopy );
+    }
+
+    private static int maxAnchorSize( int pageSize )
+    {
+        int totalSpace = pageSize - selectOffsetFormat( pageSize ).getHeaderLength();
+        return Math.min( MAX_ANCHOR_SIZE, totalSpace / ANCHOR_SPACE_FRACTION );
+    }
+
+    @VisibleForTesting
+    public static int keyValueSizeCapFromPageSize( int pageSize )
+    {
+        return useOffloadStore( pageSize ) ?
+               Math.min( FIXED_MAX_KEY_VALUE_SIZE_CAP, OffloadStoreImpl.keyValueSizeCapFromPageSize( pageSize ) ) :
+               Math.min( FIXED_MAX_KEY_VALUE_SIZE_CAP, inlineKeyValueSizeCap( pageSize ) );
+    }
+
+    /**
+     * Same as {@link TreeNodeDynamicSize#inlineKeyValueSizeCap(int)}, but leaves room for the largest anchor and the shared prefix length
+     * so that an uncompressed entry of this size always fits.
+     */
+    @VisibleForTesting
+    public static int inlineKeyValueSizeCap( int pageSize )
+    {
+        DynamicSizeOffsetFormat offsetFormat = selectOffsetFormat( pageSize );
+        int spaceForEntries = pageSize - offsetFormat.getHeaderLength() - anchorEntrySize( maxAnchorSize( pageSize ) );
+        int capToFitNumberOfEntriesPerPage = spaceForEntries / LEAST_NUMBER_OF_ENTRIES_PER_PAGE - getTotalOverhead( offsetFormat ) - SIZE_SHARED_PREFIX;
+        return Math.min( FIXED_MAX_KEY_VALUE_SIZE_CAP, capToFitNumberOfEntriesPerPage );
+    }
+
+    private static int anchorEntrySize( int anchorSize )
+    {
+        int anchorKeySize = anchorSize + SIZE_ANCHOR_SIZE;
+        return getOverhead( anchorKeySize, 0, false ) + anchorKeySize;
+    }
+
+    @Override
+    void initializeLeaf( PageCursor cursor, long stableGeneration, long unstableGeneration )
+    {
+        super.initializeLeaf( cursor, stableGeneration, unstableGeneration );
+        writeAnchor( cursor, anchor, 0 );
+    }
+
+    @Override
+    KEY keyAt( PageCursor cursor, KEY into, int pos, Type type, PageCursorTracer cursorTracer )
+    {
+        if ( type == INTERNAL )
+        {
+            return super.keyAt( cursor, into, pos, type, cursorTracer );
+        }
+
+        placeCursorAtActualKey( cursor, pos, LEAF );
+        long keyValueSize = readKeyValueSize( cursor, msbIsOffload );
+        if ( extractOffload( keyValueSize ) )
+        {
+            return super.keyAt( cursor, into, pos, type, cursorTracer );
+        }
+
+        int keySize = extractKeySize( keyValueSize );
+        int valueSize = extractValueSize( keyValueSize );
+        if ( keyValueSizeTooLarge( keySize, valueSize ) || keySize < SIZE_SHARED_PREFIX )
+        {
+            readUnreliableKeyValueSize( cursor, keySize, valueSize, keyValueSize, pos );
+            return into;
+        }
+        readCompressedKey( cursor, into, keySize, pos );
+        return into;
+    }
+
+    @Override
+    void keyValueAt( PageCursor cursor, KEY intoKey, VALUE intoValue, int pos, PageCursorTracer cursorTracer )
+    {
+        placeCursorAtActualKey( cursor, pos, LEAF );
+        long keyValueSize = readKeyValueSize( cursor, msbIsOffload );
+        if ( extractOffload( keyValueSize ) )
+        {
+            super.keyValueAt( cursor, intoKey, intoValue, pos, cursorTracer );
+            return;
+        }
+
+        int keySize = extractKeySize( keyValueSize );
+        int valueSize = extractValueSize( keyValueSize );
+        if ( keyValueSizeTooLarge( keySize, valueSize ) || keySize < SIZE_SHARED_PREFIX || valueSize < 0 )
+        {
+            readUnreliableKeyValueSize( cursor, keySize, valueSize, keyValueSize, pos );
+            return;
+        }
+        if ( readCompressedKey( cursor, intoKey, keySize, pos ) )
+        {
+            layout.readValue( cursor, intoValue, valueSize );
+        }
+    }
+
+    /**
+     * Reads the key, which the cursor is placed right after the key value size of, into the given key instance.
+     * The cursor is left at the value of this entry.
+     *
+     * @return {@code true} if the key could be decoded, otherwise a cursor exception has been set.
+     */
+    private boolean readCompressedKey( PageCursor cursor, KEY into, int keySize, int pos )
+    {
+        int shared = cursor.getByte() & 0xFF;
+        int suffixOffset = cursor.getOffset();
+        int suffixSize = keySize - SIZE_SHARED_PREFIX;
+        int anchorSize = cursor.getByte( pageSize - SIZE_ANCHOR_SIZE ) & 0xFF;
+        if ( shared > anchorSize || anchorSize > maxAnchorSize )
+        {
+            cursor.setCursorException( format( "Read unreliable prefix compressed key, id=%d, sharedPrefix=%d, anchorSize=%d, keySize=%d, pos=%d",
+                    cursor.getCurrentPageId(), shared, anchorSize, keySize, pos ) );
+            return false;
+        }
+
+        DecodeBuffer buffer = decodeBuffers.get();
+        cursor.setOffset( pageSize - SIZE_ANCHOR_SIZE - anchorSize );
+        cursor.getBytes( buffer.bytes, 0, shared );
+        cursor.setOffset( suffixOffset );
+        cursor.getBytes( buffer.bytes, shared, suffixSize );
+        try
+        {
+            buffer.cursor.setOffset( 0 );
+            layout.readKey( buffer.cursor, into, shared + suffixSize );
+            buffer.cursor.checkAndClearCursorException();
+            return true;
+        }
+        catch ( CursorException | IndexOutOfBoundsException | BufferUnderflowException e )
+        {
+            // Decoded bytes came from an inconsistent read, the reader will retry
+            cursor.setCursorException( "Failed to read prefix compressed key, cause: " + e.getMessage() );
+            return false;
+        }
+    }
+
+    @Override
+    void insertKeyValueAt( PageCursor cursor, KEY key, VALUE value, int pos, int keyCount, long stableGeneration, long unstableGeneration,
+            PageCursorTracer cursorTracer ) throws IOException
+    {
+        int keySize = layout.keySize( key );
+        int valueSize = layout.valueSize( value );
+        if ( !canInline( keySize + valueSize ) )
+        {
+            // Offloaded keys are stored in full
+            super.insertKeyValueAt( cursor, key, value, pos, keyCount, stableGeneration, unstableGeneration, cursorTracer );
+            return;
+        }
+
+        writeKeyBytes( key );
+        if ( keyCount == 0 )
+        {
+            // Only dead entries left, start over with this key as anchor
+            resetLeaf( cursor, keyBytes, Math.min( keySize, maxAnchorSize ) );
+        }
+        int anchorSize = readAnchor( cursor, anchor );
+        int shared = sharedPrefix( anchor, anchorSize, keyBytes, keySize );
+        int newKeyValueOffset = putCompressedKeyValue( cursor, getAllocOffset( cursor ), keySize, shared, valueSize );
+        layout.writeValue( cursor, value );
+
+        // Update alloc space
+        setAllocOffset( cursor, newKeyValueOffset );
+
+        // Write to offset array
+        insertSlotsAt( cursor, pos, 1, keyCount, keyPosOffsetLeaf( 0 ), bytesKeyOffset() );
+        cursor.setOffset( keyPosOffsetLeaf( pos ) );
+        offsetFormat.putOffset( cursor, newKeyValueOffset );
+    }
+
+    /**
+     * Writes key value size, shared prefix and suffix of key in {@link #keyBytes} right before the given alloc offset.
+     * The cursor is left at where the value goes.
+     *
+     * @return offset of the written entry.
+     */
+    private int putCompressedKeyValue( PageCursor cursor, int allocOffset, int keySize, int shared, int valueSize )
+    {
+        int suffixSize = keySize - shared;
+        int storedKeySize = SIZE_SHARED_PREFIX + suffixSize;
+        int keyValueOffset = allocOffset - getOverhead( storedKeySize, valueSize, false ) - storedKeySize - valueSize;
+        cursor.setOffset( keyValueOffset );
+        putKeyValueSize( cursor, storedKeySize, valueSize, false );
+        cursor.putByte( (byte) shared );
+        cursor.putBytes( keyBytes, shared, suffixSize );
+        return keyValueOffset;
+    }
+
+    @Override
+    int totalSpaceOfNewKeyValue( PageCursor cursor, KEY key, VALUE value )
+    {
+        int keySize = layout.keySize( key );
+        int valueSize = layout.valueSize( value );
+        if ( !canInline( keySize + valueSize ) )
+        {
+            return super.totalSpaceOfNewKeyValue( cursor, key, value );
+        }
+        writeKeyBytes( key );
+        int anchorSize = readAnchor( cursor, anchor );
+        return totalSpaceOfCompressedKeyValue( keySize - sharedPrefix( anchor, anchorSize, keyBytes, keySize ), valueSize );
+    }
+
+    private int totalSpaceOfCompressedKeyValue( int suffixSize, int valueSize )
+    {
+        int storedKeySize = SIZE_SHARED_PREFIX + suffixSize;
+        return bytesKeyOffset() + getOverhead( storedKeySize, valueSize, false ) + storedKeySize + valueSize;
+    }
+
+    @Override
+    int leafSpaceKeptInBothOnSplit( PageCursor cursor )
+    {
+        return anchorEntrySize( readAnchor( cursor, anchor ) );
+    }
+
+    @Override
+    void doSplitLeaf( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int insertPos, KEY newKey, VALUE newValue, KEY newSplitter,
+            double ratioToKeepInLeftOnSplit, long stableGeneration, long unstableGeneration, PageCursorTracer cursorTracer ) throws IOException
+    {
+        // Right leaf starts out with the same anchor so that entries can be moved as is
+        int anchorSize = readAnchor( leftCursor, anchor );
+        writeAnchor( rightCursor, anchor, anchorSize );
+
+        super.doSplitLeaf( leftCursor, leftKeyCount, rightCursor, insertPos, newKey, newValue, newSplitter, ratioToKeepInLeftOnSplit,
+                stableGeneration, unstableGeneration, cursorTracer );
+
+        // Keys in right leaf are likely to share a longer prefix with its first key than with the anchor inherited from left
+        reanchorIfSmaller( rightCursor, keyCount( rightCursor ) );
+    }
+
+    /**
+     * Make the first key in the leaf the anchor, but only if that makes the leaf smaller. The leaf is rewritten from a copy of the page,
+     * which also gets rid of any dead space.
+     */
+    @VisibleForTesting
+    void reanchorIfSmaller( PageCursor cursor, int keyCount )
+    {
+        if ( keyCount == 0 )
+        {
+            return;
+        }
+        int anchorSize = readAnchor( cursor, anchor );
+        placeCursorAtActualKey( cursor, 0, LEAF );
+        long keyValueSize = readKeyValueSize( cursor, msbIsOffload );
+        if ( extractOffload( keyValueSize ) )
+        {
+            return;
+        }
+        int newAnchorSize = Math.min( decodeKeyBytes( cursor, extractKeySize( keyValueSize ), anchor ), maxAnchorSize );
+        System.arraycopy( keyBytes, 0, otherAnchor, 0, newAnchorSize );
+        if ( Arrays.equals( anchor, 0, anchorSize, otherAnchor, 0, newAnchorSize ) )
+        {
+            return;
+        }
+
+        int currentSpace = anchorEntrySize( anchorSize );
+        int newSpace = anchorEntrySize( newAnchorSize );
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            currentSpace += totalSpaceOfKeyValue( cursor, pos );
+            newSpace += totalSpaceOfTranscodedKeyValue( cursor, pos, anchor, otherAnchor, newAnchorSize );
+        }
+        if ( newSpace >= currentSpace )
+        {
+            return;
+        }
+
+        cursor.setOffset( 0 );
+        cursor.getBytes( pageCopy );
+        int prevAllocOffset = getAllocOffset( cursor );
+        setDeadSpace( cursor, 0 );
+        writeAnchor( cursor, otherAnchor, newAnchorSize );
+        int allocOffset = getAllocOffset( cursor );
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            allocOffset = transcodeKeyValue( pageCopyCursor, pos, anchor, cursor, allocOffset, otherAnchor, newAnchorSize );
+            cursor.setOffset( keyPosOffsetLeaf( pos ) );
+            offsetFormat.putOffset( cursor, allocOffset );
+        }
+        setAllocOffset( cursor, allocOffset );
+
+        // Zero pad reclaimed area
+        zeroPad( cursor, prevAllocOffset, allocOffset - prevAllocOffset );
+    }
+
+    @Override
+    int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        if ( sameAnchor( leftCursor, rightCursor ) )
+        {
+            return super.canRebalanceLeaves( leftCursor, leftKeyCount, rightCursor, rightKeyCount );
+        }
+        int rightAnchorSize = readAnchor( rightCursor, otherAnchor );
+        int leftActiveSpace = totalActiveSpace( leftCursor, leftKeyCount, LEAF );
+        int rightActiveSpace = totalActiveSpace( rightCursor, rightKeyCount, LEAF );
+
+        if ( rightActiveSpace + totalSpaceOfTranscodedKeyValues( leftCursor, leftKeyCount, rightAnchorSize ) < totalSpace )
+        {
+            // We can merge
+            return -1;
+        }
+        if ( leftActiveSpace < rightActiveSpace )
+        {
+            // Moving keys to the right will only create more imbalance
+            return 0;
+        }
+
+        // Same as for TreeNodeDynamicSize, except that entries grow or shrink when moved to right
+        int prevDelta;
+        int currentDelta = Math.abs( leftActiveSpace - rightActiveSpace );
+        int keysToMove = 0;
+        int lastChunkSizeInLeft;
+        int lastChunkSizeInRight;
+        do
+        {
+            keysToMove++;
+            lastChunkSizeInLeft = totalSpaceOfKeyValue( leftCursor, leftKeyCount - keysToMove );
+            lastChunkSizeInRight = totalSpaceOfTranscodedKeyValue( leftCursor, leftKeyCount - keysToMove, anchor, otherAnchor, rightAnchorSize );
+            leftActiveSpace -= lastChunkSizeInLeft;
+            rightActiveSpace += lastChunkSizeInRight;
+
+            prevDelta = currentDelta;
+            currentDelta = Math.abs( leftActiveSpace - rightActiveSpace );
+        }
+        while ( currentDelta < prevDelta && keysToMove < leftKeyCount );
+        if ( currentDelta >= prevDelta )
+        {
+            keysToMove--; // Move back to optimal split
+            leftActiveSpace += lastChunkSizeInLeft;
+            rightActiveSpace -= lastChunkSizeInRight;
+        }
+
+        boolean canRebalance = leftActiveSpace > halfSpace && rightActiveSpace > halfSpace && rightActiveSpace <= totalSpace;
+        return canRebalance ? keysToMove : 0;
+    }
+
+    @Override
+    boolean canMergeLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        if ( sameAnchor( leftCursor, rightCursor ) )
+        {
+            return super.canMergeLeaves( leftCursor, leftKeyCount, rightCursor, rightKeyCount );
+        }
+        int rightAnchorSize = readAnchor( rightCursor, otherAnchor );
+        int rightActiveSpace = totalActiveSpace( rightCursor, rightKeyCount, LEAF );
+        return totalSpace >= rightActiveSpace + totalSpaceOfTranscodedKeyValues( leftCursor, leftKeyCount, rightAnchorSize );
+    }
+
+    /**
+     * Space needed for all entries in left leaf if they were to be encoded with the anchor in {@link #otherAnchor}.
+     * Reads anchor of left leaf into {@link #anchor}.
+     */
+    private int totalSpaceOfTranscodedKeyValues( PageCursor leftCursor, int leftKeyCount, int rightAnchorSize )
+    {
+        readAnchor( leftCursor, anchor );
+        int space = 0;
+        for ( int pos = 0; pos < leftKeyCount; pos++ )
+        {
+            space += totalSpaceOfTranscodedKeyValue( leftCursor, pos, anchor, otherAnchor, rightAnchorSize );
+        }
+        return space;
+    }
+
+    // NOTE: Does update keyCount
+    @Override
+    void moveKeysAndValues( PageCursor fromCursor, int fromPos, PageCursor toCursor, int toPos, int count )
+    {
+        if ( sameAnchor( fromCursor, toCursor ) )
+        {
+            super.moveKeysAndValues( fromCursor, fromPos, toCursor, toPos, count );
+            return;
+        }
+
+        int toAnchorSize = readAnchor( toCursor, otherAnchor );
+        int toAllocOffset = getAllocOffset( toCursor );
+        int totalMovedBytes = 0;
+        for ( int i = 0; i < count; i++, toPos++ )
+        {
+            // Entry is removed from 'from' as is but may change size in 'to'
+            totalMovedBytes += totalSpaceOfKeyValue( fromCursor, fromPos + i ) - bytesKeyOffset();
+            toAllocOffset = transcodeKeyValue( fromCursor, fromPos + i, anchor, toCursor, toAllocOffset, otherAnchor, toAnchorSize );
+            int fromKeyOffset = fromCursor.getOffset();
+            toCursor.setOffset( keyPosOffsetLeaf( toPos ) );
+            offsetFormat.putOffset( toCursor, toAllocOffset );
+
+            // Put tombstone
+            fromCursor.setOffset( fromKeyOffset );
+            putTombstone( fromCursor );
+        }
+        setAllocOffset( toCursor, toAllocOffset );
+
+        // Update deadSpace
+        setDeadSpace( fromCursor, getDeadSpace( fromCursor ) + totalMovedBytes );
+
+        // Key count
+        setKeyCount( fromCursor, fromPos );
+    }
+
+    @Override
+    void copyKeysAndValues( PageCursor fromCursor, int fromPos, PageCursor toCursor, int toPos, int count )
+    {
+        if ( sameAnchor( fromCursor, toCursor ) )
+        {
+            super.copyKeysAndValues( fromCursor, fromPos, toCursor, toPos, count );
+            return;
+        }
+
+        int toAnchorSize = readAnchor( toCursor, otherAnchor );
+        int toAllocOffset = getAllocOffset( toCursor );
+        for ( int i = 0; i < count; i++, toPos++ )
+        {
+            toAllocOffset = transcodeKeyValue( fromCursor, fromPos + i, anchor, toCursor, toAllocOffset, otherAnchor, toAnchorSize );
+            toCursor.setOffset( keyPosOffsetLeaf( toPos ) );
+            offsetFormat.putOffset( toCursor, toAllocOffset );
+        }
+        setAllocOffset( toCursor, toAllocOffset );
+    }
+
+    /**
+     * Reads anchors of both leaves, into {@link #anchor} and {@link #otherAnchor} respectively.
+     */
+    private boolean sameAnchor( PageCursor cursor, PageCursor otherCursor )
+    {
+        int anchorSize = readAnchor( cursor, anchor );
+        int otherAnchorSize = readAnchor( otherCursor, otherAnchor );
+        return Arrays.equals( anchor, 0, anchorSize, otherAnchor, 0, otherAnchorSize );
+    }
+
+    private int totalSpaceOfTranscodedKeyValue( PageCursor fromCursor, int fromPos, byte[] fromAnchor, byte[] toAnchor, int toAnchorSize )
+    {
+        placeCursorAtActualKey( fromCursor, fromPos, LEAF );
+        long keyValueSize = readKeyValueSize( fromCursor, msbIsOffload );
+        if ( extractOffload( keyValueSize ) )
+        {
+            return totalSpaceOfKeyValue( fromCursor, fromPos );
+        }
+        int keySize = decodeKeyBytes( fromCursor, extractKeySize( keyValueSize ), fromAnchor );
+        return totalSpaceOfCompressedKeyValue( keySize - sharedPrefix( toAnchor, toAnchorSize, keyBytes, keySize ), extractValueSize( keyValueSize ) );
+    }
+
+    /**
+     * Write entry at logical position in 'from' to physical position next to current alloc offset in 'to', encoded with the anchor of 'to'.
+     * Leaves 'from' cursor at the entry in 'from'.
+     *
+     * @return new alloc offset in 'to'
+     */
+    private int transcodeKeyValue( PageCursor fromCursor, int fromPos, byte[] fromAnchor, PageCursor toCursor, int toAllocOffset, byte[] toAnchor,
+            int toAnchorSize )
+    {
+        placeCursorAtActualKey( fromCursor, fromPos, LEAF );
+        int fromKeyOffset = fromCursor.getOffset();
+        long keyValueSize = readKeyValueSize( fromCursor, msbIsOffload );
+        int valueSize = extractValueSize( keyValueSize );
+        int newOffset;
+        if ( extractOffload( keyValueSize ) )
+        {
+            // Copy as is
+            int entrySize = getOverhead( extractKeySize( keyValueSize ), valueSize, true );
+            fromCursor.setOffset( fromKeyOffset );
+            fromCursor.getBytes( keyBytes, 0, entrySize );
+            newOffset = toAllocOffset - entrySize;
+            toCursor.setOffset( newOffset );
+            toCursor.putBytes( keyBytes, 0, entrySize );
+        }
+        else
+        {
+            int keySize = decodeKeyBytes( fromCursor, extractKeySize( keyValueSize ), fromAnchor );
+            fromCursor.getBytes( keyBytes, keySize, valueSize );
+            int shared = sharedPrefix( toAnchor, toAnchorSize, keyBytes, keySize );
+            newOffset = putCompressedKeyValue( toCursor, toAllocOffset, keySize, shared, valueSize );
+            toCursor.putBytes( keyBytes, keySize, valueSize );
+        }
+        fromCursor.setOffset( fromKeyOffset );
+        return newOffset;
+    }
+
+    /**
+     * Decodes key, which the cursor is placed right after the key value size of, into {@link #keyBytes}.
+     * The cursor is left at the value of this entry.
+     *
+     * @return size of decoded key.
+     */
+    private int decodeKeyBytes( PageCursor cursor, int storedKeySize, byte[] anchor )
+    {
+        int shared = cursor.getByte() & 0xFF;
+        int suffixSize = storedKeySize - SIZE_SHARED_PREFIX;
+        System.arraycopy( anchor, 0, keyBytes, 0, shared );
+        cursor.getBytes( keyBytes, shared, suffixSize );
+        return shared + suffixSize;
+    }
+
+    private void writeKeyBytes( KEY key )
+    {
+        keyBytesCursor.setOffset( 0 );
+        layout.writeKey( keyBytesCursor, key );
+    }
+
+    private static int sharedPrefix( byte[] anchor, int anchorSize, byte[] key, int keySize )
+    {
+        int mismatch = Arrays.mismatch( anchor, 0, anchorSize, key, 0, keySize );
+        return mismatch == -1 ? anchorSize : mismatch;
+    }
+
+    /**
+     * @return size of anchor in leaf, which has been read into the given array.
+     */
+    @VisibleForTesting
+    int readAnchor( PageCursor cursor, byte[] into )
+    {
+        int anchorSize = cursor.getByte( pageSize - SIZE_ANCHOR_SIZE ) & 0xFF;
+        if ( anchorSize > maxAnchorSize )
+        {
+            // Can only happen on inconsistent read
+            cursor.setCursorException( format( "Read unreliable anchor, id=%d, anchorSize=%d, maxAnchorSize=%d",
+                    cursor.getCurrentPageId(), anchorSize, maxAnchorSize ) );
+            return 0;
+        }
+        cursor.setOffset( pageSize - SIZE_ANCHOR_SIZE - anchorSize );
+        cursor.getBytes( into, 0, anchorSize );
+        return anchorSize;
+    }
+
+    /**
+     * Write anchor as the only entry in data space of leaf. Any existing entries are overwritten.
+     */
+    private void writeAnchor( PageCursor cursor, byte[] anchor, int anchorSize )
+    {
+        int anchorOffset = pageSize - anchorEntrySize( anchorSize );
+        cursor.setOffset( anchorOffset );
+        putKeyValueSize( cursor, anchorSize + SIZE_ANCHOR_SIZE, 0, false );
+        cursor.putBytes( anchor, 0, anchorSize );
+        cursor.putByte( (byte) anchorSize );
+        setAllocOffset( cursor, anchorOffset );
+    }
+
+    private void resetLeaf( PageCursor cursor, byte[] anchor, int anchorSize )
+    {
+        int prevAllocOffset = getAllocOffset( cursor );
+        setDeadSpace( cursor, 0 );
+        writeAnchor( cursor, anchor, anchorSize );
+        int allocOffset = getAllocOffset( cursor );
+        if ( allocOffset > prevAllocOffset )
+        {
+            zeroPad( cursor, prevAllocOffset, allocOffset - prevAllocOffset );
+        }
+    }
+
+    @Override
+    public int keyValueSizeCap()
+    {
+        return keyValueSizeCap;
+    }
+
+    @Override
+    public int inlineKeyValueSizeCap()
+    {
+        return inlineKeyValueSizeCap;
+    }
+
+    @Override
+    void printNode( PageCursor cursor, boolean includeValue, boolean includeAllocSpace, long stableGeneration, long unstableGeneration,
+            PageCursorTracer cursorTracer )
+    {
+        if ( isInternal( cursor ) )
+        {
+            super.printNode( cursor, includeValue, includeAllocSpace, stableGeneration, unstableGeneration, cursorTracer );
+            return;
+        }
+
+        int currentOffset = cursor.getOffset();
+        byte[] anchorBytes = new byte[MAX_ANCHOR_SIZE];
+        int anchorSize = readAnchor( cursor, anchorBytes );
+        String header = "{" + cursor.getCurrentPageId() + "} [allocOffset=" + getAllocOffset( cursor ) + " deadSpace=" + getDeadSpace( cursor ) +
+                " anchor=" + Arrays.toString( Arrays.copyOf( anchorBytes, anchorSize ) ) + "] ";
+        KEY readKey = layout.newKey();
+        VALUE readValue = layout.newValue();
+        StringJoiner keys = new StringJoiner( " " );
+        int keyCount = keyCount( cursor );
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            keyValueAt( cursor, readKey, readValue, pos, cursorTracer );
+            keys.add( includeValue ? readKey + "|" + readValue : readKey.toString() );
+        }
+        cursor.setOffset( currentOffset );
+        System.out.println( header + keys );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TreeNodeDynamicSizePrefixCompressed[pageSize:" + pageSize + ", keyValueSizeCap:" + keyValueSizeCap + ", inlineKeyValueSizeCap:" +
+                inlineKeyValueSizeCap + ", maxAnchorSize:" + maxAnchorSize + "]";
+    }
+
+    private static class DecodeBuffer
+    {
+        private final byte[] bytes;
+        private final PageCursor cursor;
+
+        DecodeBuffer( int size )
+        {
+            bytes = new byte[size];
+            cursor = ByteArrayPageCursor.wrap( bytes );
+        }
+    }
+}
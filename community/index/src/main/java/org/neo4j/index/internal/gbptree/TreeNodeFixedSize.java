@@ -350,6 +350,24 @@ class TreeNodeFixedSize<KEY,VALUE> extends TreeNode<KEY,VALUE>
         return keyCount < (leafMaxKeyCount() + 1) / 2;
     }
 
+    @Override
+    boolean leafExceedsFillFactor( PageCursor cursor, int keyCount, KEY newKey, VALUE newValue, double fillFactor )
+    {
+        return keyCount + 1 > leafMaxKeyCount() * fillFactor;
+    }
+
+    @Override
+    boolean internalExceedsFillFactor( PageCursor cursor, int keyCount, KEY newKey, double fillFactor )
+    {
+        return keyCount + 1 > internalMaxKeyCount() * fillFactor;
+    }
+
+    @Override
+    boolean canRemoveKeyValueInPlace( PageCursor cursor, int pos, int keyCount )
+    {
+        return !leafUnderflow( cursor, keyCount - 1 );
+    }
+
     @Override
     int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
     {
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.neo4j.util.FeatureToggles;
+
+/**
+ * Latches used by concurrent writers of a {@link GBPTree} to make sure that no two writers change the same tree node in place
+ * at the same time. Latches are striped, i.e. a latch covers all tree nodes with colliding ids, which is fine since a writer
+ * only ever holds one latch at a time.
+ */
+class TreeNodeLatches
+{
+    private static final int stripes = Integer.highestOneBit( FeatureToggles.getInteger( TreeNodeLatches.class, "stripes", 128 ) );
+    private static final long stripeMask = stripes - 1;
+
+    private final Lock[] latches;
+
+    TreeNodeLatches()
+    {
+        latches = new Lock[stripes];
+        for ( int i = 0; i < stripes; i++ )
+        {
+            latches[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @param treeNodeId id of tree node to get the latch for.
+     * @return the latch covering the given tree node, not locked.
+     */
+    Lock latch( long treeNodeId )
+    {
+        return latches[(int) (mix( treeNodeId ) & stripeMask)];
+    }
+
+    private static long mix( long identifier )
+    {
+        identifier ^= identifier << 21;
+        identifier ^= identifier >>> 35;
+        identifier ^= identifier << 4;
+        return identifier;
+    }
+}
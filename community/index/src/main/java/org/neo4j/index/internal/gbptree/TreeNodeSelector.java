@@ -75,6 +75,30 @@ class TreeNodeSelector
         }
     };
 
+    /**
+     * Creates {@link TreeNodeDynamicSizePrefixCompressed} instances.
+     */
+    private static final Factory DYNAMIC_PREFIX_COMPRESSED = new Factory()
+    {
+        @Override
+        public <KEY,VALUE> TreeNode<KEY,VALUE> create( int pageSize, Layout<KEY,VALUE> layout, OffloadStore<KEY,VALUE> offloadStore )
+        {
+            return new TreeNodeDynamicSizePrefixCompressed<>( pageSize, layout, offloadStore );
+        }
+
+        @Override
+        public byte formatIdentifier()
+        {
+            return TreeNodeDynamicSizePrefixCompressed.FORMAT_IDENTIFIER;
+        }
+
+        @Override
+        public byte formatVersion()
+        {
+            return TreeNodeDynamicSizePrefixCompressed.FORMAT_VERSION;
+        }
+    };
+
     /**
      * Selects a format based on the given {@link Layout}.
      *
@@ -83,8 +107,17 @@ class TreeNodeSelector
      */
     static Factory selectByLayout( Layout<?,?> layout )
     {
-        // For now the selection is done in a simple fashion, by looking at layout.fixedSize().
-        return layout.fixedSize() ? FIXED : DYNAMIC;
+        // For now the selection is done in a simple fashion, by looking at layout.fixedSize() and layout.compressKeyPrefixes().
+        if ( layout.fixedSize() )
+        {
+            return FIXED;
+        }
+        return layout.compressKeyPrefixes() ? DYNAMIC_PREFIX_COMPRESSED : DYNAMIC;
+    }
+
+    static boolean sameFormat( Factory format, byte formatIdentifier, byte formatVersion )
+    {
+        return format.formatIdentifier() == formatIdentifier && format.formatVersion() == formatVersion;
     }
 
     /**
@@ -96,7 +129,7 @@ class TreeNodeSelector
      */
     static Factory selectByFormat( byte formatIdentifier, byte formatVersion )
     {
-        // For now do a simple selection of the two formats we know. Moving forward this can contain
+        // For now do a simple selection of the formats we know. Moving forward this can contain
         // many more identifiers and different versions of each.
         if ( formatIdentifier == TreeNodeFixedSize.FORMAT_IDENTIFIER && formatVersion == TreeNodeFixedSize.FORMAT_VERSION )
         {
@@ -106,6 +139,11 @@ class TreeNodeSelector
         {
             return DYNAMIC;
         }
+        else if ( formatIdentifier == TreeNodeDynamicSizePrefixCompressed.FORMAT_IDENTIFIER &&
+                  formatVersion == TreeNodeDynamicSizePrefixCompressed.FORMAT_VERSION )
+        {
+            return DYNAMIC_PREFIX_COMPRESSED;
+        }
         throw new IllegalArgumentException(
                 format( "Unknown format identifier:%d and version:%d combination", formatIdentifier, formatVersion ) );
     }
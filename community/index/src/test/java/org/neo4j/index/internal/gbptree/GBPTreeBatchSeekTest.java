@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.PageCacheConfig;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+@EphemeralTestDirectoryExtension
+@ExtendWith( RandomExtension.class )
+class GBPTreeBatchSeekTest
+{
+    private static final int KEY_COUNT = 10_000;
+
+    @RegisterExtension
+    static PageCacheSupportExtension pageCacheExtension = new PageCacheSupportExtension( PageCacheConfig.config().withPageSize( 512 ) );
+    @Inject
+    private TestDirectory directory;
+    @Inject
+    private PageCache pageCache;
+    @Inject
+    private RandomRule random;
+
+    private final SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+
+    @Test
+    void shouldFindSameHitsAsSeparateSeeksForSortedRanges() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = treeWithEvenKeys() )
+        {
+            // given
+            List<long[]> ranges = randomRanges( 1_000 );
+            ranges.sort( ( a, b ) -> Long.compare( a[0], b[0] ) );
+
+            // when/then
+            assertSameHitsAsSeparateSeeks( tree, ranges );
+        }
+    }
+
+    @Test
+    void shouldFindSameHitsAsSeparateSeeksForRangesInAnyOrder() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = treeWithEvenKeys() )
+        {
+            // given
+            List<long[]> ranges = randomRanges( 1_000 );
+            Collections.shuffle( ranges, random.random() );
+
+            // when/then
+            assertSameHitsAsSeparateSeeks( tree, ranges );
+        }
+    }
+
+    @Test
+    void shouldSeeChangesMadeBetweenSeeks() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = treeWithEvenKeys();
+              BatchSeeker<MutableLong,MutableLong> batchSeeker = tree.batchSeeker( NULL ) )
+        {
+            for ( long key = 1; key < KEY_COUNT * 2; key += 2 )
+            {
+                // when
+                assertHits( batchSeeker.seek( layout.key( key - 1 ), layout.key( key - 1 ) ), key - 1 );
+                insert( tree, key - 1 + KEY_COUNT * 2 );
+                insert( tree, key );
+                remove( tree, key - 1 );
+
+                // then
+                assertHits( batchSeeker.seek( layout.key( key - 1 ), layout.key( key + 1 ) ), key );
+            }
+        }
+    }
+
+    @Test
+    void shouldPinFewerPagesThanSeparateSeeksForSortedExactLookups() throws IOException
+    {
+        DefaultPageCacheTracer pageCacheTracer = new DefaultPageCacheTracer();
+        try ( GBPTree<MutableLong,MutableLong> tree = treeWithEvenKeys() )
+        {
+            // when
+            long separatePins;
+            try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( "separateSeeks" ) )
+            {
+                for ( long key = 0; key < KEY_COUNT * 2; key++ )
+                {
+                    try ( Seeker<MutableLong,MutableLong> seeker = tree.seek( layout.key( key ), layout.key( key ), cursorTracer ) )
+                    {
+                        assertEquals( key % 2 == 0, seeker.next() );
+                    }
+                }
+                separatePins = cursorTracer.pins();
+            }
+            long batchPins;
+            try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( "batchSeek" );
+                  BatchSeeker<MutableLong,MutableLong> batchSeeker = tree.batchSeeker( cursorTracer ) )
+            {
+                for ( long key = 0; key < KEY_COUNT * 2; key++ )
+                {
+                    assertEquals( key % 2 == 0, batchSeeker.seek( layout.key( key ), layout.key( key ) ).next() );
+                }
+                batchPins = cursorTracer.pins();
+            }
+
+            // then
+            assertThat( batchPins ).isLessThan( separatePins / 2 );
+        }
+    }
+
+    @Test
+    void shouldNotCloseBatchSeekerWhenClosingSeekerOfRange() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = treeWithEvenKeys();
+              BatchSeeker<MutableLong,MutableLong> batchSeeker = tree.batchSeeker( NULL ) )
+        {
+            // when
+            batchSeeker.seek( layout.key( 0 ), layout.key( 10 ) ).close();
+
+            // then
+            assertHits( batchSeeker.seek( layout.key( 10 ), layout.key( 14 ) ), 10, 12 );
+        }
+    }
+
+    @Test
+    void shouldNotSeekBackwards() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = treeWithEvenKeys();
+              BatchSeeker<MutableLong,MutableLong> batchSeeker = tree.batchSeeker( NULL ) )
+        {
+            assertThrows( IllegalArgumentException.class, () -> batchSeeker.seek( layout.key( 10 ), layout.key( 0 ) ) );
+            batchSeeker.seek( layout.key( 0 ), layout.key( 10 ) );
+            assertThrows( IllegalArgumentException.class, () -> batchSeeker.seek( layout.key( 10 ), layout.key( 0 ) ) );
+        }
+    }
+
+    @Test
+    void shouldNotFindAnythingAfterBatchSeekerIsClosed() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = treeWithEvenKeys() )
+        {
+            // given
+            BatchSeeker<MutableLong,MutableLong> batchSeeker = tree.batchSeeker( NULL );
+            Seeker<MutableLong,MutableLong> seeker = batchSeeker.seek( layout.key( 0 ), layout.key( 10 ) );
+
+            // when
+            batchSeeker.close();
+
+            // then
+            assertFalse( seeker.next() );
+            assertThrows( IllegalStateException.class, () -> batchSeeker.seek( layout.key( 0 ), layout.key( 10 ) ) );
+        }
+    }
+
+    private GBPTree<MutableLong,MutableLong> treeWithEvenKeys() throws IOException
+    {
+        GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build();
+        try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+        {
+            for ( long key = 0; key < KEY_COUNT * 2; key += 2 )
+            {
+                writer.put( layout.key( key ), layout.value( key ) );
+            }
+        }
+        return tree;
+    }
+
+    private List<long[]> randomRanges( int count )
+    {
+        List<long[]> ranges = new ArrayList<>();
+        for ( int i = 0; i < count; i++ )
+        {
+            long from = random.nextLong( KEY_COUNT * 2 + 10 );
+            // Mix of exact lookups, for both existing and non-existing keys, and ranges
+            long to = random.nextBoolean() ? from : from + random.nextInt( 50 );
+            ranges.add( new long[]{from, to} );
+        }
+        return ranges;
+    }
+
+    private void assertSameHitsAsSeparateSeeks( GBPTree<MutableLong,MutableLong> tree, List<long[]> ranges ) throws IOException
+    {
+        try ( BatchSeeker<MutableLong,MutableLong> batchSeeker = tree.batchSeeker( NULL ) )
+        {
+            for ( long[] range : ranges )
+            {
+                List<Long> expected;
+                try ( Seeker<MutableLong,MutableLong> seeker = tree.seek( layout.key( range[0] ), layout.key( range[1] ), NULL ) )
+                {
+                    expected = hits( seeker );
+                }
+                assertEquals( expected, hits( batchSeeker.seek( layout.key( range[0] ), layout.key( range[1] ) ) ),
+                        "Range " + range[0] + "-" + range[1] );
+            }
+        }
+    }
+
+    private void assertHits( Seeker<MutableLong,MutableLong> seeker, long... expectedKeys ) throws IOException
+    {
+        List<Long> expected = new ArrayList<>();
+        for ( long expectedKey : expectedKeys )
+        {
+            expected.add( expectedKey );
+        }
+        assertEquals( expected, hits( seeker ) );
+    }
+
+    private static List<Long> hits( Seeker<MutableLong,MutableLong> seeker ) throws IOException
+    {
+        List<Long> hits = new ArrayList<>();
+        while ( seeker.next() )
+        {
+            assertEquals( seeker.key().longValue(), seeker.value().longValue() );
+            hits.add( seeker.key().longValue() );
+        }
+        return hits;
+    }
+
+    private void insert( GBPTree<MutableLong,MutableLong> tree, long key ) throws IOException
+    {
+        try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+        {
+            writer.put( layout.key( key ), layout.value( key ) );
+        }
+    }
+
+    private void remove( GBPTree<MutableLong,MutableLong> tree, long key ) throws IOException
+    {
+        try ( Writer<MutableLong,MutableLong> writer = tree.writer( NULL ) )
+        {
+            assertNotNull( writer.remove( layout.key( key ) ) );
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.TreeSet;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.muninn.StandalonePageCacheFactory;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+@TestDirectoryExtension
+@ExtendWith( RandomExtension.class )
+abstract class GBPTreeBulkLoaderTestBase<KEY,VALUE>
+{
+    private static final int PAGE_SIZE = 512;
+
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private DefaultFileSystemAbstraction fs;
+    @Inject
+    private RandomRule random;
+
+    private PageCache pageCache;
+    private TestLayout<KEY,VALUE> layout;
+    private Path indexFile;
+
+    abstract TestLayout<KEY,VALUE> getLayout( RandomRule random, int pageSize );
+
+    @BeforeEach
+    void setUp()
+    {
+        indexFile = testDirectory.file( "index" );
+        pageCache = StandalonePageCacheFactory.createPageCache( fs, new ThreadPoolJobScheduler(), PAGE_SIZE );
+        layout = getLayout( random, pageCache.pageSize() );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        if ( pageCache != null )
+        {
+            pageCache.close();
+            pageCache = null;
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource( doubles = {0.1, 0.5, 0.75, 1.0} )
+    void shouldSeeAllBulkLoadedEntries( double fillFactor ) throws IOException
+    {
+        // given
+        int count = random.nextInt( 1_000, 5_000 );
+        long[] seeds = ascendingSeeds( count );
+
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // when
+            bulkLoad( index, fillFactor, seeds );
+
+            // then
+            assertSeekAll( index, seeds );
+            assertTrue( index.consistencyCheck( NULL ) );
+        }
+    }
+
+    @Test
+    void shouldKeepBulkLoadedEntriesAfterCheckpointAndRestart() throws IOException
+    {
+        // given
+        long[] seeds = ascendingSeeds( 3_000 );
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            bulkLoad( index, 1.0, seeds );
+            index.checkpoint( IOLimiter.UNLIMITED, NULL );
+        }
+
+        // when
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // then
+            assertSeekAll( index, seeds );
+            assertTrue( index.consistencyCheck( NULL ) );
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource( doubles = {0.5, 1.0} )
+    void shouldAllowWritesIntoBulkLoadedTree( double fillFactor ) throws IOException
+    {
+        // given
+        long[] seeds = new long[2_000];
+        for ( int i = 0; i < seeds.length; i++ )
+        {
+            seeds[i] = i * 2L;
+        }
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            bulkLoad( index, fillFactor, seeds );
+
+            // when
+            TreeSet<Long> expected = new TreeSet<>();
+            for ( long seed : seeds )
+            {
+                expected.add( seed );
+            }
+            try ( Writer<KEY,VALUE> writer = index.writer( NULL ) )
+            {
+                for ( int i = 0; i < 1_000; i++ )
+                {
+                    long seed = random.nextLong( seeds.length * 2L );
+                    if ( random.nextBoolean() )
+                    {
+                        writer.put( key( seed ), value( seed ) );
+                        expected.add( seed );
+                    }
+                    else
+                    {
+                        writer.remove( key( seed ) );
+                        expected.remove( seed );
+                    }
+                }
+            }
+
+            // then
+            assertSeekAll( index, expected.stream().mapToLong( Long::longValue ).toArray() );
+            assertTrue( index.consistencyCheck( NULL ) );
+        }
+    }
+
+    @Test
+    void shouldLeaveTreeEmptyOnEmptyBulkLoad() throws IOException
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // when
+            bulkLoad( index, 1.0, new long[0] );
+
+            // then
+            assertSeekAll( index, new long[0] );
+            assertTrue( index.consistencyCheck( NULL ) );
+        }
+    }
+
+    @Test
+    void shouldThrowOnKeysNotInAscendingOrder() throws IOException
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // when
+            try ( BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader( 1.0, NULL ) )
+            {
+                bulkLoader.add( key( 10 ), value( 10 ) );
+                assertThrows( IllegalArgumentException.class, () -> bulkLoader.add( key( 10 ), value( 10 ) ) );
+                assertThrows( IllegalArgumentException.class, () -> bulkLoader.add( key( 5 ), value( 5 ) ) );
+            }
+
+            // then the failed bulk load leaves the tree empty and usable
+            assertSeekAll( index, new long[0] );
+            bulkLoad( index, 1.0, ascendingSeeds( 100 ) );
+            assertTrue( index.consistencyCheck( NULL ) );
+        }
+    }
+
+    @Test
+    void shouldThrowWhenBulkLoadingNonEmptyTree() throws IOException
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // given
+            try ( Writer<KEY,VALUE> writer = index.writer( NULL ) )
+            {
+                writer.put( key( 1 ), value( 1 ) );
+            }
+
+            // when/then
+            assertThrows( IllegalStateException.class, () -> index.bulkLoader( 1.0, NULL ) );
+
+            // and the tree is still writable
+            try ( Writer<KEY,VALUE> writer = index.writer( NULL ) )
+            {
+                writer.put( key( 2 ), value( 2 ) );
+            }
+            assertSeekAll( index, new long[]{1, 2} );
+        }
+    }
+
+    @Test
+    void shouldThrowOnInvalidFillFactor() throws IOException
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            assertThrows( IllegalArgumentException.class, () -> index.bulkLoader( 0, NULL ) );
+            assertThrows( IllegalArgumentException.class, () -> index.bulkLoader( 1.1, NULL ) );
+        }
+    }
+
+    private void bulkLoad( GBPTree<KEY,VALUE> index, double fillFactor, long[] seeds ) throws IOException
+    {
+        try ( BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader( fillFactor, NULL ) )
+        {
+            for ( long seed : seeds )
+            {
+                bulkLoader.add( key( seed ), value( seed ) );
+            }
+        }
+    }
+
+    private void assertSeekAll( GBPTree<KEY,VALUE> index, long[] expectedSeeds ) throws IOException
+    {
+        try ( Seeker<KEY,VALUE> seeker = index.seek( key( 0 ), key( Long.MAX_VALUE ), NULL ) )
+        {
+            for ( long seed : expectedSeeds )
+            {
+                assertTrue( seeker.next() );
+                assertEquals( seed, layout.keySeed( seeker.key() ) );
+                assertEquals( seed, layout.valueSeed( seeker.value() ) );
+            }
+            assertFalse( seeker.next() );
+        }
+    }
+
+    private long[] ascendingSeeds( int count )
+    {
+        long[] seeds = new long[count];
+        long seed = 0;
+        for ( int i = 0; i < count; i++ )
+        {
+            seed += random.nextInt( 1, 10 );
+            seeds[i] = seed;
+        }
+        return seeds;
+    }
+
+    private GBPTree<KEY,VALUE> index()
+    {
+        return new GBPTreeBuilder<>( pageCache, indexFile, layout ).build();
+    }
+
+    private KEY key( long seed )
+    {
+        return layout.key( seed );
+    }
+
+    private VALUE value( long seed )
+    {
+        return layout.value( seed );
+    }
+}
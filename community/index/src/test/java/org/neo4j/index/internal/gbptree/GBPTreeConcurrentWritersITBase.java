@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.test.Race;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.TestDirectory;
+
+import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.test.Race.throwing;
+import static org.neo4j.test.rule.PageCacheConfig.config;
+
+/**
+ * Verifies that {@link GBPTree#concurrentWriter(double, org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer) concurrent writers}
+ * can change the tree in parallel, together with concurrent readers and checkpoints, and leave the tree consistent and
+ * with the expected contents.
+ * <p>
+ * Every writer thread owns the keys which, modulo the number of writer threads, equals its thread id. That way each thread can keep
+ * track of the expected contents of its own keys while the keys of all threads are interleaved in the same leaves.
+ */
+@EphemeralTestDirectoryExtension
+@ExtendWith( RandomExtension.class )
+abstract class GBPTreeConcurrentWritersITBase<KEY,VALUE>
+{
+    private static final int NUMBER_OF_WRITERS = 4;
+    private static final int KEYS_PER_WRITER = 5_000;
+
+    @RegisterExtension
+    static PageCacheSupportExtension pageCacheExtension = new PageCacheSupportExtension();
+    @Inject
+    private FileSystemAbstraction fileSystem;
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private RandomRule random;
+
+    private TestLayout<KEY,VALUE> layout;
+
+    abstract TestLayout<KEY,VALUE> getLayout( RandomRule random, int pageSize );
+
+    abstract void copyValue( VALUE from, VALUE into );
+
+    private GBPTree<KEY,VALUE> createIndex()
+    {
+        int pageSize = 512;
+        layout = getLayout( random, pageSize );
+        PageCache pageCache = pageCacheExtension.getPageCache( fileSystem, config().withPageSize( pageSize ).withAccessChecks( true ) );
+        return new GBPTreeBuilder<>( pageCache, testDirectory.file( "index" ), layout ).build();
+    }
+
+    @Test
+    void shouldStayCorrectWithConcurrentWritersReadersAndCheckpoints() throws Throwable
+    {
+        try ( GBPTree<KEY,VALUE> index = createIndex() )
+        {
+            // given
+            List<Map<Long,Long>> expected = new ArrayList<>();
+            for ( int i = 0; i < NUMBER_OF_WRITERS; i++ )
+            {
+                expected.add( new TreeMap<>() );
+            }
+            int rounds = 5;
+            for ( int round = 0; round < rounds; round++ )
+            {
+                // when
+                AtomicInteger writersDone = new AtomicInteger();
+                Race race = new Race();
+                double removeProbability = (double) round / rounds;
+                long[] seeds = new long[NUMBER_OF_WRITERS];
+                for ( int i = 0; i < NUMBER_OF_WRITERS; i++ )
+                {
+                    seeds[i] = random.nextLong();
+                }
+                race.addContestants( NUMBER_OF_WRITERS, i -> throwing( () ->
+                {
+                    try
+                    {
+                        randomlyModify( index, expected.get( i ), i, new Random( seeds[i] ), removeProbability );
+                    }
+                    finally
+                    {
+                        writersDone.incrementAndGet();
+                    }
+                } ), 1 );
+                race.addContestant( throwing( () ->
+                {
+                    while ( writersDone.get() < NUMBER_OF_WRITERS )
+                    {
+                        seekEverything( index );
+                    }
+                } ), 1 );
+                race.addContestant( throwing( () ->
+                {
+                    // Checkpoints will have to wait for the writers currently in the middle of a batch
+                    for ( int i = 0; i < 3; i++ )
+                    {
+                        index.checkpoint( IOLimiter.UNLIMITED, NULL );
+                    }
+                } ), 1 );
+                race.go();
+
+                // then
+                assertContents( index, expected );
+            }
+
+            // and finally
+            index.checkpoint( IOLimiter.UNLIMITED, NULL );
+            index.consistencyCheck( NULL );
+            assertContents( index, expected );
+        }
+    }
+
+    @Test
+    void shouldMergeValuesOfSameKeysFromConcurrentWriters() throws Throwable
+    {
+        try ( GBPTree<KEY,VALUE> index = createIndex() )
+        {
+            // given
+            int numberOfKeys = 1_000;
+            int additionsPerWriter = 5;
+            ValueMerger<KEY,VALUE> adder = ( existingKey, newKey, existingValue, newValue ) ->
+            {
+                long sum = layout.valueSeed( existingValue ) + layout.valueSeed( newValue );
+                copyValue( layout.value( sum ), existingValue );
+                return ValueMerger.MergeResult.MERGED;
+            };
+
+            // when
+            Race race = new Race();
+            race.addContestants( NUMBER_OF_WRITERS, throwing( () ->
+            {
+                for ( int addition = 0; addition < additionsPerWriter; addition++ )
+                {
+                    try ( Writer<KEY,VALUE> writer = index.concurrentWriter( NULL ) )
+                    {
+                        for ( int k = 0; k < numberOfKeys; k++ )
+                        {
+                            writer.merge( layout.key( k ), layout.value( 1 ), adder );
+                        }
+                    }
+                }
+            } ), 1 );
+            race.go();
+
+            // then
+            try ( Seeker<KEY,VALUE> seek = index.seek( layout.key( 0 ), layout.key( Long.MAX_VALUE ), NULL ) )
+            {
+                for ( int k = 0; k < numberOfKeys; k++ )
+                {
+                    assertTrue( seek.next() );
+                    assertEquals( k, layout.keySeed( seek.key() ) );
+                    assertEquals( (long) NUMBER_OF_WRITERS * additionsPerWriter, layout.valueSeed( seek.value() ) );
+                }
+                assertFalse( seek.next() );
+            }
+            index.consistencyCheck( NULL );
+        }
+    }
+
+    @Test
+    void shouldNotAllowConcurrentWriterWhileSingleWriterIsOpen() throws Throwable
+    {
+        try ( GBPTree<KEY,VALUE> index = createIndex() )
+        {
+            // given
+            AtomicBoolean concurrentWriterAcquired = new AtomicBoolean();
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try
+            {
+                Future<?> concurrentWriting;
+                try ( Writer<KEY,VALUE> writer = index.writer( NULL ) )
+                {
+                    writer.put( layout.key( 0 ), layout.value( 0 ) );
+                    concurrentWriting = executor.submit( throwing( () ->
+                    {
+                        try ( Writer<KEY,VALUE> concurrentWriter = index.concurrentWriter( NULL ) )
+                        {
+                            concurrentWriterAcquired.set( true );
+                            assertNull( concurrentWriter.remove( layout.key( 1 ) ) );
+                        }
+                    } ) );
+                    Thread.sleep( 100 );
+
+                    // then
+                    assertFalse( concurrentWriterAcquired.get() );
+                }
+                concurrentWriting.get();
+                assertTrue( concurrentWriterAcquired.get() );
+            }
+            finally
+            {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private void randomlyModify( GBPTree<KEY,VALUE> index, Map<Long,Long> expected, int writerId, Random random, double removeProbability )
+            throws IOException
+    {
+        int batches = 10;
+        for ( int batch = 0; batch < batches; batch++ )
+        {
+            try ( Writer<KEY,VALUE> writer = index.concurrentWriter( NULL ) )
+            {
+                for ( int i = 0; i < KEYS_PER_WRITER / batches; i++ )
+                {
+                    long seed = (long) random.nextInt( KEYS_PER_WRITER ) * NUMBER_OF_WRITERS + writerId;
+                    if ( random.nextDouble() < removeProbability )
+                    {
+                        VALUE removed = writer.remove( layout.key( seed ) );
+                        Long expectedValue = expected.remove( seed );
+                        if ( expectedValue == null )
+                        {
+                            assertNull( removed );
+                        }
+                        else
+                        {
+                            assertEquals( (long) expectedValue, layout.valueSeed( removed ) );
+                        }
+                    }
+                    else
+                    {
+                        long value = random.nextInt( 1_000 );
+                        writer.put( layout.key( seed ), layout.value( value ) );
+                        expected.put( seed, value );
+                    }
+                }
+            }
+        }
+    }
+
+    private void seekEverything( GBPTree<KEY,VALUE> index ) throws IOException
+    {
+        try ( Seeker<KEY,VALUE> seek = index.seek( layout.key( 0 ), layout.key( Long.MAX_VALUE ), NULL ) )
+        {
+            long prev = -1;
+            while ( seek.next() )
+            {
+                long seed = layout.keySeed( seek.key() );
+                assertTrue( seed > prev, format( "Expected keys in order, but got %d after %d", seed, prev ) );
+                prev = seed;
+            }
+        }
+    }
+
+    private void assertContents( GBPTree<KEY,VALUE> index, List<Map<Long,Long>> expectedPerWriter ) throws IOException
+    {
+        Map<Long,Long> expected = new TreeMap<>();
+        expectedPerWriter.forEach( expected::putAll );
+        Map<Long,Long> actual = new TreeMap<>();
+        try ( Seeker<KEY,VALUE> seek = index.seek( layout.key( 0 ), layout.key( Long.MAX_VALUE ), NULL ) )
+        {
+            while ( seek.next() )
+            {
+                actual.put( layout.keySeed( seek.key() ), layout.valueSeed( seek.value() ) );
+            }
+        }
+        assertEquals( expected, actual );
+    }
+}
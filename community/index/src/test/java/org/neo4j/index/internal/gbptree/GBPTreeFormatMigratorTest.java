@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.eclipse.collections.api.factory.Sets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.index.internal.gbptree.GBPTreeFormatMigrator.MIGRATION_FILE_SUFFIX;
+import static org.neo4j.io.pagecache.IOLimiter.UNLIMITED;
+import static org.neo4j.io.pagecache.tracing.PageCacheTracer.NULL;
+import static org.neo4j.test.rule.PageCacheConfig.config;
+
+@EphemeralTestDirectoryExtension
+class GBPTreeFormatMigratorTest
+{
+    private static final int ENTRY_COUNT = 10_000;
+    private static final byte[] HEADER = {1, 2, 3, 4, 5};
+
+    @RegisterExtension
+    static PageCacheSupportExtension pageCacheExtension = new PageCacheSupportExtension( config().withPageSize( 512 ) );
+    @Inject
+    private FileSystemAbstraction fs;
+    @Inject
+    private TestDirectory directory;
+    @Inject
+    private PageCache pageCache;
+
+    private final SimpleByteArrayLayout layout = new SimpleByteArrayLayout();
+    private final SimpleByteArrayLayout compressingLayout = new SimpleByteArrayLayout()
+    {
+        @Override
+        public boolean compressKeyPrefixes()
+        {
+            return true;
+        }
+    };
+    private Path indexFile;
+
+    @BeforeEach
+    void setUp()
+    {
+        indexFile = directory.file( "index" );
+    }
+
+    @Test
+    void shouldMigrateEntriesAndHeaderToFormatOfLayout() throws IOException
+    {
+        // given
+        createTree( layout );
+
+        // when
+        assertTrue( migrate( layout, compressingLayout ) );
+
+        // then
+        assertFormat( TreeNodeDynamicSizePrefixCompressed.FORMAT_IDENTIFIER );
+        assertHeader();
+        assertEntries( compressingLayout );
+        assertFalse( fs.fileExists( migrationFile() ) );
+    }
+
+    @Test
+    void shouldMigrateBackToFormatWithoutCompression() throws IOException
+    {
+        // given
+        createTree( compressingLayout );
+
+        // when
+        assertTrue( migrate( compressingLayout, layout ) );
+
+        // then
+        assertFormat( TreeNodeDynamicSize.FORMAT_IDENTIFIER );
+        assertHeader();
+        assertEntries( layout );
+    }
+
+    @Test
+    void shouldNotMigrateTreeAlreadyInFormatOfLayout() throws IOException
+    {
+        // given
+        createTree( compressingLayout );
+        assertTrue( migrate( compressingLayout, layout ) );
+
+        // when/then
+        assertFalse( migrate( compressingLayout, layout ) );
+        assertFormat( TreeNodeDynamicSize.FORMAT_IDENTIFIER );
+    }
+
+    @Test
+    void shouldNotMigrateNonExistentTree() throws IOException
+    {
+        assertFalse( migrate( layout, compressingLayout ) );
+        assertFalse( fs.fileExists( indexFile ) );
+    }
+
+    @Test
+    void shouldNotOpenTreeWithLayoutSelectingOtherFormat() throws IOException
+    {
+        // given
+        createTree( layout );
+
+        // when/then
+        assertThrows( MetadataMismatchException.class, () -> new GBPTreeBuilder<>( pageCache, indexFile, compressingLayout ).build() );
+        assertFormat( TreeNodeDynamicSize.FORMAT_IDENTIFIER );
+    }
+
+    @Test
+    void shouldNotMigrateTreeNeedingRecovery() throws IOException
+    {
+        // given
+        createTree( layout );
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, indexFile, layout ).build() )
+        {
+            // Make dirty
+            tree.writer( PageCursorTracer.NULL ).close();
+        }
+
+        // when/then
+        assertFalse( migrate( layout, compressingLayout ) );
+        assertFormat( TreeNodeDynamicSize.FORMAT_IDENTIFIER );
+        assertFalse( fs.fileExists( migrationFile() ) );
+    }
+
+    private boolean migrate( Layout<RawBytes,RawBytes> fromLayout, Layout<RawBytes,RawBytes> toLayout ) throws IOException
+    {
+        return GBPTreeFormatMigrator.migrateIfNeeded( fs, pageCache, indexFile, fromLayout, toLayout, 1.0, NULL, Sets.immutable.empty() );
+    }
+
+    private void createTree( Layout<RawBytes,RawBytes> layout ) throws IOException
+    {
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, indexFile, layout ).build() )
+        {
+            try ( Writer<RawBytes,RawBytes> writer = tree.writer( PageCursorTracer.NULL ) )
+            {
+                for ( int i = 0; i < ENTRY_COUNT; i++ )
+                {
+                    writer.put( this.layout.key( i ), this.layout.value( i ) );
+                }
+            }
+            tree.checkpoint( UNLIMITED, cursor -> cursor.putBytes( HEADER ), PageCursorTracer.NULL );
+        }
+    }
+
+    private void assertFormat( byte expectedFormatIdentifier ) throws IOException
+    {
+        Meta meta = GBPTree.readMeta( pageCache, indexFile, PageCursorTracer.NULL );
+        assertEquals( expectedFormatIdentifier, meta.getFormatIdentifier() );
+    }
+
+    private void assertHeader() throws IOException
+    {
+        AtomicReference<byte[]> header = new AtomicReference<>();
+        GBPTree.readHeader( pageCache, indexFile, headerData ->
+        {
+            byte[] bytes = new byte[HEADER.length];
+            headerData.get( bytes );
+            header.set( bytes );
+        }, PageCursorTracer.NULL );
+        assertArrayEquals( HEADER, header.get() );
+    }
+
+    private void assertEntries( Layout<RawBytes,RawBytes> layout ) throws IOException
+    {
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, indexFile, layout ).build() )
+        {
+            assertTrue( tree.consistencyCheck( PageCursorTracer.NULL ) );
+            RawBytes high = layout.newKey();
+            layout.initializeAsHighest( high );
+            try ( Seeker<RawBytes,RawBytes> seeker = tree.seek( this.layout.key( 0 ), high, PageCursorTracer.NULL ) )
+            {
+                int count = 0;
+                while ( seeker.next() )
+                {
+                    assertEquals( 0, this.layout.compare( this.layout.key( count ), seeker.key() ) );
+                    assertEquals( 0, this.layout.compareValue( this.layout.value( count ), seeker.value() ) );
+                    count++;
+                }
+                assertEquals( ENTRY_COUNT, count );
+            }
+        }
+    }
+
+    private Path migrationFile()
+    {
+        return indexFile.resolveSibling( indexFile.getFileName() + MIGRATION_FILE_SUFFIX );
+    }
+}
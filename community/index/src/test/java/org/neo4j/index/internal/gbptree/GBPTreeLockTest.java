@@ -32,6 +32,7 @@ import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.actors.Actor;
 import org.neo4j.test.extension.actors.ActorsExtension;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -52,6 +53,8 @@ class GBPTreeLockTest
 
     @Inject
     Actor executor;
+    @Inject
+    Actor otherExecutor;
 
     @Test
     void test_UU_UL_UU() throws Exception
@@ -163,6 +166,83 @@ class GBPTreeLockTest
         assertOnlyOneSucceeds( lock::writerAndCleanerLock, lock::writerAndCleanerLock );
     }
 
+    @Test
+    void concurrentWritersShouldShareLock()
+    {
+        // given
+        lock.concurrentWriterLock();
+        lock.concurrentWriterLock();
+
+        // then
+        lock.concurrentWriterUnlock();
+        lock.concurrentWriterUnlock();
+        assertThrows( IllegalStateException.class, lock::concurrentWriterUnlock );
+        assertUU();
+    }
+
+    @Test
+    void concurrentWriterShouldBlockWriterAndCleaner() throws Exception
+    {
+        // given
+        lock.concurrentWriterLock();
+
+        // then
+        assertBlock( lock::writerAndCleanerLock, lock::concurrentWriterUnlock );
+        assertLL();
+    }
+
+    @Test
+    void writerShouldBlockConcurrentWriter() throws Exception
+    {
+        // given
+        lock.writerLock();
+
+        // when
+        Future<Object> future = executor.submit( () ->
+        {
+            lock.concurrentWriterLock();
+            return null;
+        } );
+        executor.untilWaitingIn( GBPTreeLock.class.getDeclaredMethod( "concurrentWriterLock" ) );
+        lock.writerUnlock();
+
+        // then
+        future.get();
+        assertThrows( IllegalStateException.class, lock::writerUnlock );
+        lock.concurrentWriterUnlock();
+        assertUU();
+    }
+
+    @Test
+    void waitingWriterShouldBlockNewConcurrentWriters() throws Exception
+    {
+        // given
+        lock.concurrentWriterLock();
+        Future<Object> writer = executor.submit( () ->
+        {
+            lock.writerLock();
+            return null;
+        } );
+        executor.untilWaitingIn( GBPTreeLock.class.getDeclaredMethod( "doLock", long.class ) );
+
+        // when
+        Future<Object> concurrentWriter = otherExecutor.submit( () ->
+        {
+            lock.concurrentWriterLock();
+            return null;
+        } );
+        otherExecutor.untilWaitingIn( GBPTreeLock.class.getDeclaredMethod( "concurrentWriterLock" ) );
+        lock.concurrentWriterUnlock();
+
+        // then
+        writer.get();
+        assertFalse( concurrentWriter.isDone() );
+        lock.writerUnlock();
+        concurrentWriter.get();
+        lock.concurrentWriterUnlock();
+        assertUU();
+    }
+
     private void assertOnlyOneSucceeds( Runnable lockAction1, Runnable lockAction2 ) throws Throwable
     {
         assertUU();
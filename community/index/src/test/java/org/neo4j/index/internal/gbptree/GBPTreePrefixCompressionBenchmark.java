@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import org.neo4j.internal.helpers.Args;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+/**
+ * Compares index size and exact match seek latency of a tree in the {@link TreeNodeDynamicSize dynamic size format} with that of a tree
+ * in the {@link TreeNodeDynamicSizePrefixCompressed prefix compressed format}, both containing the same keys. The keys are strings made up of
+ * a common prefix followed by a zero padded number, like URIs or other identifiers typically are. Keys are inserted in random order.
+ * <p>
+ * Options, all optional:
+ * <ul>
+ *     <li>{@code --keys} the number of keys in each tree, defaults to {@code 1000000}</li>
+ *     <li>{@code --seeks} the number of random exact match seeks to time in each tree, defaults to {@code 1000000}</li>
+ *     <li>{@code --prefix} the prefix that all keys share, defaults to {@code http://example.org/resources/}</li>
+ *     <li>{@code --pages} the number of pages in the page cache, defaults to {@code 65536}</li>
+ *     <li>{@code --dir} the directory to create the trees in, defaults to a new temporary directory that is deleted afterwards</li>
+ * </ul>
+ */
+public class GBPTreePrefixCompressionBenchmark
+{
+    public static void main( String[] arguments ) throws Throwable
+    {
+        Args args = Args.parse( arguments );
+        int keys = args.getNumber( "keys", 1_000_000 ).intValue();
+        int seeks = args.getNumber( "seeks", 1_000_000 ).intValue();
+        String prefix = args.get( "prefix", "http://example.org/resources/" );
+        int pages = args.getNumber( "pages", 65536 ).intValue();
+        String dir = args.get( "dir", null );
+        Path home = dir != null ? Path.of( dir ) : Files.createTempDirectory( "gbptree-prefix-compression" );
+        try ( FileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+                JobScheduler jobScheduler = new ThreadPoolJobScheduler();
+                PageCache pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), pages, PageCacheTracer.NULL,
+                        EmptyVersionContextSupplier.EMPTY, jobScheduler ) )
+        {
+            for ( boolean compress : new boolean[]{false, true} )
+            {
+                Path file = home.resolve( compress ? "compressed" : "dynamic" );
+                SimpleByteArrayLayout layout = new SimpleByteArrayLayout( false )
+                {
+                    @Override
+                    public boolean compressKeyPrefixes()
+                    {
+                        return compress;
+                    }
+                };
+                try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+                {
+                    insert( tree, layout, prefix, keys );
+                    tree.checkpoint( IOLimiter.UNLIMITED, NULL );
+                    long elapsedNanos = seek( tree, layout, prefix, keys, seeks );
+                    System.out.printf( "%s: %d keys in %d kB, %d seeks in %d ms: %.0f ns/seek%n", compress ? "prefix compressed" : "dynamic size",
+                            keys, fs.getFileSize( file ) / 1024, seeks, elapsedNanos / 1_000_000, (double) elapsedNanos / seeks );
+                }
+            }
+        }
+        finally
+        {
+            if ( dir == null )
+            {
+                FileUtils.deleteDirectory( home );
+            }
+        }
+    }
+
+    private static void insert( GBPTree<RawBytes,RawBytes> tree, SimpleByteArrayLayout layout, String prefix, int keys ) throws IOException
+    {
+        SplittableRandom random = new SplittableRandom( keys );
+        int[] order = new int[keys];
+        for ( int i = 0; i < keys; i++ )
+        {
+            int j = random.nextInt( i + 1 );
+            order[i] = order[j];
+            order[j] = i;
+        }
+        try ( Writer<RawBytes,RawBytes> writer = tree.writer( NULL ) )
+        {
+            for ( int id : order )
+            {
+                writer.put( key( layout, prefix, id ), layout.value( id ) );
+            }
+        }
+    }
+
+    private static long seek( GBPTree<RawBytes,RawBytes> tree, SimpleByteArrayLayout layout, String prefix, int keys, int seeks ) throws IOException
+    {
+        SplittableRandom random = new SplittableRandom( seeks );
+        long hits = 0;
+        long startNanos = System.nanoTime();
+        for ( int i = 0; i < seeks; i++ )
+        {
+            RawBytes key = key( layout, prefix, random.nextInt( keys ) );
+            try ( Seeker<RawBytes,RawBytes> seeker = tree.seek( key, key, NULL ) )
+            {
+                if ( seeker.next() )
+                {
+                    hits++;
+                }
+            }
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        if ( hits != seeks )
+        {
+            throw new IllegalStateException( "Expected to find all " + seeks + " keys, but found " + hits );
+        }
+        return elapsedNanos;
+    }
+
+    private static RawBytes key( SimpleByteArrayLayout layout, String prefix, int id )
+    {
+        RawBytes key = layout.newKey();
+        key.bytes = String.format( "%s%012d", prefix, id ).getBytes( StandardCharsets.UTF_8 );
+        return key;
+    }
+}
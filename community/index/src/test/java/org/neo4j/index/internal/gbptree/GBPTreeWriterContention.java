@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.neo4j.internal.helpers.Args;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.FileUtils;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.Race;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static org.neo4j.index.internal.gbptree.SimpleLongLayout.longLayout;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.test.Race.throwing;
+
+/**
+ * Compares insert throughput of a number of threads sharing the {@link GBPTree#writer(org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer)
+ * single writer}, taking turns writing batches of random keys, with the same threads each using their own
+ * {@link GBPTree#concurrentWriter(org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer) concurrent writer}.
+ * <p>
+ * Options, all optional:
+ * <ul>
+ *     <li>{@code --threads} the number of writing threads, defaults to {@code 4}</li>
+ *     <li>{@code --keys} the number of keys that each thread inserts, defaults to {@code 1000000}</li>
+ *     <li>{@code --batch} the number of keys that each thread inserts per writer, defaults to {@code 100}</li>
+ *     <li>{@code --pages} the number of pages in the page cache, defaults to {@code 65536}</li>
+ *     <li>{@code --dir} the directory to create the trees in, defaults to a new temporary directory that is deleted afterwards</li>
+ * </ul>
+ */
+public class GBPTreeWriterContention
+{
+    public static void main( String[] arguments ) throws Throwable
+    {
+        Args args = Args.parse( arguments );
+        int threads = args.getNumber( "threads", 4 ).intValue();
+        int keysPerThread = args.getNumber( "keys", 1_000_000 ).intValue();
+        int batchSize = args.getNumber( "batch", 100 ).intValue();
+        int pages = args.getNumber( "pages", 65536 ).intValue();
+        String dir = args.get( "dir", null );
+        Path home = dir != null ? Path.of( dir ) : Files.createTempDirectory( "gbptree-writer-contention" );
+        try ( FileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+                JobScheduler jobScheduler = new ThreadPoolJobScheduler();
+                PageCache pageCache = new MuninnPageCache( new SingleFilePageSwapperFactory( fs ), pages, PageCacheTracer.NULL,
+                        EmptyVersionContextSupplier.EMPTY, jobScheduler ) )
+        {
+            for ( boolean concurrent : new boolean[]{false, true} )
+            {
+                Path file = home.resolve( concurrent ? "concurrent" : "single" );
+                try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, longLayout().build() ).build() )
+                {
+                    long elapsedNanos = run( tree, concurrent, threads, keysPerThread, batchSize );
+                    long keys = (long) threads * keysPerThread;
+                    System.out.printf( "%s: inserted %d keys in %d ms: %.0f keys/s%n", concurrent ? "concurrent writers" : "single writer",
+                            keys, elapsedNanos / 1_000_000, keys * 1e9 / elapsedNanos );
+                }
+            }
+        }
+        finally
+        {
+            if ( dir == null )
+            {
+                FileUtils.deleteDirectory( home );
+            }
+        }
+    }
+
+    private static long run( GBPTree<MutableLong,MutableLong> tree, boolean concurrent, int threads, int keysPerThread, int batchSize )
+            throws Throwable
+    {
+        Lock singleWriterTurn = new ReentrantLock();
+        Race race = new Race();
+        race.addContestants( threads, thread -> throwing( () ->
+        {
+            SplittableRandom random = new SplittableRandom( thread );
+            MutableLong key = new MutableLong();
+            MutableLong value = new MutableLong();
+            for ( int inserted = 0; inserted < keysPerThread; inserted += batchSize )
+            {
+                if ( !concurrent )
+                {
+                    singleWriterTurn.lock();
+                }
+                try ( Writer<MutableLong,MutableLong> writer = concurrent ? tree.concurrentWriter( NULL ) : tree.writer( NULL ) )
+                {
+                    for ( int i = 0; i < batchSize; i++ )
+                    {
+                        key.setValue( random.nextLong( Long.MAX_VALUE ) );
+                        value.setValue( thread );
+                        writer.put( key, value );
+                    }
+                }
+                catch ( IOException e )
+                {
+                    throw new UncheckedIOException( e );
+                }
+                finally
+                {
+                    if ( !concurrent )
+                    {
+                        singleWriterTurn.unlock();
+                    }
+                }
+            }
+        } ), 1 );
+        long startNanos = System.nanoTime();
+        race.go();
+        return System.nanoTime() - startNanos;
+    }
+}
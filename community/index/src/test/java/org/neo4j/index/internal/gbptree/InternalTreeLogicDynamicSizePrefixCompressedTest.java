@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.nio.ByteBuffer;
+
+class InternalTreeLogicDynamicSizePrefixCompressedTest extends InternalTreeLogicTestBase<RawBytes,RawBytes>
+{
+    @Override
+    protected ValueMerger<RawBytes,RawBytes> getAdder()
+    {
+        return ( existingKey, newKey, base, add ) ->
+        {
+            long baseSeed = layout.keySeed( base );
+            long addSeed = layout.keySeed( add );
+            RawBytes merged = layout.value( baseSeed + addSeed );
+            base.copyFrom( merged );
+            return ValueMerger.MergeResult.MERGED;
+        };
+    }
+
+    @Override
+    protected TreeNode<RawBytes,RawBytes> getTreeNode( int pageSize, Layout<RawBytes,RawBytes> layout, OffloadStore<RawBytes,RawBytes> offloadStore )
+    {
+        return new TreeNodeDynamicSizePrefixCompressed<>( pageSize, layout, offloadStore );
+    }
+
+    @Override
+    protected TestLayout<RawBytes,RawBytes> getLayout()
+    {
+        // Keys of this layout compress well, which makes leaves more sensitive to underflow when values shrink.
+        // Values of fixed size keep the tree shapes that tests in the base class build up.
+        return new SimpleByteArrayLayout()
+        {
+            @Override
+            public RawBytes value( long seed )
+            {
+                RawBytes value = newValue();
+                value.bytes = ByteBuffer.allocate( Long.BYTES ).putLong( seed ).array();
+                return value;
+            }
+        };
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.getOverhead;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+
+public class TreeNodeDynamicSizePrefixCompressedTest extends TreeNodeTestBase<RawBytes,RawBytes>
+{
+    private static final int KEY_SIZE = 30;
+    private static final int SUFFIX_SIZE = 1;
+    private static final GBPTreeConsistencyCheckVisitor<RawBytes> NO_VISITOR = new GBPTreeConsistencyCheckVisitor.Adaptor<>();
+
+    private final SimpleByteArrayLayout layout = new SimpleByteArrayLayout( false );
+
+    @Override
+    protected TestLayout<RawBytes,RawBytes> getLayout()
+    {
+        return layout;
+    }
+
+    @Override
+    protected TreeNodeDynamicSizePrefixCompressed<RawBytes,RawBytes> getNode( int pageSize, Layout<RawBytes,RawBytes> layout,
+            OffloadStore<RawBytes,RawBytes> offloadStore )
+    {
+        return new TreeNodeDynamicSizePrefixCompressed<>( pageSize, layout, offloadStore );
+    }
+
+    @Override
+    void assertAdditionalHeader( PageCursor cursor, TreeNode<RawBytes,RawBytes> node, int pageSize )
+    {
+        // When
+        TreeNodeDynamicSizePrefixCompressed<RawBytes,RawBytes> compressedNode = (TreeNodeDynamicSizePrefixCompressed<RawBytes,RawBytes>) node;
+        int currentAllocSpace = compressedNode.getAllocOffset( cursor );
+
+        // Then
+        if ( TreeNode.isLeaf( cursor ) )
+        {
+            assertEquals( pageSize - 2, currentAllocSpace, "allocSpace point to empty anchor at end of page" );
+            assertEquals( 0, compressedNode.readAnchor( cursor, new byte[TreeNodeDynamicSizePrefixCompressed.MAX_ANCHOR_SIZE] ) );
+        }
+        else
+        {
+            assertEquals( pageSize, currentAllocSpace, "allocSpace point to end of page" );
+        }
+    }
+
+    @Test
+    void shouldOnlyStoreSuffixOfKeysSharingPrefixWithAnchor() throws IOException
+    {
+        // Given
+        TreeNodeDynamicSizePrefixCompressed<RawBytes,RawBytes> node = compressedNode();
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        RawBytes value = bytes( 0, 4 );
+        node.insertKeyValueAt( cursor, key( 1, 0 ), value, 0, 0, STABLE_GENERATION, UNSTABLE_GENERATION, NULL );
+        TreeNode.setKeyCount( cursor, 1 );
+
+        // When
+        int allocOffsetBefore = node.getAllocOffset( cursor );
+        node.insertKeyValueAt( cursor, key( 1, 1 ), value, 1, 1, STABLE_GENERATION, UNSTABLE_GENERATION, NULL );
+        TreeNode.setKeyCount( cursor, 2 );
+
+        // Then
+        int storedKeySize = 1 + SUFFIX_SIZE;
+        int expectedEntrySize = getOverhead( storedKeySize, value.bytes.length, false ) + storedKeySize + value.bytes.length;
+        assertEquals( allocOffsetBefore - expectedEntrySize, node.getAllocOffset( cursor ) );
+        assertKeys( node, 2, key( 1, 0 ), key( 1, 1 ) );
+    }
+
+    @Test
+    void shouldTakeAnchorFromFirstKeyInsertedIntoEmptyLeaf() throws IOException
+    {
+        // Given
+        TreeNodeDynamicSizePrefixCompressed<RawBytes,RawBytes> node = compressedNode();
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        RawBytes value = bytes( 0, 1 );
+        node.insertKeyValueAt( cursor, key( 1, 0 ), value, 0, 0, STABLE_GENERATION, UNSTABLE_GENERATION, NULL );
+        TreeNode.setKeyCount( cursor, 1 );
+        node.removeKeyValueAt( cursor, 0, 1, STABLE_GENERATION, UNSTABLE_GENERATION, NULL );
+        TreeNode.setKeyCount( cursor, 0 );
+
+        // When
+        node.insertKeyValueAt( cursor, key( 2, 0 ), value, 0, 0, STABLE_GENERATION, UNSTABLE_GENERATION, NULL );
+        TreeNode.setKeyCount( cursor, 1 );
+
+        // Then
+        byte[] anchor = new byte[TreeNodeDynamicSizePrefixCompressed.MAX_ANCHOR_SIZE];
+        int anchorSize = node.readAnchor( cursor, anchor );
+        assertArrayEquals( key( 2, 0 ).bytes, Arrays.copyOf( anchor, anchorSize ) );
+        assertEquals( 0, node.getDeadSpace( cursor ) );
+        assertKeys( node, 1, key( 2, 0 ) );
+    }
+
+    @Test
+    void shouldReanchorWhenItMakesLeafSmaller() throws IOException
+    {
+        // Given a leaf where the anchor came from a key sharing nothing with the rest
+        TreeNodeDynamicSizePrefixCompressed<RawBytes,RawBytes> node = compressedNode();
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        RawBytes value = bytes( 0, 1 );
+        node.insertKeyValueAt( cursor, key( 1, 0 ), value, 0, 0, STABLE_GENERATION, UNSTABLE_GENERATION, NULL );
+        int keyCount = 5;
+        RawBytes[] keys = new RawBytes[keyCount];
+        for ( int i = 0; i < keyCount; i++ )
+        {
+            keys[i] = key( 2, i );
+            node.insertKeyValueAt( cursor, keys[i], value, i + 1, i + 1, STABLE_GENERATION, UNSTABLE_GENERATION, NULL );
+        }
+        node.removeKeyValueAt( cursor, 0, keyCount + 1, STABLE_GENERATION, UNSTABLE_GENERATION, NULL );
+        TreeNode.setKeyCount( cursor, keyCount );
+        int allocOffsetBefore = node.getAllocOffset( cursor );
+
+        // When
+        node.reanchorIfSmaller( cursor, keyCount );
+
+        // Then
+        assertThat( node.getAllocOffset( cursor ) ).isGreaterThan( allocOffsetBefore );
+        assertEquals( 0, node.getDeadSpace( cursor ) );
+        assertKeys( node, keyCount, keys );
+        assertEquals( "", node.checkMetaConsistency( cursor, keyCount, LEAF, NO_VISITOR ) );
+    }
+
+    @Test
+    void shouldReencodeEntriesMovedBetweenLeavesWithDifferentAnchors() throws IOException
+    {
+        // Given
+        TreeNodeDynamicSizePrefixCompressed<RawBytes,RawBytes> node = compressedNode();
+        PageAwareByteArrayCursor rightCursor = cursor.duplicate( 1 );
+        rightCursor.next();
+        RawBytes value = bytes( 7, 3 );
+        int keyCount = 4;
+        RawBytes[] leftKeys = new RawBytes[keyCount];
+        RawBytes[] rightKeys = new RawBytes[keyCount];
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        node.initializeLeaf( rightCursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        for ( int i = 0; i < keyCount; i++ )
+        {
+            leftKeys[i] = key( 1, i );
+            rightKeys[i] = key( 2, i );
+            node.insertKeyValueAt( cursor, leftKeys[i], value, i, i, STABLE_GENERATION, UNSTABLE_GENERATION, NULL );
+            node.insertKeyValueAt( rightCursor, rightKeys[i], value, i, i, STABLE_GENERATION, UNSTABLE_GENERATION, NULL );
+        }
+        TreeNode.setKeyCount( cursor, keyCount );
+        TreeNode.setKeyCount( rightCursor, keyCount );
+
+        // When
+        node.moveKeyValuesFromLeftToRight( cursor, keyCount, rightCursor, keyCount, keyCount - 2 );
+
+        // Then
+        assertKeys( node, cursor, keyCount - 2, leftKeys[0], leftKeys[1] );
+        assertKeys( node, rightCursor, keyCount + 2, leftKeys[2], leftKeys[3], rightKeys[0], rightKeys[1], rightKeys[2], rightKeys[3] );
+        assertEquals( "", node.checkMetaConsistency( cursor, keyCount - 2, LEAF, NO_VISITOR ) );
+        assertEquals( "", node.checkMetaConsistency( rightCursor, keyCount + 2, LEAF, NO_VISITOR ) );
+
+        // When
+        node.copyKeyValuesFromLeftToRight( cursor, keyCount - 2, rightCursor, keyCount + 2 );
+
+        // Then
+        assertKeys( node, rightCursor, keyCount * 2, leftKeys[0], leftKeys[1], leftKeys[2], leftKeys[3],
+                rightKeys[0], rightKeys[1], rightKeys[2], rightKeys[3] );
+        assertEquals( "", node.checkMetaConsistency( rightCursor, keyCount * 2, LEAF, NO_VISITOR ) );
+    }
+
+    private TreeNodeDynamicSizePrefixCompressed<RawBytes,RawBytes> compressedNode()
+    {
+        return getNode( PAGE_SIZE, layout, createOffloadStore() );
+    }
+
+    private void assertKeys( TreeNode<RawBytes,RawBytes> node, int keyCount, RawBytes... expectedKeys )
+    {
+        assertKeys( node, cursor, keyCount, expectedKeys );
+    }
+
+    private void assertKeys( TreeNode<RawBytes,RawBytes> node, PageCursor cursor, int keyCount, RawBytes... expectedKeys )
+    {
+        assertEquals( expectedKeys.length, keyCount );
+        RawBytes readKey = layout.newKey();
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            node.keyAt( cursor, readKey, pos, LEAF, NULL );
+            assertArrayEquals( expectedKeys[pos].bytes, readKey.bytes, "key at pos " + pos );
+        }
+    }
+
+    /**
+     * Keys with the same prefix share all but the last {@link #SUFFIX_SIZE} byte.
+     */
+    private static RawBytes key( int prefix, int suffix )
+    {
+        RawBytes key = bytes( prefix, KEY_SIZE );
+        key.bytes[KEY_SIZE - 1] = (byte) suffix;
+        return key;
+    }
+
+    private static RawBytes bytes( int fill, int size )
+    {
+        RawBytes bytes = new RawBytes();
+        bytes.bytes = new byte[size];
+        Arrays.fill( bytes.bytes, (byte) fill );
+        return bytes;
+    }
+}
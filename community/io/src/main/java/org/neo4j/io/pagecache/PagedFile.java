@@ -77,8 +77,12 @@ public interface PagedFile extends AutoCloseable
     int PF_NO_FAULT = 1 << 4;
     /**
      * Do not update page access statistics.
+     * <p>
+     * Pages accessed with this flag will not look any more recently used to the page replacement policy, than they did
+     * before the access. This is useful for background processes that need to look at many pages, without disturbing
+     * the working set of the cache.
      */
-    int PF_TRANSIENT = 1 << 5; // TBD
+    int PF_TRANSIENT = 1 << 5;
     /**
      * Flush pages more aggressively, after they have been dirtied by a write cursor.
      */
@@ -140,6 +144,22 @@ public interface PagedFile extends AutoCloseable
      */
     PageCursor io( long pageId, int pf_flags, PageCursorTracer tracer ) throws IOException;
 
+    /**
+     * Load the given range of file pages into the page cache, if they are not already in memory.
+     * <p>
+     * This is a hint for warming up the page cache, and does not pin or lock the loaded pages in any way. They may be
+     * evicted again at any point. Pages that are already in memory, or that are concurrently being faulted in by
+     * other threads, are skipped. Pages beyond the end of the file are ignored. Implementations are encouraged to load
+     * runs of consecutive pages with as few IO operations as possible.
+     *
+     * @param pageId The file page id of the first page to load.
+     * @param count The number of consecutive pages to load, starting from the given {@code pageId}.
+     * @param tracer underlying page cursor tracer
+     * @return The number of pages that were actually loaded by this call.
+     * @throws IOException if there was an error accessing the underlying file.
+     */
+    int touch( long pageId, int count, PageCursorTracer tracer ) throws IOException;
+
     /**
      * Get the size of the file-pages, in bytes.
      */
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The classic CLOCK page replacement, where the usage counter of every page is decremented by the clock arm.
+ *
+ * @see EvictionPolicy#CLOCK
+ */
+final class ClockPageReplacement implements PageReplacement
+{
+    static final PageReplacement INSTANCE = new ClockPageReplacement();
+
+    private ClockPageReplacement()
+    {
+    }
+
+    @Override
+    public boolean shouldEvict( PageList pages, long pageRef )
+    {
+        return pages.decrementUsage( pageRef );
+    }
+
+    @Override
+    public void sweepCompleted()
+    {
+    }
+
+    @Override
+    public void pageFaulted( PageList pages, long pageRef, int swapperId, long filePageId )
+    {
+    }
+
+    @Override
+    public void pageEvicted( int swapperId, long filePageId )
+    {
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.neo4j.memory.MemoryTracker;
+
+/**
+ * The page replacement policies available to the {@link MuninnPageCache}.
+ * <p>
+ * All policies are variations of the CLOCK algorithm over the page list, and differ only in how they treat the page
+ * usage counters as the clock arm moves over the pages, and in how newly faulted pages are admitted.
+ */
+public enum EvictionPolicy
+{
+    /**
+     * The classic CLOCK algorithm. Every time the clock arm passes a page, its usage counter is decremented, and the
+     * page is evicted once the counter reaches zero.
+     */
+    CLOCK
+    {
+        @Override
+        PageReplacement createPageReplacement( int pageCount, MemoryTracker memoryTracker )
+        {
+            return ClockPageReplacement.INSTANCE;
+        }
+    },
+    /**
+     * A scan-resistant variation of CLOCK. Pages that have only been accessed once since they were faulted in are
+     * evicted as in CLOCK, but pages that have been accessed repeatedly only age on some of the clock arm rotations.
+     * Recently evicted pages are remembered in a ghost table, and are admitted directly as hot pages if they are faulted
+     * back in shortly after. This keeps large sequential scans from flushing the working set out of the cache.
+     */
+    SCAN_RESISTANT
+    {
+        @Override
+        PageReplacement createPageReplacement( int pageCount, MemoryTracker memoryTracker )
+        {
+            return new ScanResistantPageReplacement( pageCount, memoryTracker );
+        }
+    };
+
+    abstract PageReplacement createPageReplacement( int pageCount, MemoryTracker memoryTracker );
+}
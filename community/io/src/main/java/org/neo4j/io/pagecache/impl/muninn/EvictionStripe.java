@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.internal.unsafe.UnsafeUtil;
+import org.neo4j.io.pagecache.monitoring.EvictionStripeStatistics;
+
+/**
+ * A contiguous range of pages in the {@link MuninnPageCache}, with its own freelist and its own eviction thread.
+ * <p>
+ * Large page caches are partitioned into a number of stripes, so that the page faulting threads on a machine with
+ * many cores don't all contend on the same freelist head pointer, and so that the work of sweeping through the pages
+ * can be spread over more than one eviction thread. Page faulting threads are assigned to a stripe based on their
+ * thread id, and only take pages from other stripes when their own stripe has run dry.
+ * <p>
+ * The stripe also keeps statistics about the page faults that were served with pages from the stripe.
+ */
+final class EvictionStripe
+{
+    // Used when trying to figure out number of available pages in a stripe. Could be returned from
+    // tryGetNumberOfAvailablePages.
+    static final int UNKNOWN_AVAILABLE_PAGES = -1;
+
+    // The field offset to unsafely access the freelist field.
+    private static final long freelistOffset = UnsafeUtil.getFieldOffset( EvictionStripe.class, "freelist" );
+
+    private final PageList pages;
+    final int index;
+    // The id of the first page in this stripe.
+    final int firstPageId;
+    // The id of the first page after this stripe.
+    final int endPageId;
+    final int keepFree;
+
+    // The freelist is a thread-safe linked-list of FreePage objects, or an AtomicInteger, or null.
+    // Initially, the field is an AtomicInteger that counts from zero to the number of pages in the stripe, at which
+    // point all of the pages in the stripe have been put in use. Once this happens, the field is set to null to allow
+    // the background eviction thread to start its work. From that point on, the field will operate as a concurrent
+    // stack of FreePage objects. The eviction thread pushes newly freed FreePage objects onto the stack, and page
+    // faulting threads pops FreePage objects from the stack. The FreePage objects are single-use, to avoid running
+    // into the ABA-problem.
+    @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
+    private volatile Object freelist;
+
+    // The thread that runs the eviction algorithm for this stripe. We unpark this when we've run out of
+    // free pages to grab.
+    volatile Thread evictionThread;
+    // True if the eviction thread is currently parked, without someone having
+    // signalled it to wake up. This is used as a weak guard for unparking the
+    // eviction thread, because calling unpark too much (from many page
+    // faulting threads) can cause contention on the locks protecting that
+    // threads scheduling meta-data in the OS kernel.
+    private volatile boolean evictorParked;
+
+    private final LongAdder faults = new LongAdder();
+    private final LongAdder faultNanos = new LongAdder();
+    private final AtomicLong maxFaultNanos = new AtomicLong();
+    private final LongAdder cooperativeEvictions = new LongAdder();
+    private final LongAdder backgroundEvictions = new LongAdder();
+
+    EvictionStripe( PageList pages, int index, int firstPageId, int endPageId, int pagesToKeepFree )
+    {
+        this.pages = pages;
+        this.index = index;
+        this.firstPageId = firstPageId;
+        this.endPageId = endPageId;
+        this.keepFree = Math.min( pagesToKeepFree, (endPageId - firstPageId) / 2 );
+        setFreelistHead( new AtomicInteger() );
+    }
+
+    int pageCount()
+    {
+        return endPageId - firstPageId;
+    }
+
+    /**
+     * Try to pop a page off the freelist of this stripe.
+     *
+     * @return the page reference of the grabbed page, or {@code 0} if the freelist is currently empty.
+     * @throws IllegalStateException if the page cache has been shut down.
+     */
+    long grabFreePage()
+    {
+        // Review the comment on the freelist field before making changes to
+        // this part of the code.
+        // Whatever the case, we're going to the head-pointer of the freelist,
+        // and in doing so, we can discover a number of things.
+        // We can discover an AtomicInteger object, in which case we can try to
+        // CAS the counter to the next page id in the stripe, and if this succeeds
+        // then we've grabbed that page.
+        // We can discover a FreePage object, in which case we'll do a similar
+        // dance by attempting to CAS the freelist to the FreePage objects next
+        // pointer, and again, if we succeed then we've grabbed the MuninnPage
+        // given by the FreePage object.
+        // We can discover a null-pointer, in which case the freelist has just
+        // been emptied for whatever it contained before. New FreePage objects
+        // are eventually going to be added to the freelist, but we are not
+        // going to wait around for that to happen.
+        // If we find a FreePage object on the freelist, then it is important
+        // to check and see if it is the shutdownSignal instance. If that's the
+        // case, then the page cache has been shut down, and we should throw an
+        // exception from our page fault routine.
+        for (;;)
+        {
+            Object current = getFreelistHead();
+            if ( current == null )
+            {
+                return 0;
+            }
+            else if ( current instanceof AtomicInteger )
+            {
+                int pageCount = pageCount();
+                AtomicInteger counter = (AtomicInteger) current;
+                int offset = counter.get();
+                if ( offset < pageCount && counter.compareAndSet( offset, offset + 1 ) )
+                {
+                    return pages.deref( firstPageId + offset );
+                }
+                if ( offset >= pageCount )
+                {
+                    compareAndSetFreelistHead( current, null );
+                }
+            }
+            else if ( current instanceof FreePage )
+            {
+                FreePage freePage = (FreePage) current;
+                if ( freePage == MuninnPageCache.shutdownSignal )
+                {
+                    throw new IllegalStateException( "The PageCache has been shut down." );
+                }
+
+                if ( compareAndSetFreelistHead( freePage, freePage.next ) )
+                {
+                    return freePage.pageRef;
+                }
+            }
+        }
+    }
+
+    void addFreePage( long pageRef )
+    {
+        Object current;
+        FreePage freePage = new FreePage( pageRef );
+        do
+        {
+            current = getFreelistHead();
+            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > pageCount() )
+            {
+                current = null;
+            }
+            freePage.setNext( current );
+        }
+        while ( !compareAndSetFreelistHead( current, freePage ) );
+    }
+
+    boolean hasFreePages()
+    {
+        return getFreelistHead() != null;
+    }
+
+    /**
+     * @return {@code true} if this stripe still has pages that have never been put in use.
+     */
+    boolean hasUnusedPages()
+    {
+        return getFreelistHead() instanceof AtomicInteger;
+    }
+
+    /**
+     * @return the number of pages that must be evicted, to get the number of free pages in this stripe up to
+     * {@code keepFree}, or {@link #UNKNOWN_AVAILABLE_PAGES} if there are already enough free pages.
+     */
+    int tryGetNumberOfAvailablePages( int keepFree )
+    {
+        Object freelistHead = getFreelistHead();
+
+        if ( freelistHead == null )
+        {
+            return keepFree;
+        }
+        else if ( freelistHead.getClass() == FreePage.class )
+        {
+            int availablePages = ((FreePage) freelistHead).count;
+            if ( availablePages < keepFree )
+            {
+                return keepFree - availablePages;
+            }
+        }
+        else if ( freelistHead.getClass() == AtomicInteger.class )
+        {
+            AtomicInteger counter = (AtomicInteger) freelistHead;
+            long count = pageCount() - counter.get();
+            if ( count < keepFree )
+            {
+                return count < 0 ? keepFree : (int) (keepFree - count);
+            }
+        }
+        return UNKNOWN_AVAILABLE_PAGES;
+    }
+
+    void signalShutdown()
+    {
+        // This signal is looked out for in grabFreePage.
+        setFreelistHead( MuninnPageCache.shutdownSignal );
+    }
+
+    void unparkEvictor()
+    {
+        if ( evictorParked )
+        {
+            evictorParked = false;
+            LockSupport.unpark( evictionThread );
+        }
+    }
+
+    void parkEvictor( long parkNanos )
+    {
+        // Only called from the background eviction thread of this stripe!
+        evictorParked = true;
+        LockSupport.parkNanos( this, parkNanos );
+        evictorParked = false;
+    }
+
+    void interruptEvictor()
+    {
+        Thread thread = evictionThread;
+        if ( thread != null )
+        {
+            thread.interrupt();
+        }
+        evictionThread = null;
+    }
+
+    void pagesFaulted( int pageCount, long nanos )
+    {
+        faults.add( pageCount );
+        faultNanos.add( nanos );
+        long max = maxFaultNanos.get();
+        while ( nanos > max && !maxFaultNanos.compareAndSet( max, nanos ) )
+        {
+            max = maxFaultNanos.get();
+        }
+    }
+
+    void pageCooperativelyEvicted()
+    {
+        cooperativeEvictions.increment();
+    }
+
+    void pageEvicted()
+    {
+        backgroundEvictions.increment();
+    }
+
+    EvictionStripeStatistics statistics()
+    {
+        return new EvictionStripeStatistics( index, pageCount(), faults.sum(), faultNanos.sum(), maxFaultNanos.get(),
+                backgroundEvictions.sum(), cooperativeEvictions.sum() );
+    }
+
+    private Object getFreelistHead()
+    {
+        return UnsafeUtil.getObjectVolatile( this, freelistOffset );
+    }
+
+    private boolean compareAndSetFreelistHead( Object expected, Object update )
+    {
+        return UnsafeUtil.compareAndSwapObject( this, freelistOffset, expected, update );
+    }
+
+    private void setFreelistHead( Object newFreelistHead )
+    {
+        UnsafeUtil.putObjectVolatile( this, freelistOffset, newFreelistHead );
+    }
+}
@@ -34,6 +34,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
 
 import org.neo4j.internal.unsafe.UnsafeUtil;
@@ -45,6 +46,8 @@ import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.buffer.IOBufferFactory;
+import org.neo4j.io.pagecache.buffer.NativeIOBuffer;
+import org.neo4j.io.pagecache.monitoring.EvictionStripeStatistics;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
@@ -127,8 +130,8 @@ public class MuninnPageCache implements PageCache
     private static final int MEMORY_USE_PER_PAGE = PAGE_SIZE + PageList.META_DATA_BYTES_PER_PAGE;
 
     // Keep this many pages free and ready for use in faulting.
-    // This will be truncated to be no more than half of the number of pages
-    // in the cache.
+    // This is split between the eviction stripes, and each stripe truncates its
+    // share to be no more than half of the number of pages in the stripe.
     private static final int pagesToKeepFree = getInteger(
             MuninnPageCache.class, "pagesToKeepFree", 30 );
 
@@ -137,20 +140,49 @@ public class MuninnPageCache implements PageCache
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
             MuninnPageCache.class, "cooperativeEvictionLiveLockThreshold", 100 );
 
+    // The number of eviction stripes to partition the pages into. Each stripe has its own freelist and its own
+    // eviction thread. Zero means that the number of stripes is computed from the number of pages in the cache, and the
+    // number of available processors.
+    private static final int evictionStripes = getInteger( MuninnPageCache.class, "evictionStripes", 0 );
+
+    // When computing the number of eviction stripes, make sure that every stripe has at least this many pages.
+    private static final int minimumPagesPerEvictionStripe = getInteger(
+            MuninnPageCache.class, "minimumPagesPerEvictionStripe", 65536 );
+
+    // The name of the feature toggle for the largest number of pages that adaptive read-ahead will load ahead of a
+    // cursor, in one go. Zero disables adaptive read-ahead. The toggle is read whenever a file is mapped.
+    public static final String MAX_READ_AHEAD_WINDOW_NAME = "maxReadAheadWindow";
+    private static final int DEFAULT_MAX_READ_AHEAD_WINDOW = 64;
+
+    // The names of the feature toggles for the background write-back of dirty pages. Write-back tries to keep the
+    // percentage of dirty pages in the cache at or below the target, so check points have less to flush. It is only
+    // enabled for caches with at least the minimum number of pages, and a target between 1 and 99 percent.
+    // The toggles are read when the page cache is created.
+    public static final String WRITE_BACK_TARGET_DIRTY_PERCENT_NAME = "writeBackTargetDirtyPercent";
+    private static final int DEFAULT_WRITE_BACK_TARGET_DIRTY_PERCENT = 10;
+    public static final String MINIMUM_PAGES_FOR_WRITE_BACK_NAME = "minimumPagesForWriteBack";
+    private static final int DEFAULT_MINIMUM_PAGES_FOR_WRITE_BACK = 65536;
+
+    // The name of the feature toggle for measuring the latency of page faults in the eviction stripe statistics. Timing
+    // puts a clock read on every page fault, so it is off by default. The toggle is read when the page cache is created.
+    public static final String MEASURE_FAULT_LATENCY_NAME = "measureFaultLatency";
+
+    // How long the write-back thread waits between counting the dirty pages in the cache.
+    private static final int writeBackIntervalMillis = getInteger( MuninnPageCache.class, "writeBackIntervalMillis", 100 );
+
     // This is a pre-allocated constant, so we can throw it without allocating any objects:
     @SuppressWarnings( "ThrowableInstanceNeverThrown" )
     private static final IOException oomException = new IOException(
             "OutOfMemoryError encountered in the page cache background eviction thread" );
 
-    // The field offset to unsafely access the freelist field.
-    private static final long freelistOffset =
-            UnsafeUtil.getFieldOffset( MuninnPageCache.class, "freelist" );
-
     // This is used as a poison-pill signal in the freelist, to inform any
     // page faulting thread that it is now no longer possible to queue up and
     // wait for more pages to be evicted, because the page cache has been shut
     // down.
-    private static final FreePage shutdownSignal = new FreePage( 0 );
+    static final FreePage shutdownSignal = new FreePage( 0 );
+
+    // The page replacement policy used when no other policy is given.
+    public static final EvictionPolicy DEFAULT_EVICTION_POLICY = EvictionPolicy.CLOCK;
 
     // A counter used to identify which background threads belong to which page cache.
     private static final AtomicInteger pageCacheIdCounter = new AtomicInteger();
@@ -162,43 +194,36 @@ public class MuninnPageCache implements PageCache
     private static final List<OpenOption> ignoredOpenOptions = Arrays.asList( StandardOpenOption.APPEND,
             StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.SPARSE );
 
-    // Used when trying to figure out number of available pages in a page cache. Could be returned from tryGetNumberOfAvailablePages.
-    private static final int UNKNOWN_AVAILABLE_PAGES = -1;
-
     private final int pageCacheId;
     private final PageSwapperFactory swapperFactory;
     private final int cachePageSize;
-    private final int keepFree;
     private final PageCacheTracer pageCacheTracer;
     private final VersionContextSupplier versionContextSupplier;
     private final IOBufferFactory bufferFactory;
+    private final PageReplacement pageReplacement;
     final PageList pages;
     // All PageCursors are initialised with their pointers pointing to the victim page. This way, we don't have to throw
     // exceptions on bounds checking failures; we can instead return the victim page pointer, and permit the page
     // accesses to take place without fear of segfaulting newly allocated cursors.
     final long victimPage;
 
-    // The freelist is a thread-safe linked-list of FreePage objects, or an AtomicInteger, or null.
-    // Initially, the field is an AtomicInteger that counts from zero to the max page count, at which point all of the
-    // pages have been put in use. Once this happens, the field is set to null to allow the background eviction thread
-    // to start its work. From that point on, the field will operate as a concurrent stack of FreePage objects. The
-    // eviction thread pushes newly freed FreePage objects onto the stack, and page faulting threads pops FreePage
-    // objects from the stack. The FreePage objects are single-use, to avoid running into the ABA-problem.
-    @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
-    private volatile Object freelist;
+    // The pages are partitioned into stripes of consecutive page ids, each with its own freelist and eviction thread.
+    // Review the comment on the EvictionStripe.freelist field before making changes to the freelist handling.
+    private final EvictionStripe[] stripes;
+    private final int pagesPerStripe;
+    // Counts the pages swept through by the clock arms of the individual stripes.
+    private final AtomicLong sweptPages = new AtomicLong();
+    private final boolean measureFaultLatency;
+
+    // The number of dirty pages that background write-back aims to stay at or below, or -1 if write-back is disabled.
+    private final long writeBackTargetDirtyPages;
+    private volatile Thread writeBackThread;
+    // The file that the next write-back pass starts from, so all files get their dirty pages written back in turn.
+    private int writeBackFileIndex;
 
     // Linked list of mappings - guarded by synchronized(this)
     private volatile FileMapping mappedFiles;
 
-    // The thread that runs the eviction algorithm. We unpark this when we've run out of
-    // free pages to grab.
-    private volatile Thread evictionThread;
-    // True if the eviction thread is currently parked, without someone having
-    // signalled it to wake up. This is used as a weak guard for unparking the
-    // eviction thread, because calling unpark too much (from many page
-    // faulting threads) can cause contention on the locks protecting that
-    // threads scheduling meta-data in the OS kernel.
-    private volatile boolean evictorParked;
     private volatile IOException evictorException;
 
     // Flag for when page cache is closed - writes guarded by synchronized(this), reads can be unsynchronized
@@ -253,7 +278,26 @@ public class MuninnPageCache implements PageCache
             VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
             IOBufferFactory bufferFactory )
     {
-        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory );
+        this( swapperFactory, memoryAllocator, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory,
+                DEFAULT_EVICTION_POLICY );
+    }
+
+    /**
+     * Create page cache.
+     * @param swapperFactory page cache swapper factory
+     * @param memoryAllocator the source of native memory the page cache should use
+     * @param pageCacheTracer global page cache tracer
+     * @param versionContextSupplier supplier of thread local (transaction local) version context that will provide access to thread local version context
+     * @param memoryTracker underlying buffers allocation memory tracker
+     * @param bufferFactory temporal flush buffer factories
+     * @param evictionPolicy the page replacement policy used for choosing which pages to evict
+     */
+    public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, PageCacheTracer pageCacheTracer,
+            VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
+            IOBufferFactory bufferFactory, EvictionPolicy evictionPolicy )
+    {
+        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory,
+                evictionPolicy );
     }
 
     /**
@@ -265,6 +309,20 @@ public class MuninnPageCache implements PageCache
     public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, int cachePageSize, PageCacheTracer pageCacheTracer,
             VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
             IOBufferFactory bufferFactory )
+    {
+        this( swapperFactory, memoryAllocator, cachePageSize, pageCacheTracer, versionContextSupplier, jobScheduler, clock, memoryTracker, bufferFactory,
+                DEFAULT_EVICTION_POLICY );
+    }
+
+    /**
+     * Constructor variant that allows setting a non-standard cache page size.
+     * Only ever use this for testing.
+     */
+    @SuppressWarnings( "DeprecatedIsStillUsed" )
+    @Deprecated
+    public MuninnPageCache( PageSwapperFactory swapperFactory, MemoryAllocator memoryAllocator, int cachePageSize, PageCacheTracer pageCacheTracer,
+            VersionContextSupplier versionContextSupplier, JobScheduler jobScheduler, SystemNanoClock clock, MemoryTracker memoryTracker,
+            IOBufferFactory bufferFactory, EvictionPolicy evictionPolicy )
     {
         verifyHacks();
         verifyCachePageSizeIsPowerOfTwo( cachePageSize );
@@ -276,17 +334,68 @@ public class MuninnPageCache implements PageCache
         this.pageCacheId = pageCacheIdCounter.incrementAndGet();
         this.swapperFactory = swapperFactory;
         this.cachePageSize = cachePageSize;
-        this.keepFree = Math.min( pagesToKeepFree, maxPages / 2 );
         this.pageCacheTracer = pageCacheTracer;
         this.versionContextSupplier = versionContextSupplier;
         this.printExceptionsOnClose = true;
         this.bufferFactory = bufferFactory;
         this.victimPage = VictimPageReference.getVictimPage( cachePageSize, memoryTracker );
-        this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, UnsafeUtil.pageSize() );
+        this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, UnsafeUtil.pageSize(), evictionPolicy,
+                memoryTracker );
+        this.pageReplacement = pages.getPageReplacement();
+        pageCacheTracer.dirtyPages( pages::getDirtyPageCount );
         this.scheduler = jobScheduler;
         this.clock = clock;
 
-        setFreelistHead( new AtomicInteger() );
+        int stripeCount = computeEvictionStripeCount( maxPages );
+        this.pagesPerStripe = (maxPages + stripeCount - 1) / stripeCount;
+        // Rounding the stripe size up might leave fewer stripes with pages in them, than we asked for.
+        stripeCount = (maxPages + pagesPerStripe - 1) / pagesPerStripe;
+        this.stripes = new EvictionStripe[stripeCount];
+        for ( int i = 0; i < stripeCount; i++ )
+        {
+            int firstPageId = i * pagesPerStripe;
+            int endPageId = Math.min( firstPageId + pagesPerStripe, maxPages );
+            stripes[i] = new EvictionStripe( pages, i, firstPageId, endPageId, stripePagesToKeepFree( pagesToKeepFree, i, stripeCount ) );
+        }
+        pageCacheTracer.evictionStripeStatistics( this::evictionStripeStatistics );
+        this.writeBackTargetDirtyPages = computeWriteBackTargetDirtyPages( maxPages );
+        this.measureFaultLatency = flag( MuninnPageCache.class, MEASURE_FAULT_LATENCY_NAME, false );
+    }
+
+    private static long computeWriteBackTargetDirtyPages( int maxPages )
+    {
+        int targetDirtyPercent = getInteger(
+                MuninnPageCache.class, WRITE_BACK_TARGET_DIRTY_PERCENT_NAME, DEFAULT_WRITE_BACK_TARGET_DIRTY_PERCENT );
+        int minimumPages = getInteger( MuninnPageCache.class, MINIMUM_PAGES_FOR_WRITE_BACK_NAME, DEFAULT_MINIMUM_PAGES_FOR_WRITE_BACK );
+        if ( targetDirtyPercent <= 0 || targetDirtyPercent >= 100 || maxPages < minimumPages )
+        {
+            return -1;
+        }
+        return maxPages * (long) targetDirtyPercent / 100;
+    }
+
+    /**
+     * The pages to keep free are split evenly between the stripes, so the cache as a whole keeps about the same number
+     * of pages free regardless of how many stripes it has. Every stripe keeps at least one page free, since its
+     * eviction thread would otherwise never have anything to do.
+     */
+    static int stripePagesToKeepFree( int pagesToKeepFree, int stripe, int stripeCount )
+    {
+        int keepFree = pagesToKeepFree / stripeCount + (stripe < pagesToKeepFree % stripeCount ? 1 : 0);
+        return Math.max( 1, keepFree );
+    }
+
+    private static int computeEvictionStripeCount( int maxPages )
+    {
+        int stripeCount = evictionStripes;
+        if ( stripeCount <= 0 )
+        {
+            // One stripe for every four processors, as long as every stripe gets a decent number of pages.
+            int processors = Runtime.getRuntime().availableProcessors();
+            stripeCount = Math.min( processors / 4, maxPages / minimumPagesPerEvictionStripe );
+        }
+        // Every stripe needs at least two pages, so that its eviction thread has something to keep free.
+        return Math.max( 1, Math.min( stripeCount, maxPages / 2 ) );
     }
 
     private static void verifyHacks()
@@ -486,8 +595,16 @@ public class MuninnPageCache implements PageCache
 
         try
         {
-            var monitoringParams = systemJob( "Eviction of pages from the page cache" );
-            scheduler.schedule( Group.PAGE_CACHE_EVICTION, monitoringParams, new EvictionTask( this ) );
+            for ( EvictionStripe stripe : stripes )
+            {
+                var monitoringParams = systemJob( "Eviction of pages from the page cache" +
+                        (stripes.length == 1 ? "" : ", stripe " + stripe.index) );
+                scheduler.schedule( Group.PAGE_CACHE_EVICTION, monitoringParams, new EvictionTask( this, stripe ) );
+            }
+            if ( writeBackTargetDirtyPages >= 0 )
+            {
+                scheduler.schedule( Group.PAGE_CACHE_WRITE_BACK, systemJob( "Write-back of dirty pages in the page cache" ), new WriteBackTask( this ) );
+            }
         }
         catch ( Exception e )
         {
@@ -680,21 +797,20 @@ public class MuninnPageCache implements PageCache
 
         closed = true;
 
-        interrupt( evictionThread );
-        evictionThread = null;
+        for ( EvictionStripe stripe : stripes )
+        {
+            stripe.interruptEvictor();
+        }
+        Thread writeBacker = writeBackThread;
+        if ( writeBacker != null )
+        {
+            writeBacker.interrupt();
+        }
 
         // Close the page swapper factory last. If this fails then we will still consider ourselves closed.
         swapperFactory.close();
     }
 
-    private static void interrupt( Thread thread )
-    {
-        if ( thread != null )
-        {
-            thread.interrupt();
-        }
-    }
-
     private void assertHealthy() throws IOException
     {
         assertNotClosed();
@@ -742,83 +858,97 @@ public class MuninnPageCache implements PageCache
         return pageCacheId;
     }
 
+    int readAheadWindowLimit()
+    {
+        int maxReadAheadWindow = getInteger( MuninnPageCache.class, MAX_READ_AHEAD_WINDOW_NAME, DEFAULT_MAX_READ_AHEAD_WINDOW );
+        // Read-ahead must only ever claim a small fraction of the cache, or it will evict the very pages it loads.
+        return Math.min( maxReadAheadWindow, pages.getPageCount() >>> 6 );
+    }
+
     long grabFreeAndExclusivelyLockedPage( PageFaultEvent faultEvent ) throws IOException
     {
-        // Review the comment on the freelist field before making changes to
-        // this part of the code.
-        // Whatever the case, we're going to the head-pointer of the freelist,
-        // and in doing so, we can discover a number of things.
-        // We can discover a MuninnPage object, in which case we can try to
-        // CAS the freelist pointer to the value of the MuninnPage.nextFree
-        // pointer, and if this succeeds then we've grabbed that page.
-        // We can discover a FreePage object, in which case we'll do a similar
-        // dance by attempting to CAS the freelist to the FreePage objects next
-        // pointer, and again, if we succeed then we've grabbed the MuninnPage
-        // given by the FreePage object.
-        // We can discover a null-pointer, in which case the freelist has just
-        // been emptied for whatever it contained before. New FreePage objects
-        // are eventually going to be added to the freelist, but we are not
-        // going to wait around for that to happen. If the freelist is empty,
-        // then we do our own eviction to get a free page.
-        // If we find a FreePage object on the freelist, then it is important
-        // to check and see if it is the shutdownSignal instance. If that's the
-        // case, then the page cache has been shut down, and we should throw an
-        // exception from our page fault routine.
-        Object current;
+        // Page faulting threads take their pages from the stripe given by their thread id. If that stripe has run out
+        // of free pages, then we wake up its eviction thread, and see if any of the other stripes have pages to spare.
+        // Only if they all have empty freelists, do we do our own eviction to get a free page.
+        EvictionStripe stripe = stripeForCurrentThread();
         for (;;)
         {
             assertHealthy();
-            current = getFreelistHead();
-            if ( current == null )
+            long pageRef = stripe.grabFreePage();
+            if ( pageRef != 0 )
             {
-                unparkEvictor();
-                long pageRef = cooperativelyEvict( faultEvent );
-                if ( pageRef != 0 )
-                {
-                    return pageRef;
-                }
+                return pageRef;
             }
-            else if ( current instanceof AtomicInteger )
+            stripe.unparkEvictor();
+            pageRef = stealFreePage( stripe );
+            if ( pageRef != 0 )
             {
-                int pageCount = pages.getPageCount();
-                AtomicInteger counter = (AtomicInteger) current;
-                int pageId = counter.get();
-                if ( pageId < pageCount && counter.compareAndSet( pageId, pageId + 1 ) )
-                {
-                    return pages.deref( pageId );
-                }
-                if ( pageId >= pageCount )
-                {
-                    compareAndSetFreelistHead( current, null );
-                }
+                return pageRef;
             }
-            else if ( current instanceof FreePage )
+            pageRef = cooperativelyEvict( stripe, faultEvent );
+            if ( pageRef != 0 )
             {
-                FreePage freePage = (FreePage) current;
-                if ( freePage == shutdownSignal )
-                {
-                    throw new IllegalStateException( "The PageCache has been shut down." );
-                }
+                return pageRef;
+            }
+        }
+    }
 
-                if ( compareAndSetFreelistHead( freePage, freePage.next ) )
-                {
-                    return freePage.pageRef;
-                }
+    private EvictionStripe stripeForCurrentThread()
+    {
+        EvictionStripe[] stripes = this.stripes;
+        if ( stripes.length == 1 )
+        {
+            return stripes[0];
+        }
+        return stripes[(int) (Thread.currentThread().getId() % stripes.length)];
+    }
+
+    private EvictionStripe stripeOf( long pageRef )
+    {
+        return stripes[pages.toId( pageRef ) / pagesPerStripe];
+    }
+
+    private long stealFreePage( EvictionStripe ownStripe )
+    {
+        EvictionStripe[] stripes = this.stripes;
+        for ( int i = 1; i < stripes.length; i++ )
+        {
+            EvictionStripe stripe = stripes[(ownStripe.index + i) % stripes.length];
+            long pageRef = stripe.grabFreePage();
+            if ( pageRef != 0 )
+            {
+                return pageRef;
+            }
+            stripe.unparkEvictor();
+        }
+        return 0;
+    }
+
+    private boolean anyStripeHasFreePages()
+    {
+        for ( EvictionStripe stripe : stripes )
+        {
+            if ( stripe.hasFreePages() )
+            {
+                return true;
             }
         }
+        return false;
     }
 
-    private long cooperativelyEvict( PageFaultEvent faultEvent ) throws IOException
+    private long cooperativelyEvict( EvictionStripe stripe, PageFaultEvent faultEvent ) throws IOException
     {
+        // We start sweeping at a random page in our own stripe, but carry on into the other stripes if we have to,
+        // because all the pages in our own stripe might be locked.
         int iterations = 0;
         int pageCount = pages.getPageCount();
-        int clockArm = ThreadLocalRandom.current().nextInt( pageCount );
+        int clockArm = stripe.firstPageId + ThreadLocalRandom.current().nextInt( stripe.pageCount() );
         boolean evicted = false;
         long pageRef;
         do
         {
             assertHealthy();
-            if ( getFreelistHead() != null )
+            if ( anyStripeHasFreePages() )
             {
                 return 0;
             }
@@ -831,16 +961,18 @@ public class MuninnPageCache implements PageCache
                 }
                 iterations++;
                 clockArm = 0;
+                pageReplacement.sweepCompleted();
             }
 
             pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && pageReplacement.shouldEvict( pages, pageRef ) )
             {
                 evicted = pages.tryEvict( pageRef, faultEvent );
             }
             clockArm++;
         }
         while ( !evicted );
+        stripe.pageCooperativelyEvicted();
         return pageRef;
     }
 
@@ -859,121 +991,110 @@ public class MuninnPageCache implements PageCache
                 "your database." );
     }
 
-    private void unparkEvictor()
-    {
-        if ( evictorParked )
-        {
-            evictorParked = false;
-            LockSupport.unpark( evictionThread );
-        }
-    }
-
-    private void parkEvictor( long parkNanos )
-    {
-        // Only called from the background eviction thread!
-        evictorParked = true;
-        LockSupport.parkNanos( this, parkNanos );
-        evictorParked = false;
-    }
-
-    private Object getFreelistHead()
+    /**
+     * @return the time that a page fault starts at, in nanoseconds, or zero if fault latencies are not measured.
+     */
+    long faultStartNanos()
     {
-        return UnsafeUtil.getObjectVolatile( this, freelistOffset );
+        return measureFaultLatency ? System.nanoTime() : 0;
     }
 
-    private boolean compareAndSetFreelistHead( Object expected, Object update )
+    /**
+     * Record a completed page fault, against the stripe of the page that was faulted into.
+     * @param pageRef The page that was faulted into, or the first page, if a run of pages was faulted in together.
+     * @param pageCount The number of pages that were faulted in.
+     * @param startNanos The start of the page fault, as given by {@link #faultStartNanos()}.
+     */
+    void pagesFaulted( long pageRef, int pageCount, long startNanos )
     {
-        return UnsafeUtil.compareAndSwapObject(
-                this, freelistOffset, expected, update );
+        long nanos = measureFaultLatency ? System.nanoTime() - startNanos : 0;
+        stripeOf( pageRef ).pagesFaulted( pageCount, nanos );
     }
 
-    private void setFreelistHead( Object newFreelistHead )
+    /**
+     * @return a snapshot of the page fault and eviction statistics of each of the eviction stripes in this page cache.
+     */
+    private List<EvictionStripeStatistics> evictionStripeStatistics()
     {
-        UnsafeUtil.putObjectVolatile( this, freelistOffset, newFreelistHead );
+        List<EvictionStripeStatistics> statistics = new ArrayList<>( stripes.length );
+        for ( EvictionStripe stripe : stripes )
+        {
+            statistics.add( stripe.statistics() );
+        }
+        return statistics;
     }
 
     /**
-     * Scan through all the pages, one by one, and decrement their usage stamps.
-     * If a usage reaches zero, we try-write-locking it, and if we get that lock,
-     * we evict the page. If we don't, we move on to the next page.
-     * Once we have enough free pages, we park our thread. Page-faulting will
-     * unpark our thread as needed.
+     * The pages of the stripe are scanned through one by one, and the {@link EvictionPolicy} is allowed to age their
+     * usage stamps. If the policy decides that a page should be evicted, we try-write-locking it, and if we get that
+     * lock, we evict the page. If we don't, we move on to the next page.
+     * Once we have enough free pages in the stripe, we park our thread. Page-faulting will unpark our thread as needed.
+     * <p>
+     * The {@link PageReplacement} policy is shared by all the stripes. Since each stripe only sweeps its own share of the
+     * pages, the policy is only told about a completed sweep once the stripes have, between them, swept through as many
+     * pages as there are in the cache.
      */
-    void continuouslySweepPages()
+    void continuouslySweepPages( EvictionStripe stripe )
     {
-        evictionThread = Thread.currentThread();
-        int clockArm = 0;
+        stripe.evictionThread = Thread.currentThread();
+        int clockArm = stripe.firstPageId;
 
         while ( !closed )
         {
-            int pageCountToEvict = parkUntilEvictionRequired( keepFree );
+            int pageCountToEvict = parkUntilEvictionRequired( stripe );
             try ( EvictionRunEvent evictionRunEvent = pageCacheTracer.beginPageEvictions( pageCountToEvict ) )
             {
-                clockArm = evictPages( pageCountToEvict, clockArm, evictionRunEvent );
+                clockArm = evictPages( stripe, pageCountToEvict, clockArm, evictionRunEvent );
             }
         }
 
         // The last thing we do, is signalling the shutdown of the cache via
         // the freelist. This signal is looked out for in grabFreePage.
-        setFreelistHead( shutdownSignal );
+        stripe.signalShutdown();
     }
 
-    private int parkUntilEvictionRequired( int keepFree )
+    private int parkUntilEvictionRequired( EvictionStripe stripe )
     {
         // Park until we're either interrupted, or the number of free pages drops
         // bellow keepFree.
         long parkNanos = TimeUnit.MILLISECONDS.toNanos( 10 );
         for (;;)
         {
-            parkEvictor( parkNanos );
+            stripe.parkEvictor( parkNanos );
             if ( Thread.interrupted() || closed )
             {
                 return 0;
             }
 
-            int availablePages = tryGetNumberOfAvailablePages( keepFree );
-            if ( availablePages != UNKNOWN_AVAILABLE_PAGES )
+            int availablePages = stripe.tryGetNumberOfAvailablePages( stripe.keepFree );
+            if ( availablePages != EvictionStripe.UNKNOWN_AVAILABLE_PAGES )
             {
                 return availablePages;
             }
         }
     }
 
-    private int tryGetNumberOfAvailablePages( int keepFree )
+    /**
+     * Evict pages with a clock arm that sweeps through all the pages in the cache, regardless of stripes.
+     */
+    int evictPages( int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
     {
-        Object freelistHead = getFreelistHead();
+        return evictPages( 0, pages.getPageCount(), pageCountToEvict, clockArm, evictionRunEvent );
+    }
 
-        if ( freelistHead == null )
-        {
-            return keepFree;
-        }
-        else if ( freelistHead.getClass() == FreePage.class )
-        {
-            int availablePages = ((FreePage) freelistHead).count;
-            if ( availablePages < keepFree )
-            {
-                return keepFree - availablePages;
-            }
-        }
-        else if ( freelistHead.getClass() == AtomicInteger.class )
-        {
-            AtomicInteger counter = (AtomicInteger) freelistHead;
-            long count = pages.getPageCount() - counter.get();
-            if ( count < keepFree )
-            {
-                return count < 0 ? keepFree : (int) (keepFree - count);
-            }
-        }
-        return UNKNOWN_AVAILABLE_PAGES;
+    private int evictPages( EvictionStripe stripe, int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
+    {
+        return evictPages( stripe.firstPageId, stripe.endPageId, pageCountToEvict, clockArm, evictionRunEvent );
     }
 
-    int evictPages( int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
+    private int evictPages( int firstPageId, int endPageId, int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
     {
         while ( pageCountToEvict > 0 && !closed )
         {
-            if ( clockArm == pages.getPageCount() )
+            if ( clockArm == endPageId )
             {
-                clockArm = 0;
+                clockArm = firstPageId;
+                pagesSwept( endPageId - firstPageId );
             }
 
             if ( closed )
@@ -983,7 +1104,7 @@ public class MuninnPageCache implements PageCache
             }
 
             long pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && pageReplacement.shouldEvict( pages, pageRef ) )
             {
                 try
                 {
@@ -991,7 +1112,9 @@ public class MuninnPageCache implements PageCache
                     if ( pages.tryEvict( pageRef, evictionRunEvent ) )
                     {
                         clearEvictorException();
-                        addFreePageToFreelist( pageRef );
+                        EvictionStripe stripe = stripeOf( pageRef );
+                        stripe.addFreePage( pageRef );
+                        stripe.pageEvicted();
                     }
                 }
                 catch ( IOException e )
@@ -1015,20 +1138,81 @@ public class MuninnPageCache implements PageCache
         return clockArm;
     }
 
-    void addFreePageToFreelist( long pageRef )
+    /**
+     * Every so often, the number of dirty pages in the cache is checked. If there are more of them than the write-back target,
+     * then the excess dirty pages are written out, without forcing the files. Within each file, the pages are written in
+     * file order, with runs of consecutive dirty pages coalesced into vectored writes. This trickles the dirty pages out
+     * to the files at the rate that they are produced, instead of leaving them all for the next check point to flush in
+     * one burst. Check points still flush any remaining dirty pages, and force the files.
+     */
+    void continuouslyWriteBackDirtyPages()
     {
-        Object current;
-        FreePage freePage = new FreePage( pageRef );
-        do
+        writeBackThread = Thread.currentThread();
+        long parkNanos = TimeUnit.MILLISECONDS.toNanos( writeBackIntervalMillis );
+        try ( var buffer = bufferFactory.createBuffer() )
         {
-            current = getFreelistHead();
-            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > pages.getPageCount() )
+            while ( !closed )
             {
-                current = null;
+                LockSupport.parkNanos( this, parkNanos );
+                if ( Thread.interrupted() || closed )
+                {
+                    return;
+                }
+                try
+                {
+                    writeBackDirtyPages( buffer );
+                }
+                catch ( IOException e )
+                {
+                    evictorException = e;
+                }
+                catch ( OutOfMemoryError oom )
+                {
+                    evictorException = oomException;
+                }
+                catch ( Throwable th )
+                {
+                    evictorException = new IOException( "Write-back thread encountered a problem", th );
+                }
             }
-            freePage.setNext( current );
         }
-        while ( !compareAndSetFreelistHead( current, freePage ) );
+    }
+
+    private void writeBackDirtyPages( NativeIOBuffer buffer ) throws IOException
+    {
+        long pagesToWrite = pages.getDirtyPageCount() - writeBackTargetDirtyPages;
+        List<PagedFile> files = listExistingMappings();
+        for ( int i = 0; i < files.size() && pagesToWrite > 0 && !closed; i++ )
+        {
+            MuninnPagedFile file = (MuninnPagedFile) files.get( (writeBackFileIndex + i) % files.size() );
+            try ( MajorFlushEvent fileFlush = pageCacheTracer.beginFileFlush( file.swapper ) )
+            {
+                pagesToWrite -= file.writeBack( fileFlush.flushEventOpportunity(), pagesToWrite, buffer );
+            }
+        }
+        writeBackFileIndex++;
+    }
+
+    long getDirtyPageCount()
+    {
+        return pages.getDirtyPageCount();
+    }
+
+    private void pagesSwept( int pageCount )
+    {
+        // The page replacement policy is told about a completed sweep once the stripes have, between them, swept through
+        // as many pages as there are in the cache. This way, the pages age at the same rate regardless of striping.
+        long cachePages = pages.getPageCount();
+        long swept = sweptPages.addAndGet( pageCount );
+        if ( swept / cachePages != (swept - pageCount) / cachePages )
+        {
+            pageReplacement.sweepCompleted();
+        }
+    }
+
+    void addFreePageToFreelist( long pageRef )
+    {
+        stripeOf( pageRef ).addFreePage( pageRef );
     }
 
     void clearEvictorException()
@@ -1042,14 +1226,21 @@ public class MuninnPageCache implements PageCache
     @Override
     public String toString()
     {
-        int availablePages = tryGetNumberOfAvailablePages( keepFree );
-        return format( "%s[pageCacheId:%d, pageSize:%d, pages:%d, availablePages:%s]", getClass().getSimpleName(),
-                pageCacheId, cachePageSize, pages.getPageCount(), availablePages != UNKNOWN_AVAILABLE_PAGES ? String.valueOf( availablePages ) : "N/A" );
+        int availablePages = 0;
+        boolean knownAvailablePages = true;
+        for ( EvictionStripe stripe : stripes )
+        {
+            int stripeAvailablePages = stripe.tryGetNumberOfAvailablePages( stripe.keepFree );
+            knownAvailablePages &= stripeAvailablePages != EvictionStripe.UNKNOWN_AVAILABLE_PAGES;
+            availablePages += stripeAvailablePages;
+        }
+        return format( "%s[pageCacheId:%d, pageSize:%d, pages:%d, evictionStripes:%d, availablePages:%s]", getClass().getSimpleName(),
+                pageCacheId, cachePageSize, pages.getPageCount(), stripes.length, knownAvailablePages ? String.valueOf( availablePages ) : "N/A" );
     }
 
     void vacuum( SwapperSet swappers )
     {
-        if ( getFreelistHead() instanceof AtomicInteger && swappers.countAvailableIds() > 200 )
+        if ( anyStripeHasUnusedPages() && swappers.countAvailableIds() > 200 )
         {
             return; // We probably still have plenty of free pages left. Don't bother vacuuming just yet.
         }
@@ -1078,6 +1269,18 @@ public class MuninnPageCache implements PageCache
         } );
     }
 
+    private boolean anyStripeHasUnusedPages()
+    {
+        for ( EvictionStripe stripe : stripes )
+        {
+            if ( stripe.hasUnusedPages() )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
     void startPreFetching( MuninnPageCursor cursor, CursorFactory cursorFactory )
     {
         PreFetcher preFetcher = new PreFetcher( cursor, cursorFactory, pageCacheTracer, clock );
@@ -44,6 +44,7 @@ import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
 import static org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.UNMAPPED_TTE;
 import static org.neo4j.util.FeatureToggles.flag;
+import static org.neo4j.util.FeatureToggles.getInteger;
 
 public abstract class MuninnPageCursor extends PageCursor
 {
@@ -52,6 +53,15 @@ public abstract class MuninnPageCursor extends PageCursor
 
     private static final boolean boundsCheck = flag( MuninnPageCursor.class, "boundsCheck", true );
 
+    // Cursors keep track of the distance between the pages they access, and once a cursor has moved through the file
+    // at the same stride a number of times in a row, its page faults will also load the next pages at that stride.
+    private static final boolean adaptiveReadAhead = flag( MuninnPageCursor.class, "adaptiveReadAhead", true );
+    // The number of times in a row that a cursor must move by the same stride, before we start reading ahead.
+    private static final int readAheadStrideRepeats = getInteger( MuninnPageCursor.class, "readAheadStrideRepeats", 3 );
+    // Cursors that jump further than this many pages at a time are not considered to be scanning.
+    private static final int maxReadAheadStride = getInteger( MuninnPageCursor.class, "maxReadAheadStride", 16 );
+    private static final int MIN_READ_AHEAD_WINDOW = 4;
+
     private static final int BYTE_ARRAY_BASE_OFFSET = UnsafeUtil.arrayBaseOffset( byte[].class );
     private static final int BYTE_ARRAY_INDEX_SCALE = UnsafeUtil.arrayIndexScale( byte[].class );
     private static final long CURRENT_PAGE_ID = UnsafeUtil.getFieldOffset( MuninnPageCursor.class, "currentPageId" );
@@ -74,11 +84,24 @@ public abstract class MuninnPageCursor extends PageCursor
     protected boolean eagerFlush;
     protected boolean noFault;
     protected boolean noGrow;
+    protected boolean transientAccess;
     @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
     private long currentPageId;
     protected long nextPageId;
     protected MuninnPageCursor linkedCursor;
     protected JobHandle<?> preFetcher;
+    // Adaptive read-ahead state. The pages loaded by the most recent read-ahead are those after readAheadStartPageId,
+    // up to and including readAheadEndPageId, in the direction of the stride.
+    private boolean readAhead;
+    private long lastAccessedPageId;
+    private long accessStride;
+    private int strideRepeats;
+    private int readAheadWindow;
+    private long readAheadStartPageId;
+    private long readAheadEndPageId;
+    private int readAheadHits;
+    // Whether the page of the current pin was loaded by our own read-ahead.
+    private boolean pinLoadedByReadAhead;
     private long pointer;
     private int pageSize;
     private int filePageSize;
@@ -110,6 +133,10 @@ public abstract class MuninnPageCursor extends PageCursor
         this.eagerFlush = isFlagRaised( pf_flags, PF_EAGER_FLUSH );
         this.noFault = isFlagRaised( pf_flags, PF_NO_FAULT );
         this.noGrow = noFault || isFlagRaised( pf_flags, PagedFile.PF_NO_GROW );
+        this.transientAccess = isFlagRaised( pf_flags, PagedFile.PF_TRANSIENT );
+        this.readAhead = adaptiveReadAhead && !noFault && pagedFile.readAheadWindowLimit >= MIN_READ_AHEAD_WINDOW;
+        this.lastAccessedPageId = UNBOUND_PAGE_ID;
+        resetReadAhead( 0 );
     }
 
     private boolean isFlagRaised( int flagSet, int flag )
@@ -293,6 +320,11 @@ public abstract class MuninnPageCursor extends PageCursor
      */
     protected void pin( long filePageId ) throws IOException
     {
+        if ( readAhead )
+        {
+            observeAccess( filePageId );
+            pinLoadedByReadAhead = false;
+        }
         int chunkId = MuninnPagedFile.computeChunkId( filePageId );
         // The chunkOffset is the addressing offset into the chunk array object for the relevant array slot. Using
         // this, we can access the array slot with Unsafe.
@@ -324,7 +356,19 @@ public abstract class MuninnPageCursor extends PageCursor
                 if ( locked && pagedFile.isBoundTo( pageRef, swapperId, filePageId ) )
                 {
                     pinCursorToPage( pageRef, filePageId, swapper );
-                    pinEvent.hit();
+                    if ( pinLoadedByReadAhead )
+                    {
+                        // Our own read-ahead loaded the page, and traced that as a page fault, so this is no hit.
+                        pinLoadedByReadAhead = false;
+                    }
+                    else
+                    {
+                        pinEvent.hit();
+                    }
+                    if ( readAhead && isInReadAheadRange( filePageId ) )
+                    {
+                        readAheadHits++;
+                    }
                     return;
                 }
                 if ( locked )
@@ -350,6 +394,13 @@ public abstract class MuninnPageCursor extends PageCursor
             storeCurrentPageId( UNBOUND_PAGE_ID );
             return true;
         }
+        if ( readAhead && strideRepeats >= readAheadStrideRepeats && filePageId != readAheadStartPageId )
+        {
+            // The cursor is scanning, so we load this page along with the pages ahead of it, and then look it up again.
+            readAhead( filePageId );
+            pinLoadedByReadAhead = true;
+            return false;
+        }
         // Looks like there's no mapping, so we'd like to do a page fault.
         LatchMap.Latch latch = pagedFile.pageFaultLatches.takeOrAwaitLatch( filePageId );
         if ( latch != null )
@@ -375,6 +426,68 @@ public abstract class MuninnPageCursor extends PageCursor
         return false;
     }
 
+    private void observeAccess( long filePageId )
+    {
+        long lastPageId = lastAccessedPageId;
+        lastAccessedPageId = filePageId;
+        if ( lastPageId == UNBOUND_PAGE_ID || lastPageId == filePageId )
+        {
+            return; // Either our first access, or a retry of the current page.
+        }
+        long stride = filePageId - lastPageId;
+        if ( stride == accessStride )
+        {
+            if ( strideRepeats < readAheadStrideRepeats )
+            {
+                strideRepeats++;
+            }
+        }
+        else
+        {
+            // The access pattern changed, so we start over with the smallest read-ahead window.
+            resetReadAhead( Math.abs( stride ) <= maxReadAheadStride ? stride : 0 );
+        }
+    }
+
+    private void resetReadAhead( long stride )
+    {
+        accessStride = stride;
+        strideRepeats = 0;
+        readAheadWindow = MIN_READ_AHEAD_WINDOW;
+        readAheadStartPageId = UNBOUND_PAGE_ID;
+        readAheadEndPageId = UNBOUND_PAGE_ID;
+        readAheadHits = 0;
+    }
+
+    private boolean isInReadAheadRange( long filePageId )
+    {
+        return accessStride > 0 ? filePageId > readAheadStartPageId && filePageId <= readAheadEndPageId
+                                : filePageId < readAheadStartPageId && filePageId >= readAheadEndPageId;
+    }
+
+    private void readAhead( long filePageId ) throws IOException
+    {
+        // Before reading ahead again, we adapt the window to how many of the previously loaded pages the cursor got
+        // to use, before it had to fault again. If the cursor got to use almost all of them, then we are keeping up
+        // with the scan, and can afford to read further ahead. If many of them were evicted before the cursor got to
+        // them, or the scan didn't get that far, then we are reading too far ahead.
+        if ( readAheadStartPageId != UNBOUND_PAGE_ID )
+        {
+            if ( readAheadHits * 4 >= readAheadWindow * 3 )
+            {
+                readAheadWindow = Math.min( readAheadWindow * 2, pagedFile.readAheadWindowLimit );
+            }
+            else if ( readAheadHits * 2 < readAheadWindow )
+            {
+                readAheadWindow = Math.max( readAheadWindow / 2, MIN_READ_AHEAD_WINDOW );
+            }
+        }
+        readAheadHits = 0;
+        readAheadStartPageId = filePageId;
+        readAheadEndPageId = filePageId + accessStride * readAheadWindow;
+        pagedFile.readAhead( filePageId, accessStride, readAheadWindow, tracer );
+    }
+
     private long pageFault(
             long filePageId, PageSwapper swapper, long chunkOffset, int[] chunk, LatchMap.Latch latch )
             throws IOException
@@ -387,6 +500,7 @@ public abstract class MuninnPageCursor extends PageCursor
         // we must make sure to release that write lock as well.
         try
         {
+            long startNanos = pagedFile.faultStartNanos();
             PageFaultEvent faultEvent = pinEvent.beginPageFault();
             long pageRef;
             try
@@ -435,6 +549,7 @@ public abstract class MuninnPageCursor extends PageCursor
             // need for the page cursor.
             convertPageFaultLock( pageRef );
             faultEvent.done();
+            pagedFile.pagesFaulted( pageRef, 1, startNanos );
             return pageRef;
         }
         finally
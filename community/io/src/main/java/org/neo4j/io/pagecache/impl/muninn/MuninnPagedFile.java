@@ -64,12 +64,15 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     private static final long headerStateRefCountMask = 0x7FFF_0000_0000_0000L;
     private static final long headerStateLastPageIdMask = 0x8000_FFFF_FFFF_FFFFL;
     private static final int PF_LOCK_MASK = PF_SHARED_WRITE_LOCK | PF_SHARED_READ_LOCK;
+    private static final int touchBatchSize = getInteger( MuninnPagedFile.class, "touchBatchSize", 64 );
 
     final MuninnPageCache pageCache;
     final int filePageSize;
     private final PageCacheTracer pageCacheTracer;
     private final IOBufferFactory bufferFactory;
     final LatchMap pageFaultLatches;
+    // The read-ahead window of cursors on this file may never grow beyond this many pages.
+    final int readAheadWindowLimit;
 
     // This is the table where we translate file-page-ids to cache-page-ids. Only one thread can perform a resize at
     // a time, and we ensure this mutual exclusion using the monitor lock on this MuninnPagedFile object.
@@ -132,6 +135,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         this.cursorFactory = new CursorFactory( this, versionContextSupplier );
         this.pageCacheTracer = pageCacheTracer;
         this.pageFaultLatches = new LatchMap();
+        this.readAheadWindowLimit = pageCache.readAheadWindowLimit();
         this.bufferFactory = pageCache.getBufferFactory();
         this.databaseName = databaseName;
 
@@ -217,6 +221,161 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         }
     }
 
+    @Override
+    public int touch( long pageId, int count, PageCursorTracer tracer ) throws IOException
+    {
+        long endPageId = Math.min( pageId + count, getLastPageId() + 1 );
+        if ( pageId < 0 || endPageId <= pageId )
+        {
+            return 0;
+        }
+        // Never hold on to more than a small fraction of the cache at a time, or we might starve concurrent page faults.
+        long maxBatchSize = Math.max( 1, pageCache.maxCachedPages() >>> 4 );
+        int batchSize = (int) Math.min( Math.min( endPageId - pageId, maxBatchSize ), touchBatchSize );
+        PageRun run = new PageRun( batchSize, filePageSize );
+        int touched = 0;
+        try
+        {
+            for ( long filePageId = pageId; filePageId < endPageId; filePageId++ )
+            {
+                int chunkId = computeChunkId( filePageId );
+                long chunkOffset = computeChunkOffset( filePageId );
+                int[][] tt = translationTable;
+                if ( tt.length <= chunkId )
+                {
+                    tt = expandCapacity( chunkId );
+                }
+                int[] chunk = tt[chunkId];
+                if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+                {
+                    // Already in memory, so this is where our current run of consecutive pages ends.
+                    touched += faultRun( run, tracer );
+                    continue;
+                }
+                LatchMap.Latch latch = pageFaultLatches.tryTakeLatch( filePageId );
+                if ( latch == null )
+                {
+                    // Either another thread is faulting this page, or its latch collides with one that we already hold.
+                    // We must not wait for any latch while holding on to others, so we end our current run first.
+                    touched += faultRun( run, tracer );
+                    latch = pageFaultLatches.takeOrAwaitLatch( filePageId );
+                    if ( latch == null )
+                    {
+                        continue;
+                    }
+                }
+                if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+                {
+                    // We raced with another page fault on this file page.
+                    latch.release();
+                    touched += faultRun( run, tracer );
+                    continue;
+                }
+                run.add( filePageId, chunk, chunkOffset, latch );
+                if ( run.length == batchSize )
+                {
+                    touched += faultRun( run, tracer );
+                }
+            }
+            touched += faultRun( run, tracer );
+        }
+        finally
+        {
+            run.releaseLatches();
+        }
+        return touched;
+    }
+
+    /**
+     * Load the page with the given file page id, and the {@code window} pages following it at the given stride, into
+     * memory, if they are not already there. Runs of consecutive pages are loaded with vectored reads.
+     *
+     * @param filePageId The file page id of the page the cursor is about to fault in.
+     * @param stride The distance, in file pages, between the pages the cursor is accessing. Negative if the cursor is
+     * moving backwards through the file.
+     * @param window The number of pages to load ahead of the given page.
+     * @param tracer The tracer of the cursor.
+     * @return The number of pages that were loaded.
+     */
+    int readAhead( long filePageId, long stride, int window, PageCursorTracer tracer ) throws IOException
+    {
+        if ( stride == 1 )
+        {
+            return touch( filePageId, window + 1, tracer );
+        }
+        if ( stride == -1 )
+        {
+            long fromPageId = Math.max( 0, filePageId - window );
+            return touch( fromPageId, (int) (filePageId - fromPageId) + 1, tracer );
+        }
+        long lastPageId = getLastPageId();
+        int loaded = 0;
+        for ( int i = 0; i <= window; i++ )
+        {
+            long pageId = filePageId + i * stride;
+            if ( pageId < 0 || pageId > lastPageId )
+            {
+                break;
+            }
+            loaded += touch( pageId, 1, tracer );
+        }
+        return loaded;
+    }
+
+    /**
+     * Fault in the given run of consecutive file pages, with a single vectored read, and publish them to the
+     * translation table. The latches of the run are released and the run is emptied, no matter what happens.
+     */
+    private int faultRun( PageRun run, PageCursorTracer tracer ) throws IOException
+    {
+        int length = run.length;
+        if ( length == 0 )
+        {
+            return 0;
+        }
+        long startFilePageId = run.startFilePageId;
+        long startNanos = faultStartNanos();
+        PageFaultEvent faultEvent = tracer.beginReadAhead( startFilePageId, swapper );
+        int grabbed = 0;
+        try
+        {
+            while ( grabbed < length )
+            {
+                long pageRef = grabFreeAndExclusivelyLockedPage( faultEvent );
+                run.pageRefs[grabbed++] = pageRef;
+                initBuffer( pageRef );
+            }
+            // Check if we're racing with unmapping, before the read would otherwise reopen the file channel.
+            getLastPageId();
+            faultAll( run.pageRefs, run.bufferAddresses, run.bufferLengths, length, swapper, swapperId, startFilePageId, faultEvent );
+            faultEvent.setCachePageId( toId( run.pageRefs[0] ) );
+            for ( int i = 0; i < length; i++ )
+            {
+                long pageRef = run.pageRefs[i];
+                // Publish to the translation table before unlocking, as we could otherwise race with eviction.
+                UnsafeUtil.putIntVolatile( run.chunks[i], run.chunkOffsets[i], toId( pageRef ) );
+                unlockExclusive( pageRef );
+            }
+            faultEvent.done();
+            pagesFaulted( run.pageRefs[0], length, startNanos );
+            return length;
+        }
+        catch ( Throwable throwable )
+        {
+            // Make sure to unlock the pages, so the eviction thread can pick up our trash.
+            for ( int i = 0; i < grabbed; i++ )
+            {
+                unlockExclusive( run.pageRefs[i] );
+            }
+            faultEvent.done( throwable );
+            throw throwable;
+        }
+        finally
+        {
+            run.releaseLatches();
+        }
+    }
+
     @Override
     public int pageSize()
     {
@@ -370,28 +529,54 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     {
         try
         {
-            doFlushAndForceInternal( flushes, forClosing, limiter, ioBuffer );
+            flushDirtyPages( flushes, forClosing, limiter, ioBuffer, Long.MAX_VALUE );
+            // TODO it'd be awesome if, on Linux, we'd call sync_file_range(2) instead of fsync
+            swapper.force();
         }
         catch ( ClosedChannelException e )
         {
-            if ( getRefCount() > 0 )
-            {
-                // The file is not supposed to be closed, since we have a positive ref-count, yet we got a
-                // ClosedChannelException anyway? It's an odd situation, so let's tell the outside world about
-                // this failure.
-                e.addSuppressed( closeStackTrace );
-                throw e;
-            }
-            // Otherwise: The file was closed while we were trying to flush it. Since unmapping implies a flush
-            // anyway, we can safely assume that this is not a problem. The file was flushed, and it doesn't
-            // really matter how that happened. We'll ignore this exception.
+            ignoreIfUnmapped( e );
         }
     }
 
-    private void doFlushAndForceInternal( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter, NativeIOBuffer ioBuffer )
-            throws IOException
+    /**
+     * Write out up to the given number of dirty pages, without forcing the file. The pages are written in file order,
+     * with runs of consecutive dirty pages coalesced into vectored writes, and they are marked as clean unless they are
+     * modified again while being written.
+     *
+     * @return the number of pages that were written.
+     */
+    long writeBack( FlushEventOpportunity flushes, long maxPagesToWrite, NativeIOBuffer ioBuffer ) throws IOException
+    {
+        try
+        {
+            return flushDirtyPages( flushes, false, IOLimiter.UNLIMITED, ioBuffer, maxPagesToWrite );
+        }
+        catch ( ClosedChannelException e )
+        {
+            ignoreIfUnmapped( e );
+            return 0;
+        }
+    }
+
+    private void ignoreIfUnmapped( ClosedChannelException e ) throws ClosedChannelException
+    {
+        if ( getRefCount() > 0 )
+        {
+            // The file is not supposed to be closed, since we have a positive ref-count, yet we got a
+            // ClosedChannelException anyway? It's an odd situation, so let's tell the outside world about
+            // this failure.
+            e.addSuppressed( closeStackTrace );
+            throw e;
+        }
+        // Otherwise: The file was closed while we were trying to flush it. Since unmapping implies a flush
+        // anyway, we can safely assume that this is not a problem. The file was flushed, and it doesn't
+        // really matter how that happened. We'll ignore this exception.
+    }
+
+    private long flushDirtyPages( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter, NativeIOBuffer ioBuffer,
+            long maxPagesToFlush ) throws IOException
     {
-        // TODO it'd be awesome if, on Linux, we'd call sync_file_range(2) instead of fsync
         long[] pages = new long[translationTableChunkSize];
         long[] flushStamps = forClosing ? null : new long[translationTableChunkSize];
         long[] bufferAddresses = new long[translationTableChunkSize];
@@ -400,6 +585,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         long limiterStamp = IOLimiter.INITIAL_STAMP;
         int[][] tt = this.translationTable;
         boolean useTemporaryBuffer = ioBuffer.isEnabled();
+        long pagesFlushed = 0;
 
         flushes.startFlush( tt );
 
@@ -528,6 +714,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                 }
                 if ( pagesGrabbed > 0 )
                 {
+                    pagesFlushed += pagesGrabbed;
                     vectoredFlush( pages, bufferAddresses, flushStamps, bufferLengths, numberOfBuffers, pagesGrabbed, mergedPages, flushes, forClosing );
                     limiterStamp = limiter.maybeLimitIO( limiterStamp, numberOfBuffers, this );
                     pagesGrabbed = 0;
@@ -538,18 +725,26 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                     fillingDirtyBuffer = false;
                     flushPerChunk++;
                     bufferLengths[0] = 0;
+                    if ( pagesFlushed >= maxPagesToFlush )
+                    {
+                        break;
+                    }
                 }
             }
             if ( pagesGrabbed > 0 )
             {
+                pagesFlushed += pagesGrabbed;
                 vectoredFlush( pages, bufferAddresses, flushStamps, bufferLengths, numberOfBuffers, pagesGrabbed, mergedPages, flushes, forClosing );
                 limiterStamp = limiter.maybeLimitIO( limiterStamp, numberOfBuffers, this );
                 flushPerChunk++;
             }
             chunkEvent.chunkFlushed( notModifiedPages, flushPerChunk, buffersPerChunk, mergesPerChunk );
+            if ( pagesFlushed >= maxPagesToFlush )
+            {
+                break;
+            }
         }
-
-        swapper.force();
+        return pagesFlushed;
     }
 
     private void vectoredFlush(
@@ -783,6 +978,23 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         return pageCache.grabFreeAndExclusivelyLockedPage( faultEvent );
     }
 
+    /**
+     * @see MuninnPageCache#faultStartNanos()
+     */
+    long faultStartNanos()
+    {
+        return pageCache.faultStartNanos();
+    }
+
+    /**
+     * Record a completed page fault with the page cache.
+     * @see MuninnPageCache#pagesFaulted(long, int, long)
+     */
+    void pagesFaulted( long pageRef, int pageCount, long startNanos )
+    {
+        pageCache.pagesFaulted( pageRef, pageCount, startNanos );
+    }
+
     /**
      * Remove the mapping of the given filePageId from the translation table, and return the evicted page object.
      * @param filePageId The id of the file page to evict.
@@ -872,4 +1084,53 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         int index = (int) (filePageId & translationTableChunkSizeMask);
         return UnsafeUtil.arrayOffset( index, translationTableChunkArrayBase, translationTableChunkArrayScale );
     }
+
+    /**
+     * A run of consecutive file pages that are about to be faulted in together by {@link #touch(long, int, PageCursorTracer)}.
+     */
+    private static final class PageRun
+    {
+        private final long[] pageRefs;
+        private final long[] bufferAddresses;
+        private final int[] bufferLengths;
+        private final int[][] chunks;
+        private final long[] chunkOffsets;
+        private final LatchMap.Latch[] latches;
+        private long startFilePageId;
+        private int length;
+
+        PageRun( int capacity, int filePageSize )
+        {
+            pageRefs = new long[capacity];
+            bufferAddresses = new long[capacity];
+            bufferLengths = new int[capacity];
+            chunks = new int[capacity][];
+            chunkOffsets = new long[capacity];
+            latches = new LatchMap.Latch[capacity];
+            fill( bufferLengths, filePageSize );
+        }
+
+        void add( long filePageId, int[] chunk, long chunkOffset, LatchMap.Latch latch )
+        {
+            if ( length == 0 )
+            {
+                startFilePageId = filePageId;
+            }
+            chunks[length] = chunk;
+            chunkOffsets[length] = chunkOffset;
+            latches[length] = latch;
+            length++;
+        }
+
+        void releaseLatches()
+        {
+            for ( int i = 0; i < length; i++ )
+            {
+                latches[i].release();
+                latches[i] = null;
+                chunks[i] = null;
+            }
+            length = 0;
+        }
+    }
 }
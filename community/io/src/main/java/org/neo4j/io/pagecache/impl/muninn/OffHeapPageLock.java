@@ -101,6 +101,11 @@ public final class OffHeapPageLock
     // Unlocked mask:
     private static final long UNL_MASK = 0b11011111_11111111_11110000_00000000_00000000_00000000_00000000_00000000L;
 
+    // Results of tryWriteLockAndMarkModified:
+    public static final int WRITE_LOCK_FAILED = 0;
+    public static final int WRITE_LOCKED = 1;
+    public static final int WRITE_LOCKED_NEWLY_MODIFIED = 2;
+
     private OffHeapPageLock()
     {
         // The static version keeps all state externally.
@@ -174,6 +179,19 @@ public final class OffHeapPageLock
      * @return {@code true} if the write lock was taken, {@code false} otherwise.
      */
     public static boolean tryWriteLock( long address )
+    {
+        return tryWriteLockAndMarkModified( address ) != WRITE_LOCK_FAILED;
+    }
+
+    /**
+     * Try taking a concurrent write lock, like {@link #tryWriteLock(long)}, and tell whether taking it is what raised
+     * the <em>modified</em> flag.
+     *
+     * @return {@link #WRITE_LOCK_FAILED} if the write lock was not taken, {@link #WRITE_LOCKED_NEWLY_MODIFIED} if it
+     * was taken and the page was not modified before, or {@link #WRITE_LOCKED} if it was taken and the page was
+     * already modified.
+     */
+    public static int tryWriteLockAndMarkModified( long address )
     {
         long s;
         long n;
@@ -185,26 +203,26 @@ public final class OffHeapPageLock
 
             if ( unwritablyLocked || writeCountOverflow )
             {
-                return failWriteLock( s, writeCountOverflow );
+                failWriteLock( s, writeCountOverflow );
+                return WRITE_LOCK_FAILED;
             }
 
             n = s + CNT_UNIT | MOD_MASK;
             if ( compareAndSetState( address, s, n ) )
             {
                 UnsafeUtil.storeFence();
-                return true;
+                return (s & MOD_MASK) == 0 ? WRITE_LOCKED_NEWLY_MODIFIED : WRITE_LOCKED;
             }
         }
     }
 
-    private static boolean failWriteLock( long s, boolean writeCountOverflow )
+    private static void failWriteLock( long s, boolean writeCountOverflow )
     {
         if ( writeCountOverflow )
         {
             throwWriteLockOverflow( s );
         }
         // Otherwise it was exclusively locked
-        return false;
     }
 
     private static void throwWriteLockOverflow( long s )
@@ -300,12 +318,15 @@ public final class OffHeapPageLock
 
     /**
      * Atomically unlock the currently held exclusive lock, and take a write lock.
+     *
+     * @return {@code true} if this raised the <em>modified</em> flag, {@code false} if it was already raised.
      */
-    public static void unlockExclusiveAndTakeWriteLock( long address )
+    public static boolean unlockExclusiveAndTakeWriteLock( long address )
     {
         long s = initiateExclusiveLockRelease( address );
         long n = (nextSeq( s ) - EXL_MASK + CNT_UNIT) | MOD_MASK;
         unconditionallySetState( address, n );
+        return (s & MOD_MASK) == 0;
     }
 
     private static long initiateExclusiveLockRelease( long address )
@@ -329,17 +350,18 @@ public final class OffHeapPageLock
      * <p>
      * If the <em>modified</em> flag is currently not raised, then this method does nothing.
      *
+     * @return {@code true} if the <em>modified</em> flag was lowered, {@code false} if it was not raised.
      * @throws IllegalStateException if the lock at the given address is not in the exclusively locked state.
      */
-    public static void explicitlyMarkPageUnmodifiedUnderExclusiveLock( long address )
+    public static boolean explicitlyMarkPageUnmodifiedUnderExclusiveLock( long address )
     {
         long s = getState( address );
         if ( (s & EXL_MASK) != EXL_MASK )
         {
             throw new IllegalStateException( "Page must be exclusively locked to explicitly lower modified bit" );
         }
-        s = s & (~MOD_MASK);
-        unconditionallySetState( address, s );
+        unconditionallySetState( address, s & (~MOD_MASK) );
+        return (s & MOD_MASK) != 0;
     }
 
     /**
@@ -370,8 +392,10 @@ public final class OffHeapPageLock
 
     /**
      * Unlock the currently held flush lock.
+     *
+     * @return {@code true} if this lowered the <em>modified</em> flag, {@code false} otherwise.
      */
-    public static void unlockFlush( long address, long stamp, boolean success )
+    public static boolean unlockFlush( long address, long stamp, boolean success )
     {
         long s;
         long n;
@@ -391,6 +415,7 @@ public final class OffHeapPageLock
             }
         }
         while ( !compareAndSetState( address, s, n ) );
+        return (s & MOD_MASK) != (n & MOD_MASK);
     }
 
     private static void throwUnmatchedUnlockFlush( long s )
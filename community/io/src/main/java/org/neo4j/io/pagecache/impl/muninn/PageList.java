@@ -20,6 +20,7 @@
 package org.neo4j.io.pagecache.impl.muninn;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.mem.MemoryAllocator;
@@ -29,6 +30,8 @@ import org.neo4j.io.pagecache.tracing.EvictionEvent;
 import org.neo4j.io.pagecache.tracing.EvictionEventOpportunity;
 import org.neo4j.io.pagecache.tracing.FlushEvent;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.memory.EmptyMemoryTracker;
+import org.neo4j.memory.MemoryTracker;
 
 import static java.lang.String.format;
 import static org.neo4j.util.FeatureToggles.flag;
@@ -84,9 +87,17 @@ class PageList
     private final long victimPageAddress;
     private final long baseAddress;
     private final long bufferAlignment;
+    private final PageReplacement pageReplacement;
+    private final LongAdder dirtyPages;
 
     PageList( int pageCount, int cachePageSize, MemoryAllocator memoryAllocator, SwapperSet swappers,
               long victimPageAddress, long bufferAlignment )
+    {
+        this( pageCount, cachePageSize, memoryAllocator, swappers, victimPageAddress, bufferAlignment, EvictionPolicy.CLOCK, EmptyMemoryTracker.INSTANCE );
+    }
+
+    PageList( int pageCount, int cachePageSize, MemoryAllocator memoryAllocator, SwapperSet swappers,
+              long victimPageAddress, long bufferAlignment, EvictionPolicy evictionPolicy, MemoryTracker memoryTracker )
     {
         this.pageCount = pageCount;
         this.cachePageSize = cachePageSize;
@@ -96,6 +107,8 @@ class PageList
         long bytes = ((long) pageCount) * META_DATA_BYTES_PER_PAGE;
         this.baseAddress = memoryAllocator.allocateAligned( bytes, Long.BYTES );
         this.bufferAlignment = bufferAlignment;
+        this.pageReplacement = evictionPolicy.createPageReplacement( pageCount, memoryTracker );
+        this.dirtyPages = new LongAdder();
         clearMemory( baseAddress, pageCount );
     }
 
@@ -116,6 +129,8 @@ class PageList
         this.victimPageAddress = pageList.victimPageAddress;
         this.baseAddress = pageList.baseAddress;
         this.bufferAlignment = pageList.bufferAlignment;
+        this.pageReplacement = pageList.pageReplacement;
+        this.dirtyPages = pageList.dirtyPages;
     }
 
     private void clearMemory( long baseAddress, long pageCount )
@@ -176,6 +191,11 @@ class PageList
         return swappers;
     }
 
+    PageReplacement getPageReplacement()
+    {
+        return pageReplacement;
+    }
+
     /**
      * Turn a {@code pageId} into a {@code pageRef} that can be used for accessing and manipulating the given page
      * using the other methods in this class.
@@ -239,7 +259,12 @@ class PageList
 
     boolean tryWriteLock( long pageRef )
     {
-        return OffHeapPageLock.tryWriteLock( offLock( pageRef ) );
+        int result = OffHeapPageLock.tryWriteLockAndMarkModified( offLock( pageRef ) );
+        if ( result == OffHeapPageLock.WRITE_LOCKED_NEWLY_MODIFIED )
+        {
+            dirtyPages.increment();
+        }
+        return result != OffHeapPageLock.WRITE_LOCK_FAILED;
     }
 
     void unlockWrite( long pageRef )
@@ -264,7 +289,10 @@ class PageList
 
     void unlockExclusiveAndTakeWriteLock( long pageRef )
     {
-        OffHeapPageLock.unlockExclusiveAndTakeWriteLock( offLock( pageRef ) );
+        if ( OffHeapPageLock.unlockExclusiveAndTakeWriteLock( offLock( pageRef ) ) )
+        {
+            dirtyPages.increment();
+        }
     }
 
     long tryFlushLock( long pageRef )
@@ -274,12 +302,27 @@ class PageList
 
     void unlockFlush( long pageRef, long stamp, boolean success )
     {
-        OffHeapPageLock.unlockFlush( offLock( pageRef ), stamp, success );
+        if ( OffHeapPageLock.unlockFlush( offLock( pageRef ), stamp, success ) )
+        {
+            dirtyPages.decrement();
+        }
     }
 
     void explicitlyMarkPageUnmodifiedUnderExclusiveLock( long pageRef )
     {
-        OffHeapPageLock.explicitlyMarkPageUnmodifiedUnderExclusiveLock( offLock( pageRef ) );
+        if ( OffHeapPageLock.explicitlyMarkPageUnmodifiedUnderExclusiveLock( offLock( pageRef ) ) )
+        {
+            dirtyPages.decrement();
+        }
+    }
+
+    /**
+     * @return the number of pages whose <em>modified</em> flag is currently raised. The count is maintained as the
+     * flag is raised and lowered, so this is cheap to call, but it is only a snapshot under concurrent modification.
+     */
+    long getDirtyPageCount()
+    {
+        return dirtyPages.sum();
     }
 
     int getCachePageSize()
@@ -301,7 +344,7 @@ class PageList
         }
     }
 
-    private byte getUsageCounter( long pageRef )
+    byte getUsageCounter( long pageRef )
     {
         return (byte) (UnsafeUtil.getLongVolatile( offPageBinding( pageRef ) ) & MASK_USAGE_COUNT);
     }
@@ -435,6 +478,44 @@ class PageList
         event.addBytesRead( bytesRead );
         event.setCachePageId( toId( pageRef ) );
         setSwapperId( pageRef, swapperId ); // Page now considered isBoundTo( swapper, filePageId )
+        pageReplacement.pageFaulted( this, pageRef, swapperId, filePageId );
+    }
+
+    /**
+     * Fault the given run of consecutive file pages, starting at the given {@code startFilePageId}, into the given
+     * exclusively locked and unbound pages, using a single vectored read.
+     * <p>
+     * This follows the same protocol as {@link #fault(long, PageSwapper, int, long, PageFaultEvent)}, for every page in
+     * the run.
+     */
+    void faultAll( long[] pageRefs, long[] bufferAddresses, int[] bufferLengths, int length, PageSwapper swapper, int swapperId,
+            long startFilePageId, PageFaultEvent event ) throws IOException
+    {
+        if ( swapper == null )
+        {
+            throw swapperCannotBeNull();
+        }
+        for ( int i = 0; i < length; i++ )
+        {
+            long pageRef = pageRefs[i];
+            long filePageId = startFilePageId + i;
+            int currentSwapper = getSwapperId( pageRef );
+            long currentFilePageId = getFilePageId( pageRef );
+            if ( !isExclusivelyLocked( pageRef ) || currentSwapper != 0 || currentFilePageId != PageCursor.UNBOUND_PAGE_ID )
+            {
+                throw cannotFaultException( pageRef, swapper, swapperId, filePageId, currentSwapper, currentFilePageId );
+            }
+            setFilePageId( pageRef, filePageId ); // Page now considered isLoaded()
+            bufferAddresses[i] = getAddress( pageRef );
+        }
+        long bytesRead = swapper.read( startFilePageId, bufferAddresses, bufferLengths, length );
+        event.addBytesRead( bytesRead );
+        for ( int i = 0; i < length; i++ )
+        {
+            long pageRef = pageRefs[i];
+            setSwapperId( pageRef, swapperId ); // Page now considered isBoundTo( swapper, filePageId )
+            pageReplacement.pageFaulted( this, pageRef, swapperId, startFilePageId + i );
+        }
     }
 
     private static IllegalArgumentException swapperCannotBeNull()
@@ -493,6 +574,7 @@ class PageList
                     flushModifiedPage( pageRef, evictionEvent, filePageId, swapper );
                 }
                 swapper.evicted( filePageId );
+                pageReplacement.pageEvicted( swapperId, filePageId );
             }
         }
         clearBinding( pageRef );
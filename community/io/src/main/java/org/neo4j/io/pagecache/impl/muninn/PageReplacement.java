@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The page replacement decisions of an {@link EvictionPolicy}.
+ * <p>
+ * The methods in this interface are called concurrently from the eviction thread and from page faulting threads, so
+ * implementations must be thread-safe. Since they are on the page fault and eviction paths, they must also be cheap,
+ * and must never block.
+ */
+interface PageReplacement
+{
+    /**
+     * Called when the clock arm passes a loaded page. The implementation may age the page, by decrementing its usage
+     * counter, as a side effect.
+     *
+     * @param pages the page list the page belongs to.
+     * @param pageRef the page the clock arm is on.
+     * @return {@code true} if the page should be evicted, {@code false} if the clock arm should move on.
+     */
+    boolean shouldEvict( PageList pages, long pageRef );
+
+    /**
+     * Called when a clock arm wraps around the end of the page list.
+     */
+    void sweepCompleted();
+
+    /**
+     * Called when a page has been faulted in, while the page is still exclusively locked by the faulting thread.
+     */
+    void pageFaulted( PageList pages, long pageRef, int swapperId, long filePageId );
+
+    /**
+     * Called when a bound page has been evicted, while the page is still exclusively locked by the evicting thread.
+     */
+    void pageEvicted( int swapperId, long filePageId );
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.neo4j.memory.MemoryTracker;
+
+import static org.neo4j.memory.HeapEstimator.sizeOf;
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A scan-resistant variation of CLOCK page replacement.
+ * <p>
+ * Pages are split into cold and hot pages by their usage counter. A page that has been faulted in, and not been
+ * accessed again, has a usage counter of at most {@link #COLD_USAGE} and is considered cold. Cold pages are evicted
+ * the first time the clock arm passes them, just like in CLOCK. Pages with higher usage counts are hot, and the clock
+ * arm only ages those on every {@link #hotAgingInterval}th rotation, or on the rotation following one where too few
+ * cold pages were found. This way a large scan, which mostly produces cold pages, has to rotate the clock arm many more
+ * times before it can push the working set out of the cache.
+ * <p>
+ * In addition to this, evicted pages are remembered in a ghost table, in the spirit of the 2Q and ARC algorithms.
+ * A page that is faulted back in while it is still remembered in the ghost table, was evicted too soon, and is admitted
+ * directly as a hot page. The ghost table is a direct-mapped table of hashed page bindings, so remembering a page will
+ * make the table forget whatever other page happened to be in the same slot. The ghost table only holds tags of the
+ * page bindings, so it may on rare occasions mistake one page for another. This only affects the admission decision,
+ * and never correctness.
+ * <p>
+ * All the bookkeeping in this class is intentionally left benignly racy for performance.
+ */
+final class ScanResistantPageReplacement implements PageReplacement
+{
+    static final int COLD_USAGE = 1;
+    private static final int hotAgingInterval = getInteger( ScanResistantPageReplacement.class, "hotAgingInterval", 4 );
+    private static final int maxGhostEntriesPower = getInteger( ScanResistantPageReplacement.class, "maxGhostEntriesPower", 22 );
+    private static final int minGhostEntries = 16;
+
+    private final int[] ghosts;
+    private final int ghostMask;
+    private final int starvationThreshold;
+    private volatile boolean agingSweep;
+    private int sweeps;
+    private int coldEvictionsInSweep;
+
+    ScanResistantPageReplacement( int pageCount, MemoryTracker memoryTracker )
+    {
+        // Remember about half as many evicted pages as the cache can hold, like the "A1out" queue of 2Q.
+        int ghostEntries = Integer.highestOneBit( Math.max( minGhostEntries, pageCount >>> 1 ) );
+        ghostEntries = Math.min( ghostEntries, 1 << maxGhostEntriesPower );
+        this.ghosts = new int[ghostEntries];
+        memoryTracker.allocateHeap( sizeOf( ghosts ) );
+        this.ghostMask = ghostEntries - 1;
+        // If a whole rotation of the clock arm finds fewer cold pages than this, then the hot pages are getting in the way.
+        this.starvationThreshold = Math.max( 1, pageCount >>> 6 );
+        this.agingSweep = true;
+    }
+
+    @Override
+    public boolean shouldEvict( PageList pages, long pageRef )
+    {
+        if ( pages.getUsageCounter( pageRef ) <= COLD_USAGE )
+        {
+            coldEvictionsInSweep++;
+            return pages.decrementUsage( pageRef );
+        }
+        if ( agingSweep )
+        {
+            pages.decrementUsage( pageRef );
+        }
+        return false;
+    }
+
+    @Override
+    public void sweepCompleted()
+    {
+        boolean starved = coldEvictionsInSweep < starvationThreshold;
+        coldEvictionsInSweep = 0;
+        sweeps++;
+        agingSweep = starved || sweeps % hotAgingInterval == 0;
+    }
+
+    @Override
+    public void pageFaulted( PageList pages, long pageRef, int swapperId, long filePageId )
+    {
+        long hash = hash( swapperId, filePageId );
+        int slot = (int) (hash & ghostMask);
+        if ( ghosts[slot] == tag( hash ) )
+        {
+            // We evicted this page recently, and now we need it again. Give it the usage of a hot page.
+            ghosts[slot] = 0;
+            pages.incrementUsage( pageRef );
+            pages.incrementUsage( pageRef );
+        }
+    }
+
+    @Override
+    public void pageEvicted( int swapperId, long filePageId )
+    {
+        long hash = hash( swapperId, filePageId );
+        ghosts[(int) (hash & ghostMask)] = tag( hash );
+    }
+
+    boolean isGhost( int swapperId, long filePageId )
+    {
+        long hash = hash( swapperId, filePageId );
+        return ghosts[(int) (hash & ghostMask)] == tag( hash );
+    }
+
+    boolean isAgingSweep()
+    {
+        return agingSweep;
+    }
+
+    private static int tag( long hash )
+    {
+        // Never zero, so an empty slot never matches.
+        return (int) (hash >>> 32) | 1;
+    }
+
+    private static long hash( int swapperId, long filePageId )
+    {
+        // The swapper id is at most 21 bits, and the file page id at most 40 bits, so this is a unique binding key.
+        long h = (filePageId << 21) ^ swapperId;
+        // Finalisation step of MurmurHash3, so the slot bits and the tag bits both depend on all of the key bits.
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.monitoring;
+
+import static java.lang.String.format;
+
+/**
+ * A snapshot of the page fault and eviction statistics of one of the eviction stripes of the page cache.
+ *
+ * @see PageCacheCounters#evictionStripeStatistics()
+ */
+public final class EvictionStripeStatistics
+{
+    private final int stripe;
+    private final int pages;
+    private final long faults;
+    private final long faultNanos;
+    private final long maxFaultNanos;
+    private final long evictions;
+    private final long cooperativeEvictions;
+
+    public EvictionStripeStatistics( int stripe, int pages, long faults, long faultNanos, long maxFaultNanos, long evictions,
+            long cooperativeEvictions )
+    {
+        this.stripe = stripe;
+        this.pages = pages;
+        this.faults = faults;
+        this.faultNanos = faultNanos;
+        this.maxFaultNanos = maxFaultNanos;
+        this.evictions = evictions;
+        this.cooperativeEvictions = cooperativeEvictions;
+    }
+
+    /**
+     * @return the index of the stripe these statistics are for.
+     */
+    public int stripe()
+    {
+        return stripe;
+    }
+
+    /**
+     * @return the number of cache pages in the stripe.
+     */
+    public int pages()
+    {
+        return pages;
+    }
+
+    /**
+     * @return the number of page faults that were served with pages from the stripe.
+     */
+    public long faults()
+    {
+        return faults;
+    }
+
+    /**
+     * @return the total time, in nanoseconds, spent on page faults that were served with pages from the stripe, or zero
+     * if fault latencies are not measured. See {@code MuninnPageCache.MEASURE_FAULT_LATENCY_NAME}.
+     */
+    public long faultNanos()
+    {
+        return faultNanos;
+    }
+
+    /**
+     * @return the average page fault latency in nanoseconds, or zero if there have been no page faults, or fault
+     * latencies are not measured.
+     */
+    public long averageFaultNanos()
+    {
+        return faults == 0 ? 0 : faultNanos / faults;
+    }
+
+    /**
+     * @return the longest page fault latency observed, in nanoseconds, or zero if fault latencies are not measured.
+     */
+    public long maxFaultNanos()
+    {
+        return maxFaultNanos;
+    }
+
+    /**
+     * @return the number of pages evicted from the stripe by its background eviction thread.
+     */
+    public long evictions()
+    {
+        return evictions;
+    }
+
+    /**
+     * @return the number of pages that page faulting threads had to evict themselves, because the stripe had run out
+     * of free pages.
+     */
+    public long cooperativeEvictions()
+    {
+        return cooperativeEvictions;
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "EvictionStripe[stripe:%d, pages:%d, faults:%d, averageFaultNanos:%d, maxFaultNanos:%d, evictions:%d, " +
+                        "cooperativeEvictions:%d]", stripe, pages, faults, averageFaultNanos(), maxFaultNanos, evictions, cooperativeEvictions );
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.monitoring;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of latencies, measured in nanoseconds.
+ * <p>
+ * Like an HDR histogram, the buckets of this histogram grow exponentially in width with the magnitude of the recorded
+ * values, such that every value is represented with a bounded relative error. Every power-of-two range is split into
+ * {@value #SUB_BUCKET_COUNT} linear sub-buckets, so the values reported by {@link #percentileNanos(double)} are at
+ * most 1/16th, or about 6%, higher than the values that were recorded. Latencies up to 2^36 nanoseconds, which is a
+ * little more than a minute, are tracked by the buckets. Larger latencies are counted in the last bucket, but are
+ * still accurately reflected in {@link #maxNanos()} and {@link #totalNanos()}.
+ */
+public final class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+    private static final long HIGHEST_TRACKABLE_NANOS = (1L << 36) - 1;
+    private static final int BUCKET_COUNT = bucketIndex( HIGHEST_TRACKABLE_NANOS ) + 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray( BUCKET_COUNT );
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record the given latency.
+     *
+     * @param nanos the latency to record, in nanoseconds. Negative values are recorded as zero.
+     */
+    public void record( long nanos )
+    {
+        nanos = Math.max( nanos, 0 );
+        buckets.incrementAndGet( bucketIndex( Math.min( nanos, HIGHEST_TRACKABLE_NANOS ) ) );
+        count.increment();
+        totalNanos.add( nanos );
+        long max = maxNanos.get();
+        while ( nanos > max && !maxNanos.compareAndSet( max, nanos ) )
+        {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * @return the number of latencies recorded thus far.
+     */
+    public long count()
+    {
+        return count.sum();
+    }
+
+    /**
+     * @return the sum total of the latencies recorded thus far, in nanoseconds.
+     */
+    public long totalNanos()
+    {
+        return totalNanos.sum();
+    }
+
+    /**
+     * @return the largest latency recorded thus far, in nanoseconds, or zero if nothing has been recorded.
+     */
+    public long maxNanos()
+    {
+        return maxNanos.get();
+    }
+
+    /**
+     * @return the average latency recorded thus far, in nanoseconds, or zero if nothing has been recorded.
+     */
+    public double meanNanos()
+    {
+        long count = count();
+        return count == 0 ? 0 : totalNanos() / (double) count;
+    }
+
+    /**
+     * Get the latency that the given percentage of the recorded latencies were less than or equal to.
+     *
+     * @param percentile the percentile to compute, between 0 and 100 inclusive.
+     * @return the latency at the given percentile, in nanoseconds, or zero if nothing has been recorded.
+     */
+    public long percentileNanos( double percentile )
+    {
+        if ( percentile < 0 || percentile > 100 )
+        {
+            throw new IllegalArgumentException( "Percentile must be between 0 and 100, but was " + percentile + "." );
+        }
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        for ( int i = 0; i < BUCKET_COUNT; i++ )
+        {
+            counts[i] = buckets.get( i );
+            total += counts[i];
+        }
+        if ( total == 0 )
+        {
+            return 0;
+        }
+        long rank = Math.max( 1, (long) Math.ceil( percentile / 100 * total ) );
+        long seen = 0;
+        int index = 0;
+        while ( index < BUCKET_COUNT - 1 && (seen += counts[index]) < rank )
+        {
+            index++;
+        }
+        return Math.min( highestEquivalentNanos( index ), maxNanos() );
+    }
+
+    static int bucketIndex( long nanos )
+    {
+        if ( nanos < SUB_BUCKET_COUNT )
+        {
+            return (int) nanos;
+        }
+        // The first SUB_BUCKET_COUNT buckets hold exact values. After that, every power-of-two range gets its own
+        // group of SUB_BUCKET_COUNT buckets, which are indexed by the most significant bits of the value.
+        int shift = 63 - Long.numberOfLeadingZeros( nanos ) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((nanos >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    static long highestEquivalentNanos( int bucketIndex )
+    {
+        if ( bucketIndex < SUB_BUCKET_COUNT )
+        {
+            return bucketIndex;
+        }
+        int shift = (bucketIndex >>> SUB_BUCKET_BITS) - 1;
+        long lowestEquivalentNanos = (long) (SUB_BUCKET_COUNT + (bucketIndex & SUB_BUCKET_MASK)) << shift;
+        return lowestEquivalentNanos + (1L << shift) - 1;
+    }
+}
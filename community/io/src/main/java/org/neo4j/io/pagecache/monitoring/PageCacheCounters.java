@@ -19,6 +19,8 @@
  */
 package org.neo4j.io.pagecache.monitoring;
 
+import java.util.List;
+
 /**
  * The PageCacheCounters exposes internal counters from the page cache.
  * The data for these counters is sourced through the PageCacheTracer API.
@@ -95,4 +97,22 @@ public interface PageCacheCounters
      * be determined.
      */
     double usageRatio();
+
+    /**
+     * @return The number of pages in the cache that have been modified, but not yet flushed, or {@code 0} if it cannot
+     * be determined.
+     */
+    default long dirtyPages()
+    {
+        return 0;
+    }
+
+    /**
+     * @return A snapshot of the page fault and eviction statistics of each of the eviction stripes of the page cache,
+     * or an empty list if they cannot be determined.
+     */
+    default List<EvictionStripeStatistics> evictionStripeStatistics()
+    {
+        return List.of();
+    }
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.monitoring;
+
+import java.util.List;
+
+/**
+ * The PageCacheLatencies exposes latency histograms of the IO the page cache does, for each mapped file.
+ * The data for these histograms is sourced through the PageCacheTracer API.
+ */
+public interface PageCacheLatencies
+{
+    /**
+     * @return How many events, on average, there are per event that has its latency recorded. A sample interval of 1
+     * means that the latency of every event is recorded.
+     */
+    int latencySampleInterval();
+
+    /**
+     * @return The latency histograms of every currently mapped file.
+     */
+    List<PagedFileLatencies> pagedFileLatencies();
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.monitoring;
+
+import java.nio.file.Path;
+
+/**
+ * The latency histograms of the page faults, flushes and evictions of a single mapped file.
+ */
+public final class PagedFileLatencies
+{
+    private final Path path;
+    private final LatencyHistogram faults = new LatencyHistogram();
+    private final LatencyHistogram flushes = new LatencyHistogram();
+    private final LatencyHistogram evictions = new LatencyHistogram();
+
+    public PagedFileLatencies( Path path )
+    {
+        this.path = path;
+    }
+
+    /**
+     * @return the path of the mapped file.
+     */
+    public Path path()
+    {
+        return path;
+    }
+
+    /**
+     * @return the latencies of page faults, from when a free page is requested until the faulted page is readable.
+     */
+    public LatencyHistogram faults()
+    {
+        return faults;
+    }
+
+    /**
+     * @return the latencies of writing dirty pages to the file, when the file or the whole page cache is flushed.
+     */
+    public LatencyHistogram flushes()
+    {
+        return flushes;
+    }
+
+    /**
+     * @return the latencies of evicting pages of the file, including the time spent writing out dirty pages.
+     */
+    public LatencyHistogram evictions()
+    {
+        return evictions;
+    }
+}
@@ -21,11 +21,15 @@ package org.neo4j.io.pagecache.tracing;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 import org.neo4j.internal.helpers.MathUtil;
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.EvictionStripeStatistics;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
@@ -47,6 +51,8 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder filesUnmapped = new LongAdder();
     protected final LongAdder evictionExceptions = new LongAdder();
     protected final AtomicLong maxPages = new AtomicLong();
+    protected volatile LongSupplier dirtyPages = () -> 0;
+    protected volatile Supplier<List<EvictionStripeStatistics>> evictionStripeStatistics = List::of;
 
     private final FlushEvent flushEvent = new FlushEvent()
     {
@@ -355,4 +361,28 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     {
         this.maxPages.set( maxPages );
     }
+
+    @Override
+    public long dirtyPages()
+    {
+        return dirtyPages.getAsLong();
+    }
+
+    @Override
+    public void dirtyPages( LongSupplier dirtyPages )
+    {
+        this.dirtyPages = dirtyPages;
+    }
+
+    @Override
+    public List<EvictionStripeStatistics> evictionStripeStatistics()
+    {
+        return evictionStripeStatistics.get();
+    }
+
+    @Override
+    public void evictionStripeStatistics( Supplier<List<EvictionStripeStatistics>> evictionStripeStatistics )
+    {
+        this.evictionStripeStatistics = evictionStripeStatistics;
+    }
 }
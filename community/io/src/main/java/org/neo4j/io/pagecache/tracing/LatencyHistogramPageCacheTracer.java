@@ -0,0 +1,400 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
+import org.neo4j.io.pagecache.monitoring.PageCacheLatencies;
+import org.neo4j.io.pagecache.monitoring.PagedFileLatencies;
+import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.util.FeatureToggles;
+
+import static org.neo4j.util.Preconditions.requirePositive;
+
+/**
+ * A PageCacheTracer that, in addition to the counters of the {@link DefaultPageCacheTracer}, records latency histograms
+ * of page faults, flushes and evictions, for each mapped file.
+ * <p>
+ * Only one in every {@code sampleInterval} events, on average, has its latency measured and recorded. The events to
+ * sample are picked at random, so the overhead of taking time stamps and updating the histograms is amortised over
+ * all events, and the sampled latencies are not skewed by any periodic patterns in the workload. With a sample
+ * interval of 1, the latency of every event is recorded.
+ */
+public class LatencyHistogramPageCacheTracer extends DefaultPageCacheTracer implements PageCacheLatencies
+{
+    public static final int DEFAULT_SAMPLE_INTERVAL =
+            FeatureToggles.getInteger( LatencyHistogramPageCacheTracer.class, "sampleInterval", 16 );
+
+    private final ConcurrentHashMap<Path,PagedFileLatencies> files = new ConcurrentHashMap<>();
+    private final int sampleInterval;
+
+    public LatencyHistogramPageCacheTracer()
+    {
+        this( DEFAULT_SAMPLE_INTERVAL );
+    }
+
+    public LatencyHistogramPageCacheTracer( int sampleInterval )
+    {
+        this.sampleInterval = requirePositive( sampleInterval );
+    }
+
+    @Override
+    public int latencySampleInterval()
+    {
+        return sampleInterval;
+    }
+
+    @Override
+    public List<PagedFileLatencies> pagedFileLatencies()
+    {
+        return new ArrayList<>( files.values() );
+    }
+
+    @Override
+    public PageCursorTracer createPageCursorTracer( String tag )
+    {
+        return new LatencyHistogramPageCursorTracer( tag );
+    }
+
+    @Override
+    public void mappedFile( Path path )
+    {
+        super.mappedFile( path );
+        files.computeIfAbsent( path, PagedFileLatencies::new );
+    }
+
+    @Override
+    public void unmappedFile( Path path )
+    {
+        super.unmappedFile( path );
+        files.remove( path );
+    }
+
+    @Override
+    public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
+    {
+        EvictionRunEvent evictionRun = super.beginPageEvictions( pageCountToEvict );
+        return new EvictionRunEvent()
+        {
+            @Override
+            public EvictionEvent beginEviction()
+            {
+                return sampleEviction( evictionRun.beginEviction() );
+            }
+
+            @Override
+            public void close()
+            {
+                evictionRun.close();
+            }
+        };
+    }
+
+    @Override
+    public MajorFlushEvent beginFileFlush( PageSwapper swapper )
+    {
+        return new SampledMajorFlushEvent( super.beginFileFlush( swapper ) );
+    }
+
+    @Override
+    public MajorFlushEvent beginCacheFlush()
+    {
+        return new SampledMajorFlushEvent( super.beginCacheFlush() );
+    }
+
+    private boolean sample()
+    {
+        return sampleInterval == 1 || ThreadLocalRandom.current().nextInt( sampleInterval ) == 0;
+    }
+
+    private PagedFileLatencies latenciesOf( PageSwapper swapper )
+    {
+        return swapper == null ? null : files.get( swapper.path() );
+    }
+
+    private EvictionEvent sampleEviction( EvictionEvent evictionEvent )
+    {
+        return sample() ? new TimedEvictionEvent( evictionEvent ) : evictionEvent;
+    }
+
+    private final class TimedEvictionEvent implements EvictionEvent
+    {
+        private final EvictionEvent delegate;
+        private final long startNanos = System.nanoTime();
+        private PagedFileLatencies latencies;
+
+        TimedEvictionEvent( EvictionEvent delegate )
+        {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void setFilePageId( long filePageId )
+        {
+            delegate.setFilePageId( filePageId );
+        }
+
+        @Override
+        public void setSwapper( PageSwapper swapper )
+        {
+            delegate.setSwapper( swapper );
+            latencies = latenciesOf( swapper );
+        }
+
+        @Override
+        public FlushEventOpportunity flushEventOpportunity()
+        {
+            return delegate.flushEventOpportunity();
+        }
+
+        @Override
+        public void threwException( IOException exception )
+        {
+            delegate.threwException( exception );
+        }
+
+        @Override
+        public void setCachePageId( long cachePageId )
+        {
+            delegate.setCachePageId( cachePageId );
+        }
+
+        @Override
+        public void close()
+        {
+            delegate.close();
+            // Free pages are not bound to any file, and evicting them takes no time worth recording.
+            if ( latencies != null )
+            {
+                latencies.evictions().record( System.nanoTime() - startNanos );
+            }
+        }
+    }
+
+    private final class SampledMajorFlushEvent implements MajorFlushEvent, FlushEventOpportunity
+    {
+        private final MajorFlushEvent delegate;
+        private final FlushEventOpportunity flushOpportunity;
+
+        SampledMajorFlushEvent( MajorFlushEvent delegate )
+        {
+            this.delegate = delegate;
+            this.flushOpportunity = delegate.flushEventOpportunity();
+        }
+
+        @Override
+        public FlushEventOpportunity flushEventOpportunity()
+        {
+            return this;
+        }
+
+        @Override
+        public FlushEvent beginFlush( long filePageId, long cachePageId, PageSwapper swapper, int pagesToFlush, int mergedPages )
+        {
+            FlushEvent flushEvent = flushOpportunity.beginFlush( filePageId, cachePageId, swapper, pagesToFlush, mergedPages );
+            if ( sample() )
+            {
+                PagedFileLatencies latencies = latenciesOf( swapper );
+                if ( latencies != null )
+                {
+                    return new TimedFlushEvent( flushEvent, latencies.flushes() );
+                }
+            }
+            return flushEvent;
+        }
+
+        @Override
+        public void startFlush( int[][] translationTable )
+        {
+            flushOpportunity.startFlush( translationTable );
+        }
+
+        @Override
+        public ChunkEvent startChunk( int[] chunk )
+        {
+            return flushOpportunity.startChunk( chunk );
+        }
+
+        @Override
+        public void close()
+        {
+            delegate.close();
+        }
+    }
+
+    private static final class TimedFlushEvent implements FlushEvent
+    {
+        private final FlushEvent delegate;
+        private final LatencyHistogram histogram;
+        private final long startNanos = System.nanoTime();
+
+        TimedFlushEvent( FlushEvent delegate, LatencyHistogram histogram )
+        {
+            this.delegate = delegate;
+            this.histogram = histogram;
+        }
+
+        @Override
+        public void addBytesWritten( long bytes )
+        {
+            delegate.addBytesWritten( bytes );
+        }
+
+        @Override
+        public void done()
+        {
+            delegate.done();
+            histogram.record( System.nanoTime() - startNanos );
+        }
+
+        @Override
+        public void done( IOException exception )
+        {
+            delegate.done( exception );
+        }
+
+        @Override
+        public void addPagesFlushed( int pageCount )
+        {
+            delegate.addPagesFlushed( pageCount );
+        }
+
+        @Override
+        public void addPagesMerged( int pagesMerged )
+        {
+            delegate.addPagesMerged( pagesMerged );
+        }
+    }
+
+    /**
+     * The page faults, and the evictions that page faults do cooperatively, are reported through the cursor tracers.
+     */
+    private final class LatencyHistogramPageCursorTracer extends DefaultPageCursorTracer
+    {
+        private final LatencyPinEvent pinEvent = new LatencyPinEvent();
+        private final LatencyPageFaultEvent readAheadEvent = new LatencyPageFaultEvent();
+
+        LatencyHistogramPageCursorTracer( String tag )
+        {
+            super( LatencyHistogramPageCacheTracer.this, tag );
+        }
+
+        @Override
+        public PinEvent beginPin( boolean writeLock, long filePageId, PageSwapper swapper )
+        {
+            pinEvent.delegate = super.beginPin( writeLock, filePageId, swapper );
+            pinEvent.swapper = swapper;
+            return pinEvent;
+        }
+
+        @Override
+        public PageFaultEvent beginReadAhead( long filePageId, PageSwapper swapper )
+        {
+            readAheadEvent.delegate = super.beginReadAhead( filePageId, swapper );
+            readAheadEvent.latencies = sample() ? latenciesOf( swapper ) : null;
+            readAheadEvent.startNanos = readAheadEvent.latencies != null ? System.nanoTime() : 0;
+            return readAheadEvent;
+        }
+    }
+
+    private final class LatencyPinEvent implements PinEvent
+    {
+        private final LatencyPageFaultEvent faultEvent = new LatencyPageFaultEvent();
+        private PinEvent delegate;
+        private PageSwapper swapper;
+
+        @Override
+        public void setCachePageId( long cachePageId )
+        {
+            delegate.setCachePageId( cachePageId );
+        }
+
+        @Override
+        public PageFaultEvent beginPageFault()
+        {
+            faultEvent.delegate = delegate.beginPageFault();
+            faultEvent.latencies = sample() ? latenciesOf( swapper ) : null;
+            faultEvent.startNanos = faultEvent.latencies != null ? System.nanoTime() : 0;
+            return faultEvent;
+        }
+
+        @Override
+        public void hit()
+        {
+            delegate.hit();
+        }
+
+        @Override
+        public void done()
+        {
+            delegate.done();
+        }
+    }
+
+    private final class LatencyPageFaultEvent implements PageFaultEvent
+    {
+        private PageFaultEvent delegate;
+        private PagedFileLatencies latencies;
+        private long startNanos;
+
+        @Override
+        public void addBytesRead( long bytes )
+        {
+            delegate.addBytesRead( bytes );
+        }
+
+        @Override
+        public void setCachePageId( long cachePageId )
+        {
+            delegate.setCachePageId( cachePageId );
+        }
+
+        @Override
+        public void done()
+        {
+            delegate.done();
+            if ( latencies != null )
+            {
+                latencies.faults().record( System.nanoTime() - startNanos );
+            }
+        }
+
+        @Override
+        public void done( Throwable throwable )
+        {
+            // Failed page faults are not recorded, since how long it took them to fail says little about page faults.
+            delegate.done( throwable );
+        }
+
+        @Override
+        public EvictionEvent beginEviction()
+        {
+            return sampleEviction( delegate.beginEviction() );
+        }
+    }
+}
@@ -20,8 +20,12 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.nio.file.Path;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.EvictionStripeStatistics;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
@@ -318,4 +322,20 @@ public interface PageCacheTracer extends PageCacheCounters
      * @param maxPages the total number of available pages.
      */
     void maxPages( long maxPages );
+
+    /**
+     * Sets the source of the number of dirty pages in the cache.
+     * @param dirtyPages supplies the number of pages that have been modified, but not yet flushed.
+     */
+    default void dirtyPages( LongSupplier dirtyPages )
+    {
+    }
+
+    /**
+     * Sets the source of the statistics of the eviction stripes of the cache.
+     * @param evictionStripeStatistics supplies a snapshot of the page fault and eviction statistics of each stripe.
+     */
+    default void evictionStripeStatistics( Supplier<List<EvictionStripeStatistics>> evictionStripeStatistics )
+    {
+    }
 }
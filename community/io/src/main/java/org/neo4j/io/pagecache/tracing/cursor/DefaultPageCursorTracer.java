@@ -193,6 +193,12 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         return pinTracingEvent;
     }
 
+    @Override
+    public PageFaultEvent beginReadAhead( long filePageId, PageSwapper swapper )
+    {
+        return pageFaultEvent;
+    }
+
     private final EvictionEvent evictionEvent = new EvictionEvent()
     {
         @Override
@@ -22,6 +22,7 @@ package org.neo4j.io.pagecache.tracing.cursor;
 import java.io.Closeable;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.tracing.PageFaultEvent;
 import org.neo4j.io.pagecache.tracing.PinEvent;
 
 import static org.apache.commons.lang3.StringUtils.EMPTY;
@@ -126,6 +127,20 @@ public interface PageCursorTracer extends PageCursorCounters, Closeable
 
     PinEvent beginPin( boolean writeLock, long filePageId, PageSwapper swapper );
 
+    /**
+     * Begin loading a run of pages into the page cache, ahead of any cursor pinning them, as done by read-ahead and
+     * page cache warmup. The load is traced as a page fault, but not as a pin, since no cursor is pinned to the pages.
+     * This may be called while a pin of this tracer is in progress.
+     *
+     * @param filePageId the file page id of the first page in the run.
+     * @param swapper the swapper of the file the pages are loaded from.
+     * @return the page fault event for the load.
+     */
+    default PageFaultEvent beginReadAhead( long filePageId, PageSwapper swapper )
+    {
+        return PageFaultEvent.NULL;
+    }
+
     /**
      * Report to global page cache tracer events observed by current page cursor tracer.
      * As soon as any event will be reported, page cursor tracer reset corresponding counters and completely forgets
@@ -58,6 +58,26 @@ public interface Read
     void nodeIndexSeek( IndexReadSession index, NodeValueIndexCursor cursor, IndexQueryConstraints constraints, IndexQuery... query )
             throws KernelException;
 
+    /**
+     * Seek all nodes matching each of the provided index queries in an index, like calling
+     * {@link #nodeIndexSeek(IndexReadSession, NodeValueIndexCursor, IndexQueryConstraints, IndexQuery...)} once for every query would.
+     * The index may serve a batch of queries more efficiently than each query on its own, e.g. by visiting the index only once
+     * for many exact lookups.
+     * @param index {@link IndexReadSession} referencing index to query.
+     * @param cursors the cursors to use for consuming the results, one for each query.
+     * @param constraints The requested constraints on the query results, such as the {@link IndexOrder}, or whether the index should fetch property
+     * values together with node ids for index queries. The constraints must be satisfiable given the capabilities of the index.
+     * @param queries Combinations of {@link IndexQuery index queries} to run against referenced index, one for each cursor.
+     */
+    default void nodeIndexSeekBatch( IndexReadSession index, NodeValueIndexCursor[] cursors, IndexQueryConstraints constraints, IndexQuery[][] queries )
+            throws KernelException
+    {
+        for ( int i = 0; i < queries.length; i++ )
+        {
+            nodeIndexSeek( index, cursors[i], constraints, queries[i] );
+        }
+    }
+
     /**
      * Seek all relationships matching the provided index query in an index.
      *
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.neo4j.hashing.HashFunction;
+import org.neo4j.values.storable.Value;
+
+/**
+ * A HyperLogLog sketch estimating the number of distinct values added to it, using a fixed amount of memory regardless of
+ * the number of values. Values are added by their 64-bit hash, see {@link #hash(Value[])}, and the estimate has a standard error
+ * of about {@code 1.04 / sqrt(2^PRECISION)}, i.e. ~1.6%.
+ * <p>
+ * A sketch can't forget values, so removed values are still accounted for in its estimate. Adding values and reading the estimate
+ * is thread-safe and lock-free.
+ */
+public class HyperLogLogSketch
+{
+    static final int PRECISION = 12;
+    private static final int NUMBER_OF_REGISTERS = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / NUMBER_OF_REGISTERS);
+    private static final long HASH_SEED = 1;
+
+    private final AtomicIntegerArray registers = new AtomicIntegerArray( NUMBER_OF_REGISTERS );
+
+    /**
+     * @param values the values of an index entry.
+     * @return the hash of the given values, consistent with {@link Value#hashCode64()} for a single value.
+     */
+    public static long hash( Value[] values )
+    {
+        HashFunction xxh64 = HashFunction.incrementalXXH64();
+        long hash = xxh64.initialise( HASH_SEED );
+        for ( Value value : values )
+        {
+            hash = value.updateHash( xxh64, hash );
+        }
+        return xxh64.finalise( hash );
+    }
+
+    /**
+     * Adds a value, by its hash, to this sketch. Adding the same value again doesn't change the estimate.
+     *
+     * @param hash the hash of the value, see {@link #hash(Value[])}.
+     */
+    public void add( long hash )
+    {
+        int register = (int) (hash >>> (Long.SIZE - PRECISION));
+        // Position of the leftmost 1-bit of the remaining bits, with a stop bit so that it's at most 64 - PRECISION + 1
+        int rank = Long.numberOfLeadingZeros( (hash << PRECISION) | (1L << (PRECISION - 1)) ) + 1;
+        int current;
+        while ( rank > (current = registers.get( register )) )
+        {
+            if ( registers.compareAndSet( register, current, rank ) )
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adds all values of {@code other} to this sketch.
+     */
+    public void merge( HyperLogLogSketch other )
+    {
+        for ( int register = 0; register < NUMBER_OF_REGISTERS; register++ )
+        {
+            int rank = other.registers.get( register );
+            int current;
+            while ( rank > (current = registers.get( register )) )
+            {
+                if ( registers.compareAndSet( register, current, rank ) )
+                {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return estimated number of distinct values added to this sketch.
+     */
+    public long estimate()
+    {
+        double sum = 0;
+        int emptyRegisters = 0;
+        for ( int register = 0; register < NUMBER_OF_REGISTERS; register++ )
+        {
+            int rank = registers.get( register );
+            sum += Double.longBitsToDouble( (long) (1023 - rank) << 52 ); // 2^-rank
+            if ( rank == 0 )
+            {
+                emptyRegisters++;
+            }
+        }
+        double estimate = ALPHA * NUMBER_OF_REGISTERS * NUMBER_OF_REGISTERS / sum;
+        if ( estimate <= 2.5 * NUMBER_OF_REGISTERS && emptyRegisters > 0 )
+        {
+            // For small cardinalities linear counting over the empty registers is more accurate
+            estimate = NUMBER_OF_REGISTERS * Math.log( (double) NUMBER_OF_REGISTERS / emptyRegisters );
+        }
+        return Math.round( estimate );
+    }
+}
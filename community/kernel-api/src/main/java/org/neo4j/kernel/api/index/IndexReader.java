@@ -53,6 +53,24 @@ public interface IndexReader extends Resource
     void query( QueryContext context, IndexProgressor.EntityValueClient client, IndexQueryConstraints constraints,
             IndexQuery... query ) throws IndexNotApplicableKernelException;
 
+    /**
+     * Queries the index for a batch of queries, each one a combination of {@link IndexQuery} predicates like the ones given to
+     * {@link #query(QueryContext, IndexProgressor.EntityValueClient, IndexQueryConstraints, IndexQuery...)}. The hits of each query are
+     * handed to the client at the same position as the query. Readers may serve a batch of queries more efficiently than each query
+     * on its own, e.g. by visiting the index only once for many exact lookups.
+     * @param clients the clients which will control the progression though query results, one for each query.
+     * @param constraints constraints upon the query results, like ordering and whether the index should fetch property values alongside the entity ids.
+     * @param queries the queries to serve.
+     */
+    default void queryBatch( QueryContext context, IndexProgressor.EntityValueClient[] clients, IndexQueryConstraints constraints,
+            IndexQuery[][] queries ) throws IndexNotApplicableKernelException
+    {
+        for ( int i = 0; i < queries.length; i++ )
+        {
+            query( context, clients[i], constraints, queries[i] );
+        }
+    }
+
     /**
      * @param predicates query to determine whether index has full value precision for.
      * @return whether or not this reader will only return 100% matching results from
@@ -27,6 +27,7 @@ public final class IndexSample
     private final long uniqueValues;
     private final long sampleSize;
     private final long updates;
+    private final HyperLogLogSketch sketch;
 
     public IndexSample()
     {
@@ -39,11 +40,26 @@ public final class IndexSample
     }
 
     public IndexSample( long indexSize, long uniqueValues, long sampleSize, long updates )
+    {
+        this( indexSize, uniqueValues, sampleSize, updates, null );
+    }
+
+    /**
+     * @param sketch of all values in the index, if this sample was taken from all entries of the index. Statistics can then be kept
+     * up to date incrementally from updates made to the index after this sample.
+     */
+    public IndexSample( long indexSize, long uniqueValues, long sampleSize, HyperLogLogSketch sketch )
+    {
+        this( indexSize, uniqueValues, sampleSize, 0, sketch );
+    }
+
+    private IndexSample( long indexSize, long uniqueValues, long sampleSize, long updates, HyperLogLogSketch sketch )
     {
         this.indexSize = indexSize;
         this.uniqueValues = uniqueValues;
         this.sampleSize = sampleSize;
         this.updates = updates;
+        this.sketch = sketch;
     }
 
     public long indexSize()
@@ -66,6 +82,15 @@ public final class IndexSample
         return updates;
     }
 
+    /**
+     * @return sketch of all values in the index, or {@code null} if this sample wasn't taken from all entries of the index.
+     * Not part of {@link #equals(Object)} since it's a means to keep statistics up to date rather than a statistic in itself.
+     */
+    public HyperLogLogSketch sketch()
+    {
+        return sketch;
+    }
+
     @Override
     public boolean equals( Object o )
     {
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HyperLogLogSketchTest
+{
+    @Test
+    void shouldEstimateZeroForEmptySketch()
+    {
+        assertEquals( 0, new HyperLogLogSketch().estimate() );
+    }
+
+    @Test
+    void shouldEstimateSmallNumberOfDistinctValuesClosely()
+    {
+        // given
+        HyperLogLogSketch sketch = new HyperLogLogSketch();
+
+        // when
+        for ( int i = 0; i < 100; i++ )
+        {
+            sketch.add( HyperLogLogSketch.hash( values( i ) ) );
+        }
+
+        // then
+        assertThat( sketch.estimate() ).isCloseTo( 100L, withinPercentage( 5 ) );
+    }
+
+    @Test
+    void shouldEstimateLargeNumberOfDistinctValuesWithinErrorBounds()
+    {
+        // given
+        HyperLogLogSketch sketch = new HyperLogLogSketch();
+
+        // when
+        int distinctValues = 1_000_000;
+        for ( int i = 0; i < distinctValues; i++ )
+        {
+            sketch.add( HyperLogLogSketch.hash( values( "value" + i ) ) );
+        }
+
+        // then standard error is ~1.6%, allow for well beyond that
+        assertThat( sketch.estimate() ).isCloseTo( (long) distinctValues, withinPercentage( 6 ) );
+    }
+
+    @Test
+    void shouldNotCountDuplicateValues()
+    {
+        // given
+        HyperLogLogSketch sketch = new HyperLogLogSketch();
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            sketch.add( HyperLogLogSketch.hash( values( i ) ) );
+        }
+        long estimate = sketch.estimate();
+
+        // when
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            sketch.add( HyperLogLogSketch.hash( values( i ) ) );
+        }
+
+        // then
+        assertEquals( estimate, sketch.estimate() );
+    }
+
+    @Test
+    void shouldHashSingleValueAsValueHash()
+    {
+        Value value = Values.stringValue( "abc" );
+        assertEquals( value.hashCode64(), HyperLogLogSketch.hash( new Value[]{value} ) );
+    }
+
+    @Test
+    void shouldMergeSketches()
+    {
+        // given
+        HyperLogLogSketch first = new HyperLogLogSketch();
+        HyperLogLogSketch second = new HyperLogLogSketch();
+        HyperLogLogSketch all = new HyperLogLogSketch();
+        for ( int i = 0; i < 20_000; i++ )
+        {
+            long hash = HyperLogLogSketch.hash( values( i ) );
+            (i % 2 == 0 ? first : second).add( hash );
+            all.add( hash );
+        }
+
+        // when
+        first.merge( second );
+
+        // then
+        assertEquals( all.estimate(), first.estimate() );
+    }
+
+    private static Value[] values( Object value )
+    {
+        return new Value[]{Values.of( value )};
+    }
+}
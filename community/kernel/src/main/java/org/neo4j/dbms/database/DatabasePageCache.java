@@ -163,6 +163,12 @@ public class DatabasePageCache implements PageCache
             return delegate.io( pageId, pf_flags, tracer );
         }
 
+        @Override
+        public int touch( long pageId, int count, PageCursorTracer tracer ) throws IOException
+        {
+            return delegate.touch( pageId, count, tracer );
+        }
+
         @Override
         public int pageSize()
         {
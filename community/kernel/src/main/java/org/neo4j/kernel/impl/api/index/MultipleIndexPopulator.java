@@ -23,9 +23,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
@@ -34,6 +36,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BooleanSupplier;
 import java.util.function.IntPredicate;
 import java.util.stream.IntStream;
@@ -116,6 +119,12 @@ import static org.neo4j.kernel.impl.api.index.IndexPopulationFailure.failure;
  * {@link #QUEUE_THRESHOLD} than all queued concurrent updates are flushed after the store scan in
  * {@link MultipleIndexPopulator#flipAfterStoreScan(boolean, PageCursorTracer)}.
  * <p>
+ * A full store scan is split into ranges of entity ids which are scanned by {@link #SCAN_WORKERS} workers concurrently, see
+ * {@link StoreScan#setParallelism(int, IndexPopulator.PopulationWorkScheduler, PageCacheTracer, StoreScan.RangeListener)}.
+ * Updates from the scan are then batched per worker. Queued concurrent updates are applied by a worker in between two of its ranges,
+ * while the other workers are held off from starting new ranges, such that all scan updates of the ranges scanned so far can be flushed first.
+ * Only queued updates for entities in completed ranges are applied then, the others are left in the queue.
+ * <p>
  */
 public class MultipleIndexPopulator
 {
@@ -125,23 +134,34 @@ public class MultipleIndexPopulator
     public static final String BATCH_SIZE_NAME = "batch_size";
     public static final String BATCH_MAX_BYTE_SIZE_NAME = "batch_max_byte_size";
     static final String AWAIT_TIMEOUT_MINUTES_NAME = "await_timeout_minutes";
+    public static final String SCAN_WORKERS_NAME = "scan_workers";
     private static final String EOL = System.lineSeparator();
 
     static final int DEFAULT_BATCH_SIZE_SCAN = 10_000;
     static final int DEFAULT_QUEUE_THRESHOLD = 20_000;
     static final int DEFAULT_BATCH_MAX_BYTE_SIZE = (int) mebiBytes( 10 );
     static final int DEFAULT_AWAIT_TIMEOUT_MINUTES = 30;
+    // Leave some processors for the workers flushing the scan batches
+    static final int DEFAULT_SCAN_WORKERS = Math.max( 1, Runtime.getRuntime().availableProcessors() / 2 );
 
     private final int QUEUE_THRESHOLD;
     final int BATCH_SIZE_SCAN;
     final int BATCH_MAX_BYTE_SIZE_SCAN;
     private final boolean PRINT_DEBUG = FeatureToggles.flag( MultipleIndexPopulator.class, "print_debug", false );
     private final int AWAIT_TIMEOUT_MINUTES;
+    private final int SCAN_WORKERS;
 
     // Concurrency queue since multiple concurrent threads may enqueue updates into it. It is important for this queue
     // to have fast #size() method since it might be drained in batches
     private final Queue<IndexEntryUpdate<?>> concurrentUpdateQueue = new LinkedBlockingQueue<>();
     private final AtomicLong concurrentUpdateQueueByteSize = new AtomicLong();
+    // Held by workers of a parallel store scan while scanning a range, and exclusively when applying the concurrent updates queue in between ranges
+    private final ReentrantReadWriteLock scanRangeLock = new ReentrantReadWriteLock();
+    private final ScannedRanges scannedRanges = new ScannedRanges();
+    // Queued updates which were left in the queue when applying it in between ranges, because their entities weren't scanned yet
+    private volatile int retainedQueueSize;
+    private volatile long retainedQueueByteSize;
+    private volatile boolean parallelScan;
 
     // Populators are added into this list. The same thread adding populators will later call #createStoreScan.
     // Multiple concurrent threads might fail individual populations.
@@ -184,13 +204,23 @@ public class MultipleIndexPopulator
                 FeatureToggles.getInteger( MultipleIndexPopulator.class, QUEUE_THRESHOLD_NAME, DEFAULT_QUEUE_THRESHOLD ),
                 FeatureToggles.getInteger( MultipleIndexPopulator.class, BATCH_SIZE_NAME, DEFAULT_BATCH_SIZE_SCAN ),
                 FeatureToggles.getInteger( MultipleIndexPopulator.class, BATCH_MAX_BYTE_SIZE_NAME, DEFAULT_BATCH_MAX_BYTE_SIZE ),
-                FeatureToggles.getInteger( MultipleIndexPopulator.class, AWAIT_TIMEOUT_MINUTES_NAME, DEFAULT_AWAIT_TIMEOUT_MINUTES ) );
+                FeatureToggles.getInteger( MultipleIndexPopulator.class, AWAIT_TIMEOUT_MINUTES_NAME, DEFAULT_AWAIT_TIMEOUT_MINUTES ),
+                FeatureToggles.getInteger( MultipleIndexPopulator.class, SCAN_WORKERS_NAME, DEFAULT_SCAN_WORKERS ) );
     }
 
     public MultipleIndexPopulator( IndexStoreView storeView, LogProvider logProvider, EntityType type, SchemaState schemaState,
             IndexStatisticsStore indexStatisticsStore, JobScheduler jobScheduler, TokenNameLookup tokenNameLookup, PageCacheTracer cacheTracer,
             MemoryTracker memoryTracker, String databaseName, Subject subject,
             int queueThreshold, int batchSizeScan, int batchMaxByteSizeScan, int awaitTimeoutMillis )
+    {
+        this( storeView, logProvider, type, schemaState, indexStatisticsStore, jobScheduler, tokenNameLookup, cacheTracer, memoryTracker, databaseName,
+                subject, queueThreshold, batchSizeScan, batchMaxByteSizeScan, awaitTimeoutMillis, 1 );
+    }
+
+    public MultipleIndexPopulator( IndexStoreView storeView, LogProvider logProvider, EntityType type, SchemaState schemaState,
+            IndexStatisticsStore indexStatisticsStore, JobScheduler jobScheduler, TokenNameLookup tokenNameLookup, PageCacheTracer cacheTracer,
+            MemoryTracker memoryTracker, String databaseName, Subject subject,
+            int queueThreshold, int batchSizeScan, int batchMaxByteSizeScan, int awaitTimeoutMillis, int scanWorkers )
     {
         this.storeView = storeView;
         this.cursorTracer = cacheTracer.createPageCursorTracer( MULTIPLE_INDEX_POPULATOR_TAG );
@@ -212,6 +242,7 @@ public class MultipleIndexPopulator
         this.BATCH_SIZE_SCAN = batchSizeScan;
         this.BATCH_MAX_BYTE_SIZE_SCAN = batchMaxByteSizeScan;
         this.AWAIT_TIMEOUT_MINUTES = awaitTimeoutMillis;
+        this.SCAN_WORKERS = scanWorkers;
     }
 
     IndexPopulation addPopulator( IndexPopulator populator, IndexDescriptor indexDescriptor, FlippableIndexProxy flipper,
@@ -259,6 +290,10 @@ public class MultipleIndexPopulator
                     cursorTracer, memoryTracker );
         }
         storeScan.setPhaseTracker( phaseTracker );
+        if ( SCAN_WORKERS > 1 )
+        {
+            storeScan.setParallelism( SCAN_WORKERS, this::scheduleScanWorker, cacheTracer, new ScanRangeListener() );
+        }
         return new BatchingStoreScan<>( storeScan );
     }
 
@@ -454,16 +489,29 @@ public class MultipleIndexPopulator
         return applyConcurrentUpdateQueue( QUEUE_THRESHOLD, currentlyIndexedNodeId );
     }
 
+    private <T> JobHandle<T> scheduleScanWorker( IndexPopulator.JobDescriptionSupplier descriptionSupplier, Callable<T> job )
+    {
+        // Scan workers themselves schedule flush jobs on the population work group, so they mustn't run there or they could starve them
+        String description = descriptionSupplier.getJobDescription( populations.stream()
+                .map( population -> population.indexDescriptor.getName() )
+                .collect( joining( ", " ) ) );
+        return jobScheduler.schedule( Group.INDEX_POPULATION, new JobMonitoringParams( subject, databaseName, description ), job );
+    }
+
     private void flushAll()
     {
-        populations.forEach( this::flush );
+        populations.forEach( population -> population.allScanBatches.forEach( scanBatch -> flush( population, scanBatch ) ) );
         awaitCompletion();
     }
 
-    private void flush( IndexPopulation population )
+    private void flush( IndexPopulation population, ScanBatch scanBatch )
     {
-        phaseTracker.enterPhase( PhaseTracker.Phase.WRITE );
-        List<IndexEntryUpdate<?>> batch = population.takeCurrentBatchFromScan();
+        if ( !parallelScan )
+        {
+            // Phases are tracked by the thread running the scan, whereas here a parallel scan would be in one of its workers
+            phaseTracker.enterPhase( PhaseTracker.Phase.WRITE );
+        }
+        List<IndexEntryUpdate<?>> batch = population.takeBatchFromScan( scanBatch );
 
         if ( batch.isEmpty() )
         {
@@ -509,10 +557,15 @@ public class MultipleIndexPopulator
      *
      * @return whether or not there were external updates applied.
      */
-    private boolean applyConcurrentUpdateQueue( int queueThreshold, long currentlyIndexedNodeId )
+    private boolean shouldApplyConcurrentUpdateQueue( int queueThreshold )
     {
         int queueSize = concurrentUpdateQueue.size();
-        if ( (queueSize > 0 && queueSize >= queueThreshold) || concurrentUpdateQueueByteSize.get() >= BATCH_MAX_BYTE_SIZE_SCAN )
+        return (queueSize > 0 && queueSize >= queueThreshold) || concurrentUpdateQueueByteSize.get() >= BATCH_MAX_BYTE_SIZE_SCAN;
+    }
+
+    private boolean applyConcurrentUpdateQueue( int queueThreshold, long currentlyIndexedNodeId )
+    {
+        if ( shouldApplyConcurrentUpdateQueue( queueThreshold ) )
         {
             if ( PRINT_DEBUG )
             {
@@ -551,6 +604,65 @@ public class MultipleIndexPopulator
         return false;
     }
 
+    /**
+     * Like {@link #shouldApplyConcurrentUpdateQueue(int)}, but not counting the updates which were left in the queue the last time
+     * it was applied in between ranges.
+     */
+    private boolean shouldApplyConcurrentUpdateQueueOfScannedRanges()
+    {
+        int queueSize = concurrentUpdateQueue.size() - retainedQueueSize;
+        return (queueSize > 0 && queueSize >= QUEUE_THRESHOLD) || concurrentUpdateQueueByteSize.get() - retainedQueueByteSize >= BATCH_MAX_BYTE_SIZE_SCAN;
+    }
+
+    /**
+     * Applies the queued updates for entities in {@link #scannedRanges ranges} that a parallel store scan has completed.
+     * Updates for other entities are left in the queue, to be applied after their ranges have been scanned. Applying them before that
+     * would have the scan add those entities to the index again. Must be called while holding the write lock of {@link #scanRangeLock}.
+     */
+    private void applyConcurrentUpdateQueueOfScannedRanges()
+    {
+        if ( !shouldApplyConcurrentUpdateQueueOfScannedRanges() )
+        {
+            return;
+        }
+        if ( PRINT_DEBUG )
+        {
+            log.info( "Populating from queue in between ranges" );
+        }
+        // Before applying updates from the updates queue any pending scan updates needs to be applied, i.e. flushed
+        flushAll();
+
+        int retained = 0;
+        long retainedByteSize = 0;
+        long updateByteSizeDrained = 0;
+        try ( MultipleIndexUpdater updater = newPopulatingUpdater( propertyAccessor, cursorTracer ) )
+        {
+            Iterator<IndexEntryUpdate<?>> updates = concurrentUpdateQueue.iterator();
+            while ( updates.hasNext() )
+            {
+                IndexEntryUpdate<?> update = updates.next();
+                if ( scannedRanges.contains( update.getEntityId() ) )
+                {
+                    updates.remove();
+                    updateByteSizeDrained += roughSizeOfUpdate( update );
+                    updater.process( update );
+                }
+                else
+                {
+                    retained++;
+                    retainedByteSize += roughSizeOfUpdate( update );
+                }
+            }
+        }
+        concurrentUpdateQueueByteSize.addAndGet( -updateByteSizeDrained );
+        retainedQueueSize = retained;
+        retainedQueueByteSize = retainedByteSize;
+        if ( PRINT_DEBUG )
+        {
+            log.info( "Done applying updates from queue, %d left in the queue", retained );
+        }
+    }
+
     private void forEachPopulation( ThrowingConsumer<IndexPopulation,Exception> action, PageCursorTracer cursorTracer )
     {
         for ( IndexPopulation population : populations )
@@ -614,7 +726,7 @@ public class MultipleIndexPopulator
     {
         String updatesString = populations
                 .stream()
-                .map( population -> population.batchedUpdatesFromScan.size() + " updates" )
+                .map( population -> population.allScanBatches.stream().mapToInt( scanBatch -> scanBatch.updates.size() ).sum() + " updates" )
                 .collect( joining( ", ", "[", "]" ) );
 
         return "MultipleIndexPopulator{activeTasks=" + activeTasks + ", " +
@@ -698,9 +810,10 @@ public class MultipleIndexPopulator
         private final String indexUserDescription;
         private boolean populationOngoing = true;
         private final ReentrantLock populatorLock = new ReentrantLock();
-
-        List<IndexEntryUpdate<?>> batchedUpdatesFromScan;
-        private long sizeOfBatchedUpdates;
+        // Scan updates are batched per thread feeding them, i.e. per store scan worker, so that workers don't contend on the batches.
+        // Written to when a thread adds its first scan update, read from when flushing all batches.
+        private final List<ScanBatch> allScanBatches = new CopyOnWriteArrayList<>();
+        private final ThreadLocal<ScanBatch> scanBatch = ThreadLocal.withInitial( this::newScanBatch );
 
         IndexPopulation( IndexPopulator populator, IndexDescriptor indexDescriptor, FlippableIndexProxy flipper,
                 FailedIndexProxyFactory failedIndexProxyFactory, String indexUserDescription )
@@ -711,7 +824,13 @@ public class MultipleIndexPopulator
             this.flipper = flipper;
             this.failedIndexProxyFactory = failedIndexProxyFactory;
             this.indexUserDescription = indexUserDescription;
-            this.batchedUpdatesFromScan = new ArrayList<>( BATCH_SIZE_SCAN );
+        }
+
+        private ScanBatch newScanBatch()
+        {
+            ScanBatch batch = new ScanBatch( BATCH_SIZE_SCAN );
+            allScanBatches.add( batch );
+            return batch;
         }
 
         private void cancel( IndexPopulationFailure failure )
@@ -776,10 +895,10 @@ public class MultipleIndexPopulator
 
         private void onUpdateFromScan( IndexEntryUpdate<?> update )
         {
-            populator.includeSample( update );
-            if ( addToBatchFromScan( update ) )
+            ScanBatch batch = scanBatch.get();
+            if ( batch.add( update ) )
             {
-                flush( this );
+                flush( this, batch );
             }
         }
 
@@ -793,7 +912,10 @@ public class MultipleIndexPopulator
                 {
                     if ( populationOngoing )
                     {
-                        populator.add( takeCurrentBatchFromScan(), cursorTracer );
+                        for ( ScanBatch batch : allScanBatches )
+                        {
+                            populator.add( takeBatchFromScan( batch ), cursorTracer );
+                        }
                         applyConcurrentUpdateQueue( 0, Long.MAX_VALUE );
                         if ( populations.contains( IndexPopulation.this ) )
                         {
@@ -839,21 +961,27 @@ public class MultipleIndexPopulator
 
         boolean addToBatchFromScan( IndexEntryUpdate<?> update )
         {
-            batchedUpdatesFromScan.add( update );
-            sizeOfBatchedUpdates += roughSizeOfUpdate( update );
-            return batchedUpdatesFromScan.size() >= BATCH_SIZE_SCAN || sizeOfBatchedUpdates >= BATCH_MAX_BYTE_SIZE_SCAN;
+            return scanBatch.get().add( update );
         }
 
-        List<IndexEntryUpdate<?>> takeCurrentBatchFromScan()
+        /**
+         * Takes the updates of the given batch and includes them in the sample of the populator. Samplers aren't thread-safe and so,
+         * with a parallel scan, this is done per batch instead of per update to keep contention among workers down.
+         */
+        List<IndexEntryUpdate<?>> takeBatchFromScan( ScanBatch batch )
         {
-            if ( batchedUpdatesFromScan.isEmpty() )
+            List<IndexEntryUpdate<?>> updates = batch.take();
+            if ( !updates.isEmpty() )
             {
-                return Collections.emptyList();
+                synchronized ( this )
+                {
+                    for ( IndexEntryUpdate<?> update : updates )
+                    {
+                        populator.includeSample( update );
+                    }
+                }
             }
-            List<IndexEntryUpdate<?>> batch = batchedUpdatesFromScan;
-            batchedUpdatesFromScan = new ArrayList<>( BATCH_SIZE_SCAN );
-            sizeOfBatchedUpdates = 0;
-            return batch;
+            return updates;
         }
 
         void scanCompleted( PageCursorTracer cursorTracer ) throws IndexEntryConflictException
@@ -879,6 +1007,123 @@ public class MultipleIndexPopulator
         }
     }
 
+    /**
+     * Updates from the store scan, batched up by a single thread before flushed to a populator.
+     */
+    private class ScanBatch
+    {
+        private final int initialCapacity;
+        private List<IndexEntryUpdate<?>> updates;
+        private long byteSize;
+
+        ScanBatch( int initialCapacity )
+        {
+            this.initialCapacity = initialCapacity;
+            this.updates = new ArrayList<>( initialCapacity );
+        }
+
+        /**
+         * @return whether or not this batch is full after adding the update.
+         */
+        boolean add( IndexEntryUpdate<?> update )
+        {
+            updates.add( update );
+            byteSize += roughSizeOfUpdate( update );
+            return updates.size() >= BATCH_SIZE_SCAN || byteSize >= BATCH_MAX_BYTE_SIZE_SCAN;
+        }
+
+        List<IndexEntryUpdate<?>> take()
+        {
+            if ( updates.isEmpty() )
+            {
+                return Collections.emptyList();
+            }
+            List<IndexEntryUpdate<?>> batch = updates;
+            updates = new ArrayList<>( initialCapacity );
+            byteSize = 0;
+            return batch;
+        }
+    }
+
+    /**
+     * Coordinates workers of a parallel store scan with applying the concurrent updates queue. A worker applies the queue in between two
+     * of its ranges, if it has grown big enough. It then waits for the other workers to complete their current ranges and holds them off
+     * from starting new ones until done. At that point all updates from the scan so far can be flushed and applied before the queued updates,
+     * just like for a single-threaded scan. Only the queued updates for entities in completed ranges are applied.
+     */
+    private class ScanRangeListener implements StoreScan.RangeListener
+    {
+        @Override
+        public void rangeStarted()
+        {
+            if ( !parallelScan )
+            {
+                // The store scan may still decide to run in a single thread, so this is only known once a worker starts its first range
+                parallelScan = true;
+            }
+            scanRangeLock.readLock().lock();
+        }
+
+        @Override
+        public void rangeCompleted( long lowestEntityId, long highestEntityId )
+        {
+            if ( lowestEntityId <= highestEntityId )
+            {
+                scannedRanges.add( lowestEntityId, highestEntityId );
+            }
+            scanRangeLock.readLock().unlock();
+            if ( shouldApplyConcurrentUpdateQueueOfScannedRanges() )
+            {
+                scanRangeLock.writeLock().lock();
+                try
+                {
+                    // Another worker may have applied the queue while this one waited for the lock, if so this will do nothing
+                    applyConcurrentUpdateQueueOfScannedRanges();
+                }
+                finally
+                {
+                    scanRangeLock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Entity id ranges completed by the workers of a parallel store scan. Each range spans from the first to the last entity visited in it,
+     * so ids in between two ranges aren't known to be scanned. Ranges that meet are merged.
+     */
+    private static class ScannedRanges
+    {
+        // Lowest entity id of each range, mapped to its highest entity id
+        private final TreeMap<Long,Long> ranges = new TreeMap<>();
+
+        synchronized void add( long lowestEntityId, long highestEntityId )
+        {
+            long lowest = lowestEntityId;
+            long highest = highestEntityId;
+            Map.Entry<Long,Long> before = ranges.floorEntry( lowestEntityId );
+            if ( before != null && before.getValue() >= lowestEntityId - 1 )
+            {
+                lowest = before.getKey();
+                highest = Math.max( highest, before.getValue() );
+            }
+            Map.Entry<Long,Long> after = ranges.ceilingEntry( lowestEntityId );
+            while ( after != null && after.getKey() <= highest + 1 )
+            {
+                ranges.remove( after.getKey() );
+                highest = Math.max( highest, after.getValue() );
+                after = ranges.higherEntry( after.getKey() );
+            }
+            ranges.put( lowest, highest );
+        }
+
+        synchronized boolean contains( long entityId )
+        {
+            Map.Entry<Long,Long> range = ranges.floorEntry( entityId );
+            return range != null && range.getValue() >= entityId;
+        }
+    }
+
     private static long roughSizeOfUpdate( IndexEntryUpdate<?> update )
     {
         return heapSizeOf( update.values() ) + (update.updateMode() == UpdateMode.CHANGED ? heapSizeOf( update.beforeValues() ) : 0);
@@ -916,7 +1161,8 @@ public class MultipleIndexPopulator
             {
                 log.info( "Added scan updates for entity %d", updates.getEntityId() );
             }
-            return applyConcurrentUpdateQueueBatched( updates.getEntityId() );
+            // A parallel scan applies the queue in between ranges instead, see ScanRangeListener
+            return !parallelScan && applyConcurrentUpdateQueueBatched( updates.getEntityId() );
         }
 
         private void addFromScan( EntityUpdates updates )
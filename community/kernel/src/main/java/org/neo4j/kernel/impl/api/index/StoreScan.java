@@ -20,6 +20,8 @@
 package org.neo4j.kernel.impl.api.index;
 
 import org.neo4j.internal.kernel.api.PopulationProgress;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.api.index.IndexPopulator.PopulationWorkScheduler;
 import org.neo4j.storageengine.api.IndexEntryUpdate;
 
 public interface StoreScan<FAILURE extends Exception>
@@ -41,4 +43,36 @@ public interface StoreScan<FAILURE extends Exception>
     default void setPhaseTracker( PhaseTracker phaseTracker )
     {   // no-op
     }
+
+    /**
+     * Makes {@link #run()} split the entity id space into ranges which are scanned concurrently by {@code numberOfWorkers} workers
+     * scheduled using {@code workScheduler}, each tracing its page accesses with its own cursor tracer from {@code cacheTracer}.
+     * Visitors of this scan will then be called concurrently from those workers, and each worker notifies {@code rangeListener}
+     * before and after each range it scans. Scans which can't be split into ranges,
+     * e.g. scans driven by a token index, or aren't worth splitting ignore this and run in the calling thread.
+     * Must not be called once scan has already started.
+     *
+     * @param numberOfWorkers number of workers to scan ranges concurrently.
+     * @param workScheduler schedules the workers, must not share threads with the work the workers in turn schedule.
+     * @param cacheTracer creates the page cursor tracers for the workers.
+     * @param rangeListener notified by the workers about the ranges they scan.
+     */
+    default void setParallelism( int numberOfWorkers, PopulationWorkScheduler workScheduler, PageCacheTracer cacheTracer, RangeListener rangeListener )
+    {   // no-op
+    }
+
+    /**
+     * Notified by a worker of a {@link #setParallelism(int, PopulationWorkScheduler, PageCacheTracer, RangeListener) parallel} scan, in the worker thread,
+     * about the ranges it scans. All visitor calls for the entities of a range happen in between the two notifications for that range.
+     */
+    interface RangeListener
+    {
+        void rangeStarted();
+
+        /**
+         * @param lowestEntityId id of the first entity visited in the range.
+         * @param highestEntityId id of the last entity visited in the range, lower than {@code lowestEntityId} if no entity was visited.
+         */
+        void rangeCompleted( long lowestEntityId, long highestEntityId );
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.kernel.api.index.HyperLogLogSketch;
+import org.neo4j.kernel.api.index.IndexSample;
+import org.neo4j.storageengine.api.IndexEntryUpdate;
+
+/**
+ * Statistics of an index kept up to date from the updates made to it since it was last sampled in full, such that index size and
+ * number of unique values don't go stale in between samplings. Unique values are estimated by a {@link HyperLogLogSketch} of all values
+ * in the index, which can't account for removed values. So removals make the estimate drift and eventually call for a new full sampling.
+ */
+public class IncrementalIndexStatistics
+{
+    private final AtomicLong indexSize;
+    private final HyperLogLogSketch sketch;
+
+    IncrementalIndexStatistics( long indexSize, HyperLogLogSketch sketch )
+    {
+        this.indexSize = new AtomicLong( indexSize );
+        this.sketch = sketch;
+    }
+
+    /**
+     * Accounts for an update made to the index.
+     *
+     * @param update the update made to the index.
+     * @return {@code true} if the update removed a value, which the estimate of unique values can't account for, otherwise {@code false}.
+     */
+    public boolean process( IndexEntryUpdate<?> update )
+    {
+        switch ( update.updateMode() )
+        {
+        case ADDED:
+            sketch.add( HyperLogLogSketch.hash( update.values() ) );
+            indexSize.incrementAndGet();
+            return false;
+        case CHANGED:
+            sketch.add( HyperLogLogSketch.hash( update.values() ) );
+            return true;
+        case REMOVED:
+            indexSize.decrementAndGet();
+            return true;
+        default:
+            throw new IllegalArgumentException( "Unknown update mode " + update.updateMode() );
+        }
+    }
+
+    IndexSample sample( long updates )
+    {
+        long size = Math.max( 0, indexSize.get() );
+        long uniqueValues = Math.min( sketch.estimate(), size );
+        return new IndexSample( size, uniqueValues, size, updates );
+    }
+}
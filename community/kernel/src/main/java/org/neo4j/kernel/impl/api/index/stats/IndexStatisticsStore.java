@@ -43,6 +43,7 @@ import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.api.index.IndexSample;
 import org.neo4j.kernel.impl.index.schema.ConsistencyCheckable;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.util.FeatureToggles;
 
 import static org.eclipse.collections.api.factory.Sets.immutable;
 
@@ -51,6 +52,9 @@ import static org.eclipse.collections.api.factory.Sets.immutable;
  * These values aren't updated transactionally and so the data is just kept in memory and flushed to a {@link GBPTree} on every checkpoint.
  * Neither reads, writes nor checkpoints block each other.
  *
+ * Samples that come with a {@link IndexSample#sketch() sketch} of all values in the index are kept up to date by {@link IncrementalIndexStatistics}
+ * in between samplings. Sketches are only kept in memory, after a restart the statistics of an index are again only updated by its next sampling.
+ *
  * The store is accessible after {@link #init()} has been called.
  */
 public class IndexStatisticsStore extends LifecycleAdapter implements IndexStatisticsVisitor.Visitable, ConsistencyCheckable
@@ -61,6 +65,7 @@ public class IndexStatisticsStore extends LifecycleAdapter implements IndexStati
     private static final IndexStatisticsKey LOWEST_KEY = new IndexStatisticsKey( Long.MIN_VALUE );
     private static final IndexStatisticsKey HIGHEST_KEY = new IndexStatisticsKey( Long.MAX_VALUE );
     private static final String INIT_TAG = "Initialize IndexStatisticsStore";
+    private static final boolean INCREMENTAL_STATISTICS = FeatureToggles.flag( IndexStatisticsStore.class, "incrementalStatistics", true );
 
     private final PageCache pageCache;
     private final Path path;
@@ -72,6 +77,7 @@ public class IndexStatisticsStore extends LifecycleAdapter implements IndexStati
     // Let IndexStatisticsValue be immutable in this map so that checkpoint doesn't have to coordinate with concurrent writers
     // It's assumed that the data in this map will be so small that everything can just be in it always.
     private final ConcurrentHashMap<Long,ImmutableIndexStatistics> cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long,IncrementalIndexStatistics> incrementalStatistics = new ConcurrentHashMap<>();
 
     public IndexStatisticsStore( PageCache pageCache, Path path, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, boolean readOnly,
             PageCacheTracer pageCacheTracer )
@@ -111,18 +117,45 @@ public class IndexStatisticsStore extends LifecycleAdapter implements IndexStati
 
     public IndexSample indexSample( long indexId )
     {
-        ImmutableIndexStatistics value = cache.getOrDefault( indexId, EMPTY_STATISTICS );
+        return indexSample( indexId, cache.getOrDefault( indexId, EMPTY_STATISTICS ) );
+    }
+
+    private IndexSample indexSample( long indexId, ImmutableIndexStatistics value )
+    {
+        IncrementalIndexStatistics incremental = incrementalStatistics.get( indexId );
+        if ( incremental != null )
+        {
+            return incremental.sample( value.updatesCount );
+        }
         return new IndexSample( value.indexSize, value.sampleUniqueValues, value.sampleSize, value.updatesCount );
     }
 
     public void replaceStats( long indexId, IndexSample sample )
     {
         cache.put( indexId, new ImmutableIndexStatistics( sample.uniqueValues(), sample.sampleSize(), sample.updates(), sample.indexSize() ) );
+        if ( INCREMENTAL_STATISTICS && sample.sketch() != null )
+        {
+            incrementalStatistics.put( indexId, new IncrementalIndexStatistics( sample.indexSize(), sample.sketch() ) );
+        }
+        else
+        {
+            incrementalStatistics.remove( indexId );
+        }
+    }
+
+    /**
+     * @return statistics to keep up to date with the updates made to the given index, or {@code null} if the index isn't
+     * sampled in a way that allows for it.
+     */
+    public IncrementalIndexStatistics incrementalStatistics( long indexId )
+    {
+        return incrementalStatistics.get( indexId );
     }
 
     public void removeIndex( long indexId )
     {
         cache.remove( indexId );
+        incrementalStatistics.remove( indexId );
     }
 
     public void incrementIndexUpdates( long indexId, long delta )
@@ -210,9 +243,10 @@ public class IndexStatisticsStore extends LifecycleAdapter implements IndexStati
         {
             for ( Map.Entry<Long,ImmutableIndexStatistics> entry : cache.entrySet() )
             {
-                ImmutableIndexStatistics stats = entry.getValue();
+                // Write the incrementally updated statistics, if any, so that they're not lost on restart
+                IndexSample sample = indexSample( entry.getKey(), entry.getValue() );
                 writer.put( new IndexStatisticsKey( entry.getKey() ),
-                        new IndexStatisticsValue( stats.sampleUniqueValues, stats.sampleSize, stats.updatesCount, stats.indexSize ) );
+                        new IndexStatisticsValue( sample.uniqueValues(), sample.sampleSize(), sample.updates(), sample.indexSize() ) );
             }
         }
     }
@@ -21,14 +21,20 @@ package org.neo4j.kernel.impl.api.index.updater;
 
 import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.kernel.impl.api.index.stats.IncrementalIndexStatistics;
 import org.neo4j.kernel.impl.api.index.stats.IndexStatisticsStore;
 import org.neo4j.storageengine.api.IndexEntryUpdate;
 
+/**
+ * Counts the updates made to an index, which eventually triggers a new sampling of it. If the statistics of the index are kept up to date
+ * {@link IncrementalIndexStatistics incrementally} then only the updates which make those drift are counted.
+ */
 public class UpdateCountingIndexUpdater implements IndexUpdater
 {
     private final IndexStatisticsStore indexStatisticsStore;
     private final long indexId;
     private final IndexUpdater delegate;
+    private final IncrementalIndexStatistics incrementalStatistics;
     private long updates;
 
     public UpdateCountingIndexUpdater( IndexStatisticsStore indexStatisticsStore, long indexId, IndexUpdater delegate )
@@ -36,13 +42,17 @@ public class UpdateCountingIndexUpdater implements IndexUpdater
         this.indexStatisticsStore = indexStatisticsStore;
         this.indexId = indexId;
         this.delegate = delegate;
+        this.incrementalStatistics = indexStatisticsStore.incrementalStatistics( indexId );
     }
 
     @Override
     public void process( IndexEntryUpdate<?> update ) throws IndexEntryConflictException
     {
         delegate.process( update );
-        updates++;
+        if ( incrementalStatistics == null || incrementalStatistics.process( update ) )
+        {
+            updates++;
+        }
     }
 
     @Override
@@ -251,7 +251,8 @@ class NodeStateImpl extends EntityStateImpl implements NodeState
     {
         if ( indexDiffs == null )
         {
-            indexDiffs = HeapTrackingCollections.newIdentityHashingSet( memoryTracker );
+            // Not an identity set, since diff sets of off-heap index updates are views that are equal when they view the same entry
+            indexDiffs = HeapTrackingCollections.newSet( memoryTracker );
         }
         indexDiffs.add( diff );
     }
@@ -0,0 +1,448 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.eclipse.collections.api.IntIterable;
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.impl.factory.primitive.IntSets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import org.neo4j.kernel.impl.util.collection.LongArena;
+import org.neo4j.storageengine.api.PropertyKeyValue;
+import org.neo4j.storageengine.api.StorageProperty;
+import org.neo4j.storageengine.api.txstate.EntityState;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static java.lang.Math.toIntExact;
+
+/**
+ * Off-heap counterpart of {@link EntityStateImpl}s of one kind of entity, keyed by entity id. The state of each entity is a fixed size
+ * record in a {@link LongArena}, holding the entity id, a reference to a list of property changes and the slots specific to the kind of
+ * entity. Lists are blocks in the same arena, holding their size and capacity followed by their entries. A list that is full is copied to
+ * a new block of twice the capacity, leaving the old block unused until the arena is closed. Property values are kept in a
+ * {@link ValuesContainer}.
+ * <p>
+ * The {@link EntityState} views handed out by this class read the records every time they are asked, so they see later changes to the
+ * entity, but they must not be used after the entity has been {@link #remove(long) removed}.
+ */
+abstract class OffHeapEntityRecords
+{
+    static final long NO_RECORD = -1;
+
+    static final int ID = 0;
+    static final int PROPERTIES = 1;
+    static final int FIRST_FREE_SLOT = 2;
+
+    static final int ADDED = 0;
+    static final int CHANGED = 1;
+    static final int REMOVED = 2;
+
+    private static final int SIZE = 0;
+    private static final int CAPACITY = 1;
+    private static final int HEADER = 2;
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int PROPERTY_ENTRY_SIZE = 2;
+
+    final LongArena arena;
+    final ValuesContainer values;
+    private final MutableLongLongMap records;
+    private final int recordSize;
+
+    OffHeapEntityRecords( LongArena arena, ValuesContainer values, MutableLongLongMap records, int recordSize )
+    {
+        this.arena = arena;
+        this.values = values;
+        this.records = records;
+        this.recordSize = recordSize;
+    }
+
+    boolean isEmpty()
+    {
+        return records.isEmpty();
+    }
+
+    /**
+     * @return reference to the record of the entity, or {@link #NO_RECORD} if there's no state for the entity.
+     */
+    long record( long id )
+    {
+        return records.getIfAbsent( id, NO_RECORD );
+    }
+
+    long getOrCreateRecord( long id )
+    {
+        long record = records.getIfAbsent( id, NO_RECORD );
+        if ( record == NO_RECORD )
+        {
+            record = arena.allocate( recordSize );
+            arena.set( record, ID, id );
+            records.put( id, record );
+        }
+        return record;
+    }
+
+    void remove( long id )
+    {
+        records.removeKey( id );
+    }
+
+    /**
+     * @return views of the states of all entities, iterators fail if entities are added or removed while iterating.
+     */
+    <T extends EntityState> Iterable<T> states( LongFunction<T> stateOfRecord )
+    {
+        return () -> new Iterator<>()
+        {
+            private final LongIterator ids = records.longIterator();
+
+            @Override
+            public boolean hasNext()
+            {
+                return ids.hasNext();
+            }
+
+            @Override
+            public T next()
+            {
+                return stateOfRecord.apply( record( ids.next() ) );
+            }
+        };
+    }
+
+    void addProperty( long id, int propertyKeyId, Value value )
+    {
+        final long record = getOrCreateRecord( id );
+        final int index = propertyIndex( record, propertyKeyId );
+        if ( index == -1 )
+        {
+            addPropertyEntry( record, propertyKeyId, ADDED, values.add( value ) );
+        }
+        else if ( propertyState( record, index ) == REMOVED )
+        {
+            // This indicates the user did remove+add as two discrete steps, which should be translated to a single change operation.
+            setPropertyEntry( record, index, propertyKeyId, CHANGED, values.add( value ) );
+        }
+        else
+        {
+            setPropertyEntry( record, index, propertyKeyId, propertyState( record, index ), values.add( value ) );
+        }
+    }
+
+    void changeProperty( long id, int propertyKeyId, Value value )
+    {
+        final long record = getOrCreateRecord( id );
+        final int index = propertyIndex( record, propertyKeyId );
+        if ( index == -1 )
+        {
+            addPropertyEntry( record, propertyKeyId, CHANGED, values.add( value ) );
+        }
+        else
+        {
+            final int state = propertyState( record, index );
+            setPropertyEntry( record, index, propertyKeyId, state == ADDED ? ADDED : CHANGED, values.add( value ) );
+        }
+    }
+
+    void removeProperty( long id, int propertyKeyId )
+    {
+        final long record = getOrCreateRecord( id );
+        final int index = propertyIndex( record, propertyKeyId );
+        if ( index == -1 )
+        {
+            addPropertyEntry( record, propertyKeyId, REMOVED, 0 );
+        }
+        else if ( propertyState( record, index ) == ADDED )
+        {
+            removeEntry( record, PROPERTIES, PROPERTY_ENTRY_SIZE, index );
+        }
+        else
+        {
+            setPropertyEntry( record, index, propertyKeyId, REMOVED, 0 );
+        }
+    }
+
+    /**
+     * Copies the property changes of the entity to the given on-heap state.
+     */
+    void copyProperties( long record, EntityStateImpl state )
+    {
+        final long list = arena.get( record, PROPERTIES );
+        for ( int i = 0, size = listSize( list ); i < size; i++ )
+        {
+            final int propertyKeyId = propertyKey( record, i );
+            switch ( propertyState( record, i ) )
+            {
+            case ADDED:
+                state.addProperty( propertyKeyId, propertyValue( record, i ) );
+                break;
+            case CHANGED:
+                state.changeProperty( propertyKeyId, propertyValue( record, i ) );
+                break;
+            default:
+                state.removeProperty( propertyKeyId );
+                break;
+            }
+        }
+    }
+
+    /**
+     * Appends {@code value} to the list in {@code slot} of the record, creating or growing the list when needed.
+     */
+    void addToList( long record, int slot, long value )
+    {
+        final long entry = appendEntry( record, slot, 1 );
+        arena.set( entry, 0, value );
+    }
+
+    /**
+     * @return index of {@code value} in the list in {@code slot} of the record, or {@code -1} if it isn't in the list.
+     */
+    int indexInList( long record, int slot, long value )
+    {
+        final long list = arena.get( record, slot );
+        for ( int i = 0, size = listSize( list ); i < size; i++ )
+        {
+            if ( arena.get( list, HEADER + i ) == value )
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    long listEntry( long record, int slot, int index )
+    {
+        return arena.get( arena.get( record, slot ), HEADER + index );
+    }
+
+    void setListEntry( long record, int slot, int index, long value )
+    {
+        arena.set( arena.get( record, slot ), HEADER + index, value );
+    }
+
+    int listSize( long record, int slot )
+    {
+        return listSize( arena.get( record, slot ) );
+    }
+
+    boolean hasList( long record, int slot )
+    {
+        return arena.get( record, slot ) != 0;
+    }
+
+    /**
+     * Removes the entry at {@code index} from the list in {@code slot} of the record, by moving the last entry of the list in its place.
+     */
+    void removeFromList( long record, int slot, int index )
+    {
+        removeEntry( record, slot, 1, index );
+    }
+
+    private int listSize( long list )
+    {
+        return list == 0 ? 0 : toIntExact( arena.get( list, SIZE ) );
+    }
+
+    private long appendEntry( long record, int slot, int entrySize )
+    {
+        long list = arena.get( record, slot );
+        if ( list == 0 )
+        {
+            list = arena.allocate( HEADER + INITIAL_CAPACITY * entrySize );
+            arena.set( list, CAPACITY, INITIAL_CAPACITY );
+            arena.set( record, slot, list );
+        }
+        final int size = toIntExact( arena.get( list, SIZE ) );
+        final int capacity = toIntExact( arena.get( list, CAPACITY ) );
+        if ( size == capacity )
+        {
+            final long grown = arena.allocate( HEADER + capacity * 2 * entrySize );
+            for ( int i = 0; i < size * entrySize; i++ )
+            {
+                arena.set( grown, HEADER + i, arena.get( list, HEADER + i ) );
+            }
+            arena.set( grown, CAPACITY, capacity * 2L );
+            arena.set( record, slot, grown );
+            list = grown;
+        }
+        arena.set( list, SIZE, size + 1L );
+        // Reference to the new entry, as if it was a block of its own
+        return list + HEADER + (long) size * entrySize;
+    }
+
+    private void removeEntry( long record, int slot, int entrySize, int index )
+    {
+        final long list = arena.get( record, slot );
+        final int last = toIntExact( arena.get( list, SIZE ) ) - 1;
+        for ( int i = 0; i < entrySize; i++ )
+        {
+            arena.set( list, HEADER + index * entrySize + i, arena.get( list, HEADER + last * entrySize + i ) );
+        }
+        arena.set( list, SIZE, last );
+    }
+
+    private void addPropertyEntry( long record, int propertyKeyId, int state, long valueRef )
+    {
+        final long entry = appendEntry( record, PROPERTIES, PROPERTY_ENTRY_SIZE );
+        arena.set( entry, 0, keyAndState( propertyKeyId, state ) );
+        arena.set( entry, 1, valueRef );
+    }
+
+    private void setPropertyEntry( long record, int index, int propertyKeyId, int state, long valueRef )
+    {
+        final long list = arena.get( record, PROPERTIES );
+        arena.set( list, HEADER + index * PROPERTY_ENTRY_SIZE, keyAndState( propertyKeyId, state ) );
+        arena.set( list, HEADER + index * PROPERTY_ENTRY_SIZE + 1, valueRef );
+    }
+
+    private int propertyIndex( long record, int propertyKeyId )
+    {
+        final long list = arena.get( record, PROPERTIES );
+        for ( int i = 0, size = listSize( list ); i < size; i++ )
+        {
+            if ( (int) arena.get( list, HEADER + i * PROPERTY_ENTRY_SIZE ) == propertyKeyId )
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int propertyKey( long record, int index )
+    {
+        return (int) arena.get( arena.get( record, PROPERTIES ), HEADER + index * PROPERTY_ENTRY_SIZE );
+    }
+
+    private int propertyState( long record, int index )
+    {
+        return (int) (arena.get( arena.get( record, PROPERTIES ), HEADER + index * PROPERTY_ENTRY_SIZE ) >>> 32);
+    }
+
+    private Value propertyValue( long record, int index )
+    {
+        return values.get( arena.get( arena.get( record, PROPERTIES ), HEADER + index * PROPERTY_ENTRY_SIZE + 1 ) );
+    }
+
+    private static long keyAndState( int propertyKeyId, int state )
+    {
+        return ((long) state << 32) | (propertyKeyId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * View of the property changes of an entity, reading them from its record.
+     */
+    abstract class OffHeapEntityState implements EntityState
+    {
+        final long record;
+
+        OffHeapEntityState( long record )
+        {
+            this.record = record;
+        }
+
+        public long getId()
+        {
+            return arena.get( record, ID );
+        }
+
+        @Override
+        public Iterator<StorageProperty> addedProperties()
+        {
+            return properties( ADDED, ADDED );
+        }
+
+        @Override
+        public Iterator<StorageProperty> changedProperties()
+        {
+            return properties( CHANGED, CHANGED );
+        }
+
+        @Override
+        public IntIterable removedProperties()
+        {
+            final MutableIntSet removed = IntSets.mutable.empty();
+            for ( int i = 0, size = listSize( record, PROPERTIES ); i < size; i++ )
+            {
+                if ( propertyState( record, i ) == REMOVED )
+                {
+                    removed.add( propertyKey( record, i ) );
+                }
+            }
+            return removed;
+        }
+
+        @Override
+        public Iterator<StorageProperty> addedAndChangedProperties()
+        {
+            return properties( ADDED, CHANGED );
+        }
+
+        @Override
+        public boolean hasPropertyChanges()
+        {
+            return hasList( record, PROPERTIES );
+        }
+
+        @Override
+        public boolean isPropertyChangedOrRemoved( int propertyKey )
+        {
+            final int index = propertyIndex( record, propertyKey );
+            return index != -1 && propertyState( record, index ) != ADDED;
+        }
+
+        @Override
+        public Value propertyValue( int propertyKey )
+        {
+            final int index = propertyIndex( record, propertyKey );
+            if ( index == -1 )
+            {
+                return null;
+            }
+            return propertyState( record, index ) == REMOVED ? Values.NO_VALUE : OffHeapEntityRecords.this.propertyValue( record, index );
+        }
+
+        private Iterator<StorageProperty> properties( int fromState, int toState )
+        {
+            final int size = listSize( record, PROPERTIES );
+            if ( size == 0 )
+            {
+                return Collections.emptyIterator();
+            }
+            final List<StorageProperty> properties = new ArrayList<>( size );
+            for ( int i = 0; i < size; i++ )
+            {
+                final int state = propertyState( record, i );
+                if ( state >= fromState && state <= toState )
+                {
+                    properties.add( new PropertyKeyValue( propertyKey( record, i ), OffHeapEntityRecords.this.propertyValue( record, i ) ) );
+                }
+            }
+            return properties.iterator();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+
+import java.util.function.Supplier;
+
+import org.neo4j.graphdb.Resource;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.LongArena;
+import org.neo4j.memory.HeapEstimator;
+import org.neo4j.memory.MemoryTracker;
+
+/**
+ * Off-heap states of the nodes and relationships changed in a transaction, and of the index updates these changes cause, used by
+ * {@link TxState} in place of {@link NodeStateImpl}s, {@link RelationshipStateImpl}s and on-heap index update diff sets, to keep the
+ * heap usage of large transactions down. All of them share one {@link LongArena} and the {@link ValuesContainer} of property values.
+ */
+public class OffHeapEntityStates implements Resource
+{
+    private static final long SHALLOW_SIZE = HeapEstimator.shallowSizeOfInstance( OffHeapEntityStates.class ) +
+            HeapEstimator.shallowSizeOfInstance( LongArena.class ) +
+            HeapEstimator.shallowSizeOfInstance( OffHeapNodeRecords.class ) +
+            HeapEstimator.shallowSizeOfInstance( OffHeapRelationshipRecords.class ) +
+            HeapEstimator.shallowSizeOfInstance( OffHeapIndexUpdates.class );
+
+    private final LongArena arena;
+    final OffHeapNodeRecords nodes;
+    final OffHeapRelationshipRecords relationships;
+    final OffHeapIndexUpdates indexUpdates;
+
+    /**
+     * @param arena arena to keep states in, closed along with this instance.
+     * @param values container of property values and indexed values.
+     * @param longLongMaps supplier of off-heap maps, which are closed by whoever supplies them.
+     * @param collectionsFactory factory of the collections that index updates spill over to.
+     */
+    public OffHeapEntityStates( LongArena arena, ValuesContainer values, Supplier<MutableLongLongMap> longLongMaps, CollectionsFactory collectionsFactory,
+            MemoryTracker memoryTracker )
+    {
+        memoryTracker.allocateHeap( SHALLOW_SIZE );
+        this.arena = arena;
+        this.nodes = new OffHeapNodeRecords( arena, values, longLongMaps.get() );
+        this.relationships = new OffHeapRelationshipRecords( arena, values, longLongMaps.get() );
+        this.indexUpdates = new OffHeapIndexUpdates( arena, values, longLongMaps, collectionsFactory, memoryTracker );
+    }
+
+    @Override
+    public void close()
+    {
+        arena.close();
+    }
+}
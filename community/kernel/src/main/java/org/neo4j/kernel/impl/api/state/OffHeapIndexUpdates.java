@@ -0,0 +1,435 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.api.map.MutableMap;
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+import org.eclipse.collections.impl.factory.primitive.LongSets;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import org.neo4j.internal.schema.SchemaDescriptor;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.LongArena;
+import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSets;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.storageengine.api.txstate.LongDiffSets;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.ValueTuple;
+
+import static org.neo4j.collection.trackable.HeapTrackingCollections.newLongObjectMap;
+import static org.neo4j.collection.trackable.HeapTrackingCollections.newMap;
+import static org.neo4j.kernel.impl.util.diffsets.TrackableDiffSets.newMutableLongDiffSets;
+
+/**
+ * Off-heap counterpart of the maps from {@link ValueTuple} to {@link MutableLongDiffSets} that {@link TxState} keeps index updates in.
+ * <p>
+ * Each distinct value tuple of a schema is an entry in a {@link LongArena}, holding a reference to the next entry with the same hash,
+ * the entity added for and the entity removed from the value tuple, and references to the values in a {@link ValuesContainer}.
+ * Entries are found by the hash of their value tuple in an off-heap map of the first entry for each hash. Entries never go away,
+ * like the on-heap diff sets of {@link TxState} don't, and references to them can be kept in {@link OffHeapNodeRecords}.
+ * <p>
+ * Most value tuples are only added for, or removed from, a single entity in a transaction. When a second entity is added or removed,
+ * the entry spills over to an on-heap {@link MutableLongDiffSets}, with sets created by the {@link CollectionsFactory}.
+ */
+class OffHeapIndexUpdates
+{
+    private static final int NEXT = 0;
+    private static final int ADDED = 1;
+    private static final int REMOVED = 2;
+    private static final int VALUES = 3;
+
+    // Added and removed entities are kept as their id plus one, so that zero means none
+    private static final long NONE = 0;
+    private static final long SPILLED = -1;
+
+    private final LongArena arena;
+    private final ValuesContainer values;
+    private final Supplier<MutableLongLongMap> longLongMaps;
+    private final CollectionsFactory collectionsFactory;
+    private final MemoryTracker memoryTracker;
+    private final MutableMap<SchemaDescriptor,Updates> updatesBySchema;
+    private MutableLongObjectMap<MutableLongDiffSets> spilled;
+
+    OffHeapIndexUpdates( LongArena arena, ValuesContainer values, Supplier<MutableLongLongMap> longLongMaps, CollectionsFactory collectionsFactory,
+            MemoryTracker memoryTracker )
+    {
+        this.arena = arena;
+        this.values = values;
+        this.longLongMaps = longLongMaps;
+        this.collectionsFactory = collectionsFactory;
+        this.memoryTracker = memoryTracker;
+        this.updatesBySchema = newMap( memoryTracker );
+    }
+
+    /**
+     * @return reference to the entry of the value tuple in the updates of the schema, created if there was none.
+     */
+    long getOrCreateEntry( SchemaDescriptor schema, ValueTuple valueTuple )
+    {
+        return updatesBySchema.getIfAbsentPut( schema, () -> new Updates( longLongMaps.get(), schema.getPropertyIds().length ) ).getOrCreateEntry( valueTuple );
+    }
+
+    /**
+     * @return the updates of the schema, or {@code null} if there are none.
+     */
+    Map<ValueTuple,? extends LongDiffSets> updates( SchemaDescriptor schema )
+    {
+        return updatesBySchema.get( schema );
+    }
+
+    /**
+     * @return the updates of the schema sorted by value tuple, or {@code null} if there are none. The map is a snapshot of the value tuples
+     * that have updates, but the diff sets in it see later updates.
+     */
+    NavigableMap<ValueTuple,? extends LongDiffSets> sortedUpdates( SchemaDescriptor schema )
+    {
+        final Updates updates = updatesBySchema.get( schema );
+        return updates == null ? null : updates.sorted();
+    }
+
+    /**
+     * @return diff sets view of the entry. Views of the same entry are equal.
+     */
+    MutableLongDiffSets diffSets( long entry )
+    {
+        return new EntryDiffSets( entry );
+    }
+
+    void add( long entry, long id )
+    {
+        final long added = arena.get( entry, ADDED );
+        if ( added == SPILLED )
+        {
+            spilled.get( entry ).add( id );
+            return;
+        }
+        if ( arena.get( entry, REMOVED ) == id + 1 )
+        {
+            arena.set( entry, REMOVED, NONE );
+        }
+        else if ( added == NONE || added == id + 1 )
+        {
+            arena.set( entry, ADDED, id + 1 );
+        }
+        else
+        {
+            spill( entry ).add( id );
+        }
+    }
+
+    boolean remove( long entry, long id )
+    {
+        final long added = arena.get( entry, ADDED );
+        if ( added == SPILLED )
+        {
+            return spilled.get( entry ).remove( id );
+        }
+        if ( added == id + 1 )
+        {
+            arena.set( entry, ADDED, NONE );
+            return true;
+        }
+        final long removed = arena.get( entry, REMOVED );
+        if ( removed == NONE )
+        {
+            arena.set( entry, REMOVED, id + 1 );
+            return true;
+        }
+        if ( removed == id + 1 )
+        {
+            return false;
+        }
+        return spill( entry ).remove( id );
+    }
+
+    boolean isAdded( long entry, long id )
+    {
+        final long added = arena.get( entry, ADDED );
+        return added == SPILLED ? spilled.get( entry ).isAdded( id ) : added == id + 1;
+    }
+
+    boolean isRemoved( long entry, long id )
+    {
+        return arena.get( entry, ADDED ) == SPILLED ? spilled.get( entry ).isRemoved( id ) : arena.get( entry, REMOVED ) == id + 1;
+    }
+
+    /**
+     * Takes back the update of the entity for the entry, like {@link NodeStateImpl#clearIndexDiffs(long)} does.
+     */
+    void undo( long entry, long id )
+    {
+        if ( isAdded( entry, id ) )
+        {
+            remove( entry, id );
+        }
+        else if ( isRemoved( entry, id ) )
+        {
+            add( entry, id );
+        }
+    }
+
+    private MutableLongDiffSets spill( long entry )
+    {
+        final MutableLongDiffSets diffSets = newMutableLongDiffSets( collectionsFactory, memoryTracker );
+        final long added = arena.get( entry, ADDED );
+        final long removed = arena.get( entry, REMOVED );
+        if ( added != NONE )
+        {
+            diffSets.add( added - 1 );
+        }
+        if ( removed != NONE )
+        {
+            diffSets.remove( removed - 1 );
+        }
+        arena.set( entry, ADDED, SPILLED );
+        if ( spilled == null )
+        {
+            spilled = newLongObjectMap( memoryTracker );
+        }
+        spilled.put( entry, diffSets );
+        return diffSets;
+    }
+
+    private LongSet singleton( long entry, int slot )
+    {
+        final long id = arena.get( entry, slot );
+        return id == NONE ? LongSets.immutable.empty() : LongSets.immutable.of( id - 1 );
+    }
+
+    private class Updates extends AbstractMap<ValueTuple,LongDiffSets>
+    {
+        private final MutableLongLongMap firstEntryByHash;
+        private final int numberOfValues;
+        private int size;
+        private TreeMap<ValueTuple,LongDiffSets> sorted;
+
+        Updates( MutableLongLongMap firstEntryByHash, int numberOfValues )
+        {
+            this.firstEntryByHash = firstEntryByHash;
+            this.numberOfValues = numberOfValues;
+        }
+
+        long getOrCreateEntry( ValueTuple valueTuple )
+        {
+            final long hash = valueTuple.hashCode();
+            final long first = firstEntryByHash.getIfAbsent( hash, 0 );
+            for ( long entry = first; entry != 0; entry = arena.get( entry, NEXT ) )
+            {
+                if ( matches( entry, valueTuple ) )
+                {
+                    return entry;
+                }
+            }
+            final long entry = arena.allocate( VALUES + valueTuple.size() );
+            arena.set( entry, NEXT, first );
+            for ( int i = 0; i < valueTuple.size(); i++ )
+            {
+                arena.set( entry, VALUES + i, values.add( valueTuple.valueAt( i ) ) );
+            }
+            firstEntryByHash.put( hash, entry );
+            size++;
+            return entry;
+        }
+
+        @Override
+        public LongDiffSets get( Object key )
+        {
+            final long entry = find( key );
+            return entry == 0 ? null : diffSets( entry );
+        }
+
+        @Override
+        public boolean containsKey( Object key )
+        {
+            return find( key ) != 0;
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<ValueTuple,LongDiffSets>> entrySet()
+        {
+            final MutableLongList entries = LongLists.mutable.withInitialCapacity( size );
+            firstEntryByHash.forEachValue( first ->
+            {
+                for ( long entry = first; entry != 0; entry = arena.get( entry, NEXT ) )
+                {
+                    entries.add( entry );
+                }
+            } );
+            return new AbstractSet<>()
+            {
+                @Override
+                public Iterator<Entry<ValueTuple,LongDiffSets>> iterator()
+                {
+                    return entries.asLazy().<Entry<ValueTuple,LongDiffSets>>collect(
+                            entry -> new SimpleImmutableEntry<>( valueTuple( entry ), diffSets( entry ) ) ).iterator();
+                }
+
+                @Override
+                public int size()
+                {
+                    return entries.size();
+                }
+            };
+        }
+
+        NavigableMap<ValueTuple,LongDiffSets> sorted()
+        {
+            if ( sorted == null || sorted.size() != size )
+            {
+                sorted = new TreeMap<>( ValueTuple.COMPARATOR );
+                sorted.putAll( this );
+            }
+            return Collections.unmodifiableNavigableMap( sorted );
+        }
+
+        private long find( Object key )
+        {
+            if ( !(key instanceof ValueTuple) )
+            {
+                return 0;
+            }
+            final ValueTuple valueTuple = (ValueTuple) key;
+            for ( long entry = firstEntryByHash.getIfAbsent( valueTuple.hashCode(), 0 ); entry != 0; entry = arena.get( entry, NEXT ) )
+            {
+                if ( matches( entry, valueTuple ) )
+                {
+                    return entry;
+                }
+            }
+            return 0;
+        }
+
+        private boolean matches( long entry, ValueTuple valueTuple )
+        {
+            for ( int i = 0; i < valueTuple.size(); i++ )
+            {
+                if ( !values.get( arena.get( entry, VALUES + i ) ).equals( valueTuple.valueAt( i ) ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private ValueTuple valueTuple( long entry )
+        {
+            final Value[] tuple = new Value[numberOfValues];
+            for ( int i = 0; i < tuple.length; i++ )
+            {
+                tuple[i] = values.get( arena.get( entry, VALUES + i ) );
+            }
+            return ValueTuple.of( tuple );
+        }
+    }
+
+    private class EntryDiffSets implements MutableLongDiffSets
+    {
+        private final long entry;
+
+        EntryDiffSets( long entry )
+        {
+            this.entry = entry;
+        }
+
+        @Override
+        public void add( long element )
+        {
+            OffHeapIndexUpdates.this.add( entry, element );
+        }
+
+        @Override
+        public boolean remove( long element )
+        {
+            return OffHeapIndexUpdates.this.remove( entry, element );
+        }
+
+        @Override
+        public boolean isAdded( long element )
+        {
+            return OffHeapIndexUpdates.this.isAdded( entry, element );
+        }
+
+        @Override
+        public boolean isRemoved( long element )
+        {
+            return OffHeapIndexUpdates.this.isRemoved( entry, element );
+        }
+
+        @Override
+        public LongSet getAdded()
+        {
+            return arena.get( entry, ADDED ) == SPILLED ? spilled.get( entry ).getAdded() : singleton( entry, ADDED );
+        }
+
+        @Override
+        public LongSet getRemoved()
+        {
+            return arena.get( entry, ADDED ) == SPILLED ? spilled.get( entry ).getRemoved() : singleton( entry, REMOVED );
+        }
+
+        @Override
+        public boolean isEmpty()
+        {
+            return getAdded().isEmpty() && getRemoved().isEmpty();
+        }
+
+        @Override
+        public int delta()
+        {
+            return getAdded().size() - getRemoved().size();
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            return o instanceof EntryDiffSets && ((EntryDiffSets) o).entry == entry && ((EntryDiffSets) o).owner() == OffHeapIndexUpdates.this;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Long.hashCode( entry );
+        }
+
+        private OffHeapIndexUpdates owner()
+        {
+            return OffHeapIndexUpdates.this;
+        }
+    }
+}
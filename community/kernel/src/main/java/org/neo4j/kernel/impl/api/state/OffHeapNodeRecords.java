@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.eclipse.collections.api.IntIterable;
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.factory.primitive.IntSets;
+import org.eclipse.collections.impl.factory.primitive.LongSets;
+import org.eclipse.collections.impl.iterator.ImmutableEmptyLongIterator;
+
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.impl.util.collection.LongArena;
+import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSets;
+import org.neo4j.storageengine.api.RelationshipDirection;
+import org.neo4j.storageengine.api.txstate.LongDiffSets;
+import org.neo4j.storageengine.api.txstate.NodeState;
+
+/**
+ * Off-heap counterpart of {@link NodeStateImpl}s, for nodes that have property, label and index changes. Nodes that get relationships
+ * added or removed have their state moved to a {@link NodeStateImpl}, see {@link #moveTo(long, NodeStateImpl, OffHeapIndexUpdates)}.
+ */
+class OffHeapNodeRecords extends OffHeapEntityRecords
+{
+    private static final int ADDED_LABELS = FIRST_FREE_SLOT;
+    private static final int REMOVED_LABELS = FIRST_FREE_SLOT + 1;
+    private static final int INDEX_ENTRIES = FIRST_FREE_SLOT + 2;
+    private static final int RECORD_SIZE = FIRST_FREE_SLOT + 3;
+
+    OffHeapNodeRecords( LongArena arena, ValuesContainer values, MutableLongLongMap records )
+    {
+        super( arena, values, records, RECORD_SIZE );
+    }
+
+    NodeState nodeState( long record )
+    {
+        return new OffHeapNodeState( record );
+    }
+
+    Iterable<NodeState> nodeStates()
+    {
+        return states( this::nodeState );
+    }
+
+    void addLabel( long id, long labelId )
+    {
+        final long record = getOrCreateRecord( id );
+        final int removedIndex = indexInList( record, REMOVED_LABELS, labelId );
+        if ( removedIndex != -1 )
+        {
+            removeFromList( record, REMOVED_LABELS, removedIndex );
+        }
+        else if ( indexInList( record, ADDED_LABELS, labelId ) == -1 )
+        {
+            addToList( record, ADDED_LABELS, labelId );
+        }
+    }
+
+    void removeLabel( long id, long labelId )
+    {
+        final long record = getOrCreateRecord( id );
+        final int addedIndex = indexInList( record, ADDED_LABELS, labelId );
+        if ( addedIndex != -1 )
+        {
+            removeFromList( record, ADDED_LABELS, addedIndex );
+        }
+        else if ( indexInList( record, REMOVED_LABELS, labelId ) == -1 )
+        {
+            addToList( record, REMOVED_LABELS, labelId );
+        }
+    }
+
+    /**
+     * Counterpart of {@link NodeStateImpl#addIndexDiff(MutableLongDiffSets)}, for an entry in {@link OffHeapIndexUpdates}.
+     */
+    void addIndexEntry( long id, long entry )
+    {
+        final long record = getOrCreateRecord( id );
+        if ( indexInList( record, INDEX_ENTRIES, entry ) == -1 )
+        {
+            addToList( record, INDEX_ENTRIES, entry );
+        }
+    }
+
+    /**
+     * Counterpart of {@link NodeStateImpl#removeIndexDiff(MutableLongDiffSets)}, for an entry in {@link OffHeapIndexUpdates}.
+     */
+    void removeIndexEntry( long id, long entry )
+    {
+        final long record = record( id );
+        if ( record != NO_RECORD )
+        {
+            final int index = indexInList( record, INDEX_ENTRIES, entry );
+            if ( index != -1 )
+            {
+                removeFromList( record, INDEX_ENTRIES, index );
+            }
+        }
+    }
+
+    /**
+     * Counterpart of {@link NodeStateImpl#clearIndexDiffs(long)}.
+     */
+    void clearIndexEntries( long record, long id, OffHeapIndexUpdates indexUpdates )
+    {
+        for ( int i = 0, size = listSize( record, INDEX_ENTRIES ); i < size; i++ )
+        {
+            indexUpdates.undo( listEntry( record, INDEX_ENTRIES, i ), id );
+        }
+    }
+
+    /**
+     * Moves the state of the node, if it has any, to the given on-heap state.
+     */
+    void moveTo( long id, NodeStateImpl state, OffHeapIndexUpdates indexUpdates )
+    {
+        final long record = record( id );
+        if ( record == NO_RECORD )
+        {
+            return;
+        }
+        copyProperties( record, state );
+        if ( hasList( record, ADDED_LABELS ) || hasList( record, REMOVED_LABELS ) )
+        {
+            final MutableLongDiffSets labels = state.getOrCreateLabelDiffSets();
+            for ( int i = 0, size = listSize( record, ADDED_LABELS ); i < size; i++ )
+            {
+                labels.add( listEntry( record, ADDED_LABELS, i ) );
+            }
+            for ( int i = 0, size = listSize( record, REMOVED_LABELS ); i < size; i++ )
+            {
+                labels.remove( listEntry( record, REMOVED_LABELS, i ) );
+            }
+        }
+        for ( int i = 0, size = listSize( record, INDEX_ENTRIES ); i < size; i++ )
+        {
+            state.addIndexDiff( indexUpdates.diffSets( listEntry( record, INDEX_ENTRIES, i ) ) );
+        }
+        remove( id );
+    }
+
+    private LongSet labels( long record, int slot )
+    {
+        final int size = listSize( record, slot );
+        if ( size == 0 )
+        {
+            return LongSets.immutable.empty();
+        }
+        final MutableLongSet labels = LongSets.mutable.empty();
+        for ( int i = 0; i < size; i++ )
+        {
+            labels.add( listEntry( record, slot, i ) );
+        }
+        return labels;
+    }
+
+    private class OffHeapNodeState extends OffHeapEntityState implements NodeState
+    {
+        OffHeapNodeState( long record )
+        {
+            super( record );
+        }
+
+        @Override
+        public LongDiffSets labelDiffSets()
+        {
+            if ( !hasList( record, ADDED_LABELS ) && !hasList( record, REMOVED_LABELS ) )
+            {
+                return LongDiffSets.EMPTY;
+            }
+            return new LongDiffSets()
+            {
+                @Override
+                public boolean isAdded( long element )
+                {
+                    return indexInList( record, ADDED_LABELS, element ) != -1;
+                }
+
+                @Override
+                public boolean isRemoved( long element )
+                {
+                    return indexInList( record, REMOVED_LABELS, element ) != -1;
+                }
+
+                @Override
+                public LongSet getAdded()
+                {
+                    return labels( record, ADDED_LABELS );
+                }
+
+                @Override
+                public LongSet getRemoved()
+                {
+                    return labels( record, REMOVED_LABELS );
+                }
+
+                @Override
+                public boolean isEmpty()
+                {
+                    return listSize( record, ADDED_LABELS ) == 0 && listSize( record, REMOVED_LABELS ) == 0;
+                }
+
+                @Override
+                public int delta()
+                {
+                    return listSize( record, ADDED_LABELS ) - listSize( record, REMOVED_LABELS );
+                }
+            };
+        }
+
+        @Override
+        public int augmentDegree( RelationshipDirection direction, int degree, int typeId )
+        {
+            return degree;
+        }
+
+        @Override
+        public LongIterator getAddedRelationships()
+        {
+            return ImmutableEmptyLongIterator.INSTANCE;
+        }
+
+        @Override
+        public LongIterator getAddedRelationships( Direction direction )
+        {
+            return ImmutableEmptyLongIterator.INSTANCE;
+        }
+
+        @Override
+        public LongIterator getAddedRelationships( Direction direction, int relType )
+        {
+            return ImmutableEmptyLongIterator.INSTANCE;
+        }
+
+        @Override
+        public IntIterable getAddedRelationshipTypes()
+        {
+            return IntSets.immutable.empty();
+        }
+
+        @Override
+        public IntIterable getAddedAndRemovedRelationshipTypes()
+        {
+            return IntSets.immutable.empty();
+        }
+    }
+}
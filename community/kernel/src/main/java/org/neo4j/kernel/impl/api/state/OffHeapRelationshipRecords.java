@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+
+import org.neo4j.kernel.impl.util.collection.LongArena;
+import org.neo4j.storageengine.api.RelationshipVisitor;
+import org.neo4j.storageengine.api.txstate.RelationshipState;
+
+/**
+ * Off-heap counterpart of {@link RelationshipStateImpl}s.
+ */
+class OffHeapRelationshipRecords extends OffHeapEntityRecords
+{
+    private static final int START_NODE = FIRST_FREE_SLOT;
+    private static final int END_NODE = FIRST_FREE_SLOT + 1;
+    // Holds the type plus one, so that the zero of a new record means that the relationship has no meta data
+    private static final int TYPE = FIRST_FREE_SLOT + 2;
+    private static final int RECORD_SIZE = FIRST_FREE_SLOT + 3;
+
+    OffHeapRelationshipRecords( LongArena arena, ValuesContainer values, MutableLongLongMap records )
+    {
+        super( arena, values, records, RECORD_SIZE );
+    }
+
+    RelationshipState relationshipState( long record )
+    {
+        return new OffHeapRelationshipState( record );
+    }
+
+    Iterable<RelationshipState> relationshipStates()
+    {
+        return states( this::relationshipState );
+    }
+
+    void setMetaData( long id, long startNode, long endNode, int type )
+    {
+        final long record = getOrCreateRecord( id );
+        arena.set( record, START_NODE, startNode );
+        arena.set( record, END_NODE, endNode );
+        arena.set( record, TYPE, type + 1L );
+    }
+
+    private class OffHeapRelationshipState extends OffHeapEntityState implements RelationshipState
+    {
+        OffHeapRelationshipState( long record )
+        {
+            super( record );
+        }
+
+        @Override
+        public <EX extends Exception> boolean accept( RelationshipVisitor<EX> visitor ) throws EX
+        {
+            final long type = arena.get( record, TYPE );
+            if ( type != 0 )
+            {
+                visitor.visit( getId(), (int) (type - 1), arena.get( record, START_NODE ), arena.get( record, END_NODE ) );
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -105,6 +105,13 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
 
     private MutableMap<SchemaDescriptor, Map<ValueTuple, MutableLongDiffSets>> indexUpdates;
 
+    /**
+     * Node and relationship states and index updates kept off-heap, if the {@link CollectionsFactory} provides for that. States of nodes
+     * with relationship changes are still kept on-heap, in {@link #nodeStatesMap}.
+     */
+    private OffHeapEntityStates offHeapEntityStates;
+    private boolean offHeapEntityStatesRequested;
+
     private final MemoryTracker memoryTracker;
     private long revision;
     private long dataRevision;
@@ -217,7 +224,12 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public Iterable<NodeState> modifiedNodes()
     {
-        return nodeStatesMap == null ? Iterables.empty() : Iterables.cast( nodeStatesMap.values() );
+        final Iterable<NodeState> onHeap = nodeStatesMap == null ? Iterables.empty() : Iterables.cast( nodeStatesMap.values() );
+        if ( offHeapEntityStates == null || offHeapEntityStates.nodes.isEmpty() )
+        {
+            return onHeap;
+        }
+        return Iterables.concat( onHeap, offHeapEntityStates.nodes.nodeStates() );
     }
 
     @VisibleForTesting
@@ -262,6 +274,31 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         return getOrCreateNodeState( nodeId ).getOrCreateLabelDiffSets();
     }
 
+    /**
+     * @return off-heap states, or {@code null} if entity states should be kept on-heap, or if there is an on-heap state for the given node.
+     */
+    private OffHeapEntityStates offHeapStatesForNode( long nodeId )
+    {
+        if ( nodeStatesMap != null && nodeStatesMap.containsKey( nodeId ) )
+        {
+            return null;
+        }
+        return offHeapEntityStates();
+    }
+
+    /**
+     * @return off-heap states, or {@code null} if entity states should be kept on-heap.
+     */
+    private OffHeapEntityStates offHeapEntityStates()
+    {
+        if ( !offHeapEntityStatesRequested )
+        {
+            offHeapEntityStatesRequested = true;
+            offHeapEntityStates = collectionsFactory.newEntityStates( memoryTracker );
+        }
+        return offHeapEntityStates;
+    }
+
     @Override
     public boolean nodeIsAddedInThisTx( long nodeId )
     {
@@ -308,6 +345,17 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
                 nodeState.clear();
             }
         }
+        if ( offHeapEntityStates != null )
+        {
+            final OffHeapNodeRecords nodeRecords = offHeapEntityStates.nodes;
+            final long record = nodeRecords.record( nodeId );
+            if ( record != OffHeapNodeRecords.NO_RECORD )
+            {
+                nodeRecords.nodeState( record ).labelDiffSets().getAdded().each( label -> getOrCreateLabelStateNodeDiffSets( label ).remove( nodeId ) );
+                nodeRecords.clearIndexEntries( record, nodeId, offHeapEntityStates.indexUpdates );
+                nodeRecords.remove( nodeId );
+            }
+        }
         dataChanged();
     }
 
@@ -326,7 +374,15 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
             getOrCreateNodeState( endNodeId ).addRelationship( id, relationshipTypeId, RelationshipDirection.INCOMING );
         }
 
-        getOrCreateRelationshipState( id ).setMetaData( startNodeId, endNodeId, relationshipTypeId );
+        final OffHeapEntityStates offHeapStates = offHeapEntityStates();
+        if ( offHeapStates != null )
+        {
+            offHeapStates.relationships.setMetaData( id, startNodeId, endNodeId, relationshipTypeId );
+        }
+        else
+        {
+            getOrCreateRelationshipState( id ).setMetaData( startNodeId, endNodeId, relationshipTypeId );
+        }
         getOrCreateTypeStateRelationshipDiffSets( relationshipTypeId ).add( id );
 
         dataChanged();
@@ -361,6 +417,10 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
                 removed.clear();
             }
         }
+        if ( offHeapEntityStates != null )
+        {
+            offHeapEntityStates.relationships.remove( id );
+        }
         getOrCreateTypeStateRelationshipDiffSets( type ).remove( id );
 
         dataChanged();
@@ -381,15 +441,31 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public void nodeDoAddProperty( long nodeId, int newPropertyKeyId, Value value )
     {
-        NodeStateImpl nodeState = getOrCreateNodeState( nodeId );
-        nodeState.addProperty( newPropertyKeyId, value );
+        final OffHeapEntityStates offHeapStates = offHeapStatesForNode( nodeId );
+        if ( offHeapStates != null )
+        {
+            offHeapStates.nodes.addProperty( nodeId, newPropertyKeyId, value );
+        }
+        else
+        {
+            NodeStateImpl nodeState = getOrCreateNodeState( nodeId );
+            nodeState.addProperty( newPropertyKeyId, value );
+        }
         dataChanged();
     }
 
     @Override
     public void nodeDoChangeProperty( long nodeId, int propertyKeyId, Value newValue )
     {
-        getOrCreateNodeState( nodeId ).changeProperty( propertyKeyId, newValue );
+        final OffHeapEntityStates offHeapStates = offHeapStatesForNode( nodeId );
+        if ( offHeapStates != null )
+        {
+            offHeapStates.nodes.changeProperty( nodeId, propertyKeyId, newValue );
+        }
+        else
+        {
+            getOrCreateNodeState( nodeId ).changeProperty( propertyKeyId, newValue );
+        }
         dataChanged();
     }
 
@@ -397,7 +473,19 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     public void relationshipDoReplaceProperty( long relationshipId, int propertyKeyId, Value replacedValue,
             Value newValue )
     {
-        if ( replacedValue != NO_VALUE )
+        final OffHeapEntityStates offHeapStates = offHeapEntityStates();
+        if ( offHeapStates != null )
+        {
+            if ( replacedValue != NO_VALUE )
+            {
+                offHeapStates.relationships.changeProperty( relationshipId, propertyKeyId, newValue );
+            }
+            else
+            {
+                offHeapStates.relationships.addProperty( relationshipId, propertyKeyId, newValue );
+            }
+        }
+        else if ( replacedValue != NO_VALUE )
         {
             getOrCreateRelationshipState( relationshipId ).changeProperty( propertyKeyId, newValue );
         }
@@ -411,14 +499,30 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public void nodeDoRemoveProperty( long nodeId, int propertyKeyId )
     {
-        getOrCreateNodeState( nodeId ).removeProperty( propertyKeyId );
+        final OffHeapEntityStates offHeapStates = offHeapStatesForNode( nodeId );
+        if ( offHeapStates != null )
+        {
+            offHeapStates.nodes.removeProperty( nodeId, propertyKeyId );
+        }
+        else
+        {
+            getOrCreateNodeState( nodeId ).removeProperty( propertyKeyId );
+        }
         dataChanged();
     }
 
     @Override
     public void relationshipDoRemoveProperty( long relationshipId, int propertyKeyId )
     {
-        getOrCreateRelationshipState( relationshipId ).removeProperty( propertyKeyId );
+        final OffHeapEntityStates offHeapStates = offHeapEntityStates();
+        if ( offHeapStates != null )
+        {
+            offHeapStates.relationships.removeProperty( relationshipId, propertyKeyId );
+        }
+        else
+        {
+            getOrCreateRelationshipState( relationshipId ).removeProperty( propertyKeyId );
+        }
         dataChanged();
     }
 
@@ -426,7 +530,15 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     public void nodeDoAddLabel( long labelId, long nodeId )
     {
         getOrCreateLabelStateNodeDiffSets( labelId ).add( nodeId );
-        getOrCreateNodeStateLabelDiffSets( nodeId ).add( labelId );
+        final OffHeapEntityStates offHeapStates = offHeapStatesForNode( nodeId );
+        if ( offHeapStates != null )
+        {
+            offHeapStates.nodes.addLabel( nodeId, labelId );
+        }
+        else
+        {
+            getOrCreateNodeStateLabelDiffSets( nodeId ).add( labelId );
+        }
         dataChanged();
     }
 
@@ -434,7 +546,15 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     public void nodeDoRemoveLabel( long labelId, long nodeId )
     {
         getOrCreateLabelStateNodeDiffSets( labelId ).remove( nodeId );
-        getOrCreateNodeStateLabelDiffSets( nodeId ).remove( labelId );
+        final OffHeapEntityStates offHeapStates = offHeapStatesForNode( nodeId );
+        if ( offHeapStates != null )
+        {
+            offHeapStates.nodes.removeLabel( nodeId, labelId );
+        }
+        else
+        {
+            getOrCreateNodeStateLabelDiffSets( nodeId ).remove( labelId );
+        }
         dataChanged();
     }
 
@@ -475,23 +595,39 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public NodeState getNodeState( long id )
     {
-        if ( nodeStatesMap == null )
+        final NodeState nodeState = nodeStatesMap == null ? null : nodeStatesMap.get( id );
+        if ( nodeState != null )
+        {
+            return nodeState;
+        }
+        if ( offHeapEntityStates != null )
         {
-            return NodeStateImpl.EMPTY;
+            final long record = offHeapEntityStates.nodes.record( id );
+            if ( record != OffHeapNodeRecords.NO_RECORD )
+            {
+                return offHeapEntityStates.nodes.nodeState( record );
+            }
         }
-        final NodeState nodeState = nodeStatesMap.get( id );
-        return nodeState == null ? NodeStateImpl.EMPTY : nodeState;
+        return NodeStateImpl.EMPTY;
     }
 
     @Override
     public RelationshipState getRelationshipState( long id )
     {
-        if ( relationshipStatesMap == null )
+        final RelationshipState relationshipState = relationshipStatesMap == null ? null : relationshipStatesMap.get( id );
+        if ( relationshipState != null )
         {
-            return RelationshipStateImpl.EMPTY;
+            return relationshipState;
+        }
+        if ( offHeapEntityStates != null )
+        {
+            final long record = offHeapEntityStates.relationships.record( id );
+            if ( record != OffHeapRelationshipRecords.NO_RECORD )
+            {
+                return offHeapEntityStates.relationships.relationshipState( record );
+            }
         }
-        final RelationshipStateImpl relationshipState = relationshipStatesMap.get( id );
-        return relationshipState == null ? RelationshipStateImpl.EMPTY : relationshipState;
+        return RelationshipStateImpl.EMPTY;
     }
 
     @Override
@@ -613,7 +749,12 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public Iterable<RelationshipState> modifiedRelationships()
     {
-        return relationshipStatesMap == null ? Iterables.empty() : Iterables.cast( relationshipStatesMap.values() );
+        final Iterable<RelationshipState> onHeap = relationshipStatesMap == null ? Iterables.empty() : Iterables.cast( relationshipStatesMap.values() );
+        if ( offHeapEntityStates == null || offHeapEntityStates.relationships.isEmpty() )
+        {
+            return onHeap;
+        }
+        return Iterables.concat( onHeap, offHeapEntityStates.relationships.relationshipStates() );
     }
 
     @VisibleForTesting
@@ -725,6 +866,11 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     @Nullable
     public UnmodifiableMap<ValueTuple, ? extends LongDiffSets> getIndexUpdates( SchemaDescriptor schema )
     {
+        if ( offHeapEntityStates != null )
+        {
+            final Map<ValueTuple,? extends LongDiffSets> updates = offHeapEntityStates.indexUpdates.updates( schema );
+            return updates == null ? null : new UnmodifiableMap<>( updates );
+        }
         if ( indexUpdates == null )
         {
             return null;
@@ -742,6 +888,10 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     @Nullable
     public NavigableMap<ValueTuple, ? extends LongDiffSets> getSortedIndexUpdates( SchemaDescriptor descriptor )
     {
+        if ( offHeapEntityStates != null )
+        {
+            return offHeapEntityStates.indexUpdates.sortedUpdates( descriptor );
+        }
         if ( indexUpdates == null )
         {
             return null;
@@ -769,6 +919,11 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
     public void indexDoUpdateEntry( SchemaDescriptor descriptor, long nodeId,
             ValueTuple propertiesBefore, ValueTuple propertiesAfter )
     {
+        if ( offHeapEntityStates() != null )
+        {
+            offHeapIndexDoUpdateEntry( descriptor, nodeId, propertiesBefore, propertiesAfter );
+            return;
+        }
         NodeStateImpl nodeState = getOrCreateNodeState( nodeId );
         Map<ValueTuple, MutableLongDiffSets> updates = getOrCreateIndexUpdatesByDescriptor( descriptor );
         if ( propertiesBefore != null )
@@ -799,6 +954,48 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
         }
     }
 
+    private void offHeapIndexDoUpdateEntry( SchemaDescriptor descriptor, long nodeId, ValueTuple propertiesBefore, ValueTuple propertiesAfter )
+    {
+        final OffHeapIndexUpdates updates = offHeapEntityStates.indexUpdates;
+        if ( propertiesBefore != null )
+        {
+            final long before = updates.getOrCreateEntry( descriptor, propertiesBefore );
+            updates.remove( before, nodeId );
+            offHeapIndexDiff( nodeId, before, updates.isRemoved( before, nodeId ) );
+        }
+        if ( propertiesAfter != null )
+        {
+            final long after = updates.getOrCreateEntry( descriptor, propertiesAfter );
+            updates.add( after, nodeId );
+            offHeapIndexDiff( nodeId, after, updates.isAdded( after, nodeId ) );
+        }
+    }
+
+    private void offHeapIndexDiff( long nodeId, long entry, boolean updated )
+    {
+        final NodeStateImpl nodeState = nodeStatesMap == null ? null : nodeStatesMap.get( nodeId );
+        if ( nodeState != null )
+        {
+            final MutableLongDiffSets diff = offHeapEntityStates.indexUpdates.diffSets( entry );
+            if ( updated )
+            {
+                nodeState.addIndexDiff( diff );
+            }
+            else
+            {
+                nodeState.removeIndexDiff( diff );
+            }
+        }
+        else if ( updated )
+        {
+            offHeapEntityStates.nodes.addIndexEntry( nodeId, entry );
+        }
+        else
+        {
+            offHeapEntityStates.nodes.removeIndexEntry( nodeId, entry );
+        }
+    }
+
     @Override
     public MemoryTracker memoryTracker()
     {
@@ -843,7 +1040,12 @@ public class TxState implements TransactionState, RelationshipVisitor.Home
 
     private NodeStateImpl newNodeState( long nodeId )
     {
-        return NodeStateImpl.createNodeState( nodeId, collectionsFactory, memoryTracker );
+        final NodeStateImpl nodeState = NodeStateImpl.createNodeState( nodeId, collectionsFactory, memoryTracker );
+        if ( offHeapEntityStates != null )
+        {
+            offHeapEntityStates.nodes.moveTo( nodeId, nodeState, offHeapEntityStates.indexUpdates );
+        }
+        return nodeState;
     }
 
     private RelationshipStateImpl newRelationshipState( long relationshipId )
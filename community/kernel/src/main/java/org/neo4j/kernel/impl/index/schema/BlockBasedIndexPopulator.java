@@ -33,6 +33,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.neo4j.configuration.GraphDatabaseInternalSettings;
+import org.neo4j.index.internal.gbptree.BulkLoader;
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Seeker;
 import org.neo4j.index.internal.gbptree.Writer;
@@ -81,6 +82,9 @@ import static org.neo4j.util.concurrent.Runnables.runAll;
  * {@code 10 * numberOfPopulationWorkers} where numberOfPopulationWorkers is currently capped to 8. So given a buffer size of 1 MiB then maximum memory
  * usage for one population job (which can populate multiple index) is ~80 MiB.
  *
+ * Since the merged scan updates are sorted they are {@link GBPTree#bulkLoader(double, PageCursorTracer) bulk loaded} into the empty tree,
+ * which builds the tree bottom-up instead of searching from root for every entry.
+ *
  * @param <KEY>
  * @param <VALUE>
  */
@@ -88,6 +92,12 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
 {
     public static final String BLOCK_SIZE_NAME = "blockSize";
 
+    /**
+     * How much of each tree node to fill when bulk loading the scan updates into the tree. Filling tree nodes less than completely
+     * leaves room for updates made after population, at the cost of a bigger index.
+     */
+    private static final double BULK_LOAD_FILL_FACTOR = FeatureToggles.getDouble( BlockBasedIndexPopulator.class, "bulkLoadFillFactor", 1.0 );
+
     private final boolean archiveFailedIndex;
     private final MemoryTracker memoryTracker;
     /**
@@ -437,12 +447,26 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
                 }
             }
 
-            int asMuchAsPossibleToTheLeft = 1;
-            try ( Writer<KEY,VALUE> writer = tree.writer( asMuchAsPossibleToTheLeft, cursorTracer ) )
+            try ( BulkLoader<KEY,VALUE> bulkLoader = tree.bulkLoader( BULK_LOAD_FILL_FACTOR, cursorTracer ) )
             {
+                KEY previousKey = layout.newKey();
+                boolean hasPreviousKey = false;
                 while ( allEntries.next() && !cancellation.cancelled() )
                 {
-                    writeToTree( writer, recordingConflictDetector, allEntries.key(), allEntries.value() );
+                    KEY key = allEntries.key();
+                    if ( hasPreviousKey )
+                    {
+                        if ( layout.compare( previousKey, key ) == 0 )
+                        {
+                            // The same entity with the same value, i.e. the same entry, was added more than once
+                            numberOfAppliedScanUpdates.incrementAndGet();
+                            continue;
+                        }
+                        detectConflict( recordingConflictDetector, previousKey, key );
+                    }
+                    bulkLoader.add( key, allEntries.value() );
+                    layout.copyKey( key, previousKey );
+                    hasPreviousKey = true;
                     numberOfAppliedScanUpdates.incrementAndGet();
                 }
             }
@@ -609,6 +633,30 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
         return builder.build();
     }
 
+    /**
+     * Record a conflict if {@code key} has the same value as {@code previousKey}, but for another entity, given that this is a unique index.
+     * Bulk loaded entries come in sorted order so all entries with the same value come one after the other. Just like conflicts
+     * found when writing to the tree the conflicting entry is still added and the recorded conflicts are verified after the tree is built.
+     */
+    private void detectConflict( RecordingConflictDetector<KEY,VALUE> recordingConflictDetector, KEY previousKey, KEY key )
+            throws IndexEntryConflictException
+    {
+        recordingConflictDetector.controlConflictDetection( previousKey );
+        recordingConflictDetector.controlConflictDetection( key );
+        if ( layout.compare( previousKey, key ) == 0 )
+        {
+            recordingConflictDetector.merge( previousKey, key, null, null );
+            if ( recordingConflictDetector.wasConflicting() )
+            {
+                KEY copy = layout.newKey();
+                layout.copyKey( key, copy );
+                recordingConflictDetector.reportConflict( copy );
+            }
+        }
+        recordingConflictDetector.relaxUniqueness( previousKey );
+        recordingConflictDetector.relaxUniqueness( key );
+    }
+
     /**
      * Write key and value to tree and record duplicates if any.
      */
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.index.internal.gbptree.BatchSeeker;
+import org.neo4j.index.internal.gbptree.Layout;
+import org.neo4j.index.internal.gbptree.Seeker;
+
+/**
+ * Holds copies of all the hits of one range seeked by a {@link BatchSeeker}, since its {@link Seeker} for the range is only valid until
+ * the next range is seeked. This way the hits of every range in a batch can be handed out to its own client.
+ *
+ * @param <KEY> type of key
+ * @param <VALUE> type of value
+ */
+class CollectedHitsSeeker<KEY,VALUE> implements Seeker<KEY,VALUE>
+{
+    private final List<KEY> keys = new ArrayList<>();
+    private final VALUE value;
+    private int index = -1;
+
+    /**
+     * Collects the remaining hits of the given seeker. Values are not collected, since native index values doesn't carry any data.
+     */
+    CollectedHitsSeeker( Layout<KEY,VALUE> layout, Seeker<KEY,VALUE> seeker ) throws IOException
+    {
+        while ( seeker.next() )
+        {
+            keys.add( layout.copyKey( seeker.key(), layout.newKey() ) );
+        }
+        this.value = layout.newValue();
+    }
+
+    @Override
+    public boolean next()
+    {
+        if ( index + 1 < keys.size() )
+        {
+            index++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public KEY key()
+    {
+        assertHasResult();
+        return keys.get( index );
+    }
+
+    @Override
+    public VALUE value()
+    {
+        assertHasResult();
+        return value;
+    }
+
+    @Override
+    public void close()
+    {
+        index = keys.size();
+    }
+
+    private void assertHasResult()
+    {
+        if ( index < 0 || index >= keys.size() )
+        {
+            throw new IllegalStateException( "There has been no successful call to next() yet" );
+        }
+    }
+}
@@ -25,11 +25,14 @@ import java.io.UncheckedIOException;
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Seeker;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.api.index.HyperLogLogSketch;
 import org.neo4j.kernel.api.index.IndexSample;
 import org.neo4j.kernel.api.index.NonUniqueIndexSampler;
 
 /**
  * {@link NonUniqueIndexSampler} which performs a full scans of a {@link GBPTree} in {@link #sample(PageCursorTracer)}.
+ * Since it sees all values of the index the sample also includes a {@link HyperLogLogSketch sketch} of them, for keeping the statistics
+ * of the index up to date incrementally after the sample.
  *
  * @param <KEY> type of keys in tree.
  * @param <VALUE> type of values in tree.
@@ -56,6 +59,7 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
         highest.initialize( Long.MAX_VALUE );
         highest.initValuesAsHighest();
         KEY prev = layout.newKey();
+        HyperLogLogSketch sketch = new HyperLogLogSketch();
         try ( Seeker<KEY,VALUE> seek = gbpTree.seek( lowest, highest, cursorTracer ) )
         {
             long sampledValues = 0;
@@ -65,6 +69,7 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
             if ( seek.next() )
             {
                 prev = layout.copyKey( seek.key(), prev );
+                sketch.add( HyperLogLogSketch.hash( prev.asValues() ) );
                 sampledValues++;
                 uniqueValues++;
 
@@ -75,12 +80,13 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
                     {
                         uniqueValues++;
                         layout.copyKey( seek.key(), prev );
+                        sketch.add( HyperLogLogSketch.hash( prev.asValues() ) );
                     }
                     // else this is a duplicate of the previous one
                     sampledValues++;
                 }
             }
-            return new IndexSample( sampledValues, uniqueValues, sampledValues );
+            return new IndexSample( sampledValues, uniqueValues, sampledValues, sketch );
         }
         catch ( IOException e )
         {
@@ -120,6 +120,13 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
         }
     }
 
+    @Override
+    boolean isBatchable( IndexQuery[] predicates )
+    {
+        // Geometry range queries are split up into multiple sub-queries
+        return getGeometryRangePredicateIfAny( predicates ) == null;
+    }
+
     /**
      * Initializes {@code treeKeyFrom} and {@code treeKeyTo} from the {@link IndexQuery query}.
      * Geometry range queries makes an otherwise straight-forward key construction complex in that a geometry range internally is performed
@@ -21,12 +21,16 @@ package org.neo4j.kernel.impl.index.schema;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.neo4j.index.internal.gbptree.BatchSeeker;
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Seeker;
 import org.neo4j.internal.kernel.api.IndexQuery;
 import org.neo4j.internal.kernel.api.IndexQueryConstraints;
 import org.neo4j.internal.kernel.api.QueryContext;
+import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotApplicableKernelException;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
 import org.neo4j.internal.schema.IndexDescriptor;
 import org.neo4j.internal.schema.IndexOrder;
@@ -132,6 +136,72 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         startSeekForInitializedRange( cursor, treeKeyFrom, treeKeyTo, predicates, constraints, needFilter, context.cursorTracer() );
     }
 
+    /**
+     * Seeks the ranges of all queries in the batch using one {@link BatchSeeker}, in key order, so that the tree is traversed from the root
+     * about once per visited leaf instead of once per query. The hits of every query are collected before handing them to its client,
+     * which makes this best suited for queries with few hits each, like exact lookups.
+     * Queries in descending order, or which can't be served by a single range, are queried one by one.
+     */
+    @Override
+    public void queryBatch( QueryContext context, IndexProgressor.EntityValueClient[] clients, IndexQueryConstraints constraints,
+            IndexQuery[][] queries ) throws IndexNotApplicableKernelException
+    {
+        if ( constraints.order() == IndexOrder.DESCENDING )
+        {
+            IndexReader.super.queryBatch( context, clients, constraints, queries );
+            return;
+        }
+
+        List<BatchedRange<KEY>> ranges = new ArrayList<>( queries.length );
+        for ( int i = 0; i < queries.length; i++ )
+        {
+            IndexQuery[] predicates = queries[i];
+            if ( !isBatchable( predicates ) )
+            {
+                query( context, clients[i], constraints, predicates );
+                continue;
+            }
+
+            validateQuery( constraints, predicates );
+            KEY treeKeyFrom = layout.newKey();
+            KEY treeKeyTo = layout.newKey();
+            initializeFromToKeys( treeKeyFrom, treeKeyTo );
+            boolean needFilter = initializeRangeForQuery( treeKeyFrom, treeKeyTo, predicates );
+            if ( isEmptyRange( treeKeyFrom, treeKeyTo ) )
+            {
+                clients[i].initialize( descriptor, IndexProgressor.EMPTY, predicates, constraints, false );
+                continue;
+            }
+            ranges.add( new BatchedRange<>( i, treeKeyFrom, treeKeyTo, needFilter ) );
+        }
+
+        ranges.sort( ( range1, range2 ) -> layout.compare( range1.treeKeyFrom, range2.treeKeyFrom ) );
+        try ( BatchSeeker<KEY,VALUE> batchSeeker = tree.batchSeeker( context.cursorTracer() ) )
+        {
+            for ( BatchedRange<KEY> range : ranges )
+            {
+                Seeker<KEY,VALUE> hits = new CollectedHitsSeeker<>( layout, batchSeeker.seek( range.treeKeyFrom, range.treeKeyTo ) );
+                IndexProgressor.EntityValueClient client = clients[range.queryIndex];
+                IndexQuery[] predicates = queries[range.queryIndex];
+                client.initialize( descriptor, getIndexProgressor( hits, client, range.needFilter, predicates ), predicates, constraints, false );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * @return {@code true} if the query can be served by seeking the single range that {@link #initializeRangeForQuery(NativeIndexKey,
+     * NativeIndexKey, IndexQuery[])} initializes, so that it can be part of a {@link #queryBatch(QueryContext, IndexProgressor.EntityValueClient[],
+     * IndexQueryConstraints, IndexQuery[][]) batch}, otherwise {@code false}.
+     */
+    boolean isBatchable( IndexQuery[] predicates )
+    {
+        return true;
+    }
+
     void initializeFromToKeys( KEY treeKeyFrom, KEY treeKeyTo )
     {
         treeKeyFrom.initialize( Long.MIN_VALUE );
@@ -189,4 +259,20 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
     {
         return layout.compare( treeKeyFrom, treeKeyTo ) > 0;
     }
+
+    private static class BatchedRange<KEY>
+    {
+        private final int queryIndex;
+        private final KEY treeKeyFrom;
+        private final KEY treeKeyTo;
+        private final boolean needFilter;
+
+        BatchedRange( int queryIndex, KEY treeKeyFrom, KEY treeKeyTo, boolean needFilter )
+        {
+            this.queryIndex = queryIndex;
+            this.treeKeyFrom = treeKeyFrom;
+            this.treeKeyTo = treeKeyTo;
+            this.needFilter = needFilter;
+        }
+    }
 }
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import org.neo4j.lock.ResourceType;
+
+import static java.lang.String.format;
+
+/**
+ * The shared and exclusive lock state of a single resource.
+ * <p>
+ * The state is an immutable {@link State} object, that is replaced with compare-and-set, so acquiring and releasing
+ * locks never blocks. The state records the clients that hold the lock, because the deadlock detection in
+ * {@link StripedLockClient} needs to know who is blocking whom.
+ * <p>
+ * A client can hold both a shared and an exclusive lock on the same resource, and the two are tracked independently.
+ * The exclusive lock can be granted when no <em>other</em> client holds the shared lock.
+ * <p>
+ * A client that is waiting for the exclusive lock can claim the <em>update</em> slot of the lock. This stops other
+ * clients from taking new shared locks, so that a steady stream of readers cannot starve a writer.
+ * <p>
+ * When a lock becomes free, it is retired by setting its state to {@link #RETIRED}, and then removed from the lock map.
+ * Clients that find a retired lock in the map must remove it, and look the resource up again.
+ */
+final class StripedLock
+{
+    enum Outcome
+    {
+        GRANTED,
+        BLOCKED,
+        RETIRED
+    }
+
+    private static final StripedLockClient[] NO_HOLDERS = new StripedLockClient[0];
+    private static final State FREE = new State( null, null, NO_HOLDERS );
+    private static final State RETIRED = new State( null, null, NO_HOLDERS );
+    private static final AtomicReferenceFieldUpdater<StripedLock,State> STATE_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater( StripedLock.class, State.class, "state" );
+
+    private final ResourceType resourceType;
+    private final long resourceId;
+    private volatile State state = FREE; // Accessed via AtomicReferenceFieldUpdater
+
+    StripedLock( ResourceType resourceType, long resourceId )
+    {
+        this.resourceType = resourceType;
+        this.resourceId = resourceId;
+    }
+
+    ResourceType resourceType()
+    {
+        return resourceType;
+    }
+
+    long resourceId()
+    {
+        return resourceId;
+    }
+
+    State state()
+    {
+        return state;
+    }
+
+    boolean isRetired()
+    {
+        return state == RETIRED;
+    }
+
+    /**
+     * Try to add the given client to the holders of the shared lock.
+     *
+     * @param client the client that wants the lock.
+     * @param holdsExclusive {@code true} if the client already holds the exclusive lock on this resource.
+     */
+    Outcome tryAcquireShared( StripedLockClient client, boolean holdsExclusive )
+    {
+        State current;
+        do
+        {
+            current = state;
+            if ( current == RETIRED )
+            {
+                return Outcome.RETIRED;
+            }
+            if ( !holdsExclusive && (current.exclusiveOwner != null || (current.updater != null && current.updater != client)) )
+            {
+                return Outcome.BLOCKED;
+            }
+        }
+        while ( !compareAndSet( current, current.withShared( client ) ) );
+        return Outcome.GRANTED;
+    }
+
+    /**
+     * Try to make the given client the exclusive owner of this lock.
+     *
+     * @param client the client that wants the lock.
+     * @param holdsShared {@code true} if the client already holds the shared lock on this resource.
+     * @param claimUpdate {@code true} if the client should claim the update slot, if the lock cannot be granted right away.
+     */
+    Outcome tryAcquireExclusive( StripedLockClient client, boolean holdsShared, boolean claimUpdate )
+    {
+        for (;;)
+        {
+            State current = state;
+            if ( current == RETIRED )
+            {
+                return Outcome.RETIRED;
+            }
+            if ( current.exclusiveOwner == null && current.sharedHolders.length == (holdsShared ? 1 : 0) )
+            {
+                if ( compareAndSet( current, current.withExclusive( client ) ) )
+                {
+                    return Outcome.GRANTED;
+                }
+            }
+            else if ( claimUpdate && current.updater == null )
+            {
+                if ( compareAndSet( current, current.withUpdater( client ) ) )
+                {
+                    return Outcome.BLOCKED;
+                }
+            }
+            else
+            {
+                return Outcome.BLOCKED;
+            }
+        }
+    }
+
+    /**
+     * Give up the update slot, if the given client holds it.
+     *
+     * @return {@code true} if this made the lock free, and it got retired.
+     */
+    boolean releaseUpdate( StripedLockClient client )
+    {
+        State current;
+        State update;
+        do
+        {
+            current = state;
+            if ( current.updater != client )
+            {
+                return false;
+            }
+            update = current.withUpdater( null );
+        }
+        while ( !compareAndSet( current, update.isFree() ? RETIRED : update ) );
+        return update.isFree();
+    }
+
+    /**
+     * Remove the given client from the holders of the shared lock.
+     *
+     * @return {@code true} if this made the lock free, and it got retired.
+     */
+    boolean releaseShared( StripedLockClient client )
+    {
+        State current;
+        State update;
+        do
+        {
+            current = state;
+            update = current.withoutShared( client );
+        }
+        while ( !compareAndSet( current, update.isFree() ? RETIRED : update ) );
+        return update.isFree();
+    }
+
+    /**
+     * Release the exclusive lock held by the given client.
+     *
+     * @return {@code true} if this made the lock free, and it got retired.
+     */
+    boolean releaseExclusive( StripedLockClient client )
+    {
+        State current;
+        State update;
+        do
+        {
+            current = state;
+            if ( current.exclusiveOwner != client )
+            {
+                throw new IllegalStateException( client + " does not hold the exclusive lock on " + this );
+            }
+            update = current.withExclusive( null );
+        }
+        while ( !compareAndSet( current, update.isFree() ? RETIRED : update ) );
+        return update.isFree();
+    }
+
+    private boolean compareAndSet( State expected, State update )
+    {
+        return STATE_UPDATER.compareAndSet( this, expected, update );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "%s(%d)", resourceType, resourceId );
+    }
+
+    /**
+     * An immutable snapshot of who holds a lock.
+     */
+    static final class State
+    {
+        final StripedLockClient exclusiveOwner;
+        final StripedLockClient updater;
+        final StripedLockClient[] sharedHolders;
+
+        private State( StripedLockClient exclusiveOwner, StripedLockClient updater, StripedLockClient[] sharedHolders )
+        {
+            this.exclusiveOwner = exclusiveOwner;
+            this.updater = updater;
+            this.sharedHolders = sharedHolders;
+        }
+
+        boolean isFree()
+        {
+            return exclusiveOwner == null && updater == null && sharedHolders.length == 0;
+        }
+
+        private State withShared( StripedLockClient client )
+        {
+            StripedLockClient[] holders = Arrays.copyOf( sharedHolders, sharedHolders.length + 1 );
+            holders[sharedHolders.length] = client;
+            return new State( exclusiveOwner, updater, holders );
+        }
+
+        private State withoutShared( StripedLockClient client )
+        {
+            for ( int i = 0; i < sharedHolders.length; i++ )
+            {
+                if ( sharedHolders[i] == client )
+                {
+                    StripedLockClient[] holders = Arrays.copyOf( sharedHolders, sharedHolders.length - 1 );
+                    if ( i < holders.length )
+                    {
+                        holders[i] = sharedHolders[sharedHolders.length - 1];
+                    }
+                    return new State( exclusiveOwner, updater, holders );
+                }
+            }
+            throw new IllegalStateException( client + " does not hold the shared lock" );
+        }
+
+        private State withExclusive( StripedLockClient client )
+        {
+            // Granting the exclusive lock fulfils the update claim of the new owner, but leaves the claims of others
+            return new State( client, client != null && updater == client ? null : updater, sharedHolders );
+        }
+
+        private State withUpdater( StripedLockClient client )
+        {
+            return new State( exclusiveOwner, client, sharedHolders );
+        }
+
+        @Override
+        public String toString()
+        {
+            return format( "State[exclusive=%s, update=%s, shared=%s]", exclusiveOwner, updater, Arrays.toString( sharedHolders ) );
+        }
+    }
+}
@@ -0,0 +1,663 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+import org.eclipse.collections.impl.map.mutable.primitive.IntObjectHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.api.LeaseClient;
+import org.neo4j.kernel.impl.locking.ActiveLock;
+import org.neo4j.kernel.impl.locking.LockAcquisitionTimeoutException;
+import org.neo4j.kernel.impl.locking.LockClientStateHolder;
+import org.neo4j.kernel.impl.locking.LockClientStoppedException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.LockTracer;
+import org.neo4j.lock.LockType;
+import org.neo4j.lock.LockWaitEvent;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.lock.ResourceTypes;
+import org.neo4j.time.SystemNanoClock;
+
+import static java.lang.String.format;
+import static org.neo4j.kernel.impl.locking.striped.StripedLock.Outcome.GRANTED;
+import static org.neo4j.kernel.impl.locking.striped.StripedLock.Outcome.RETIRED;
+import static org.neo4j.lock.LockType.EXCLUSIVE;
+import static org.neo4j.lock.LockType.SHARED;
+
+/**
+ * A client of the {@link StripedLockManager}.
+ * <p>
+ * Each client keeps its own count of how many times it has taken each lock, so re-entering a lock never touches the
+ * shared lock state. Only the first acquisition and the last release of a lock change the {@link StripedLock}.
+ * <p>
+ * A client that has to wait for a lock publishes what it is waiting for, in its {@link #waitingFor} field. Together
+ * with the holders recorded in the lock states, this forms a wait-for graph. Every so often while waiting, the client
+ * walks this graph, looking for a path of waiting clients that leads back to itself. Since the graph is read without
+ * any locking, a cycle that is found is checked a second time, before it is reported. Every client in the cycle will
+ * find it, so only the youngest client in the cycle throws a {@link DeadlockDetectedException} right away. The other
+ * clients only give up if the cycle is still there after a number of checks.
+ */
+public class StripedLockClient implements Locks.Client
+{
+    private static final AtomicInteger IDS = new AtomicInteger();
+    private static final int DEADLOCK_CHECK_INTERVAL_MASK = 63;
+    private static final int DEADLOCK_SIGHTINGS_BEFORE_GIVING_UP = 8;
+
+    private final StripedLockManager manager;
+    private final SystemNanoClock clock;
+    private final long lockAcquisitionTimeoutNano;
+    private final int id = IDS.getAndIncrement();
+    private final MutableIntObjectMap<MutableLongIntMap> sharedLocks = new IntObjectHashMap<>();
+    private final MutableIntObjectMap<MutableLongIntMap> exclusiveLocks = new IntObjectHashMap<>();
+    private final LockClientStateHolder stateHolder = new LockClientStateHolder();
+    private volatile long transactionId = INVALID_TRANSACTION_ID;
+    private volatile LockWait waitingFor;
+    private int deadlockSightings;
+
+    StripedLockClient( StripedLockManager manager, SystemNanoClock clock, long lockAcquisitionTimeoutNano )
+    {
+        this.manager = manager;
+        this.clock = clock;
+        this.lockAcquisitionTimeoutNano = lockAcquisitionTimeoutNano;
+    }
+
+    @Override
+    public void initialize( LeaseClient leaseClient, long transactionId )
+    {
+        this.transactionId = transactionId;
+    }
+
+    long transactionId()
+    {
+        return transactionId;
+    }
+
+    @Override
+    public void acquireShared( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localShared( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                if ( !reEnter( localLocks, resourceId ) )
+                {
+                    acquireSharedLock( tracer, resourceType, resourceId );
+                    localLocks.put( resourceId, 1 );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void acquireExclusive( LockTracer tracer, ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localExclusive( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                if ( !reEnter( localLocks, resourceId ) )
+                {
+                    acquireExclusiveLock( tracer, resourceType, resourceId );
+                    localLocks.put( resourceId, 1 );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean tryExclusiveLock( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localExclusive( resourceType );
+            if ( reEnter( localLocks, resourceId ) )
+            {
+                return true;
+            }
+            boolean holdsShared = localShared( resourceType ).containsKey( resourceId );
+            StripedLock.Outcome outcome;
+            StripedLock lock;
+            do
+            {
+                lock = manager.lock( resourceType, resourceId );
+                outcome = lock.tryAcquireExclusive( this, holdsShared, false );
+            }
+            while ( retired( lock, outcome ) );
+            if ( outcome == GRANTED )
+            {
+                localLocks.put( resourceId, 1 );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean trySharedLock( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localShared( resourceType );
+            if ( reEnter( localLocks, resourceId ) )
+            {
+                return true;
+            }
+            boolean holdsExclusive = localExclusive( resourceType ).containsKey( resourceId );
+            StripedLock.Outcome outcome;
+            StripedLock lock;
+            do
+            {
+                lock = manager.lock( resourceType, resourceId );
+                outcome = lock.tryAcquireShared( this, holdsExclusive );
+            }
+            while ( retired( lock, outcome ) );
+            if ( outcome == GRANTED )
+            {
+                localLocks.put( resourceId, 1 );
+                return true;
+            }
+            return false;
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterShared( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            return reEnter( localShared( resourceType ), resourceId );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public boolean reEnterExclusive( ResourceType resourceType, long resourceId )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            return reEnter( localExclusive( resourceType ), resourceId );
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    private static boolean reEnter( MutableLongIntMap localLocks, long resourceId )
+    {
+        int count = localLocks.get( resourceId );
+        if ( count > 0 )
+        {
+            localLocks.put( resourceId, Math.incrementExact( count ) );
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void releaseShared( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localShared( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                if ( releaseLocal( localLocks, SHARED, resourceType, resourceId ) )
+                {
+                    releaseSharedLock( resourceType, resourceId );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    @Override
+    public void releaseExclusive( ResourceType resourceType, long... resourceIds )
+    {
+        stateHolder.incrementActiveClients( this );
+        try
+        {
+            MutableLongIntMap localLocks = localExclusive( resourceType );
+            for ( long resourceId : resourceIds )
+            {
+                if ( releaseLocal( localLocks, EXCLUSIVE, resourceType, resourceId ) )
+                {
+                    releaseExclusiveLock( resourceType, resourceId );
+                }
+            }
+        }
+        finally
+        {
+            stateHolder.decrementActiveClients();
+        }
+    }
+
+    /**
+     * @return {@code true} if this was the last local reference to the lock, and the lock itself must be released.
+     */
+    private boolean releaseLocal( MutableLongIntMap localLocks, LockType lockType, ResourceType resourceType, long resourceId )
+    {
+        int count = localLocks.get( resourceId );
+        if ( count == 0 )
+        {
+            throw new IllegalStateException( format( "%s does not hold a %s lock on %s(%d)", this, lockType, resourceType, resourceId ) );
+        }
+        if ( count == 1 )
+        {
+            localLocks.remove( resourceId );
+            return true;
+        }
+        localLocks.put( resourceId, count - 1 );
+        return false;
+    }
+
+    private void acquireSharedLock( LockTracer tracer, ResourceType resourceType, long resourceId )
+    {
+        boolean holdsExclusive = localExclusive( resourceType ).containsKey( resourceId );
+        LockWaitEvent waitEvent = null;
+        try
+        {
+            long waitStartNano = 0;
+            long iteration = 0;
+            for (;;)
+            {
+                StripedLock lock = manager.lock( resourceType, resourceId );
+                StripedLock.Outcome outcome = lock.tryAcquireShared( this, holdsExclusive );
+                if ( outcome == GRANTED )
+                {
+                    return;
+                }
+                if ( !retired( lock, outcome ) )
+                {
+                    if ( waitEvent == null )
+                    {
+                        waitEvent = tracer.waitForLock( SHARED, resourceType, transactionId, resourceId );
+                        waitStartNano = clock.nanos();
+                    }
+                    waitFor( lock, SHARED, waitStartNano, iteration++ );
+                }
+            }
+        }
+        finally
+        {
+            waitingFor = null;
+            if ( waitEvent != null )
+            {
+                waitEvent.close();
+            }
+        }
+    }
+
+    private void acquireExclusiveLock( LockTracer tracer, ResourceType resourceType, long resourceId )
+    {
+        boolean holdsShared = localShared( resourceType ).containsKey( resourceId );
+        LockWaitEvent waitEvent = null;
+        StripedLock lock = null;
+        boolean acquired = false;
+        try
+        {
+            long waitStartNano = 0;
+            long iteration = 0;
+            while ( !acquired )
+            {
+                lock = manager.lock( resourceType, resourceId );
+                StripedLock.Outcome outcome = lock.tryAcquireExclusive( this, holdsShared, true );
+                acquired = outcome == GRANTED;
+                if ( !acquired && !retired( lock, outcome ) )
+                {
+                    if ( waitEvent == null )
+                    {
+                        waitEvent = tracer.waitForLock( EXCLUSIVE, resourceType, transactionId, resourceId );
+                        waitStartNano = clock.nanos();
+                    }
+                    waitFor( lock, EXCLUSIVE, waitStartNano, iteration++ );
+                }
+            }
+        }
+        finally
+        {
+            waitingFor = null;
+            if ( !acquired && lock != null && lock.releaseUpdate( this ) )
+            {
+                manager.retire( lock );
+            }
+            if ( waitEvent != null )
+            {
+                waitEvent.close();
+            }
+        }
+    }
+
+    private boolean retired( StripedLock lock, StripedLock.Outcome outcome )
+    {
+        if ( outcome == RETIRED )
+        {
+            manager.retire( lock );
+            return true;
+        }
+        return false;
+    }
+
+    private void releaseSharedLock( ResourceType resourceType, long resourceId )
+    {
+        StripedLock lock = manager.existingLock( resourceType, resourceId );
+        if ( lock.releaseShared( this ) )
+        {
+            manager.retire( lock );
+        }
+    }
+
+    private void releaseExclusiveLock( ResourceType resourceType, long resourceId )
+    {
+        StripedLock lock = manager.existingLock( resourceType, resourceId );
+        if ( lock.releaseExclusive( this ) )
+        {
+            manager.retire( lock );
+        }
+    }
+
+    /**
+     * Called every time an attempt to take the given lock has failed. Publishes what this client is waiting for, checks
+     * if the wait should end, and then backs off according to the wait strategy of the resource type.
+     */
+    private void waitFor( StripedLock lock, LockType lockType, long waitStartNano, long iteration )
+    {
+        LockWait wait = waitingFor;
+        if ( wait == null || wait.lock != lock )
+        {
+            wait = new LockWait( lock, lockType );
+            waitingFor = wait;
+        }
+        if ( stateHolder.isStopped() )
+        {
+            throw new LockClientStoppedException( this );
+        }
+        assertNotExpired( lock, waitStartNano );
+        if ( (iteration & DEADLOCK_CHECK_INTERVAL_MASK) == 0 )
+        {
+            checkForDeadlock( wait );
+        }
+        lock.resourceType().waitStrategy().apply( iteration );
+    }
+
+    private void assertNotExpired( StripedLock lock, long waitStartNano )
+    {
+        long timeoutNano = lockAcquisitionTimeoutNano;
+        if ( timeoutNano > 0 && (clock.nanos() - waitStartNano) >= timeoutNano )
+        {
+            throw new LockAcquisitionTimeoutException( lock.resourceType(), lock.resourceId(), timeoutNano );
+        }
+    }
+
+    private void checkForDeadlock( LockWait wait )
+    {
+        List<StripedLockClient> cycle = new ArrayList<>();
+        List<LockWait> waits = new ArrayList<>();
+        Set<StripedLockClient> visited = Collections.newSetFromMap( new IdentityHashMap<>() );
+        if ( !findWaitCycle( this, visited, cycle, waits ) || !isStillWaitCycle( cycle, waits ) )
+        {
+            deadlockSightings = 0;
+            return;
+        }
+
+        int youngest = id;
+        for ( StripedLockClient client : cycle )
+        {
+            youngest = Math.max( youngest, client.id );
+        }
+        if ( youngest == id || ++deadlockSightings >= DEADLOCK_SIGHTINGS_BEFORE_GIVING_UP )
+        {
+            deadlockSightings = 0;
+            throw new DeadlockDetectedException( format( "%s can't acquire %s lock on %s, because that would cause a deadlock: %s",
+                    this, wait.lockType, wait.lock, describeCycle( cycle, waits ) ) );
+        }
+    }
+
+    /**
+     * Depth-first search of the wait-for graph, for a path of waiting clients from the given client back to this client.
+     * The clients on the path, and what they wait for, are collected in the given lists.
+     */
+    private boolean findWaitCycle( StripedLockClient client, Set<StripedLockClient> visited, List<StripedLockClient> cycle, List<LockWait> waits )
+    {
+        LockWait wait = client.waitingFor;
+        if ( wait == null )
+        {
+            return false;
+        }
+        cycle.add( client );
+        waits.add( wait );
+        for ( StripedLockClient blocker : wait.blockers( client ) )
+        {
+            if ( blocker == this || (visited.add( blocker ) && findWaitCycle( blocker, visited, cycle, waits )) )
+            {
+                return true;
+            }
+        }
+        cycle.remove( cycle.size() - 1 );
+        waits.remove( waits.size() - 1 );
+        return false;
+    }
+
+    private static boolean isStillWaitCycle( List<StripedLockClient> cycle, List<LockWait> waits )
+    {
+        for ( int i = 0; i < cycle.size(); i++ )
+        {
+            StripedLockClient client = cycle.get( i );
+            StripedLockClient next = cycle.get( (i + 1) % cycle.size() );
+            LockWait wait = waits.get( i );
+            if ( client.waitingFor != wait || !wait.blockers( client ).contains( next ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String describeCycle( List<StripedLockClient> cycle, List<LockWait> waits )
+    {
+        StringBuilder description = new StringBuilder();
+        for ( int i = 0; i < cycle.size(); i++ )
+        {
+            description.append( cycle.get( i ) ).append( " -[:WAITING_FOR]-> " ).append( waits.get( i ).lock ).append( " -[:HELD_BY]-> " );
+        }
+        return description.append( cycle.get( 0 ) ).toString();
+    }
+
+    @Override
+    public void prepare()
+    {
+        stateHolder.prepare( this );
+    }
+
+    @Override
+    public void stop()
+    {
+        // closing client to prevent any new client to come
+        if ( stateHolder.stopClient() )
+        {
+            waitForClientsToLeave();
+            releaseLocks();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        stateHolder.closeClient();
+        waitForClientsToLeave();
+        releaseLocks();
+        transactionId = INVALID_TRANSACTION_ID;
+    }
+
+    private void waitForClientsToLeave()
+    {
+        // waiting clients notice that this client has been stopped, the next time they back off
+        while ( stateHolder.hasActiveClients() )
+        {
+            LockSupport.parkNanos( TimeUnit.MILLISECONDS.toNanos( 1 ) );
+        }
+    }
+
+    private synchronized void releaseLocks()
+    {
+        exclusiveLocks.forEachKeyValue( ( typeId, localLocks ) ->
+                localLocks.forEachKey( resourceId -> releaseExclusiveLock( ResourceTypes.fromId( typeId ), resourceId ) ) );
+        sharedLocks.forEachKeyValue( ( typeId, localLocks ) ->
+                localLocks.forEachKey( resourceId -> releaseSharedLock( ResourceTypes.fromId( typeId ), resourceId ) ) );
+        exclusiveLocks.clear();
+        sharedLocks.clear();
+    }
+
+    @Override
+    public int getLockSessionId()
+    {
+        return id;
+    }
+
+    @Override
+    public Stream<ActiveLock> activeLocks()
+    {
+        List<ActiveLock> locks = new ArrayList<>();
+        collectActiveLocks( locks, exclusiveLocks, EXCLUSIVE );
+        collectActiveLocks( locks, sharedLocks, SHARED );
+        return locks.stream();
+    }
+
+    private void collectActiveLocks( List<ActiveLock> locks, MutableIntObjectMap<MutableLongIntMap> localLocks, LockType lockType )
+    {
+        long userTransactionId = transactionId;
+        localLocks.forEachKeyValue( ( typeId, resourceIds ) ->
+        {
+            ResourceType resourceType = ResourceTypes.fromId( typeId );
+            resourceIds.forEachKey( resourceId -> locks.add( new ActiveLock( resourceType, lockType, userTransactionId, resourceId ) ) );
+        } );
+    }
+
+    @Override
+    public long activeLockCount()
+    {
+        return exclusiveLocks.sumOfInt( MutableLongIntMap::size ) + sharedLocks.sumOfInt( MutableLongIntMap::size );
+    }
+
+    private MutableLongIntMap localShared( ResourceType resourceType )
+    {
+        return sharedLocks.getIfAbsentPut( resourceType.typeId(), LongIntHashMap::new );
+    }
+
+    private MutableLongIntMap localExclusive( ResourceType resourceType )
+    {
+        return exclusiveLocks.getIfAbsentPut( resourceType.typeId(), LongIntHashMap::new );
+    }
+
+    @Override
+    public String toString()
+    {
+        return format( "%s[%d]", getClass().getSimpleName(), getLockSessionId() );
+    }
+
+    /**
+     * What a client is waiting for: an edge in the wait-for graph.
+     */
+    private static final class LockWait
+    {
+        private final StripedLock lock;
+        private final LockType lockType;
+
+        LockWait( StripedLock lock, LockType lockType )
+        {
+            this.lock = lock;
+            this.lockType = lockType;
+        }
+
+        /**
+         * @return the clients that currently stop the given waiting client from getting the lock.
+         */
+        List<StripedLockClient> blockers( StripedLockClient waiter )
+        {
+            StripedLock.State state = lock.state();
+            List<StripedLockClient> blockers = new ArrayList<>();
+            addBlocker( blockers, state.exclusiveOwner, waiter );
+            if ( lockType == SHARED )
+            {
+                addBlocker( blockers, state.updater, waiter );
+            }
+            else
+            {
+                for ( StripedLockClient holder : state.sharedHolders )
+                {
+                    addBlocker( blockers, holder, waiter );
+                }
+            }
+            return blockers;
+        }
+
+        private static void addBlocker( List<StripedLockClient> blockers, StripedLockClient client, StripedLockClient waiter )
+        {
+            if ( client != null && client != waiter )
+            {
+                blockers.add( client );
+            }
+        }
+    }
+}
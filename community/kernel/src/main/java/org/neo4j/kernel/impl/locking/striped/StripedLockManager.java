@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.lock.LockType;
+import org.neo4j.lock.ResourceType;
+import org.neo4j.time.SystemNanoClock;
+import org.neo4j.util.FeatureToggles;
+
+/**
+ * A lock manager that never takes a global monitor.
+ * <p>
+ * The locks of every {@link ResourceType} live in their own set of concurrent maps, and the resource id picks the map,
+ * or stripe, within the set. The state of each lock is changed with compare-and-set, see {@link StripedLock}. Waiting
+ * clients back off according to the {@link ResourceType#waitStrategy() wait strategy} of the resource type, and look
+ * for deadlocks by walking the wait-for graph that the clients publish, see {@link StripedLockClient}.
+ */
+public class StripedLockManager implements Locks
+{
+    private static final int STRIPES = Integer.highestOneBit( Math.max( 1, FeatureToggles.getInteger( StripedLockManager.class, "stripes", 16 ) ) );
+    private static final int STRIPE_MASK = STRIPES - 1;
+
+    private final ConcurrentHashMap<Long,StripedLock>[] lockMaps;
+    private final SystemNanoClock clock;
+
+    /**
+     * Time within which any particular lock should be acquired.
+     * @see GraphDatabaseSettings#lock_acquisition_timeout
+     */
+    private final long lockAcquisitionTimeoutNano;
+    private volatile boolean closed;
+
+    @SuppressWarnings( "unchecked" )
+    public StripedLockManager( Config config, SystemNanoClock clock, ResourceType[] resourceTypes )
+    {
+        int maxTypeId = 0;
+        for ( ResourceType resourceType : resourceTypes )
+        {
+            maxTypeId = Math.max( maxTypeId, resourceType.typeId() );
+        }
+        this.lockMaps = new ConcurrentHashMap[(maxTypeId + 1) * STRIPES];
+        for ( int i = 0; i < lockMaps.length; i++ )
+        {
+            lockMaps[i] = new ConcurrentHashMap<>();
+        }
+        this.clock = clock;
+        this.lockAcquisitionTimeoutNano = config.get( GraphDatabaseSettings.lock_acquisition_timeout ).toNanos();
+    }
+
+    @Override
+    public Client newClient()
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( this + " already closed" );
+        }
+        return new StripedLockClient( this, clock, lockAcquisitionTimeoutNano );
+    }
+
+    /**
+     * Get the lock for the given resource, creating it if it does not exist. The returned lock may have been retired
+     * concurrently, in which case it must be passed to {@link #retire(StripedLock)} before looking it up again.
+     */
+    StripedLock lock( ResourceType resourceType, long resourceId )
+    {
+        ConcurrentHashMap<Long,StripedLock> lockMap = lockMap( resourceType, resourceId );
+        StripedLock lock = lockMap.get( resourceId );
+        if ( lock == null )
+        {
+            lock = lockMap.computeIfAbsent( resourceId, id -> new StripedLock( resourceType, id ) );
+        }
+        return lock;
+    }
+
+    /**
+     * Get the lock for a resource that the calling client holds a lock on.
+     */
+    StripedLock existingLock( ResourceType resourceType, long resourceId )
+    {
+        StripedLock lock = lockMap( resourceType, resourceId ).get( resourceId );
+        if ( lock == null )
+        {
+            throw new IllegalStateException( "No lock found for " + resourceType + "(" + resourceId + ")" );
+        }
+        return lock;
+    }
+
+    /**
+     * Remove a retired lock from its lock map.
+     */
+    void retire( StripedLock lock )
+    {
+        lockMap( lock.resourceType(), lock.resourceId() ).remove( lock.resourceId(), lock );
+    }
+
+    private ConcurrentHashMap<Long,StripedLock> lockMap( ResourceType resourceType, long resourceId )
+    {
+        return lockMaps[resourceType.typeId() * STRIPES + stripe( resourceId )];
+    }
+
+    private static int stripe( long resourceId )
+    {
+        long hash = resourceId * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & STRIPE_MASK;
+    }
+
+    @Override
+    public void accept( Visitor visitor )
+    {
+        for ( ConcurrentHashMap<Long,StripedLock> lockMap : lockMaps )
+        {
+            for ( StripedLock lock : lockMap.values() )
+            {
+                StripedLock.State state = lock.state();
+                StripedLockClient owner = state.exclusiveOwner;
+                if ( owner != null )
+                {
+                    visit( visitor, LockType.EXCLUSIVE, lock, owner, state );
+                }
+                for ( StripedLockClient holder : state.sharedHolders )
+                {
+                    if ( holder != owner )
+                    {
+                        visit( visitor, LockType.SHARED, lock, holder, state );
+                    }
+                }
+            }
+        }
+    }
+
+    private static void visit( Visitor visitor, LockType lockType, StripedLock lock, StripedLockClient holder, StripedLock.State state )
+    {
+        visitor.visit( lockType, lock.resourceType(), holder.transactionId(), lock.resourceId(), state.toString(), 0,
+                System.identityHashCode( lock ) );
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+    }
+}
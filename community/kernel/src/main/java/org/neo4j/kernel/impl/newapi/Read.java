@@ -113,6 +113,32 @@ abstract class Read implements TxStateHolder,
         indexSession.reader.query( this, withFullPrecision, constraints, query );
     }
 
+    @Override
+    public final void nodeIndexSeekBatch( IndexReadSession index, NodeValueIndexCursor[] cursors, IndexQueryConstraints constraints, IndexQuery[][] queries )
+            throws IndexNotApplicableKernelException
+    {
+        ktx.assertOpen();
+        DefaultIndexReadSession indexSession = (DefaultIndexReadSession) index;
+
+        if ( indexSession.reference.schema().entityType() != EntityType.NODE )
+        {
+            throw new IndexNotApplicableKernelException( "Node index seek can only be performed on node indexes: " + index );
+        }
+        if ( cursors.length != queries.length )
+        {
+            throw new IllegalArgumentException( "Expected one cursor for each of the " + queries.length + " queries, but got " + cursors.length );
+        }
+
+        IndexProgressor.EntityValueClient[] clients = new IndexProgressor.EntityValueClient[cursors.length];
+        for ( int i = 0; i < cursors.length; i++ )
+        {
+            EntityIndexSeekClient client = (EntityIndexSeekClient) cursors[i];
+            client.setRead( this );
+            clients[i] = injectFullValuePrecision( client, queries[i], indexSession.reader );
+        }
+        indexSession.reader.queryBatch( this, clients, constraints, queries );
+    }
+
     @Override
     public final void relationshipIndexSeek( IndexDescriptor index, RelationshipIndexCursor cursor, IndexQueryConstraints constraints, IndexQuery... query )
             throws IndexNotApplicableKernelException, IndexNotFoundKernelException
@@ -0,0 +1,489 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_warmup_parallelism;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_enabled;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch_allowlist;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_profiling_interval;
+import static org.neo4j.configuration.GraphDatabaseSettings.read_only;
+import static org.neo4j.internal.helpers.Format.duration;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
+import static org.neo4j.scheduler.JobMonitoringParams.systemJob;
+
+/**
+ * The page cache warmer reduces the time it takes for a database to reach its full performance after a restart.
+ * <p>
+ * While the database is running, the warmer periodically takes a profile of which pages of the mapped store files are
+ * in memory. A profile is a compressed bitmap with one bit per file page, and is kept in the {@value #PROFILE_DIRECTORY}
+ * directory of the database, mirroring the layout of the store files. A last profile is taken when the database stops.
+ * <p>
+ * When the database starts, the pages in the profiles are loaded back into the page cache by a bounded number of
+ * threads, before the database becomes available. Consecutive pages are loaded with large vectored reads, through
+ * {@link PagedFile#touch(long, int, PageCursorTracer)}, and never more pages are loaded than what fits in the cache.
+ * <p>
+ * If {@link org.neo4j.configuration.GraphDatabaseSettings#pagecache_warmup_prefetch prefetching} is enabled, then the
+ * allowed store files are loaded in their entirety instead, and no profiles are taken.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    public static final String PROFILE_DIRECTORY = "profiles";
+    static final String PROFILE_SUFFIX = ".cacheprof";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final byte PROFILE_FORMAT_VERSION = 1;
+    private static final int PAGES_PER_SEGMENT = 1 << 16;
+    private static final long PROGRESS_LOG_INTERVAL_NANOS = SECONDS.toNanos( 10 );
+    private static final String TAG = "pageCacheWarmer";
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final Path databaseDirectory;
+    private final Path profileDirectory;
+    private final Config config;
+    private final PageCacheTracer pageCacheTracer;
+    private final Log log;
+    private final String databaseName;
+    private final Object profileLock = new Object();
+    private volatile JobHandle<?> profileHandle;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, DatabaseLayout databaseLayout, Config config,
+            PageCacheTracer pageCacheTracer, LogProvider logProvider, String databaseName )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.databaseDirectory = databaseLayout.databaseDirectory();
+        this.profileDirectory = databaseDirectory.resolve( PROFILE_DIRECTORY );
+        this.config = config;
+        this.pageCacheTracer = pageCacheTracer;
+        this.log = logProvider.getLog( getClass() );
+        this.databaseName = databaseName;
+    }
+
+    @Override
+    public void start() throws Exception
+    {
+        if ( !config.get( pagecache_warmup_enabled ) )
+        {
+            return;
+        }
+        reload();
+        if ( isProfiling() )
+        {
+            long intervalMillis = config.get( pagecache_warmup_profiling_interval ).toMillis();
+            profileHandle = scheduler.scheduleRecurring( Group.FILE_IO_HELPER, systemJob( databaseName, "Profiling of page cache" ),
+                    this::profileQuietly, intervalMillis, intervalMillis, MILLISECONDS );
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        JobHandle<?> handle = profileHandle;
+        if ( handle != null )
+        {
+            handle.cancel();
+            profileHandle = null;
+            // Profile one last time, so the next start can pick up right where we left off.
+            profileQuietly();
+        }
+    }
+
+    private boolean isProfiling()
+    {
+        return !config.get( read_only ) && !config.get( pagecache_warmup_prefetch );
+    }
+
+    /**
+     * Take a profile of the pages that are currently in memory, for all of the files mapped by the page cache.
+     *
+     * @return the number of pages that were found to be in memory.
+     * @throws IOException if a profile could not be written.
+     */
+    long profile() throws IOException
+    {
+        synchronized ( profileLock )
+        {
+            long residentPages = 0;
+            for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+            {
+                Path profileFile = profileFile( pagedFile.path() );
+                if ( profileFile != null )
+                {
+                    residentPages += profile( pagedFile, profileFile );
+                }
+            }
+            return residentPages;
+        }
+    }
+
+    private void profileQuietly()
+    {
+        try
+        {
+            profile();
+        }
+        catch ( Exception e )
+        {
+            log.warn( "Page cache profiling failed. The profiles from the previous run will be used for warmup.", e );
+        }
+    }
+
+    private long profile( PagedFile pagedFile, Path profileFile ) throws IOException
+    {
+        long pageCount = pagedFile.getLastPageId() + 1;
+        if ( pageCount <= 0 )
+        {
+            fs.deleteFile( profileFile );
+            return 0;
+        }
+        long residentPages = 0;
+        Path tempFile = profileFile.resolveSibling( profileFile.getFileName() + TEMP_SUFFIX );
+        fs.mkdirs( profileFile.getParent() );
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( TAG );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT | PF_TRANSIENT, cursorTracer );
+              DataOutputStream out = new DataOutputStream(
+                      new BufferedOutputStream( new GZIPOutputStream( fs.openAsOutputStream( tempFile, false ) ) ) ) )
+        {
+            out.writeByte( PROFILE_FORMAT_VERSION );
+            out.writeLong( pageCount );
+            int bits = 0;
+            for ( long pageId = 0; pageId < pageCount; pageId++ )
+            {
+                // A cursor that is not allowed to fault will stay unbound when the page is not in memory.
+                if ( cursor.next() && cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                {
+                    bits |= 1 << (pageId & 7);
+                    residentPages++;
+                }
+                if ( (pageId & 7) == 7 )
+                {
+                    out.writeByte( bits );
+                    bits = 0;
+                }
+            }
+            if ( (pageCount & 7) != 0 )
+            {
+                out.writeByte( bits );
+            }
+        }
+        fs.renameFile( tempFile, profileFile, REPLACE_EXISTING, ATOMIC_MOVE );
+        return residentPages;
+    }
+
+    /**
+     * Load the pages from the profiles of the previous run, or the entire allowed files if prefetching, back into the
+     * page cache.
+     *
+     * @return the number of pages that were loaded.
+     */
+    long reload() throws IOException, InterruptedException
+    {
+        long startNanos = System.nanoTime();
+        Queue<Segment> segments = new ConcurrentLinkedQueue<>();
+        long profiledPages = collectSegments( segments );
+        if ( segments.isEmpty() )
+        {
+            return 0;
+        }
+        log.info( "Page cache warmup started, loading %d pages of %d files into the page cache.", profiledPages, countFiles( segments ) );
+
+        Progress progress = new Progress( profiledPages, pageCache.maxCachedPages() );
+        int parallelism = config.get( pagecache_warmup_parallelism );
+        List<JobHandle<?>> handles = new ArrayList<>( parallelism );
+        for ( int i = 0; i < parallelism; i++ )
+        {
+            handles.add( scheduler.schedule( Group.FILE_IO_HELPER, systemJob( databaseName, "Warmup of page cache" ),
+                    () -> loadSegments( segments, progress ) ) );
+        }
+        for ( JobHandle<?> handle : handles )
+        {
+            try
+            {
+                handle.waitTermination();
+            }
+            catch ( ExecutionException e )
+            {
+                log.warn( "Page cache warmup failed. The database will continue to start up with a partially warmed up page cache.", e );
+            }
+        }
+        long loadedPages = progress.loadedPages.get();
+        log.info( "Page cache warmup completed. %d pages loaded in %s.", loadedPages, duration( NANOSECONDS.toMillis( System.nanoTime() - startNanos ) ) );
+        return loadedPages;
+    }
+
+    private long collectSegments( Queue<Segment> segments ) throws IOException
+    {
+        boolean prefetch = config.get( pagecache_warmup_prefetch );
+        Pattern allowlist = Pattern.compile( config.get( pagecache_warmup_prefetch_allowlist ) );
+        long pages = 0;
+        for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+        {
+            try
+            {
+                long lastPageId = pagedFile.getLastPageId();
+                if ( lastPageId < 0 )
+                {
+                    continue;
+                }
+                if ( prefetch )
+                {
+                    if ( allowlist.matcher( pagedFile.path().getFileName().toString() ).matches() )
+                    {
+                        pages += addSegments( segments, pagedFile, null, lastPageId + 1 );
+                    }
+                    continue;
+                }
+                Path profileFile = profileFile( pagedFile.path() );
+                if ( profileFile != null && fs.fileExists( profileFile ) )
+                {
+                    byte[] bitmap = readProfile( profileFile, lastPageId + 1 );
+                    if ( bitmap != null )
+                    {
+                        pages += addSegments( segments, pagedFile, bitmap, Math.min( lastPageId + 1, bitmap.length * 8L ) );
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                log.warn( "Page cache warmup of " + pagedFile.path() + " skipped.", e );
+            }
+        }
+        return pages;
+    }
+
+    private static long addSegments( Queue<Segment> segments, PagedFile pagedFile, byte[] bitmap, long pageCount )
+    {
+        long pages = 0;
+        for ( long startPageId = 0; startPageId < pageCount; startPageId += PAGES_PER_SEGMENT )
+        {
+            Segment segment = new Segment( pagedFile, bitmap, startPageId, Math.min( pageCount, startPageId + PAGES_PER_SEGMENT ) );
+            long segmentPages = segment.countPages();
+            if ( segmentPages > 0 )
+            {
+                segments.add( segment );
+                pages += segmentPages;
+            }
+        }
+        return pages;
+    }
+
+    private static long countFiles( Queue<Segment> segments )
+    {
+        return segments.stream().map( segment -> segment.pagedFile ).distinct().count();
+    }
+
+    private byte[] readProfile( Path profileFile, long maxPageCount ) throws IOException
+    {
+        try ( DataInputStream in = new DataInputStream( new BufferedInputStream( new GZIPInputStream( fs.openAsInputStream( profileFile ) ) ) ) )
+        {
+            byte version = in.readByte();
+            long pageCount = in.readLong();
+            if ( version != PROFILE_FORMAT_VERSION || pageCount < 0 )
+            {
+                log.warn( "Ignoring page cache profile %s with unknown format.", profileFile );
+                return null;
+            }
+            // The file might have been truncated since the profile was taken, in which case we ignore the rest.
+            pageCount = Math.min( pageCount, maxPageCount );
+            byte[] bitmap = new byte[Math.toIntExact( (pageCount + 7) >>> 3 )];
+            in.readFully( bitmap );
+            return bitmap;
+        }
+    }
+
+    private void loadSegments( Queue<Segment> segments, Progress progress )
+    {
+        try ( PageCursorTracer cursorTracer = pageCacheTracer.createPageCursorTracer( TAG ) )
+        {
+            Segment segment;
+            while ( progress.remainingCapacity() > 0 && (segment = segments.poll()) != null )
+            {
+                try
+                {
+                    segment.load( progress, cursorTracer );
+                }
+                catch ( IOException e )
+                {
+                    log.warn( "Page cache warmup of " + segment.pagedFile.path() + " failed.", e );
+                }
+                progress.maybeLog( log );
+            }
+        }
+    }
+
+    /**
+     * @return the location of the profile of the given mapped file, or {@code null} if the file does not belong to the
+     * database directory.
+     */
+    private Path profileFile( Path file )
+    {
+        if ( !file.startsWith( databaseDirectory ) || file.startsWith( profileDirectory ) )
+        {
+            return null;
+        }
+        Path relativePath = databaseDirectory.relativize( file );
+        return profileDirectory.resolve( relativePath.toString() + PROFILE_SUFFIX );
+    }
+
+    /**
+     * A range of pages of a file to load, optionally filtered by a profile bitmap.
+     */
+    private static class Segment
+    {
+        private final PagedFile pagedFile;
+        private final byte[] bitmap;
+        private final long startPageId;
+        private final long endPageId;
+
+        Segment( PagedFile pagedFile, byte[] bitmap, long startPageId, long endPageId )
+        {
+            this.pagedFile = pagedFile;
+            this.bitmap = bitmap;
+            this.startPageId = startPageId;
+            this.endPageId = endPageId;
+        }
+
+        private boolean isIncluded( long pageId )
+        {
+            return bitmap == null || (bitmap[(int) (pageId >>> 3)] & (1 << (pageId & 7))) != 0;
+        }
+
+        long countPages()
+        {
+            long pages = 0;
+            for ( long pageId = startPageId; pageId < endPageId; pageId++ )
+            {
+                if ( isIncluded( pageId ) )
+                {
+                    pages++;
+                }
+            }
+            return pages;
+        }
+
+        void load( Progress progress, PageCursorTracer cursorTracer ) throws IOException
+        {
+            long pageId = startPageId;
+            while ( pageId < endPageId )
+            {
+                while ( pageId < endPageId && !isIncluded( pageId ) )
+                {
+                    pageId++;
+                }
+                long runStart = pageId;
+                while ( pageId < endPageId && isIncluded( pageId ) )
+                {
+                    pageId++;
+                }
+                int runLength = (int) (pageId - runStart);
+                if ( runLength > 0 )
+                {
+                    long remainingCapacity = progress.remainingCapacity();
+                    if ( remainingCapacity <= 0 )
+                    {
+                        return;
+                    }
+                    int pagesToLoad = (int) Math.min( runLength, remainingCapacity );
+                    progress.loaded( pagedFile.touch( runStart, pagesToLoad, cursorTracer ), runLength );
+                }
+            }
+        }
+    }
+
+    private static class Progress
+    {
+        private final long totalPages;
+        private final long maxCachedPages;
+        private final AtomicLong loadedPages = new AtomicLong();
+        private final AtomicLong visitedPages = new AtomicLong();
+        private final AtomicLong lastLogNanos = new AtomicLong( System.nanoTime() );
+
+        Progress( long totalPages, long maxCachedPages )
+        {
+            this.totalPages = totalPages;
+            this.maxCachedPages = maxCachedPages;
+        }
+
+        void loaded( int loaded, int visited )
+        {
+            loadedPages.addAndGet( loaded );
+            visitedPages.addAndGet( visited );
+        }
+
+        long remainingCapacity()
+        {
+            // Loading more pages than fit in the cache would only evict the pages that we just loaded.
+            return maxCachedPages - loadedPages.get();
+        }
+
+        void maybeLog( Log log )
+        {
+            long lastLog = lastLogNanos.get();
+            long now = System.nanoTime();
+            if ( now - lastLog >= PROGRESS_LOG_INTERVAL_NANOS && lastLogNanos.compareAndSet( lastLog, now ) )
+            {
+                long visited = visitedPages.get();
+                log.info( "Page cache warmup in progress, %d of %d pages (%d%%) visited, %d pages loaded.",
+                        visited, totalPages, visited * 100 / Math.max( 1, totalPages ), loadedPages.get() );
+            }
+        }
+    }
+}
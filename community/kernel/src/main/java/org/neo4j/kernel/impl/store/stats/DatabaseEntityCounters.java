@@ -21,8 +21,10 @@ package org.neo4j.kernel.impl.store.stats;
 
 import org.neo4j.counts.CountsAccessor;
 import org.neo4j.internal.id.IdGeneratorFactory;
+import org.neo4j.internal.id.IdLocalityCounters;
 import org.neo4j.internal.id.IdType;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.storageengine.api.StorageEngine;
 
 import static org.neo4j.token.api.TokenConstants.ANY_LABEL;
 import static org.neo4j.token.api.TokenConstants.ANY_RELATIONSHIP_TYPE;
@@ -31,11 +33,13 @@ public class DatabaseEntityCounters implements StoreEntityCounters
 {
     private final IdGeneratorFactory idGeneratorFactory;
     private final CountsAccessor countsAccessor;
+    private final StorageEngine storageEngine;
 
-    public DatabaseEntityCounters( IdGeneratorFactory idGeneratorFactory, CountsAccessor countsAccessor )
+    public DatabaseEntityCounters( IdGeneratorFactory idGeneratorFactory, CountsAccessor countsAccessor, StorageEngine storageEngine )
     {
         this.idGeneratorFactory = idGeneratorFactory;
         this.countsAccessor = countsAccessor;
+        this.storageEngine = storageEngine;
     }
 
     @Override
@@ -73,4 +77,10 @@ public class DatabaseEntityCounters implements StoreEntityCounters
     {
         return countsAccessor.relationshipCount( ANY_LABEL, ANY_RELATIONSHIP_TYPE, ANY_LABEL, cursorTracer );
     }
+
+    @Override
+    public IdLocalityCounters idLocality( IdType idType )
+    {
+        return storageEngine.idLocalityCounters( idType );
+    }
 }
@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.store.stats;
 
+import org.neo4j.internal.id.IdLocalityCounters;
+import org.neo4j.internal.id.IdType;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
 public interface StoreEntityCounters
@@ -34,4 +36,10 @@ public interface StoreEntityCounters
     long allNodesCountStore( PageCursorTracer cursorTracer );
 
     long allRelationshipsCountStore( PageCursorTracer cursorTracer );
+
+    /**
+     * @param idType type of ids, i.e. which store, to get the counters for.
+     * @return counters for how many pages apart records allocated with a locality hint ended up from the records they're linked to.
+     */
+    IdLocalityCounters idLocality( IdType idType );
 }
@@ -20,6 +20,14 @@
 package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
@@ -27,25 +35,37 @@ import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
 import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.monitoring.Health;
 import org.neo4j.storageengine.api.TransactionIdStore;
 import org.neo4j.util.VisibleForTesting;
 
+import static org.neo4j.internal.helpers.Exceptions.throwIfInstanceOf;
+import static org.neo4j.internal.helpers.Exceptions.throwIfUnchecked;
 import static org.neo4j.kernel.impl.api.TransactionToApply.TRANSACTION_ID_NOT_SPECIFIED;
 
 /**
  * Concurrently appends transactions to the transaction log, while coordinating with the log rotation and forcing the
  * log file in batches for higher throughput in a concurrent scenario.
+ * <p>
+ * Committers queue up their batches on a lock-free stack. Whichever committer gets the append lock becomes the leader
+ * for all the batches that are queued up at that point: it appends them to the log in the order they were queued,
+ * under a single entry into the log file monitor, then forces the log once for the whole group, and finally wakes up
+ * the other committers in the group. The other committers only have to publish their own transactions as committed.
  */
 public class BatchingTransactionAppender extends LifecycleAdapter implements TransactionAppender
 {
+    private static final long PENDING_APPEND_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 100 );
+
     private final TransactionMetadataCache transactionMetadataCache;
     private final LogFile logFile;
     private final LogRotation logRotation;
     private final TransactionIdStore transactionIdStore;
     private final Health databaseHealth;
+    private final AtomicReference<PendingAppend> pendingAppendsHead = new AtomicReference<>( PendingAppend.END );
+    private final Lock appendLock = new ReentrantLock();
 
     private TransactionLogWriter transactionLogWriter;
     private int previousChecksum;
@@ -82,53 +102,243 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     @Override
     public long append( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
     {
-        // Assigned base tx id just to make compiler happy
-        long lastTransactionId = TransactionIdStore.BASE_TX_ID;
+        // There's a benign race here, where we add our append before we update our next pointer.
+        // This is okay, however, because takePendingAppends() spins when it sees a null next pointer.
+        PendingAppend pendingAppend = new PendingAppend( batch, logAppendEvent, Thread.currentThread() );
+        pendingAppend.next = pendingAppendsHead.getAndSet( pendingAppend );
+        LogForceWaitEvent logForceWaitEvent = null;
+        try
+        {
+            do
+            {
+                if ( !pendingAppend.taken && appendLock.tryLock() )
+                {
+                    // We are the leader, and append the batches of all the committers that are queued up, including our own.
+                    appendPendingBatches( pendingAppend );
+                }
+                else
+                {
+                    // Either another committer has taken our batch, and will unpark us once it is appended and forced,
+                    // or another committer is appending, and we will be unparked when it is done, so that we can take over.
+                    if ( logForceWaitEvent == null )
+                    {
+                        logForceWaitEvent = logAppendEvent.beginLogForceWait();
+                    }
+                    LockSupport.parkNanos( this, PENDING_APPEND_PARK_NANOS );
+                }
+            }
+            while ( !pendingAppend.done );
+        }
+        finally
+        {
+            if ( logForceWaitEvent != null )
+            {
+                logForceWaitEvent.close();
+            }
+        }
+
+        Throwable failure = pendingAppend.failure;
+        if ( failure != null )
+        {
+            // Some other committer failed to append or force our batch, which will have raised a database panic.
+            databaseHealth.assertHealthy( IOException.class );
+            throw new IOException( "Failed to append transaction batch", failure );
+        }
+
+        // Mark all transactions as committed
+        publishAsCommitted( batch );
+
+        return pendingAppend.lastTransactionId;
+    }
+
+    /**
+     * Append and force the batches of all pending appends, while holding the {@link #appendLock}. Only the appending
+     * happens under the lock, so the next group of batches can be appended while this group is being forced.
+     * <p>
+     * If a batch fails to be appended without leaving anything of it in the log, and the database is still healthy, then
+     * only that batch fails. Any other failure means that no more batches can be appended, so the batches of the group
+     * that are not appended yet fail with it. Either way, the batches that were appended are still forced and published
+     * as committed by their committers.
+     *
+     * @param ownAppend the pending append of the calling committer.
+     * @throws IOException if the group included the batch of the calling committer, and it could not be appended or forced.
+     */
+    private void appendPendingBatches( PendingAppend ownAppend ) throws IOException
+    {
+        List<PendingAppend> group = List.of();
+        try
+        {
+            group = takePendingAppends();
+            appendToLog( group );
+        }
+        catch ( Throwable failure )
+        {
+            List<PendingAppend> failed = new ArrayList<>();
+            for ( PendingAppend pendingAppend : group )
+            {
+                if ( !pendingAppend.appended && !pendingAppend.done )
+                {
+                    failed.add( pendingAppend );
+                }
+            }
+            completeGroup( failed, failure );
+        }
+        finally
+        {
+            appendLock.unlock();
+
+            // Let the most recent of the committers that queued up while we were appending take over from us.
+            pendingAppendsHead.get().unpark();
+        }
+
+        List<PendingAppend> appended = new ArrayList<>( group.size() );
+        for ( PendingAppend pendingAppend : group )
+        {
+            if ( pendingAppend.appended )
+            {
+                appended.add( pendingAppend );
+            }
+        }
+        if ( !appended.isEmpty() )
+        {
+            forceAppendedBatches( appended, ownAppend );
+        }
+        Throwable ownFailure = ownAppend.appended ? null : ownAppend.failure;
+        if ( ownFailure != null )
+        {
+            throwIfUnchecked( ownFailure );
+            throwIfInstanceOf( ownFailure, IOException.class );
+            throw new IOException( ownFailure );
+        }
+    }
+
+    private void forceAppendedBatches( List<PendingAppend> group, PendingAppend ownAppend ) throws IOException
+    {
+        try
+        {
+            // At this point we've appended all transactions in this group, but we can't mark any of them
+            // as committed since they haven't been forced to disk yet. So here we force, or potentially
+            // piggy-back on the force of the group before us, but anyway after this call below we can be sure
+            // that all the transactions in this group exist durably on disk. The other committers in the group
+            // see this as a log force wait, since they are parked until we are done.
+            LogAppendEvent logAppendEvent = group.contains( ownAppend ) ? ownAppend.logAppendEvent : group.get( 0 ).logAppendEvent;
+            boolean logRotated = false;
+            if ( logFile.forceAfterAppend( logAppendEvent ) )
+            {
+                // We got lucky and were the one forcing the log. It's enough if ones of all doing concurrent committers
+                // checks the need for log rotation.
+                logRotated = logRotation.rotateLogIfNeeded( logAppendEvent );
+            }
+            for ( PendingAppend pendingAppend : group )
+            {
+                pendingAppend.logAppendEvent.setLogRotated( logRotated );
+            }
+        }
+        catch ( Throwable failure )
+        {
+            completeGroup( group, failure );
+            if ( group.contains( ownAppend ) )
+            {
+                throw failure;
+            }
+            return;
+        }
+        completeGroup( group, null );
+    }
+
+    /**
+     * @return the pending appends in the order they were queued up, which is the order in which their transactions
+     * will be appended to the log.
+     */
+    private List<PendingAppend> takePendingAppends()
+    {
+        PendingAppend pendingAppend = pendingAppendsHead.getAndSet( PendingAppend.END );
+        if ( pendingAppend == PendingAppend.END )
+        {
+            return List.of();
+        }
+        List<PendingAppend> group = new ArrayList<>();
+        while ( pendingAppend != PendingAppend.END )
+        {
+            pendingAppend.taken = true;
+            group.add( pendingAppend );
+            PendingAppend next;
+            do
+            {
+                // Spin because of the race:y update when consing.
+                next = pendingAppend.next;
+            }
+            while ( next == null );
+            pendingAppend = next;
+        }
+        Collections.reverse( group );
+        return group;
+    }
+
+    private void appendToLog( List<PendingAppend> group ) throws IOException
+    {
         // Synchronized with logFile to get absolute control over concurrent rotations happening
         synchronized ( logFile )
         {
             // Assert that kernel is healthy before making any changes
             databaseHealth.assertHealthy( IOException.class );
-            try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
+            for ( PendingAppend pendingAppend : group )
             {
-                // Append all transactions in this batch to the log under the same logFile monitor
-                TransactionToApply tx = batch;
-                while ( tx != null )
+                try
+                {
+                    appendToLog( pendingAppend );
+                }
+                catch ( Throwable failure )
                 {
-                    long transactionId = transactionIdStore.nextCommittingTransactionId();
-
-                    // If we're in a scenario where we're merely replicating transactions, i.e. transaction
-                    // id have already been generated by another entity we simply check that our id
-                    // that we generated match that id. If it doesn't we've run into a problem we can't ´
-                    // really recover from and would point to a bug somewhere.
-                    matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
-
-                    TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId, logAppendEvent, previousChecksum );
-                    previousChecksum = commitment.getTransactionChecksum();
-                    tx.commitment( commitment, transactionId );
-                    tx.logPosition( commitment.logPosition() );
-                    tx = tx.next();
-                    lastTransactionId = transactionId;
+                    if ( pendingAppend.written || !databaseHealth.isHealthy() )
+                    {
+                        throw failure;
+                    }
+                    // Nothing of this batch is in the log, so the batches after it can still be appended
+                    completeGroup( List.of( pendingAppend ), failure );
+                    continue;
                 }
+                pendingAppend.appended = true;
             }
         }
+    }
 
-        // At this point we've appended all transactions in this batch, but we can't mark any of them
-        // as committed since they haven't been forced to disk yet. So here we force, or potentially
-        // piggy-back on another force, but anyway after this call below we can be sure that all our transactions
-        // in this batch exist durably on disk.
-        if ( logFile.forceAfterAppend( logAppendEvent ) )
+    private void appendToLog( PendingAppend pendingAppend ) throws IOException
+    {
+        LogAppendEvent logAppendEvent = pendingAppend.logAppendEvent;
+        try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
         {
-            // We got lucky and were the one forcing the log. It's enough if ones of all doing concurrent committers
-            // checks the need for log rotation.
-            boolean logRotated = logRotation.rotateLogIfNeeded( logAppendEvent );
-            logAppendEvent.setLogRotated( logRotated );
-        }
+            // Append all transactions in this batch to the log under the same logFile monitor
+            TransactionToApply tx = pendingAppend.batch;
+            while ( tx != null )
+            {
+                pendingAppend.written = true;
+                long transactionId = transactionIdStore.nextCommittingTransactionId();
 
-        // Mark all transactions as committed
-        publishAsCommitted( batch );
+                // If we're in a scenario where we're merely replicating transactions, i.e. transaction
+                // id have already been generated by another entity we simply check that our id
+                // that we generated match that id. If it doesn't we've run into a problem we can't ´
+                // really recover from and would point to a bug somewhere.
+                matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
+
+                TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId, logAppendEvent, previousChecksum );
+                previousChecksum = commitment.getTransactionChecksum();
+                tx.commitment( commitment, transactionId );
+                tx.logPosition( commitment.logPosition() );
+                tx = tx.next();
+                pendingAppend.lastTransactionId = transactionId;
+            }
+        }
+    }
 
-        return lastTransactionId;
+    private static void completeGroup( List<PendingAppend> group, Throwable failure )
+    {
+        for ( PendingAppend pendingAppend : group )
+        {
+            pendingAppend.failure = failure;
+            pendingAppend.done = true;
+            pendingAppend.unpark();
+        }
     }
 
     private void matchAgainstExpectedTransactionIdIfAny( long transactionId, TransactionToApply tx )
@@ -187,4 +397,42 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             throw panic;
         }
     }
+
+    /**
+     * A batch of transactions that is waiting to be appended by the leader of its group, see
+     * {@link #append(TransactionToApply, LogAppendEvent)}.
+     */
+    private static class PendingAppend
+    {
+        static final PendingAppend END = new PendingAppend( null, LogAppendEvent.NULL, null );
+
+        static
+        {
+            END.next = END;
+        }
+
+        final TransactionToApply batch;
+        final LogAppendEvent logAppendEvent;
+        final Thread thread;
+        volatile PendingAppend next;
+        volatile boolean taken;
+        volatile boolean done;
+        volatile Throwable failure;
+        long lastTransactionId = TransactionIdStore.BASE_TX_ID;
+        // Whether any transaction of the batch has taken a transaction id, and so may be in the log
+        boolean written;
+        boolean appended;
+
+        PendingAppend( TransactionToApply batch, LogAppendEvent logAppendEvent, Thread thread )
+        {
+            this.batch = batch;
+            this.logAppendEvent = logAppendEvent;
+            this.thread = thread;
+        }
+
+        void unpark()
+        {
+            LockSupport.unpark( thread );
+        }
+    }
 }
@@ -55,6 +55,13 @@ public class LabelViewNodeStoreScan<FAILURE extends Exception> extends NodeStore
         this.cursorTracer = cursorTracer;
     }
 
+    @Override
+    protected boolean canScanInRanges()
+    {
+        // Only the entities found in the token index are visited
+        return false;
+    }
+
     @Override
     public EntityIdIterator getEntityIdIterator()
     {
@@ -21,18 +21,26 @@ package org.neo4j.kernel.impl.transaction.state.storeview;
 
 import org.apache.commons.lang3.ArrayUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.IntPredicate;
 import java.util.function.LongFunction;
 
 import org.neo4j.internal.index.label.LabelScanStore;
 import org.neo4j.internal.index.label.RelationshipTypeScanStore;
 import org.neo4j.internal.kernel.api.PopulationProgress;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.api.index.IndexPopulator.PopulationWorkScheduler;
 import org.neo4j.kernel.impl.api.index.MultipleIndexPopulator;
 import org.neo4j.kernel.impl.api.index.PhaseTracker;
 import org.neo4j.kernel.impl.api.index.StoreScan;
 import org.neo4j.lock.Lock;
 import org.neo4j.memory.MemoryTracker;
+import org.neo4j.scheduler.JobHandle;
 import org.neo4j.storageengine.api.EntityUpdates;
 import org.neo4j.storageengine.api.IndexEntryUpdate;
 import org.neo4j.storageengine.api.StorageEntityScanCursor;
@@ -46,28 +54,43 @@ import static org.neo4j.io.IOUtils.closeAllUnchecked;
  * Scan store with the view given by iterator created by {@link #getEntityIdIterator()}. This might be a full scan of the store
  * or a partial scan backed by {@link LabelScanStore} or {@link RelationshipTypeScanStore}.
  *
- * The {@link #entityCursor cursor} is placed on each record and then {@link #process(StorageEntityScanCursor) processed},
+ * The {@link #entityCursor cursor} is placed on each record and then {@link #process(StorageEntityScanCursor, StoragePropertyCursor) processed},
  * this is where we extract updates for indexes that we are populating.
  *
+ * A full scan of the store can also be {@link #setParallelism(int, PopulationWorkScheduler, PageCacheTracer, RangeListener) split} into ranges of entity ids,
+ * claimed and scanned by multiple workers, each with its own cursors.
+ *
  * @param <CURSOR> the type of cursor used to read the records.
  * @param <FAILURE> on failure during processing.
  */
 public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityScanCursor, FAILURE extends Exception> implements StoreScan<FAILURE>
 {
+    /**
+     * Number of entity ids in each range claimed by a worker of a parallel scan.
+     */
+    static final int RANGE_SIZE = 4096;
+    private static final String STORE_SCAN_WORKER_TAG = "storeScanWorker";
+
     final CURSOR entityCursor;
     private final StoragePropertyCursor propertyCursor;
     private final StorageReader storageReader;
+    private final MemoryTracker memoryTracker;
     private volatile boolean continueScanning;
-    private long count;
+    private final LongAdder count = new LongAdder();
     private final long totalCount;
     private final IntPredicate propertyKeyIdFilter;
     private final LongFunction<Lock> lockFunction;
     private PhaseTracker phaseTracker;
+    private int numberOfWorkers = 1;
+    private PopulationWorkScheduler workScheduler;
+    private PageCacheTracer cacheTracer;
+    private RangeListener rangeListener;
 
     protected PropertyAwareEntityStoreScan( StorageReader storageReader, long totalEntityCount, IntPredicate propertyKeyIdFilter,
             LongFunction<Lock> lockFunction, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
     {
         this.storageReader = storageReader;
+        this.memoryTracker = memoryTracker;
         this.entityCursor = allocateCursor( storageReader, cursorTracer );
         this.propertyCursor = storageReader.allocatePropertyCursor( cursorTracer, memoryTracker );
         this.propertyKeyIdFilter = propertyKeyIdFilter;
@@ -78,6 +101,19 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
 
     protected abstract CURSOR allocateCursor( StorageReader storageReader, PageCursorTracer cursorTracer );
 
+    /**
+     * @return a scan of all entities of this type, which workers of a parallel scan share to claim distinct ranges from.
+     */
+    protected abstract RangeScan<CURSOR> rangeScan( StorageReader storageReader );
+
+    /**
+     * @return whether or not this scan visits all entities of the store, i.e. whether or not it can be split into ranges of entity ids.
+     */
+    protected boolean canScanInRanges()
+    {
+        return true;
+    }
+
     static boolean containsAnyEntityToken( int[] entityTokenFilter, long... entityTokens )
     {
         for ( long candidate : entityTokens )
@@ -90,7 +126,7 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         return false;
     }
 
-    boolean hasRelevantProperty( CURSOR cursor, EntityUpdates.Builder updates )
+    boolean hasRelevantProperty( CURSOR cursor, StoragePropertyCursor propertyCursor, EntityUpdates.Builder updates )
     {
         if ( !cursor.hasProperties() )
         {
@@ -118,6 +154,13 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
     @Override
     public void run() throws FAILURE
     {
+        // A store fitting in a single range isn't worth the overhead of workers
+        if ( numberOfWorkers > 1 && canScanInRanges() && totalCount > RANGE_SIZE )
+        {
+            runInRanges();
+            return;
+        }
+
         entityCursor.scan();
         try ( EntityIdIterator entityIdIterator = getEntityIdIterator() )
         {
@@ -128,8 +171,8 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
                 long id = entityIdIterator.next();
                 try ( Lock ignored = lockFunction.apply( id ) )
                 {
-                    count++;
-                    if ( process( entityCursor ) )
+                    count.increment();
+                    if ( process( entityCursor, propertyCursor ) )
                     {
                         entityIdIterator.invalidateCache();
                     }
@@ -142,6 +185,76 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         }
     }
 
+    private void runInRanges() throws FAILURE
+    {
+        phaseTracker.enterPhase( PhaseTracker.Phase.SCAN );
+        RangeScan<CURSOR> scan = rangeScan( storageReader );
+        List<RangeWorker> workers = new ArrayList<>( numberOfWorkers );
+        try
+        {
+            // Cursors are allocated up front, in this thread, and only closed after all workers have completed
+            for ( int i = 0; i < numberOfWorkers; i++ )
+            {
+                PageCursorTracer workerCursorTracer = cacheTracer.createPageCursorTracer( STORE_SCAN_WORKER_TAG );
+                workers.add( new RangeWorker( scan, workerCursorTracer, allocateCursor( storageReader, workerCursorTracer ),
+                        storageReader.allocatePropertyCursor( workerCursorTracer, memoryTracker ) ) );
+            }
+            continueScanning = true;
+            List<JobHandle<Void>> handles = new ArrayList<>( numberOfWorkers );
+            for ( RangeWorker worker : workers )
+            {
+                handles.add( workScheduler.schedule( indexName -> "Store scan worker for " + indexName, worker ) );
+            }
+            awaitWorkers( handles );
+        }
+        finally
+        {
+            workers.forEach( worker -> closeAllUnchecked( worker.propertyCursor, worker.cursor, worker.cursorTracer ) );
+            closeAllUnchecked( propertyCursor, entityCursor, storageReader );
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private void awaitWorkers( List<JobHandle<Void>> handles ) throws FAILURE
+    {
+        Throwable failure = null;
+        for ( JobHandle<Void> handle : handles )
+        {
+            try
+            {
+                handle.waitTermination();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                continueScanning = false;
+                failure = failure == null ? e : failure;
+            }
+            catch ( ExecutionException e )
+            {
+                // Make the other workers stop early too
+                continueScanning = false;
+                failure = failure == null ? e.getCause() : failure;
+            }
+        }
+        if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+        if ( failure instanceof InterruptedException )
+        {
+            throw new RuntimeException( failure );
+        }
+        if ( failure != null )
+        {
+            throw (FAILURE) failure;
+        }
+    }
+
     @Override
     public void acceptUpdate( MultipleIndexPopulator.MultipleIndexUpdater updater, IndexEntryUpdate<?> update,
             long currentlyIndexedNodeId )
@@ -156,11 +269,12 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
      * Process the given {@code record}.
      *
      * @param cursor CURSOR with information to process.
+     * @param propertyCursor cursor to read the properties of the entity with.
      * @return {@code true} if external updates have been applied such that the scan iterator needs to be 100% up to date with store,
      * i.e. invalidate any caches if it has any.
      * @throws FAILURE on failure.
      */
-    protected abstract boolean process( CURSOR cursor ) throws FAILURE;
+    protected abstract boolean process( CURSOR cursor, StoragePropertyCursor propertyCursor ) throws FAILURE;
 
     @Override
     public void stop()
@@ -173,7 +287,7 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
     {
         if ( totalCount > 0 )
         {
-            return PopulationProgress.single( count, totalCount );
+            return PopulationProgress.single( count.sum(), totalCount );
         }
 
         // nothing to do 100% completed
@@ -186,6 +300,15 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         this.phaseTracker = phaseTracker;
     }
 
+    @Override
+    public void setParallelism( int numberOfWorkers, PopulationWorkScheduler workScheduler, PageCacheTracer cacheTracer, RangeListener rangeListener )
+    {
+        this.numberOfWorkers = numberOfWorkers;
+        this.workScheduler = workScheduler;
+        this.cacheTracer = cacheTracer;
+        this.rangeListener = rangeListener;
+    }
+
     protected EntityIdIterator getEntityIdIterator()
     {
         return new EntityIdIterator()
@@ -229,4 +352,70 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
             }
         };
     }
+
+    /**
+     * Claims ranges of entities from a shared {@link RangeScan} and processes them, using its own cursors, until there are no more ranges
+     * or the scan is stopped.
+     */
+    private class RangeWorker implements Callable<Void>
+    {
+        private final RangeScan<CURSOR> scan;
+        private final PageCursorTracer cursorTracer;
+        private final CURSOR cursor;
+        private final StoragePropertyCursor propertyCursor;
+
+        RangeWorker( RangeScan<CURSOR> scan, PageCursorTracer cursorTracer, CURSOR cursor, StoragePropertyCursor propertyCursor )
+        {
+            this.scan = scan;
+            this.cursorTracer = cursorTracer;
+            this.cursor = cursor;
+            this.propertyCursor = propertyCursor;
+        }
+
+        @Override
+        public Void call() throws FAILURE
+        {
+            while ( continueScanning && scan.scanRange( cursor, RANGE_SIZE ) )
+            {
+                rangeListener.rangeStarted();
+                long lowestEntityId = Long.MAX_VALUE;
+                long highestEntityId = -1;
+                try
+                {
+                    long processed = 0;
+                    while ( continueScanning && cursor.next() )
+                    {
+                        long entityId = cursor.entityReference();
+                        try ( Lock ignored = lockFunction.apply( entityId ) )
+                        {
+                            processed++;
+                            process( cursor, propertyCursor );
+                        }
+                        lowestEntityId = Math.min( lowestEntityId, entityId );
+                        highestEntityId = entityId;
+                    }
+                    count.add( processed );
+                }
+                finally
+                {
+                    rangeListener.rangeCompleted( lowestEntityId, highestEntityId );
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Hands out distinct ranges of entities to the workers of a parallel scan.
+     */
+    @FunctionalInterface
+    protected interface RangeScan<CURSOR>
+    {
+        /**
+         * Initializes {@code cursor} to the next unclaimed range of at most {@code sizeHint} entities.
+         *
+         * @return {@code false} if there were no more ranges to claim, otherwise {@code true}.
+         */
+        boolean scanRange( CURSOR cursor, int sizeHint );
+    }
 }
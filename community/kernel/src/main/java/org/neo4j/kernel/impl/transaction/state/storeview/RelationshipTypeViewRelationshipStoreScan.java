@@ -48,6 +48,13 @@ public class RelationshipTypeViewRelationshipStoreScan<FAILURE extends Exception
         this.cursorTracer = cursorTracer;
     }
 
+    @Override
+    protected boolean canScanInRanges()
+    {
+        // Only the entities found in the token index are visited
+        return false;
+    }
+
     @Override
     protected EntityIdIterator getEntityIdIterator()
     {
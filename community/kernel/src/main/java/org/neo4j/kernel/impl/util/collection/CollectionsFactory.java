@@ -22,6 +22,9 @@ package org.neo4j.kernel.impl.util.collection;
 import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
 import org.eclipse.collections.api.set.primitive.MutableLongSet;
 
+import javax.annotation.Nullable;
+
+import org.neo4j.kernel.impl.api.state.OffHeapEntityStates;
 import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSets;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.values.storable.Value;
@@ -38,6 +41,16 @@ public interface CollectionsFactory
 
     MutableLongObjectMap<Value> newValuesMap( MemoryTracker memoryTracker );
 
+    /**
+     * @return off-heap container for the states of entities changed in a transaction and the index updates they cause, or {@code null}
+     * if those should be kept on-heap.
+     */
+    @Nullable
+    default OffHeapEntityStates newEntityStates( MemoryTracker memoryTracker )
+    {
+        return null;
+    }
+
     /**
      * Release previously created collections. This method does not invalidate the factory.
      */
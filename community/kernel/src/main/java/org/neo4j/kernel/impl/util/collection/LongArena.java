@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.graphdb.Resource;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.util.VisibleForTesting;
+
+import static java.lang.Math.max;
+import static org.neo4j.util.Preconditions.checkArgument;
+import static org.neo4j.util.Preconditions.checkState;
+
+/**
+ * Fixed size blocks of longs, allocated one after another in chunks of memory provided by a {@link MemoryAllocator}.
+ * <ul>
+ * <li>It is <b>not thread-safe</b>
+ * <li>Blocks can't be freed individually, all memory is released when the arena is closed
+ * <li>It has to be closed to prevent native memory leakage
+ * </ul>
+ * A block is addressed by the reference returned from {@link #allocate(int)}, which is never {@code 0}, so that {@code 0} can be used
+ * as a null reference in blocks referring to other blocks.
+ */
+public class LongArena implements Resource
+{
+    private static final int CHUNK_SIZE = (int) (ByteUnit.kibiBytes( 64 ) / Long.BYTES);
+
+    private final int chunkSize;
+    private final MemoryAllocator allocator;
+    private final MemoryTracker memoryTracker;
+    private final List<Memory> chunks = new ArrayList<>();
+    private int currentChunkSize;
+    private int position;
+    private boolean closed;
+
+    public LongArena( MemoryAllocator allocator, MemoryTracker memoryTracker )
+    {
+        this( CHUNK_SIZE, allocator, memoryTracker );
+    }
+
+    @VisibleForTesting
+    LongArena( int chunkSize, MemoryAllocator allocator, MemoryTracker memoryTracker )
+    {
+        this.chunkSize = chunkSize;
+        this.allocator = allocator;
+        this.memoryTracker = memoryTracker;
+        addNewChunk( chunkSize );
+        // Skip the first long, so that no block gets the 0 reference
+        position = 1;
+    }
+
+    /**
+     * @param size number of longs in the block
+     * @return reference to a new block of {@code size} longs, all {@code 0}
+     */
+    public long allocate( int size )
+    {
+        assertNotClosed();
+        checkArgument( size > 0, "Block size must be positive, was %d", size );
+        if ( size > currentChunkSize - position )
+        {
+            addNewChunk( max( chunkSize, size ) );
+        }
+        final long ref = ((chunks.size() - 1L) << 32) | position;
+        position += size;
+        return ref;
+    }
+
+    /**
+     * @param ref reference to a block, as returned from {@link #allocate(int)}
+     * @param index index of the long in the block
+     */
+    public long get( long ref, int index )
+    {
+        return chunks.get( (int) (ref >>> 32) ).readLong( offset( ref, index ) );
+    }
+
+    /**
+     * @param ref reference to a block, as returned from {@link #allocate(int)}
+     * @param index index of the long in the block
+     * @param value value to set
+     */
+    public void set( long ref, int index, long value )
+    {
+        chunks.get( (int) (ref >>> 32) ).writeLong( offset( ref, index ), value );
+    }
+
+    @Override
+    public void close()
+    {
+        assertNotClosed();
+        closed = true;
+        chunks.forEach( chunk -> chunk.free( memoryTracker ) );
+        chunks.clear();
+    }
+
+    private static long offset( long ref, int index )
+    {
+        return ((int) ref + (long) index) * Long.BYTES;
+    }
+
+    private void addNewChunk( int size )
+    {
+        chunks.add( allocator.allocate( (long) size * Long.BYTES, true, memoryTracker ) );
+        currentChunkSize = size;
+        position = 0;
+    }
+
+    private void assertNotClosed()
+    {
+        checkState( !closed, "Arena is closed" );
+    }
+}
@@ -27,6 +27,7 @@ import java.util.Collection;
 
 import org.neo4j.graphdb.Resource;
 import org.neo4j.kernel.impl.api.state.AppendOnlyValuesContainer;
+import org.neo4j.kernel.impl.api.state.OffHeapEntityStates;
 import org.neo4j.kernel.impl.api.state.ValuesContainer;
 import org.neo4j.kernel.impl.api.state.ValuesMap;
 import org.neo4j.kernel.impl.util.diffsets.MutableLongDiffSets;
@@ -38,13 +39,24 @@ import static org.neo4j.kernel.impl.util.diffsets.TrackableDiffSets.newMutableLo
 public class OffHeapCollectionsFactory implements CollectionsFactory
 {
     private final MemoryAllocator allocator;
+    private final boolean offHeapEntityStates;
 
     private final Collection<Resource> resources = new ArrayList<>();
     private ValuesContainer valuesContainer;
 
     public OffHeapCollectionsFactory( OffHeapBlockAllocator blockAllocator )
+    {
+        this( blockAllocator, false );
+    }
+
+    /**
+     * @param offHeapEntityStates whether to also keep entity states and index updates of transactions off-heap, see
+     * {@link #newEntityStates(MemoryTracker)}.
+     */
+    public OffHeapCollectionsFactory( OffHeapBlockAllocator blockAllocator, boolean offHeapEntityStates )
     {
         this.allocator = new OffHeapMemoryAllocator( blockAllocator );
+        this.offHeapEntityStates = offHeapEntityStates;
     }
 
     @Override
@@ -63,14 +75,37 @@ public class OffHeapCollectionsFactory implements CollectionsFactory
 
     @Override
     public MutableLongObjectMap<Value> newValuesMap( MemoryTracker memoryTracker )
+    {
+        return new ValuesMap( newLongLongMap( memoryTracker ), valuesContainer( memoryTracker ) );
+    }
+
+    @Override
+    public OffHeapEntityStates newEntityStates( MemoryTracker memoryTracker )
+    {
+        if ( !offHeapEntityStates )
+        {
+            return null;
+        }
+        final OffHeapEntityStates entityStates = new OffHeapEntityStates( new LongArena( allocator, memoryTracker ), valuesContainer( memoryTracker ),
+                () -> newLongLongMap( memoryTracker ), this, memoryTracker );
+        resources.add( entityStates );
+        return entityStates;
+    }
+
+    private LinearProbeLongLongHashMap newLongLongMap( MemoryTracker memoryTracker )
+    {
+        final LinearProbeLongLongHashMap map = new LinearProbeLongLongHashMap( allocator, memoryTracker );
+        resources.add( map );
+        return map;
+    }
+
+    private ValuesContainer valuesContainer( MemoryTracker memoryTracker )
     {
         if ( valuesContainer == null )
         {
             valuesContainer = new AppendOnlyValuesContainer( allocator, memoryTracker );
         }
-        final LinearProbeLongLongHashMap refs = new LinearProbeLongLongHashMap( allocator, memoryTracker );
-        resources.add( refs );
-        return new ValuesMap( refs, valuesContainer );
+        return valuesContainer;
     }
 
     @Override
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.monitoring.tracing;
+
+import org.neo4j.annotations.service.ServiceProvider;
+import org.neo4j.io.pagecache.tracing.LatencyHistogramPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.logging.Log;
+import org.neo4j.monitoring.Monitors;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.time.SystemNanoClock;
+
+/**
+ * A TracerFactory that, on top of the default tracers, records per-file latency histograms of the page cache IO.
+ * The histograms can be inspected through the {@link org.neo4j.io.pagecache.monitoring.PageCacheLatencies} interface.
+ */
+@ServiceProvider
+public class LatencyHistogramTracerFactory extends DefaultTracerFactory
+{
+    @Override
+    public String getName()
+    {
+        return "latency";
+    }
+
+    @Override
+    public PageCacheTracer createPageCacheTracer( Monitors monitors, JobScheduler jobScheduler, SystemNanoClock clock, Log log )
+    {
+        return new LatencyHistogramPageCacheTracer();
+    }
+}
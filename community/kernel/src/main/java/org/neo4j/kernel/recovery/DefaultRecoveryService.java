@@ -20,6 +20,7 @@
 package org.neo4j.kernel.recovery;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.impl.api.TransactionToApply;
@@ -139,14 +140,46 @@ public class DefaultRecoveryService implements RecoveryService
 
         @Override
         public boolean visit( CommittedTransactionRepresentation transaction ) throws Exception
+        {
+            storageEngine.apply( toApply( transaction ), mode );
+            return false;
+        }
+
+        /**
+         * Applies the whole batch as one chain of {@link TransactionToApply}, the same way batches are applied on commit.
+         */
+        @Override
+        public void visitBatch( List<CommittedTransactionRepresentation> transactions ) throws Exception
+        {
+            TransactionToApply first = null;
+            TransactionToApply last = null;
+            for ( CommittedTransactionRepresentation transaction : transactions )
+            {
+                TransactionToApply tx = toApply( transaction );
+                if ( first == null )
+                {
+                    first = tx;
+                }
+                else
+                {
+                    last.next( tx );
+                }
+                last = tx;
+            }
+            if ( first != null )
+            {
+                storageEngine.apply( first, mode );
+            }
+        }
+
+        private TransactionToApply toApply( CommittedTransactionRepresentation transaction )
         {
             TransactionRepresentation txRepresentation = transaction.getTransactionRepresentation();
             long txId = transaction.getCommitEntry().getTxId();
             TransactionToApply tx = new TransactionToApply( txRepresentation, txId, cursorTracer );
             tx.commitment( NO_COMMITMENT, txId );
             tx.logPosition( transaction.getStartEntry().getStartPosition() );
-            storageEngine.apply( tx, mode );
-            return false;
+            return tx;
         }
 
         @Override
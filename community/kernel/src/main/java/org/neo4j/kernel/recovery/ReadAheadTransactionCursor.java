@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import java.io.IOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.internal.helpers.NamedThreadFactory;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+
+/**
+ * A {@link TransactionCursor} that reads and decodes the transactions of another cursor in a separate thread, ahead of the
+ * consumer. This lets the recovery apply transactions to the store while the next ones are being read from the log.
+ * <p>
+ * Transactions, the positions after them, and any failure are handed over in the order they were read from the underlying
+ * cursor, so failures surface from {@link #next()} exactly where they would have surfaced from the underlying cursor.
+ */
+class ReadAheadTransactionCursor implements TransactionCursor
+{
+    private static final long OFFER_TIMEOUT_MILLIS = 10;
+
+    private final TransactionCursor source;
+    private final boolean positionAware;
+    private final BlockingQueue<Entry> queue;
+    private final Thread reader;
+    private volatile boolean stopped;
+
+    private CommittedTransactionRepresentation current;
+    private LogPosition position;
+    private boolean exhausted;
+
+    /**
+     * @param source the cursor to read ahead from, it is owned by this cursor from now on.
+     * @param positionAware whether or not {@link TransactionCursor#position()} is supported by the {@code source} cursor.
+     * Reversed cursors do not know the positions of their transactions.
+     * @param readAhead the maximum number of transactions to read ahead of the consumer.
+     * @param name name of the reading thread.
+     */
+    ReadAheadTransactionCursor( TransactionCursor source, boolean positionAware, int readAhead, String name )
+    {
+        this.source = source;
+        this.positionAware = positionAware;
+        this.position = sourcePosition();
+        this.queue = new ArrayBlockingQueue<>( readAhead );
+        this.reader = new NamedThreadFactory( name, true ).newThread( this::readTransactions );
+        this.reader.start();
+    }
+
+    private void readTransactions()
+    {
+        try
+        {
+            while ( !stopped && source.next() )
+            {
+                if ( !handOver( new Entry( source.get(), sourcePosition(), null ) ) )
+                {
+                    return;
+                }
+            }
+            handOver( new Entry( null, sourcePosition(), null ) );
+        }
+        catch ( Throwable t )
+        {
+            handOver( new Entry( null, null, t ) );
+        }
+    }
+
+    private LogPosition sourcePosition()
+    {
+        return positionAware ? source.position() : null;
+    }
+
+    private boolean handOver( Entry entry )
+    {
+        try
+        {
+            while ( !stopped )
+            {
+                if ( queue.offer( entry, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS ) )
+                {
+                    return true;
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        current = null;
+        if ( exhausted )
+        {
+            return false;
+        }
+
+        Entry entry = take();
+        if ( entry.failure != null )
+        {
+            exhausted = true;
+            throw asIOException( entry.failure );
+        }
+        position = entry.position;
+        if ( entry.transaction == null )
+        {
+            exhausted = true;
+            return false;
+        }
+        current = entry.transaction;
+        return true;
+    }
+
+    private Entry take() throws IOException
+    {
+        try
+        {
+            return queue.take();
+        }
+        catch ( InterruptedException e )
+        {
+            // Reported like an interrupted read of the log, which the recovery does not treat as a corrupted log
+            Thread.currentThread().interrupt();
+            ClosedByInterruptException interrupted = new ClosedByInterruptException();
+            interrupted.initCause( e );
+            throw interrupted;
+        }
+    }
+
+    private static IOException asIOException( Throwable failure )
+    {
+        if ( failure instanceof IOException )
+        {
+            return (IOException) failure;
+        }
+        if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+        return new IOException( failure );
+    }
+
+    @Override
+    public CommittedTransactionRepresentation get()
+    {
+        return current;
+    }
+
+    @Override
+    public LogPosition position()
+    {
+        if ( !positionAware )
+        {
+            throw new UnsupportedOperationException( "Should not be called" );
+        }
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        stopped = true;
+        queue.clear();
+        try
+        {
+            reader.join();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            source.close();
+        }
+    }
+
+    private static class Entry
+    {
+        private final CommittedTransactionRepresentation transaction;
+        private final LogPosition position;
+        private final Throwable failure;
+
+        Entry( CommittedTransactionRepresentation transaction, LogPosition position, Throwable failure )
+        {
+            this.transaction = transaction;
+            this.position = position;
+            this.failure = failure;
+        }
+    }
+}
@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.recovery;
 
+import java.util.List;
+
 import org.neo4j.internal.helpers.collection.Visitor;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 
@@ -27,4 +29,18 @@ import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
  */
 public interface RecoveryApplier extends Visitor<CommittedTransactionRepresentation,Exception>, AutoCloseable
 {
+    /**
+     * Apply a batch of recovered transactions, in the given order. Appliers that can apply several transactions in one go
+     * should override this, the default applies them one by one.
+     *
+     * @param transactions the transactions to apply, in transaction id order.
+     * @throws Exception if any of the transactions failed to apply.
+     */
+    default void visitBatch( List<CommittedTransactionRepresentation> transactions ) throws Exception
+    {
+        for ( CommittedTransactionRepresentation transaction : transactions )
+        {
+            visit( transaction );
+        }
+    }
 }
@@ -19,7 +19,10 @@
  */
 package org.neo4j.kernel.recovery;
 
+import java.io.IOException;
 import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.neo4j.common.ProgressReporter;
 import org.neo4j.dbms.database.DatabaseStartAbortedException;
@@ -33,6 +36,7 @@ import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.storageengine.api.TransactionIdStore;
 import org.neo4j.time.Stopwatch;
+import org.neo4j.util.FeatureToggles;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.neo4j.kernel.recovery.Recovery.throwUnableToCleanRecover;
@@ -48,6 +52,15 @@ public class TransactionLogsRecovery extends LifecycleAdapter
     private static final String REVERSE_RECOVERY_TAG = "restoreDatabase";
     private static final String RECOVERY_TAG = "recoverDatabase";
     private static final String RECOVERY_COMPLETED_TAG = "databaseRecoveryCompleted";
+    private static final String READER_THREAD_NAME = "RecoveryLogReader";
+    /**
+     * Number of transactions that are read and decoded from the log ahead of the ones being applied, or 0 to read them on the applying thread.
+     */
+    private static final int readAheadTransactions = FeatureToggles.getInteger( TransactionLogsRecovery.class, "readAheadTransactions", 1024 );
+    /**
+     * Number of recovered transactions that are applied to the store together, as one batch.
+     */
+    private static final int batchSize = FeatureToggles.getInteger( TransactionLogsRecovery.class, "batchSize", 100 );
 
     private final RecoveryService recoveryService;
     private final RecoveryMonitor monitor;
@@ -98,7 +111,7 @@ public class TransactionLogsRecovery extends LifecycleAdapter
             try
             {
                 long lowestRecoveredTxId = TransactionIdStore.BASE_TX_ID;
-                try ( var transactionsToRecover = recoveryService.getTransactionsInReverseOrder( recoveryStartPosition );
+                try ( var transactionsToRecover = readAhead( recoveryService.getTransactionsInReverseOrder( recoveryStartPosition ), false );
                       var cursorTracer = pageCacheTracer.createPageCursorTracer( REVERSE_RECOVERY_TAG );
                       var recoveryVisitor = recoveryService.getRecoveryApplier( REVERSE_RECOVERY, cursorTracer ) )
                 {
@@ -124,21 +137,47 @@ public class TransactionLogsRecovery extends LifecycleAdapter
                 // of the schema life until after we've done the reverse recovery.
                 schemaLife.init();
 
-                try ( TransactionCursor transactionsToRecover = recoveryService.getTransactions( recoveryStartPosition );
+                try ( TransactionCursor transactionsToRecover = readAhead( recoveryService.getTransactions( recoveryStartPosition ), true );
                         var cursorTracer = pageCacheTracer.createPageCursorTracer( RECOVERY_TAG );
                         RecoveryApplier recoveryVisitor = recoveryService.getRecoveryApplier( RECOVERY, cursorTracer ) )
                 {
-                    while ( transactionsToRecover.next() )
+                    List<CommittedTransactionRepresentation> batch = new ArrayList<>( batchSize );
+                    List<LogPosition> batchPositions = new ArrayList<>( batchSize );
+                    Exception readFailure = null;
+                    boolean hasNext = true;
+                    while ( hasNext )
                     {
-                        recoveryStartupChecker.checkIfCanceled();
-                        lastTransaction = transactionsToRecover.get();
-                        long txId = lastTransaction.getCommitEntry().getTxId();
-                        recoveryVisitor.visit( lastTransaction );
-                        monitor.transactionRecovered( txId );
-                        numberOfRecoveredTransactions++;
-                        lastTransactionPosition = transactionsToRecover.position();
-                        recoveryToPosition = lastTransactionPosition;
-                        reportProgress();
+                        try
+                        {
+                            hasNext = transactionsToRecover.next();
+                        }
+                        catch ( IOException | RuntimeException e )
+                        {
+                            // Transactions read before the failure are still applied below, so that a broken log tail
+                            // is truncated after the last transaction that could be read.
+                            readFailure = e;
+                            hasNext = false;
+                        }
+                        if ( hasNext )
+                        {
+                            recoveryStartupChecker.checkIfCanceled();
+                            batch.add( transactionsToRecover.get() );
+                            batchPositions.add( transactionsToRecover.position() );
+                        }
+                        if ( batch.size() >= batchSize || (!hasNext && !batch.isEmpty()) )
+                        {
+                            lastTransaction = batch.get( 0 );
+                            applyBatch( recoveryVisitor, batch );
+                            lastTransaction = batch.get( batch.size() - 1 );
+                            lastTransactionPosition = batchPositions.get( batchPositions.size() - 1 );
+                            recoveryToPosition = lastTransactionPosition;
+                            batch.clear();
+                            batchPositions.clear();
+                        }
+                    }
+                    if ( readFailure != null )
+                    {
+                        throw readFailure;
                     }
                     recoveryToPosition = transactionsToRecover.position();
                 }
@@ -177,6 +216,22 @@ public class TransactionLogsRecovery extends LifecycleAdapter
         monitor.recoveryCompleted( numberOfRecoveredTransactions, recoveryStartTime.elapsed( MILLISECONDS ) );
     }
 
+    private void applyBatch( RecoveryApplier recoveryVisitor, List<CommittedTransactionRepresentation> batch ) throws Exception
+    {
+        recoveryVisitor.visitBatch( batch );
+        for ( CommittedTransactionRepresentation transaction : batch )
+        {
+            monitor.transactionRecovered( transaction.getCommitEntry().getTxId() );
+            numberOfRecoveredTransactions++;
+            reportProgress();
+        }
+    }
+
+    private TransactionCursor readAhead( TransactionCursor cursor, boolean positionAware )
+    {
+        return readAheadTransactions > 0 ? new ReadAheadTransactionCursor( cursor, positionAware, readAheadTransactions, READER_THREAD_NAME ) : cursor;
+    }
+
     private void initProgressReporter( RecoveryStartInformation recoveryStartInformation,
             CommittedTransactionRepresentation lastReversedTransaction )
     {
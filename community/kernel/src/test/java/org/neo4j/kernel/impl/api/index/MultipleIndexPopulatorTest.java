@@ -26,6 +26,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.IntPredicate;
 
 import org.neo4j.common.EntityType;
@@ -62,6 +63,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.contains;
@@ -580,6 +582,49 @@ class MultipleIndexPopulatorTest
         assertThat( full ).isTrue();
     }
 
+    @Test
+    void shouldOnlyApplyConcurrentUpdatesOfScannedRangesInBetweenRanges() throws Exception
+    {
+        // given
+        MultipleIndexPopulator parallelPopulator = new MultipleIndexPopulator( indexStoreView, NullLogProvider.getInstance(), EntityType.NODE, schemaState,
+                indexStatisticsStore, mock( JobScheduler.class ), tokens, PageCacheTracer.NULL, INSTANCE, "", AUTH_DISABLED,
+                1, MultipleIndexPopulator.DEFAULT_BATCH_SIZE_SCAN, MultipleIndexPopulator.DEFAULT_BATCH_MAX_BYTE_SIZE, 1, 2 );
+        StoreScan<Exception> storeScan = mock( StoreScan.class );
+        AtomicReference<StoreScan.RangeListener> rangeListener = new AtomicReference<>();
+        doAnswer( invocation ->
+        {
+            rangeListener.set( invocation.getArgument( 3 ) );
+            return null;
+        } ).when( storeScan ).setParallelism( anyInt(), any(), any(), any() );
+        when( indexStoreView.visitNodes( any(), any(), any(), any(), anyBoolean(), any(), any() ) ).thenReturn( storeScan );
+        IndexUpdater indexUpdater = mock( IndexUpdater.class );
+        addPopulator( parallelPopulator, createIndexPopulator( indexUpdater ), 1, mock( FlippableIndexProxy.class ), mock( FailedIndexProxyFactory.class ) );
+        parallelPopulator.create( NULL );
+        parallelPopulator.createStoreScan( NULL );
+        IndexEntryUpdate<?> scannedUpdate = add( 10, index1, "scanned" );
+        IndexEntryUpdate<?> notScannedUpdate = add( 5_000, index1, "notScanned" );
+        parallelPopulator.queueConcurrentUpdate( scannedUpdate );
+        parallelPopulator.queueConcurrentUpdate( notScannedUpdate );
+
+        // when
+        rangeListener.get().rangeStarted();
+        rangeListener.get().rangeCompleted( 0, 4_000 );
+
+        // then
+        verify( indexUpdater ).process( scannedUpdate );
+        verify( indexUpdater, never() ).process( notScannedUpdate );
+
+        // when
+        IndexEntryUpdate<?> otherUpdate = add( 6_000, index1, "other" );
+        parallelPopulator.queueConcurrentUpdate( otherUpdate );
+        rangeListener.get().rangeStarted();
+        rangeListener.get().rangeCompleted( 4_100, 8_000 );
+
+        // then
+        verify( indexUpdater ).process( notScannedUpdate );
+        verify( indexUpdater ).process( otherUpdate );
+    }
+
     private static IndexEntryUpdate<?> createIndexEntryUpdate( LabelSchemaDescriptor schemaDescriptor )
     {
         return add( 1, schemaDescriptor, "theValue" );
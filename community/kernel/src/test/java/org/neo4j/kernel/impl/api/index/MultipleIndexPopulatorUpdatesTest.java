@@ -51,6 +51,7 @@ import org.neo4j.storageengine.api.EntityUpdates;
 import org.neo4j.storageengine.api.IndexEntryUpdate;
 import org.neo4j.storageengine.api.EntityTokenUpdate;
 import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
 import org.neo4j.test.InMemoryTokens;
 import org.neo4j.values.storable.Values;
@@ -178,10 +179,10 @@ class MultipleIndexPopulatorUpdatesTest
         }
 
         @Override
-        public boolean process( StorageNodeCursor cursor ) throws FAILURE
+        public boolean process( StorageNodeCursor cursor, StoragePropertyCursor propertyCursor ) throws FAILURE
         {
             processListener.receive( cursor );
-            return super.process( cursor );
+            return super.process( cursor, propertyCursor );
         }
     }
 }
@@ -33,6 +33,7 @@ import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import org.neo4j.index.internal.gbptree.TreeFileNotFoundException;
 import org.neo4j.internal.helpers.Exceptions;
+import org.neo4j.internal.schema.SchemaDescriptor;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
@@ -41,18 +42,26 @@ import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.api.index.HyperLogLogSketch;
 import org.neo4j.kernel.api.index.IndexSample;
 import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.storageengine.api.IndexEntryUpdate;
 import org.neo4j.test.Race;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.RandomExtension;
 import org.neo4j.test.extension.pagecache.EphemeralPageCacheExtension;
 import org.neo4j.test.rule.RandomRule;
 import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.neo4j.annotations.documented.ReporterFactories.noopReporterFactory;
@@ -64,6 +73,8 @@ import static org.neo4j.test.Race.throwing;
 @ExtendWith( RandomExtension.class )
 class IndexStatisticsStoreTest
 {
+    private static final SchemaDescriptor INDEX = SchemaDescriptor.forLabel( 1, 2 );
+
     private LifeSupport lifeSupport = new LifeSupport();
 
     @Inject
@@ -186,6 +197,68 @@ class IndexStatisticsStoreTest
                 initialSample.updates() + addedUpdates ), store.indexSample( indexId ) );
     }
 
+    @Test
+    void shouldKeepStatisticsUpToDateIncrementallyForSampleWithSketch() throws IOException
+    {
+        // given a sample of 1000 entries with 100 unique values
+        long indexId = 4;
+        HyperLogLogSketch sketch = new HyperLogLogSketch();
+        for ( int i = 0; i < 100; i++ )
+        {
+            sketch.add( HyperLogLogSketch.hash( new Value[]{Values.intValue( i )} ) );
+        }
+        store.replaceStats( indexId, new IndexSample( 1000, 100, 1000, sketch ) );
+        IncrementalIndexStatistics incrementalStatistics = store.incrementalStatistics( indexId );
+        assertNotNull( incrementalStatistics );
+
+        // when adding 100 entries with new unique values
+        for ( int i = 0; i < 100; i++ )
+        {
+            assertFalse( incrementalStatistics.process( IndexEntryUpdate.add( i, INDEX, Values.intValue( 100 + i ) ) ) );
+        }
+
+        // then
+        IndexSample sample = store.indexSample( indexId );
+        assertEquals( 1100, sample.indexSize() );
+        assertEquals( 1100, sample.sampleSize() );
+        assertThat( sample.uniqueValues() ).isCloseTo( 200L, within( 5L ) );
+        assertEquals( 0, sample.updates() );
+
+        // when removing entries, which makes the unique values drift
+        for ( int i = 0; i < 50; i++ )
+        {
+            assertTrue( incrementalStatistics.process( IndexEntryUpdate.remove( i, INDEX, Values.intValue( i ) ) ) );
+        }
+        store.incrementIndexUpdates( indexId, 50 );
+
+        // then
+        sample = store.indexSample( indexId );
+        assertEquals( 1050, sample.indexSize() );
+        assertEquals( 50, sample.updates() );
+
+        // and the up to date statistics are what's stored on checkpoint
+        restartStore();
+        assertEquals( new IndexSample( sample.indexSize(), sample.uniqueValues(), sample.sampleSize(), sample.updates() ), store.indexSample( indexId ) );
+        assertNull( store.incrementalStatistics( indexId ) );
+    }
+
+    @Test
+    void shouldStopIncrementalStatisticsOnSampleWithoutSketch()
+    {
+        // given
+        long indexId = 4;
+        store.replaceStats( indexId, new IndexSample( 10, 10, 10, new HyperLogLogSketch() ) );
+        assertNotNull( store.incrementalStatistics( indexId ) );
+
+        // when
+        IndexSample sample = new IndexSample( 20, 5, 20 );
+        store.replaceStats( indexId, sample );
+
+        // then
+        assertNull( store.incrementalStatistics( indexId ) );
+        assertEquals( sample, store.indexSample( indexId ) );
+    }
+
     @Test
     void shouldStoreDataOnCheckpoint() throws IOException
     {
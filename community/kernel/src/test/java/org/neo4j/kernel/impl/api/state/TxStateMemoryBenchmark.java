@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.state;
+
+import org.eclipse.collections.api.IntIterable;
+import org.eclipse.collections.api.set.primitive.LongSet;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.configuration.GraphDatabaseSettings.TransactionStateMemoryAllocation;
+import org.neo4j.internal.helpers.Args;
+import org.neo4j.internal.schema.SchemaDescriptor;
+import org.neo4j.kernel.impl.util.collection.CachingOffHeapBlockAllocator;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.OffHeapCollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.OnHeapCollectionsFactory;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.storageengine.api.StorageProperty;
+import org.neo4j.storageengine.api.txstate.LongDiffSets;
+import org.neo4j.storageengine.api.txstate.TxStateVisitor;
+import org.neo4j.values.storable.ValueTuple;
+import org.neo4j.values.storable.Values;
+
+import static org.neo4j.internal.schema.SchemaDescriptor.forLabel;
+
+/**
+ * Measures the heap usage and the commit time of the transaction state of a single large write transaction, for each
+ * {@link TransactionStateMemoryAllocation}. Every created node gets a label, {@code --properties} properties and an index update for
+ * its first property, every created relationship gets one property. Commit time is the time it takes to visit the state the way
+ * command creation does, including the index updates, and then to release it. Heap usage is the retained heap after a full GC while the
+ * state is still referenced, next to the heap and native memory that the transaction's memory tracker accounted for.
+ * <p>
+ * Options, all optional:
+ * <ul>
+ *     <li>{@code --nodes} the number of nodes created in the transaction, defaults to {@code 1000000}</li>
+ *     <li>{@code --relationships} the number of relationships created in the transaction, between the created nodes, which keeps
+ *     their endpoints on heap also in {@code FULLY_OFF_HEAP}, defaults to {@code 0}</li>
+ *     <li>{@code --properties} the number of properties of each node, defaults to {@code 3}</li>
+ *     <li>{@code --rounds} the number of rounds for each allocation, where the first round is warmup, defaults to {@code 3}</li>
+ * </ul>
+ */
+public class TxStateMemoryBenchmark
+{
+    private static final int LABEL = 1;
+
+    public static void main( String[] arguments ) throws Exception
+    {
+        Args args = Args.parse( arguments );
+        int nodes = args.getNumber( "nodes", 1_000_000 ).intValue();
+        int relationships = args.getNumber( "relationships", 0 ).intValue();
+        int properties = args.getNumber( "properties", 3 ).intValue();
+        int rounds = args.getNumber( "rounds", 3 ).intValue();
+
+        CachingOffHeapBlockAllocator blockAllocator = new CachingOffHeapBlockAllocator();
+        SchemaDescriptor schema = forLabel( LABEL, 0 );
+        for ( TransactionStateMemoryAllocation allocation : TransactionStateMemoryAllocation.values() )
+        {
+            for ( int round = 0; round < rounds; round++ )
+            {
+                CollectionsFactory collectionsFactory = allocation == TransactionStateMemoryAllocation.ON_HEAP
+                                                        ? OnHeapCollectionsFactory.INSTANCE
+                                                        : new OffHeapCollectionsFactory( blockAllocator,
+                                                                allocation == TransactionStateMemoryAllocation.FULLY_OFF_HEAP );
+                LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+                long heapBefore = usedHeap();
+
+                long start = System.nanoTime();
+                TxState txState = new TxState( collectionsFactory, memoryTracker );
+                for ( long node = 0; node < nodes; node++ )
+                {
+                    txState.nodeDoCreate( node );
+                    txState.nodeDoAddLabel( LABEL, node );
+                    for ( int key = 0; key < properties; key++ )
+                    {
+                        txState.nodeDoAddProperty( node, key, Values.longValue( node * properties + key ) );
+                    }
+                    if ( properties > 0 )
+                    {
+                        txState.indexDoUpdateEntry( schema, node, null, ValueTuple.of( Values.longValue( node * properties ) ) );
+                    }
+                }
+                for ( long relationship = 0; relationship < relationships; relationship++ )
+                {
+                    txState.relationshipDoCreate( relationship, 0, relationship % nodes, (relationship + 1) % nodes );
+                    txState.relationshipDoReplaceProperty( relationship, 0, Values.NO_VALUE, Values.longValue( relationship ) );
+                }
+                long buildNanos = System.nanoTime() - start;
+                long retainedHeap = usedHeap() - heapBefore;
+                long trackedHeap = memoryTracker.estimatedHeapMemory();
+                long trackedNative = memoryTracker.usedNativeMemory();
+
+                start = System.nanoTime();
+                CountingVisitor visitor = new CountingVisitor();
+                txState.accept( visitor );
+                for ( LongDiffSets diffSets : txState.getIndexUpdates( schema ).values() )
+                {
+                    visitor.visited += diffSets.getAdded().size();
+                }
+                collectionsFactory.release();
+                long commitNanos = System.nanoTime() - start;
+
+                long entities = (long) nodes + relationships;
+                System.out.printf( "%s%s: build %d ms, commit %d ms, retained heap %.1f B/entity, tracked heap %.1f B/entity, " +
+                                "tracked native %.1f B/entity (%d visited)%n", allocation, round == 0 ? " (warmup)" : "",
+                        TimeUnit.NANOSECONDS.toMillis( buildNanos ), TimeUnit.NANOSECONDS.toMillis( commitNanos ),
+                        (double) retainedHeap / entities, (double) trackedHeap / entities, (double) trackedNative / entities, visitor.visited );
+            }
+        }
+        blockAllocator.release();
+    }
+
+    private static long usedHeap()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for ( int i = 0; i < 3; i++ )
+        {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static class CountingVisitor extends TxStateVisitor.Adapter
+    {
+        private long visited;
+
+        @Override
+        public void visitCreatedNode( long id )
+        {
+            visited++;
+        }
+
+        @Override
+        public void visitCreatedRelationship( long id, int type, long startNode, long endNode )
+        {
+            visited++;
+        }
+
+        @Override
+        public void visitNodePropertyChanges( long id, Iterator<StorageProperty> added, Iterator<StorageProperty> changed, IntIterable removed )
+        {
+            visited += drain( added ) + drain( changed ) + removed.size();
+        }
+
+        @Override
+        public void visitRelPropertyChanges( long id, Iterator<StorageProperty> added, Iterator<StorageProperty> changed, IntIterable removed )
+        {
+            visited += drain( added ) + drain( changed ) + removed.size();
+        }
+
+        @Override
+        public void visitNodeLabelChanges( long id, LongSet added, LongSet removed )
+        {
+            visited += added.size() + removed.size();
+        }
+
+        private static long drain( Iterator<StorageProperty> properties )
+        {
+            long count = 0;
+            while ( properties.hasNext() )
+            {
+                properties.next();
+                count++;
+            }
+            return count;
+        }
+    }
+}
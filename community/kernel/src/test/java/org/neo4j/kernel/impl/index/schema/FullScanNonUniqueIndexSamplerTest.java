@@ -38,6 +38,7 @@ import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.ValueType;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.neo4j.internal.schema.IndexPrototype.forSchema;
 import static org.neo4j.internal.schema.SchemaDescriptor.forLabel;
@@ -71,6 +72,8 @@ public class FullScanNonUniqueIndexSamplerTest extends NativeIndexTestUtil<Gener
         assertEquals( values.length, sample.sampleSize() );
         assertEquals( countUniqueValues( values ), sample.uniqueValues() );
         assertEquals( values.length, sample.indexSize() );
+        // Two of the few unique values may end up in the same register of the sketch
+        assertThat( sample.sketch().estimate() ).isCloseTo( countUniqueValues( values ), within( 2L ) );
     }
 
     @Test
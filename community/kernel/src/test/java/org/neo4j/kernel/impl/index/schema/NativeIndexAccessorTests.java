@@ -357,6 +357,39 @@ abstract class NativeIndexAccessorTests<KEY extends NativeIndexKey<KEY>, VALUE e
         }
     }
 
+    @Test
+    void shouldReturnMatchingEntriesForEachExactPredicateInBatch() throws Exception
+    {
+        // given
+        IndexEntryUpdate<IndexDescriptor>[] updates = someUpdatesSingleType();
+        processAll( updates );
+        Object mismatchingValue = generateUniqueValue( updates );
+
+        // when
+        IndexReader reader = accessor.newReader();
+        IndexQuery[][] queries = new IndexQuery[updates.length + 1][];
+        NodeValueIterator[] results = new NodeValueIterator[queries.length];
+        for ( int i = 0; i < queries.length; i++ )
+        {
+            queries[i] = new IndexQuery[]{IndexQuery.exact( 0, i < updates.length ? updates[i].values()[0] : mismatchingValue )};
+            results[i] = new NodeValueIterator();
+        }
+        reader.queryBatch( NULL_CONTEXT, results, unconstrained(), queries );
+
+        // then
+        for ( int i = 0; i < updates.length; i++ )
+        {
+            try ( NodeValueIterator result = results[i] )
+            {
+                assertEntityIdHits( extractEntityIds( updates, in( updates[i].values()[0] ) ), result );
+            }
+        }
+        try ( NodeValueIterator result = results[updates.length] )
+        {
+            assertEntityIdHits( EMPTY_LONG_ARRAY, result );
+        }
+    }
+
     @Test
     void shouldReturnMatchingEntriesForRangePredicateWithInclusiveStartAndExclusiveEnd() throws Exception
     {
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking.striped;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.internal.helpers.Args;
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.community.CommunityLockManger;
+import org.neo4j.lock.ResourceTypes;
+import org.neo4j.time.Clocks;
+import org.neo4j.time.SystemNanoClock;
+
+import static org.neo4j.lock.LockTracer.NONE;
+
+/**
+ * Measures the lock throughput of the {@link CommunityLockManger} and the {@link StripedLockManager} when many threads
+ * compete for the same resources.
+ * <p>
+ * Every thread runs small transactions that take shared locks on a few labels out of a small, hot set, and an exclusive
+ * lock on a node out of a larger set, and then close their client. The number of transactions completed per second is
+ * printed for each lock manager and thread count.
+ * <p>
+ * Options, all optional:
+ * <ul>
+ *     <li>{@code --threads} comma separated thread counts, defaults to {@code 1,4,16} and the number of processors</li>
+ *     <li>{@code --labels} the size of the set of labels that are locked shared, defaults to {@code 8}</li>
+ *     <li>{@code --nodes} the size of the set of nodes that are locked exclusively, defaults to {@code 1000}</li>
+ *     <li>{@code --warmup} seconds of warm-up before each measurement, defaults to {@code 2}</li>
+ *     <li>{@code --duration} seconds of each measurement, defaults to {@code 5}</li>
+ * </ul>
+ */
+public class LockManagerContention
+{
+    private static final int SHARED_LOCKS_PER_TRANSACTION = 3;
+
+    private final int labels;
+    private final int nodes;
+    private final long warmupNanos;
+    private final long durationNanos;
+
+    private LockManagerContention( int labels, int nodes, long warmupNanos, long durationNanos )
+    {
+        this.labels = labels;
+        this.nodes = nodes;
+        this.warmupNanos = warmupNanos;
+        this.durationNanos = durationNanos;
+    }
+
+    public static void main( String[] arguments ) throws InterruptedException
+    {
+        Args args = Args.parse( arguments );
+        String defaultThreads = "1,4,16," + Runtime.getRuntime().availableProcessors();
+        LockManagerContention benchmark = new LockManagerContention(
+                args.getNumber( "labels", 8 ).intValue(),
+                args.getNumber( "nodes", 1000 ).intValue(),
+                TimeUnit.SECONDS.toNanos( args.getNumber( "warmup", 2 ).longValue() ),
+                TimeUnit.SECONDS.toNanos( args.getNumber( "duration", 5 ).longValue() ) );
+
+        Config config = Config.defaults();
+        SystemNanoClock clock = Clocks.nanoClock();
+        for ( String threads : args.get( "threads", defaultThreads ).split( "," ) )
+        {
+            int threadCount = Integer.parseInt( threads.trim() );
+            benchmark.run( "community", new CommunityLockManger( config, clock ), threadCount );
+            benchmark.run( "striped", new StripedLockManager( config, clock, ResourceTypes.values() ), threadCount );
+        }
+    }
+
+    private void run( String name, Locks locks, int threadCount ) throws InterruptedException
+    {
+        try
+        {
+            measure( locks, threadCount, warmupNanos );
+            LongAdder deadlocks = new LongAdder();
+            long transactions = measure( locks, threadCount, durationNanos, deadlocks );
+            double perSecond = transactions / (durationNanos / (double) TimeUnit.SECONDS.toNanos( 1 ));
+            System.out.printf( "%-10s threads=%-4d transactions/s=%,14.0f deadlocks=%d%n", name, threadCount, perSecond, deadlocks.sum() );
+        }
+        finally
+        {
+            locks.close();
+        }
+    }
+
+    private long measure( Locks locks, int threadCount, long nanos ) throws InterruptedException
+    {
+        return measure( locks, threadCount, nanos, new LongAdder() );
+    }
+
+    private long measure( Locks locks, int threadCount, long nanos, LongAdder deadlocks ) throws InterruptedException
+    {
+        LongAdder transactions = new LongAdder();
+        CountDownLatch start = new CountDownLatch( 1 );
+        List<Thread> threads = new ArrayList<>();
+        long[] deadline = new long[1];
+        for ( int i = 0; i < threadCount; i++ )
+        {
+            Thread thread = new Thread( () ->
+            {
+                try
+                {
+                    start.await();
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] labelIds = new long[SHARED_LOCKS_PER_TRANSACTION];
+                long count = 0;
+                while ( System.nanoTime() < deadline[0] )
+                {
+                    for ( int j = 0; j < labelIds.length; j++ )
+                    {
+                        labelIds[j] = random.nextInt( labels );
+                    }
+                    try ( Locks.Client client = locks.newClient() )
+                    {
+                        client.initialize( null, count );
+                        client.acquireShared( NONE, ResourceTypes.LABEL, labelIds );
+                        client.acquireExclusive( NONE, ResourceTypes.NODE, random.nextInt( nodes ) );
+                        count++;
+                    }
+                    catch ( DeadlockDetectedException e )
+                    {
+                        deadlocks.increment();
+                    }
+                }
+                transactions.add( count );
+            }, "LockManagerContention-" + i );
+            thread.start();
+            threads.add( thread );
+        }
+        deadline[0] = System.nanoTime() + nanos;
+        start.countDown();
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+        return transactions.sum();
+    }
+}
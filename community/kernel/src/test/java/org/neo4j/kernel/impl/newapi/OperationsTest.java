@@ -1116,7 +1116,7 @@ class OperationsTest
         // then
         InOrder inOrder = inOrder( ktx, commandCreationContext );
         inOrder.verify( ktx ).txState();
-        inOrder.verify( commandCreationContext ).reserveRelationship();
+        inOrder.verify( commandCreationContext ).reserveRelationship( 0 );
         inOrder.verifyNoMoreInteractions();
     }
 
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.logging.NullLog;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.memory.MemoryPools;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.time.Clocks;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.collections.api.factory.Sets.immutable;
+import static org.neo4j.configuration.GraphDatabaseInternalSettings.pagecache_warmup_parallelism;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_enabled;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_warmup_prefetch;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
+
+@EphemeralTestDirectoryExtension
+class PageCacheWarmerTest
+{
+    private static final int FILE_PAGES = 200;
+
+    @Inject
+    private FileSystemAbstraction fs;
+    @Inject
+    private TestDirectory testDirectory;
+
+    private JobScheduler jobScheduler;
+    private DatabaseLayout databaseLayout;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        jobScheduler = createInitialisedScheduler();
+        databaseLayout = DatabaseLayout.ofFlat( testDirectory.homePath() );
+        file = databaseLayout.databaseDirectory().resolve( "store" );
+        try ( PageCache pageCache = pageCache( FILE_PAGES );
+              PagedFile pagedFile = pageCache.map( file, pageCache.pageSize(), immutable.of( CREATE ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK, NULL ) )
+        {
+            for ( int i = 0; i < FILE_PAGES; i++ )
+            {
+                assertThat( cursor.next() ).isTrue();
+                cursor.putInt( i );
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        jobScheduler.close();
+    }
+
+    @Test
+    void mustReloadProfiledPagesOnStart() throws Exception
+    {
+        Config config = Config.defaults( pagecache_warmup_enabled, true );
+        try ( PageCache pageCache = pageCache( FILE_PAGES * 2 );
+              PagedFile pagedFile = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            touch( pagedFile, Set.of( 0L, 5L, 10L, 11L, 12L, 13L, 199L ) );
+            assertThat( warmer( pageCache, config ).profile() ).isEqualTo( 7 );
+        }
+        assertThat( fs.fileExists( databaseLayout.databaseDirectory().resolve( PageCacheWarmer.PROFILE_DIRECTORY )
+                .resolve( "store" + PageCacheWarmer.PROFILE_SUFFIX ) ) ).isTrue();
+
+        try ( PageCache pageCache = pageCache( FILE_PAGES * 2 );
+              PagedFile pagedFile = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            PageCacheWarmer warmer = warmer( pageCache, config );
+            warmer.start();
+            try
+            {
+                assertThat( residentPages( pagedFile ) ).containsExactlyInAnyOrder( 0L, 5L, 10L, 11L, 12L, 13L, 199L );
+                assertPageContents( pagedFile );
+            }
+            finally
+            {
+                warmer.stop();
+            }
+        }
+    }
+
+    @Test
+    void mustLoadEntireFilesWhenPrefetching() throws Exception
+    {
+        Config config = Config.defaults( pagecache_warmup_enabled, true );
+        config.set( pagecache_warmup_prefetch, true );
+        try ( PageCache pageCache = pageCache( FILE_PAGES * 2 );
+              PagedFile pagedFile = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            PageCacheWarmer warmer = warmer( pageCache, config );
+            warmer.start();
+            warmer.stop();
+            assertThat( residentPages( pagedFile ) ).hasSize( FILE_PAGES );
+            assertPageContents( pagedFile );
+        }
+        assertThat( fs.fileExists( databaseLayout.databaseDirectory().resolve( PageCacheWarmer.PROFILE_DIRECTORY ) ) ).isFalse();
+    }
+
+    @Test
+    void mustNotLoadMorePagesThanFitInCache() throws Exception
+    {
+        Config config = Config.defaults( pagecache_warmup_parallelism, 1 );
+        config.set( pagecache_warmup_prefetch, true );
+        int cachePages = FILE_PAGES / 4;
+        try ( PageCache pageCache = pageCache( cachePages );
+              PagedFile pagedFile = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            long loadedPages = warmer( pageCache, config ).reload();
+            assertThat( loadedPages ).isGreaterThan( 0 ).isLessThanOrEqualTo( pageCache.maxCachedPages() );
+        }
+    }
+
+    @Test
+    void mustNotProfileWhenReadOnly() throws Exception
+    {
+        Config config = Config.defaults( pagecache_warmup_enabled, true );
+        config.set( GraphDatabaseSettings.read_only, true );
+        try ( PageCache pageCache = pageCache( FILE_PAGES );
+              PagedFile ignore = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            PageCacheWarmer warmer = warmer( pageCache, config );
+            warmer.start();
+            warmer.stop();
+        }
+        assertThat( fs.fileExists( databaseLayout.databaseDirectory().resolve( PageCacheWarmer.PROFILE_DIRECTORY ) ) ).isFalse();
+    }
+
+    @Test
+    void mustNotProfileByDefault() throws Exception
+    {
+        Config config = Config.defaults();
+        try ( PageCache pageCache = pageCache( FILE_PAGES );
+              PagedFile pagedFile = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            touch( pagedFile, Set.of( 0L, 1L ) );
+            PageCacheWarmer warmer = warmer( pageCache, config );
+            warmer.start();
+            warmer.stop();
+        }
+        assertThat( fs.fileExists( databaseLayout.databaseDirectory().resolve( PageCacheWarmer.PROFILE_DIRECTORY ) ) ).isFalse();
+    }
+
+    private PageCacheWarmer warmer( PageCache pageCache, Config config )
+    {
+        return new PageCacheWarmer( fs, pageCache, jobScheduler, databaseLayout, config, PageCacheTracer.NULL, NullLogProvider.getInstance(), "neo4j" );
+    }
+
+    private PageCache pageCache( long pages )
+    {
+        Config config = Config.defaults( pagecache_memory, Long.toString( MuninnPageCache.memoryRequiredForPages( pages ) ) );
+        return new ConfiguringPageCacheFactory( fs, config, PageCacheTracer.NULL, NullLog.getInstance(), EmptyVersionContextSupplier.EMPTY,
+                jobScheduler, Clocks.nanoClock(), new MemoryPools() ).getOrCreatePageCache();
+    }
+
+    private static void touch( PagedFile pagedFile, Set<Long> pageIds ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+        {
+            for ( long pageId : pageIds )
+            {
+                assertThat( cursor.next( pageId ) ).isTrue();
+            }
+        }
+    }
+
+    private static Set<Long> residentPages( PagedFile pagedFile ) throws IOException
+    {
+        Set<Long> pages = new HashSet<>();
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT, NULL ) )
+        {
+            for ( long pageId = 0; cursor.next(); pageId++ )
+            {
+                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                {
+                    pages.add( pageId );
+                }
+            }
+        }
+        return pages;
+    }
+
+    private static void assertPageContents( PagedFile pagedFile ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK, NULL ) )
+        {
+            while ( cursor.next() )
+            {
+                int value;
+                do
+                {
+                    value = cursor.getInt();
+                }
+                while ( cursor.shouldRetry() );
+                assertThat( value ).isEqualTo( (int) cursor.getCurrentPageId() );
+            }
+        }
+    }
+}
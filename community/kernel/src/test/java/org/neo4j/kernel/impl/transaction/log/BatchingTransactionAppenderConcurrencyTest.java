@@ -29,6 +29,8 @@ import java.io.IOException;
 import java.lang.StackWalker.StackFrame;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -256,6 +258,63 @@ public class BatchingTransactionAppenderConcurrencyTest
         }
     }
 
+    @Test
+    void concurrentAppendsMustBeWrittenToTheLogInTransactionIdOrder() throws Throwable
+    {
+        EphemeralFileSystemAbstraction fs = new EphemeralFileSystemAbstraction();
+        life.add( new FileSystemLifecycleAdapter( fs ) );
+        DatabaseHealth databaseHealth = new DatabaseHealth( mock( DatabasePanicEventGenerator.class ), NullLog.getInstance() );
+        LogFiles logFiles = LogFilesBuilder.builder( databaseLayout, fs )
+                .withLogVersionRepository( logVersionRepository )
+                .withTransactionIdStore( transactionIdStore )
+                .withDatabaseHealth( databaseHealth )
+                .withLogEntryReader( new VersionAwareLogEntryReader( new TestCommandReaderFactory() ) )
+                .withStoreId( StoreId.UNKNOWN )
+                .build();
+        life.add( logFiles );
+        BatchingTransactionAppender appender =
+                life.add( new BatchingTransactionAppender( logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth ) );
+        life.start();
+
+        int numberOfAppenders = 8;
+        int transactionsPerAppender = 100;
+        Set<Long> transactionIds = ConcurrentHashMap.newKeySet();
+        Race race = new Race();
+        race.addContestants( numberOfAppenders, Race.throwing( () ->
+        {
+            for ( int i = 0; i < transactionsPerAppender; i++ )
+            {
+                TransactionToApply batch = tx();
+                long transactionId = appender.append( batch, LogAppendEvent.NULL );
+                assertThat( batch.transactionId() ).isEqualTo( transactionId );
+                transactionIds.add( transactionId );
+            }
+        } ) );
+        race.go();
+
+        int numberOfTransactions = numberOfAppenders * transactionsPerAppender;
+        assertThat( transactionIds ).hasSize( numberOfTransactions );
+        assertThat( transactionIdStore.getLastCommittedTransactionId() ).isEqualTo( TransactionIdStore.BASE_TX_ID + numberOfTransactions );
+
+        LogEntryReader logEntryReader = new VersionAwareLogEntryReader( new TestCommandReaderFactory() );
+        LogFile logFile = logFiles.getLogFile();
+        try ( LogVersionedStoreChannel channel = logFile.openForVersion( logFile.getHighestLogVersion() );
+                ReadAheadLogChannel readAheadLogChannel = new ReadAheadLogChannel( channel, INSTANCE );
+                LogEntryCursor cursor = new LogEntryCursor( logEntryReader, readAheadLogChannel ) )
+        {
+            long expectedTransactionId = TransactionIdStore.BASE_TX_ID + 1;
+            while ( cursor.next() )
+            {
+                LogEntry entry = cursor.get();
+                if ( entry instanceof LogEntryCommit )
+                {
+                    assertThat( ((LogEntryCommit) entry).getTxId() ).isEqualTo( expectedTransactionId++ );
+                }
+            }
+            assertThat( expectedTransactionId ).isEqualTo( TransactionIdStore.BASE_TX_ID + numberOfTransactions + 1 );
+        }
+    }
+
     private static class OutOfMemoryAwareFileSystem extends EphemeralFileSystemAbstraction
     {
         private volatile boolean shouldOOM;
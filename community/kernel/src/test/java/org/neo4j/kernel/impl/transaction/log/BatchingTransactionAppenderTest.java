@@ -28,6 +28,10 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.io.memory.HeapScopedBuffer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
@@ -43,6 +47,7 @@ import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFiles;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.monitoring.DatabaseHealth;
 import org.neo4j.monitoring.Health;
@@ -59,6 +64,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
@@ -294,6 +300,114 @@ class BatchingTransactionAppenderTest
         verify( databaseHealth ).panic( e );
     }
 
+    @Test
+    void failedBatchMustNotFailBatchesAppendedBeforeItInTheSameGroup() throws Exception
+    {
+        // Given
+        when( logFile.getTransactionLogWriter() ).thenReturn( new TransactionLogWriter( channel, new DbmsLogEntryWriterFactory( LATEST::version ) ) );
+        BatchingTransactionAppender appender = life.add( createTransactionAppender() );
+        CountDownLatch firstAppendStarted = new CountDownLatch( 1 );
+        CountDownLatch firstAppendMayFinish = new CountDownLatch( 1 );
+        AtomicLong nextTransactionId = new AtomicLong( 2 );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenAnswer( invocation ->
+        {
+            long transactionId = nextTransactionId.getAndIncrement();
+            if ( transactionId == 2 )
+            {
+                firstAppendStarted.countDown();
+                firstAppendMayFinish.await();
+            }
+            return transactionId;
+        } );
+
+        // When the first committer is held up appending, while a good and a bad batch queue up behind it
+        FutureTask<Long> first = startAppend( appender, new TransactionToApply( transaction( singleTestCommand(), new byte[0], 0, 1, 0 ), NULL ),
+                logAppendEvent );
+        firstAppendStarted.await();
+        FutureTask<Long> good = startQueuedAppend( appender, new TransactionToApply( transaction( singleTestCommand(), new byte[0], 0, 1, 0 ), NULL ),
+                mock( LogAppendEvent.class ) );
+        FutureTask<Long> bad = startQueuedAppend( appender, new TransactionToApply( transaction( singleTestCommand(), new byte[0], 0, 1, 0 ), 1000, NULL ),
+                mock( LogAppendEvent.class ) );
+        firstAppendMayFinish.countDown();
+
+        // Then only the bad batch fails, and the good batch appended before it in the same group is committed
+        assertEquals( 2L, first.get() );
+        assertEquals( 3L, good.get() );
+        var e = assertThrows( ExecutionException.class, bad::get );
+        assertThat( e ).hasStackTraceContaining( "to be applied, but appending it ended up generating an" );
+        verify( transactionIdStore ).transactionCommitted( eq( 2L ), anyInt(), anyLong(), any( PageCursorTracer.class ) );
+        verify( transactionIdStore ).transactionCommitted( eq( 3L ), anyInt(), anyLong(), any( PageCursorTracer.class ) );
+        verify( transactionIdStore, never() ).transactionCommitted( eq( 4L ), anyInt(), anyLong(), any( PageCursorTracer.class ) );
+    }
+
+    @Test
+    void batchFailingBeforeItIsWrittenMustNotFailBatchesQueuedAfterItInTheSameGroup() throws Exception
+    {
+        // Given
+        when( logFile.getTransactionLogWriter() ).thenReturn( new TransactionLogWriter( channel, new DbmsLogEntryWriterFactory( LATEST::version ) ) );
+        when( databaseHealth.isHealthy() ).thenReturn( true );
+        BatchingTransactionAppender appender = life.add( createTransactionAppender() );
+        CountDownLatch firstAppendStarted = new CountDownLatch( 1 );
+        CountDownLatch firstAppendMayFinish = new CountDownLatch( 1 );
+        AtomicLong nextTransactionId = new AtomicLong( 2 );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenAnswer( invocation ->
+        {
+            long transactionId = nextTransactionId.getAndIncrement();
+            if ( transactionId == 2 )
+            {
+                firstAppendStarted.countDown();
+                firstAppendMayFinish.await();
+            }
+            return transactionId;
+        } );
+        RuntimeException failure = new RuntimeException( "failed to trace" );
+        LogAppendEvent failingEvent = mock( LogAppendEvent.class );
+        when( failingEvent.beginSerializeTransaction() ).thenThrow( failure );
+
+        // When the first committer is held up appending, while a bad and a good batch queue up behind it
+        FutureTask<Long> first = startAppend( appender, new TransactionToApply( transaction( singleTestCommand(), new byte[0], 0, 1, 0 ), NULL ),
+                logAppendEvent );
+        firstAppendStarted.await();
+        FutureTask<Long> bad = startQueuedAppend( appender, new TransactionToApply( transaction( singleTestCommand(), new byte[0], 0, 1, 0 ), NULL ),
+                failingEvent );
+        FutureTask<Long> good = startQueuedAppend( appender, new TransactionToApply( transaction( singleTestCommand(), new byte[0], 0, 1, 0 ), NULL ),
+                mock( LogAppendEvent.class ) );
+        firstAppendMayFinish.countDown();
+
+        // Then only the bad batch fails, and the good batch queued after it in the same group is appended and committed
+        assertEquals( 2L, first.get() );
+        assertEquals( 3L, good.get() );
+        var e = assertThrows( ExecutionException.class, bad::get );
+        assertThat( e ).hasRootCause( failure );
+        verify( transactionIdStore ).transactionCommitted( eq( 2L ), anyInt(), anyLong(), any( PageCursorTracer.class ) );
+        verify( transactionIdStore ).transactionCommitted( eq( 3L ), anyInt(), anyLong(), any( PageCursorTracer.class ) );
+        verify( databaseHealth, never() ).panic( any() );
+    }
+
+    private static FutureTask<Long> startAppend( BatchingTransactionAppender appender, TransactionToApply batch, LogAppendEvent appendEvent )
+    {
+        FutureTask<Long> append = new FutureTask<>( () -> appender.append( batch, appendEvent ) );
+        new Thread( append ).start();
+        return append;
+    }
+
+    /**
+     * Start appending the given batch in a new thread, and wait until it is queued up behind the current leader.
+     */
+    private static FutureTask<Long> startQueuedAppend( BatchingTransactionAppender appender, TransactionToApply batch, LogAppendEvent appendEvent )
+            throws InterruptedException
+    {
+        CountDownLatch queued = new CountDownLatch( 1 );
+        when( appendEvent.beginLogForceWait() ).then( invocation ->
+        {
+            queued.countDown();
+            return LogForceWaitEvent.NULL;
+        } );
+        FutureTask<Long> append = startAppend( appender, batch, appendEvent );
+        queued.await();
+        return append;
+    }
+
     private BatchingTransactionAppender createTransactionAppender()
     {
         return new BatchingTransactionAppender( logFiles, NO_ROTATION, positionCache, transactionIdStore, databaseHealth, BASE_TX_CHECKSUM );
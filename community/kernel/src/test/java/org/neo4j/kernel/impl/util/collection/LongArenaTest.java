@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.memory.MemoryTracker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LongArenaTest
+{
+    private static final int CHUNK_SIZE = 16;
+
+    private final CachingOffHeapBlockAllocator blockAllocator = new CachingOffHeapBlockAllocator();
+    private final MemoryTracker memoryTracker = new LocalMemoryTracker();
+    private final LongArena arena = new LongArena( CHUNK_SIZE, new OffHeapMemoryAllocator( blockAllocator ), memoryTracker );
+
+    @AfterEach
+    void tearDown()
+    {
+        arena.close();
+        assertEquals( 0, memoryTracker.usedNativeMemory(), "Leaking memory" );
+        blockAllocator.release();
+    }
+
+    @Test
+    void allocatedBlocksAreZeroedAndNeverHaveZeroReference()
+    {
+        for ( int i = 0; i < 100; i++ )
+        {
+            final long ref = arena.allocate( 3 );
+            assertNotEquals( 0, ref );
+            for ( int j = 0; j < 3; j++ )
+            {
+                assertEquals( 0, arena.get( ref, j ) );
+            }
+        }
+    }
+
+    @Test
+    void blocksDoNotOverlap()
+    {
+        final long[] refs = new long[100];
+        for ( int i = 0; i < refs.length; i++ )
+        {
+            refs[i] = arena.allocate( 1 + i % 5 );
+            for ( int j = 0; j < 1 + i % 5; j++ )
+            {
+                arena.set( refs[i], j, i * 10L + j );
+            }
+        }
+
+        for ( int i = 0; i < refs.length; i++ )
+        {
+            for ( int j = 0; j < 1 + i % 5; j++ )
+            {
+                assertEquals( i * 10L + j, arena.get( refs[i], j ) );
+            }
+        }
+    }
+
+    @Test
+    void allocateBlockLargerThanChunk()
+    {
+        arena.allocate( 5 );
+        final long ref = arena.allocate( CHUNK_SIZE * 3 );
+        arena.set( ref, CHUNK_SIZE * 3 - 1, 42 );
+        final long next = arena.allocate( 1 );
+        arena.set( next, 0, 7 );
+
+        assertEquals( 42, arena.get( ref, CHUNK_SIZE * 3 - 1 ) );
+        assertEquals( 7, arena.get( next, 0 ) );
+    }
+
+    @Test
+    void trackNativeMemoryOfChunks()
+    {
+        final long initial = memoryTracker.usedNativeMemory();
+        assertEquals( (long) CHUNK_SIZE * Long.BYTES, initial );
+
+        arena.allocate( CHUNK_SIZE );
+        assertEquals( 2L * CHUNK_SIZE * Long.BYTES, memoryTracker.usedNativeMemory() );
+    }
+
+    @Test
+    void rejectNonPositiveBlockSize()
+    {
+        assertThrows( IllegalArgumentException.class, () -> arena.allocate( 0 ) );
+    }
+}
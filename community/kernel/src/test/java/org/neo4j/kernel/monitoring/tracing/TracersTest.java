@@ -23,6 +23,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.LatencyHistogramPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.api.tracer.DefaultTracer;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
@@ -77,6 +78,15 @@ class TracersTest
         assertNoWarning();
     }
 
+    @Test
+    void mustProduceLatencyHistogramImplementationWhenRequested()
+    {
+        Tracers tracers = createTracers( "latency" );
+        assertThat( tracers.getPageCacheTracer() ).isInstanceOf( LatencyHistogramPageCacheTracer.class );
+        assertThat( tracers.getDatabaseTracer() ).isInstanceOf( DefaultTracer.class );
+        assertNoWarning();
+    }
+
     @Test
     void mustProduceDefaultImplementationWhenRequestingUnknownImplementation()
     {
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ReadAheadTransactionCursorTest
+{
+    @Test
+    void shouldDeliverAllTransactionsWithTheirPositionsInOrder() throws IOException
+    {
+        FakeCursor source = new FakeCursor( 100, null );
+
+        try ( ReadAheadTransactionCursor cursor = new ReadAheadTransactionCursor( source, true, 4, "test" ) )
+        {
+            assertEquals( new LogPosition( 0, 0 ), cursor.position() );
+            for ( int i = 0; i < 100; i++ )
+            {
+                assertTrue( cursor.next() );
+                assertSame( source.transactions.get( i ), cursor.get() );
+                assertEquals( new LogPosition( 0, i + 1 ), cursor.position() );
+            }
+            assertFalse( cursor.next() );
+            assertFalse( cursor.next() );
+            assertEquals( new LogPosition( 0, 100 ), cursor.position() );
+        }
+        assertTrue( source.closed );
+    }
+
+    @Test
+    void shouldFailAfterTheTransactionsReadBeforeTheFailure() throws IOException
+    {
+        IOException failure = new IOException( "broken log" );
+        FakeCursor source = new FakeCursor( 10, failure );
+
+        try ( ReadAheadTransactionCursor cursor = new ReadAheadTransactionCursor( source, true, 4, "test" ) )
+        {
+            for ( int i = 0; i < 10; i++ )
+            {
+                assertTrue( cursor.next() );
+            }
+            IOException e = assertThrows( IOException.class, cursor::next );
+            assertSame( failure, e );
+            assertEquals( new LogPosition( 0, 10 ), cursor.position() );
+        }
+        assertTrue( source.closed );
+    }
+
+    @Test
+    void shouldStopReadingWhenClosedEarly() throws IOException
+    {
+        FakeCursor source = new FakeCursor( 10_000, null );
+
+        ReadAheadTransactionCursor cursor = new ReadAheadTransactionCursor( source, true, 4, "test" );
+        assertTrue( cursor.next() );
+        cursor.close();
+
+        assertTrue( source.closed );
+        assertThat( source.read ).isLessThan( 10_000 );
+    }
+
+    @Test
+    void shouldNotAskForPositionsOfCursorsNotAwareOfThem() throws IOException
+    {
+        FakeCursor source = new FakeCursor( 3, null );
+        source.positionAware = false;
+
+        try ( ReadAheadTransactionCursor cursor = new ReadAheadTransactionCursor( source, false, 4, "test" ) )
+        {
+            assertTrue( cursor.next() );
+            assertTrue( cursor.next() );
+            assertTrue( cursor.next() );
+            assertFalse( cursor.next() );
+            assertThrows( UnsupportedOperationException.class, cursor::position );
+        }
+    }
+
+    private static class FakeCursor implements TransactionCursor
+    {
+        private final List<CommittedTransactionRepresentation> transactions = new ArrayList<>();
+        private final IOException failure;
+        private volatile int read;
+        private volatile boolean closed;
+        private boolean positionAware = true;
+
+        FakeCursor( int count, IOException failure )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                transactions.add( mock( CommittedTransactionRepresentation.class ) );
+            }
+            this.failure = failure;
+        }
+
+        @Override
+        public boolean next() throws IOException
+        {
+            if ( read < transactions.size() )
+            {
+                read++;
+                return true;
+            }
+            if ( failure != null )
+            {
+                throw failure;
+            }
+            return false;
+        }
+
+        @Override
+        public CommittedTransactionRepresentation get()
+        {
+            return transactions.get( read - 1 );
+        }
+
+        @Override
+        public LogPosition position()
+        {
+            if ( !positionAware )
+            {
+                throw new UnsupportedOperationException();
+            }
+            return new LogPosition( 0, read );
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
@@ -28,9 +28,13 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 
 import java.io.IOException;
+import java.nio.channels.ClosedByInterruptException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
@@ -55,6 +59,7 @@ import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.PositionAwarePhysicalFlushableChecksumChannel;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
@@ -79,6 +84,7 @@ import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.StoreId;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
 import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.test.OtherThreadExecutor;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.Neo4jLayoutExtension;
 import org.neo4j.test.rule.TestDirectory;
@@ -93,6 +99,7 @@ import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -551,6 +558,52 @@ class TransactionLogsRecoveryTest
         verify( monitor, never() ).recoveryCompleted( anyInt(), anyLong() );
     }
 
+    @Test
+    void shouldNotTruncateLogsWhenInterruptedWhileWaitingForTransactions() throws Exception
+    {
+        CountDownLatch reading = new CountDownLatch( 1 );
+        CountDownLatch closed = new CountDownLatch( 1 );
+        TransactionCursor blockingCursor = mock( TransactionCursor.class );
+        when( blockingCursor.next() ).then( invocation ->
+        {
+            reading.countDown();
+            closed.await();
+            return false;
+        } );
+        doAnswer( invocation ->
+        {
+            closed.countDown();
+            return null;
+        } ).when( blockingCursor ).close();
+
+        RecoveryService recoveryService = mock( RecoveryService.class );
+        LogPosition recoveryPosition = new LogPosition( 0, CURRENT_FORMAT_LOG_HEADER_SIZE );
+        when( recoveryService.getRecoveryStartInformation() ).thenReturn( new RecoveryStartInformation( recoveryPosition, 5 ) );
+        when( recoveryService.getTransactionsInReverseOrder( any() ) ).thenReturn( mock( TransactionCursor.class ) );
+        when( recoveryService.getTransactions( any() ) ).thenReturn( blockingCursor );
+        when( recoveryService.getRecoveryApplier( any(), any() ) ).thenReturn( mock( RecoveryApplier.class ) );
+        CorruptedLogsTruncator logsTruncator = mock( CorruptedLogsTruncator.class );
+        TransactionLogsRecovery recovery = new TransactionLogsRecovery( recoveryService, logsTruncator, schemaLife, mock( RecoveryMonitor.class ),
+                ProgressReporter.SILENT, false, EMPTY_CHECKER, NULL );
+
+        try ( OtherThreadExecutor recoveryThread = new OtherThreadExecutor( "recovery" ) )
+        {
+            Future<Object> recovering = recoveryThread.executeDontWait( () ->
+            {
+                recovery.init();
+                return null;
+            } );
+            reading.await();
+            recoveryThread.waitUntilWaiting( details -> details.isAt( ReadAheadTransactionCursor.class, "take" ) );
+
+            recoveryThread.interrupt();
+
+            ExecutionException e = assertThrows( ExecutionException.class, recovering::get );
+            assertThat( e.getCause() ).isInstanceOf( ClosedByInterruptException.class );
+        }
+        verify( logsTruncator, never() ).truncate( any() );
+    }
+
     private boolean recover( Path storeDir, LogFiles logFiles )
     {
         return recover( storeDir, logFiles, EMPTY_CHECKER );
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.index.label;
+
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.api.map.primitive.MutableIntObjectMap;
+import org.eclipse.collections.impl.factory.primitive.IntObjectMaps;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.neo4j.index.internal.gbptree.BulkLoader;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.memory.ByteBuffers;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.storageengine.api.EntityTokenUpdate;
+
+import static java.lang.Math.toIntExact;
+import static org.neo4j.internal.index.label.NativeTokenScanWriter.offsetOf;
+import static org.neo4j.internal.index.label.NativeTokenScanWriter.rangeOf;
+import static org.neo4j.memory.HeapEstimator.sizeOfLongArray;
+import static org.neo4j.util.Preconditions.checkArgument;
+
+/**
+ * Writer used when rebuilding an empty token scan store from entity-id-sequential updates. The tree is sorted by token id first,
+ * so the ranges of each token are kept aside until the writer is closed and then the ranges of one token after the other are
+ * {@link GBPTree#bulkLoader(double, PageCursorTracer) bulk loaded} into the tree.
+ * <p>
+ * Each token has a small chunk of ranges in memory. When a chunk is full it's appended to a temporary spool file, where its position
+ * is remembered, so that memory usage depends on the number of tokens and not on the number of entities.
+ */
+class BulkLoadNativeTokenScanWriter implements TokenScanWriter
+{
+    static final int RANGES_PER_CHUNK = 128;
+    private static final int CHUNK_SIZE = RANGES_PER_CHUNK * 2 * Long.BYTES;
+    private static final long NO_RANGE = -1;
+
+    private final GBPTree<TokenScanKey,TokenScanValue> index;
+    private final FileSystemAbstraction fs;
+    private final Path spoolFile;
+    private final double fillFactor;
+    private final PageCursorTracer cursorTracer;
+    private final MemoryTracker memoryTracker;
+    private final MutableIntObjectMap<TokenRanges> tokens = IntObjectMaps.mutable.empty();
+    private final ByteBuffer chunkBuffer;
+    private StoreChannel spoolChannel;
+    private long spoolFileSize;
+
+    BulkLoadNativeTokenScanWriter( GBPTree<TokenScanKey,TokenScanValue> index, FileSystemAbstraction fs, Path spoolFile, double fillFactor,
+            PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
+    {
+        this.index = index;
+        this.fs = fs;
+        this.spoolFile = spoolFile;
+        this.fillFactor = fillFactor;
+        this.cursorTracer = cursorTracer;
+        this.memoryTracker = memoryTracker;
+        this.chunkBuffer = ByteBuffers.allocate( CHUNK_SIZE, memoryTracker );
+    }
+
+    @Override
+    public void write( EntityTokenUpdate update ) throws IOException
+    {
+        checkArgument( update.getTokensBefore().length == 0, "Was expecting no tokens before, was %s", Arrays.toString( update.getTokensBefore() ) );
+        long idRange = rangeOf( update.getEntityId() );
+        int previousTokenId = -1;
+        for ( long tokenId : update.getTokensAfter() )
+        {
+            int intTokenId = toIntExact( tokenId );
+            checkArgument( intTokenId > previousTokenId, "Detected unsorted tokens in %s", update );
+            previousTokenId = intTokenId;
+            TokenRanges ranges = tokens.getIfAbsentPut( intTokenId, this::newTokenRanges );
+            if ( ranges.currentRange != idRange )
+            {
+                checkArgument( idRange > ranges.currentRange, "Detected unsorted entity ids in %s", update );
+                addCurrentRange( ranges );
+                ranges.currentRange = idRange;
+                ranges.currentBits = 0;
+            }
+            ranges.currentBits |= 1L << offsetOf( update.getEntityId() );
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            try ( BulkLoader<TokenScanKey,TokenScanValue> bulkLoader = index.bulkLoader( fillFactor, cursorTracer ) )
+            {
+                TokenScanKey key = new TokenScanKey();
+                TokenScanValue value = new TokenScanValue();
+                long[] spooledChunk = new long[RANGES_PER_CHUNK * 2];
+                for ( int tokenId : tokens.keySet().toSortedArray() )
+                {
+                    TokenRanges ranges = tokens.get( tokenId );
+                    addCurrentRange( ranges );
+                    key.tokenId = tokenId;
+                    for ( int i = 0; i < ranges.spooledChunks.size(); i++ )
+                    {
+                        readChunk( ranges.spooledChunks.get( i ), spooledChunk );
+                        loadChunk( bulkLoader, key, value, spooledChunk, RANGES_PER_CHUNK );
+                    }
+                    loadChunk( bulkLoader, key, value, ranges.chunk, ranges.chunkRanges );
+                }
+            }
+        }
+        finally
+        {
+            memoryTracker.releaseHeap( tokens.size() * sizeOfLongArray( RANGES_PER_CHUNK * 2 ) );
+            ByteBuffers.releaseBuffer( chunkBuffer, memoryTracker );
+            if ( spoolChannel != null )
+            {
+                spoolChannel.close();
+                fs.deleteFile( spoolFile );
+            }
+        }
+    }
+
+    private TokenRanges newTokenRanges()
+    {
+        memoryTracker.allocateHeap( sizeOfLongArray( RANGES_PER_CHUNK * 2 ) );
+        return new TokenRanges();
+    }
+
+    private void addCurrentRange( TokenRanges ranges ) throws IOException
+    {
+        if ( ranges.currentRange == NO_RANGE )
+        {
+            return;
+        }
+        if ( ranges.chunkRanges == RANGES_PER_CHUNK )
+        {
+            ranges.spooledChunks.add( spoolChunk( ranges.chunk ) );
+            ranges.chunkRanges = 0;
+        }
+        ranges.chunk[ranges.chunkRanges * 2] = ranges.currentRange;
+        ranges.chunk[ranges.chunkRanges * 2 + 1] = ranges.currentBits;
+        ranges.chunkRanges++;
+        ranges.currentRange = NO_RANGE;
+    }
+
+    private long spoolChunk( long[] chunk ) throws IOException
+    {
+        if ( spoolChannel == null )
+        {
+            fs.deleteFile( spoolFile );
+            spoolChannel = fs.write( spoolFile );
+        }
+        chunkBuffer.clear();
+        chunkBuffer.asLongBuffer().put( chunk );
+        long position = spoolFileSize;
+        spoolChannel.writeAll( chunkBuffer, position );
+        spoolFileSize += CHUNK_SIZE;
+        return position;
+    }
+
+    private void readChunk( long position, long[] into ) throws IOException
+    {
+        chunkBuffer.clear();
+        while ( chunkBuffer.hasRemaining() )
+        {
+            if ( spoolChannel.read( chunkBuffer, position + chunkBuffer.position() ) == -1 )
+            {
+                throw new IOException( "Unexpected end of " + spoolFile + " reading chunk at " + position );
+            }
+        }
+        chunkBuffer.flip();
+        chunkBuffer.asLongBuffer().get( into );
+    }
+
+    private static void loadChunk( BulkLoader<TokenScanKey,TokenScanValue> bulkLoader, TokenScanKey key, TokenScanValue value, long[] chunk,
+            int numberOfRanges )
+    {
+        for ( int i = 0; i < numberOfRanges; i++ )
+        {
+            key.idRange = chunk[i * 2];
+            value.bits = chunk[i * 2 + 1];
+            bulkLoader.add( key, value );
+        }
+    }
+
+    private static class TokenRanges
+    {
+        private final long[] chunk = new long[RANGES_PER_CHUNK * 2];
+        private final MutableLongList spooledChunks = LongLists.mutable.empty();
+        private int chunkRanges;
+        private long currentRange = NO_RANGE;
+        private long currentBits;
+    }
+}
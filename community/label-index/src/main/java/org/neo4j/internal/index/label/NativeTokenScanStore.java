@@ -53,6 +53,7 @@ import org.neo4j.memory.MemoryTracker;
 import org.neo4j.monitoring.Monitors;
 import org.neo4j.storageengine.api.EntityTokenUpdate;
 import org.neo4j.storageengine.api.EntityTokenUpdateListener;
+import org.neo4j.util.FeatureToggles;
 
 import static org.eclipse.collections.impl.factory.Sets.immutable;
 import static org.neo4j.internal.index.label.TokenScanValue.RANGE_SIZE;
@@ -83,6 +84,11 @@ import static org.neo4j.internal.index.label.TokenScanValue.RANGE_SIZE;
 public abstract class NativeTokenScanStore implements TokenScanStore, EntityTokenUpdateListener
 {
     private static final String TOKEN_SCAN_REBUILD_TAG = "tokenScanRebuild";
+    private static final String REBUILD_SPOOL_FILE_SUFFIX = ".rebuild";
+    /**
+     * How much of each tree node to fill when bulk loading a rebuilt token scan store.
+     */
+    private static final double REBUILD_FILL_FACTOR = FeatureToggles.getDouble( NativeTokenScanStore.class, "rebuildFillFactor", 1.0 );
     /**
      * Written in header to indicate native token scan store is clean
      */
@@ -484,7 +490,7 @@ public abstract class NativeTokenScanStore implements TokenScanStore, EntityToke
 
             // Intentionally ignore read-only flag here when rebuilding.
             final PageCursorTracer cursorTracer = cacheTracer.createPageCursorTracer( TOKEN_SCAN_REBUILD_TAG );
-            try ( TokenScanWriter writer = newBulkAppendWriter( cursorTracer ) )
+            try ( TokenScanWriter writer = newRebuildWriter( cursorTracer ) )
             {
                 numberOfEntities = fullStoreChangeStream.applyTo( writer, cursorTracer, memoryTracker );
             }
@@ -496,6 +502,16 @@ public abstract class NativeTokenScanStore implements TokenScanStore, EntityToke
         }
     }
 
+    /**
+     * Returns a {@link TokenScanWriter} which {@link GBPTree#bulkLoader(double, PageCursorTracer) bulk loads} the empty tree when closed.
+     * Ranges are spooled to a temporary file next to the store file in the meantime.
+     */
+    private TokenScanWriter newRebuildWriter( PageCursorTracer cursorTracer )
+    {
+        Path spoolFile = storeFile.resolveSibling( storeFile.getFileName() + REBUILD_SPOOL_FILE_SUFFIX );
+        return new BulkLoadNativeTokenScanWriter( index, fs, spoolFile, REBUILD_FILL_FACTOR, cursorTracer, memoryTracker );
+    }
+
     private NativeTokenScanWriter writer( PageCursorTracer cursorTracer ) throws IOException
     {
         return singleWriter.initialize( index.writer( cursorTracer ) );
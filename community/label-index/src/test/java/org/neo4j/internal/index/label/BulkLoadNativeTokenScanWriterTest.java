@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.index.label;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.GBPTreeBuilder;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.memory.MemoryTracker;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.extension.pagecache.PageCacheExtension;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.collection.PrimitiveLongCollections.EMPTY_LONG_ARRAY;
+import static org.neo4j.collection.PrimitiveLongCollections.asArray;
+import static org.neo4j.internal.index.label.BulkLoadNativeTokenScanWriter.RANGES_PER_CHUNK;
+import static org.neo4j.internal.index.label.LabelScanStoreIT.getLabels;
+import static org.neo4j.internal.index.label.LabelScanStoreIT.nodesWithLabel;
+import static org.neo4j.internal.index.label.TokenScanReader.NO_ID;
+import static org.neo4j.internal.index.label.TokenScanValue.RANGE_SIZE;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.storageengine.api.EntityTokenUpdate.tokenChanges;
+
+@ExtendWith( RandomExtension.class )
+@PageCacheExtension
+class BulkLoadNativeTokenScanWriterTest
+{
+    private static final int LABEL_COUNT = 5;
+
+    @Inject
+    private RandomRule random;
+    @Inject
+    private PageCache pageCache;
+    @Inject
+    private DefaultFileSystemAbstraction fs;
+    @Inject
+    private TestDirectory directory;
+
+    private GBPTree<TokenScanKey,TokenScanValue> tree;
+    private Path spoolFile;
+    private MemoryTracker memoryTracker;
+
+    @BeforeEach
+    void openTree()
+    {
+        tree = new GBPTreeBuilder<>( pageCache, directory.file( "file" ), new TokenScanLayout() ).build();
+        spoolFile = directory.file( "file.rebuild" );
+        memoryTracker = new LocalMemoryTracker();
+    }
+
+    @AfterEach
+    void closeTree() throws IOException
+    {
+        tree.close();
+    }
+
+    @Test
+    void shouldBulkLoadRangesOfAllTokens() throws IOException
+    {
+        // given enough ranges per token to spool some of them
+        long[] expected = new long[random.nextInt( RANGES_PER_CHUNK, 3 * RANGES_PER_CHUNK ) * RANGE_SIZE];
+        for ( int nodeId = 0; nodeId < expected.length; nodeId++ )
+        {
+            expected[nodeId] = random.nextInt( 1 << LABEL_COUNT );
+        }
+
+        // when
+        try ( BulkLoadNativeTokenScanWriter writer = newWriter() )
+        {
+            for ( int nodeId = 0; nodeId < expected.length; nodeId++ )
+            {
+                if ( expected[nodeId] != 0 )
+                {
+                    writer.write( tokenChanges( nodeId, EMPTY_LONG_ARRAY, getLabels( expected[nodeId] ) ) );
+                }
+            }
+            assertTrue( fs.fileExists( spoolFile ) );
+        }
+
+        // then
+        for ( int labelId = 0; labelId < LABEL_COUNT; labelId++ )
+        {
+            long[] expectedNodeIds = nodesWithLabel( expected, labelId );
+            long[] actualNodeIds = asArray( new TokenScanValueIterator(
+                    tree.seek( new TokenScanKey( labelId, 0 ), new TokenScanKey( labelId, Long.MAX_VALUE ), NULL ), NO_ID ) );
+            assertArrayEquals( expectedNodeIds, actualNodeIds, "For label " + labelId );
+        }
+        assertTrue( tree.consistencyCheck( NULL ) );
+        assertFalse( fs.fileExists( spoolFile ) );
+        assertEquals( 0, memoryTracker.estimatedHeapMemory() );
+        assertEquals( 0, memoryTracker.usedNativeMemory() );
+    }
+
+    @Test
+    void shouldMergeEntitiesOfSameRange() throws IOException
+    {
+        // when
+        try ( BulkLoadNativeTokenScanWriter writer = newWriter() )
+        {
+            writer.write( tokenChanges( 5, EMPTY_LONG_ARRAY, new long[]{1, 2} ) );
+            writer.write( tokenChanges( 7, EMPTY_LONG_ARRAY, new long[]{1} ) );
+            writer.write( tokenChanges( RANGE_SIZE + 1, EMPTY_LONG_ARRAY, new long[]{2} ) );
+        }
+
+        // then
+        assertArrayEquals( new long[]{5, 7}, nodesWithToken( 1 ) );
+        assertArrayEquals( new long[]{5, RANGE_SIZE + 1}, nodesWithToken( 2 ) );
+        assertFalse( fs.fileExists( spoolFile ) );
+    }
+
+    @Test
+    void shouldFailOnUpdatingTryingToRemoveTokenFromEntity() throws IOException
+    {
+        try ( BulkLoadNativeTokenScanWriter writer = newWriter() )
+        {
+            // when/then
+            IllegalArgumentException failure =
+                    assertThrows( IllegalArgumentException.class, () -> writer.write( tokenChanges( 3, new long[]{1, 2}, new long[]{2, 3} ) ) );
+            assertThat( failure.getMessage() ).contains( "Was expecting no tokens before" );
+        }
+    }
+
+    @Test
+    void shouldNotAcceptUnsortedTokens() throws IOException
+    {
+        try ( BulkLoadNativeTokenScanWriter writer = newWriter() )
+        {
+            // when/then
+            IllegalArgumentException failure =
+                    assertThrows( IllegalArgumentException.class, () -> writer.write( tokenChanges( 3, EMPTY_LONG_ARRAY, new long[]{2, 1} ) ) );
+            assertThat( failure.getMessage() ).contains( "unsorted tokens" );
+        }
+    }
+
+    @Test
+    void shouldNotAcceptUnsortedEntityIds() throws IOException
+    {
+        try ( BulkLoadNativeTokenScanWriter writer = newWriter() )
+        {
+            writer.write( tokenChanges( RANGE_SIZE + 3, EMPTY_LONG_ARRAY, new long[]{1} ) );
+
+            // when/then
+            IllegalArgumentException failure =
+                    assertThrows( IllegalArgumentException.class, () -> writer.write( tokenChanges( 3, EMPTY_LONG_ARRAY, new long[]{1} ) ) );
+            assertThat( failure.getMessage() ).contains( "unsorted entity ids" );
+        }
+    }
+
+    private long[] nodesWithToken( int tokenId ) throws IOException
+    {
+        return asArray( new TokenScanValueIterator(
+                tree.seek( new TokenScanKey( tokenId, 0 ), new TokenScanKey( tokenId, Long.MAX_VALUE ), NULL ), NO_ID ) );
+    }
+
+    private BulkLoadNativeTokenScanWriter newWriter()
+    {
+        return new BulkLoadNativeTokenScanWriter( tree, fs, spoolFile, 1.0, NULL, memoryTracker );
+    }
+}
@@ -361,6 +361,11 @@ public class GlobalModule
         jobScheduler.setParallelism( Group.INDEX_POPULATION, globalConfig.get( GraphDatabaseInternalSettings.index_population_parallelism ) );
         jobScheduler.setParallelism( Group.INDEX_POPULATION_WORK, globalConfig.get( GraphDatabaseInternalSettings.index_population_workers ) );
         jobScheduler.setParallelism( Group.PAGE_CACHE_PRE_FETCHER, globalConfig.get( GraphDatabaseSettings.pagecache_scan_prefetch ) );
+        int cypherWorkers = globalConfig.get( GraphDatabaseInternalSettings.cypher_worker_count );
+        if ( cypherWorkers > 0 )
+        {
+            jobScheduler.setParallelism( Group.CYPHER_WORKER, cypherWorkers );
+        }
         return jobScheduler;
     }
 
@@ -387,6 +392,7 @@ public class GlobalModule
         case ON_HEAP:
             return CollectionsFactorySupplier.ON_HEAP;
         case OFF_HEAP:
+        case FULLY_OFF_HEAP:
             final CachingOffHeapBlockAllocator allocator = new CachingOffHeapBlockAllocator(
                     config.get( tx_state_off_heap_max_cacheable_block_size ),
                     config.get( tx_state_off_heap_block_cache_size ) );
@@ -401,7 +407,8 @@ public class GlobalModule
                 sharedBlockAllocator = allocator;
             }
             life.add( onShutdown( sharedBlockAllocator::release ) );
-            return () -> new OffHeapCollectionsFactory( sharedBlockAllocator );
+            final boolean offHeapEntityStates = allocation == TransactionStateMemoryAllocation.FULLY_OFF_HEAP;
+            return () -> new OffHeapCollectionsFactory( sharedBlockAllocator, offHeapEntityStates );
         default:
             throw new IllegalArgumentException( "Unknown transaction state memory allocation value: " + allocation );
         }
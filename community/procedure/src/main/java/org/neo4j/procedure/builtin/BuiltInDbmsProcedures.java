@@ -56,6 +56,9 @@ import org.neo4j.internal.kernel.api.security.AdminActionOnResource;
 import org.neo4j.internal.kernel.api.security.AdminActionOnResource.DatabaseScope;
 import org.neo4j.internal.kernel.api.security.SecurityContext;
 import org.neo4j.internal.kernel.api.security.UserSegment;
+import org.neo4j.io.pagecache.monitoring.PageCacheLatencies;
+import org.neo4j.io.pagecache.monitoring.PagedFileLatencies;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.api.KernelTransactionHandle;
 import org.neo4j.kernel.api.exceptions.InvalidArgumentsException;
 import org.neo4j.kernel.api.exceptions.Status;
@@ -274,6 +277,30 @@ public class BuiltInDbmsProcedures
         return Stream.of( new StringResult( result ) );
     }
 
+    @Admin
+    @Internal
+    @SystemProcedure
+    @Description( "List the latencies of page faults, flushes and evictions, for each file mapped by the page cache. " +
+            "The latencies are only recorded when the 'latency' tracer is in use." )
+    @Procedure( name = "dbms.listPageCacheLatencies", mode = DBMS )
+    public Stream<PageCacheLatencyResult> listPageCacheLatencies() throws ProcedureException
+    {
+        PageCacheTracer pageCacheTracer = graph.getDependencyResolver().resolveDependency( PageCacheTracer.class );
+        if ( !(pageCacheTracer instanceof PageCacheLatencies) )
+        {
+            throw new ProcedureException( ProcedureCallFailed, "Page cache latencies are not recorded by the configured tracer. " +
+                    "Set '%s' to 'latency' to record them.", GraphDatabaseInternalSettings.tracer.name() );
+        }
+        PageCacheLatencies latencies = (PageCacheLatencies) pageCacheTracer;
+        int sampleInterval = latencies.latencySampleInterval();
+        return latencies.pagedFileLatencies().stream()
+                .sorted( Comparator.comparing( PagedFileLatencies::path ) )
+                .flatMap( file -> Stream.of(
+                        new PageCacheLatencyResult( file.path(), "fault", sampleInterval, file.faults() ),
+                        new PageCacheLatencyResult( file.path(), "flush", sampleInterval, file.flushes() ),
+                        new PageCacheLatencyResult( file.path(), "eviction", sampleInterval, file.evictions() ) ) );
+    }
+
     @Admin
     @SystemProcedure
     @Description( "Report the current status of the system database sub-graph schema." )
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.procedure.builtin;
+
+import java.nio.file.Path;
+
+import org.neo4j.io.pagecache.monitoring.LatencyHistogram;
+
+public class PageCacheLatencyResult
+{
+    public final String file;
+    public final String event;
+    public final long samples;
+    public final long sampleInterval;
+    public final double meanNanos;
+    public final long p50Nanos;
+    public final long p90Nanos;
+    public final long p99Nanos;
+    public final long p999Nanos;
+    public final long maxNanos;
+
+    PageCacheLatencyResult( Path file, String event, int sampleInterval, LatencyHistogram histogram )
+    {
+        this.file = file.toString();
+        this.event = event;
+        this.samples = histogram.count();
+        this.sampleInterval = sampleInterval;
+        this.meanNanos = histogram.meanNanos();
+        this.p50Nanos = histogram.percentileNanos( 50 );
+        this.p90Nanos = histogram.percentileNanos( 90 );
+        this.p99Nanos = histogram.percentileNanos( 99 );
+        this.p999Nanos = histogram.percentileNanos( 99.9 );
+        this.maxNanos = histogram.maxNanos();
+    }
+}
@@ -19,38 +19,35 @@
  */
 package org.neo4j.internal.counts;
 
-import java.util.concurrent.locks.Lock;
-
 import org.neo4j.counts.CountsAccessor;
 
-import static org.neo4j.internal.counts.CountsKey.nodeKey;
-import static org.neo4j.internal.counts.CountsKey.relationshipKey;
-
 /**
  * The implementation of {@link CountsAccessor.Updater} for the {@link GBPTreeCountsStore}.
- * Writing happens inside the supplied {@link CountWriter}.
+ * Writing happens inside the supplied {@link CountWriter}, the supplied {@code closeAction} is run after the writer has been closed.
+ * The same {@link CountsKey} instance is passed to the writer for every change, so the writer must not retain it.
  */
 class CountUpdater implements CountsAccessor.Updater
 {
     private final CountWriter writer;
-    private final Lock lock;
+    private final Runnable closeAction;
+    private final CountsKey key = new CountsKey();
 
-    CountUpdater( CountWriter writer, Lock lock )
+    CountUpdater( CountWriter writer, Runnable closeAction )
     {
         this.writer = writer;
-        this.lock = lock;
+        this.closeAction = closeAction;
     }
 
     @Override
     public void incrementNodeCount( long labelId, long delta )
     {
-        writer.write( nodeKey( labelId ), delta );
+        writer.write( key.initializeNode( labelId ), delta );
     }
 
     @Override
     public void incrementRelationshipCount( long startLabelId, int typeId, long endLabelId, long delta )
     {
-        writer.write( relationshipKey( startLabelId, typeId, endLabelId ), delta );
+        writer.write( key.initializeRelationship( startLabelId, typeId, endLabelId ), delta );
     }
 
     @Override
@@ -62,7 +59,7 @@ class CountUpdater implements CountsAccessor.Updater
         }
         finally
         {
-            lock.unlock();
+            closeAction.run();
         }
     }
 
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.counts;
+
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+/**
+ * One generation of counts changes in {@link GBPTreeCountsStore}, i.e. the changes applied between two checkpoints.
+ * Changes are kept as deltas on top of the counts stored in the tree, so that applying them never needs to read the tree.
+ * <p>
+ * A checkpoint replaces the current generation with a new one and then waits for the appliers that are still applying
+ * to this generation to close, see {@link #awaitAppliersClosed()}. Appliers started after the replacement apply to the new generation
+ * and are never blocked by the checkpoint. The ids of the transactions applied to a generation are kept along with the changes
+ * so that the checkpoint can mark exactly those transactions as written.
+ */
+class CountsChanges
+{
+    private final CountsDeltaMap deltas = new CountsDeltaMap();
+    private final AtomicInteger activeAppliers = new AtomicInteger();
+    private final MutableLongList appliedTxIds = new LongArrayList();
+    private volatile boolean sealed;
+
+    void applierStarted()
+    {
+        activeAppliers.incrementAndGet();
+    }
+
+    void applierClosed()
+    {
+        if ( activeAppliers.decrementAndGet() == 0 && sealed )
+        {
+            synchronized ( this )
+            {
+                notifyAll();
+            }
+        }
+    }
+
+    void add( CountsKey key, long delta )
+    {
+        deltas.add( key, delta );
+    }
+
+    void transactionApplied( long txId )
+    {
+        synchronized ( appliedTxIds )
+        {
+            appliedTxIds.add( txId );
+        }
+    }
+
+    long delta( CountsKey key )
+    {
+        return deltas.get( key );
+    }
+
+    boolean contains( CountsKey key )
+    {
+        return deltas.contains( key );
+    }
+
+    void visit( CountsDeltaMap.DeltaVisitor visitor )
+    {
+        deltas.visit( visitor );
+    }
+
+    /**
+     * Called by the checkpoint after this generation has been replaced by a new one. Waits for appliers that started applying to this generation
+     * to close. After this call returns no more changes will be made to this generation.
+     */
+    void awaitAppliersClosed() throws InterruptedException
+    {
+        sealed = true;
+        synchronized ( this )
+        {
+            while ( activeAppliers.get() > 0 )
+            {
+                wait();
+            }
+        }
+    }
+
+    /**
+     * @param txIdVisitor receives the ids of all transactions applied to this generation.
+     */
+    void visitAppliedTxIds( LongConsumer txIdVisitor )
+    {
+        synchronized ( appliedTxIds )
+        {
+            appliedTxIds.forEach( txIdVisitor::accept );
+        }
+    }
+
+    /**
+     * @return the changed keys of this generation, sorted in the natural tree order to get more performance in the writer.
+     */
+    List<CountsKey> sortedKeys( CountsLayout layout )
+    {
+        List<CountsKey> keys = new ArrayList<>();
+        deltas.visit( ( key, delta ) -> keys.add( key ) );
+        keys.sort( layout );
+        return keys;
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.counts;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToLongFunction;
+
+import org.neo4j.hashing.HashFunction;
+
+/**
+ * Concurrent map of count deltas keyed by {@link CountsKey}, used by {@link CountsChanges} instead of a map of {@link CountsKey} to boxed counters.
+ * Keys are packed into two longs, {@link CountsKey#first} and {@link CountsKey#type} together with {@link CountsKey#second},
+ * and stored together with their delta in long arrays using open addressing and linear probing. Adding a delta doesn't allocate,
+ * unless a table needs to grow, and the given key instance is not retained so that callers can reuse it.
+ * <p>
+ * The map is split into a fixed number of segments, selected by key hash. Writers to a segment synchronize on it, which is very brief
+ * since an update is a probe and a store. Readers never lock, they read the current table of a segment and rely on that the packed key
+ * of an entry is published after its other words, so a reader seeing a key also sees its delta. Entries are never removed.
+ * <p>
+ * Besides deltas the map is also used to keep absolute counts, see {@link #put(CountsKey, long)} and {@link #getOrLoad(CountsKey, ToLongFunction)}.
+ */
+class CountsDeltaMap
+{
+    private static final HashFunction HASH_FUNCTION = HashFunction.incrementalXXH64();
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENT_SHIFT = Long.SIZE - SEGMENT_BITS;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    // Entry layout in a table: [used marker | type | second], [first], [delta]
+    private static final int ENTRY_SIZE = 3;
+    private static final long USED = 1L << 62;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    CountsDeltaMap()
+    {
+        for ( int i = 0; i < segments.length; i++ )
+        {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Adds the delta to the count delta for the key.
+     * @param key key to add the delta for, not retained by this map.
+     * @param delta delta to add.
+     */
+    void add( CountsKey key, long delta )
+    {
+        long packedKey = packedKey( key );
+        long hash = hash( packedKey, key.first );
+        segment( hash ).add( packedKey, key.first, hash, delta );
+    }
+
+    /**
+     * @param key key to get the delta for.
+     * @return the delta for the key, or {@code 0} if there's no delta for it.
+     */
+    long get( CountsKey key )
+    {
+        long packedKey = packedKey( key );
+        long hash = hash( packedKey, key.first );
+        Table table = segment( hash ).table;
+        int entry = table.find( packedKey, key.first, hash );
+        return entry != -1 ? table.entries.get( entry + 2 ) : 0;
+    }
+
+    /**
+     * Sets the count for the key, replacing any count or delta the key had.
+     * @param key key to set the count for, not retained by this map.
+     * @param count count to set.
+     */
+    void put( CountsKey key, long count )
+    {
+        long packedKey = packedKey( key );
+        long hash = hash( packedKey, key.first );
+        segment( hash ).put( packedKey, key.first, hash, count );
+    }
+
+    /**
+     * Gets the count for the key, or loads it and keeps it if there's no count for the key yet. The loader is called outside of any lock,
+     * so concurrent callers may load the same key, in which case the first one to keep its count wins.
+     * @param key key to get the count for, not retained by this map.
+     * @param loader loads the count for the key if it's not in this map.
+     * @return the count for the key.
+     */
+    long getOrLoad( CountsKey key, ToLongFunction<CountsKey> loader )
+    {
+        long packedKey = packedKey( key );
+        long hash = hash( packedKey, key.first );
+        Segment segment = segment( hash );
+        Table table = segment.table;
+        int entry = table.find( packedKey, key.first, hash );
+        if ( entry != -1 )
+        {
+            return table.entries.get( entry + 2 );
+        }
+        return segment.putIfAbsent( packedKey, key.first, hash, loader.applyAsLong( key ) );
+    }
+
+    /**
+     * @param key key to check.
+     * @return whether or not there has been a delta added for the key, even if they sum up to {@code 0}.
+     */
+    boolean contains( CountsKey key )
+    {
+        long packedKey = packedKey( key );
+        long hash = hash( packedKey, key.first );
+        return segment( hash ).table.find( packedKey, key.first, hash ) != -1;
+    }
+
+    /**
+     * Visits all entries in this map. Entries added concurrently with this call may or may not be visited.
+     * @param visitor receives a new {@link CountsKey} and the delta for each entry.
+     */
+    void visit( DeltaVisitor visitor )
+    {
+        for ( Segment segment : segments )
+        {
+            AtomicLongArray entries = segment.table.entries;
+            for ( int entry = 0; entry < entries.length(); entry += ENTRY_SIZE )
+            {
+                long packedKey = entries.get( entry );
+                if ( packedKey != 0 )
+                {
+                    CountsKey key = new CountsKey( (byte) (packedKey >>> Integer.SIZE), entries.get( entry + 1 ), (int) packedKey );
+                    visitor.visit( key, entries.get( entry + 2 ) );
+                }
+            }
+        }
+    }
+
+    private Segment segment( long hash )
+    {
+        return segments[(int) (hash >>> SEGMENT_SHIFT)];
+    }
+
+    private static long packedKey( CountsKey key )
+    {
+        return USED | ((key.type & 0xFFL) << Integer.SIZE) | (key.second & 0xFFFFFFFFL);
+    }
+
+    private static long hash( long packedKey, long first )
+    {
+        return HASH_FUNCTION.finalise( HASH_FUNCTION.update( HASH_FUNCTION.update( HASH_FUNCTION.initialise( 0 ), packedKey ), first ) );
+    }
+
+    interface DeltaVisitor
+    {
+        void visit( CountsKey key, long delta );
+    }
+
+    private static class Segment
+    {
+        private volatile Table table = new Table( INITIAL_SEGMENT_CAPACITY );
+
+        synchronized void add( long packedKey, long first, long hash, long delta )
+        {
+            Table current = table;
+            int entry = current.find( packedKey, first, hash );
+            if ( entry != -1 )
+            {
+                current.entries.set( entry + 2, current.entries.get( entry + 2 ) + delta );
+                return;
+            }
+
+            insert( current, packedKey, first, hash, delta );
+        }
+
+        synchronized void put( long packedKey, long first, long hash, long count )
+        {
+            Table current = table;
+            int entry = current.find( packedKey, first, hash );
+            if ( entry != -1 )
+            {
+                current.entries.set( entry + 2, count );
+                return;
+            }
+
+            insert( current, packedKey, first, hash, count );
+        }
+
+        synchronized long putIfAbsent( long packedKey, long first, long hash, long count )
+        {
+            Table current = table;
+            int entry = current.find( packedKey, first, hash );
+            if ( entry != -1 )
+            {
+                return current.entries.get( entry + 2 );
+            }
+
+            insert( current, packedKey, first, hash, count );
+            return count;
+        }
+
+        private void insert( Table current, long packedKey, long first, long hash, long value )
+        {
+            if ( current.size >= current.capacity / 2 )
+            {
+                current = current.grow();
+                table = current;
+            }
+            current.insert( packedKey, first, hash, value );
+        }
+    }
+
+    private static class Table
+    {
+        private final int capacity;
+        private final int mask;
+        private final AtomicLongArray entries;
+        private int size;
+
+        Table( int capacity )
+        {
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.entries = new AtomicLongArray( capacity * ENTRY_SIZE );
+        }
+
+        /**
+         * @return index of the first word of the entry for the key in {@link #entries}, or {@code -1} if not found.
+         */
+        int find( long packedKey, long first, long hash )
+        {
+            for ( int slot = (int) hash & mask; ; slot = (slot + 1) & mask )
+            {
+                int entry = slot * ENTRY_SIZE;
+                long candidate = entries.get( entry );
+                if ( candidate == 0 )
+                {
+                    return -1;
+                }
+                if ( candidate == packedKey && entries.get( entry + 1 ) == first )
+                {
+                    return entry;
+                }
+            }
+        }
+
+        /**
+         * Inserts a key which is known to not be in this table. Only called by the thread holding the segment monitor.
+         */
+        void insert( long packedKey, long first, long hash, long delta )
+        {
+            for ( int slot = (int) hash & mask; ; slot = (slot + 1) & mask )
+            {
+                int entry = slot * ENTRY_SIZE;
+                if ( entries.get( entry ) == 0 )
+                {
+                    entries.set( entry + 2, delta );
+                    entries.set( entry + 1, first );
+                    // Publish the key last so that readers finding it will also see the other words
+                    entries.set( entry, packedKey );
+                    size++;
+                    return;
+                }
+            }
+        }
+
+        Table grow()
+        {
+            Table grown = new Table( capacity * 2 );
+            for ( int entry = 0; entry < entries.length(); entry += ENTRY_SIZE )
+            {
+                long packedKey = entries.get( entry );
+                if ( packedKey != 0 )
+                {
+                    long first = entries.get( entry + 1 );
+                    grown.insert( packedKey, first, hash( packedKey, first ), entries.get( entry + 2 ) );
+                }
+            }
+            return grown;
+        }
+    }
+}
@@ -107,7 +107,7 @@ public class CountsKey
      */
     public static CountsKey nodeKey( long labelId )
     {
-        return new CountsKey( TYPE_NODE, labelId, 0 );
+        return new CountsKey().initializeNode( labelId );
     }
 
     /**
@@ -119,7 +119,31 @@ public class CountsKey
      */
     public static CountsKey relationshipKey( long startLabelId, long typeId, long endLabelId )
     {
-        return new CountsKey( TYPE_RELATIONSHIP, (startLabelId << Integer.SIZE) | (typeId & 0xFFFFFFFFL), (int) endLabelId );
+        return new CountsKey().initializeRelationship( startLabelId, typeId, endLabelId );
+    }
+
+    /**
+     * Initializes this key to be a key for the node label id, for callers which reuse the same instance for many keys.
+     * @param labelId id of the label.
+     * @return this instance.
+     */
+    CountsKey initializeNode( long labelId )
+    {
+        initialize( TYPE_NODE, labelId, 0 );
+        return this;
+    }
+
+    /**
+     * Initializes this key to be a key for the node start/end label and relationship type id, for callers which reuse the same instance for many keys.
+     * @param startLabelId id of the label of start node.
+     * @param typeId id of the relationship type.
+     * @param endLabelId id of the label of end node.
+     * @return this instance.
+     */
+    CountsKey initializeRelationship( long startLabelId, long typeId, long endLabelId )
+    {
+        initialize( TYPE_RELATIONSHIP, (startLabelId << Integer.SIZE) | (typeId & 0xFFFFFFFFL), (int) endLabelId );
+        return this;
     }
 
     static CountsKey strayTxId( long txId )
@@ -23,18 +23,15 @@ import org.eclipse.collections.api.set.primitive.MutableLongSet;
 import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.PrintStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.LongConsumer;
+import java.util.function.ToLongFunction;
 
 import org.neo4j.annotations.documented.ReporterFactory;
 import org.neo4j.collection.PrimitiveLongArrayQueue;
@@ -76,8 +73,12 @@ import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_ID;
  * Counts store build on top of the {@link GBPTree}.
  * Changes between checkpoints are kept in memory and written out to the tree in {@link #checkpoint(IOLimiter, PageCursorTracer)}.
  * Multiple {@link #apply(long, PageCursorTracer)} appliers} can run concurrently in a lock-free manner.
- * Checkpoint will acquire a write lock, wait for currently active appliers to close while at the same time blocking new appliers to start,
- * but doesn't wait for appliers that haven't even started yet, i.e. it doesn't require a gap-free transaction sequence to be completed.
+ * Changes are double-buffered in {@link CountsChanges} generations: checkpoint replaces the current generation with a new one,
+ * waits for the appliers that are still applying to the previous generation to close and then writes the previous generation to the tree.
+ * New appliers are never blocked by a checkpoint, they apply to the new generation while the previous one is being written.
+ * Checkpoint doesn't wait for appliers that haven't even started yet, i.e. it doesn't require a gap-free transaction sequence to be completed.
+ * Counts stored in the tree are cached the first time a key is applied or read and kept up to date by checkpoints, so that reading a count
+ * doesn't need to look it up in the tree. Appliers don't look up stored counts while a checkpoint is writing to the tree.
  */
 public class GBPTreeCountsStore implements CountsStore
 {
@@ -87,12 +88,13 @@ public class GBPTreeCountsStore implements CountsStore
 
     private final GBPTree<CountsKey,CountsValue> tree;
     private final OutOfOrderSequence idSequence;
-    private final ReadWriteLock lock = new ReentrantReadWriteLock( true );
+    private final OutOfOrderSequence checkpointIdSequence;
+    private final Lock checkpointLock = new ReentrantLock();
     private final CountsLayout layout = new CountsLayout();
     private final CountsBuilder initialCountsBuilder;
     private final boolean readOnly;
     private final Monitor monitor;
-    private volatile ConcurrentHashMap<CountsKey,AtomicLong> changes = new ConcurrentHashMap<>();
+    private volatile ChangesState state = new ChangesState( new CountsChanges(), null, null, null, new CountsDeltaMap() );
     private final TxIdInformation txIdInformation;
     private volatile boolean started;
 
@@ -123,7 +125,12 @@ public class GBPTreeCountsStore implements CountsStore
             this.txIdInformation = readTxIdInformation( header.highestGapFreeTxId(), cursorTracer );
             // Recreate the tx id state as it was from last checkpoint (or base if empty)
             this.idSequence = new ArrayQueueOutOfOrderSequence( txIdInformation.highestGapFreeTxId, 200, EMPTY_LONG_ARRAY );
-            this.txIdInformation.strayTxIds.forEach( txId -> idSequence.offer( txId, EMPTY_LONG_ARRAY ) );
+            this.checkpointIdSequence = new ArrayQueueOutOfOrderSequence( txIdInformation.highestGapFreeTxId, 200, EMPTY_LONG_ARRAY );
+            this.txIdInformation.strayTxIds.forEach( txId ->
+            {
+                idSequence.offer( txId, EMPTY_LONG_ARRAY );
+                checkpointIdSequence.offer( txId, EMPTY_LONG_ARRAY );
+            } );
             // Only care about initial counts rebuilding if the tree was created right now when opening this tree
             // The actual rebuilding will happen in start()
             this.initialCountsBuilder = header.wasRead() && header.highestGapFreeTxId() != NEEDS_REBUILDING_HIGH_ID ? null : initialCountsBuilder;
@@ -165,12 +172,15 @@ public class GBPTreeCountsStore implements CountsStore
             {
                 throw new IllegalStateException( "Counts store needs rebuilding, most likely this database needs to be recovered." );
             }
-            Lock lock = lock( this.lock.writeLock() );
+            Lock lock = lock( checkpointLock );
             long txId = initialCountsBuilder.lastCommittedTxId();
-            try ( CountsAccessor.Updater updater = new CountUpdater( new TreeWriter( tree.writer( cursorTracer ), idSequence, txId ), lock ) )
+            try ( CountsAccessor.Updater updater = new CountUpdater( new TreeWriter( tree.writer( cursorTracer ), idSequence, txId ), lock::unlock ) )
             {
                 initialCountsBuilder.initialize( updater, cursorTracer, memoryTracker );
             }
+            checkpointIdSequence.set( txId, EMPTY_LONG_ARRAY );
+            // The counts were written straight to the tree, so forget any count cached from it before that
+            state = new ChangesState( state.current, null, null, null, new CountsDeltaMap() );
         }
         started = true;
     }
@@ -187,7 +197,6 @@ public class GBPTreeCountsStore implements CountsStore
     public CountsAccessor.Updater apply( long txId, PageCursorTracer cursorTracer )
     {
         Preconditions.checkState( !readOnly, "This counts store is read-only" );
-        Lock lock = lock( this.lock.readLock() );
 
         boolean alreadyApplied = txIdInformation.txIdIsAlreadyApplied( txId );
         // Why have this check below? Why should we not apply transactions before started when we have an initial counts builder?
@@ -207,11 +216,32 @@ public class GBPTreeCountsStore implements CountsStore
         boolean inRecoveryOnEmptyCountsStore = initialCountsBuilder != null && !started;
         if ( alreadyApplied || inRecoveryOnEmptyCountsStore )
         {
-            lock.unlock();
             monitor.ignoredTransaction( txId );
             return NO_OP_UPDATER;
         }
-        return new CountUpdater( new MapWriter( key -> readCountFromTree( key, cursorTracer ), changes, idSequence, txId ), lock );
+        CountsChanges changes = startApplying();
+        ToLongFunction<CountsKey> storeLookup = key -> readCountFromTree( key, cursorTracer );
+        return new CountUpdater( new MapWriter( changes, key -> state.cacheStoredCount( key, storeLookup ), idSequence, txId ),
+                changes::applierClosed );
+    }
+
+    /**
+     * Registers an applier with the current generation of changes. A checkpoint may replace the generation concurrently with this call,
+     * so after registering, check that the generation is still current, otherwise back off and register with the new generation instead.
+     * This guarantees that a checkpoint waiting for the appliers of a replaced generation will also wait for this applier.
+     */
+    private CountsChanges startApplying()
+    {
+        while ( true )
+        {
+            CountsChanges changes = state.current;
+            changes.applierStarted();
+            if ( state.current == changes )
+            {
+                return changes;
+            }
+            changes.applierClosed();
+        }
     }
 
     public void checkpoint( IOLimiter ioLimiter, PageCursorTracer cursorTracer ) throws IOException
@@ -221,50 +251,86 @@ public class GBPTreeCountsStore implements CountsStore
             return;
         }
 
-        // First acquire the write lock. This is a fair lock and will wait for currently applying transactions to finish.
-        // This could potentially block appliers around this point since they will respect the fairness too.
-        // The good thing is that the lock is held very very briefly.
-        Lock writeLock = lock( this.lock.writeLock() );
-
-        // When we have the lock we do two things (no updates will come in while we have it):
-        OutOfOrderSequence.Snapshot txIdSnapshot;
+        // Only one checkpoint at a time. Appliers don't care about this lock.
+        Lock lock = lock( checkpointLock );
         try
         {
-            // Take a snapshot of applied transactions (but write it later, no need to write it under the lock)
-            txIdSnapshot = idSequence.snapshot();
-
-            // Take the changes and instantiate a new map for other updates to apply to after we release this lock
-            // We have to write them while we have the lock since we start from a new empty "changes" cache,
-            // otherwise an applying transaction after we've released the lock below but before writing the changes to the tree
-            // could load old counts into the new changes cache and therefore corrupt the counts store.
-            ConcurrentHashMap<CountsKey,AtomicLong> changesToWrite = changes;
-            writeCountsChanges( changesToWrite, cursorTracer );
-            changes = new ConcurrentHashMap<>();
+            // Replace the current changes with a new empty generation. Appliers starting after this point will apply to the new generation.
+            // If a previous checkpoint failed half-way its generation is still there, then finish writing that one instead.
+            if ( state.checkpointing == null )
+            {
+                state = new ChangesState( new CountsChanges(), state.current, null, null, state.storedCounts );
+            }
+            CountsChanges changesToWrite = state.checkpointing;
+
+            if ( state.checkpointingCounts == null )
+            {
+                // Wait for the appliers that are still applying to the previous generation. This doesn't block any new appliers.
+                awaitAppliersClosed( changesToWrite );
+
+                // Resolve the absolute counts of the previous generation from the tree, which is not changing right now.
+                CountsDeltaMap countsToWrite = resolveCounts( changesToWrite, state.storedCounts, cursorTracer );
+
+                // Take a snapshot of the transactions applied to the previous generation and the ones check-pointed before it.
+                // Transactions applied to the new generation are not part of this snapshot, even if they have lower ids.
+                changesToWrite.visitAppliedTxIds( txId -> checkpointIdSequence.offer( txId, EMPTY_LONG_ARRAY ) );
+                OutOfOrderSequence.Snapshot txIdSnapshot = checkpointIdSequence.snapshot();
+
+                // Publish the resolved counts before starting to change the tree, so that readers can read consistent counts while it's being written.
+                // Writing absolute counts is idempotent so a checkpoint which fails from this point on can be completed by the next one.
+                state = new ChangesState( state.current, changesToWrite, countsToWrite, txIdSnapshot, state.storedCounts );
+            }
+            ChangesState checkpointState = state;
+            writeCountsChanges( changesToWrite, checkpointState.checkpointingCounts, cursorTracer );
+            // Update the cached stored counts of the written keys. This also replaces any count cached from the tree while it was being written.
+            checkpointState.checkpointingCounts.visit( checkpointState.storedCounts::put );
+            state = new ChangesState( checkpointState.current, null, null, null, checkpointState.storedCounts );
+            OutOfOrderSequence.Snapshot txIdSnapshot = checkpointState.checkpointingTxIdSnapshot;
+
+            // Now update the transaction information in the tree
+            updateTxIdInformationInTree( txIdSnapshot, cursorTracer );
+
+            // Good, check-point all these changes
+            tree.checkpoint( ioLimiter, new CountsHeader( txIdSnapshot.highestGapFree()[0] ), cursorTracer );
         }
         finally
         {
-            writeLock.unlock();
+            lock.unlock();
         }
+    }
 
-        // Now update the transaction information in the tree
-        updateTxIdInformationInTree( txIdSnapshot, cursorTracer );
+    private static void awaitAppliersClosed( CountsChanges changes ) throws InterruptedIOException
+    {
+        try
+        {
+            changes.awaitAppliersClosed();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interruptedException = new InterruptedIOException( "Interrupted while waiting for counts appliers to close" );
+            interruptedException.initCause( e );
+            throw interruptedException;
+        }
+    }
 
-        // Good, check-point all these changes
-        tree.checkpoint( ioLimiter, new CountsHeader( txIdSnapshot.highestGapFree()[0] ), cursorTracer );
+    private CountsDeltaMap resolveCounts( CountsChanges changes, CountsDeltaMap storedCounts, PageCursorTracer cursorTracer )
+    {
+        CountsDeltaMap counts = new CountsDeltaMap();
+        ToLongFunction<CountsKey> storeLookup = key -> readCountFromTree( key, cursorTracer );
+        changes.visit( ( key, delta ) -> counts.add( key, storedCounts.getOrLoad( key, storeLookup ) + delta ) );
+        return counts;
     }
 
-    private void writeCountsChanges( ConcurrentHashMap<CountsKey,AtomicLong> changes, PageCursorTracer cursorTracer ) throws IOException
+    private void writeCountsChanges( CountsChanges changes, CountsDeltaMap counts, PageCursorTracer cursorTracer ) throws IOException
     {
-        // Sort the entries in the natural tree order to get more performance in the writer
-        List<Map.Entry<CountsKey,AtomicLong>> changeList = new ArrayList<>( changes.entrySet() );
-        changeList.sort( ( e1, e2 ) -> layout.compare( e1.getKey(), e2.getKey() ) );
+        List<CountsKey> keys = changes.sortedKeys( layout );
         try ( Writer<CountsKey,CountsValue> writer = tree.writer( cursorTracer ) )
         {
             CountsValue value = new CountsValue();
-            for ( Map.Entry<CountsKey,AtomicLong> entry : changeList )
+            for ( CountsKey key : keys )
             {
-                long count = entry.getValue().get();
-                merge( writer, entry.getKey(), value.initialize( count ) );
+                merge( writer, key, value.initialize( counts.get( key ) ) );
             }
         }
     }
@@ -312,31 +378,56 @@ public class GBPTreeCountsStore implements CountsStore
     @Override
     public void accept( CountsVisitor visitor, PageCursorTracer cursorTracer )
     {
-        // First visit the changes that we haven't check-pointed yet
-        for ( Map.Entry<CountsKey,AtomicLong> changedEntry : changes.entrySet() )
+        // Keep checkpoints from changing the tree while visiting, this doesn't block appliers
+        Lock lock = lock( checkpointLock );
+        try
         {
-            // Our simplistic approach to the changes map makes it contain 0 counts at times, we don't remove entries from it
-            if ( changedEntry.getValue().get() != 0 )
+            // A checkpoint which failed half-way may have left its generation behind, which then still has changes not written to the tree
+            ChangesState visitState = state;
+            ToLongFunction<CountsKey> storeLookup = key -> readCountFromTree( key, cursorTracer );
+
+            // First visit the changes that we haven't check-pointed yet
+            CountsDeltaMap.DeltaVisitor changeVisitor = ( key, delta ) ->
             {
-                changedEntry.getKey().accept( visitor, changedEntry.getValue().get() );
+                // Our simplistic approach to the changes map makes it contain 0 counts at times, we don't remove entries from it
+                long count = visitState.count( key, storeLookup );
+                if ( count != 0 )
+                {
+                    key.accept( visitor, count );
+                }
+            };
+            visitState.current.visit( changeVisitor );
+            if ( visitState.checkpointing != null )
+            {
+                visitState.checkpointing.visit( ( key, delta ) ->
+                {
+                    if ( !visitState.current.contains( key ) )
+                    {
+                        changeVisitor.visit( key, delta );
+                    }
+                } );
             }
-        }
 
-        // Then visit the remaining stored changes from the last check-point
-        try ( Seeker<CountsKey,CountsValue> seek = tree.seek( CountsKey.MIN_COUNT, CountsKey.MAX_COUNT, cursorTracer ) )
-        {
-            while ( seek.next() )
+            // Then visit the remaining stored changes from the last check-point
+            try ( Seeker<CountsKey,CountsValue> seek = tree.seek( CountsKey.MIN_COUNT, CountsKey.MAX_COUNT, cursorTracer ) )
             {
-                CountsKey key = seek.key();
-                if ( !changes.containsKey( key ) )
+                while ( seek.next() )
                 {
-                    key.accept( visitor, seek.value().count );
+                    CountsKey key = seek.key();
+                    if ( !visitState.changed( key ) )
+                    {
+                        key.accept( visitor, seek.value().count );
+                    }
                 }
             }
+            catch ( IOException e )
+            {
+                throw new UnderlyingStorageException( e );
+            }
         }
-        catch ( IOException e )
+        finally
         {
-            throw new UnderlyingStorageException( e );
+            lock.unlock();
         }
     }
 
@@ -345,16 +436,28 @@ public class GBPTreeCountsStore implements CountsStore
         return idSequence.getHighestGapFreeNumber();
     }
 
+    /**
+     * Reads the count as seen by the current {@link ChangesState}. If a checkpoint moved on to a new state while reading, the read is retried
+     * since the stored count may then have been read from a tree that already contains changes also accounted for in the old state.
+     */
     private long read( CountsKey key, PageCursorTracer cursorTracer )
     {
-        AtomicLong changedCount = changes.get( key );
-        return changedCount != null ? changedCount.get() : readCountFromTree( key, cursorTracer );
+        ToLongFunction<CountsKey> storeLookup = k -> readCountFromTree( k, cursorTracer );
+        ChangesState readState;
+        long count;
+        do
+        {
+            readState = state;
+            count = readState.count( key, storeLookup );
+        }
+        while ( readState != state );
+        return count;
     }
 
     /**
-     * Read the count from the store. For writes this is done on an unchanging tree because we have the read lock where check-pointing
-     * (where changes are written to the tree) can only be done if the write-lock is acquired. For plain unmodified reads this is read from the tree
-     * without a lock, which is fine and follows general transaction isolation guarantees.
+     * Read the count from the store. Check-pointing resolves the counts of a generation from the tree while no other writes are made to it.
+     * For plain reads this is read from the tree without a lock, which is fine and follows general transaction isolation guarantees.
+     * Callers normally go through {@link ChangesState#storedCounts} instead, so that the same count is only read once per checkpoint.
      * @param key count value to read from the tree.
      * @return AtomicLong with the read count, or initialized to 0 if the count didn't exist in the tree.
      */
@@ -417,6 +520,75 @@ public class GBPTreeCountsStore implements CountsStore
         void ignoredTransaction( long txId );
     }
 
+    /**
+     * What readers need to know to read a count consistently. A new instance is published for every step of a checkpoint that changes
+     * where counts should be read from:
+     * <ol>
+     *     <li>No checkpoint: stored count + delta of the current generation.</li>
+     *     <li>Previous generation replaced, tree still unchanged: stored count + delta of the previous generation + delta of the current generation.</li>
+     *     <li>Tree being written: resolved count of the previous generation (or stored count if it had no change) + delta of the current generation.</li>
+     * </ol>
+     * The last two are only ever published by a checkpoint, which holds the checkpoint lock while doing so.
+     * <p>
+     * Stored counts are cached in {@link #storedCounts}, which is passed on from state to state. The only keys that change in the tree are
+     * the ones in {@link #checkpointingCounts}, which are never read from the cache while they're being written and which the checkpoint puts
+     * in the cache with their written counts before publishing the next state. A count cached from the tree while it's being written
+     * can therefore only be read from a state which has been replaced already, which makes the read retry, and it's always overwritten
+     * by the checkpoint.
+     */
+    private static class ChangesState
+    {
+        private final CountsChanges current;
+        private final CountsChanges checkpointing;
+        private final CountsDeltaMap checkpointingCounts;
+        private final OutOfOrderSequence.Snapshot checkpointingTxIdSnapshot;
+        private final CountsDeltaMap storedCounts;
+
+        ChangesState( CountsChanges current, CountsChanges checkpointing, CountsDeltaMap checkpointingCounts,
+                OutOfOrderSequence.Snapshot checkpointingTxIdSnapshot, CountsDeltaMap storedCounts )
+        {
+            this.current = current;
+            this.checkpointing = checkpointing;
+            this.checkpointingCounts = checkpointingCounts;
+            this.checkpointingTxIdSnapshot = checkpointingTxIdSnapshot;
+            this.storedCounts = storedCounts;
+        }
+
+        long count( CountsKey key, ToLongFunction<CountsKey> storeLookup )
+        {
+            long delta = current.delta( key );
+            if ( checkpointingCounts != null )
+            {
+                if ( checkpointingCounts.contains( key ) )
+                {
+                    return checkpointingCounts.get( key ) + delta;
+                }
+            }
+            else if ( checkpointing != null )
+            {
+                delta += checkpointing.delta( key );
+            }
+            return storedCounts.getOrLoad( key, storeLookup ) + delta;
+        }
+
+        /**
+         * Caches the stored count of a key that is being changed, so that reading its count later doesn't need to look it up in the tree.
+         * Nothing is looked up while a checkpoint is writing to the tree, since that could make the applier wait for the checkpoint.
+         */
+        void cacheStoredCount( CountsKey key, ToLongFunction<CountsKey> storeLookup )
+        {
+            if ( checkpointingCounts == null )
+            {
+                storedCounts.getOrLoad( key, storeLookup );
+            }
+        }
+
+        boolean changed( CountsKey key )
+        {
+            return current.contains( key ) || (checkpointing != null && checkpointing.contains( key ));
+        }
+    }
+
     /**
      * Dumps the contents of a counts store.
      *
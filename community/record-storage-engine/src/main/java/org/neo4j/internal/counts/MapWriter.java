@@ -19,31 +19,28 @@
  */
 package org.neo4j.internal.counts;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.Function;
-import java.util.function.ToLongFunction;
+import java.util.function.Consumer;
 
 import org.neo4j.util.concurrent.OutOfOrderSequence;
 
 import static org.apache.commons.lang3.ArrayUtils.EMPTY_LONG_ARRAY;
 
 /**
- * Used during recovery and normal operations mode where changes gets applied to a {@link ConcurrentHashMap} and counts that haven't been seen before
- * are looked up from stored counts and placed into the map too.
+ * Used during recovery and normal operations mode where changes gets applied as deltas to the current {@link CountsChanges} generation.
+ * Stored counts are not needed to apply a delta, they are added to the deltas first when the generation gets check-pointed.
+ * The changed keys are passed on to a stored count cache though, so that reading their counts doesn't need to look them up in the tree.
  */
 public class MapWriter implements CountUpdater.CountWriter
 {
-    private final ToLongFunction<CountsKey> storeLookup;
-    private final ConcurrentMap<CountsKey,AtomicLong> changes;
+    private final CountsChanges changes;
+    private final Consumer<CountsKey> storedCountCache;
     private final OutOfOrderSequence idSequence;
     private final long txId;
 
-    MapWriter( ToLongFunction<CountsKey> storeLookup, ConcurrentMap<CountsKey,AtomicLong> changes, OutOfOrderSequence idSequence, long txId )
+    MapWriter( CountsChanges changes, Consumer<CountsKey> storedCountCache, OutOfOrderSequence idSequence, long txId )
     {
-        this.storeLookup = storeLookup;
         this.changes = changes;
+        this.storedCountCache = storedCountCache;
         this.idSequence = idSequence;
         this.txId = txId;
     }
@@ -51,13 +48,14 @@ public class MapWriter implements CountUpdater.CountWriter
     @Override
     public void write( CountsKey key, long delta )
     {
-        Function<CountsKey,AtomicLong> defaultToStoredCount = k -> new AtomicLong( storeLookup.applyAsLong( k ) );
-        changes.computeIfAbsent( key, defaultToStoredCount ).addAndGet( delta );
+        changes.add( key, delta );
+        storedCountCache.accept( key );
     }
 
     @Override
     public void close()
     {
+        changes.transactionApplied( txId );
         idSequence.offer( txId, EMPTY_LONG_ARRAY );
     }
 }
@@ -56,6 +56,7 @@ public class BatchContext implements AutoCloseable
     private List<EntityTokenUpdate> labelUpdates;
     private List<EntityTokenUpdate> relationshipTypeUpdates;
     private IndexUpdates indexUpdates;
+    private boolean recordsApplied;
 
     public BatchContext( IndexUpdateListener indexUpdateListener,
             WorkSync<EntityTokenUpdateListener,TokenUpdateWork> labelScanStoreSync,
@@ -164,6 +165,24 @@ public class BatchContext implements AutoCloseable
         return idUpdateListener;
     }
 
+    /**
+     * Mark the node, relationship, property and relationship group records of this batch as already written to their stores, and the
+     * entities locked, see {@link ParallelRecordStoreApplier}.
+     */
+    void markRecordsApplied()
+    {
+        recordsApplied = true;
+    }
+
+    /**
+     * @return {@code true} if the node, relationship, property and relationship group records of this batch have already been written to
+     * their stores.
+     */
+    boolean recordsApplied()
+    {
+        return recordsApplied;
+    }
+
     public List<EntityTokenUpdate> labelUpdates()
     {
         if ( labelUpdates == null )
@@ -39,6 +39,9 @@ import static org.neo4j.lock.LockType.EXCLUSIVE;
  * <p>
  * For other modes of application, like recovery or external there are other, added functionality, decorated
  * outside this applier.
+ * <p>
+ * If the node, relationship, property and relationship group records of the batch have already been written by the
+ * {@link ParallelRecordStoreApplier}, then those commands are skipped.
  */
 public class NeoStoreTransactionApplier extends TransactionApplier.Adapter
 {
@@ -50,6 +53,7 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter
     private final LockService lockService;
     private final IdUpdateListener idUpdateListener;
     private final PageCursorTracer cursorTracer;
+    private final boolean recordsApplied;
 
     public NeoStoreTransactionApplier( CommandVersion version, NeoStores neoStores, CacheAccessBackDoor cacheAccess, LockService lockService,
             long transactionId, BatchContext batchContext, PageCursorTracer cursorTracer )
@@ -62,11 +66,17 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter
         this.cacheAccess = cacheAccess;
         this.idUpdateListener = batchContext.getIdUpdateListener();
         this.cursorTracer = cursorTracer;
+        this.recordsApplied = batchContext.recordsApplied();
     }
 
     @Override
     public boolean visitNodeCommand( Command.NodeCommand command )
     {
+        if ( recordsApplied )
+        {
+            return false;
+        }
+
         // acquire lock
         lockGroup.add( lockService.acquireNodeLock( command.getKey(), EXCLUSIVE ) );
 
@@ -78,6 +88,11 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter
     @Override
     public boolean visitRelationshipCommand( Command.RelationshipCommand command )
     {
+        if ( recordsApplied )
+        {
+            return false;
+        }
+
         lockGroup.add( lockService.acquireRelationshipLock( command.getKey(), EXCLUSIVE ) );
 
         updateStore( neoStores.getRelationshipStore(), command );
@@ -87,6 +102,11 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter
     @Override
     public boolean visitPropertyCommand( Command.PropertyCommand command )
     {
+        if ( recordsApplied )
+        {
+            return false;
+        }
+
         // acquire lock
         if ( command.getNodeId() != -1 )
         {
@@ -104,6 +124,11 @@ public class NeoStoreTransactionApplier extends TransactionApplier.Adapter
     @Override
     public boolean visitRelationshipGroupCommand( Command.RelationshipGroupCommand command )
     {
+        if ( recordsApplied )
+        {
+            return false;
+        }
+
         updateStore( neoStores.getRelationshipGroupStore(), command );
         return false;
     }
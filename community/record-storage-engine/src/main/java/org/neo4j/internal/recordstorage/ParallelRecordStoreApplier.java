@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.eclipse.collections.api.map.primitive.MutableLongIntMap;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.internal.helpers.collection.Visitor;
+import org.neo4j.internal.id.IdGenerator;
+import org.neo4j.internal.id.IdType;
+import org.neo4j.internal.recordstorage.Command.BaseCommand;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
+import org.neo4j.kernel.impl.store.CommonAbstractStore;
+import org.neo4j.kernel.impl.store.IdUpdateListener;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.lock.LockGroup;
+import org.neo4j.lock.LockService;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.CallableExecutor;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.CommandVersion;
+import org.neo4j.storageengine.api.CommandsToApply;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.util.FeatureToggles;
+
+import static org.neo4j.lock.LockType.EXCLUSIVE;
+
+/**
+ * Applies the node, relationship, property and relationship group records of a batch of transactions to their stores in parallel.
+ * <p>
+ * The records of a batch are split into partitions, and each partition is written to the stores by its own thread. This is only done
+ * when no node or relationship is changed by more than one transaction in the batch, counting the property and relationship group
+ * records of an entity as changes to the entity itself. Then the order in which the records are written does not matter, and the stores
+ * look the same to the rest of the {@link TransactionApplierFactoryChain appliers} as if the batch had been applied serially. Batches
+ * that contain schema changes, and batches that are too small to gain anything from it, are applied serially.
+ * <p>
+ * Locks on the changed entities are taken up front by the applying thread, in the order they would have been taken by the
+ * {@link NeoStoreTransactionApplier}, and released when the batch has been applied. The id updates of the partitions are merged into the
+ * id update listener of the batch afterwards. Counts, index and high id updates are then applied serially by the rest of the appliers,
+ * while the {@link NeoStoreTransactionApplier} skips the records that were already written, see {@link BatchContext#recordsApplied()}.
+ */
+class ParallelRecordStoreApplier
+{
+    private static final int MINIMUM_RECORD_COMMANDS = FeatureToggles.getInteger( ParallelRecordStoreApplier.class, "minimumRecordCommands", 1024 );
+    private static final int RECORDS_PER_RUN_SHIFT = 6;
+    private static final String PARALLEL_APPLY_TAG = "parallelRecordStoreApply";
+
+    /**
+     * The stages of applying a batch in parallel, that time is reported for.
+     */
+    enum Stage
+    {
+        /** Finding the record changes of the batch, checking that they do not conflict, locking and partitioning them. */
+        PARTITION,
+        /** Writing the partitions of records to the stores. */
+        RECORD_STORES,
+        /** Merging the id updates of the partitions into the id update listener of the batch. */
+        ID_UPDATES,
+        /** Applying the rest of the appliers, like counts, index and high id updates. */
+        APPLIERS
+    }
+
+    private final int partitions;
+    private final NeoStores neoStores;
+    private final PageCacheTracer cacheTracer;
+    private final CallableExecutor executor;
+    private final LongAdder[] stageNanos = new LongAdder[Stage.values().length];
+    private final LongAdder parallelBatches = new LongAdder();
+    private final LongAdder serialBatches = new LongAdder();
+
+    ParallelRecordStoreApplier( int partitions, NeoStores neoStores, PageCacheTracer cacheTracer, JobScheduler jobScheduler )
+    {
+        this.partitions = partitions;
+        this.neoStores = neoStores;
+        this.cacheTracer = cacheTracer;
+        this.executor = jobScheduler.executor( Group.TRANSACTION_APPLY );
+        for ( int i = 0; i < stageNanos.length; i++ )
+        {
+            stageNanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Write the node, relationship, property and relationship group records of the given batch to their stores in parallel, if the
+     * batch allows it.
+     *
+     * @return {@code true} if the records were written, and the batch context was marked as such, or {@code false} if the batch must be
+     * applied serially, in which case nothing has been written or locked.
+     */
+    boolean applyRecords( CommandsToApply batch, CommandVersion version, LockService lockService, BatchContext context ) throws Exception
+    {
+        long startNanos = System.nanoTime();
+        RecordCommands recordCommands = new RecordCommands();
+        for ( CommandsToApply transaction = batch; transaction != null; transaction = transaction.next() )
+        {
+            recordCommands.nextTransaction();
+            if ( transaction.accept( recordCommands ) )
+            {
+                serialBatches.increment();
+                return false;
+            }
+        }
+        if ( recordCommands.commands.size() < MINIMUM_RECORD_COMMANDS )
+        {
+            serialBatches.increment();
+            return false;
+        }
+        List<List<BaseCommand<?>>> partitionedCommands = partition( recordCommands.commands, lockService, context.getLockGroup() );
+        long partitionedNanos = System.nanoTime();
+        stageNanos[Stage.PARTITION.ordinal()].add( partitionedNanos - startNanos );
+
+        List<Future<RecordingIdUpdateListener>> futures = new ArrayList<>( partitions - 1 );
+        for ( int i = 1; i < partitions; i++ )
+        {
+            List<BaseCommand<?>> commands = partitionedCommands.get( i );
+            futures.add( executor.submit( () -> writeRecords( commands, version ) ) );
+        }
+        List<RecordingIdUpdateListener> idUpdates = new ArrayList<>( partitions );
+        Exception failure = null;
+        try
+        {
+            idUpdates.add( writeRecords( partitionedCommands.get( 0 ), version ) );
+        }
+        catch ( Exception e )
+        {
+            failure = e;
+        }
+        // Always wait for all partitions, so that no records are written after a failure has been reported
+        for ( Future<RecordingIdUpdateListener> future : futures )
+        {
+            try
+            {
+                idUpdates.add( future.get() );
+            }
+            catch ( Exception e )
+            {
+                if ( failure == null )
+                {
+                    failure = e;
+                }
+                else
+                {
+                    failure.addSuppressed( e );
+                }
+            }
+        }
+        if ( failure != null )
+        {
+            throw failure;
+        }
+        long writtenNanos = System.nanoTime();
+        stageNanos[Stage.RECORD_STORES.ordinal()].add( writtenNanos - partitionedNanos );
+
+        IdUpdateListener idUpdateListener = context.getIdUpdateListener();
+        for ( RecordingIdUpdateListener partitionIdUpdates : idUpdates )
+        {
+            partitionIdUpdates.replay( idUpdateListener, batch.cursorTracer() );
+        }
+        stageNanos[Stage.ID_UPDATES.ordinal()].add( System.nanoTime() - writtenNanos );
+
+        context.markRecordsApplied();
+        parallelBatches.increment();
+        return true;
+    }
+
+    void recordStage( Stage stage, long nanos )
+    {
+        stageNanos[stage.ordinal()].add( nanos );
+    }
+
+    long stageNanos( Stage stage )
+    {
+        return stageNanos[stage.ordinal()].sum();
+    }
+
+    long parallelBatches()
+    {
+        return parallelBatches.sum();
+    }
+
+    long serialBatches()
+    {
+        return serialBatches.sum();
+    }
+
+    void logStatistics( Log log )
+    {
+        long parallel = parallelBatches();
+        if ( parallel == 0 )
+        {
+            return;
+        }
+        StringBuilder stages = new StringBuilder();
+        for ( Stage stage : Stage.values() )
+        {
+            long millis = TimeUnit.NANOSECONDS.toMillis( stageNanos( stage ) );
+            stages.append( ", " ).append( stage.name().toLowerCase() ).append( '=' ).append( millis ).append( "ms" );
+        }
+        log.info( "Applied %d batches of transactions with %d partitions in parallel, and %d batches serially. Time spent per stage%s",
+                parallel, partitions, serialBatches(), stages );
+    }
+
+    private List<List<BaseCommand<?>>> partition( List<BaseCommand<?>> commands, LockService lockService, LockGroup lockGroup )
+    {
+        List<List<BaseCommand<?>>> partitionedCommands = new ArrayList<>( partitions );
+        for ( int i = 0; i < partitions; i++ )
+        {
+            partitionedCommands.add( new ArrayList<>( commands.size() / partitions + 1 ) );
+        }
+        for ( BaseCommand<?> command : commands )
+        {
+            lock( command, lockService, lockGroup );
+            partitionedCommands.get( partitionOf( command ) ).add( command );
+        }
+        return partitionedCommands;
+    }
+
+    /**
+     * Runs of consecutive records go to the same partition, to keep the records that a partition writes close together in the store files.
+     */
+    private int partitionOf( BaseCommand<?> command )
+    {
+        long run = command.getKey() >>> RECORDS_PER_RUN_SHIFT;
+        long hash = (run + command.getClass().hashCode()) * 0x9E3779B97F4A7C15L;
+        return (int) ((hash >>> 32) % partitions);
+    }
+
+    private static void lock( BaseCommand<?> command, LockService lockService, LockGroup lockGroup )
+    {
+        if ( command instanceof Command.NodeCommand )
+        {
+            lockGroup.add( lockService.acquireNodeLock( command.getKey(), EXCLUSIVE ) );
+        }
+        else if ( command instanceof Command.RelationshipCommand )
+        {
+            lockGroup.add( lockService.acquireRelationshipLock( command.getKey(), EXCLUSIVE ) );
+        }
+        else if ( command instanceof Command.PropertyCommand )
+        {
+            Command.PropertyCommand propertyCommand = (Command.PropertyCommand) command;
+            if ( propertyCommand.getNodeId() != -1 )
+            {
+                lockGroup.add( lockService.acquireNodeLock( propertyCommand.getNodeId(), EXCLUSIVE ) );
+            }
+            else if ( propertyCommand.getRelId() != -1 )
+            {
+                lockGroup.add( lockService.acquireRelationshipLock( propertyCommand.getRelId(), EXCLUSIVE ) );
+            }
+        }
+    }
+
+    private RecordingIdUpdateListener writeRecords( List<BaseCommand<?>> commands, CommandVersion version )
+    {
+        RecordingIdUpdateListener idUpdates = new RecordingIdUpdateListener();
+        try ( PageCursorTracer cursorTracer = cacheTracer.createPageCursorTracer( PARALLEL_APPLY_TAG ) )
+        {
+            for ( BaseCommand<?> command : commands )
+            {
+                if ( command instanceof Command.NodeCommand )
+                {
+                    updateStore( neoStores.getNodeStore(), (Command.NodeCommand) command, version, idUpdates, cursorTracer );
+                }
+                else if ( command instanceof Command.RelationshipCommand )
+                {
+                    updateStore( neoStores.getRelationshipStore(), (Command.RelationshipCommand) command, version, idUpdates, cursorTracer );
+                }
+                else if ( command instanceof Command.PropertyCommand )
+                {
+                    updateStore( neoStores.getPropertyStore(), (Command.PropertyCommand) command, version, idUpdates, cursorTracer );
+                }
+                else
+                {
+                    updateStore( neoStores.getRelationshipGroupStore(), (Command.RelationshipGroupCommand) command, version, idUpdates, cursorTracer );
+                }
+            }
+        }
+        return idUpdates;
+    }
+
+    private static <RECORD extends AbstractBaseRecord> void updateStore( CommonAbstractStore<RECORD,?> store, BaseCommand<RECORD> command,
+            CommandVersion version, IdUpdateListener idUpdateListener, PageCursorTracer cursorTracer )
+    {
+        RECORD record = version == CommandVersion.BEFORE ? command.getBefore() : command.getAfter();
+        store.updateRecord( record, idUpdateListener, cursorTracer );
+    }
+
+    /**
+     * Collects the record commands of a batch, and stops at the first command that prevents the batch from being applied in parallel.
+     * That is any schema change, and any change to a node or relationship that an earlier transaction in the batch also changed,
+     * whether through the record of the entity itself, or through one of its property or relationship group records.
+     */
+    private static class RecordCommands implements Visitor<StorageCommand,IOException>
+    {
+        private final List<BaseCommand<?>> commands = new ArrayList<>();
+        private final MutableLongIntMap nodeTransactions = new LongIntHashMap();
+        private final MutableLongIntMap relationshipTransactions = new LongIntHashMap();
+        private final MutableLongSet properties = new LongHashSet();
+        private final MutableLongSet relationshipGroups = new LongHashSet();
+        private int transaction;
+
+        void nextTransaction()
+        {
+            transaction++;
+        }
+
+        @Override
+        public boolean visit( StorageCommand element )
+        {
+            if ( element instanceof Command.NodeCommand )
+            {
+                Command.NodeCommand command = (Command.NodeCommand) element;
+                return changes( nodeTransactions, command.getKey() ) || add( command );
+            }
+            if ( element instanceof Command.RelationshipCommand )
+            {
+                Command.RelationshipCommand command = (Command.RelationshipCommand) element;
+                return changes( relationshipTransactions, command.getKey() ) || add( command );
+            }
+            if ( element instanceof Command.PropertyCommand )
+            {
+                Command.PropertyCommand command = (Command.PropertyCommand) element;
+                PropertyRecord owner = command.getAfter().isNodeSet() || command.getAfter().isRelSet() ? command.getAfter() : command.getBefore();
+                if ( owner.isNodeSet() )
+                {
+                    return changes( nodeTransactions, owner.getNodeId() ) || add( properties, command );
+                }
+                if ( owner.isRelSet() )
+                {
+                    return changes( relationshipTransactions, owner.getRelId() ) || add( properties, command );
+                }
+                // Properties of schema rules, or of an unknown owner
+                return true;
+            }
+            if ( element instanceof Command.RelationshipGroupCommand )
+            {
+                Command.RelationshipGroupCommand command = (Command.RelationshipGroupCommand) element;
+                long owningNode = command.getAfter().inUse() ? command.getAfter().getOwningNode() : command.getBefore().getOwningNode();
+                return changes( nodeTransactions, owningNode ) || add( relationshipGroups, command );
+            }
+            // Schema changes must be applied in order with the index updates of the records around them
+            return element instanceof Command.SchemaRuleCommand;
+        }
+
+        /**
+         * @return {@code true} if the given entity is unknown, or has already been changed by an earlier transaction in the batch.
+         */
+        private boolean changes( MutableLongIntMap entityTransactions, long entityId )
+        {
+            return entityId < 0 || entityTransactions.getIfAbsentPut( entityId, transaction ) != transaction;
+        }
+
+        private boolean add( MutableLongSet keys, BaseCommand<?> command )
+        {
+            if ( !keys.add( command.getKey() ) )
+            {
+                // The record is changed by more than one transaction in the batch
+                return true;
+            }
+            return add( command );
+        }
+
+        private boolean add( BaseCommand<?> command )
+        {
+            commands.add( command );
+            return false;
+        }
+    }
+
+    /**
+     * Records the id updates of a partition, so that they can be handed to the id update listener of the batch by the applying thread.
+     */
+    private static class RecordingIdUpdateListener implements IdUpdateListener
+    {
+        private final List<IdChange> changes = new ArrayList<>();
+
+        @Override
+        public void markIdAsUsed( IdType idType, IdGenerator idGenerator, long id, PageCursorTracer cursorTracer )
+        {
+            changes.add( new IdChange( idType, idGenerator, id, true ) );
+        }
+
+        @Override
+        public void markIdAsUnused( IdType idType, IdGenerator idGenerator, long id, PageCursorTracer cursorTracer )
+        {
+            changes.add( new IdChange( idType, idGenerator, id, false ) );
+        }
+
+        void replay( IdUpdateListener idUpdateListener, PageCursorTracer cursorTracer )
+        {
+            for ( IdChange change : changes )
+            {
+                if ( change.used )
+                {
+                    idUpdateListener.markIdAsUsed( change.idType, change.idGenerator, change.id, cursorTracer );
+                }
+                else
+                {
+                    idUpdateListener.markIdAsUnused( change.idType, change.idGenerator, change.id, cursorTracer );
+                }
+            }
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    private static class IdChange
+    {
+        private final IdType idType;
+        private final IdGenerator idGenerator;
+        private final long id;
+        private final boolean used;
+
+        IdChange( IdType idType, IdGenerator idGenerator, long id, boolean used )
+        {
+            this.idType = idType;
+            this.idGenerator = idGenerator;
+            this.id = id;
+            this.used = used;
+        }
+    }
+}
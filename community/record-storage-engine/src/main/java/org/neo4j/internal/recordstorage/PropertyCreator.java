@@ -144,8 +144,9 @@ public class PropertyCreator
         PropertyRecord freeHost;
         if ( freeHostProxy == null )
         {
-            // We couldn't find free space along the way, so create a new host record
-            freeHost = propertyRecords.create( propertyRecordIdGenerator.nextId( cursorTracer ), primitive, cursorTracer ).forChangingData();
+            // We couldn't find free space along the way, so create a new host record, preferably close to the one it will be linked to
+            long freeHostId = propertyRecordIdGenerator.nextIdNear( primitive.getNextProp(), cursorTracer );
+            freeHost = propertyRecords.create( freeHostId, primitive, cursorTracer ).forChangingData();
             freeHost.setInUse( true );
             if ( primitive.getNextProp() != Record.NO_NEXT_PROPERTY.intValue() )
             {
@@ -222,7 +223,7 @@ public class PropertyCreator
                 // Here it means the current block is done for
                 PropertyRecord prevRecord = currentRecord;
                 // Create new record
-                long propertyId = propertyRecordIdGenerator.nextId( cursorTracer );
+                long propertyId = propertyRecordIdGenerator.nextIdNear( prevRecord.getId(), cursorTracer );
                 currentRecord = propertyRecords.create( propertyId, owner, cursorTracer ).forChangingData();
                 createdPropertyRecords.accept( currentRecord );
                 currentRecord.setInUse( true );
@@ -22,13 +22,17 @@ package org.neo4j.internal.recordstorage;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.StandardDynamicRecordAllocator;
 import org.neo4j.kernel.impl.store.StoreType;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.Record;
 import org.neo4j.lock.ResourceLocker;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.storageengine.api.CommandCreationContext;
 
 import static java.lang.Math.toIntExact;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
 
 /**
  * Holds commit data structures for creating records in a {@link NeoStores}.
@@ -43,6 +47,7 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
     private final PropertyCreator propertyCreator;
     private final PropertyDeleter propertyDeleter;
     private final PageCursorTracer cursorTracer;
+    private final NodeRecord sourceNodeRecord = new NodeRecord( -1 );
 
     RecordStorageCommandCreationContext( NeoStores neoStores, int denseNodeThreshold, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
     {
@@ -79,6 +84,27 @@ class RecordStorageCommandCreationContext implements CommandCreationContext
         return nextId( StoreType.RELATIONSHIP );
     }
 
+    @Override
+    public long reserveRelationship( long sourceNode )
+    {
+        RelationshipStore relationshipStore = neoStores.getRelationshipStore();
+        if ( !relationshipStore.canUseNearIdHint() )
+        {
+            // Don't bother reading the node when there are no free ids to pick from anyway
+            return relationshipStore.nextId( cursorTracer );
+        }
+
+        // New relationships are inserted first in the chain of a sparse node, so place it close to the current first relationship.
+        // For a dense node the first relationship is a relationship group and so there's no good hint to give.
+        long firstRelationship = Record.NO_NEXT_RELATIONSHIP.intValue();
+        neoStores.getNodeStore().getRecord( sourceNode, sourceNodeRecord, CHECK, cursorTracer );
+        if ( sourceNodeRecord.inUse() && !sourceNodeRecord.isDense() )
+        {
+            firstRelationship = sourceNodeRecord.getNextRel();
+        }
+        return relationshipStore.nextIdNear( firstRelationship, cursorTracer );
+    }
+
     @Override
     public long reserveSchema()
     {
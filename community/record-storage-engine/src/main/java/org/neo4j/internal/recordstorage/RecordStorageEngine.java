@@ -41,6 +41,7 @@ import org.neo4j.internal.diagnostics.DiagnosticsManager;
 import org.neo4j.internal.id.IdController;
 import org.neo4j.internal.id.IdGenerator;
 import org.neo4j.internal.id.IdGeneratorFactory;
+import org.neo4j.internal.id.IdLocalityCounters;
 import org.neo4j.internal.id.IdType;
 import org.neo4j.internal.kernel.api.exceptions.TransactionApplyKernelException;
 import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
@@ -74,6 +75,7 @@ import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.memory.MemoryTracker;
 import org.neo4j.monitoring.Health;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.CommandCreationContext;
 import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.ConstraintRuleAccessor;
@@ -117,18 +119,22 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private final ConstraintRuleAccessor constraintSemantics;
     private final LockService lockService;
     private final boolean consistencyCheckApply;
+    private final int parallelApplyPartitions;
+    private final Log log;
     private WorkSync<EntityTokenUpdateListener,TokenUpdateWork> labelScanStoreSync;
     private WorkSync<EntityTokenUpdateListener,TokenUpdateWork> relationshipTypeScanStoreSync;
     private WorkSync<IndexUpdateListener,IndexUpdatesWork> indexUpdatesSync;
     private final IdController idController;
     private final PageCacheTracer cacheTracer;
     private final MemoryTracker otherMemoryTracker;
+    private final JobScheduler jobScheduler;
     private final GBPTreeCountsStore countsStore;
     private final int denseNodeThreshold;
     private final Map<IdType,WorkSync<IdGenerator,IdGeneratorUpdateWork>> idGeneratorWorkSyncs = new EnumMap<>( IdType.class );
     private final Map<TransactionApplicationMode,TransactionApplierFactoryChain> applierChains = new EnumMap<>( TransactionApplicationMode.class );
 
     // installed later
+    private ParallelRecordStoreApplier parallelRecordStoreApplier;
     private IndexUpdateListener indexUpdateListener;
     private EntityTokenUpdateListener nodeLabelUpdateListener;
     private EntityTokenUpdateListener relationshipTypeUpdateListener;
@@ -147,6 +153,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             IdGeneratorFactory idGeneratorFactory,
             IdController idController,
             RecoveryCleanupWorkCollector recoveryCleanupWorkCollector,
+            JobScheduler jobScheduler,
             PageCacheTracer cacheTracer,
             boolean createStoreIfNotExists,
             MemoryTracker otherMemoryTracker )
@@ -160,6 +167,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         this.idController = idController;
         this.cacheTracer = cacheTracer;
         this.otherMemoryTracker = otherMemoryTracker;
+        this.jobScheduler = jobScheduler;
 
         StoreFactory factory = new StoreFactory( databaseLayout, config, idGeneratorFactory, pageCache, fs, logProvider, cacheTracer );
         neoStores = factory.openAllNeoStores( createStoreIfNotExists );
@@ -181,6 +189,8 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             countsStore = openCountsStore( pageCache, fs, databaseLayout, config, logProvider, recoveryCleanupWorkCollector, cacheTracer );
 
             consistencyCheckApply = config.get( GraphDatabaseInternalSettings.consistency_check_on_apply );
+            parallelApplyPartitions = config.get( GraphDatabaseInternalSettings.parallel_apply_partitions );
+            log = logProvider.getLog( getClass() );
         }
         catch ( Throwable failure )
         {
@@ -352,6 +362,9 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
                 neoStores.getNodeStore(), neoStores.getPropertyStore(), this, schemaCache, initialBatch.cursorTracer(), otherMemoryTracker,
                 batchApplier.getIdUpdateListenerSupplier().get() ) )
         {
+            boolean recordsApplied = parallelRecordStoreApplier != null && mode != REVERSE_RECOVERY &&
+                    parallelRecordStoreApplier.applyRecords( batch, mode.version(), lockService( mode ), context );
+            long appliersStartNanos = System.nanoTime();
             while ( batch != null )
             {
                 try ( TransactionApplier txApplier = batchApplier.startTx( batch, context ) )
@@ -360,6 +373,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
                 }
                 batch = batch.next();
             }
+            if ( recordsApplied )
+            {
+                parallelRecordStoreApplier.recordStage( ParallelRecordStoreApplier.Stage.APPLIERS, System.nanoTime() - appliersStartNanos );
+            }
         }
         catch ( Throwable cause )
         {
@@ -389,6 +406,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     public void init()
     {
         buildApplierChains();
+        if ( parallelApplyPartitions > 1 && !consistencyCheckApply )
+        {
+            parallelRecordStoreApplier = new ParallelRecordStoreApplier( parallelApplyPartitions, neoStores, cacheTracer, jobScheduler );
+        }
     }
 
     @Override
@@ -420,6 +441,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     @Override
     public void shutdown() throws Exception
     {
+        if ( parallelRecordStoreApplier != null )
+        {
+            parallelRecordStoreApplier.logStatistics( log );
+        }
         executeAll( countsStore::close, neoStores::close );
     }
 
@@ -466,6 +491,12 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         return files;
     }
 
+    @VisibleForTesting
+    ParallelRecordStoreApplier parallelRecordStoreApplier()
+    {
+        return parallelRecordStoreApplier;
+    }
+
     /**
      * @return the underlying {@link NeoStores} which should <strong>ONLY</strong> be accessed by tests
      * until all tests are properly converted to not rely on access to {@link NeoStores}. Currently there
@@ -513,6 +544,19 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         return countsStore;
     }
 
+    @Override
+    public IdLocalityCounters idLocalityCounters( IdType idType )
+    {
+        for ( StoreType type : StoreType.values() )
+        {
+            if ( type.getIdType() == idType )
+            {
+                return neoStores.getIdLocalityCounters( type );
+            }
+        }
+        return StorageEngine.super.idLocalityCounters( idType );
+    }
+
     @Override
     public MetadataProvider metadataProvider()
     {
@@ -74,7 +74,10 @@ public class RelationshipGroupGetter
         {
             NodeRecord node = nodeChange.forChangingLinkage();
             assert node.isDense() : "Node " + node + " should have been dense at this point";
-            long id = idGenerator.nextId( cursorTracer );
+            // Place the new group close to the group it will be linked to, if any
+            RecordProxy<RelationshipGroupRecord, Integer> closestPreviousChange = existingGroup.closestPrevious();
+            long neighbourId = closestPreviousChange != null ? closestPreviousChange.getKey() : node.getNextRel();
+            long id = idGenerator.nextIdNear( neighbourId, cursorTracer );
             change = relGroupRecords.create( id, type, cursorTracer );
             RelationshipGroupRecord record = change.forChangingData();
             record.setInUse( true );
@@ -82,7 +85,6 @@ public class RelationshipGroupGetter
             record.setOwningNode( node.getId() );
 
             // Attach it...
-            RecordProxy<RelationshipGroupRecord, Integer> closestPreviousChange = existingGroup.closestPrevious();
             if ( closestPreviousChange != null )
             {   // ...after the closest previous one
                 RelationshipGroupRecord closestPrevious = closestPreviousChange.forChangingLinkage();
@@ -123,7 +123,8 @@ public abstract class AbstractDynamicStore extends CommonAbstractStore<DynamicRe
                 byte[] data = new byte[dataSize];
                 System.arraycopy( src, srcOffset, data, 0, dataSize );
                 record.setData( data );
-                nextRecord = dynamicRecordAllocator.nextRecord( cursorTracer );
+                // Keep the records of the value close to each other
+                nextRecord = dynamicRecordAllocator.nextRecordNear( record.getId(), cursorTracer );
                 record.setNextBlock( nextRecord.getId() );
                 srcOffset += dataSize;
             }
@@ -210,6 +211,12 @@ public abstract class AbstractDynamicStore extends CommonAbstractStore<DynamicRe
         return StandardDynamicRecordAllocator.allocateRecord( nextId( cursorTracer ) );
     }
 
+    @Override
+    public DynamicRecord nextRecordNear( long previousId, PageCursorTracer cursorTracer )
+    {
+        return StandardDynamicRecordAllocator.allocateRecord( nextIdNear( previousId, cursorTracer ) );
+    }
+
     void allocateRecordsFromBytes( Collection<DynamicRecord> target, byte[] src, PageCursorTracer cursorTracer, MemoryTracker memoryTracker )
     {
         allocateRecordsFromBytes( target, src, this, cursorTracer, memoryTracker );
@@ -40,6 +40,7 @@ import org.neo4j.internal.helpers.collection.Visitor;
 import org.neo4j.internal.id.FreeIds;
 import org.neo4j.internal.id.IdGenerator;
 import org.neo4j.internal.id.IdGeneratorFactory;
+import org.neo4j.internal.id.IdLocalityCounters;
 import org.neo4j.internal.id.IdSequence;
 import org.neo4j.internal.id.IdType;
 import org.neo4j.internal.id.IdValidator;
@@ -93,6 +94,7 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
     private int recordsPerPage;
     private int recordsEndOffset;
     private IdGenerator idGenerator;
+    private final IdLocalityCounters idLocalityCounters = new IdLocalityCounters();
     private boolean storeOk = true;
     private RuntimeException causeOfStoreNotOk;
 
@@ -483,6 +485,39 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
         return idGenerator.nextId( cursorTracer );
     }
 
+    /**
+     * Returns the next id for this store's {@link IdGenerator}, preferably one close to {@code nearId}.
+     * The resulting page distance to {@code nearId} is recorded in {@link #getIdLocalityCounters()}.
+     *
+     * @return The next free id
+     */
+    @Override
+    public long nextIdNear( long nearId, PageCursorTracer cursorTracer )
+    {
+        assertIdGeneratorInitialized();
+        long id = idGenerator.nextIdNear( nearId, cursorTracer );
+        if ( nearId >= 0 )
+        {
+            idLocalityCounters.allocated( pageIdForRecord( nearId ), pageIdForRecord( id ) );
+        }
+        return id;
+    }
+
+    @Override
+    public boolean canUseNearIdHint()
+    {
+        assertIdGeneratorInitialized();
+        return idGenerator.canUseNearIdHint();
+    }
+
+    /**
+     * @return counters for how close ids allocated with {@link #nextIdNear(long, PageCursorTracer)} ended up to their hints.
+     */
+    public IdLocalityCounters getIdLocalityCounters()
+    {
+        return idLocalityCounters;
+    }
+
     private void assertIdGeneratorInitialized()
     {
         if ( idGenerator == null )
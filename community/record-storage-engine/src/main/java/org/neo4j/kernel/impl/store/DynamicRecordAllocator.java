@@ -27,4 +27,17 @@ public interface DynamicRecordAllocator
     int getRecordDataSize();
 
     DynamicRecord nextRecord( PageCursorTracer cursorTracer );
+
+    /**
+     * Allocates the next record of a value, preferably close to the previous record of that same value, so that the records of a value
+     * end up on the same or nearby pages. Allocators are free to ignore the hint.
+     *
+     * @param previousId id of the previous record of the value.
+     * @param cursorTracer for tracing page accesses.
+     * @return the allocated record.
+     */
+    default DynamicRecord nextRecordNear( long previousId, PageCursorTracer cursorTracer )
+    {
+        return nextRecord( cursorTracer );
+    }
 }
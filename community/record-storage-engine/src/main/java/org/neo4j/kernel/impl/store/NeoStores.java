@@ -35,6 +35,7 @@ import org.neo4j.graphdb.config.Setting;
 import org.neo4j.internal.diagnostics.DiagnosticsLogger;
 import org.neo4j.internal.helpers.Exceptions;
 import org.neo4j.internal.id.IdGeneratorFactory;
+import org.neo4j.internal.id.IdLocalityCounters;
 import org.neo4j.internal.id.IdType;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
@@ -572,6 +573,15 @@ public class NeoStores implements AutoCloseable
         return getStore( type );
     }
 
+    /**
+     * @param type store to get the counters for.
+     * @return counters for how close ids allocated in the given store ended up to their locality hints.
+     */
+    public IdLocalityCounters getIdLocalityCounters( StoreType type )
+    {
+        return getStore( type ).getIdLocalityCounters();
+    }
+
     public RecordFormats getRecordFormats()
     {
         return recordFormats;
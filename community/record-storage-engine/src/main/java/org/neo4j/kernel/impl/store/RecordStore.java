@@ -402,6 +402,18 @@ public interface RecordStore<RECORD extends AbstractBaseRecord> extends IdSequen
             return actual.nextId( cursorTracer );
         }
 
+        @Override
+        public long nextIdNear( long nearId, PageCursorTracer cursorTracer )
+        {
+            return actual.nextIdNear( nearId, cursorTracer );
+        }
+
+        @Override
+        public boolean canUseNearIdHint()
+        {
+            return actual.canUseNearIdHint();
+        }
+
         @Override
         public Path getStorageFile()
         {
@@ -46,6 +46,12 @@ public class StandardDynamicRecordAllocator implements DynamicRecordAllocator
         return allocateRecord( idGenerator.nextId( cursorTracer ) );
     }
 
+    @Override
+    public DynamicRecord nextRecordNear( long previousId, PageCursorTracer cursorTracer )
+    {
+        return allocateRecord( idGenerator.nextIdNear( previousId, cursorTracer ) );
+    }
+
     public static DynamicRecord allocateRecord( long id )
     {
         DynamicRecord record = new DynamicRecord( id );
@@ -60,4 +60,11 @@ public class ReusableRecordsCompositeAllocator implements DynamicRecordAllocator
     {
         return reusableRecordsAllocator.hasNext() ? reusableRecordsAllocator.nextRecord( cursorTracer ) : recordAllocator.nextRecord( cursorTracer );
     }
+
+    @Override
+    public DynamicRecord nextRecordNear( long previousId, PageCursorTracer cursorTracer )
+    {
+        return reusableRecordsAllocator.hasNext() ? reusableRecordsAllocator.nextRecord( cursorTracer )
+                                                  : recordAllocator.nextRecordNear( previousId, cursorTracer );
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.counts;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.internal.helpers.Args;
+import org.neo4j.test.Race;
+
+import static org.neo4j.internal.counts.CountsKey.nodeKey;
+import static org.neo4j.internal.counts.CountsKey.relationshipKey;
+import static org.neo4j.resources.HeapAllocation.HEAP_ALLOCATION;
+import static org.neo4j.test.Race.throwing;
+
+/**
+ * Compares apply throughput, read throughput and allocation rate of count deltas in a {@link CountsDeltaMap}, applied the way
+ * {@link CountUpdater} applies them with a reused {@link CountsKey}, with that of a {@link ConcurrentHashMap} of {@link CountsKey} to
+ * {@link AtomicLong}, applied with a new key per delta as {@link GBPTreeCountsStore} used to do. Each round starts with an empty map,
+ * like a new generation of changes after a checkpoint does. Every applied transaction changes one node count and two relationship counts.
+ * <p>
+ * Options, all optional:
+ * <ul>
+ *     <li>{@code --threads} the number of applying threads, defaults to {@code 4}</li>
+ *     <li>{@code --labels} the number of distinct label and relationship type ids, defaults to {@code 20}</li>
+ *     <li>{@code --transactions} the number of transactions applied by each thread in each round, defaults to {@code 1000000}</li>
+ *     <li>{@code --rounds} the number of rounds for each map, where the first round is warmup, defaults to {@code 5}</li>
+ * </ul>
+ */
+public class CountsDeltaMapBenchmark
+{
+    public static void main( String[] arguments ) throws Throwable
+    {
+        Args args = Args.parse( arguments );
+        int threads = args.getNumber( "threads", 4 ).intValue();
+        int labels = args.getNumber( "labels", 20 ).intValue();
+        int transactions = args.getNumber( "transactions", 1_000_000 ).intValue();
+        int rounds = args.getNumber( "rounds", 5 ).intValue();
+
+        for ( boolean primitive : new boolean[]{false, true} )
+        {
+            for ( int round = 0; round < rounds; round++ )
+            {
+                DeltaMap map = primitive ? new PrimitiveDeltaMap() : new ConcurrentHashDeltaMap();
+                AtomicLong allocatedBytes = new AtomicLong();
+                long applyNanos = race( threads, thread ->
+                {
+                    long allocatedBefore = HEAP_ALLOCATION.allocatedBytes( Thread.currentThread() );
+                    SplittableRandom random = new SplittableRandom( thread );
+                    CountsKey key = new CountsKey();
+                    for ( int tx = 0; tx < transactions; tx++ )
+                    {
+                        int label = random.nextInt( labels );
+                        int type = random.nextInt( labels );
+                        int otherLabel = random.nextInt( labels );
+                        map.addNode( key, label, 1 );
+                        map.addRelationship( key, label, type, otherLabel, 1 );
+                        map.addRelationship( key, -1, type, otherLabel, 1 );
+                    }
+                    allocatedBytes.addAndGet( HEAP_ALLOCATION.allocatedBytes( Thread.currentThread() ) - allocatedBefore );
+                } );
+                long readNanos = race( threads, thread ->
+                {
+                    SplittableRandom random = new SplittableRandom( thread );
+                    long sum = 0;
+                    for ( int tx = 0; tx < transactions; tx++ )
+                    {
+                        sum += map.getNode( random.nextInt( labels ) );
+                        sum += map.getRelationship( random.nextInt( labels ), random.nextInt( labels ), random.nextInt( labels ) );
+                    }
+                    if ( sum < 0 )
+                    {
+                        throw new IllegalStateException( "Negative sum " + sum );
+                    }
+                } );
+                long deltas = 3L * transactions * threads;
+                long reads = 2L * transactions * threads;
+                System.out.printf( "%s%s: %.0f deltas/ms, %.1f allocated bytes/delta, %.0f reads/ms%n", primitive ? "CountsDeltaMap" : "ConcurrentHashMap",
+                        round == 0 ? " (warmup)" : "", deltas / (applyNanos / 1_000_000D), (double) allocatedBytes.get() / deltas,
+                        reads / (readNanos / 1_000_000D) );
+            }
+        }
+    }
+
+    private static long race( int threads, ThreadTask task ) throws Throwable
+    {
+        Race race = new Race();
+        for ( int thread = 0; thread < threads; thread++ )
+        {
+            int threadId = thread;
+            race.addContestant( throwing( () -> task.run( threadId ) ) );
+        }
+        long start = System.nanoTime();
+        race.go();
+        return System.nanoTime() - start;
+    }
+
+    private interface ThreadTask
+    {
+        void run( int thread ) throws Exception;
+    }
+
+    private interface DeltaMap
+    {
+        void addNode( CountsKey reusableKey, int labelId, long delta );
+
+        void addRelationship( CountsKey reusableKey, int startLabelId, int typeId, int endLabelId, long delta );
+
+        long getNode( int labelId );
+
+        long getRelationship( int startLabelId, int typeId, int endLabelId );
+    }
+
+    private static class ConcurrentHashDeltaMap implements DeltaMap
+    {
+        private final ConcurrentHashMap<CountsKey,AtomicLong> changes = new ConcurrentHashMap<>();
+
+        @Override
+        public void addNode( CountsKey reusableKey, int labelId, long delta )
+        {
+            changes.computeIfAbsent( nodeKey( labelId ), k -> new AtomicLong() ).addAndGet( delta );
+        }
+
+        @Override
+        public void addRelationship( CountsKey reusableKey, int startLabelId, int typeId, int endLabelId, long delta )
+        {
+            changes.computeIfAbsent( relationshipKey( startLabelId, typeId, endLabelId ), k -> new AtomicLong() ).addAndGet( delta );
+        }
+
+        @Override
+        public long getNode( int labelId )
+        {
+            AtomicLong count = changes.get( nodeKey( labelId ) );
+            return count != null ? count.get() : 0;
+        }
+
+        @Override
+        public long getRelationship( int startLabelId, int typeId, int endLabelId )
+        {
+            AtomicLong count = changes.get( relationshipKey( startLabelId, typeId, endLabelId ) );
+            return count != null ? count.get() : 0;
+        }
+    }
+
+    private static class PrimitiveDeltaMap implements DeltaMap
+    {
+        private final CountsDeltaMap changes = new CountsDeltaMap();
+
+        @Override
+        public void addNode( CountsKey reusableKey, int labelId, long delta )
+        {
+            changes.add( reusableKey.initializeNode( labelId ), delta );
+        }
+
+        @Override
+        public void addRelationship( CountsKey reusableKey, int startLabelId, int typeId, int endLabelId, long delta )
+        {
+            changes.add( reusableKey.initializeRelationship( startLabelId, typeId, endLabelId ), delta );
+        }
+
+        @Override
+        public long getNode( int labelId )
+        {
+            return changes.get( nodeKey( labelId ) );
+        }
+
+        @Override
+        public long getRelationship( int startLabelId, int typeId, int endLabelId )
+        {
+            return changes.get( relationshipKey( startLabelId, typeId, endLabelId ) );
+        }
+    }
+}
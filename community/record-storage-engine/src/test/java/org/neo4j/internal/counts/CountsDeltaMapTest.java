@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.counts;
+
+import org.apache.commons.lang3.mutable.MutableInt;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+import org.neo4j.test.Race;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.rule.RandomRule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.internal.counts.CountsKey.nodeKey;
+import static org.neo4j.internal.counts.CountsKey.relationshipKey;
+import static org.neo4j.test.Race.throwing;
+
+@ExtendWith( RandomExtension.class )
+class CountsDeltaMapTest
+{
+    @Inject
+    private RandomRule random;
+
+    private final CountsDeltaMap map = new CountsDeltaMap();
+
+    @Test
+    void shouldAddAndGetDeltas()
+    {
+        // when
+        map.add( nodeKey( 1 ), 5 );
+        map.add( nodeKey( 1 ), -2 );
+        map.add( relationshipKey( 1, 2, 3 ), 7 );
+
+        // then
+        assertEquals( 3, map.get( nodeKey( 1 ) ) );
+        assertEquals( 7, map.get( relationshipKey( 1, 2, 3 ) ) );
+        assertEquals( 0, map.get( nodeKey( 2 ) ) );
+        assertEquals( 0, map.get( relationshipKey( 3, 2, 1 ) ) );
+        assertTrue( map.contains( nodeKey( 1 ) ) );
+        assertFalse( map.contains( nodeKey( 2 ) ) );
+    }
+
+    @Test
+    void shouldLoadCountOnlyIfAbsent()
+    {
+        // given
+        MutableInt loads = new MutableInt();
+        ToLongFunction<CountsKey> loader = key ->
+        {
+            loads.increment();
+            return key.first * 10;
+        };
+
+        // when
+        long first = map.getOrLoad( nodeKey( 3 ), loader );
+        long second = map.getOrLoad( nodeKey( 3 ), loader );
+        map.add( nodeKey( 4 ), 1 );
+        long existing = map.getOrLoad( nodeKey( 4 ), loader );
+
+        // then
+        assertEquals( 30, first );
+        assertEquals( 30, second );
+        assertEquals( 1, existing );
+        assertEquals( 1, loads.intValue() );
+        assertEquals( 30, map.get( nodeKey( 3 ) ) );
+    }
+
+    @Test
+    void shouldContainKeyWithDeltasSummingUpToZero()
+    {
+        // when
+        map.add( nodeKey( 1 ), 5 );
+        map.add( nodeKey( 1 ), -5 );
+
+        // then
+        assertTrue( map.contains( nodeKey( 1 ) ) );
+        assertEquals( 0, map.get( nodeKey( 1 ) ) );
+    }
+
+    @Test
+    void shouldNotRetainAddedKeyInstance()
+    {
+        // given
+        CountsKey key = new CountsKey();
+
+        // when
+        map.add( key.initializeNode( 1 ), 1 );
+        map.add( key.initializeNode( 2 ), 2 );
+        map.add( key.initializeRelationship( 1, 2, 3 ), 3 );
+
+        // then
+        assertEquals( 1, map.get( nodeKey( 1 ) ) );
+        assertEquals( 2, map.get( nodeKey( 2 ) ) );
+        assertEquals( 3, map.get( relationshipKey( 1, 2, 3 ) ) );
+    }
+
+    @Test
+    void shouldDistinguishKeysWithSameDataButDifferentTypes()
+    {
+        // when
+        map.add( nodeKey( 5 ), 1 );
+        map.add( CountsKey.strayTxId( 5 ), 2 );
+
+        // then
+        assertEquals( 1, map.get( nodeKey( 5 ) ) );
+        assertEquals( 2, map.get( CountsKey.strayTxId( 5 ) ) );
+    }
+
+    @Test
+    void shouldHandleNegativeTokenIds()
+    {
+        // when
+        map.add( nodeKey( -1 ), 1 );
+        map.add( relationshipKey( -1, -1, -1 ), 2 );
+        map.add( relationshipKey( -1, 5, -1 ), 3 );
+
+        // then
+        assertEquals( 1, map.get( nodeKey( -1 ) ) );
+        assertEquals( 2, map.get( relationshipKey( -1, -1, -1 ) ) );
+        assertEquals( 3, map.get( relationshipKey( -1, 5, -1 ) ) );
+    }
+
+    @Test
+    void shouldGrowAndVisitAllEntries()
+    {
+        // given
+        Map<CountsKey,Long> expected = new HashMap<>();
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            CountsKey key = random.nextBoolean() ? nodeKey( random.nextInt( 1_000 ) ) :
+                            relationshipKey( random.nextInt( 100 ) - 1, random.nextInt( 100 ) - 1, random.nextInt( 100 ) - 1 );
+            long delta = random.nextInt( 100 ) - 10;
+            map.add( key, delta );
+            expected.merge( key, delta, Long::sum );
+        }
+
+        // when
+        Map<CountsKey,Long> visited = new HashMap<>();
+        map.visit( ( key, delta ) -> assertThat( visited.put( key, delta ) ).isNull() );
+
+        // then
+        assertEquals( expected, visited );
+        expected.forEach( ( key, delta ) -> assertEquals( delta.longValue(), map.get( key ) ) );
+    }
+
+    @Test
+    void shouldAddDeltasConcurrently() throws Throwable
+    {
+        // given
+        int threads = 8;
+        int keys = 2_000;
+        ConcurrentHashMap<CountsKey,AtomicLong> expected = new ConcurrentHashMap<>();
+        Race race = new Race();
+        race.addContestants( threads, throwing( () ->
+        {
+            ThreadLocalRandom rng = ThreadLocalRandom.current();
+            CountsKey key = new CountsKey();
+            for ( int i = 0; i < 10_000; i++ )
+            {
+                int id = rng.nextInt( keys );
+                long delta = rng.nextInt( 10 ) + 1;
+                map.add( key.initializeRelationship( id, id % 7, -1 ), delta );
+                expected.computeIfAbsent( relationshipKey( id, id % 7, -1 ), k -> new AtomicLong() ).addAndGet( delta );
+
+                // and reads during concurrent growth should never see a key go missing
+                assertTrue( map.contains( key ) );
+            }
+        } ) );
+
+        // when
+        race.go();
+
+        // then
+        expected.forEach( ( key, delta ) -> assertEquals( delta.get(), map.get( key ) ) );
+        AtomicLong visitedEntries = new AtomicLong();
+        map.visit( ( key, delta ) -> visitedEntries.incrementAndGet() );
+        assertEquals( expected.size(), visitedEntries.get() );
+    }
+}
@@ -48,10 +48,14 @@ import org.neo4j.internal.helpers.Exceptions;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PinEvent;
+import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.memory.MemoryTracker;
+import org.neo4j.test.Barrier;
 import org.neo4j.test.OtherThreadExecutor;
 import org.neo4j.test.Race;
 import org.neo4j.test.extension.Inject;
@@ -192,6 +196,31 @@ class GBPTreeCountsStoreTest
         assertThat( cursorTracer.hits() ).isEqualTo( 3 );
     }
 
+    @Test
+    void shouldReadCachedCountsOfAppliedAndCheckpointedKeys() throws IOException
+    {
+        // given
+        incrementNodeCount( BASE_TX_ID + 1, LABEL_ID_1, 10 );
+        var pageCacheTracer = new DefaultPageCacheTracer();
+        var cursorTracer = pageCacheTracer.createPageCursorTracer( "shouldReadCachedCountsOfAppliedAndCheckpointedKeys" );
+
+        // when/then
+        assertEquals( 10, countsStore.nodeCount( LABEL_ID_1, cursorTracer ) );
+        assertEquals( 10, countsStore.nodeCount( LABEL_ID_1, cursorTracer ) );
+        assertZeroTracer( cursorTracer );
+
+        // when/then
+        countsStore.checkpoint( UNLIMITED, NULL );
+        incrementNodeCount( BASE_TX_ID + 2, LABEL_ID_1, 5 );
+        assertEquals( 15, countsStore.nodeCount( LABEL_ID_1, cursorTracer ) );
+        assertZeroTracer( cursorTracer );
+
+        // when/then a count not in the cache is read from the tree once
+        assertEquals( 0, countsStore.nodeCount( LABEL_ID_2, cursorTracer ) );
+        assertEquals( 0, countsStore.nodeCount( LABEL_ID_2, cursorTracer ) );
+        assertThat( cursorTracer.pins() ).isEqualTo( 1 );
+    }
+
     @Test
     void shouldUpdateAndReadSomeCounts() throws IOException
     {
@@ -442,41 +471,139 @@ class GBPTreeCountsStoreTest
     }
 
     @Test
-    void checkpointShouldBlockApplyingNewTransactions() throws Exception
+    void checkpointShouldNotBlockApplyingNewTransactions() throws Exception
     {
         // given
-        CountsAccessor.Updater updaterBeforeCheckpoint = countsStore.apply( BASE_TX_ID + 1, NULL );
+        incrementNodeCount( BASE_TX_ID + 1, LABEL_ID_1, 10 );
+        CountsAccessor.Updater updaterBeforeCheckpoint = countsStore.apply( BASE_TX_ID + 2, NULL );
+        updaterBeforeCheckpoint.incrementNodeCount( LABEL_ID_1, 5 );
 
-        final AtomicReference<CountsAccessor.Updater> updater = new AtomicReference<>();
-        try ( OtherThreadExecutor checkpointer = new OtherThreadExecutor( "Checkpointer", 1, MINUTES );
-              OtherThreadExecutor applier = new OtherThreadExecutor( "Applier", 1, MINUTES ) )
+        try ( OtherThreadExecutor checkpointer = new OtherThreadExecutor( "Checkpointer", 1, MINUTES ) )
         {
             // when
             Future<Object> checkpoint = checkpointer.executeDontWait( command( () -> countsStore.checkpoint( UNLIMITED, NULL ) ) );
             checkpointer.waitUntilWaiting();
 
-            // and when trying to open another applier it must wait
-            Future<Void> applierAfterCheckpoint = applier.executeDontWait( () ->
+            // then transactions can be applied and closed while the checkpoint is waiting for the applier before it
+            long txId = BASE_TX_ID + 2;
+            for ( int i = 0; i < 1_000; i++ )
             {
-                updater.set( countsStore.apply( BASE_TX_ID + 2, NULL ) );
-                return null;
-            } );
-            applier.waitUntilWaiting();
+                incrementNodeCount( ++txId, LABEL_ID_2, 1 );
+            }
             assertFalse( checkpoint.isDone() );
-            assertFalse( applierAfterCheckpoint.isDone() );
+            assertEquals( 1_000, countsStore.nodeCount( LABEL_ID_2, NULL ) );
 
-            // then when closing first updater the checkpoint should be able to complete
+            // and when closing the updater before the checkpoint the checkpoint should be able to complete
             updaterBeforeCheckpoint.close();
             checkpoint.get();
+        }
+
+        // then
+        assertEquals( 15, countsStore.nodeCount( LABEL_ID_1, NULL ) );
+        assertEquals( 1_000, countsStore.nodeCount( LABEL_ID_2, NULL ) );
+        checkpointAndRestartCountsStore();
+        assertEquals( 15, countsStore.nodeCount( LABEL_ID_1, NULL ) );
+        assertEquals( 1_000, countsStore.nodeCount( LABEL_ID_2, NULL ) );
+    }
+
+    @Test
+    void shouldNotStallCommitsWhileCheckpointIsWritingChanges() throws Exception
+    {
+        // given a generation of changes big enough to make the checkpoint write a number of tree pages
+        long txId = BASE_TX_ID;
+        try ( CountsAccessor.Updater updater = countsStore.apply( ++txId, NULL ) )
+        {
+            for ( int t = 0; t < HIGH_TOKEN_ID; t++ )
+            {
+                for ( int e = 0; e < HIGH_TOKEN_ID; e++ )
+                {
+                    updater.incrementRelationshipCount( LABEL_ID_1, t, e, 10 );
+                }
+            }
+        }
 
-            // and then also the applier after the checkpoint should be able to continue
-            applierAfterCheckpoint.get();
-            applier.execute( () ->
+        // and a checkpoint which gets paused in the middle of writing its changes to the tree
+        Barrier.Control barrier = new Barrier.Control();
+        AtomicLong writePins = new AtomicLong();
+        PageCursorTracer pausingCursorTracer = new DefaultPageCursorTracer( PageCacheTracer.NULL, "pausingCheckpoint" )
+        {
+            @Override
+            public PinEvent beginPin( boolean writeLock, long filePageId, PageSwapper swapper )
             {
-                updater.get().close();
-                return null;
+                if ( writeLock && writePins.incrementAndGet() == 2 )
+                {
+                    barrier.reached();
+                }
+                return super.beginPin( writeLock, filePageId, swapper );
+            }
+        };
+        try ( OtherThreadExecutor checkpointer = new OtherThreadExecutor( "Checkpointer", 1, MINUTES );
+              OtherThreadExecutor applier = new OtherThreadExecutor( "Applier", 1, MINUTES ) )
+        {
+            Future<Object> checkpoint = checkpointer.executeDontWait( command( () -> countsStore.checkpoint( UNLIMITED, pausingCursorTracer ) ) );
+            barrier.await();
+
+            // when committing transactions while the checkpoint is paused
+            long firstTxId = txId + 1;
+            Future<Long> applying = applier.executeDontWait( () ->
+            {
+                long maxLatency = 0;
+                for ( long id = firstTxId; id < firstTxId + 1_000; id++ )
+                {
+                    long start = System.nanoTime();
+                    incrementNodeCount( id, LABEL_ID_2, 1 );
+                    maxLatency = Math.max( maxLatency, System.nanoTime() - start );
+                }
+                return maxLatency;
             } );
+
+            // then they all complete without waiting for the checkpoint
+            long maxLatency = applying.get( 1, MINUTES );
+            assertThat( maxLatency ).isLessThan( TimeUnit.SECONDS.toNanos( 10 ) );
+            assertFalse( checkpoint.isDone() );
+
+            // (readers are not asserted here since the paused writer still has its current page write locked)
+            barrier.release();
+            checkpoint.get();
+        }
+
+        // then
+        assertEquals( 1_000, countsStore.nodeCount( LABEL_ID_2, NULL ) );
+        for ( int t = 0; t < HIGH_TOKEN_ID; t++ )
+        {
+            assertEquals( 10, countsStore.relationshipCount( LABEL_ID_1, t, LABEL_ID_2, NULL ) );
+        }
+        checkpointAndRestartCountsStore();
+        assertEquals( 1_000, countsStore.nodeCount( LABEL_ID_2, NULL ) );
+        assertEquals( 10, countsStore.relationshipCount( LABEL_ID_1, RELATIONSHIP_TYPE_ID_1, LABEL_ID_2, NULL ) );
+    }
+
+    @Test
+    void shouldNotMarkTransactionsAppliedDuringCheckpointAsCheckpointed() throws Exception
+    {
+        // given
+        CountsAccessor.Updater updaterBeforeCheckpoint = countsStore.apply( BASE_TX_ID + 2, NULL );
+        updaterBeforeCheckpoint.incrementNodeCount( LABEL_ID_1, 5 );
+
+        try ( OtherThreadExecutor checkpointer = new OtherThreadExecutor( "Checkpointer", 1, MINUTES ) )
+        {
+            Future<Object> checkpoint = checkpointer.executeDontWait( command( () -> countsStore.checkpoint( UNLIMITED, NULL ) ) );
+            checkpointer.waitUntilWaiting();
+
+            // when applying a transaction with lower id while check-pointing
+            incrementNodeCount( BASE_TX_ID + 1, LABEL_ID_2, 3 );
+            updaterBeforeCheckpoint.close();
+            checkpoint.get();
         }
+        crashAndRestartCountsStore();
+
+        // then only the transaction applied before the checkpoint was check-pointed
+        assertEquals( 5, countsStore.nodeCount( LABEL_ID_1, NULL ) );
+        assertEquals( 0, countsStore.nodeCount( LABEL_ID_2, NULL ) );
+        incrementNodeCount( BASE_TX_ID + 2, LABEL_ID_1, 5 );
+        incrementNodeCount( BASE_TX_ID + 1, LABEL_ID_2, 3 );
+        assertEquals( 5, countsStore.nodeCount( LABEL_ID_1, NULL ) );
+        assertEquals( 3, countsStore.nodeCount( LABEL_ID_2, NULL ) );
     }
 
     @Test
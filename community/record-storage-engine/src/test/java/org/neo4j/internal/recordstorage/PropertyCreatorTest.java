@@ -23,8 +23,13 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+
 import org.neo4j.configuration.Config;
 import org.neo4j.internal.id.DefaultIdGeneratorFactory;
+import org.neo4j.internal.id.IdGenerator;
+import org.neo4j.internal.id.IdGenerator.Marker;
+import org.neo4j.internal.id.IdLocalityCounters;
 import org.neo4j.internal.recordstorage.RecordAccess.RecordProxy;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
@@ -149,6 +154,49 @@ class PropertyCreatorTest
                 record( property( 4, 4 ), property( 5, 5 ), property( 6, 6 ), property( 7, 7 ) ) );
     }
 
+    @Test
+    void shouldPlaceNewPropertyRecordCloseToExistingChain() throws IOException
+    {
+        // GIVEN a chain living far away from the lowest free id
+        neoStores.start( NULL );
+        IdGenerator idGenerator = propertyStore.getIdGenerator();
+        try ( Marker marker = idGenerator.marker( NULL ) )
+        {
+            for ( int i = 0; i < 300; i++ )
+            {
+                marker.markUsed( idGenerator.nextId( NULL ) );
+            }
+        }
+        for ( long id : new long[]{5, 290} )
+        {
+            try ( Marker marker = idGenerator.marker( NULL ) )
+            {
+                marker.markDeleted( id );
+            }
+            try ( Marker marker = idGenerator.marker( NULL ) )
+            {
+                marker.markFree( id );
+            }
+        }
+        PropertyRecord existing = records.create( 280, primitive.record, NULL ).forChangingData();
+        existing.setInUse( true );
+        existingRecord( existing, record( property( 0, 0 ), property( 1, 1 ), property( 2, 2 ), property( 3, 3 ) ) );
+        primitive.record.setNextProp( existing.getId() );
+
+        // WHEN
+        setProperty( 10, 10 );
+
+        // THEN
+        assertEquals( 290, primitive.record.getNextProp() );
+        assertChain(
+                record( property( 10, 10 ) ),
+                record( property( 0, 0 ), property( 1, 1 ), property( 2, 2 ), property( 3, 3 ) ) );
+        IdLocalityCounters locality = propertyStore.getIdLocalityCounters();
+        assertEquals( 1, locality.allocations() );
+        assertEquals( 1, locality.samePageAllocations() );
+        assertEquals( 0, locality.averagePageDistance() );
+    }
+
     @Test
     void shouldAddPropertyToChainContainingOtherNonFullRecords()
     {
@@ -35,6 +35,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import org.neo4j.configuration.GraphDatabaseInternalSettings;
 import org.neo4j.exceptions.KernelException;
 import org.neo4j.exceptions.UnderlyingStorageException;
 import org.neo4j.internal.helpers.collection.Visitor;
@@ -45,7 +46,10 @@ import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.api.exceptions.Status;
 import org.neo4j.kernel.impl.store.IdUpdateListener;
+import org.neo4j.kernel.impl.store.NodeStore;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RecordLoad;
 import org.neo4j.lock.Lock;
 import org.neo4j.lock.LockService;
 import org.neo4j.monitoring.DatabaseHealth;
@@ -65,6 +69,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
@@ -223,6 +228,93 @@ class RecordStorageEngineTest
         inOrder.verifyNoMoreInteractions();
     }
 
+    @Test
+    void shouldApplyRecordsOfNonConflictingBatchInParallel() throws Exception
+    {
+        // given
+        RecordStorageEngine engine = recordStorageEngineBuilder()
+                .setting( GraphDatabaseInternalSettings.parallel_apply_partitions, 4 )
+                .build();
+        GroupOfCommands first = new GroupOfCommands( 2, createNodes( 0, 1024 ) );
+        first.next = new GroupOfCommands( 3, createNodes( 1024, 2048 ) );
+
+        // when
+        engine.apply( first, TransactionApplicationMode.EXTERNAL );
+
+        // then
+        NodeStore nodeStore = engine.testAccessNeoStores().getNodeStore();
+        for ( long nodeId = 0; nodeId < 2048; nodeId++ )
+        {
+            assertTrue( nodeStore.getRecord( nodeId, nodeStore.newRecord(), RecordLoad.NORMAL, NULL ).inUse() );
+        }
+        assertEquals( 2048, nodeStore.getHighId() );
+        ParallelRecordStoreApplier parallelApplier = engine.parallelRecordStoreApplier();
+        assertEquals( 1, parallelApplier.parallelBatches() );
+        assertEquals( 0, parallelApplier.serialBatches() );
+    }
+
+    @Test
+    void shouldApplyBatchSeriallyWhenRecordIsChangedByMoreThanOneTransaction() throws Exception
+    {
+        // given
+        RecordStorageEngine engine = recordStorageEngineBuilder()
+                .setting( GraphDatabaseInternalSettings.parallel_apply_partitions, 4 )
+                .build();
+        GroupOfCommands first = new GroupOfCommands( 2, createNodes( 0, 2048 ) );
+        NodeRecord before = new NodeRecord( 0 ).initialize( true, -1, false, -1, 0 );
+        NodeRecord after = new NodeRecord( 0 ).initialize( true, -1, false, 10, 0 );
+        first.next = new GroupOfCommands( 3, new Command.NodeCommand( before, after ) );
+
+        // when
+        engine.apply( first, TransactionApplicationMode.EXTERNAL );
+
+        // then
+        NodeStore nodeStore = engine.testAccessNeoStores().getNodeStore();
+        assertEquals( 10, nodeStore.getRecord( 0, nodeStore.newRecord(), RecordLoad.NORMAL, NULL ).getNextRel() );
+        assertTrue( nodeStore.getRecord( 2047, nodeStore.newRecord(), RecordLoad.NORMAL, NULL ).inUse() );
+        ParallelRecordStoreApplier parallelApplier = engine.parallelRecordStoreApplier();
+        assertEquals( 0, parallelApplier.parallelBatches() );
+        assertEquals( 1, parallelApplier.serialBatches() );
+    }
+
+    @Test
+    void shouldApplyBatchSeriallyWhenEntityIsChangedByMoreThanOneTransaction() throws Exception
+    {
+        // given a batch where the second transaction adds a property record to a node that the first transaction creates
+        RecordStorageEngine engine = recordStorageEngineBuilder()
+                .setting( GraphDatabaseInternalSettings.parallel_apply_partitions, 4 )
+                .build();
+        GroupOfCommands first = new GroupOfCommands( 2, createNodes( 0, 2048 ) );
+        PropertyRecord after = new PropertyRecord( 5 );
+        after.setNodeId( 0 );
+        after.setInUse( true );
+        after.setCreated();
+        first.next = new GroupOfCommands( 3, new Command.PropertyCommand( new PropertyRecord( 5 ), after ) );
+
+        // when
+        engine.apply( first, TransactionApplicationMode.EXTERNAL );
+
+        // then
+        NodeStore nodeStore = engine.testAccessNeoStores().getNodeStore();
+        assertTrue( nodeStore.getRecord( 0, nodeStore.newRecord(), RecordLoad.NORMAL, NULL ).inUse() );
+        assertEquals( 6, engine.testAccessNeoStores().getPropertyStore().getHighId() );
+        ParallelRecordStoreApplier parallelApplier = engine.parallelRecordStoreApplier();
+        assertEquals( 0, parallelApplier.parallelBatches() );
+        assertEquals( 1, parallelApplier.serialBatches() );
+    }
+
+    private static StorageCommand[] createNodes( long fromNodeId, long toNodeId )
+    {
+        StorageCommand[] commands = new StorageCommand[(int) (toNodeId - fromNodeId)];
+        for ( long nodeId = fromNodeId; nodeId < toNodeId; nodeId++ )
+        {
+            NodeRecord after = new NodeRecord( nodeId ).initialize( true, -1, false, -1, 0 );
+            after.setCreated();
+            commands[(int) (nodeId - fromNodeId)] = new Command.NodeCommand( new NodeRecord( nodeId ), after );
+        }
+        return commands;
+    }
+
     private RecordStorageEngine buildRecordStorageEngine()
     {
         return recordStorageEngineBuilder().build();
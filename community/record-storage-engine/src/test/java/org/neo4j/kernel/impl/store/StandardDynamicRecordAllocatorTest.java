@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) "Neo4j"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.internal.id.IdSequence;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer.NULL;
+import static org.neo4j.memory.EmptyMemoryTracker.INSTANCE;
+
+class StandardDynamicRecordAllocatorTest
+{
+    @Test
+    void shouldOnlyAllocateRecordsNearThePreviousRecordOfTheSameValue()
+    {
+        // given
+        IdSequence idSequence = mock( IdSequence.class );
+        when( idSequence.nextId( NULL ) ).thenReturn( 10L, 20L );
+        when( idSequence.nextIdNear( anyLong(), eq( NULL ) ) ).thenAnswer( invocation -> invocation.<Long>getArgument( 0 ) + 1 );
+        StandardDynamicRecordAllocator allocator = new StandardDynamicRecordAllocator( idSequence, 4 );
+
+        // when
+        List<DynamicRecord> first = new ArrayList<>();
+        List<DynamicRecord> second = new ArrayList<>();
+        AbstractDynamicStore.allocateRecordsFromBytes( first, new byte[12], allocator, NULL, INSTANCE );
+        AbstractDynamicStore.allocateRecordsFromBytes( second, new byte[12], allocator, NULL, INSTANCE );
+
+        // then
+        assertThat( first ).extracting( DynamicRecord::getId ).containsExactly( 10L, 11L, 12L );
+        assertThat( second ).extracting( DynamicRecord::getId ).containsExactly( 20L, 21L, 22L );
+        InOrder inOrder = inOrder( idSequence );
+        inOrder.verify( idSequence ).nextId( NULL );
+        inOrder.verify( idSequence ).nextIdNear( 10, NULL );
+        inOrder.verify( idSequence ).nextIdNear( 11, NULL );
+        inOrder.verify( idSequence ).nextId( NULL );
+        inOrder.verify( idSequence ).nextIdNear( 20, NULL );
+        inOrder.verify( idSequence ).nextIdNear( 21, NULL );
+        inOrder.verifyNoMoreInteractions();
+    }
+}
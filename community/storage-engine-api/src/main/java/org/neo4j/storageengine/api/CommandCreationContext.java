@@ -44,6 +44,18 @@ public interface CommandCreationContext extends AutoCloseable
      */
     long reserveRelationship();
 
+    /**
+     * Reserves a relationship id for future use to store a relationship which will be connected to {@code sourceNode}.
+     * Implementations may use the node as a hint to place the relationship close to other relationships of that node.
+     *
+     * @param sourceNode id of the node the relationship will be connected to.
+     * @return a reserved relationship id for future use.
+     */
+    default long reserveRelationship( long sourceNode )
+    {
+        return reserveRelationship();
+    }
+
     /**
      * Reserves an id for a schema record, be it for a constraint or an index, for future use to store a schema record. The reason for it being exposed here
      * is that the record ids are used for producing unique names for indexes, which we would like to do before we get to the prepare phase
@@ -25,6 +25,8 @@ import java.util.Collection;
 import org.neo4j.counts.CountsAccessor;
 import org.neo4j.exceptions.KernelException;
 import org.neo4j.internal.diagnostics.DiagnosticsLogger;
+import org.neo4j.internal.id.IdLocalityCounters;
+import org.neo4j.internal.id.IdType;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.kernel.lifecycle.Lifecycle;
@@ -160,6 +162,16 @@ public interface StorageEngine extends Lifecycle
 
     CountsAccessor countsAccessor();
 
+    /**
+     * @param idType type of ids to get the counters for.
+     * @return counters for how close ids of the given type ended up to the records they were requested to be near,
+     * see {@link org.neo4j.internal.id.IdSequence#nextIdNear(long, PageCursorTracer)}.
+     */
+    default IdLocalityCounters idLocalityCounters( IdType idType )
+    {
+        return new IdLocalityCounters();
+    }
+
     /**
      * Creates a new {@link StorageReader} for reading committed data from the underlying storage.
      * The returned instance is intended to be used by one transaction at a time, although can and should be reused
@@ -62,6 +62,13 @@ public class AdversarialPagedFile implements PagedFile
         return new AdversarialWritePageCursor( pageCursor, adversary );
     }
 
+    @Override
+    public int touch( long pageId, int count, PageCursorTracer tracer ) throws IOException
+    {
+        adversary.injectFailure( NoSuchFileException.class, IOException.class, SecurityException.class );
+        return delegate.touch( pageId, count, tracer );
+    }
+
     @Override
     public int pageSize()
     {
@@ -40,6 +40,12 @@ public class DelegatingPagedFile implements PagedFile
         return delegate.io( pageId, pf_flags, tracer );
     }
 
+    @Override
+    public int touch( long pageId, int count, PageCursorTracer tracer ) throws IOException
+    {
+        return delegate.touch( pageId, count, tracer );
+    }
+
     @Override
     public void flushAndForce() throws IOException
     {
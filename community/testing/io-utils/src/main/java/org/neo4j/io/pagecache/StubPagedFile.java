@@ -49,6 +49,12 @@ public class StubPagedFile implements PagedFile
     {
     }
 
+    @Override
+    public int touch( long pageId, int count, PageCursorTracer tracer )
+    {
+        return 0;
+    }
+
     @Override
     public int pageSize()
     {